@@ -124,6 +124,13 @@ use Getopt::Long;
     "showsql"           => \$opt_showSQL,
     "debug"             => \$opt_debug,
     "debugMode"         => \$opt_debug,
+    "partitions:s"      => \$opt_partitions,
+    "partitionTable:s"  => \$opt_partitionTable,
+    "addPartitions:s"   => \$opt_addPartitions,
+    "dropOldPartitions:s" => \$opt_dropOldPartitions,
+    "from:s"            => \$opt_from,      # --- used by '-partitionTable' only
+    "count:i"           => \$opt_count,     # --- used by '-partitionTable'/'-addPartitions' only
+    "confirmDelete"     => \$opt_confirmDelete, # --- used by '-dropOldPartitions' only
     "bean:s"            => \$opt_bean,      # -- experimental
   # "reload:s"          => \$opt_reload,    # --- shortcut for dump/drop/load
   # "hibxml:s"          => \$opt_hibernate, # -- experimental
@@ -167,6 +174,12 @@ if (!$optok || $opt_help) {
     print "  Drop (delete) table from database [WARNING: Also deletes data!]:\n";
     print "    -drop=<table> [-yes]\n";
     print "\n";
+    print "  Time-range partitions (MySQL):\n";
+    print "    -partitions=<table>\n";
+    print "    -partitionTable=<table> [-from=<time>] [-count=<future>]\n";
+    print "    -addPartitions=<table> [-count=<future>]\n";
+    print "    -dropOldPartitions=<time> [-confirmDelete]   (EventData)\n";
+    print "\n";
     exit(1);
 }
 
@@ -442,6 +455,38 @@ if (defined $opt_status) {
     $optFound = $true;
 }
 
+# --- display/create/drop time-range partitions
+if ((defined $opt_partitions) || (defined $opt_partitionTable) || (defined $opt_addPartitions)) {
+    my $rtnErr = 0;
+    my $cmd = $Command;
+    if (defined $opt_partitionTable) {
+        $cmd .= " -partitionTable=$opt_partitionTable";
+        if (defined $opt_from) { $cmd .= " -from=$opt_from"; }
+    } elsif (defined $opt_addPartitions) {
+        $cmd .= " -addPartitions=$opt_addPartitions";
+    } else {
+        $cmd .= " -partitions=$opt_partitions";
+    }
+    if (defined $opt_count) { $cmd .= " -count=$opt_count"; }
+    $rtnErr = &sysCmd($cmd, $GTS_DEBUG);
+    if ($rtnErr != 0) {
+        print "Partition error: $rtnErr\n";
+        exit(1);
+    }
+    $optFound = $true;
+}
+if (defined $opt_dropOldPartitions) {
+    my $rtnErr = 0;
+    my $cmd = $Command . " -dropOldPartitions=$opt_dropOldPartitions";
+    if (defined $opt_confirmDelete) { $cmd .= " -confirmDelete"; }
+    $rtnErr = &sysCmd($cmd, $GTS_DEBUG);
+    if ($rtnErr != 0) {
+        print "Partition drop error: $rtnErr\n";
+        exit(1);
+    }
+    $optFound = $true;
+}
+
 # --- display table dependency tree
 if (defined $opt_tree) {
     print "\n";
@@ -577,6 +577,24 @@ public class DBConfig
     **/
     public static final String PROP_EventData_minimumPostedSpeedLimit   = "EventData.minimumPostedSpeedLimit";
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** EventData "timestamp" range partition interval (for "DBAdmin -partitionTable")<br>
+    *** Must be one of: month(default), day
+    *** Type: String
+    **/
+    public static final String PROP_EventData_partitionInterval         = "EventData.partitionInterval";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum age (seconds) of the cached per-account StatusCode resolution table<br>
+    *** (0 disables the cache, and StatusCode records are queried for each lookup)
+    *** Type: Long
+    **/
+    public static final String PROP_StatusCode_cacheTimeoutSec          = "StatusCode.cacheTimeoutSec";
+
     // ----------------------
 
     /**
@@ -593,6 +611,15 @@ public class DBConfig
     **/
     public static final String PROP_Geozone_maximumVertices             = "Geozone.maximumVertices";
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to test Geozone inclusion against a cached prepared geometry (if GeoSegment is
+    *** not installed, SweptPointRadius zones are then tested against the swept corridor,
+    *** rather than the individual points)<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_Geozone_preparedGeometry            = "Geozone.preparedGeometry";
+
     /**
     *** Runtime Configuration Property<br>
     *** Default Radius (in meters) for PointRadius Geozones<br>
@@ -834,6 +861,154 @@ public class DBConfig
     **/
     public static final String PROP_UniqueXID_queryEnabled              = "UniqueXID.queryEnabled";
 
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum number of mobile-id to Account/Device identities cached by the DCServer
+    *** device lookup (0 to disable).<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_DeviceIdentityCache_maximumSize     = "DeviceIdentityCache.maximumSize";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum age (in seconds) of a cached mobile-id to Account/Device identity.<br>
+    *** Type: Long
+    **/
+    public static final String PROP_DeviceIdentityCache_maximumAgeSec   = "DeviceIdentityCache.maximumAgeSec";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum age (in seconds) of a cached unknown mobile-id (0 to disable).<br>
+    *** Type: Long
+    **/
+    public static final String PROP_DeviceIdentityCache_negativeAgeSec  = "DeviceIdentityCache.negativeAgeSec";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to enable write-behind batched EventData insertion.<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_EventDataWriter_enabled             = "EventDataWriter.enabled";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Number of write-behind partitions (writer threads).<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_EventDataWriter_partitions          = "EventDataWriter.partitions";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum number of queued EventData records per partition.<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_EventDataWriter_queueSize           = "EventDataWriter.queueSize";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum number of EventData records written per insert statement.<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_EventDataWriter_flushSize           = "EventDataWriter.flushSize";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum time (in milliseconds) a queued EventData record waits before it is written.<br>
+    *** Type: Long
+    **/
+    public static final String PROP_EventDataWriter_flushLatencyMS      = "EventDataWriter.flushLatencyMS";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Interval (in milliseconds) at which a warning is logged while waiting for space
+    *** in a full queue (the EventData record is not inserted until it can be queued).<br>
+    *** Type: Long
+    **/
+    public static final String PROP_EventDataWriter_putTimeoutMS        = "EventDataWriter.putTimeoutMS";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Directory where failed batch insert statements are spooled (blank to disable).<br>
+    *** Type: String
+    **/
+    public static final String PROP_EventDataWriter_spoolDirectory      = "EventDataWriter.spoolDirectory";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to reverse-geocode slow-provider EventData addresses through the batched,
+    *** coalescing, rate-limited ReverseGeocodePipeline.<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_ReverseGeocodePipeline_enabled        = "ReverseGeocodePipeline.enabled";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum number of EventData address updates written per batch.<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_ReverseGeocodePipeline_flushSize      = "ReverseGeocodePipeline.flushSize";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum time (in milliseconds) a reverse-geocoded address waits before it is written.<br>
+    *** Type: Long
+    **/
+    public static final String PROP_ReverseGeocodePipeline_flushLatencyMS = "ReverseGeocodePipeline.flushLatencyMS";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** True to use the in-memory per-account Geozone spatial index for point lookups
+    *** (default false).<br>
+    *** Type: Boolean
+    **/
+    public static final String PROP_GeozoneIndex_enabled                = "GeozoneIndex.enabled";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum age (in seconds) of an account Geozone index before it is reloaded.<br>
+    *** Type: Long
+    **/
+    public static final String PROP_GeozoneIndex_maximumAgeSec          = "GeozoneIndex.maximumAgeSec";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Interval (in seconds) at which an account Geozone index is checked against the
+    *** Geozone table (zone count and latest update time), so that Geozones changed by
+    *** other processes are picked up.<br>
+    *** Type: Long
+    **/
+    public static final String PROP_GeozoneIndex_checkIntervalSec       = "GeozoneIndex.checkIntervalSec";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Grid cell size (in degrees) of the Geozone spatial index.<br>
+    *** Type: Double
+    **/
+    public static final String PROP_GeozoneIndex_cellSizeDeg           = "GeozoneIndex.cellSizeDeg";
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum number of account Geozone indexes held in memory.<br>
+    *** Type: Integer
+    **/
+    public static final String PROP_GeozoneIndex_maximumAccounts        = "GeozoneIndex.maximumAccounts";
+
+    // ----------------------
+
+    /**
+    *** Runtime Configuration Property<br>
+    *** Maximum age (seconds) of the cached per-account compiled rule index used by the
+    *** RuleEvaluator (0 rebuilds the rule index for each evaluated event).<br>
+    *** Type: Long
+    **/
+    public static final String PROP_RuleEvaluator_cacheTimeoutSec       = "RuleEvaluator.cacheTimeoutSec";
+
     // ----------------------
     
     /**
@@ -925,8 +1100,11 @@ public class DBConfig
         new RTKey.Entry(PROP_EventData_allowInnoDBCountWithWhere    , true                          , "Allow 'count(*)' with WHERE"),
         new RTKey.Entry(PROP_EventData_keyedAccountDeviceTime       , false                         , "Create AltKey Account/Device/Timestamp"),
         new RTKey.Entry(PROP_EventData_keyedCreationTime            , false                         , "Keyed 'EventData.creationTime'"),
+        new RTKey.Entry(PROP_EventData_partitionInterval            , "month"                       , "EventData partition interval"),
+        new RTKey.Entry(PROP_StatusCode_cacheTimeoutSec             , 300L                          , "StatusCode resolution cache timeout"),
         new RTKey.Entry(PROP_Geozone_alwaysActive                   , true                          , "Geozones Always Active"),
         new RTKey.Entry(PROP_Geozone_maximumVertices                , -1                            , "Maximum Number of Geozone Vertices"),
+        new RTKey.Entry(PROP_Geozone_preparedGeometry               , false                         , "Use Prepared Geozone Geometry"),
         new RTKey.Entry(PROP_Geozone_dftRadius_pointRadius          , 3000                          , "Default Point Radius"),
         new RTKey.Entry(PROP_Geozone_dftRadius_polygon              , 500                           , "Default Polygon Radius"),
         new RTKey.Entry(PROP_Geozone_dftRadius_sweptPointRadius     , 1000                          , "Default SweptPoint Radius"),
@@ -949,6 +1127,25 @@ public class DBConfig
         new RTKey.Entry(PROP_EventIdentifierMapFactory_class        , null                          , "EventIdentifierMapFactory subclass"),
         new RTKey.Entry(PROP_Transport_queryEnabled                 , false                         , "Enable DB Transport query"),
         new RTKey.Entry(PROP_UniqueXID_queryEnabled                 , false                         , "Enable DB UniqueXID query"),
+        new RTKey.Entry(PROP_DeviceIdentityCache_maximumSize        , 5000                          , "DeviceIdentityCache maximum size"),
+        new RTKey.Entry(PROP_DeviceIdentityCache_maximumAgeSec      , 300L                          , "DeviceIdentityCache maximum age"),
+        new RTKey.Entry(PROP_DeviceIdentityCache_negativeAgeSec     , 60L                           , "DeviceIdentityCache unknown mobile-id age"),
+        new RTKey.Entry(PROP_EventDataWriter_enabled                , false                         , "EventDataWriter enabled"),
+        new RTKey.Entry(PROP_EventDataWriter_partitions             , 4                             , "EventDataWriter partitions"),
+        new RTKey.Entry(PROP_EventDataWriter_queueSize              , 5000                          , "EventDataWriter queue size"),
+        new RTKey.Entry(PROP_EventDataWriter_flushSize              , 250                           , "EventDataWriter flush size"),
+        new RTKey.Entry(PROP_EventDataWriter_flushLatencyMS         , 250L                          , "EventDataWriter flush latency"),
+        new RTKey.Entry(PROP_EventDataWriter_putTimeoutMS           , 5000L                         , "EventDataWriter full queue warning interval"),
+        new RTKey.Entry(PROP_EventDataWriter_spoolDirectory         , ""                            , "EventDataWriter spool directory"),
+        new RTKey.Entry(PROP_ReverseGeocodePipeline_enabled         , false                         , "ReverseGeocodePipeline enabled"),
+        new RTKey.Entry(PROP_ReverseGeocodePipeline_flushSize       , 100                           , "ReverseGeocodePipeline address update batch size"),
+        new RTKey.Entry(PROP_ReverseGeocodePipeline_flushLatencyMS  , 1000L                         , "ReverseGeocodePipeline address update latency"),
+        new RTKey.Entry(PROP_GeozoneIndex_enabled                   , false                         , "GeozoneIndex enabled"),
+        new RTKey.Entry(PROP_GeozoneIndex_maximumAgeSec             , 120L                          , "GeozoneIndex maximum age"),
+        new RTKey.Entry(PROP_GeozoneIndex_checkIntervalSec          , 5L                            , "GeozoneIndex check interval"),
+        new RTKey.Entry(PROP_GeozoneIndex_cellSizeDeg               , 0.1                           , "GeozoneIndex grid cell size"),
+        new RTKey.Entry(PROP_GeozoneIndex_maximumAccounts           , 1000                          , "GeozoneIndex maximum accounts"),
+        new RTKey.Entry(PROP_RuleEvaluator_cacheTimeoutSec          , 300L                          , "RuleEvaluator rule index cache timeout"),
         new RTKey.Entry(PROP_db_defaultDeviceAuthorization          , DEFAULT_DEVICE_AUTHORIZATION  , "Default Device Authoirization"),
         new RTKey.Entry(PROP_sysAdmin_account                       , ""                            , "System Admin Account ID"),
         new RTKey.Entry(PROP_audit_saveSuccessfulLogin              , true                          , "SystemAudit Save Successful Logins"),
@@ -1630,6 +1827,8 @@ public class DBConfig
     private static final String ARG_CREATE_SYSADMIN[]   = new String[] { "createSysAdmin"        };
     public  static final String ARG_STATUS[]            = new String[] { "status"                };
     public  static final String ARG_WHERE[]             = new String[] { "where"                 };
+    public  static final String ARG_DROP_OLD_PARTS[]    = new String[] { "dropOldPartitions"     };
+    public  static final String ARG_CONFIRM_DELETE[]    = new String[] { "confirmDelete"         };
 
     /**
     *** Displays command 'usage', then exists
@@ -1656,6 +1855,11 @@ public class DBConfig
         Print.sysPrintln("     -load=<TableName>[.csv] -dir=<Source_Dir> [-noInsert] [-overwrite]");
         Print.sysPrintln("  Displaying the DB schema:");
         Print.sysPrintln("     -schema[=<TableName>]");
+        Print.sysPrintln("  Time-range partitions:");
+        Print.sysPrintln("     -partitions=<TableName>");
+        Print.sysPrintln("     -partitionTable=<TableName> [-from=<Time>] [-count=<Future>]");
+        Print.sysPrintln("     -addPartitions=<TableName> [-count=<Future>]");
+        Print.sysPrintln("     -dropOldPartitions=<Time> [-confirmDelete]  (EventData)");
       //Print.sysPrintln("  Dropping a table (WARNING: cannot be undone!):");
       //Print.sysPrintln("     -drop=<TableName>");
         Print.sysPrintln("");
@@ -1816,6 +2020,41 @@ public class DBConfig
             }
         }
 
+        /* intercept "-dropOldPartitions" command */
+        if (RTConfig.hasProperty(ARG_DROP_OLD_PARTS)) {
+            // -dropOldPartitions=<time> [-confirmDelete]
+            String  argTime = RTConfig.getString(ARG_DROP_OLD_PARTS,"");
+            boolean confirm = RTConfig.getBoolean(ARG_CONFIRM_DELETE,false);
+            DateTime oldTime = null;
+            try {
+                oldTime = !StringTools.isBlank(argTime)? DateTime.parseArgumentDate(argTime,DateTime.GMT,true) : null;
+            } catch (DateTime.DateParseException dpe) {
+                oldTime = null;
+            }
+            if (oldTime == null) {
+                Print.sysPrintln("Invalid Time specification: " + argTime);
+                return 98;
+            } else
+            if (oldTime.getTimeSec() > DateTime.getCurrentTimeSec()) {
+                Print.sysPrintln("Dropping future partitions not allowed");
+                return 98;
+            }
+            Print.sysPrintln("Dropping EventData partitions prior to: " + oldTime);
+            if (!confirm) {
+                Print.sysPrintln("(Missing '-"+ARG_CONFIRM_DELETE[0]+"', no partitions will be dropped)");
+            }
+            try {
+                StringBuffer msg = new StringBuffer();
+                int count = EventData.deleteOldPartitions(oldTime.getTimeSec(), confirm, msg);
+                Print.sysPrintln(msg.toString());
+                Print.sysPrintln((confirm? "Dropped " : "Would drop ") + count + " partition(s)");
+                return 0;
+            } catch (DBException dbe) {
+                Print.logException("Dropping EventData partitions", dbe);
+                return 99;
+            }
+        }
+
         /* intercept "-tables" command */
         if (RTConfig.hasProperty(DBAdmin.ARG_TABLES)) {
             String options = RTConfig.getString(DBAdmin.ARG_TABLES,"").trim().toLowerCase();
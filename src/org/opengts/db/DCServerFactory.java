@@ -2459,8 +2459,39 @@ public class DCServerFactory
 
         /* find Device */
         String uniqueID = "";
+        String idKey    = DeviceIdentityCache.getCacheKey(prefix, modemID);
         try {
 
+            /* check identity cache */
+            DeviceIdentityCache.Identity ident = DeviceIdentityCache.getIdentity(idKey);
+            if (ident == null) {
+                // -- not cached, continue below
+            } else
+            if (ident.isUnknown()) {
+                // -- previously not found
+                Print.logWarn("!!!UniqueID not found!: " + modemID + " [" + StringTools.join(prefix,",")+ "] (cached)");
+                if (saveUnassigned) {
+                    DCServerFactory.addUnassignedDevice(serverID, modemID, ipAddress, isDuplex, geoPoint, null/*data*/);
+                }
+                return null;
+            } else
+            if (!ident.isActive()) {
+                // -- previously found inactive
+                String a = ident.getAccountID();
+                String d = ident.getDeviceID();
+                Print.logWarn("Account/Device is inactive: " + a + "/" + d + " [" + ident.getUniqueID() + "] (cached)");
+                return null;
+            } else {
+                // -- previously found active
+                uniqueID = ident.getUniqueID();
+                device   = DeviceIdentityCache.loadDevice(ident); // null if stale
+                if (device != null) {
+                    device.setModemID(modemID);
+                    return device;
+                }
+                // -- stale identity (already removed), continue below
+            }
+
             /* load device record */
             if (ListTools.isEmpty(prefix)) {
                 uniqueID = modemID;
@@ -2480,9 +2511,11 @@ public class DCServerFactory
             }
 
             /* auto-add device? */
+            boolean autoAdd = false;
             if (device == null) {
                 Account acct = Account.getGlobalAccount();
                 if ((acct != null) && acct.okToAutoAddDevice()) {
+                    autoAdd = true;
                     // -- Create a 'Device'
                     try {
                         Device dev = Device.getDevice(acct, modemID, true); // create (does not return null)
@@ -2502,6 +2535,10 @@ public class DCServerFactory
             /* still not found? */ 
             if (device == null) {
                 Print.logWarn("!!!UniqueID not found!: " + uniqueID + " [" + StringTools.join(prefix,",")+ "]");
+                if (!autoAdd) {
+                    // -- do not retry the lookup until the cached entry expires
+                    DeviceIdentityCache.putUnknown(idKey, prefix, modemID);
+                }
                 if (saveUnassigned) {
                     DCServerFactory.addUnassignedDevice(serverID, modemID, ipAddress, isDuplex, geoPoint, null/*data*/);
                 }
@@ -2509,8 +2546,12 @@ public class DCServerFactory
                 return null;
             }
 
+            /* cache identity */
+            boolean acctActive = device.getAccount().isActive();
+            DeviceIdentityCache.putDevice(idKey, uniqueID, device, acctActive);
+
             /* inactive? */
-            if (!device.getAccount().isActive() || !device.isActive()) {
+            if (!acctActive || !device.isActive()) {
                 String a = device.getAccountID();
                 String d = device.getDeviceID();
                 Print.logWarn("Account/Device is inactive: " + a + "/" + d + " [" + uniqueID + "]");
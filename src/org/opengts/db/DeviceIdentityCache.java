@@ -0,0 +1,640 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Mobile-ID to Account/Device identity cache used by the DCServer device lookup
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Caches the result of resolving a (unique-id prefixes, modem-id) pair to an
+*** Account/Device, so that repeated connections from the same device do not
+*** require probing the UniqueXID/Transport/Device tables once per prefix.<br>
+*** Unknown modem-ids are also cached (for a shorter period) so that unassigned
+*** devices do not repeat the full lookup on every connection.<br>
+*** On a cache hit, the Account/Device active state is taken from the cached identity,
+*** and the Device is loaded by its Account/Device ID (from the Device record cache,
+*** if enabled), without repeating the unique-id and Account lookups.<br>
+*** Entries are removed when a matching Device/Transport/Account record is saved
+*** within this JVM.  Changes made by other processes (ie. the web interface) are
+*** picked up when the entry expires.
+**/
+
+public class DeviceIdentityCache
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        DFT_MAXIMUM_SIZE        = 5000;
+    public  static final long       DFT_MAXIMUM_AGE_SEC     = 300L;
+    public  static final long       DFT_NEGATIVE_AGE_SEC    = 60L;
+
+    /**
+    *** Gets the maximum number of cached identities (0 to disable the cache)
+    **/
+    public static int getMaximumSize()
+    {
+        return RTConfig.getInt(DBConfig.PROP_DeviceIdentityCache_maximumSize, DFT_MAXIMUM_SIZE);
+    }
+
+    /**
+    *** Gets the maximum age (in seconds) of a cached Account/Device identity
+    **/
+    public static long getMaximumAgeSec()
+    {
+        return RTConfig.getLong(DBConfig.PROP_DeviceIdentityCache_maximumAgeSec, DFT_MAXIMUM_AGE_SEC);
+    }
+
+    /**
+    *** Gets the maximum age (in seconds) of a cached unknown modem-id
+    **/
+    public static long getNegativeAgeSec()
+    {
+        return RTConfig.getLong(DBConfig.PROP_DeviceIdentityCache_negativeAgeSec, DFT_NEGATIVE_AGE_SEC);
+    }
+
+    /**
+    *** Returns true if the identity cache is enabled
+    **/
+    public static boolean isEnabled()
+    {
+        return (DeviceIdentityCache.getMaximumSize() > 0)? true : false;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Identity class: a cached Account/Device lookup result
+    **/
+    public static class Identity
+    {
+        private String   cacheKey      = null;
+        private String   uniqueIDs[]   = null; // [0] is the matching unique-id (if known)
+        private String   accountID     = null;
+        private String   deviceID      = null;
+        private String   transportID   = null;
+        private boolean  accountActive = false;
+        private boolean  deviceActive  = false;
+        private long     expireMS      = 0L;
+        private Identity(String key, String uid[], long ageSec) {
+            this.cacheKey  = key;
+            this.uniqueIDs = uid;
+            this.expireMS  = DateTime.getCurrentTimeMillis() + (ageSec * 1000L);
+        }
+        private Identity(String key, String uid, Device dev, boolean acctActive, long ageSec) {
+            this(key, new String[] { uid }, ageSec);
+            this.accountID     = dev.getAccountID();
+            this.deviceID      = dev.getDeviceID();
+            this.transportID   = dev.getTransportID();
+            this.accountActive = acctActive;
+            this.deviceActive  = dev.isActive();
+        }
+        public String getCacheKey() {
+            return this.cacheKey;
+        }
+        public boolean isUnknown() {
+            return (this.deviceID == null)? true : false;
+        }
+        public String getUniqueID() {
+            return this.uniqueIDs[0];
+        }
+        public String getAccountID() {
+            return this.accountID;
+        }
+        public String getDeviceID() {
+            return this.deviceID;
+        }
+        public boolean isActive() {
+            return this.accountActive && this.deviceActive;
+        }
+        public boolean isExpired(long nowMS) {
+            return (nowMS > this.expireMS)? true : false;
+        }
+        public String toString() {
+            if (this.isUnknown()) {
+                return this.cacheKey + " ==> <unknown>";
+            } else {
+                return this.cacheKey + " ==> " + this.accountID + "/" + this.deviceID + (this.isActive()?"":" <inactive>");
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /* cache (access ordered, oldest entries are removed when full) */
+    private static final Object                             CacheLock       = new Object();
+    private static final LinkedHashMap<String,Identity>     CacheMap        = new LinkedHashMap<String,Identity>(256, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String,Identity> eldest) {
+            if (this.size() > DeviceIdentityCache.getMaximumSize()) {
+                DeviceIdentityCache._unindex(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /* secondary indexes used for invalidation */
+    private static final HashMap<String,Set<String>>        AccountIndex    = new HashMap<String,Set<String>>();
+    private static final HashMap<String,Set<String>>        DeviceIndex     = new HashMap<String,Set<String>>();
+    private static final HashMap<String,Set<String>>        UniqueIndex     = new HashMap<String,Set<String>>();
+
+    /* statistics */
+    private static long     HitCount        = 0L;
+    private static long     NegativeHitCount= 0L;
+    private static long     MissCount       = 0L;
+    private static long     InvalidateCount = 0L;
+
+    // ------------------------------------------------------------------------
+
+    private static String _deviceKey(String acctID, String devID)
+    {
+        return acctID + "/" + devID;
+    }
+
+    private static void _index(HashMap<String,Set<String>> index, String idxKey, String key)
+    {
+        Set<String> keys = index.get(idxKey);
+        if (keys == null) {
+            keys = new HashSet<String>();
+            index.put(idxKey, keys);
+        }
+        keys.add(key);
+    }
+
+    private static void _unindex(HashMap<String,Set<String>> index, String idxKey, String key)
+    {
+        Set<String> keys = index.get(idxKey);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                index.remove(idxKey);
+            }
+        }
+    }
+
+    private static void _unindex(Identity ident)
+    {
+        String key = ident.getCacheKey();
+        for (String uid : ident.uniqueIDs) {
+            DeviceIdentityCache._unindex(UniqueIndex, uid, key);
+        }
+        if (!ident.isUnknown()) {
+            DeviceIdentityCache._unindex(AccountIndex, ident.getAccountID(), key);
+            DeviceIdentityCache._unindex(DeviceIndex , _deviceKey(ident.getAccountID(),ident.getDeviceID()), key);
+        }
+    }
+
+    private static void _put(Identity ident)
+    {
+        String key = ident.getCacheKey();
+        Identity old = CacheMap.remove(key);
+        if (old != null) {
+            DeviceIdentityCache._unindex(old);
+        }
+        for (String uid : ident.uniqueIDs) {
+            DeviceIdentityCache._index(UniqueIndex, uid, key);
+        }
+        if (!ident.isUnknown()) {
+            DeviceIdentityCache._index(AccountIndex, ident.getAccountID(), key);
+            DeviceIdentityCache._index(DeviceIndex , _deviceKey(ident.getAccountID(),ident.getDeviceID()), key);
+        }
+        CacheMap.put(key, ident); // may remove eldest entry
+    }
+
+    private static void _remove(String key)
+    {
+        Identity ident = CacheMap.remove(key);
+        if (ident != null) {
+            DeviceIdentityCache._unindex(ident);
+            InvalidateCount++;
+        }
+    }
+
+    /* remove all entries listed in the specified index which match the filter */
+    private static void _removeIndexed(HashMap<String,Set<String>> index, String idxKey, IdentityFilter filter)
+    {
+        Set<String> keys = index.get(idxKey);
+        if (keys != null) {
+            for (String key : new Vector<String>(keys)) {
+                Identity ident = CacheMap.get(key);
+                if ((ident != null) && ((filter == null) || filter.isStale(ident))) {
+                    DeviceIdentityCache._remove(key);
+                }
+            }
+        }
+    }
+
+    private interface IdentityFilter
+    {
+        public boolean isStale(Identity ident);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the cache key for the specified unique-id prefixes and modem-id
+    *** @param prefix   An array of unique-id prefixes
+    *** @param modemID  The unique modem ID (IMEI, ESN, etc)
+    *** @return The cache key
+    **/
+    public static String getCacheKey(String prefix[], String modemID)
+    {
+        if (ListTools.isEmpty(prefix)) {
+            return "|" + modemID;
+        } else {
+            return StringTools.join(prefix,",") + "|" + modemID;
+        }
+    }
+
+    /**
+    *** Gets the cached identity for the specified key
+    *** @param key  The cache key (see <code>getCacheKey</code>)
+    *** @return The cached identity, or null if not cached (or expired)
+    **/
+    public static Identity getIdentity(String key)
+    {
+        if (!DeviceIdentityCache.isEnabled()) {
+            return null;
+        }
+        synchronized (CacheLock) {
+            Identity ident = CacheMap.get(key);
+            if ((ident != null) && ident.isExpired(DateTime.getCurrentTimeMillis())) {
+                CacheMap.remove(key);
+                DeviceIdentityCache._unindex(ident);
+                ident = null;
+            }
+            if (ident == null) {
+                MissCount++;
+            } else
+            if (ident.isUnknown()) {
+                NegativeHitCount++;
+            } else {
+                HitCount++;
+            }
+            return ident;
+        }
+    }
+
+    /**
+    *** Caches the Device resolved for the specified key
+    *** @param key         The cache key (see <code>getCacheKey</code>)
+    *** @param uniqueID    The matching unique-id
+    *** @param device      The resolved Device
+    *** @param acctActive  The active state of the Device Account
+    **/
+    public static void putDevice(String key, String uniqueID, Device device, boolean acctActive)
+    {
+        if ((device != null) && !StringTools.isBlank(uniqueID) && DeviceIdentityCache.isEnabled()) {
+            Identity ident = new Identity(key, uniqueID, device, acctActive, DeviceIdentityCache.getMaximumAgeSec());
+            synchronized (CacheLock) {
+                DeviceIdentityCache._put(ident);
+            }
+        }
+    }
+
+    /**
+    *** Caches an unknown modem-id for the specified key
+    *** @param key        The cache key (see <code>getCacheKey</code>)
+    *** @param prefix     An array of unique-id prefixes
+    *** @param modemID    The unique modem ID (IMEI, ESN, etc)
+    **/
+    public static void putUnknown(String key, String prefix[], String modemID)
+    {
+        long ageSec = DeviceIdentityCache.getNegativeAgeSec();
+        if ((ageSec > 0L) && DeviceIdentityCache.isEnabled()) {
+            String uid[];
+            if (ListTools.isEmpty(prefix)) {
+                uid = new String[] { modemID };
+            } else {
+                uid = new String[prefix.length];
+                for (int u = 0; u < prefix.length; u++) {
+                    uid[u] = prefix[u] + modemID;
+                }
+            }
+            Identity ident = new Identity(key, uid, ageSec);
+            synchronized (CacheLock) {
+                DeviceIdentityCache._put(ident);
+            }
+        }
+    }
+
+    /**
+    *** Removes the cached identity for the specified key
+    *** @param key  The cache key (see <code>getCacheKey</code>)
+    **/
+    public static void invalidate(String key)
+    {
+        synchronized (CacheLock) {
+            DeviceIdentityCache._remove(key);
+        }
+    }
+
+    /**
+    *** Removes all cached identities
+    **/
+    public static void clear()
+    {
+        synchronized (CacheLock) {
+            CacheMap.clear();
+            AccountIndex.clear();
+            DeviceIndex.clear();
+            UniqueIndex.clear();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Loads the Device for the specified cached identity.  The active state of the
+    *** Account/Device is taken from the cached identity (the Account is loaded on demand).
+    *** If the cached identity no longer matches the Device, the identity is removed from
+    *** the cache and null is returned (the caller should then perform the full lookup).
+    *** @param ident  The cached (known, active) identity
+    *** @return The Device, or null if the cached identity is stale
+    *** @throws DBException if a database error occurs
+    **/
+    public static Device loadDevice(Identity ident)
+        throws DBException
+    {
+        String uniqueID = ident.getUniqueID();
+        Device device;
+        if (!StringTools.isBlank(ident.transportID)) {
+            // -- Transport device (also updates the Transport connect time)
+            device = Transport.loadDeviceByUniqueID(uniqueID);
+        } else {
+            // -- Device record (Device record cache, if enabled)
+            device = DeviceIdentityCache._getDevice(ident.getAccountID(), ident.getDeviceID());
+            if ((device != null) && !uniqueID.equals(device.getUniqueID())) {
+                device = null; // unique-id has changed
+            }
+        }
+        if ((device == null)                                         ||
+            !device.getAccountID().equals(ident.getAccountID())      ||
+            !device.getDeviceID().equals(ident.getDeviceID())        ||
+            !device.isActive()                                         ) {
+            Print.logDebug("Cached identity is stale: " + ident);
+            DeviceIdentityCache.invalidate(ident.getCacheKey());
+            return null;
+        }
+        return device;
+    }
+
+    /**
+    *** Gets the specified Device record (from the Device record cache, if enabled),
+    *** without loading the Account
+    *** @return The Device, or null if the Device does not exist
+    **/
+    private static Device _getDevice(String acctID, String devID)
+        throws DBException
+    {
+        Device.Key key = new Device.Key(acctID, devID);
+        DBRecordCache<Device> cache = Device.getFactory().getRecordCache();
+        Device dev = (cache != null)? cache.get(key) : null;
+        if (dev == null) {
+            long cacheGen = (cache != null)? cache.getGeneration() : 0L;
+            dev = key.getDBRecord()._reload(); // null if not found
+            if ((dev != null) && (cache != null)) { cache.put(dev, cacheGen); }
+        }
+        return dev;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Callback after a Device record has been inserted/updated.
+    *** Removes cached identities which no longer match the saved Device.
+    *** @param device       The saved Device
+    *** @param prevUniqueID The unique-id prior to this save (null/blank if unchanged)
+    **/
+    public static void deviceDidSave(final Device device, String prevUniqueID)
+    {
+        if ((device == null) || !DeviceIdentityCache.isEnabled()) {
+            return;
+        }
+        final String  uniqueID  = device.getUniqueID();
+        final boolean directUID = !(Transport.isTransportQueryEnabled() || UniqueXID.isUniqueQueryEnabled());
+        synchronized (CacheLock) {
+            if (CacheMap.isEmpty()) {
+                return;
+            }
+            // -- identities cached for this Device
+            String devKey = _deviceKey(device.getAccountID(),device.getDeviceID());
+            DeviceIdentityCache._removeIndexed(DeviceIndex, devKey, new IdentityFilter() {
+                public boolean isStale(Identity ident) {
+                    return ((directUID && !ident.getUniqueID().equals(uniqueID)) || (ident.deviceActive != device.isActive()));
+                }
+            });
+            // -- identities cached for this unique-id (unknown, or another Device)
+            if (!StringTools.isBlank(uniqueID)) {
+                DeviceIdentityCache._removeIndexed(UniqueIndex, uniqueID, new IdentityFilter() {
+                    public boolean isStale(Identity ident) {
+                        return (ident.isUnknown() || !ident.getAccountID().equals(device.getAccountID()) || !ident.getDeviceID().equals(device.getDeviceID()));
+                    }
+                });
+            }
+            // -- identities cached for the previous unique-id (unique-id changed)
+            if (!StringTools.isBlank(prevUniqueID) && !prevUniqueID.equals(uniqueID)) {
+                DeviceIdentityCache._removeIndexed(UniqueIndex, prevUniqueID, null);
+            }
+        }
+    }
+
+    /**
+    *** Callback after Device record(s) have been deleted.
+    *** Removes cached identities for the deleted Device(s).
+    *** @param acctID  The Account ID (blank if all Devices were deleted)
+    *** @param devID   The Device ID (blank if all Devices for the Account were deleted)
+    **/
+    public static void deviceDidDelete(String acctID, String devID)
+    {
+        if (!DeviceIdentityCache.isEnabled()) {
+            return;
+        }
+        synchronized (CacheLock) {
+            if (CacheMap.isEmpty()) {
+                return;
+            } else
+            if (StringTools.isBlank(acctID)) {
+                DeviceIdentityCache.clear();
+            } else
+            if (StringTools.isBlank(devID)) {
+                DeviceIdentityCache._removeIndexed(AccountIndex, acctID, null);
+            } else {
+                DeviceIdentityCache._removeIndexed(DeviceIndex, _deviceKey(acctID,devID), null);
+            }
+        }
+    }
+
+    /**
+    *** Callback after a Transport record has been inserted/updated.
+    *** Removes cached identities for the Transport unique-id.
+    *** @param xport        The saved Transport
+    *** @param prevUniqueID The unique-id prior to this save (null/blank if unchanged)
+    **/
+    public static void transportDidSave(final Transport xport, String prevUniqueID)
+    {
+        if ((xport == null) || !DeviceIdentityCache.isEnabled()) {
+            return;
+        }
+        String uniqueID = xport.getUniqueID();
+        synchronized (CacheLock) {
+            if (CacheMap.isEmpty()) {
+                return;
+            }
+            // -- keep identities which still resolve to the Transport device (ie. connect-time updates)
+            if (!StringTools.isBlank(uniqueID)) {
+                DeviceIdentityCache._removeIndexed(UniqueIndex, uniqueID, new IdentityFilter() {
+                    public boolean isStale(Identity ident) {
+                        return (ident.isUnknown() || !ident.getAccountID().equals(xport.getAccountID()) || !ident.getDeviceID().equals(xport.getAssocDeviceID()));
+                    }
+                });
+            }
+            // -- identities cached for the previous unique-id (unique-id changed)
+            if (!StringTools.isBlank(prevUniqueID) && !prevUniqueID.equals(uniqueID)) {
+                DeviceIdentityCache._removeIndexed(UniqueIndex, prevUniqueID, null);
+            }
+        }
+    }
+
+    /**
+    *** Callback after Transport record(s) have been deleted.
+    *** The unique-id of a deleted Transport is no longer available, so all cached 
+    *** identities for the Account are removed (Transport deletes are infrequent).
+    *** @param acctID  The Account ID (blank if all Transports were deleted)
+    **/
+    public static void transportDidDelete(String acctID)
+    {
+        if (!DeviceIdentityCache.isEnabled()) {
+            return;
+        }
+        synchronized (CacheLock) {
+            if (CacheMap.isEmpty()) {
+                return;
+            } else
+            if (StringTools.isBlank(acctID)) {
+                DeviceIdentityCache.clear();
+            } else {
+                DeviceIdentityCache._removeIndexed(AccountIndex, acctID, null);
+            }
+        }
+    }
+
+    /**
+    *** Callback after an Account record has been inserted/updated.
+    *** Removes cached identities whose Account active state has changed.
+    *** @param account  The saved Account
+    **/
+    public static void accountDidSave(final Account account)
+    {
+        if ((account == null) || !DeviceIdentityCache.isEnabled()) {
+            return;
+        }
+        synchronized (CacheLock) {
+            if (CacheMap.isEmpty()) {
+                return;
+            }
+            DeviceIdentityCache._removeIndexed(AccountIndex, account.getAccountID(), new IdentityFilter() {
+                public boolean isStale(Identity ident) {
+                    return (ident.accountActive != account.isActive());
+                }
+            });
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the current number of cached identities
+    **/
+    public static int getSize()
+    {
+        synchronized (CacheLock) {
+            return CacheMap.size();
+        }
+    }
+
+    /**
+    *** Gets the number of lookups which found a cached Account/Device
+    **/
+    public static long getHitCount()
+    {
+        synchronized (CacheLock) {
+            return HitCount;
+        }
+    }
+
+    /**
+    *** Gets the number of lookups which found a cached unknown modem-id
+    **/
+    public static long getNegativeHitCount()
+    {
+        synchronized (CacheLock) {
+            return NegativeHitCount;
+        }
+    }
+
+    /**
+    *** Gets the number of lookups which were not found in the cache
+    **/
+    public static long getMissCount()
+    {
+        synchronized (CacheLock) {
+            return MissCount;
+        }
+    }
+
+    /**
+    *** Gets the number of cached identities removed due to record changes
+    **/
+    public static long getInvalidateCount()
+    {
+        synchronized (CacheLock) {
+            return InvalidateCount;
+        }
+    }
+
+    /**
+    *** Gets a String representation of the cache statistics
+    **/
+    public static String getStatistics()
+    {
+        synchronized (CacheLock) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("size=").append(CacheMap.size());
+            sb.append(" hit=").append(HitCount);
+            sb.append(" unknownHit=").append(NegativeHitCount);
+            sb.append(" miss=").append(MissCount);
+            sb.append(" invalidated=").append(InvalidateCount);
+            return sb.toString();
+        }
+    }
+
+}
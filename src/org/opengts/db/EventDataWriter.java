@@ -0,0 +1,915 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Write-behind batched EventData insertion
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Write-behind EventData insertion.<br>
+*** When enabled, EventData records inserted by <code>Device.insertEventData</code> are
+*** queued to one of several partitions (selected by Account/Device, so that the
+*** events for a given Device are written in order).  Each partition writes its
+*** queued events as a single JDBC batch of a prepared insert statement per flush,
+*** followed by a single coalesced update for each Device whose "last" fields changed.<br>
+*** When a partition queue is full, the inserting thread waits (back-pressure) until
+*** space is available, so that events are never written ahead of events already
+*** queued for the same Device (a warning is logged after each "putTimeoutMS").<br>
+*** If a batch contains events which already exist, the batch is re-inserted ignoring
+*** the existing events (or event-by-event, if not supported by the DB provider).<br>
+*** If a batch insert fails (ie. the database is unavailable), an insert statement for
+*** each event is written to the spool directory (if configured) and replayed once the
+*** database is available again (the spool directory is also checked periodically
+*** while the writer is idle).  Otherwise the batch is retried.
+**/
+
+public class EventDataWriter
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        DFT_PARTITIONS          = 4;
+    public  static final int        DFT_QUEUE_SIZE          = 5000;
+    public  static final int        DFT_FLUSH_SIZE          = 250;
+    public  static final long       DFT_FLUSH_LATENCY_MS    = 250L;
+    public  static final long       DFT_PUT_TIMEOUT_MS      = 5000L;
+
+    private static final long       RETRY_DELAY_MS          = 5000L;
+    private static final long       REPLAY_INTERVAL_MS      = 10000L;
+    private static final long       DEVICE_UPDATE_MAX_AGE_MS = 2000L;
+    private static final String     SPOOL_EXTN              = ".sql";
+
+    /**
+    *** Returns true if write-behind EventData insertion is enabled
+    **/
+    public static boolean isEnabled()
+    {
+        return RTConfig.getBoolean(DBConfig.PROP_EventDataWriter_enabled, false);
+    }
+
+    /**
+    *** Gets the number of partitions (writer threads)
+    **/
+    public static int getPartitionCount()
+    {
+        int p = RTConfig.getInt(DBConfig.PROP_EventDataWriter_partitions, DFT_PARTITIONS);
+        return (p > 0)? p : 1;
+    }
+
+    /**
+    *** Gets the maximum number of queued events per partition
+    **/
+    public static int getQueueSize()
+    {
+        int q = RTConfig.getInt(DBConfig.PROP_EventDataWriter_queueSize, DFT_QUEUE_SIZE);
+        return (q > 0)? q : DFT_QUEUE_SIZE;
+    }
+
+    /**
+    *** Gets the maximum number of events written per insert statement
+    **/
+    public static int getFlushSize()
+    {
+        int f = RTConfig.getInt(DBConfig.PROP_EventDataWriter_flushSize, DFT_FLUSH_SIZE);
+        return (f > 0)? f : 1;
+    }
+
+    /**
+    *** Gets the maximum time (in milliseconds) a queued event waits before it is written
+    **/
+    public static long getFlushLatencyMS()
+    {
+        long l = RTConfig.getLong(DBConfig.PROP_EventDataWriter_flushLatencyMS, DFT_FLUSH_LATENCY_MS);
+        return (l > 0L)? l : 1L;
+    }
+
+    /**
+    *** Gets the maximum time (in milliseconds) to wait for space in a full queue
+    **/
+    public static long getPutTimeoutMS()
+    {
+        return RTConfig.getLong(DBConfig.PROP_EventDataWriter_putTimeoutMS, DFT_PUT_TIMEOUT_MS);
+    }
+
+    /**
+    *** Gets the spool directory, or null if spooling is disabled
+    **/
+    public static File getSpoolDirectory()
+    {
+        String dir = RTConfig.getString(DBConfig.PROP_EventDataWriter_spoolDirectory, null);
+        return !StringTools.isBlank(dir)? new File(dir) : null;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** DeviceUpdate class: a pending coalesced Device update
+    **/
+    private static class DeviceUpdate
+    {
+        private Device      device = null;
+        private Set<String> fields = new HashSet<String>();
+        public DeviceUpdate(Device dev) {
+            this.device = dev;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Partition class: queue and writer thread for a subset of Devices
+    **/
+    private static class Partition
+        extends Thread
+    {
+
+        private int                               maxQueue   = DFT_QUEUE_SIZE;
+        private java.util.List<EventData>         eventQueue = new LinkedList<EventData>();
+        private Map<String,DeviceUpdate>          devUpdates = new LinkedHashMap<String,DeviceUpdate>();
+        private long                              pendingMS  = 0L; // time of oldest pending entry
+        private long                              updateMS   = 0L; // time of oldest pending Device update
+        private long                              retryMS    = 0L; // time of next retry after a failure
+        private boolean                           stopped    = false;
+
+        public Partition(int ndx) {
+            super("EventDataWriter_" + ndx);
+            this.maxQueue = EventDataWriter.getQueueSize();
+            this.setDaemon(true);
+        }
+
+        private void _setPending() {
+            if (this.pendingMS <= 0L) {
+                // -- first pending entry, wake writer to start the latency timer
+                this.pendingMS = DateTime.getCurrentTimeMillis();
+                this.notifyAll();
+            }
+        }
+
+        /* queue event, waiting for space (warning after each 'warnMS') */
+        public synchronized boolean putEvent(EventData ev, long warnMS) {
+            if (this.stopped) {
+                return false;
+            }
+            if (this.eventQueue.size() >= this.maxQueue) {
+                EventDataWriter._countBackPressure();
+                long intvMS  = (warnMS > 0L)? warnMS : DFT_PUT_TIMEOUT_MS;
+                long startMS = DateTime.getCurrentTimeMillis();
+                long untilMS = startMS + intvMS;
+                boolean interrupted = false;
+                while (!this.stopped && (this.eventQueue.size() >= this.maxQueue)) {
+                    long nowMS = DateTime.getCurrentTimeMillis();
+                    if (nowMS >= untilMS) {
+                        Print.logWarn("EventDataWriter queue full, waited " + (nowMS - startMS) + " ms: " + 
+                            ev.getAccountID() + "/" + ev.getDeviceID());
+                        untilMS = nowMS + intvMS;
+                    }
+                    try { 
+                        this.wait(untilMS - nowMS); 
+                    } catch (InterruptedException ie) { 
+                        // -- keep waiting, inserting now would precede the queued events
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if (this.stopped) {
+                    return false;
+                }
+            }
+            this.eventQueue.add(ev);
+            this._setPending();
+            if (this.eventQueue.size() >= EventDataWriter.getFlushSize()) {
+                this.notifyAll();
+            }
+            return true;
+        }
+
+        /* queue (coalesce) device update */
+        public synchronized boolean putDeviceUpdate(Device dev, Set<String> flds) throws DBException {
+            if (this.stopped) {
+                return false;
+            }
+            String key = dev.getAccountID() + "/" + dev.getDeviceID();
+            DeviceUpdate du = this.devUpdates.get(key);
+            if (du == null) {
+                Device copy = (new Device.Key(dev.getAccountID(),dev.getDeviceID())).getDBRecord();
+                du = new DeviceUpdate(copy);
+                this.devUpdates.put(key, du);
+            } else {
+                EventDataWriter._countCoalesced();
+            }
+            du.device.setAllFieldValues(dev); // latest values
+            du.fields.addAll(flds);
+            if (this.updateMS <= 0L) {
+                this.updateMS = DateTime.getCurrentTimeMillis();
+            }
+            this._setPending();
+            return true;
+        }
+
+        /* return Device update to the pending map (unless superseded) */
+        private synchronized void _requeueDeviceUpdates(Map<String,DeviceUpdate> failed) {
+            for (String key : failed.keySet()) {
+                DeviceUpdate newer = this.devUpdates.get(key);
+                if (newer == null) {
+                    this.devUpdates.put(key, failed.get(key));
+                } else {
+                    newer.fields.addAll(failed.get(key).fields);
+                }
+            }
+            if (this.updateMS <= 0L) {
+                this.updateMS = DateTime.getCurrentTimeMillis();
+            }
+            this._setPending();
+        }
+
+        /* return failed batch to the head of the queue */
+        private synchronized void _requeueEvents(java.util.List<EventData> batch) {
+            this.eventQueue.addAll(0, batch);
+            this._setPending();
+        }
+
+        public void stopWriter() {
+            synchronized (this) {
+                this.stopped = true;
+                this.notifyAll();
+            }
+        }
+
+        public void run() {
+            int flushSize = EventDataWriter.getFlushSize();
+            long latencyMS = EventDataWriter.getFlushLatencyMS();
+            for (;;) {
+                java.util.List<EventData> batch = null;
+                Map<String,DeviceUpdate> updates = null;
+                synchronized (this) {
+                    // -- wait for a full batch, latency expiration, or stop
+                    for (;;) {
+                        long nowMS = DateTime.getCurrentTimeMillis();
+                        if (this.stopped) {
+                            break;
+                        } else
+                        if ((this.retryMS > 0L) && (nowMS < this.retryMS)) {
+                            try { this.wait(this.retryMS - nowMS); } catch (InterruptedException ie) {}
+                        } else
+                        if (this.eventQueue.size() >= flushSize) {
+                            break;
+                        } else
+                        if (this.pendingMS > 0L) {
+                            long waitMS = (this.pendingMS + latencyMS) - nowMS;
+                            if (waitMS <= 0L) {
+                                break;
+                            }
+                            try { this.wait(waitMS); } catch (InterruptedException ie) {}
+                        } else {
+                            // -- idle, wake periodically to replay spooled events
+                            try { this.wait(REPLAY_INTERVAL_MS); } catch (InterruptedException ie) {}
+                            if (!this.stopped && (this.pendingMS <= 0L)) {
+                                break; // still idle
+                            }
+                        }
+                    }
+                    if (this.stopped && this.eventQueue.isEmpty() && this.devUpdates.isEmpty()) {
+                        break;
+                    }
+                    // -- take batch
+                    int n = Math.min(flushSize, this.eventQueue.size());
+                    if (n > 0) {
+                        java.util.List<EventData> head = this.eventQueue.subList(0, n);
+                        batch = new Vector<EventData>(head);
+                        head.clear();
+                    }
+                    // -- take Device updates, once all queued events have been taken, or 
+                    // -  when the oldest update exceeds the maximum age (continuous load)
+                    if (!this.devUpdates.isEmpty()) {
+                        long ageMS = DateTime.getCurrentTimeMillis() - this.updateMS;
+                        if (this.eventQueue.isEmpty() || (ageMS >= DEVICE_UPDATE_MAX_AGE_MS)) {
+                            updates = this.devUpdates;
+                            this.devUpdates = new LinkedHashMap<String,DeviceUpdate>();
+                            this.updateMS = 0L;
+                        }
+                    }
+                    this.pendingMS = (this.eventQueue.isEmpty() && this.devUpdates.isEmpty())? 0L : DateTime.getCurrentTimeMillis();
+                    this.retryMS = 0L;
+                    this.notifyAll(); // release waiting producers
+                }
+                // -- write events
+                boolean ok = true;
+                if (batch != null) {
+                    java.util.List<EventData> retry = EventDataWriter._insertBatch(batch);
+                    if (retry != null) {
+                        // -- not inserted and not spooled
+                        this._requeueEvents(retry);
+                        ok = false;
+                    }
+                }
+                // -- write Device updates
+                if (updates != null) {
+                    if (ok) {
+                        Map<String,DeviceUpdate> failed = EventDataWriter._updateDevices(updates);
+                        if (failed != null) {
+                            this._requeueDeviceUpdates(failed);
+                            ok = false;
+                        }
+                    } else {
+                        this._requeueDeviceUpdates(updates);
+                    }
+                }
+                // -- retry delay, or replay spooled statements (also when idle)
+                if (!ok) {
+                    if (this.stopped) {
+                        Print.logError("Unable to write pending EventData on shutdown: " + this.getName());
+                        break;
+                    }
+                    synchronized (this) {
+                        this.retryMS = DateTime.getCurrentTimeMillis() + RETRY_DELAY_MS;
+                    }
+                } else {
+                    EventDataWriter._replaySpool();
+                }
+            }
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static Partition        Partitions[]        = null;
+
+    /* statistics */
+    private static long             QueuedCount         = 0L;
+    private static long             InsertedCount       = 0L;
+    private static long             BatchCount          = 0L;
+    private static long             SpooledCount        = 0L;
+    private static long             DuplicateCount      = 0L;
+    private static long             DeviceUpdateCount   = 0L;
+    private static long             CoalescedCount      = 0L;
+    private static long             BackPressureCount   = 0L;
+
+    private static synchronized void _countBackPressure()   { BackPressureCount++; }
+    private static synchronized void _countCoalesced()      { CoalescedCount++; }
+
+    /**
+    *** Gets the partitions, starting the writer threads on first use
+    **/
+    private static synchronized Partition[] _getPartitions()
+    {
+        if (Partitions == null) {
+            int count = EventDataWriter.getPartitionCount();
+            Partition p[] = new Partition[count];
+            for (int i = 0; i < count; i++) {
+                p[i] = new Partition(i);
+                p[i].start();
+            }
+            Partitions = p;
+            Runtime.getRuntime().addShutdownHook(new Thread("EventDataWriter_shutdown") {
+                public void run() {
+                    EventDataWriter.shutdown();
+                }
+            });
+            Print.logInfo("EventDataWriter started: partitions=" + count +
+                " flushSize=" + EventDataWriter.getFlushSize() +
+                " latencyMS=" + EventDataWriter.getFlushLatencyMS());
+        }
+        return Partitions;
+    }
+
+    /**
+    *** Gets the partition for the specified Account/Device
+    **/
+    private static Partition _getPartition(String acctID, String devID)
+    {
+        Partition p[] = EventDataWriter._getPartitions();
+        int h = (acctID + "/" + devID).hashCode() & 0x7FFFFFFF;
+        return p[h % p.length];
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Queues the specified EventData record for write-behind insertion.  If the
+    *** partition queue is full, this method waits until space is available.
+    *** @param evdb  The EventData record
+    *** @return True if the record was queued, false if the write-behind is disabled, or
+    ***         has been shut down (in which case the caller should insert the record)
+    **/
+    public static boolean queueEventData(EventData evdb)
+    {
+        if ((evdb == null) || !EventDataWriter.isEnabled()) {
+            return false;
+        }
+        Partition p = EventDataWriter._getPartition(evdb.getAccountID(), evdb.getDeviceID());
+        if (p.putEvent(evdb, EventDataWriter.getPutTimeoutMS())) {
+            synchronized (EventDataWriter.class) { QueuedCount++; }
+            return true;
+        } else {
+            Print.logWarn("EventDataWriter stopped, inserting directly: " + evdb.getAccountID() + "/" + evdb.getDeviceID());
+            return false;
+        }
+    }
+
+    /**
+    *** Queues an update of the specified Device fields.  Updates queued for the
+    *** same Device before the next flush are combined into a single update, which
+    *** is written after the queued EventData records of the Device.
+    *** @param device  The Device record
+    *** @param flds    The fields to update
+    *** @return True if the update was queued, false if the write-behind is disabled
+    **/
+    public static boolean queueDeviceUpdate(Device device, Set<String> flds)
+    {
+        if ((device == null) || !EventDataWriter.isEnabled()) {
+            return false;
+        }
+        try {
+            Partition p = EventDataWriter._getPartition(device.getAccountID(), device.getDeviceID());
+            return p.putDeviceUpdate(device, (flds != null)? flds : new HashSet<String>());
+        } catch (DBException dbe) {
+            Print.logError("Unable to queue Device update: " + dbe);
+            return false;
+        }
+    }
+
+    /**
+    *** Writes all queued records and stops the writer threads
+    **/
+    public static void shutdown()
+    {
+        Partition p[];
+        synchronized (EventDataWriter.class) {
+            p = Partitions;
+            Partitions = null;
+        }
+        if (p != null) {
+            for (int i = 0; i < p.length; i++) {
+                p[i].stopWriter();
+            }
+            for (int i = 0; i < p.length; i++) {
+                try { p[i].join(30000L); } catch (InterruptedException ie) {}
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Inserts the batch as a single JDBC batch (see <code>DBProvider.insertRecordsIntoTable</code>).
+    *** If the batch contains events which already exist, the batch is re-inserted ignoring
+    *** the existing events.  Events which could not be inserted are spooled.
+    *** @return The events which were neither inserted nor spooled (and should be
+    ***         retried), or null if the entire batch was handled
+    **/
+    private static java.util.List<EventData> _insertBatch(java.util.List<EventData> batch)
+    {
+        try {
+            DBRecord.prepareInsertRecords(batch);
+            DBProvider.insertRecordsIntoTable(batch, false);
+            DBRecord.recordsDidInsert(batch);
+            synchronized (EventDataWriter.class) {
+                InsertedCount += batch.size(); // all inserted, or exception
+                BatchCount++;
+            }
+            return null;
+        } catch (SQLException sqe) {
+            if (sqe.getErrorCode() == DBFactory.SQLERR_DUPLICATE_KEY) {
+                // -- at least one event already exists
+                return EventDataWriter._insertBatchIgnoreDuplicates(batch);
+            }
+            Print.logError("EventData batch insert failed: " + sqe);
+            return EventDataWriter._spool(batch)? null : batch;
+        } catch (DBException dbe) {
+            Print.logError("EventData batch insert failed: " + dbe);
+            return EventDataWriter._spool(batch)? null : batch;
+        }
+    }
+
+    /**
+    *** Re-inserts a batch which contains events that already exist.  The existing
+    *** events are left unchanged and are not counted as inserted.  If the DB provider
+    *** does not support ignoring existing records, the events are inserted one at a
+    *** time.  Events which could not be inserted are spooled.
+    *** @return The events which were neither inserted nor spooled (and should be
+    ***         retried), or null if the entire batch was handled
+    **/
+    private static java.util.List<EventData> _insertBatchIgnoreDuplicates(java.util.List<EventData> batch)
+    {
+
+        /* single statement, ignoring existing events */
+        if (DBProvider.supportsInsertIgnore()) {
+            try {
+                int count = (int)DBProvider.insertRecordsIntoTable(batch, true);
+                DBRecord.recordsDidInsert(batch);
+                int dups = Math.max(batch.size() - count, 0); // over-estimated if counts not reported
+                synchronized (EventDataWriter.class) {
+                    InsertedCount  += count;
+                    DuplicateCount += dups;
+                    BatchCount++;
+                }
+                Print.logWarn("Ignored " + dups + " existing EventData records in batch");
+                return null;
+            } catch (SQLException sqe) {
+                Print.logError("EventData batch insert failed: " + sqe);
+                return EventDataWriter._spool(batch)? null : batch;
+            } catch (DBException dbe) {
+                Print.logError("EventData batch insert failed: " + dbe);
+                return EventDataWriter._spool(batch)? null : batch;
+            }
+        }
+
+        /* insert individually, skipping existing events */
+        java.util.List<EventData> failed = null;
+        int count = 0, dups = 0;
+        for (EventData ev : batch) {
+            java.util.List<EventData> one = Collections.singletonList(ev);
+            try {
+                DBProvider.insertRecordsIntoTable(one, false);
+                DBRecord.recordsDidInsert(one);
+                count++;
+            } catch (SQLException sqe) {
+                if (sqe.getErrorCode() == DBFactory.SQLERR_DUPLICATE_KEY) {
+                    dups++;
+                } else {
+                    Print.logError("EventData insert failed: " + sqe);
+                    if (failed == null) { failed = new Vector<EventData>(); }
+                    failed.add(ev);
+                }
+            } catch (DBException dbe) {
+                Print.logError("EventData insert failed: " + dbe);
+                if (failed == null) { failed = new Vector<EventData>(); }
+                failed.add(ev);
+            }
+        }
+        synchronized (EventDataWriter.class) {
+            InsertedCount  += count;
+            DuplicateCount += dups;
+        }
+        Print.logWarn("Ignored " + dups + " existing EventData records in batch");
+        if (failed != null) {
+            return EventDataWriter._spool(failed)? null : failed;
+        }
+        return null;
+
+    }
+
+    /**
+    *** Executes the specified (spooled) insert statement
+    *** @return The number of inserted records
+    **/
+    private static int _executeInsert(String sql)
+        throws SQLException, DBException
+    {
+        DBConnection dbc = null;
+        try {
+            dbc = DBConnection.getDefaultConnection();
+            return dbc.executeUpdateCount(sql);
+        } finally {
+            DBConnection.release(dbc);
+        }
+    }
+
+    /**
+    *** Writes the coalesced Device updates.
+    *** @return The updates which failed, or null if all were successful
+    **/
+    private static Map<String,DeviceUpdate> _updateDevices(Map<String,DeviceUpdate> updates)
+    {
+        Map<String,DeviceUpdate> failed = null;
+        for (String key : updates.keySet()) {
+            DeviceUpdate du = updates.get(key);
+            try {
+                du.device.update(du.fields);
+                synchronized (EventDataWriter.class) { DeviceUpdateCount++; }
+            } catch (DBException dbe) {
+                Print.logError("Device update failed: " + key + " [" + dbe + "]");
+                if (failed == null) { failed = new LinkedHashMap<String,DeviceUpdate>(); }
+                failed.put(key, du);
+            }
+        }
+        return failed;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static long     SpoolSequence   = 0L;
+    private static boolean  SpoolReplaying  = false;
+    private static long     LastReplayMS    = 0L;
+
+    /**
+    *** Writes an insert statement for each of the specified events to the spool 
+    *** directory.  Events which already exist are ignored when the statements are 
+    *** replayed, if supported by the DB provider.
+    *** @return True if spooled, false if spooling is disabled or failed
+    **/
+    private static boolean _spool(java.util.List<EventData> events)
+    {
+        File dir = EventDataWriter.getSpoolDirectory();
+        if ((dir == null) || ListTools.isEmpty(events)) {
+            return false;
+        }
+        boolean ignoreDups = DBProvider.supportsInsertIgnore();
+        java.util.List<String> stmts = new Vector<String>();
+        try {
+            for (EventData ev : events) {
+                stmts.add(DBProvider.getInsertRecordsStatement(Collections.singletonList(ev), ignoreDups));
+            }
+        } catch (DBException dbe) {
+            Print.logError("Unable to create EventData spool statement: " + dbe);
+            return false;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Print.logError("Unable to create EventData spool directory: " + dir);
+            return false;
+        }
+        String name;
+        synchronized (EventDataWriter.class) {
+            name = String.format("EventData_%013d_%06d", DateTime.getCurrentTimeMillis(), (SpoolSequence++ % 1000000L));
+        }
+        File sqlFile = new File(dir, name + SPOOL_EXTN);
+        if (!EventDataWriter._writeSpoolFile(sqlFile, stmts)) {
+            return false;
+        }
+        synchronized (EventDataWriter.class) { SpooledCount += stmts.size(); }
+        Print.logWarn("Spooled " + stmts.size() + " EventData records: " + sqlFile);
+        return true;
+    }
+
+    /**
+    *** Writes the statements to the specified spool file.  The statements are written
+    *** to a temporary file, which is synced and then renamed to the spool file.  Each
+    *** statement is UTF-8 encoded, and preceded by a line containing its length in bytes.
+    *** @return True if written, false otherwise
+    **/
+    private static boolean _writeSpoolFile(File file, java.util.List<String> stmts)
+    {
+        File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        FileOutputStream fos = null;
+        try {
+            fos = new FileOutputStream(tmpFile);
+            for (String sql : stmts) {
+                byte b[] = sql.getBytes(StringTools.CharEncoding_UTF_8);
+                fos.write(StringTools.getBytes(String.valueOf(b.length)));
+                fos.write('\n');
+                fos.write(b);
+                fos.write('\n');
+            }
+            fos.getFD().sync();
+            fos.close();
+            fos = null;
+            if (!tmpFile.renameTo(file)) {
+                // -- some platforms will not rename over an existing file
+                if (!file.delete() || !tmpFile.renameTo(file)) {
+                    Print.logError("Unable to rename EventData spool file: " + tmpFile);
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException ioe) {
+            Print.logError("Unable to write EventData spool file: " + ioe);
+            return false;
+        } finally {
+            if (fos != null) { try { fos.close(); } catch (IOException ioe) {} }
+        }
+    }
+
+    /**
+    *** Reads the statements from the specified spool file.  A spool file which does
+    *** not start with a statement length contains a single statement.
+    *** @return The list of statements, or null if the file could not be read
+    **/
+    private static java.util.List<String> _readSpoolFile(File file)
+    {
+        byte b[] = FileTools.readFile(file);
+        if (b == null) {
+            return null;
+        }
+        java.util.List<String> stmts = new Vector<String>();
+        try {
+            int p = 0;
+            while (p < b.length) {
+                int eol = p;
+                while ((eol < b.length) && (b[eol] != '\n')) { eol++; }
+                String lenStr = StringTools.toStringValue(b, p, eol - p).trim();
+                int    len    = StringTools.isInt(lenStr,true)? StringTools.parseInt(lenStr,-1) : -1;
+                if ((len < 0) || ((eol + 1 + len) > b.length)) {
+                    if (p == 0) {
+                        // -- single statement
+                        stmts.add(StringTools.toStringValue(b).trim());
+                    } else {
+                        Print.logError("Truncated EventData spool file: " + file);
+                    }
+                    break;
+                }
+                stmts.add(new String(b, eol + 1, len, StringTools.CharEncoding_UTF_8));
+                p = eol + 1 + len + 1;
+            }
+        } catch (UnsupportedEncodingException uee) {
+            // -- will not occur
+            Print.logError("Unable to read EventData spool file: " + uee);
+            return null;
+        }
+        return stmts;
+    }
+
+    /**
+    *** Replays spooled insert statements (oldest first), stopping at the first failure.
+    *** Statements which fail because the event already exists are moved to a ".dup" 
+    *** file for manual review.  If replay stops part way through a spool file, the 
+    *** spool file is rewritten with the remaining statements.
+    **/
+    private static void _replaySpool()
+    {
+        File dir = EventDataWriter.getSpoolDirectory();
+        if ((dir == null) || !dir.isDirectory()) {
+            return;
+        }
+        synchronized (EventDataWriter.class) {
+            long nowMS = DateTime.getCurrentTimeMillis();
+            if (SpoolReplaying || ((nowMS - LastReplayMS) < REPLAY_INTERVAL_MS)) {
+                return;
+            }
+            SpoolReplaying = true;
+            LastReplayMS   = nowMS;
+        }
+        try {
+            File files[] = FileTools.getFiles(dir, new String[] { SPOOL_EXTN.substring(1) }, false);
+            if (ListTools.isEmpty(files)) {
+                return;
+            }
+            Arrays.sort(files); // names are time ordered
+            for (File f : files) {
+                java.util.List<String> stmts = EventDataWriter._readSpoolFile(f);
+                if (stmts == null) {
+                    continue;
+                }
+                java.util.List<String> dupStmts = new Vector<String>();
+                int count = 0, ignored = 0, ndx = 0;
+                boolean retry = false;
+                for (; ndx < stmts.size(); ndx++) {
+                    String sql = stmts.get(ndx);
+                    try {
+                        if (EventDataWriter._executeInsert(sql) > 0) {
+                            count++;
+                        } else {
+                            ignored++; // already exists
+                        }
+                    } catch (SQLException sqe) {
+                        if (sqe.getErrorCode() == DBFactory.SQLERR_DUPLICATE_KEY) {
+                            dupStmts.add(sql);
+                        } else {
+                            Print.logWarn("Unable to replay spooled EventData (will retry): " + sqe);
+                            retry = true;
+                            break;
+                        }
+                    } catch (DBException dbe) {
+                        Print.logWarn("Unable to replay spooled EventData (will retry): " + dbe);
+                        retry = true;
+                        break;
+                    }
+                }
+                synchronized (EventDataWriter.class) {
+                    InsertedCount  += count;
+                    DuplicateCount += ignored;
+                }
+                if (!dupStmts.isEmpty()) {
+                    // -- already inserted?  set aside for manual review
+                    File dupFile = new File(dir, f.getName() + ".dup");
+                    java.util.List<String> prior = dupFile.isFile()? EventDataWriter._readSpoolFile(dupFile) : null;
+                    if (prior != null) {
+                        dupStmts.addAll(0, prior);
+                    }
+                    if (EventDataWriter._writeSpoolFile(dupFile, dupStmts)) {
+                        Print.logError("Duplicate key replaying spooled EventData, moved to: " + dupFile);
+                    }
+                }
+                if (retry) {
+                    if (ndx > 0) {
+                        // -- keep only the statements which have not been replayed
+                        EventDataWriter._writeSpoolFile(f, stmts.subList(ndx, stmts.size()));
+                    }
+                    break;
+                }
+                f.delete();
+                Print.logInfo("Replayed spooled EventData: " + f + " [inserted=" + count + "]");
+            }
+        } finally {
+            synchronized (EventDataWriter.class) {
+                SpoolReplaying = false;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of EventData records queued for write-behind insertion
+    **/
+    public static synchronized long getQueuedCount()
+    {
+        return QueuedCount;
+    }
+
+    /**
+    *** Gets the number of EventData records inserted by the writer threads
+    **/
+    public static synchronized long getInsertedCount()
+    {
+        return InsertedCount;
+    }
+
+    /**
+    *** Gets the number of multi-row insert statements executed
+    **/
+    public static synchronized long getBatchCount()
+    {
+        return BatchCount;
+    }
+
+    /**
+    *** Gets the number of EventData records written to the spool directory
+    **/
+    public static synchronized long getSpooledCount()
+    {
+        return SpooledCount;
+    }
+
+    /**
+    *** Gets the number of EventData records skipped because they already existed
+    **/
+    public static synchronized long getDuplicateCount()
+    {
+        return DuplicateCount;
+    }
+
+    /**
+    *** Gets the number of coalesced Device updates written
+    **/
+    public static synchronized long getDeviceUpdateCount()
+    {
+        return DeviceUpdateCount;
+    }
+
+    /**
+    *** Gets the number of Device updates combined with a pending update
+    **/
+    public static synchronized long getCoalescedCount()
+    {
+        return CoalescedCount;
+    }
+
+    /**
+    *** Gets the number of times an inserting thread found a full queue
+    **/
+    public static synchronized long getBackPressureCount()
+    {
+        return BackPressureCount;
+    }
+
+    /**
+    *** Gets a String representation of the writer statistics
+    **/
+    public static synchronized String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("queued=").append(QueuedCount);
+        sb.append(" inserted=").append(InsertedCount);
+        sb.append(" batches=").append(BatchCount);
+        sb.append(" spooled=").append(SpooledCount);
+        sb.append(" duplicates=").append(DuplicateCount);
+        sb.append(" deviceUpdates=").append(DeviceUpdateCount);
+        sb.append(" coalesced=").append(CoalescedCount);
+        sb.append(" fullQueue=").append(BackPressureCount);
+        return sb.toString();
+    }
+
+}
@@ -3990,13 +3990,14 @@ public class EventUtil
                     EventData.FLD_geozoneID, 
                     EventData.FLD_address 
                 };
-                EventData.getRangeEvents(
+                EventData.iterateRangeEvents(
                     devList[0].getAccountID(), devList[0].getDeviceID(),
                     startTime, endTime,
                     null/*statusCodes[]*/,
                     true/*validGPS*/,
-                    EventData.LimitType.FIRST, -1L/*limit*/, true/*ascending*/,
+                    true/*ascending*/,
                     null/*additionalSelect*/,
+                    EventData.ITERATE_BLOCK_SIZE,
                     new DBRecordHandler<EventData>() {
                         public int handleDBRecord(EventData rcd) throws DBException {
                             EventData ev = rcd;
@@ -4117,13 +4118,14 @@ public class EventUtil
                     final boolean rhRenewAddr   = renewAddress; // force new address
                     final AccumulatorLong accum = new AccumulatorLong(0L);
                     final Account.GeocoderMode rhRgMode = rgMode;
-                    EventData.getRangeEvents(
+                    EventData.iterateRangeEvents(
                         devList[d].getAccountID(), devList[d].getDeviceID(),
                         startTime, endTime,
                         null/*statusCodes[]*/,
                         true/*validGPS*/,
-                        EventData.LimitType.FIRST, -1L/*limit*/, true/*ascending*/,
+                        true/*ascending*/,
                         null/*additionalSelect*/,
+                        EventData.ITERATE_BLOCK_SIZE,
                         new DBRecordHandler<EventData>() {
                             public int handleDBRecord(EventData rcd) throws DBException {
                                 EventData ev = rcd;
@@ -0,0 +1,498 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Per-account in-memory spatial index of active Geozones
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Holds all active Geozones for an account in a uniform lat/lon grid keyed on the
+*** Geozone bounding box (minLatitude/maxLatitude/minLongitude/maxLongitude), so that
+*** "Geozone.getGeozones(accountID, GeoPoint)" can be answered without a table
+*** lock or a SELECT per event.<br>
+*** An account index is immutable once built, and lookups do not lock.  The index
+*** is discarded when a Geozone for the account is inserted, updated, or deleted
+*** within this JVM.  To pick up changes made by other processes (ie. the web
+*** interface), the account zone count and latest "lastUpdateTime" are compared with
+*** the values at load every "GeozoneIndex.checkIntervalSec" (a single aggregate
+*** select), and the index is reloaded when they differ, or after
+*** "GeozoneIndex.maximumAgeSec".<br>
+*** The index is disabled by default ("GeozoneIndex.enabled").<br>
+*** The returned Geozone instances are shared, and must be treated as read-only.
+**/
+
+public class GeozoneIndex
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final long       DFT_MAXIMUM_AGE_SEC     = 120L;
+    public  static final long       DFT_CHECK_INTERVAL_SEC  = 5L;
+    public  static final double     DFT_CELL_SIZE_DEG       = 0.1;
+    public  static final int        DFT_MAXIMUM_ACCOUNTS    = 1000;
+
+    /* zones covering more than this many cells are tested without the grid */
+    private static final int        MAX_ZONE_CELLS          = 1024;
+
+    /**
+    *** Returns true if the Geozone index is enabled
+    **/
+    public static boolean isEnabled()
+    {
+        return RTConfig.getBoolean(DBConfig.PROP_GeozoneIndex_enabled, false);
+    }
+
+    /**
+    *** Gets the maximum age of an account index, in milliseconds
+    **/
+    private static long getMaximumAgeMS()
+    {
+        return RTConfig.getLong(DBConfig.PROP_GeozoneIndex_maximumAgeSec, DFT_MAXIMUM_AGE_SEC) * 1000L;
+    }
+
+    /**
+    *** Gets the interval at which an account index is checked against the Geozone table,
+    *** in milliseconds
+    **/
+    private static long getCheckIntervalMS()
+    {
+        return RTConfig.getLong(DBConfig.PROP_GeozoneIndex_checkIntervalSec, DFT_CHECK_INTERVAL_SEC) * 1000L;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Immutable grid index of the active Geozones for a single account
+    **/
+    private static class AccountIndex
+    {
+        private String               accountID  = null;
+        private long                 loadMS     = 0L;
+        private double               cellDeg    = DFT_CELL_SIZE_DEG;
+        private Geozone              zones[]    = null; // in select order (priority, sortID)
+        private double               bounds[][] = null; // [minLat,maxLat,minLon,maxLon] per zone
+        private Map<Long,int[]>      grid       = null; // cell -> ascending zone indexes
+        private int                  large[]    = null; // zones spanning too many cells
+        private volatile long        lastUseMS  = 0L;
+        private AtomicBoolean        reloading  = new AtomicBoolean(false);
+        private long                 tableState[] = null; // {zoneCount, maxLastUpdateTime} at load
+        private volatile long        checkMS    = 0L;
+
+        public AccountIndex(String acctID, Geozone gz[], double cellDeg, long state[]) {
+            this.accountID  = acctID;
+            this.loadMS     = System.currentTimeMillis();
+            this.lastUseMS  = this.loadMS;
+            this.checkMS    = this.loadMS;
+            this.tableState = state;
+            this.cellDeg    = (cellDeg > 0.0)? cellDeg : DFT_CELL_SIZE_DEG;
+            this.zones      = (gz != null)? gz : new Geozone[0];
+            this.bounds     = new double[this.zones.length][];
+            Map<Long,java.util.List<Integer>> cells = new HashMap<Long,java.util.List<Integer>>();
+            java.util.List<Integer> largeList = new Vector<Integer>();
+            for (int z = 0; z < this.zones.length; z++) {
+                Geozone g = this.zones[z];
+                double b[] = new double[] {
+                    g.getMinLatitude(), g.getMaxLatitude(),
+                    g.getMinLongitude(), g.getMaxLongitude() };
+                this.bounds[z] = b;
+                if ((b[0] > b[1]) || (b[2] > b[3])) {
+                    continue; // invalid bounds (can not match the bounding-box select)
+                }
+                int latS = this._latCell(b[0]), latN = this._latCell(b[1]);
+                int lonW = this._lonCell(b[2]), lonE = this._lonCell(b[3]);
+                long cellCnt = (long)(latN - latS + 1) * (long)(lonE - lonW + 1);
+                if (cellCnt > MAX_ZONE_CELLS) {
+                    largeList.add(new Integer(z));
+                    continue;
+                }
+                for (int la = latS; la <= latN; la++) {
+                    for (int lo = lonW; lo <= lonE; lo++) {
+                        Long key = new Long(_cellKey(la,lo));
+                        java.util.List<Integer> list = cells.get(key);
+                        if (list == null) {
+                            list = new Vector<Integer>(2);
+                            cells.put(key, list);
+                        }
+                        list.add(new Integer(z));
+                    }
+                }
+            }
+            this.grid = new HashMap<Long,int[]>(Math.max(16, cells.size() * 4 / 3 + 1));
+            for (Map.Entry<Long,java.util.List<Integer>> e : cells.entrySet()) {
+                this.grid.put(e.getKey(), _toArray(e.getValue()));
+            }
+            this.large = _toArray(largeList);
+        }
+
+        private int _latCell(double lat) {
+            return (int)Math.floor((lat + 90.0) / this.cellDeg);
+        }
+
+        private int _lonCell(double lon) {
+            return (int)Math.floor((lon + 180.0) / this.cellDeg);
+        }
+
+        public boolean isExpired(long nowMS, long maxAgeMS) {
+            return (maxAgeMS > 0L) && ((nowMS - this.loadMS) > maxAgeMS);
+        }
+
+        public boolean isCheckDue(long nowMS, long checkMS) {
+            return (checkMS > 0L) && ((nowMS - this.checkMS) >= checkMS);
+        }
+
+        /* return candidate zone indexes (ascending) whose bounding box contains the point */
+        public int[] getCandidates(double lat, double lon) {
+            int cell[] = this.grid.get(new Long(_cellKey(this._latCell(lat),this._lonCell(lon))));
+            if (cell == null) { cell = new int[0]; }
+            int c[] = new int[cell.length + this.large.length];
+            int n = 0, i = 0, j = 0;
+            while ((i < cell.length) || (j < this.large.length)) {
+                int z;
+                if ((j >= this.large.length) || ((i < cell.length) && (cell[i] < this.large[j]))) {
+                    z = cell[i++];
+                } else {
+                    z = this.large[j++];
+                }
+                double b[] = this.bounds[z];
+                if ((b[0] <= lat) && (b[1] >= lat) && (b[2] <= lon) && (b[3] >= lon)) {
+                    c[n++] = z;
+                }
+            }
+            if (n == c.length) {
+                return c;
+            } else {
+                int r[] = new int[n];
+                System.arraycopy(c,0, r,0, n);
+                return r;
+            }
+        }
+
+    }
+
+    private static long _cellKey(int latCell, int lonCell)
+    {
+        return ((long)latCell << 32) | ((long)lonCell & 0xFFFFFFFFL);
+    }
+
+    private static int[] _toArray(java.util.List<Integer> list)
+    {
+        int a[] = new int[list.size()];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = list.get(i).intValue();
+        }
+        return a;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static ConcurrentHashMap<String,AccountIndex> indexMap   = new ConcurrentHashMap<String,AccountIndex>();
+    private static ConcurrentHashMap<String,Object>       loadingMap = new ConcurrentHashMap<String,Object>(); // first load in progress
+    private static Object                                 loadLock   = new Object();
+
+    private static AtomicLong   lookupCount     = new AtomicLong(0L);
+    private static AtomicLong   loadCount       = new AtomicLong(0L);
+    private static AtomicLong   invalidateCount = new AtomicLong(0L);
+    private static AtomicLong   changedCount    = new AtomicLong(0L);
+
+    /**
+    *** Gets the Geozone zone count and latest "lastUpdateTime" for the specified account
+    *** (includes inactive zones, so that activation changes and deletions are detected)
+    *** @return {zoneCount, maxLastUpdateTime}
+    **/
+    private static long[] _getTableState(String acctID)
+        throws DBException
+    {
+        DBFactory<Geozone> fact = Geozone.getFactory();
+        DBWhere dwh = new DBWhere(fact);
+        String sql = "SELECT COUNT(*),MAX(" + DBProvider.translateColumnName(Geozone.FLD_lastUpdateTime) + ")" +
+            " FROM " + fact.getTranslatedTableName() +
+            dwh.WHERE_(dwh.EQ(Geozone.FLD_accountID,acctID));
+        DBConnection dbc  = null;
+        Statement    stmt = null;
+        ResultSet    rs   = null;
+        try {
+            dbc  = DBConnection.getDefaultConnection();
+            stmt = dbc.execute(sql);
+            rs   = stmt.getResultSet();
+            if (rs.next()) {
+                return new long[] { rs.getLong(1), rs.getLong(2) };
+            } else {
+                return new long[] { 0L, 0L };
+            }
+        } catch (SQLException sqe) {
+            throw new DBException("Geozone state: " + acctID, sqe);
+        } finally {
+            if (rs   != null) { try { rs.close(); } catch (Throwable t) {} }
+            if (dbc  != null) { dbc.releaseStatement(stmt); }
+            DBConnection.release(dbc);
+        }
+    }
+
+    /**
+    *** Loads the active Geozones for the specified account from the DB
+    **/
+    private static AccountIndex _loadIndex(String acctID)
+        throws DBException
+    {
+        long state[] = GeozoneIndex._getTableState(acctID); // before loading the zones
+        String where = Geozone.getWhereClause(
+            acctID,                     // accountID
+            null,                       // geozoneID
+            -1,                         // sortID
+            null, null,                 // (GeoBounds)/GeoPoint
+            true,                       // isActive only
+            false,                      // clientUpload
+            false                       // reverseGeocode
+            );
+        String orderBy[] = Geozone.supportsPriority()?
+            new String[] { Geozone.FLD_priority, Geozone.FLD_sortID } :
+            new String[] { Geozone.FLD_sortID };
+        Geozone gz[] = DBRecord.getRecords(Geozone.getFactory(), where, orderBy, true);
+        double cellDeg = RTConfig.getDouble(DBConfig.PROP_GeozoneIndex_cellSizeDeg, DFT_CELL_SIZE_DEG);
+        GeozoneIndex.loadCount.incrementAndGet();
+        return new AccountIndex(acctID, gz, cellDeg, state);
+    }
+
+    /**
+    *** Loads the index for the specified account, and saves it unless the account was
+    *** invalidated while loading
+    **/
+    private static AccountIndex _storeIndex(String acctID)
+        throws DBException
+    {
+        long invSeq = GeozoneIndex.invalidateCount.get();
+        AccountIndex newNdx = GeozoneIndex._loadIndex(acctID);
+        synchronized (GeozoneIndex.loadLock) {
+            if (invSeq == GeozoneIndex.invalidateCount.get()) {
+                // -- not invalidated while loading
+                GeozoneIndex.indexMap.put(acctID, newNdx);
+                GeozoneIndex._trimAccounts();
+            }
+        }
+        return newNdx;
+    }
+
+    /**
+    *** Gets the index for the specified account, loading it if necessary
+    **/
+    private static AccountIndex _getIndex(String acctID)
+        throws DBException
+    {
+        long nowMS = System.currentTimeMillis();
+        AccountIndex ndx = GeozoneIndex.indexMap.get(acctID);
+
+        /* current index */
+        if ((ndx != null) && !ndx.isExpired(nowMS,GeozoneIndex.getMaximumAgeMS())) {
+            ndx.lastUseMS = nowMS;
+            if (!ndx.isCheckDue(nowMS,GeozoneIndex.getCheckIntervalMS()) || !ndx.reloading.compareAndSet(false,true)) {
+                return ndx;
+            }
+            // -- one thread checks for Geozones changed by other processes, others continue
+            try {
+                long state[] = GeozoneIndex._getTableState(acctID);
+                ndx.checkMS = nowMS;
+                if (Arrays.equals(state, ndx.tableState)) {
+                    return ndx;
+                }
+                GeozoneIndex.changedCount.incrementAndGet();
+                return GeozoneIndex._storeIndex(acctID);
+            } finally {
+                ndx.reloading.set(false);
+            }
+        }
+
+        /* not loaded: one thread loads, others wait for the loaded index */
+        if (ndx == null) {
+            Object lock = new Object();
+            Object prev = GeozoneIndex.loadingMap.putIfAbsent(acctID, lock);
+            if (prev != null) {
+                lock = prev;
+            }
+            synchronized (lock) {
+                try {
+                    ndx = GeozoneIndex.indexMap.get(acctID);
+                    if (ndx != null) {
+                        // -- loaded by another thread while waiting
+                        ndx.lastUseMS = nowMS;
+                        return ndx;
+                    }
+                    return GeozoneIndex._storeIndex(acctID);
+                } finally {
+                    GeozoneIndex.loadingMap.remove(acctID, lock);
+                }
+            }
+        }
+
+        /* expired: one thread reloads, others continue to use the expired index */
+        if (!ndx.reloading.compareAndSet(false,true)) {
+            return ndx;
+        }
+        try {
+            return GeozoneIndex._storeIndex(acctID);
+        } finally {
+            ndx.reloading.set(false);
+        }
+
+    }
+
+    /**
+    *** Removes the least recently used account indexes beyond the maximum count
+    **/
+    private static void _trimAccounts()
+    {
+        // "GeozoneIndex.loadLock" lock required
+        int maxAccts = RTConfig.getInt(DBConfig.PROP_GeozoneIndex_maximumAccounts, DFT_MAXIMUM_ACCOUNTS);
+        while ((maxAccts > 0) && (GeozoneIndex.indexMap.size() > maxAccts)) {
+            AccountIndex oldest = null;
+            for (AccountIndex ndx : GeozoneIndex.indexMap.values()) {
+                if ((oldest == null) || (ndx.lastUseMS < oldest.lastUseMS)) {
+                    oldest = ndx;
+                }
+            }
+            if (oldest == null) {
+                break;
+            }
+            GeozoneIndex.indexMap.remove(oldest.accountID, oldest);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets all active Geozones for the specified account which contain the
+    *** specified point, in priority order.  Equivalent to the table select
+    *** performed by "Geozone.getGeozones(accountID, GeoPoint)".
+    *** @param acctID  The account ID
+    *** @param gp      The GeoPoint
+    *** @return The matching Geozones, or null if no Geozones contain the point
+    **/
+    public static Geozone[] getGeozones(String acctID, GeoPoint gp)
+        throws DBException
+    {
+        if (StringTools.isBlank(acctID) || (gp == null) || !gp.isValid()) {
+            return null;
+        }
+        GeozoneIndex.lookupCount.incrementAndGet();
+        AccountIndex ndx = GeozoneIndex._getIndex(acctID);
+        int cand[] = ndx.getCandidates(gp.getLatitude(), gp.getLongitude());
+        if (cand.length == 0) {
+            return null;
+        }
+
+        /* qualify that geozones contain point */
+        java.util.List<Geozone> list = null;
+        String lastDesc   = "";
+        String lastZoneId = null;
+        for (int c = 0; c < cand.length; c++) {
+            Geozone gz = ndx.zones[cand[c]];
+
+            /* skip if inactive */
+            if (!gz.getIsActive()) {
+                continue;
+            }
+
+            /* reset the cached last description if we've changed zones */
+            String zoneId = gz.getGeozoneID();
+            if ((lastZoneId == null) || !lastZoneId.equals(zoneId)) {
+                lastZoneId = zoneId;
+                lastDesc   = "";
+            }
+            String thisDesc = gz.getDescription();
+
+            /* validate that Geozone contains point */
+            if (gz.containsPoint(gp)) {
+                if (thisDesc.equals("") && !lastDesc.equals("")) {
+                    // -- do not modify the shared instance
+                    Geozone copy = (new Geozone.Key(gz.getAccountID(),zoneId,gz.getSortID())).getDBRecord();
+                    copy.setAllFieldValues(gz);
+                    copy.setDescription(lastDesc);
+                    gz = copy;
+                }
+                if (list == null) { list = new Vector<Geozone>(); }
+                list.add(gz);
+            }
+
+            /* save last description */
+            if (!thisDesc.equals("")) {
+                lastDesc = thisDesc;
+            }
+
+        }
+        return (list != null)? list.toArray(new Geozone[list.size()]) : null;
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Discards the index for the specified account
+    *** @param acctID  The account ID
+    **/
+    public static void invalidate(String acctID)
+    {
+        if (acctID != null) {
+            synchronized (GeozoneIndex.loadLock) {
+                GeozoneIndex.invalidateCount.incrementAndGet();
+                GeozoneIndex.indexMap.remove(acctID);
+            }
+        }
+    }
+
+    /**
+    *** Discards all account indexes
+    **/
+    public static void clear()
+    {
+        GeozoneIndex.indexMap.clear();
+    }
+
+    /**
+    *** Gets the Geozone index statistics
+    **/
+    public static String getStatistics()
+    {
+        int zoneCnt = 0;
+        for (AccountIndex ndx : GeozoneIndex.indexMap.values()) {
+            zoneCnt += ndx.zones.length;
+        }
+        StringBuffer sb = new StringBuffer();
+        sb.append("GeozoneIndex:");
+        sb.append(" accounts=").append(GeozoneIndex.indexMap.size());
+        sb.append(" zones=").append(zoneCnt);
+        sb.append(" lookups=").append(GeozoneIndex.lookupCount.get());
+        sb.append(" loads=").append(GeozoneIndex.loadCount.get());
+        sb.append(" invalidated=").append(GeozoneIndex.invalidateCount.get());
+        sb.append(" changed=").append(GeozoneIndex.changedCount.get());
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -0,0 +1,350 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Asynchronous reverse-geocoding of inserted EventData records
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+import org.opengts.geocoder.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Asynchronous reverse-geocoding of inserted EventData records.<br>
+*** When enabled, EventData records whose address could not be obtained from a fast
+*** ReverseGeocodeProvider (see <code>Device.insertEventData</code>) are submitted to the
+*** shared ReverseGeocodeDispatcher (which coalesces requests for the same rounded
+*** location, and rate-limits/batches the provider calls), rather than each performing
+*** its own blocking provider call on the DeviceEventUpdate ThreadPool.  The returned
+*** addresses are written back to the stored EventData records in batches.
+**/
+
+public class ReverseGeocodePipeline
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        DFT_FLUSH_SIZE          = 100;
+    public  static final long       DFT_FLUSH_LATENCY_MS    = 1000L;
+
+    private static final long       RETRY_DELAY_MS          = 5000L;
+
+    /* address fields written back to the EventData table */
+    private static final String     ADDRESS_FIELDS[]        = new String[] {
+        EventData.FLD_address,
+        EventData.FLD_streetAddress,
+        EventData.FLD_city,
+        EventData.FLD_stateProvince,
+        EventData.FLD_postalCode,
+        EventData.FLD_country,
+        EventData.FLD_subdivision,
+        EventData.FLD_speedLimitKPH,
+        EventData.FLD_isTollRoad,
+    };
+
+    /**
+    *** Returns true if the ReverseGeocodePipeline is enabled
+    **/
+    public static boolean isEnabled()
+    {
+        return RTConfig.getBoolean(DBConfig.PROP_ReverseGeocodePipeline_enabled, false);
+    }
+
+    /**
+    *** Gets the maximum number of EventData address updates written per batch
+    **/
+    public static int getFlushSize()
+    {
+        int f = RTConfig.getInt(DBConfig.PROP_ReverseGeocodePipeline_flushSize, DFT_FLUSH_SIZE);
+        return (f > 0)? f : 1;
+    }
+
+    /**
+    *** Gets the maximum time (in milliseconds) an address update waits before it is written
+    **/
+    public static long getFlushLatencyMS()
+    {
+        long l = RTConfig.getLong(DBConfig.PROP_ReverseGeocodePipeline_flushLatencyMS, DFT_FLUSH_LATENCY_MS);
+        return (l > 0L)? l : 1L;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Writer class: batches reverse-geocoded EventData records for update
+    **/
+    private static class Writer
+        extends Thread
+    {
+
+        private java.util.List<EventData>   queue      = new LinkedList<EventData>();
+        private long                        pendingMS  = 0L; // time of oldest pending entry
+        private boolean                     stopped    = false;
+
+        public Writer() {
+            super("ReverseGeocodePipeline_Writer");
+            this.setDaemon(true);
+        }
+
+        public synchronized boolean putEvent(EventData ev) {
+            if (this.stopped) {
+                return false;
+            }
+            this.queue.add(ev);
+            if (this.pendingMS <= 0L) {
+                this.pendingMS = DateTime.getCurrentTimeMillis();
+                this.notifyAll();
+            } else
+            if (this.queue.size() >= ReverseGeocodePipeline.getFlushSize()) {
+                this.notifyAll();
+            }
+            return true;
+        }
+
+        public void stopWriter() {
+            synchronized (this) {
+                this.stopped = true;
+                this.notifyAll();
+            }
+        }
+
+        public void run() {
+            for (;;) {
+                java.util.List<EventData> batch = null;
+                synchronized (this) {
+                    // -- wait for a full batch, latency expiration, or stop
+                    int  flushSize = ReverseGeocodePipeline.getFlushSize();
+                    long latencyMS = ReverseGeocodePipeline.getFlushLatencyMS();
+                    for (;;) {
+                        if (this.stopped || (this.queue.size() >= flushSize)) {
+                            break;
+                        } else
+                        if (this.pendingMS > 0L) {
+                            long waitMS = (this.pendingMS + latencyMS) - DateTime.getCurrentTimeMillis();
+                            if (waitMS <= 0L) {
+                                break;
+                            }
+                            try { this.wait(waitMS); } catch (InterruptedException ie) {}
+                        } else {
+                            try { this.wait(); } catch (InterruptedException ie) {}
+                        }
+                    }
+                    if (this.stopped && this.queue.isEmpty()) {
+                        break;
+                    }
+                    // -- take batch
+                    int n = Math.min(flushSize, this.queue.size());
+                    java.util.List<EventData> head = this.queue.subList(0, n);
+                    batch = new Vector<EventData>(head);
+                    head.clear();
+                    this.pendingMS = this.queue.isEmpty()? 0L : DateTime.getCurrentTimeMillis();
+                }
+                // -- write batch
+                if (!ReverseGeocodePipeline._updateBatch(batch)) {
+                    if (this.stopped) {
+                        Print.logError("Unable to write pending EventData addresses on shutdown");
+                        break;
+                    }
+                    synchronized (this) {
+                        this.queue.addAll(0, batch);
+                        this.pendingMS = DateTime.getCurrentTimeMillis();
+                        try { this.wait(RETRY_DELAY_MS); } catch (InterruptedException ie) {}
+                    }
+                }
+            }
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static Writer           AddressWriter       = null;
+
+    /* statistics */
+    private static long             QueuedCount         = 0L;
+    private static long             NotFoundCount       = 0L;
+    private static long             UpdatedCount        = 0L;
+    private static long             BatchCount          = 0L;
+
+    /**
+    *** Gets the address writer, starting the writer thread on first use
+    **/
+    private static synchronized Writer _getWriter()
+    {
+        if (AddressWriter == null) {
+            AddressWriter = new Writer();
+            AddressWriter.start();
+            Runtime.getRuntime().addShutdownHook(new Thread("ReverseGeocodePipeline_shutdown") {
+                public void run() {
+                    ReverseGeocodePipeline.shutdown();
+                }
+            });
+            Print.logInfo("ReverseGeocodePipeline started: flushSize=" + ReverseGeocodePipeline.getFlushSize() +
+                " latencyMS=" + ReverseGeocodePipeline.getFlushLatencyMS());
+        }
+        return AddressWriter;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Queues the specified (already inserted) EventData record for reverse-geocoding.
+    *** The caller is expected to have already determined that reverse-geocoding is
+    *** required (ie. <code>updateAddress(true)</code> threw a SlowOperationException).
+    *** @param evdb  The EventData record
+    *** @return True if the record was queued, false if the pipeline is disabled or the
+    ***         request could not be queued (in which case the caller should update the
+    ***         address directly)
+    **/
+    public static boolean queueEventData(final EventData evdb)
+    {
+        if ((evdb == null) || !ReverseGeocodePipeline.isEnabled()) {
+            return false;
+        }
+
+        /* ReverseGeocodeProvider */
+        Account acct = evdb.getAccount();
+        BasicPrivateLabel privLabel = (acct != null)? acct.getPrivateLabel() : null;
+        ReverseGeocodeProvider rgp = (privLabel != null)? privLabel.getReverseGeocodeProvider() : null;
+        if ((rgp == null) || !rgp.isEnabled()) {
+            return false;
+        }
+        GeoPoint gp = evdb.getReverseGeocodeGeoPoint();
+        if (gp == null) {
+            return false;
+        }
+
+        /* submit */
+        // -- currently "cache" is expected to be true when the vehicle is "stopped"
+        boolean cache = (evdb.getSpeedKPH() <= 0.0)? true : false;
+        boolean queued = ReverseGeocodeDispatcher.getInstance().submit(
+            rgp, gp, privLabel.getLocaleString(), cache, privLabel.getRTProperties(),
+            new ReverseGeocodeDispatcher.ReverseGeocodeListener() {
+                public void reverseGeocodeComplete(GeoPoint gp, ReverseGeocode rg) {
+                    ReverseGeocodePipeline._reverseGeocodeComplete(evdb, rg);
+                }
+            });
+        if (queued) {
+            synchronized (ReverseGeocodePipeline.class) { QueuedCount++; }
+        }
+        return queued;
+
+    }
+
+    /**
+    *** Sets the EventData address fields and queues the record for update
+    **/
+    private static void _reverseGeocodeComplete(EventData evdb, ReverseGeocode rg)
+    {
+        Set<String> updFields = evdb.setReverseGeocode(rg);
+        if (updFields == null) {
+            Print.logInfo("No RG Address found: " + evdb.getAccountID() + "/" + evdb.getDeviceID() + " " + evdb.getReverseGeocodeGeoPoint());
+            synchronized (ReverseGeocodePipeline.class) { NotFoundCount++; }
+        } else
+        if (!ReverseGeocodePipeline._getWriter().putEvent(evdb)) {
+            // -- writer stopped (shutdown), update directly
+            ReverseGeocodePipeline._updateEvent(evdb);
+        }
+    }
+
+    /**
+    *** Writes all queued address updates and stops the writer thread
+    **/
+    public static void shutdown()
+    {
+        Writer w;
+        synchronized (ReverseGeocodePipeline.class) {
+            w = AddressWriter;
+            AddressWriter = null;
+        }
+        if (w != null) {
+            w.stopWriter();
+            try { w.join(30000L); } catch (InterruptedException ie) {}
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Updates the address fields of the batch of EventData records
+    *** @return True if updated, false if the batch should be retried
+    **/
+    private static boolean _updateBatch(java.util.List<EventData> batch)
+    {
+        try {
+            DBRecord.updateRecords(batch, ListTools.toSet(ADDRESS_FIELDS, null));
+            synchronized (ReverseGeocodePipeline.class) {
+                UpdatedCount += batch.size();
+                BatchCount++;
+            }
+            Print.logInfo("EventData addresses updated: " + batch.size());
+            return true;
+        } catch (DBException dbe) {
+            Print.logError("EventData address batch update failed: " + dbe);
+            Throwable cause = dbe.getCause();
+            if ((cause instanceof java.sql.SQLException) && 
+                DBConnection.parseCommunicationsException((java.sql.SQLException)cause)) {
+                return false; // database unavailable, retry
+            }
+            // -- update individually
+            for (EventData ev : batch) {
+                ReverseGeocodePipeline._updateEvent(ev);
+            }
+            return true;
+        }
+    }
+
+    /**
+    *** Updates the address fields of the specified EventData record
+    **/
+    private static void _updateEvent(EventData ev)
+    {
+        try {
+            ev.update(ListTools.toSet(ADDRESS_FIELDS, null));
+            synchronized (ReverseGeocodePipeline.class) { UpdatedCount++; }
+        } catch (DBException dbe) {
+            Print.logError("EventData update error: " + dbe);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets a String representation of the pipeline statistics
+    **/
+    public static synchronized String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("queued=").append(QueuedCount);
+        sb.append(" notFound=").append(NotFoundCount);
+        sb.append(" updated=").append(UpdatedCount);
+        sb.append(" batches=").append(BatchCount);
+        sb.append(" [").append(ReverseGeocodeDispatcher.getInstance().getStatistics()).append("]");
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -0,0 +1,800 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Indexed evaluation of the per-account rules defined by a RuleFactory
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** Evaluates the rules defined for an account by a RuleFactory ("getRuleIDs"/"getRuleSelector")
+*** against EventData records.<br>
+*** The rule selectors of an account are compiled once (see
+*** <code>RuleFactoryAdapter.compileSelector</code>) into a per-account rule index, which
+*** groups the rules by the status codes to which they are limited, and by the EventData
+*** field which must be non-zero for the rule to match.  An event is then only evaluated
+*** against the rules applicable to its status code and non-zero fields.<br>
+*** Inserted events are checked one at a time by "Device.checkEventRules", through
+*** <code>RuleFactoryAdapter.executeRules</code> (see <code>executeRules</code>).
+*** A batch of events (ie. a replay) may instead be evaluated with <code>evaluateEvents</code>,
+*** which evaluates different devices in parallel while the events of each device are
+*** evaluated in order.
+**/
+
+public class RuleEvaluator
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final long       DFT_CACHE_TIMEOUT_SEC               = 300L;
+
+    // ------------------------------------------------------------------------
+    // Rule.ThreadPool.RuleEvaluator.maximumPoolSize=10
+    // Rule.ThreadPool.RuleEvaluator.maximumIdleSeconds=60
+    // Rule.ThreadPool.RuleEvaluator.maximumQueueSize=0
+    private static final RTKey PROP_ThreadPool_RuleEvaluator_   = RTKey.valueOf(RTKey.ThreadPool_RuleEvaluator_);
+    private static final int   ThreadPool_RuleEvaluator_Size    = 10;   // max threads
+    private static final int   ThreadPool_RuleEvaluator_IdleSec = 60;   // trim idle threads
+    private static final int   ThreadPool_RuleEvaluator_QueSize =  0;   // max queue size
+    private static ThreadPool  ThreadPool_RuleEvaluator         = new ThreadPool(
+        "RuleEvaluator",
+        PROP_ThreadPool_RuleEvaluator_, // property allowing default override
+        ThreadPool_RuleEvaluator_Size,
+        ThreadPool_RuleEvaluator_IdleSec,
+        ThreadPool_RuleEvaluator_QueSize);
+
+    // ------------------------------------------------------------------------
+
+    private static Map<RuleFactory,RuleEvaluator> evaluatorMap = new IdentityHashMap<RuleFactory,RuleEvaluator>();
+
+    /**
+    *** Gets the RuleEvaluator for the specified RuleFactory
+    *** @param ruleFact  The RuleFactory
+    *** @return The RuleEvaluator, or null if the RuleFactory is null
+    **/
+    public static RuleEvaluator getInstance(RuleFactory ruleFact)
+    {
+        if (ruleFact == null) {
+            return null;
+        }
+        synchronized (evaluatorMap) {
+            RuleEvaluator re = evaluatorMap.get(ruleFact);
+            if (re == null) {
+                re = new RuleEvaluator(ruleFact);
+                evaluatorMap.put(ruleFact, re);
+            }
+            return re;
+        }
+    }
+
+    /**
+    *** Gets the RuleIndex cache timeout, in milliseconds (0 if the cache is disabled)
+    **/
+    private static long _getCacheTimeoutMS()
+    {
+        long sec = RTConfig.getLong(DBConfig.PROP_RuleEvaluator_cacheTimeoutSec, DFT_CACHE_TIMEOUT_SEC);
+        return (sec > 0L)? (sec * 1000L) : 0L;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** A compiled account rule
+    **/
+    private static class Rule
+    {
+        private int             order    = 0;
+        private String          ruleID   = null;
+        private RuleSelector    selector = null;
+        public Rule(int order, String ruleID, RuleSelector selector) {
+            this.order    = order;
+            this.ruleID   = ruleID;
+            this.selector = selector;
+        }
+    }
+
+    private static final Comparator<Rule> RuleOrderComparator = new Comparator<Rule>() {
+        public int compare(Rule r1, Rule r2) {
+            return (r1.order < r2.order)? -1 : (r1.order > r2.order)? 1 : 0;
+        }
+    };
+
+    /**
+    *** A group of rules applicable to the same status code (or to any status code)
+    **/
+    private static class Bucket
+    {
+        private java.util.List<Rule>                    unguarded = new Vector<Rule>();
+        private Map<String,java.util.List<Rule>>        guarded   = new OrderedMap<String,java.util.List<Rule>>();
+        public void addRule(Rule rule, String guardField) {
+            if (guardField == null) {
+                this.unguarded.add(rule);
+            } else {
+                java.util.List<Rule> list = this.guarded.get(guardField);
+                if (list == null) {
+                    list = new Vector<Rule>();
+                    this.guarded.put(guardField, list);
+                }
+                list.add(rule);
+            }
+        }
+        public int match(EventData event, java.util.List<Rule> matches) {
+            int evalCount = 0;
+            for (Rule r : this.unguarded) {
+                evalCount++;
+                if (r.selector.isMatch(event)) {
+                    matches.add(r);
+                }
+            }
+            for (Map.Entry<String,java.util.List<Rule>> e : this.guarded.entrySet()) {
+                if (RuleSelector.HasFieldValue(event, e.getKey())) {
+                    for (Rule r : e.getValue()) {
+                        evalCount++;
+                        if (r.selector.isMatch(event)) {
+                            matches.add(r);
+                        }
+                    }
+                }
+            }
+            return evalCount;
+        }
+    }
+
+    /**
+    *** RuleIndex class: the compiled rules of an account, indexed by status code and
+    *** required field.
+    **/
+    public static class RuleIndex
+    {
+        private String              accountID   = null;
+        private long                loadTimeMS  = 0L;
+        private int                 ruleCount   = 0;
+        private Map<Integer,Bucket> codeBuckets = new HashMap<Integer,Bucket>();
+        private Bucket              anyCode     = new Bucket();
+        public RuleIndex(String accountID, long loadTimeMS) {
+            this.accountID  = accountID;
+            this.loadTimeMS = loadTimeMS;
+        }
+        public String getAccountID() {
+            return this.accountID;
+        }
+        public int getRuleCount() {
+            return this.ruleCount;
+        }
+        public int getStatusCodeCount() {
+            return this.codeBuckets.size();
+        }
+        public boolean isExpired(long nowMS, long timeoutMS) {
+            return ((nowMS - this.loadTimeMS) >= timeoutMS);
+        }
+        private void addRule(String ruleID, RuleSelector selector) {
+            Rule rule = new Rule(this.ruleCount++, ruleID, selector);
+            Set<String> reqFlds = selector.getRequiredFields();
+            String guardField = ListTools.isEmpty(reqFlds)? null : new TreeSet<String>(reqFlds).first();
+            int codes[] = selector.getStatusCodes();
+            if (codes == null) {
+                this.anyCode.addRule(rule, guardField);
+            } else {
+                // -- an empty status code list never matches, and is not indexed
+                for (int c : codes) {
+                    Integer sc = new Integer(c);
+                    Bucket b = this.codeBuckets.get(sc);
+                    if (b == null) {
+                        b = new Bucket();
+                        this.codeBuckets.put(sc, b);
+                    }
+                    b.addRule(rule, guardField);
+                }
+            }
+        }
+        private int match(EventData event, java.util.List<Rule> matches) {
+            int evalCount = this.anyCode.match(event, matches);
+            Bucket b = this.codeBuckets.get(new Integer(event.getStatusCode()));
+            if (b != null) {
+                int n = matches.size();
+                evalCount += b.match(event, matches);
+                if ((n > 0) && (matches.size() > n)) {
+                    // -- matches from both buckets, return in rule order
+                    Collections.sort(matches, RuleOrderComparator);
+                }
+            }
+            return evalCount;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** RuleMatchListener interface
+    **/
+    public interface RuleMatchListener
+    {
+        /**
+        *** Called for each evaluated event which matched one or more rules
+        *** @param event    The evaluated event
+        *** @param ruleIDs  The matching rule IDs, in rule order
+        **/
+        public void rulesMatched(EventData event, java.util.List<String> ruleIDs);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private RuleFactory             ruleFact        = null;
+    private Map<String,RuleIndex>   indexMap        = new HashMap<String,RuleIndex>();
+
+    /* statistics */
+    private AtomicLong              eventCount      = new AtomicLong(0L);
+    private AtomicLong              evalCount       = new AtomicLong(0L);
+    private AtomicLong              matchCount      = new AtomicLong(0L);
+    private AtomicLong              indexCount      = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    *** @param ruleFact  The RuleFactory which defines the account rules
+    **/
+    public RuleEvaluator(RuleFactory ruleFact)
+    {
+        this.ruleFact = ruleFact;
+    }
+
+    /**
+    *** Gets the RuleFactory
+    **/
+    public RuleFactory getRuleFactory()
+    {
+        return this.ruleFact;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the compiled RuleSelector for the specified selector
+    *** @param selector  The rule selector
+    *** @return The compiled RuleSelector
+    **/
+    public RuleSelector getCompiledSelector(String selector)
+    {
+        if (this.ruleFact instanceof RuleFactoryAdapter) {
+            return ((RuleFactoryAdapter)this.ruleFact).getCompiledSelector(selector);
+        } else {
+            return new RuleSelector.Uncompiled(this.ruleFact, selector);
+        }
+    }
+
+    /**
+    *** Compiles and indexes the rules for the specified account
+    *** @param account  The Account
+    *** @return The RuleIndex
+    **/
+    protected RuleIndex createRuleIndex(Account account)
+    {
+        RuleIndex ri = new RuleIndex(account.getAccountID(), System.currentTimeMillis());
+        String ruleIDs[] = this.ruleFact.getRuleIDs(account);
+        if (ruleIDs != null) {
+            for (String ruleID : ruleIDs) {
+                String sel = this.ruleFact.getRuleSelector(account, ruleID);
+                if (!StringTools.isBlank(sel)) {
+                    ri.addRule(ruleID, this.getCompiledSelector(sel));
+                }
+            }
+        }
+        this.indexCount.incrementAndGet();
+        return ri;
+    }
+
+    /**
+    *** Gets the (cached) RuleIndex for the specified account
+    *** @param account  The Account
+    *** @return The RuleIndex, or null if the account is null
+    **/
+    public RuleIndex getRuleIndex(Account account)
+    {
+        if (account == null) {
+            return null;
+        }
+        long timeoutMS = RuleEvaluator._getCacheTimeoutMS();
+        if (timeoutMS <= 0L) {
+            return this.createRuleIndex(account);
+        }
+        String accountID = account.getAccountID();
+        RuleIndex ri;
+        synchronized (this.indexMap) {
+            ri = this.indexMap.get(accountID);
+        }
+        if ((ri == null) || ri.isExpired(System.currentTimeMillis(),timeoutMS)) {
+            ri = this.createRuleIndex(account);
+            synchronized (this.indexMap) {
+                this.indexMap.put(accountID, ri);
+            }
+        }
+        return ri;
+    }
+
+    /**
+    *** Removes the cached RuleIndex for the specified account (ie. after the account
+    *** rules have changed)
+    *** @param accountID  The account ID, or null to remove all cached RuleIndex entries
+    **/
+    public void clearRuleIndex(String accountID)
+    {
+        synchronized (this.indexMap) {
+            if (accountID == null) {
+                this.indexMap.clear();
+            } else {
+                this.indexMap.remove(accountID);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the IDs of the account rules which match the specified event
+    *** @param event  The EventData record (the Account should already be set)
+    *** @return The matching rule IDs, in rule order (empty if no rules match)
+    **/
+    public java.util.List<String> getMatchingRuleIDs(EventData event)
+    {
+        if (event == null) {
+            return Collections.<String>emptyList();
+        }
+        RuleIndex ri = this.getRuleIndex(event.getAccount());
+        this.eventCount.incrementAndGet();
+        if ((ri == null) || (ri.getRuleCount() <= 0)) {
+            return Collections.<String>emptyList();
+        }
+        java.util.List<Rule> matches = new Vector<Rule>();
+        this.evalCount.addAndGet(ri.match(event, matches));
+        if (matches.isEmpty()) {
+            return Collections.<String>emptyList();
+        }
+        this.matchCount.addAndGet(matches.size());
+        java.util.List<String> ruleIDs = new Vector<String>(matches.size());
+        for (Rule r : matches) {
+            ruleIDs.add(r.ruleID);
+        }
+        return ruleIDs;
+    }
+
+    /**
+    *** Executes the account rules which match the specified event
+    *** (see <code>RuleFactory.executeRule</code>)
+    *** @param event  The EventData record
+    *** @return The accumulated action mask of the executed rules, or -1 if no rules were triggered
+    **/
+    public int executeRules(EventData event)
+    {
+        int accumMask = -1;
+        for (String ruleID : this.getMatchingRuleIDs(event)) {
+            int mask = this.ruleFact.executeRule(ruleID, event);
+            if (mask >= 0) {
+                accumMask = (accumMask >= 0)? (accumMask | mask) : mask;
+            }
+        }
+        return accumMask;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Evaluates the specified events against the account rules.  Events for different
+    *** devices are evaluated in parallel on the RuleEvaluator ThreadPool, while the events
+    *** for each device are evaluated in list order.  This method returns after all events
+    *** have been evaluated, and must not be called from a RuleMatchListener.
+    *** @param events    The list of events to evaluate (the Account should already be set)
+    *** @param listener  Called (from the evaluating thread) for each event which matches
+    ***                  one or more rules
+    *** @return The total number of matched rules
+    **/
+    public long evaluateEvents(java.util.List<EventData> events, final RuleMatchListener listener)
+    {
+        if (ListTools.isEmpty(events)) {
+            return 0L;
+        }
+
+        /* separate events by device (retaining order) */
+        Map<String,java.util.List<EventData>> devEvents = new OrderedMap<String,java.util.List<EventData>>();
+        for (EventData ev : events) {
+            String key = ev.getAccountID() + "/" + ev.getDeviceID();
+            java.util.List<EventData> evList = devEvents.get(key);
+            if (evList == null) {
+                evList = new Vector<EventData>();
+                devEvents.put(key, evList);
+            }
+            evList.add(ev);
+        }
+
+        /* evaluate each device on the ThreadPool */
+        final AtomicLong     matched = new AtomicLong(0L);
+        final CountDownLatch pending = new CountDownLatch(devEvents.size());
+        for (final java.util.List<EventData> evList : devEvents.values()) {
+            Runnable job = new Runnable() {
+                public void run() {
+                    try {
+                        for (EventData ev : evList) {
+                            java.util.List<String> ruleIDs = RuleEvaluator.this.getMatchingRuleIDs(ev);
+                            if (!ruleIDs.isEmpty()) {
+                                matched.addAndGet(ruleIDs.size());
+                                if (listener != null) {
+                                    listener.rulesMatched(ev, ruleIDs);
+                                }
+                            }
+                        }
+                    } catch (Throwable th) {
+                        Print.logException("Rule evaluation error", th);
+                    } finally {
+                        pending.countDown();
+                    }
+                }
+            };
+            if (!ThreadPool_RuleEvaluator.run(job)) {
+                job.run(); // ThreadPool not available, run in this thread
+            }
+        }
+
+        /* wait for completion */
+        try {
+            pending.await();
+        } catch (InterruptedException ie) {
+            Print.logWarn("Interrupted while waiting for rule evaluation");
+        }
+        return matched.get();
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets a String representation of the evaluation statistics
+    **/
+    public String getStatistics()
+    {
+        long evCnt = this.eventCount.get();
+        StringBuffer sb = new StringBuffer();
+        sb.append("events=").append(evCnt);
+        sb.append(" evaluated=").append(this.evalCount.get());
+        if (evCnt > 0L) {
+            sb.append(" (").append(StringTools.format((double)this.evalCount.get()/(double)evCnt,"0.0")).append("/event)");
+        }
+        sb.append(" matched=").append(this.matchCount.get());
+        sb.append(" indexed=").append(this.indexCount.get());
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Benchmark entry point below
+
+    private static final String ARG_RULES[]         = new String[] { "rules"    };
+    private static final String ARG_ACCOUNTS[]      = new String[] { "accounts" };
+    private static final String ARG_DEVICES[]       = new String[] { "devices"  };
+    private static final String ARG_EVENTS[]        = new String[] { "events"   };
+    private static final String ARG_EVENT_FILE[]    = new String[] { "eventFile", "load" };
+    private static final String ARG_RECORD[]        = new String[] { "record"   , "save" };
+    private static final String ARG_PARSE_EVENTS[]  = new String[] { "parseEvents" };
+
+    private static final int BENCH_CODES[] = new int[] {
+        StatusCodes.STATUS_LOCATION,
+        StatusCodes.STATUS_MOTION_START,
+        StatusCodes.STATUS_MOTION_STOP,
+        StatusCodes.STATUS_MOTION_IN_MOTION,
+        StatusCodes.STATUS_MOTION_DORMANT,
+        StatusCodes.STATUS_MOTION_EXCESS_SPEED,
+        StatusCodes.STATUS_IGNITION_ON,
+        StatusCodes.STATUS_IGNITION_OFF,
+        StatusCodes.STATUS_GEOFENCE_ARRIVE,
+        StatusCodes.STATUS_GEOFENCE_DEPART,
+        StatusCodes.STATUS_LOW_BATTERY,
+        StatusCodes.STATUS_POWER_FAILURE,
+        StatusCodes.STATUS_PANIC_ON,
+        StatusCodes.STATUS_INPUT_ON_01,
+        StatusCodes.STATUS_INPUT_OFF_01,
+        StatusCodes.STATUS_ODOM_LIMIT_0,
+    };
+
+    /**
+    *** RuleFactory providing a synthetic set of account rules (selectors per RuleFactoryExample)
+    **/
+    private static class SyntheticRuleFactory
+        extends RuleFactoryExample
+    {
+        private Map<String,OrderedMap<String,String>> acctRules = new HashMap<String,OrderedMap<String,String>>();
+        public SyntheticRuleFactory(int numAccounts, int numRules, Random rand) {
+            super();
+            for (int r = 0; r < numRules; r++) {
+                String acctID = "acct" + (r % numAccounts);
+                OrderedMap<String,String> rules = this.acctRules.get(acctID);
+                if (rules == null) {
+                    rules = new OrderedMap<String,String>();
+                    this.acctRules.put(acctID, rules);
+                }
+                rules.put("rule" + r, SyntheticRuleFactory.randomSelector(rand));
+            }
+        }
+        private static String randomCode(Random rand) {
+            return "0x" + StringTools.toHexString(BENCH_CODES[rand.nextInt(BENCH_CODES.length)],16);
+        }
+        private static String randomSelector(Random rand) {
+            int t = rand.nextInt(100);
+            if (t < 45) {
+                return "code:" + randomCode(rand);
+            } else
+            if (t < 55) {
+                return "code:" + randomCode(rand) + ",code:" + randomCode(rand);
+            } else
+            if (t < 80) {
+                return "overSpeed:" + (60 + rand.nextInt(100));
+            } else
+            if (t < 88) {
+                return "over100kph";
+            } else
+            if (t < 92) {
+                return "panic";
+            } else
+            if (t < 96) {
+                return "overSpeed:" + (60 + rand.nextInt(100)) + ",panic";
+            } else {
+                return "isStopped,code:" + randomCode(rand);
+            }
+        }
+        public String[] getRuleIDs(Account account) {
+            OrderedMap<String,String> rules = this.acctRules.get(account.getAccountID());
+            return (rules != null)? rules.keySet().toArray(new String[rules.size()]) : null;
+        }
+        public String getRuleSelector(Account account, String ruleID) {
+            OrderedMap<String,String> rules = this.acctRules.get(account.getAccountID());
+            return (rules != null)? rules.get(ruleID) : null;
+        }
+    }
+
+    /**
+    *** Creates an unsaved EventData record for the benchmark
+    **/
+    private static EventData _benchEvent(Map<String,Account> acctMap, String acctID, String devID,
+        long timestamp, int code, double lat, double lon, double kph)
+    {
+        Account acct = acctMap.get(acctID);
+        if (acct == null) {
+            acct = new Account.Key(acctID).getDBRecord();
+            acctMap.put(acctID, acct);
+        }
+        EventData ev = new EventData.Key(acctID, devID, timestamp, code).getDBRecord();
+        ev.setAccount(acct);
+        ev.setGeoPoint(new GeoPoint(lat, lon));
+        ev.setSpeedKPH(kph);
+        return ev;
+    }
+
+    private static void usage()
+    {
+        Print.logInfo("Usage:");
+        Print.logInfo("  java ... " + RuleEvaluator.class.getName() + " {options}");
+        Print.logInfo("Options:");
+        Print.logInfo("  -rules=<count>        Number of synthetic rules [10000]");
+        Print.logInfo("  -accounts=<count>     Number of accounts the rules are spread over [20]");
+        Print.logInfo("  -devices=<count>      Number of synthetic devices [2000]");
+        Print.logInfo("  -events=<count>       Number of synthetic events [200000]");
+        Print.logInfo("  -eventFile=<file>     Load recorded events (CSV) instead of synthetic events");
+        Print.logInfo("  -record=<file>        Save the synthetic events (CSV) for later runs");
+        Print.logInfo("  -parseEvents=<count>  Number of events for the parse-per-call baseline [2000]");
+        Print.logInfo("Recorded event CSV format:");
+        Print.logInfo("  accountID,deviceID,timestamp,statusCode,latitude,longitude,speedKPH");
+        System.exit(1);
+    }
+
+    /**
+    *** Benchmark: evaluates a synthetic set of account rules against synthetic or recorded events
+    **/
+    public static void main(String argv[])
+    {
+        DBConfig.cmdLineInit(argv,true);  // main
+        int    numRules    = RTConfig.getInt(ARG_RULES   , 10000);
+        int    numAccounts = Math.max(RTConfig.getInt(ARG_ACCOUNTS, 20), 1);
+        int    numDevices  = Math.max(RTConfig.getInt(ARG_DEVICES , 2000), numAccounts);
+        int    numEvents   = RTConfig.getInt(ARG_EVENTS  , 200000);
+        String eventFile   = RTConfig.getString(ARG_EVENT_FILE, "");
+        String recordFile  = RTConfig.getString(ARG_RECORD, "");
+        int    parseEvents = RTConfig.getInt(ARG_PARSE_EVENTS, 2000);
+        if (numRules <= 0) {
+            usage();
+        }
+        Random rand = new Random(12345L);
+        Map<String,Account> acctMap = new HashMap<String,Account>();
+
+        /* rules */
+        SyntheticRuleFactory ruleFact = new SyntheticRuleFactory(numAccounts, numRules, rand);
+        RuleEvaluator evaluator = new RuleEvaluator(ruleFact);
+
+        /* events */
+        java.util.List<EventData> events = new Vector<EventData>();
+        if (!StringTools.isBlank(eventFile)) {
+            // -- recorded events
+            BufferedReader br = null;
+            try {
+                br = new BufferedReader(new FileReader(eventFile));
+                for (String line = br.readLine(); line != null; line = br.readLine()) {
+                    String f[] = StringTools.split(line.trim(), ',');
+                    if ((f.length < 7) || f[0].startsWith("#")) {
+                        continue;
+                    }
+                    events.add(_benchEvent(acctMap, f[0], f[1], StringTools.parseLong(f[2],0L),
+                        StringTools.parseInt(f[3],StatusCodes.STATUS_LOCATION),
+                        StringTools.parseDouble(f[4],0.0), StringTools.parseDouble(f[5],0.0),
+                        StringTools.parseDouble(f[6],0.0)));
+                }
+            } catch (IOException ioe) {
+                Print.logError("Unable to read event file: " + ioe);
+                System.exit(99);
+            } finally {
+                if (br != null) { try { br.close(); } catch (IOException ioe) {/*ignore*/} }
+            }
+            Print.logInfo("Loaded recorded events: " + events.size());
+        } else {
+            // -- synthetic events (random walk per device)
+            long   startTime = DateTime.getCurrentTimeSec() - numEvents;
+            double lat[]     = new double[numDevices];
+            double lon[]     = new double[numDevices];
+            for (int d = 0; d < numDevices; d++) {
+                lat[d] = 39.0 + rand.nextDouble();
+                lon[d] = -104.0 - rand.nextDouble();
+            }
+            for (int e = 0; e < numEvents; e++) {
+                int    d    = rand.nextInt(numDevices);
+                int    t    = rand.nextInt(100);
+                int    code = (t < 70)? StatusCodes.STATUS_LOCATION : BENCH_CODES[rand.nextInt(BENCH_CODES.length)];
+                double kph  = (rand.nextInt(100) < 40)? 0.0 : (rand.nextDouble() * 150.0);
+                lat[d] += (rand.nextDouble() - 0.5) * 0.001;
+                lon[d] += (rand.nextDouble() - 0.5) * 0.001;
+                events.add(_benchEvent(acctMap, "acct" + (d % numAccounts), "dev" + d, startTime + e, code, lat[d], lon[d], kph));
+            }
+            Print.logInfo("Created synthetic events: " + events.size());
+            if (!StringTools.isBlank(recordFile)) {
+                PrintWriter pw = null;
+                try {
+                    pw = new PrintWriter(new FileWriter(recordFile));
+                    pw.println("# accountID,deviceID,timestamp,statusCode,latitude,longitude,speedKPH");
+                    for (EventData ev : events) {
+                        pw.println(ev.getAccountID() + "," + ev.getDeviceID() + "," + ev.getTimestamp() + "," +
+                            ev.getStatusCode() + "," + ev.getLatitude() + "," + ev.getLongitude() + "," + ev.getSpeedKPH());
+                    }
+                    Print.logInfo("Recorded events: " + recordFile);
+                } catch (IOException ioe) {
+                    Print.logError("Unable to write event file: " + ioe);
+                } finally {
+                    if (pw != null) { pw.close(); }
+                }
+            }
+        }
+        if (events.isEmpty()) {
+            Print.logError("No events to evaluate");
+            System.exit(1);
+        }
+        Print.logInfo("Rules: " + numRules + " (" + numAccounts + " accounts), Devices: " + numDevices);
+
+        /* 1) parse per call (each rule selector String parsed for each event) */
+        int parseCnt = Math.min(Math.max(parseEvents,0), events.size());
+        long parseMatch = 0L, compiledSubMatch = 0L;
+        if (parseCnt > 0) {
+            long startMS = System.currentTimeMillis();
+            for (int e = 0; e < parseCnt; e++) {
+                EventData ev = events.get(e);
+                Account acct = ev.getAccount();
+                for (String ruleID : ruleFact.getRuleIDs(acct)) {
+                    try {
+                        if (ruleFact.compileSelector(ruleFact.getRuleSelector(acct,ruleID)).isMatch(ev)) {
+                            parseMatch++;
+                        }
+                    } catch (RuleParseException rpe) {
+                        // -- not expected
+                    }
+                }
+            }
+            long ms = System.currentTimeMillis() - startMS;
+            Print.logInfo("Parse per call    : events=" + parseCnt + " matches=" + parseMatch + " " +
+                StringTools.format((ms*1000.0)/parseCnt,"0.0") + " us/event");
+        }
+
+        /* 2) compiled selectors, no index (all account rules evaluated for each event) */
+        {
+            Map<String,java.util.List<RuleSelector>> acctSel = new HashMap<String,java.util.List<RuleSelector>>();
+            for (Account acct : acctMap.values()) {
+                java.util.List<RuleSelector> selList = new Vector<RuleSelector>();
+                String ruleIDs[] = ruleFact.getRuleIDs(acct);
+                if (ruleIDs != null) {
+                    for (String ruleID : ruleIDs) {
+                        selList.add(ruleFact.getCompiledSelector(ruleFact.getRuleSelector(acct,ruleID)));
+                    }
+                }
+                acctSel.put(acct.getAccountID(), selList);
+            }
+            long match = 0L;
+            long startMS = System.currentTimeMillis();
+            for (int e = 0; e < events.size(); e++) {
+                EventData ev = events.get(e);
+                for (RuleSelector rs : acctSel.get(ev.getAccountID())) {
+                    if (rs.isMatch(ev)) {
+                        match++;
+                        if (e < parseCnt) { compiledSubMatch++; }
+                    }
+                }
+            }
+            long ms = System.currentTimeMillis() - startMS;
+            Print.logInfo("Compiled, no index: events=" + events.size() + " matches=" + match + " " +
+                StringTools.format((ms*1000.0)/events.size(),"0.0") + " us/event");
+            if ((parseCnt > 0) && (compiledSubMatch != parseMatch)) {
+                Print.logError("Mismatch: parse-per-call=" + parseMatch + " compiled=" + compiledSubMatch);
+            }
+
+            /* 3) compiled and indexed, single thread */
+            long idxMatch = 0L;
+            startMS = System.currentTimeMillis();
+            for (EventData ev : events) {
+                idxMatch += evaluator.getMatchingRuleIDs(ev).size();
+            }
+            ms = System.currentTimeMillis() - startMS;
+            Print.logInfo("Indexed           : events=" + events.size() + " matches=" + idxMatch + " " +
+                StringTools.format((ms*1000.0)/events.size(),"0.0") + " us/event");
+            if (idxMatch != match) {
+                Print.logError("Mismatch: compiled=" + match + " indexed=" + idxMatch);
+            }
+
+            /* 4) compiled and indexed, devices in parallel */
+            final Map<String,Long> lastTime = new HashMap<String,Long>();
+            final AtomicLong orderErrors = new AtomicLong(0L);
+            startMS = System.currentTimeMillis();
+            long parMatch = evaluator.evaluateEvents(events, new RuleMatchListener() {
+                public void rulesMatched(EventData ev, java.util.List<String> ruleIDs) {
+                    String key = ev.getAccountID() + "/" + ev.getDeviceID();
+                    synchronized (lastTime) {
+                        Long last = lastTime.get(key);
+                        if ((last != null) && (last.longValue() > ev.getTimestamp())) {
+                            orderErrors.incrementAndGet();
+                        }
+                        lastTime.put(key, new Long(ev.getTimestamp()));
+                    }
+                }
+            });
+            ms = System.currentTimeMillis() - startMS;
+            Print.logInfo("Indexed, parallel : events=" + events.size() + " matches=" + parMatch + " " +
+                StringTools.format((ms*1000.0)/events.size(),"0.0") + " us/event" +
+                " (device order errors=" + orderErrors.get() + ")");
+            if (parMatch != match) {
+                Print.logError("Mismatch: compiled=" + match + " parallel=" + parMatch);
+            }
+
+        }
+        Print.logInfo("Statistics: " + evaluator.getStatistics());
+        System.exit(0);
+
+    }
+
+}
@@ -92,6 +92,102 @@ public abstract class RuleFactoryAdapter
 
     // ------------------------------------------------------------------------
 
+    private static final int COMPILED_SELECTOR_CACHE_SIZE = 10000;
+
+    private ConcurrentMemCache<String,RuleSelector> compiledSelectors = null;
+
+    /**
+    *** Compiles the specified selector into a RuleSelector expression tree.<br>
+    *** The default implementation returns a RuleSelector which delegates each evaluation
+    *** to this RuleFactory ("evaluateSelector"/"isSelectorMatch").  RuleFactory 
+    *** implementations should override this method to parse the selector once (and must
+    *** override it if their "evaluateSelector"/"isSelectorMatch" use "getCompiledSelector").
+    *** @param selector  The rule selector to compile
+    *** @return The compiled RuleSelector
+    *** @throws RuleParseException if the selector is invalid
+    **/
+    public RuleSelector compileSelector(String selector)
+        throws RuleParseException
+    {
+        return new RuleSelector.Uncompiled(this, selector);
+    }
+
+    /**
+    *** Gets the compiled RuleSelector for the specified selector, compiling the selector
+    *** only if it has not already been compiled.  An invalid selector is returned as a 
+    *** RuleSelector which never matches.
+    *** @param selector  The rule selector
+    *** @return The compiled RuleSelector
+    **/
+    public RuleSelector getCompiledSelector(String selector)
+    {
+        String sel = StringTools.trim(selector);
+        if (this.compiledSelectors == null) {
+            synchronized (this) {
+                if (this.compiledSelectors == null) {
+                    this.compiledSelectors = new ConcurrentMemCache<String,RuleSelector>(COMPILED_SELECTOR_CACHE_SIZE, 0L);
+                }
+            }
+        }
+        RuleSelector rs = this.compiledSelectors.getValue(sel);
+        if (rs == null) {
+            try {
+                rs = this.compileSelector(sel);
+            } catch (RuleParseException rpe) {
+                Print.logWarn("Invalid rule selector: " + sel + " [" + rpe.getMessage() + "]");
+                rs = null;
+            }
+            if (rs == null) {
+                rs = new RuleSelector.Constant(sel, null);
+            }
+            this.compiledSelectors.addValue(sel, rs);
+        }
+        return rs;
+    }
+
+    /**
+    *** Clears all compiled selectors
+    **/
+    public void clearCompiledSelectors()
+    {
+        if (this.compiledSelectors != null) {
+            this.compiledSelectors.clearCache();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Executes all rules which apply to the specified EventData record, and return
+    *** a mask containing the actions performed.  This is called by "Device.checkEventRules"
+    *** for each inserted event.<br>
+    *** The default implementation executes the account rules (see "getRuleIDs") which
+    *** match the event, using the compiled and indexed account rules of the RuleEvaluator.
+    *** @param event     The event that contains the criteria used by the rules
+    *** @return The mask containing the 'actions' performed, or -1 if no rules were triggered
+    **/
+    public int executeRules(EventData event)
+    {
+        return this.executeAccountRules(event);
+    }
+
+    /**
+    *** Executes the account rules (see "getRuleIDs") which match the specified event,
+    *** using the compiled and indexed account rules of the RuleEvaluator.  Each matching
+    *** rule is executed with "executeRule".
+    *** @param event     The event that contains the criteria used by the rules
+    *** @return The accumulated action mask, or -1 if no rules were triggered
+    **/
+    protected int executeAccountRules(EventData event)
+    {
+        if (event == null) {
+            return -1;
+        }
+        return RuleEvaluator.getInstance(this).executeRules(event);
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Gets the description for the specified GeoCorridor ID.
     *** Will return null if GeoCorridor is not supported.
@@ -156,7 +156,7 @@ public class RuleFactoryExample
     /* interface for rule evaluation function */
     private static interface RuleFunction
     {
-        public Object evaluate(EventData ev, String arg);
+        public RuleSelector compile(String selector, String arg);
         public String usage();
         public String description();
     }
@@ -174,8 +174,13 @@ public class RuleFactoryExample
 
         /* panic */
         this.ftnMap.put(SEL_PANIC, new RuleFunction() {
-            public Object evaluate(EventData ev, String arg) {
-                return (ev.getStatusCode() == StatusCodes.STATUS_PANIC_ON);
+            public RuleSelector compile(String selector, String arg) {
+                final int code = StatusCodes.STATUS_PANIC_ON;
+                return new RuleSelector.Predicate(selector, new int[] { code }, null) {
+                    public Object evaluate(EventData ev) {
+                        return (ev.getStatusCode() == code);
+                    }
+                };
             }
             public String usage() {
                 return SEL_PANIC;
@@ -187,9 +192,13 @@ public class RuleFactoryExample
 
         /* status code */
         this.ftnMap.put(SEL_CODE, new RuleFunction() {
-            public Object evaluate(EventData ev, String arg) {
-                int code = StringTools.parseInt(arg,StatusCodes.STATUS_NONE);
-                return (ev.getStatusCode() == code);
+            public RuleSelector compile(String selector, String arg) {
+                final int code = StringTools.parseInt(arg,StatusCodes.STATUS_NONE);
+                return new RuleSelector.Predicate(selector, new int[] { code }, null) {
+                    public Object evaluate(EventData ev) {
+                        return (ev.getStatusCode() == code);
+                    }
+                };
             }
             public String usage() {
                 return SEL_CODE;
@@ -201,8 +210,12 @@ public class RuleFactoryExample
 
         /* vehicle speeds over 100 kph */
         this.ftnMap.put(SEL_OVER_100_KPH, new RuleFunction() {
-            public Object evaluate(EventData ev, String arg) {
-                return new Boolean(ev.getSpeedKPH() > 100.0);
+            public RuleSelector compile(String selector, String arg) {
+                return new RuleSelector.Predicate(selector, null, new String[] { EventData.FLD_speedKPH }) {
+                    public Object evaluate(EventData ev) {
+                        return new Boolean(ev.getSpeedKPH() > 100.0);
+                    }
+                };
             }
             public String usage() {
                 return SEL_OVER_100_KPH;
@@ -214,8 +227,12 @@ public class RuleFactoryExample
 
         /* vehicle stopped */
         this.ftnMap.put(SEL_IS_STOPPED, new RuleFunction() {
-            public Object evaluate(EventData ev, String arg) {
-                return new Boolean(ev.getSpeedKPH() <= 0.0);
+            public RuleSelector compile(String selector, String arg) {
+                return new RuleSelector.Predicate(selector, null, null) {
+                    public Object evaluate(EventData ev) {
+                        return new Boolean(ev.getSpeedKPH() <= 0.0);
+                    }
+                };
             }
             public String usage() {
                 return SEL_IS_STOPPED;
@@ -227,9 +244,14 @@ public class RuleFactoryExample
 
         /* vehicle overspeed (with argument) */
         this.ftnMap.put(SEL_OVER_SPEED, new RuleFunction() {
-            public Object evaluate(EventData ev, String arg) {
-                double maxSpeed = StringTools.parseDouble(arg,99999.9);
-                return new Boolean(ev.getSpeedKPH() > maxSpeed);
+            public RuleSelector compile(String selector, String arg) {
+                final double maxSpeed = StringTools.parseDouble(arg,99999.9);
+                String reqFlds[] = (maxSpeed >= 0.0)? new String[] { EventData.FLD_speedKPH } : null;
+                return new RuleSelector.Predicate(selector, null, reqFlds) {
+                    public Object evaluate(EventData ev) {
+                        return new Boolean(ev.getSpeedKPH() > maxSpeed);
+                    }
+                };
             }
             public String usage() {
                 return SEL_OVER_SPEED;
@@ -401,6 +423,31 @@ public class RuleFactoryExample
 
     // ------------------------------------------------------------------------
 
+    /* compile selector into a RuleSelector expression tree */
+    public RuleSelector compileSelector(String selector)
+        throws RuleParseException
+    {
+        if (StringTools.isBlank(selector)) {
+            // -- an empty/null selector is not a 'match'
+            return new RuleSelector.Constant(selector, null);
+        }
+        String selList[] = StringTools.split(selector,',');
+        RuleSelector child[] = new RuleSelector[selList.length];
+        for (int i = 0; i < selList.length; i++) {
+            String sel = selList[i];
+            RuleFunction ftn = StringTools.isBlank(sel)? null : this.getFunction(sel);
+            if (ftn == null) {
+                // -- no function, no match
+                child[i] = new RuleSelector.Constant(sel, null);
+            } else {
+                child[i] = ftn.compile(sel, this.getArgument(sel));
+            }
+        }
+        return (child.length == 1)? child[0] : new RuleSelector.Or(selector, child);
+    }
+
+    // ------------------------------------------------------------------------
+
     /* return true if the specified selector matches the specified event record */
     public boolean isSelectorMatch(String selector, Account account) 
     {
@@ -413,55 +460,12 @@ public class RuleFactoryExample
     public boolean isSelectorMatch(String selector, EventData event) 
     {
         if ((event != null) && !StringTools.isBlank(selector)) {
-            String selList[] = StringTools.split(selector,',');
-            for (int i = 0; i < selList.length; i++) {
-                if (this._isSelectorMatch(selList[i],event)) {
-                    return true;
-                }
-            }
+            // -- the selector is parsed only once
+            return this.getCompiledSelector(selector).isMatch(event);
         }
         return false;
     }
 
-    /* return true if the specified selector matches the specified event record */
-    private boolean _isSelectorMatch(String selector, EventData event) 
-    {
-        
-        /* valid selector */
-        if (StringTools.isBlank(selector)) {
-            return false;
-        }
-
-        /* get function */
-        RuleFunction ftn = this.getFunction(selector);
-        if (ftn == null) {
-            // no function, no match
-            return false;
-        }
-
-        /* evaluate function */
-        String arg = this.getArgument(selector);
-        Object eval = ftn.evaluate(event,arg);
-        if (eval == null) {
-            // no valid result, return false
-            return false;
-        }
-        
-        /* return boolean results */
-        if (eval instanceof Boolean) {
-            // return Boolean value
-            return ((Boolean)eval).booleanValue();
-        } else
-        if (eval instanceof Number) {
-            // return true if Number is non-zero
-            return (((Number)eval).longValue() != 0L);
-        } else {
-            // return true for everything else
-            return true;
-        }
-
-    }
-
     // ------------------------------------------------------------------------
 
     /* check rule selector and perform action */
@@ -475,37 +479,8 @@ public class RuleFactoryExample
     /* return the result of the specified selector */
     public Object evaluateSelector(String selector, EventData event) 
     {
-        String selList[] = StringTools.split(selector,',');
-        Object eval = null;
-        for (int i = 0; i < selList.length; i++) {
-            eval = this._evaluateSelector(selList[i],event);
-            if ((eval instanceof Boolean) && ((Boolean)eval).booleanValue()) {
-                // return Boolean value
-                return eval;
-            } else
-            if ((eval instanceof Number) && (((Number)eval).longValue() != 0L)) {
-                // return Number value
-                return eval;
-            }
-        }
-        return eval; // return last value
-    }
-
-    /* return the result of the specified selector */
-    private Object _evaluateSelector(String selector, EventData event) 
-    {
-
-        /* get function */
-        RuleFunction ftn = this.getFunction(selector);
-        if (ftn == null) {
-            // no function
-            return null;
-        }
-        
-        /* evaluate and return */
-        String arg = this.getArgument(selector);
-        return ftn.evaluate(event,arg);
-
+        // -- returns the first matching value, or the last value
+        return this.getCompiledSelector(selector).evaluate(event);
     }
 
     // ------------------------------------------------------------------------
@@ -551,11 +526,8 @@ public class RuleFactoryExample
             return actionMask;
         }
             
-        // other rules/selectors can be evaluated here
-        // IE. loop through other selectors: this.executeSelector(ruleSel[i], event);
-
-        /* no triggered rules */
-        return -1;
+        /* account rules (see "getRuleIDs"), evaluated against the compiled rule index */
+        return this.executeAccountRules(event);
 
     }
 
@@ -564,7 +536,17 @@ public class RuleFactoryExample
     /* execute a specifically named rule id */
     public int executeRule(String ruleID, EventData event) 
     {
-        // not currently implemented in the RuleFactoryExample
+        Account account = (event != null)? event.getAccount() : null;
+        if ((account == null) || StringTools.isBlank(ruleID)) {
+            return -1;
+        }
+        String ruleSel = this.getRuleSelector(account, ruleID);
+        if (this.isSelectorMatch(ruleSel,event)) {
+            Print.logInfo("Rule matched: " + ruleID + " [" + ruleSel + "]");
+            int actionMask = RuleFactory.ACTION_DEFAULT;
+            RuleFactoryExample._sendNotification(event, actionMask);
+            return actionMask;
+        }
         return -1;
     }
 
@@ -0,0 +1,357 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Compiled rule selector expression
+// ----------------------------------------------------------------------------
+package org.opengts.db;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.tables.*;
+
+/**
+*** A rule selector which has been parsed (once) by a RuleFactory into an expression tree.<br>
+*** In addition to evaluating the selector against an EventData record, a compiled selector
+*** reports the status codes to which it is limited, and the EventData fields which must
+*** have a non-zero value for the selector to match.  These are used by the RuleEvaluator
+*** to index the rules of an account, so that only the relevant rules are evaluated for
+*** a given event.
+**/
+
+public abstract class RuleSelector
+{
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if the specified selector evaluation result is considered a 'match'
+    *** (Boolean true, non-zero Number, or any other non-null value)
+    *** @param eval  The selector evaluation result
+    *** @return True if the result is a match
+    **/
+    public static boolean IsMatch(Object eval)
+    {
+        if (eval == null) {
+            return false;
+        } else
+        if (eval instanceof Boolean) {
+            return ((Boolean)eval).booleanValue();
+        } else
+        if (eval instanceof Number) {
+            return (((Number)eval).longValue() != 0L);
+        } else {
+            return true;
+        }
+    }
+
+    /**
+    *** Returns true if the specified EventData field has a non-zero/non-blank value
+    *** @param event   The EventData record
+    *** @param fldName The field name
+    *** @return True if the field has a non-zero value
+    **/
+    public static boolean HasFieldValue(EventData event, String fldName)
+    {
+        Object val = (event != null)? event.getFieldValue(fldName) : null;
+        if (val == null) {
+            return false;
+        } else
+        if (val instanceof Number) {
+            return (((Number)val).doubleValue() != 0.0);
+        } else
+        if (val instanceof Boolean) {
+            return ((Boolean)val).booleanValue();
+        } else {
+            return !StringTools.isBlank(val.toString());
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private String selector = null;
+
+    /**
+    *** Constructor
+    *** @param selector  The source selector
+    **/
+    protected RuleSelector(String selector)
+    {
+        this.selector = StringTools.trim(selector);
+    }
+
+    /**
+    *** Gets the source selector
+    **/
+    public String getSelector()
+    {
+        return this.selector;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Evaluates this selector against the specified event
+    *** @param event  The EventData record
+    *** @return The result of the evaluation (may be null)
+    **/
+    public abstract Object evaluate(EventData event);
+
+    /**
+    *** Returns true if this selector matches the specified event
+    *** @param event  The EventData record
+    *** @return True if this selector matches
+    **/
+    public boolean isMatch(EventData event)
+    {
+        return RuleSelector.IsMatch(this.evaluate(event));
+    }
+
+    /**
+    *** Gets the status codes to which a match of this selector is limited
+    *** @return The status codes, or null if this selector may match any status code
+    **/
+    public int[] getStatusCodes()
+    {
+        return null;
+    }
+
+    /**
+    *** Gets the names of the EventData fields which must have a non-zero value for this
+    *** selector to match
+    *** @return The required field names, or null if there are no required fields
+    **/
+    public Set<String> getRequiredFields()
+    {
+        return null;
+    }
+
+    /**
+    *** Returns a String representation of this selector
+    **/
+    public String toString()
+    {
+        return this.getSelector();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Constant selector: always returns the same value (ie. blank, or invalid selectors)
+    **/
+    public static class Constant
+        extends RuleSelector
+    {
+        private Object value = null;
+        public Constant(String selector, Object value) {
+            super(selector);
+            this.value = value;
+        }
+        public Object evaluate(EventData event) {
+            return this.value;
+        }
+        public int[] getStatusCodes() {
+            return RuleSelector.IsMatch(this.value)? null : new int[0]; // never matches
+        }
+    }
+
+    /**
+    *** Uncompiled selector: delegates each evaluation to the RuleFactory.  Used for
+    *** RuleFactory implementations which do not support compiled selectors.
+    **/
+    public static class Uncompiled
+        extends RuleSelector
+    {
+        private RuleFactory ruleFact = null;
+        public Uncompiled(RuleFactory ruleFact, String selector) {
+            super(selector);
+            this.ruleFact = ruleFact;
+        }
+        public Object evaluate(EventData event) {
+            try {
+                return this.ruleFact.evaluateSelector(this.getSelector(), event);
+            } catch (RuleParseException rpe) {
+                Print.logError("Selector parse error: " + rpe.getMessage());
+                return null;
+            }
+        }
+        public boolean isMatch(EventData event) {
+            return this.ruleFact.isSelectorMatch(this.getSelector(), event);
+        }
+    }
+
+    /**
+    *** Predicate selector: a single condition, implemented by a specific RuleFactory
+    **/
+    public static abstract class Predicate
+        extends RuleSelector
+    {
+        private int         statusCodes[]  = null;
+        private Set<String> requiredFields = null;
+        public Predicate(String selector, int statusCodes[], String requiredFields[]) {
+            super(selector);
+            this.statusCodes    = statusCodes;
+            this.requiredFields = !ListTools.isEmpty(requiredFields)? ListTools.toSet(requiredFields,null) : null;
+        }
+        public int[] getStatusCodes() {
+            return this.statusCodes;
+        }
+        public Set<String> getRequiredFields() {
+            return this.requiredFields;
+        }
+    }
+
+    /**
+    *** "Or" selector: matches if any of the child selectors match.<br>
+    *** Evaluates to the first matching child result, or the last child result if none match.
+    **/
+    public static class Or
+        extends RuleSelector
+    {
+        private RuleSelector child[] = null;
+        public Or(String selector, RuleSelector child[]) {
+            super(selector);
+            this.child = (child != null)? child : new RuleSelector[0];
+        }
+        public Object evaluate(EventData event) {
+            Object eval = null;
+            for (int i = 0; i < this.child.length; i++) {
+                eval = this.child[i].evaluate(event);
+                if (RuleSelector.IsMatch(eval)) {
+                    return eval;
+                }
+            }
+            return eval;
+        }
+        public boolean isMatch(EventData event) {
+            for (int i = 0; i < this.child.length; i++) {
+                if (this.child[i].isMatch(event)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        public int[] getStatusCodes() {
+            // -- union of child status codes, iff all children are limited to specific codes
+            Set<Integer> codes = new TreeSet<Integer>();
+            for (int i = 0; i < this.child.length; i++) {
+                int sc[] = this.child[i].getStatusCodes();
+                if (sc == null) {
+                    return null;
+                }
+                for (int c : sc) { codes.add(new Integer(c)); }
+            }
+            int sc[] = new int[codes.size()];
+            int n = 0;
+            for (Integer c : codes) { sc[n++] = c.intValue(); }
+            return sc;
+        }
+        public Set<String> getRequiredFields() {
+            // -- fields required by all children
+            Set<String> flds = null;
+            for (int i = 0; i < this.child.length; i++) {
+                Set<String> f = this.child[i].getRequiredFields();
+                if (f == null) {
+                    return null;
+                } else
+                if (flds == null) {
+                    flds = new HashSet<String>(f);
+                } else {
+                    flds.retainAll(f);
+                }
+            }
+            return ListTools.isEmpty(flds)? null : flds;
+        }
+    }
+
+    /**
+    *** "And" selector: matches if all of the child selectors match.<br>
+    *** Evaluates to the first non-matching child result, or the last child result if all match.
+    **/
+    public static class And
+        extends RuleSelector
+    {
+        private RuleSelector child[] = null;
+        public And(String selector, RuleSelector child[]) {
+            super(selector);
+            this.child = (child != null)? child : new RuleSelector[0];
+        }
+        public Object evaluate(EventData event) {
+            Object eval = null;
+            for (int i = 0; i < this.child.length; i++) {
+                eval = this.child[i].evaluate(event);
+                if (!RuleSelector.IsMatch(eval)) {
+                    return eval;
+                }
+            }
+            return eval;
+        }
+        public boolean isMatch(EventData event) {
+            for (int i = 0; i < this.child.length; i++) {
+                if (!this.child[i].isMatch(event)) {
+                    return false;
+                }
+            }
+            return (this.child.length > 0);
+        }
+        public int[] getStatusCodes() {
+            // -- intersection of the status codes of the limited children
+            Set<Integer> codes = null;
+            for (int i = 0; i < this.child.length; i++) {
+                int sc[] = this.child[i].getStatusCodes();
+                if (sc == null) {
+                    continue;
+                }
+                Set<Integer> cs = new TreeSet<Integer>();
+                for (int c : sc) { cs.add(new Integer(c)); }
+                if (codes == null) {
+                    codes = cs;
+                } else {
+                    codes.retainAll(cs);
+                }
+            }
+            if (codes == null) {
+                return null;
+            }
+            int sc[] = new int[codes.size()];
+            int n = 0;
+            for (Integer c : codes) { sc[n++] = c.intValue(); }
+            return sc;
+        }
+        public Set<String> getRequiredFields() {
+            // -- fields required by any child
+            Set<String> flds = null;
+            for (int i = 0; i < this.child.length; i++) {
+                Set<String> f = this.child[i].getRequiredFields();
+                if (f != null) {
+                    if (flds == null) { flds = new HashSet<String>(); }
+                    flds.addAll(f);
+                }
+            }
+            return flds;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+}
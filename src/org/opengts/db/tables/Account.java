@@ -1238,6 +1238,8 @@ public class Account
             // -- FLD_notifyEmail max length
             DBField emailFld = factory.getField(FLD_notifyEmail);
             Account.NotifyEmailColumnLength = (emailFld != null)? emailFld.getStringLength() : 0;
+            // -- record cache (if "db.recordCache.enable" is true)
+            factory.setRecordCache(1000, 300L);
         }
         return factory;
     }
@@ -2908,6 +2910,26 @@ public class Account
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Callback after this Account has been inserted into the table
+    **/
+    protected void recordDidInsert()
+    {
+        super.recordDidInsert();
+        DeviceIdentityCache.accountDidSave(this);
+    }
+
+    /**
+    *** Callback after this Account has been updated in the table
+    **/
+    protected void recordDidUpdate()
+    {
+        super.recordDidUpdate();
+        DeviceIdentityCache.accountDidSave(this);
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Returns true if this Account has an "admin" user 
     *** @return True if this Account has an "admin" user 
@@ -3728,8 +3750,16 @@ public class Account
             return null;
         } else {
             Account.Key key = new Account.Key(acctID);
+            DBRecordCache<Account> cache = Account.getFactory().getRecordCache();
+            Account account = (cache != null)? cache.get(key) : null;
+            if (account != null) {
+                return account; // cached copy
+            }
+            long cacheGen = (cache != null)? cache.getGeneration() : 0L;
             if (key.exists()) {
-                return key.getDBRecord(true);
+                account = key.getDBRecord(true);
+                if (cache != null) { cache.put(account, cacheGen); }
+                return account;
             } else {
                 // Account does not exist
                 return null;
@@ -593,6 +593,7 @@ public class Device // Asset
 
     // TODO: this should be device dependent
     public  static final boolean CHECK_LAST_ODOMETER        = false;
+    private static RTKey.BooleanHandle RTK_checkLastOdometer = new RTKey.BooleanHandle(DBConfig.PROP_Device_checkLastOdometer, CHECK_LAST_ODOMETER);
 
     /**
     *** Get configured maximum allowed odometer value
@@ -600,8 +601,7 @@ public class Device // Asset
     **/
     public static boolean GetCheckLastOdometer()
     {
-        // TODO: optimize
-        return RTConfig.getBoolean(DBConfig.PROP_Device_checkLastOdometer, CHECK_LAST_ODOMETER);
+        return RTK_checkLastOdometer.get();
     }
 
     // ------------------------------------------------------------------------
@@ -609,6 +609,7 @@ public class Device // Asset
 
     // TODO: this should be device dependent
     public  static      boolean SIMULATE_ENGINE_HOURS       = false;
+    private static RTKey.BooleanHandle RTK_simulateEngineHours = new RTKey.BooleanHandle(DBConfig.PROP_Device_simulateEngineHours, SIMULATE_ENGINE_HOURS);
 
     /**
     *** Get configured state of estimating engine hours based on ignition state
@@ -616,8 +617,7 @@ public class Device // Asset
     **/
     public static boolean GetSimulateEngineHours(Device dev)
     {
-        // TODO: optimize
-        return RTConfig.getBoolean(DBConfig.PROP_Device_simulateEngineHours, SIMULATE_ENGINE_HOURS);
+        return RTK_simulateEngineHours.get(SIMULATE_ENGINE_HOURS);
     }
 
     // ------------------------------------------------------------------------
@@ -625,6 +625,7 @@ public class Device // Asset
 
     // TODO: this should be device dependent
     public  static      boolean UPDATE_EVENT_WITH_GEOZONE_LOC   = false;
+    private static RTKey.BooleanHandle RTK_updateEventWithGeozoneLoc = new RTKey.BooleanHandle(DBConfig.PROP_Device_updateEventWithGeozoneLoc, UPDATE_EVENT_WITH_GEOZONE_LOC);
 
     /**
     *** Get configured state obtaining lat/lon from Geozone
@@ -632,8 +633,7 @@ public class Device // Asset
     **/
     public static boolean UpdateEventWithGeozoneLocation()
     {
-        // TODO: optimize
-        return RTConfig.getBoolean(DBConfig.PROP_Device_updateEventWithGeozoneLoc, UPDATE_EVENT_WITH_GEOZONE_LOC);
+        return RTK_updateEventWithGeozoneLoc.get(UPDATE_EVENT_WITH_GEOZONE_LOC);
     }
 
     // ------------------------------------------------------------------------
@@ -641,6 +641,7 @@ public class Device // Asset
 
     // TODO: this should be device dependent
     public  static final double MAX_DEVICE_ODOM_KM          = 1000000.0 * GeoPoint.KILOMETERS_PER_MILE;
+    private static RTKey.DoubleHandle RTK_maximumOdometerKM = new RTKey.DoubleHandle(DBConfig.PROP_Device_maximumOdometerKM, MAX_DEVICE_ODOM_KM);
     
     /**
     *** Get configured maximum allowed odometer value
@@ -648,8 +649,7 @@ public class Device // Asset
     **/
     public static double GetMaximumOdometerKM()
     {
-        // TODO: optimize
-        return RTConfig.getDouble(DBConfig.PROP_Device_maximumOdometerKM, MAX_DEVICE_ODOM_KM);
+        return RTK_maximumOdometerKM.get();
     }
 
     // ------------------------------------------------------------------------
@@ -657,6 +657,7 @@ public class Device // Asset
 
     // TODO: this should be device dependent
     private static final double MAX_DEVICE_RUNTIME_HOURS    = DateTime.DaySeconds(365*30)/3600.0;
+    private static RTKey.DoubleHandle RTK_maximumRuntimeHours = new RTKey.DoubleHandle(DBConfig.PROP_Device_maximumRuntimeHours, MAX_DEVICE_RUNTIME_HOURS);
     
     /**
     *** Get configured maximum allowed engine-hours value
@@ -664,7 +665,7 @@ public class Device // Asset
     **/
     public static double GetMaximumRuntimeHours()
     {
-        return RTConfig.getDouble(DBConfig.PROP_Device_maximumRuntimeHours, MAX_DEVICE_RUNTIME_HOURS);
+        return RTK_maximumRuntimeHours.get();
     }
 
     // ------------------------------------------------------------------------
@@ -672,6 +673,8 @@ public class Device // Asset
     
     /* check device rule selector */
     private static final boolean CHECK_NOTIFY_SELECTOR      = true;
+    private static RTKey.BooleanHandle RTK_checkNotifySelector      = new RTKey.BooleanHandle(DBConfig.PROP_Device_checkNotifySelector, CHECK_NOTIFY_SELECTOR);
+    private static RTKey.BooleanHandle RTK_checkNotifySelector_ENRE = new RTKey.BooleanHandle(DBConfig.PROP_Device_checkNotifySelector_ENRE, false);
 
     /**
     *** True to test notify rule selector, false to ignore
@@ -683,13 +686,13 @@ public class Device // Asset
             // no rule factory, do not check selector
             return false;
         } else
-        if (!RTConfig.getBoolean(DBConfig.PROP_Device_checkNotifySelector,CHECK_NOTIFY_SELECTOR)) {
+        if (!RTK_checkNotifySelector.get()) {
             // explicit false
             return false;
         } else
         if (Device.hasENRE()) {
             // check ENRE specific setting
-            return RTConfig.getBoolean(DBConfig.PROP_Device_checkNotifySelector_ENRE,false);
+            return RTK_checkNotifySelector_ENRE.get();
         } else {
             // true
             return true;
@@ -701,6 +704,7 @@ public class Device // Asset
 
     // TODO: this should be device dependent
     public  static final boolean SAVE_EVENT_DRIVER_ID = true;
+    private static RTKey.BooleanHandle RTK_saveEventDriverID = new RTKey.BooleanHandle(DBConfig.PROP_Device_saveEventDriverID, SAVE_EVENT_DRIVER_ID);
 
     /**
     *** Returns true if configured to save the EventData "driverID" into the Device record
@@ -708,8 +712,7 @@ public class Device // Asset
     **/
     public static boolean GetSaveEventDriverID()
     {
-        // TODO: optimize
-        return RTConfig.getBoolean(DBConfig.PROP_Device_saveEventDriverID, SAVE_EVENT_DRIVER_ID);
+        return RTK_saveEventDriverID.get();
     }
 
     // ------------------------------------------------------------------------
@@ -1754,6 +1757,17 @@ public class Device // Asset
             // -- FLD_fuelTankProfile max length
             DBField fuelTPFld = factory.getField(FLD_fuelTankProfile);
             Device.FuelProfileColumnLength = (fuelTPFld != null)? fuelTPFld.getStringLength() : 0;
+            // -- record cache (if "db.recordCache.enable" is true)
+            factory.setRecordCache(10000, 60L);
+            factory.setRecordCacheLocalFields(DefaultUpdatedFieldsList); // per-event updates
+            // -- remove cached modem identities for deleted Devices
+            factory.setRecordDeleteListener(new DBRecordDeleteListener<Device>() {
+                public void recordDidDelete(DBRecordKey<Device> devKey) {
+                    DeviceIdentityCache.deviceDidDelete(
+                        devKey.getKeyValueAsString(FLD_accountID),
+                        devKey.getKeyValueAsString(FLD_deviceID));
+                }
+            });
         }
         return factory;
     }
@@ -2819,6 +2833,7 @@ public class Device // Asset
     // ------------------------------------------------------------------------
 
     private static final boolean CHECK_ACCOUNT_ALLOWNOTIFY = false;
+    private static RTKey.BooleanHandle RTK_checkAccountAllowNotify = new RTKey.BooleanHandle(DBConfig.PROP_Device_checkAccountAllowNotify, CHECK_ACCOUNT_ALLOWNOTIFY);
 
     /**
     *** Returns true if this Device record supports the "allowNotify" field
@@ -2867,7 +2882,7 @@ public class Device // Asset
             // -- explicit, do not check account
             return true;
         } else
-        if (!RTConfig.getBoolean(DBConfig.PROP_Device_checkAccountAllowNotify,CHECK_ACCOUNT_ALLOWNOTIFY)) {
+        if (!RTK_checkAccountAllowNotify.get()) {
             // -- property says to not check account
             return true;
         }
@@ -4685,6 +4700,7 @@ public class Device // Asset
 
     /* ignition state check */
     private static boolean CHECK_LAST_EVENT_IGNITION = false;
+    private static RTKey.BooleanHandle RTK_checkLastEventIgnitionState = new RTKey.BooleanHandle(DBConfig.PROP_Device_checkLastEventIgnitionState, CHECK_LAST_EVENT_IGNITION);
     /**
     *** Returns the current ignition state<br>
     ***  0 = Off<br>
@@ -4694,7 +4710,7 @@ public class Device // Asset
     **/
     public int getCurrentIgnitionState()
     {
-        boolean checkSC = RTConfig.getBoolean(DBConfig.PROP_Device_checkLastEventIgnitionState,CHECK_LAST_EVENT_IGNITION);
+        boolean checkSC = RTK_checkLastEventIgnitionState.get(CHECK_LAST_EVENT_IGNITION);
         return this.getCurrentIgnitionState(checkSC, true);
     }
 
@@ -4894,7 +4910,7 @@ public class Device // Asset
     **/
     public int getIgnitionStateAsOfEvent(EventData ev)
     {
-        boolean checkSC = RTConfig.getBoolean(DBConfig.PROP_Device_checkLastEventIgnitionState,CHECK_LAST_EVENT_IGNITION);
+        boolean checkSC = RTK_checkLastEventIgnitionState.get(CHECK_LAST_EVENT_IGNITION);
         return this.getIgnitionStateAsOfEvent(ev, checkSC);
     }
     
@@ -6200,6 +6216,8 @@ public class Device // Asset
         }
     }
 
+    private static RTKey.BooleanHandle RTK_separateGeozoneCategories = new RTKey.BooleanHandle(DBConfig.PROP_Device_separateGeozoneCategories, true);
+
     /**
     *** Checks the new event time and GeoPoint to calculate and returns a set of 
     *** Geozone arrive/depart events, which should be inserted into the EventData table.
@@ -6235,7 +6253,7 @@ public class Device // Asset
 
         /* properties */
         // -- Device.separateGeozoneCategories=false
-        boolean GET_CATEGORY_GEOZONES_FOR_DEVICE = RTConfig.getBoolean(DBConfig.PROP_Device_separateGeozoneCategories,true); // [2.6.0-B47]
+        boolean GET_CATEGORY_GEOZONES_FOR_DEVICE = RTK_separateGeozoneCategories.get(); // [2.6.0-B47]
         boolean GET_SINGLE_GEOZONE_FOR_DEVICE    = true; // [2.4.9-B15]
 
         // ---------------------------------------
@@ -10704,8 +10722,13 @@ public class Device // Asset
 
         /* save EventData record */
         try {
-            evdb.save(); // insert();
-            // -- may be re-saved below after deferred reverse-geocode
+            if ((extUpdate == EXT_UPDATE_NONE) && EventDataWriter.queueEventData(evdb)) {
+                // -- queued for write-behind batched insertion
+                // -  (events requiring background updates below are saved immediately)
+            } else {
+                evdb.save(); // insert();
+                // -- may be re-saved below after deferred reverse-geocode
+            }
         } catch (DBException dbe) {
             // -- save failed
             Print.logError("EventData save failed: " + dbe);
@@ -10713,6 +10736,10 @@ public class Device // Asset
         }
 
         /* background processes */
+        if ((extUpdate == EXT_UPDATE_ADDRESS) && !DEFERRED_RULE_CHECK && ReverseGeocodePipeline.queueEventData(evdb)) {
+            // -- address only: queued for coalesced/rate-limited reverse-geocoding
+            Print.logDebug("Address update queued for ReverseGeocodePipeline");
+        } else
         if (extUpdate != EXT_UPDATE_NONE) {
             // -- queue for background processing
             final int extUpd = extUpdate;
@@ -11410,7 +11437,7 @@ public class Device // Asset
     public void updateChangedEventFields()
         throws DBException
     {
-        this.update(_createChangedFieldsSet((String[])null));
+        this._updateChangedEventFields(_createChangedFieldsSet((String[])null));
     }
 
     /**
@@ -11420,7 +11447,7 @@ public class Device // Asset
     public void updateChangedEventFields(Set<String> flds)
         throws DBException
     {
-        this.update(_createChangedFieldsSet(flds));
+        this._updateChangedEventFields(_createChangedFieldsSet(flds));
     }
 
     /**
@@ -11430,7 +11457,21 @@ public class Device // Asset
     public void updateChangedEventFields(String... flds)
         throws DBException
     {
-        this.update(_createChangedFieldsSet(flds));
+        this._updateChangedEventFields(_createChangedFieldsSet(flds));
+    }
+
+    /**
+    *** Updates the specified changed fields, or queues the update to be combined
+    *** with other pending updates for this Device if write-behind EventData
+    *** insertion is enabled.
+    *** @param updFields The field set to update
+    **/
+    private void _updateChangedEventFields(Set<String> updFields)
+        throws DBException
+    {
+        if (!EventDataWriter.queueDeviceUpdate(this, updFields)) {
+            this.update(updFields);
+        }
     }
 
     // ------------------------------------------------------------------------
@@ -11937,6 +11978,7 @@ public class Device // Asset
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
     private static boolean STOPPED_IN_RANGE_IGNITION_OFF = true;
+    private static RTKey.BooleanHandle RTK_stoppedInRangeIgnitionOff = new RTKey.BooleanHandle(DBConfig.PROP_Device_stoppedInRangeIgnitionOff, STOPPED_IN_RANGE_IGNITION_OFF);
     
     public static class StoppedSeconds
     {
@@ -12107,7 +12149,7 @@ public class Device // Asset
     public void calculateStoppedSecondsInRange(final StoppedSeconds stoppedSec[])
         throws DBException
     {
-        final boolean checkIgnition = RTConfig.getBoolean(DBConfig.PROP_Device_stoppedInRangeIgnitionOff,STOPPED_IN_RANGE_IGNITION_OFF);
+        final boolean checkIgnition = RTK_stoppedInRangeIgnitionOff.get(STOPPED_IN_RANGE_IGNITION_OFF);
 
         /* no minStopSec specified? */
         if (ListTools.size(stoppedSec) <= 0) {
@@ -12295,6 +12337,34 @@ public class Device // Asset
         EventData.LimitType limitType, long limit)
         throws DBException
     {
+        return this.getRangeEvents(
+            timeStart, timeEnd, 
+            statusCodes, validGPS, 
+            limitType, limit,
+            null/*selFields*/);
+    }
+
+    /**
+    *** Gets an array of events for the specified range and attributes
+    *** @param timeStart  The event start time
+    *** @param timeEnd    The event end time
+    *** @param statusCodes  The list of status-codes
+    *** @param validGPS    True to read only events with valid GPS locations
+    *** @param limitType   The limit type (FIRST, LAST)
+    *** @param limit       The maximum number of events to return
+    *** @param selFields   The EventData fields to read (null for all fields).  If specified,
+    ***                    the returned EventData records are partial, and may not be saved.
+    *** @return The array of EventData records
+    *** @throws DBException
+    **/
+    public EventData[] getRangeEvents(
+        long timeStart, long timeEnd,
+        int statusCodes[],
+        boolean validGPS,
+        EventData.LimitType limitType, long limit,
+        Set<String> selFields)
+        throws DBException
+    {
 
         /* get data */
         EventData ev[] = EventData.getRangeEvents(
@@ -12303,7 +12373,9 @@ public class Device // Asset
             statusCodes,
             validGPS,
             limitType, limit, true/*ascending*/,
-            null/*additionalSelect*/);
+            null/*additionalSelect*/,
+            selFields,
+            null/*rcdHandler*/);
 
         /* apply current Device to all EventData records */
         if (ev != null) {
@@ -12463,13 +12535,14 @@ public class Device // Asset
     public void reprocessEventDataRecords(long timeStart, long timeEnd, final EventDataHandler edh)
         throws DBException
     {
-        EventData.getRangeEvents(
+        EventData.iterateRangeEvents(
             this.getAccountID(), this.getDeviceID(),
             timeStart, timeEnd,
             null/*statusCodes*/,
             false/*validGPS*/,
-            EventData.LimitType.LAST, -1L/*limit*/, true/*ascending*/,
+            true/*ascending*/,
             null/*additionalSelect*/,
+            EventData.ITERATE_BLOCK_SIZE,
             new DBRecordHandler<EventData>() {
                 public int handleDBRecord(EventData rcd) throws DBException {
                     edh.handleEventDataRecord(rcd);
@@ -12528,6 +12601,44 @@ public class Device // Asset
 
     }
 
+    // ------------------------------------------------------------------------
+
+    private String prevUniqueID = null; // unique-id prior to change (see "setChanged")
+
+    /**
+    *** Sets the 'changed' state of this record (retains the previous unique-id)
+    *** @param fieldName  The changed field
+    *** @param oldVal     The previous value of the field
+    *** @param newVal     The new value of the field
+    **/
+    public void setChanged(String fieldName, Object oldVal, Object newVal)
+    {
+        if (FLD_uniqueID.equals(fieldName) && StringTools.isBlank(this.prevUniqueID) && (oldVal != null)) {
+            this.prevUniqueID = oldVal.toString();
+        }
+        super.setChanged(fieldName, oldVal, newVal);
+    }
+
+    /**
+    *** Callback after this Device has been inserted into the table
+    **/
+    protected void recordDidInsert()
+    {
+        super.recordDidInsert();
+        DeviceIdentityCache.deviceDidSave(this, this.prevUniqueID);
+        this.prevUniqueID = null;
+    }
+
+    /**
+    *** Callback after this Device has been updated in the table
+    **/
+    protected void recordDidUpdate()
+    {
+        super.recordDidUpdate();
+        DeviceIdentityCache.deviceDidSave(this, this.prevUniqueID);
+        this.prevUniqueID = null;
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -12824,9 +12935,18 @@ public class Device // Asset
             // -- create key
             String acctID = account.getAccountID();
             Device.Key key = new Device.Key(acctID, devID);
+            // -- cached? (full records only)
+            DBRecordCache<Device> cache = ListTools.isEmpty(fieldNames)? Device.getFactory().getRecordCache() : null;
+            Device dev = (cache != null)? cache.get(key) : null;
+            if (dev != null) {
+                dev.setAccount(account);
+                return dev; // cached copy
+            }
+            long cacheGen = (cache != null)? cache.getGeneration() : 0L;
             // -- get DBRecord
             if (key.exists()) {
-                Device dev = key.getDBRecord(true, fieldNames);
+                dev = key.getDBRecord(true, fieldNames);
+                if (cache != null) { cache.put(dev, cacheGen); }
                 dev.setAccount(account);
                 return dev;
             } else {
@@ -12869,8 +12989,14 @@ public class Device // Asset
             // -- create key
             String acctID = account.getAccountID();
             Device.Key key = new Device.Key(acctID, devID);
-            // -- get DBRecord
-            Device dev = key._getDBRecord(true, fieldNames); // may throw DBException
+            // -- cached? (full records only)
+            DBRecordCache<Device> cache = ListTools.isEmpty(fieldNames)? Device.getFactory().getRecordCache() : null;
+            Device dev = (cache != null)? cache.get(key) : null;
+            if (dev == null) {
+                long cacheGen = (cache != null)? cache.getGeneration() : 0L;
+                dev = key._getDBRecord(true, fieldNames); // may throw DBException
+                if (cache != null) { cache.put(dev, cacheGen); }
+            }
             dev.setAccount(account);
             return dev;
         } else {
@@ -14550,14 +14676,14 @@ public class Device // Asset
             };
             try {
                 // update events
-                // (it's possible that this could run out of memory if this range is too large)
-                EventData.getRangeEvents(
+                EventData.iterateRangeEvents(
                     acctID, devID,
                     resetTime, -1L/*toDateSec*/,
                     null/*statusCodes*/,                            // all status codes
                     true/*validGPS*/,                               // valid GPS only
-                    EventData.LimitType.FIRST, -1/*limit*/, true,   // no limit, ascending
+                    true/*ascending*/,
                     null/*additionalSelect*/,
+                    EventData.ITERATE_BLOCK_SIZE,
                     odomResetHandler);
                 // update device record
                 device.update(
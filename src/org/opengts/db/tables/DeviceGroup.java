@@ -176,6 +176,8 @@ public class DeviceGroup
             // -- FLD_notifyEmail max length
             DBField emailFld = factory.getField(FLD_notifyEmail);
             DeviceGroup.NotifyEmailColumnLength = (emailFld != null)? emailFld.getStringLength() : 0;
+            // -- record cache (if "db.recordCache.enable" is true)
+            factory.setRecordCache(2000, 300L);
         }
         return factory;
     }
@@ -869,8 +871,16 @@ public class DeviceGroup
 
         /* get/create group */
         DeviceGroup.Key groupKey = new DeviceGroup.Key(account.getAccountID(), groupId);
+        DBRecordCache<DeviceGroup> cache = DeviceGroup.getFactory().getRecordCache();
+        DeviceGroup cached = (cache != null)? cache.get(groupKey) : null;
+        if (cached != null) {
+            cached.setAccount(account);
+            return cached; // cached copy
+        }
+        long cacheGen = (cache != null)? cache.getGeneration() : 0L;
         if (groupKey.exists()) { // may throw DBException
             DeviceGroup group = groupKey.getDBRecord(true);
+            if (cache != null) { cache.put(group, cacheGen); }
             group.setAccount(account);
             return group;
         } else
@@ -442,6 +442,9 @@ public class EventData
 
     public static final EventData   EMPTY_ARRAY[]       = new EventData[0];
 
+    /* "iterateRangeEvents" block size */
+    public static final long        ITERATE_BLOCK_SIZE  = 1000L;
+
     public static       int         AddressColumnLength = -1;   // FLD_address
     public static       int         StreetColumnLength  = -1;   // FLD_streetAddress
     public static       int         CityColumnLength    = -1;   // FLD_city
@@ -1182,6 +1185,9 @@ public class EventData
             // -- "COUNT(*)", with "where", not allowed if InnoDB
             boolean countOK = RTConfig.getBoolean(DBConfig.PROP_EventData_allowInnoDBCountWithWhere,DFT_allowInnoDBCountWithWhere);
             factory.setAllowInnoDBCOUNT(countOK);
+            // -- "timestamp" range partitions (see "deleteOldPartitions")
+            String partIntrv = RTConfig.getString(DBConfig.PROP_EventData_partitionInterval,null);
+            factory.setPartitionField(FLD_timestamp, DBPartitionManager.Interval.parse(partIntrv,DBPartitionManager.Interval.MONTH));
         }
         return factory;
     }
@@ -2773,6 +2779,76 @@ public class EventData
     
     // ------------------------------------------------------------------------
 
+    /**
+    *** Gets the GeoPoint used for reverse-geocoding this event (the GPS location if valid,
+    *** otherwise the cell-tower location)
+    *** @return The GeoPoint, or null if neither location is valid
+    **/
+    public GeoPoint getReverseGeocodeGeoPoint()
+    {
+        double evLat = this.getLatitude();
+        double evLon = this.getLongitude();
+        if (GeoPoint.isValid(evLat,evLon)) {
+            return new GeoPoint(evLat, evLon);
+        }
+        double cellLat = this.getCellLatitude();
+        double cellLon = this.getCellLongitude();
+        if (GeoPoint.isValid(cellLat,cellLon)) {
+            return new GeoPoint(cellLat, cellLon);
+        }
+        return null;
+    }
+
+    /**
+    *** Sets the address fields of this event from the specified ReverseGeocode
+    *** @param rg  The ReverseGeocode
+    *** @return The set of updated fields, or null if no fields were updated
+    **/
+    public Set<String> setReverseGeocode(ReverseGeocode rg)
+    {
+        if (rg == null) {
+            return null;
+        }
+        Set<String> updFields = new HashSet<String>();
+        if (rg.hasFullAddress()) {
+            this.setAddress(rg.getFullAddress());                   // FLD_address
+            updFields.add(EventData.FLD_address);
+        }
+        if (rg.hasStreetAddress()) {
+            this.setStreetAddress(rg.getStreetAddress());           // FLD_streetAddress
+            updFields.add(EventData.FLD_streetAddress);
+        }
+        if (rg.hasCity()) {
+            this.setCity(rg.getCity());                             // FLD_city
+            updFields.add(EventData.FLD_city);
+        }
+        if (rg.hasStateProvince()) {
+            this.setStateProvince(rg.getStateProvince());           // FLD_stateProvince
+            updFields.add(EventData.FLD_stateProvince);
+        }
+        if (rg.hasPostalCode()) {
+            this.setPostalCode(rg.getPostalCode());                 // FLD_postalCode
+            updFields.add(EventData.FLD_postalCode);
+        }
+        if (rg.hasCountryCode()) {
+            this.setCountry(rg.getCountryCode());                   // FLD_country
+            updFields.add(EventData.FLD_country);
+        }
+        if (rg.hasSubdivision()) {
+            this.setSubdivision(rg.getSubdivision());               // FLD_subdivision
+            updFields.add(EventData.FLD_subdivision);
+        }
+        if (rg.hasSpeedLimitKPH()) {
+            this.setSpeedLimitKPH(rg.getSpeedLimitKPH());           // FLD_speedLimitKPH
+            updFields.add(EventData.FLD_speedLimitKPH);
+        }
+        if (rg.hasIsTollRoad()) {
+            this.setIsTollRoad(rg.getIsTollRoad());                 // FLD_isTollRoad
+            updFields.add(EventData.FLD_isTollRoad);
+        }
+        return !updFields.isEmpty()? updFields : null;
+    }
+
     public Set<String> updateAddress(boolean fastOnly)
         throws SlowOperationException
     {
@@ -2935,20 +3011,10 @@ public class EventData
         }
 
         /* GeoPoint required after this point */
-        GeoPoint addrGP = null;
-        double    evLat = this.getLatitude();   // .getCellLatitude();
-        double    evLon = this.getLongitude();  // .getCellLongitude();
-        if (GeoPoint.isValid(evLat,evLon)) {
-            addrGP = new GeoPoint(evLat, evLon);
-        } else {
-            double cellLat = this.getCellLatitude();
-            double cellLon = this.getCellLongitude();
-            if (GeoPoint.isValid(cellLat,cellLon)) {
-                addrGP = new GeoPoint(cellLat, cellLon);
-            } else {
-                // -- Can't reverse-geocode an invalid point
-                return null;
-            }
+        GeoPoint addrGP = this.getReverseGeocodeGeoPoint();
+        if (addrGP == null) {
+            // -- Can't reverse-geocode an invalid point
+            return null;
         }
 
         /* (at least GeocoderMode.GEOZONE) get address from Geozone */
@@ -3054,44 +3120,7 @@ public class EventData
             privLabel.popRTProperties();    // remove from stack
         }
         if (rg != null) {
-            Set<String> updFields = new HashSet<String>();
-            if (rg.hasFullAddress()) {
-                this.setAddress(rg.getFullAddress());                   // FLD_address
-                updFields.add(EventData.FLD_address);
-            }
-            if (rg.hasStreetAddress()) {
-                this.setStreetAddress(rg.getStreetAddress());           // FLD_streetAddress
-                updFields.add(EventData.FLD_streetAddress);
-            }
-            if (rg.hasCity()) {
-                this.setCity(rg.getCity());                             // FLD_city
-                updFields.add(EventData.FLD_city);
-            }
-            if (rg.hasStateProvince()) {
-                this.setStateProvince(rg.getStateProvince());           // FLD_stateProvince
-                updFields.add(EventData.FLD_stateProvince);
-            }
-            if (rg.hasPostalCode()) {
-                this.setPostalCode(rg.getPostalCode());                 // FLD_postalCode
-                updFields.add(EventData.FLD_postalCode);
-            }
-            if (rg.hasCountryCode()) {
-                this.setCountry(rg.getCountryCode());                   // FLD_country
-                updFields.add(EventData.FLD_country);
-            }
-            if (rg.hasSubdivision()) {
-                this.setSubdivision(rg.getSubdivision());               // FLD_subdivision
-                updFields.add(EventData.FLD_subdivision);
-            }
-            if (rg.hasSpeedLimitKPH()) {
-                this.setSpeedLimitKPH(rg.getSpeedLimitKPH());           // FLD_speedLimitKPH
-                updFields.add(EventData.FLD_speedLimitKPH);
-            }
-            if (rg.hasIsTollRoad()) {
-                this.setIsTollRoad(rg.getIsTollRoad());                 // FLD_isTollRoad
-                updFields.add(EventData.FLD_isTollRoad);
-            }
-            return !updFields.isEmpty()? updFields : null;
+            return this.setReverseGeocode(rg);
         }
 
         /* still no address after all of this */
@@ -3135,20 +3164,10 @@ public class EventData
         }
 
         /* GeoPoint required after this point */
-        GeoPoint addrGP = null;
-        double    evLat = this.getLatitude();   // .getCellLatitude();
-        double    evLon = this.getLongitude();  // .getCellLongitude();
-        if (GeoPoint.isValid(evLat,evLon)) {
-            addrGP = new GeoPoint(evLat, evLon);
-        } else {
-            double cellLat = this.getCellLatitude();
-            double cellLon = this.getCellLongitude();
-            if (GeoPoint.isValid(cellLat,cellLon)) {
-                addrGP = new GeoPoint(cellLat, cellLon);
-            } else {
-                // -- Can't reverse-geocode an invalid point
-                return null;
-            }
+        GeoPoint addrGP = this.getReverseGeocodeGeoPoint();
+        if (addrGP == null) {
+            // -- Can't reverse-geocode an invalid point
+            return null;
         }
 
         /* get reverse-geocode provider */
@@ -3370,6 +3389,8 @@ public class EventData
         return this.getFieldValue(FLD_speedLimitKPH, 0.0);
     }
 
+    private static RTKey.DoubleHandle RTK_minimumPostedSpeedLimit = new RTKey.DoubleHandle(DBConfig.PROP_EventData_minimumPostedSpeedLimit, 0.0);
+
     /**
     *** Sets the posted speed limit 
     *** (typically obtained from the reverse-geocoding service)
@@ -3379,7 +3400,7 @@ public class EventData
     {
         // -- this clips the minimum allowed speed-limit.  
         // -  If the min limit is < 0.0, the speed limit will be set to 0 (ignored)
-        double minKPH = RTConfig.getDouble(DBConfig.PROP_EventData_minimumPostedSpeedLimit,0.0);
+        double minKPH = RTK_minimumPostedSpeedLimit.get();
         if (minKPH != 0.0) {
             double posMinKPH = Math.abs(minKPH);
             if (v < posMinKPH) {
@@ -8198,6 +8219,97 @@ public class EventData
         
     }
 
+    /**
+    *** Gets the parameterized EventData WHERE clause with the specified key/selects 
+    *** values.  The parameter fields/values are appended to the specified lists,
+    *** in the order of the '?' placeholders in the returned clause.<br>
+    *** [DB]WHERE ( <Condition...> )
+    **/
+    public static String getPreparedWhereClause(
+        String acctId, String devId,
+        long timeStart, long timeEnd, 
+        int statCode[], 
+        boolean gpsRequired,
+        java.util.List<DBField> prepFld, java.util.List<Object> prepVal)
+    {
+        DBFactory<EventData> dbFact = EventData.getFactory();
+        DBProvider dbp = DBProvider.getProvider();
+        StringBuffer sb = new StringBuffer();
+
+        /* Account/Device */
+        // -- (accountID=?) AND (deviceID=?)
+        if (!StringTools.isBlank(acctId)) {
+            sb.append("(").append(dbp.quoteColumnName(EventData.FLD_accountID)).append("=?)");
+            prepFld.add(dbFact.getField(EventData.FLD_accountID));
+            prepVal.add(acctId);
+            if (!StringTools.isBlank(devId) && !devId.equals("*")) {
+                sb.append(" AND (").append(dbp.quoteColumnName(EventData.FLD_deviceID)).append("=?)");
+                prepFld.add(dbFact.getField(EventData.FLD_deviceID));
+                prepVal.add(devId);
+            }
+        }
+
+        /* status code(s) */
+        // -- AND ( (statusCode=?) OR (statusCode=?) [OR ...] )
+        if ((statCode != null) && (statCode.length > 0)) {
+            DBField scFld = dbFact.getField(EventData.FLD_statusCode);
+            String  scCol = dbp.quoteColumnName(EventData.FLD_statusCode);
+            if (sb.length() > 0) { sb.append(" AND "); }
+            sb.append("(");
+            for (int i = 0; i < statCode.length; i++) {
+                if (i > 0) { sb.append(" OR "); }
+                sb.append(scCol).append("=?");
+                prepFld.add(scFld);
+                prepVal.add(new Integer(statCode[i]));
+            }
+            sb.append(")");
+        }
+
+        /* gps required */
+        if (gpsRequired) {
+            // -- AND ( (latitude!=0) OR (longitude!=0) )
+            DBWhere dwh = new DBWhere(dbFact);
+            String gps;
+            if (!dbFact.hasField(EventData.FLD_cellLatitude)) {
+                gps = dwh.OR(
+                    dwh.NE(EventData.FLD_latitude     ,0L),
+                    dwh.NE(EventData.FLD_longitude    ,0L)
+                );
+            } else {
+                gps = dwh.OR(
+                    dwh.NE(EventData.FLD_latitude     ,0L),
+                    dwh.NE(EventData.FLD_longitude    ,0L),
+                    dwh.NE(EventData.FLD_cellLatitude ,0L),
+                    dwh.NE(EventData.FLD_cellLongitude,0L)
+                );
+            }
+            if (sb.length() > 0) { sb.append(" AND "); }
+            sb.append(gps);
+        }
+
+        /* event time */
+        DBField tsFld = dbFact.getField(EventData.FLD_timestamp);
+        String  tsCol = dbp.quoteColumnName(EventData.FLD_timestamp);
+        if (timeStart >= 0L) {
+            // -- AND (timestamp>=?)
+            if (sb.length() > 0) { sb.append(" AND "); }
+            sb.append("(").append(tsCol).append(">=?)");
+            prepFld.add(tsFld);
+            prepVal.add(new Long(timeStart));
+        }
+        if ((timeEnd >= 0L) && (timeEnd >= timeStart)) {
+            // -- AND (timestamp<=?)
+            if (sb.length() > 0) { sb.append(" AND "); }
+            sb.append("(").append(tsCol).append("<=?)");
+            prepFld.add(tsFld);
+            prepVal.add(new Long(timeEnd));
+        }
+
+        /* end of where */
+        return (sb.length() > 0)? (" WHERE ( " + sb + " )") : "";
+
+    }
+
     // ------------------------------------------------------------------------
 
     /* return the EventData record for the specified 'autoIndex' value */
@@ -8380,6 +8492,35 @@ public class EventData
         DBRecordHandler<EventData> rcdHandler)
         throws DBException
     {
+        return EventData.getRangeEvents(
+            acctId, devId, 
+            timeStart, timeEnd,
+            statCode,
+            validGPS, 
+            limitType, limit, ascending,
+            addtnlSelect,
+            null/*selFields*/,
+            rcdHandler);
+    }
+
+    /**
+    *** Gets a range of EventData records (does not return null).<br>
+    *** If 'selFields' is specified, only the primary keys and the specified fields are 
+    *** read from the table, and the returned records are marked as partial (ie. they
+    *** may not be saved/inserted, and unloaded fields will return default values).
+    **/
+    public static EventData[] getRangeEvents(
+        String acctId, 
+        String devId,
+        long timeStart, long timeEnd,
+        int statCode[],
+        boolean validGPS,
+        EventData.LimitType limitType, long limit, boolean ascending,
+        String addtnlSelect,
+        Set<String> selFields,
+        DBRecordHandler<EventData> rcdHandler)
+        throws DBException
+    {
 
         /* get record selector */
         DBSelect<EventData> dsel = EventData._createRangeEventSelector(
@@ -8395,6 +8536,11 @@ public class EventData
             return EMPTY_ARRAY;
         }
 
+        /* projected fields */
+        if (!ListTools.isEmpty(selFields)) {
+            dsel.setProjectedFields(selFields);
+        }
+
         /* debug: compare SQL selections */
         //if (DBConnection.getShowExecutedSQL()) {
         //    Print.logInfo("SQL Select comparison:");
@@ -8411,7 +8557,22 @@ public class EventData
                 DBProvider.lockTables(new String[] { EventData.TABLE_NAME() }, null);
             }
             //ed = (EventData[])DBRecord.select(EventData.getFactory(), dsel.toString(false), rcdHandler);
-            ed = DBRecord.select(dsel, rcdHandler); // select:DBSelect
+            if (StringTools.isBlank(addtnlSelect) && DBProvider.usePreparedStatements()) {
+                // -- parameterized select (PreparedStatement)
+                java.util.List<DBField> prepFld = new Vector<DBField>();
+                java.util.List<Object>  prepVal = new Vector<Object>();
+                dsel.setWhere(EventData.getPreparedWhereClause(
+                    acctId, devId,
+                    timeStart, timeEnd,
+                    statCode,
+                    validGPS,
+                    prepFld, prepVal));
+                ed = DBRecord.select(dsel,
+                    prepFld.toArray(new DBField[prepFld.size()]), prepVal.toArray(),
+                    rcdHandler);
+            } else {
+                ed = DBRecord.select(dsel, rcdHandler); // select:DBSelect
+            }
             // -- 'ed' _may_ be empty if (rcdHandler != null)
         } finally {
             if (EventData.LockTableOnRead()) {
@@ -8439,6 +8600,47 @@ public class EventData
 
     }
 
+    /**
+    *** Passes each EventData record in the specified range to the specified handler,
+    *** reading the range in blocks by keyset (seek) pagination.  Unlike "getRangeEvents",
+    *** no records are saved, and the table is not held locked (nor a single result set
+    *** held open) for the duration, so this is suitable for iterating through, and 
+    *** updating, large ranges of events.
+    *** @return The number of records passed to the handler
+    **/
+    public static long iterateRangeEvents(
+        String acctId, String devId,
+        long timeStart, long timeEnd,
+        int statCode[],
+        boolean validGPS,
+        boolean ascending,
+        String addtnlSelect,
+        long blockSize,
+        DBRecordHandler<EventData> rcdHandler)
+        throws DBException
+    {
+
+        /* get record selector */
+        DBSelect<EventData> dsel = EventData._createRangeEventSelector(
+            acctId, devId, 
+            timeStart, timeEnd,
+            statCode,
+            validGPS, 
+            EventData.LimitType.FIRST, -1L, ascending,
+            addtnlSelect);
+
+        /* invalid arguments? */
+        if (dsel == null) {
+            return 0L;
+        }
+
+        /* iterate */
+        DBRecordIterator<EventData> dbi = new DBRecordIterator<EventData>(dsel);
+        dbi.setLimit(blockSize);
+        return dbi.handleRecords(rcdHandler);
+
+    }
+
     /* return count in range of EventData records */
     public static long countRangeEvents(
         String acctId, String devId,
@@ -8818,6 +9020,211 @@ public class EventData
 
     }
 
+    /**
+    *** Delete old events by dropping whole "timestamp" range partitions.<br>
+    *** Partitions are dropped only if they lie entirely before the earliest time
+    *** permitted by all accounts (see "Account.adjustRetainedEventTime").  Accounts
+    *** with a custom retained-event-age then have their remaining old events deleted
+    *** individually (see "Account.deleteOldEvents").  If an account retains events
+    *** longer than "oldTimeSec", limiting the partitions which can be dropped, the
+    *** events of all other accounts between the limited drop time and "oldTimeSec" are
+    *** also deleted individually.  As with "deleteOldEvents", the last event of each
+    *** device is retained: before the partitions are dropped, the last event (per
+    *** "Device.lastEventTimestamp") of each device whose last event lies in a dropped
+    *** partition is copied (on the primary database) to a staging table, from which it
+    *** is restored once the partitions have been dropped.  A staging table left by an
+    *** interrupted drop is restored on the next call.
+    *** @param oldTimeSec  The time in the past before which (exclusive) events will be deleted.
+    *** @param confirm     True to drop partitions, false to only display what would be dropped
+    *** @param msg         StringBuffer where messages are placed regarding the partitions dropped.
+    *** @return The number of partitions dropped (or which would have been dropped)
+    *** @throws DBException If the EventData table is not partitioned, or if a DB error occurs
+    **/
+    public static int deleteOldPartitions(
+        long oldTimeSec,
+        boolean confirm,
+        StringBuffer msg)
+        throws DBException
+    {
+
+        /* partitioned? */
+        DBPartitionManager partMgr = EventData.getFactory().getPartitionManager();
+        if ((partMgr == null) || !partMgr.isPartitioned()) {
+            throw new DBException("EventData table is not partitioned");
+        }
+
+        /* "oldTimeSec" must not be less than "1" */
+        if (oldTimeSec < 1L) {
+            oldTimeSec = 1L;
+        }
+
+        /* earliest retained time over all accounts */
+        long dropTimeSec = oldTimeSec;
+        java.util.List<Account> allAccts    = new Vector<Account>();
+        java.util.List<Account> customAccts = new Vector<Account>();
+        Set<String> limitAccts = new OrderedSet<String>();
+        for (String acctID : Account.getAllAccounts()) {
+            Account account = Account.getAccount(acctID);
+            if (account == null) {
+                continue;
+            }
+            allAccts.add(account);
+            long acctTimeSec = account.adjustRetainedEventTime(oldTimeSec);
+            if (acctTimeSec != oldTimeSec) {
+                // -- custom retained-event-age
+                customAccts.add(account);
+            }
+            if (acctTimeSec < dropTimeSec) {
+                dropTimeSec = acctTimeSec;
+                limitAccts.clear();
+            }
+            if (acctTimeSec == dropTimeSec) {
+                limitAccts.add(acctID);
+            }
+        }
+        java.util.List<Account> deleteAccts = customAccts;
+        if (dropTimeSec < oldTimeSec) {
+            // -- events of all accounts between "dropTimeSec" and "oldTimeSec" remain after
+            // -  the drop, and must be deleted individually
+            Print.logWarn("Partition drop limited to " + (new DateTime(dropTimeSec)) + " by retained-event-age of Account(s): " + limitAccts);
+            deleteAccts = allAccts;
+            if (msg != null) {
+                if (msg.length() > 0) { msg.append(", "); }
+                msg.append("Partition drop limited to ").append(new DateTime(dropTimeSec));
+                msg.append(" by Account(s) ").append(limitAccts);
+            }
+        }
+
+        /* partitions to drop */
+        java.util.List<DBPartitionManager.Partition> dropParts = partMgr.getPartitionsBefore(dropTimeSec);
+        long dropBoundSec = 0L;
+        for (DBPartitionManager.Partition p : dropParts) {
+            dropBoundSec = Math.max(dropBoundSec, p.getLessThan());
+            if (msg != null) {
+                if (msg.length() > 0) { msg.append(", "); }
+                msg.append(confirm? "Dropping " : "Would drop ").append(p);
+            }
+        }
+        if (dropParts.isEmpty()) {
+            if (msg != null) {
+                if (msg.length() > 0) { msg.append(", "); }
+                msg.append("No partitions prior to ").append(new DateTime(dropTimeSec));
+            }
+        } else
+        if (confirm) {
+
+            /* copy the last event of devices whose last event is in a dropped partition */
+            String xtable = EventData.getFactory().getTranslatedTableName();
+            String stable = xtable + RETAIN_TABLE_SUFFIX;
+            String dtable = Device.getFactory().getTranslatedTableName();
+            EventData._restoreRetainedEvents(xtable, stable); // from an interrupted drop
+            String acctFld = DBProvider.translateColumnName(FLD_accountID);
+            String devFld  = DBProvider.translateColumnName(FLD_deviceID);
+            String tsFld   = DBProvider.translateColumnName(FLD_timestamp);
+            String lastFld = DBProvider.translateColumnName(Device.FLD_lastEventTimestamp);
+            StringBuffer partNames = new StringBuffer();
+            for (DBPartitionManager.Partition p : dropParts) {
+                if (partNames.length() > 0) { partNames.append(","); }
+                partNames.append(p.getName());
+            }
+            // -- per-device primary-key lookups, limited to the dropped partitions
+            int retained = EventData._executeRetainUpdate(
+                "INSERT INTO " + stable + " SELECT e.* FROM " + dtable + " d" +
+                " JOIN " + xtable + " PARTITION (" + partNames + ") e" +
+                " ON e." + acctFld + "=d." + acctFld +
+                " AND e." + devFld + "=d." + devFld +
+                " AND e." + tsFld + "=d." + lastFld +
+                " WHERE d." + lastFld + ">0 AND d." + lastFld + "<" + dropBoundSec);
+
+            /* drop */
+            partMgr.dropPartitions(dropParts);
+
+            /* restore retained last events (into the now-oldest partition) */
+            EventData._restoreRetainedEvents(xtable, stable);
+            if ((msg != null) && (retained > 0)) {
+                msg.append(", Saved last event for ").append(retained).append(" device(s)");
+            }
+
+        }
+
+        /* row-level delete for accounts with a custom retained-event-age (or all accounts, if limited) */
+        if (confirm) {
+            for (Account account : deleteAccts) {
+                account.deleteOldEvents(oldTimeSec, true); // InnoDB
+            }
+        } else
+        if (!deleteAccts.isEmpty() && (msg != null)) {
+            if (msg.length() > 0) { msg.append(", "); }
+            msg.append("Would delete old events for ").append(deleteAccts.size()).append(" Account(s)");
+        }
+
+        /* return partition count */
+        return dropParts.size();
+
+    }
+
+    private static final String RETAIN_TABLE_SUFFIX = "_retain";
+
+    /**
+    *** Executes the specified partition-drop staging statement on the primary database
+    *** @return The number of affected rows
+    **/
+    private static int _executeRetainUpdate(String sql)
+        throws DBException
+    {
+        DBConnection dbc = null;
+        try {
+            dbc = DBConnection.getDefaultConnection();
+            return dbc.executeUpdateCount(sql);
+        } catch (SQLException sqe) {
+            throw new DBException("Retaining last EventData records", sqe);
+        } finally {
+            DBConnection.release(dbc);
+        }
+    }
+
+    /**
+    *** Returns true if the partition-drop staging table exists
+    **/
+    private static boolean _retainTableExists(String stable)
+        throws DBException
+    {
+        DBConnection dbc  = null;
+        Statement    stmt = null;
+        ResultSet    rs   = null;
+        try {
+            dbc  = DBConnection.getDefaultConnection();
+            stmt = dbc.execute("SHOW TABLES LIKE '" + stable + "'");
+            rs   = stmt.getResultSet();
+            return rs.next();
+        } catch (SQLException sqe) {
+            throw new DBException("Checking " + stable, sqe);
+        } finally {
+            if (rs   != null) { try { rs.close(); } catch (Throwable t) {} }
+            if (dbc  != null) { dbc.releaseStatement(stmt); }
+            DBConnection.release(dbc);
+        }
+    }
+
+    /**
+    *** Restores the events saved in the partition-drop staging table (creating the 
+    *** staging table, without partitions, if it does not exist), then empties the
+    *** staging table.
+    **/
+    private static void _restoreRetainedEvents(String xtable, String stable)
+        throws DBException
+    {
+        if (!EventData._retainTableExists(stable)) {
+            EventData._executeRetainUpdate("CREATE TABLE " + stable + " LIKE " + xtable);
+            EventData._executeRetainUpdate("ALTER TABLE " + stable + " REMOVE PARTITIONING");
+        }
+        int count = EventData._executeRetainUpdate("INSERT IGNORE INTO " + xtable + " SELECT * FROM " + stable);
+        if (count > 0) {
+            Print.logInfo("Restored " + count + " retained EventData records from " + stable);
+        }
+        EventData._executeRetainUpdate("DELETE FROM " + stable);
+    }
+
     // ------------------------------------------------------------------------
 
     private static class GPSDistanceAccumulator
@@ -10492,6 +10899,7 @@ public class EventData
                 null);
             try {
                 DBRecordIterator<EventData> dbi = new DBRecordIterator<EventData>(dsel);
+                dbi.setLimit(ITERATE_BLOCK_SIZE);
                 for (int rc = 1; dbi.hasNext(); rc++) {
                     EventData ed = dbi.next();
                     StringBuffer sb = new StringBuffer();
@@ -468,6 +468,11 @@ public class Geozone
         public DBFactory<Geozone> getFactory() {
             return Geozone.getFactory();
         }
+        protected void _delete(String altIndexName, int whereKeyType) 
+            throws SQLException, DBException {
+            super._delete(altIndexName, whereKeyType);
+            GeozoneIndex.invalidate((String)this.getKeyValue(FLD_accountID));
+        }
     }
 
     /* factory constructor */
@@ -2651,6 +2656,34 @@ public class Geozone
 
     // ------------------------------------------------------------------------
 
+    private static RTKey.BooleanHandle RTK_preparedGeometry = new RTKey.BooleanHandle(DBConfig.PROP_Geozone_preparedGeometry, false);
+
+    private volatile PreparedGeometry preparedGeometry = null;
+
+    /**
+    *** Gets the prepared geometry for the specified type/points/radius, creating and
+    *** caching a new one if the cached instance was prepared from other values.
+    **/
+    private PreparedGeometry _getPreparedGeometry(int type, GeoPoint gzPts[], double radiusKM)
+    {
+        PreparedGeometry pg = this.preparedGeometry;
+        if ((pg == null) || !pg.isPreparedFrom(type,gzPts,radiusKM)) {
+            switch (type) {
+                case PreparedGeometry.TYPE_POINT_RADIUS:
+                    pg = PreparedGeometry.createPointRadius(gzPts, radiusKM);
+                    break;
+                case PreparedGeometry.TYPE_SWEPT_RADIUS:
+                    pg = PreparedGeometry.createSweptRadius(gzPts, radiusKM);
+                    break;
+                default:
+                    pg = PreparedGeometry.createPolygon(gzPts);
+                    break;
+            }
+            this.preparedGeometry = pg;
+        }
+        return pg;
+    }
+
     /* return true if this geozone contains the specified point */
     public boolean containsPoint(GeoPoint gp)
     {
@@ -2662,12 +2695,17 @@ public class Geozone
 
         /* determine inclusion in Geozone based on zone type */
         GeoPoint gzPts[] = this.getGeoPoints();
+        boolean prepared = RTK_preparedGeometry.get();
         switch (Geozone.getGeozoneType(this)) {
             case POINT_RADIUS: {
                 double radiusKM  = this.getRadiusKilometers();
                 if (this.isClientUpload()) {
                     radiusKM += CLIENT_RADIUS_DELTA_METERS / 1000.0;
                 }
+                if (prepared) {
+                    int type = PreparedGeometry.TYPE_POINT_RADIUS;
+                    return this._getPreparedGeometry(type,gzPts,radiusKM).containsPoint(gp);
+                } else
                 if (geozoneMultiPointRadius != null) {
                     return geozoneMultiPointRadius.containsPoint(gp,gzPts,radiusKM);
                 } else {
@@ -2690,6 +2728,11 @@ public class Geozone
                 if (geozoneSweptPointRadius != null) {
                     return geozoneSweptPointRadius.containsPoint(gp,gzPts,radiusKM);
                 } else 
+                if (prepared) {
+                    // GeoSegment not installed, test against the prepared corridor
+                    int type = PreparedGeometry.TYPE_SWEPT_RADIUS;
+                    return this._getPreparedGeometry(type,gzPts,radiusKM).containsPoint(gp);
+                } else
                 if (geozoneMultiPointRadius != null) {
                     Print.logWarn("GeoSegment not installed, testing with PointRadius ...");
                     return geozoneMultiPointRadius.containsPoint(gp,gzPts,radiusKM);
@@ -2698,6 +2741,10 @@ public class Geozone
                 }
             }
             case POLYGON: {
+                if (prepared) {
+                    int type = PreparedGeometry.TYPE_POLYGON;
+                    return this._getPreparedGeometry(type,gzPts,0.0).containsPoint(gp);
+                } else
                 if (geozonePolygon != null) {
                     return geozonePolygon.containsPoint(gp,gzPts,0.0);
                 } else {
@@ -2722,6 +2769,26 @@ public class Geozone
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Callback after this Geozone has been inserted into the table
+    **/
+    protected void recordDidInsert()
+    {
+        super.recordDidInsert();
+        GeozoneIndex.invalidate(this.getAccountID());
+    }
+
+    /**
+    *** Callback after this Geozone has been updated in the table
+    **/
+    protected void recordDidUpdate()
+    {
+        super.recordDidUpdate();
+        GeozoneIndex.invalidate(this.getAccountID());
+    }
+
+    // ------------------------------------------------------------------------
+
     /* write Geozone to Payload (in DMTP format) */
     public boolean encodeDMTPZone(Payload payload, int ptCnt, boolean hiRes)
     {
@@ -2779,6 +2846,7 @@ public class Geozone
     {
         this.zoneChanged = true;
         this.cachedVertices = null;
+        this.preparedGeometry = null;
     }
 
     /* return true if a bounding box has been defined for this Geozone */
@@ -3293,6 +3361,11 @@ public class Geozone
             return null;
         }
 
+        /* in-memory spatial index */
+        if (GeozoneIndex.isEnabled()) {
+            return GeozoneIndex.getGeozones(acctID, gp);
+        }
+
         /* where clause */
         // DBSelect: [SELECT] WHERE <Where> ORDER BY geozoneID,priority,sortID
         DBSelect<Geozone> dsel = new DBSelect<Geozone>(Geozone.getFactory());
@@ -130,6 +130,22 @@ public class StatusCode
             factory.addParentTable(Account.TABLE_NAME());
             factory.addParentTable(Device.TABLE_NAME());
             factory.setFieldDefaultValue(FLD_deviceID, ALL_DEVICES);  
+            factory.setRecordListener(new DBRecordListener<StatusCode>() {
+                public void recordWillInsert(StatusCode sc) {}
+                public void recordDidInsert(StatusCode sc) {
+                    StatusCode.invalidateAccountCodes(sc.getAccountID());
+                }
+                public void recordWillUpdate(StatusCode sc) {}
+                public void recordDidUpdate(StatusCode sc) {
+                    StatusCode.invalidateAccountCodes(sc.getAccountID());
+                }
+            });
+            factory.setRecordDeleteListener(new DBRecordDeleteListener<StatusCode>() {
+                public void recordDidDelete(DBRecordKey<StatusCode> scKey) {
+                    // -- blank accountID (partial key) clears all accounts
+                    StatusCode.invalidateAccountCodes(scKey.getKeyValueAsString(FLD_accountID));
+                }
+            });
         }
         return factory;
     }
@@ -425,10 +441,209 @@ public class StatusCode
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
+    // Per-account StatusCode resolution table
+    // All StatusCode records for an account are loaded with a single select, and
+    // device-specific, account-level ("*"), and global (SysAdmin account) codes are
+    // then resolved from memory.  The table for an account is discarded whenever a
+    // StatusCode record for that account is inserted/updated/deleted (in this JVM),
+    // or after "StatusCode.cacheTimeoutSec" seconds (changes made by other processes).
+    // Cached StatusCode records are shared, so "findStatusCode" returns a copy.
+    // A table which could not be loaded is cached empty for LOAD_FAILURE_TIMEOUT_MS,
+    // so that a failing account does not repeat the full select for every lookup.
+
+    private static final int  MAX_CACHED_ACCOUNTS     = 1000;
+    private static final long LOAD_FAILURE_TIMEOUT_MS = 15000L;
+
+    private static class AccountCodes
+    {
+        private String                              accountID  = null;
+        private long                                loadTimeMS = 0L;
+        private long                                maxAgeMS   = 0L; // 0 for default timeout
+        private Map<Integer,StatusCode>             acctCodes  = new HashMap<Integer,StatusCode>();
+        private Map<String,Map<Integer,StatusCode>> devCodes   = new HashMap<String,Map<Integer,StatusCode>>();
+        public AccountCodes(String accountID, StatusCode sc[], long maxAgeMS) {
+            this.accountID  = accountID;
+            this.loadTimeMS = System.currentTimeMillis();
+            this.maxAgeMS   = maxAgeMS;
+            for (int i = 0; i < ListTools.size(sc); i++) {
+                String  devID = sc[i].getDeviceID();
+                Integer code  = new Integer(sc[i].getStatusCode());
+                if (StringTools.isBlank(devID) || devID.equals(ALL_DEVICES)) {
+                    this.acctCodes.put(code, sc[i]);
+                } else {
+                    Map<Integer,StatusCode> dm = this.devCodes.get(devID);
+                    if (dm == null) {
+                        dm = new HashMap<Integer,StatusCode>();
+                        this.devCodes.put(devID, dm);
+                    }
+                    dm.put(code, sc[i]);
+                }
+            }
+        }
+        public boolean isExpired(long nowMS, long timeoutMS) {
+            if ((this.maxAgeMS > 0L) && (this.maxAgeMS < timeoutMS)) {
+                timeoutMS = this.maxAgeMS;
+            }
+            return ((nowMS - this.loadTimeMS) >= timeoutMS);
+        }
+        public StatusCode getDeviceCode(String devID, Integer code) {
+            Map<Integer,StatusCode> dm = !StringTools.isBlank(devID)? this.devCodes.get(devID) : null;
+            return (dm != null)? dm.get(code) : null;
+        }
+        public StatusCode getAccountCode(Integer code) {
+            return this.acctCodes.get(code);
+        }
+        public int size() {
+            int n = this.acctCodes.size();
+            for (Map<Integer,StatusCode> dm : this.devCodes.values()) { n += dm.size(); }
+            return n;
+        }
+    }
+
+    private static Map<String,AccountCodes> accountCodesMap = new LinkedHashMap<String,AccountCodes>(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry<String,AccountCodes> eldest) {
+            return (this.size() > MAX_CACHED_ACCOUNTS);
+        }
+    };
+    private static long accountCodesGeneration = 0L; // incremented on each invalidation
+
+    /**
+    *** Gets the StatusCode cache timeout, in milliseconds (0 if the cache is disabled)
+    **/
+    private static long _getAccountCodesTimeoutMS()
+    {
+        long sec = RTConfig.getLong(DBConfig.PROP_StatusCode_cacheTimeoutSec, 300L);
+        return (sec > 0L)? (sec * 1000L) : 0L;
+    }
+
+    /**
+    *** Discards the cached StatusCode resolution table for the specified account
+    *** @param accountID  The account ID (blank to discard all accounts)
+    **/
+    public static void invalidateAccountCodes(String accountID)
+    {
+        synchronized (StatusCode.accountCodesMap) {
+            StatusCode.accountCodesGeneration++;
+            if (StringTools.isBlank(accountID)) {
+                StatusCode.accountCodesMap.clear();
+            } else {
+                StatusCode.accountCodesMap.remove(accountID.toLowerCase());
+            }
+        }
+    }
+
+    /**
+    *** Gets the StatusCode resolution table for the specified account, loading all
+    *** account StatusCode records if not already cached
+    *** @param accountID  The account ID
+    *** @param timeoutMS  The maximum age of a cached table
+    *** @return The StatusCode table (empty if unable to load the StatusCode records)
+    **/
+    private static AccountCodes _getAccountCodes(String accountID, long timeoutMS)
+    {
+        String acctKey = accountID.toLowerCase();
+
+        /* already cached? */
+        long gen;
+        synchronized (StatusCode.accountCodesMap) {
+            AccountCodes ac = StatusCode.accountCodesMap.get(acctKey);
+            if ((ac != null) && !ac.isExpired(System.currentTimeMillis(),timeoutMS)) {
+                return ac;
+            }
+            gen = StatusCode.accountCodesGeneration;
+        }
+
+        /* load all StatusCodes for account */
+        // DBSelect: SELECT * FROM StatusCode WHERE (accountID='acct')
+        AccountCodes ac;
+        try {
+            DBSelect<StatusCode> dsel = new DBSelect<StatusCode>(StatusCode.getFactory());
+            DBWhere dwh = dsel.createDBWhere();
+            dsel.setWhere(dwh.WHERE(dwh.EQ(StatusCode.FLD_accountID,acctKey)));
+            StatusCode sc[] = DBRecord.select(dsel, null);
+            ac = new AccountCodes(acctKey, sc, 0L);
+        } catch (DBException dbe) {
+            // -- cache the failure briefly (resolves as "not found" until retried)
+            Print.logException("Loading StatusCodes for account: " + acctKey, dbe);
+            ac = new AccountCodes(acctKey, null, LOAD_FAILURE_TIMEOUT_MS);
+        }
+
+        /* cache (unless invalidated while loading) */
+        synchronized (StatusCode.accountCodesMap) {
+            if (gen == StatusCode.accountCodesGeneration) {
+                StatusCode.accountCodesMap.put(acctKey, ac);
+            }
+        }
+        return ac;
+
+    }
+
+    /* return a copy of a cached (shared) StatusCode record */
+    private static StatusCode _copyStatusCode(StatusCode sc)
+        throws DBException
+    {
+        if (sc == null) {
+            return null;
+        }
+        StatusCode.Key key = new StatusCode.Key(sc.getAccountID(), sc.getDeviceID(), sc.getStatusCode());
+        StatusCode copy = key._getDBRecord(false);
+        copy.setAllFieldValues(sc);
+        copy.clearChanged();
+        return copy;
+    }
+
+    /* return shared StatusCode (may be null) from the cached account StatusCode tables */
+    private static StatusCode _findCachedStatusCode(String accountID, String deviceID, int statusCode,
+        long timeoutMS)
+    {
+        Integer code = new Integer(statusCode);
+
+        /* check account status codes */
+        if (!StringTools.isBlank(accountID)) {
+            AccountCodes ac = StatusCode._getAccountCodes(accountID, timeoutMS);
+            // first, try account/device
+            String devID = !StringTools.isBlank(deviceID)? deviceID.toLowerCase() : null;
+            StatusCode sc = ac.getDeviceCode(devID, code);
+            if (sc != null) {
+                return sc;
+            }
+            // next, try just the account
+            sc = ac.getAccountCode(code);
+            if (sc != null) {
+                return sc;
+            }
+        }
+
+        /* check global status codes */
+        String sysAdmin = AccountRecord.getSystemAdminAccountID();
+        if (!StringTools.isBlank(sysAdmin)) {
+            AccountCodes ac = StatusCode._getAccountCodes(sysAdmin, timeoutMS);
+            return ac.getAccountCode(code);
+        }
+
+        /* not found */
+        return null;
+
+    }
+
+    // ------------------------------------------------------------------------
+
     /* return StatusCode */
     public static StatusCode findStatusCode(String accountID, String deviceID, int statusCode)
     {
 
+        /* cached account StatusCode tables */
+        long timeoutMS = StatusCode._getAccountCodesTimeoutMS();
+        if (timeoutMS > 0L) {
+            StatusCode sc = StatusCode._findCachedStatusCode(accountID, deviceID, statusCode, timeoutMS);
+            try {
+                return StatusCode._copyStatusCode(sc); // caller may modify the returned record
+            } catch (DBException dbe) {
+                Print.logException("Copying cached StatusCode", dbe);
+                return null;
+            }
+        }
+
         /* check account status codes */
         if (!StringTools.isBlank(accountID)) {
 
@@ -272,6 +272,12 @@ public class Transport
                 Transport.Key.class,
                 true/*editable*/, true/*viewable*/);
             factory.addParentTable(Account.TABLE_NAME());
+            // -- remove cached modem identities for deleted Transports
+            factory.setRecordDeleteListener(new DBRecordDeleteListener<Transport>() {
+                public void recordDidDelete(DBRecordKey<Transport> xportKey) {
+                    DeviceIdentityCache.transportDidDelete(xportKey.getKeyValueAsString(FLD_accountID));
+                }
+            });
         }
         return factory;
     }
@@ -1044,6 +1050,44 @@ public class Transport
 
     // ------------------------------------------------------------------------
 
+    private String prevUniqueID = null; // unique-id prior to change (see "setChanged")
+
+    /**
+    *** Sets the 'changed' state of this record (retains the previous unique-id)
+    *** @param fieldName  The changed field
+    *** @param oldVal     The previous value of the field
+    *** @param newVal     The new value of the field
+    **/
+    public void setChanged(String fieldName, Object oldVal, Object newVal)
+    {
+        if (FLD_uniqueID.equals(fieldName) && StringTools.isBlank(this.prevUniqueID) && (oldVal != null)) {
+            this.prevUniqueID = oldVal.toString();
+        }
+        super.setChanged(fieldName, oldVal, newVal);
+    }
+
+    /**
+    *** Callback after this Transport has been inserted into the table
+    **/
+    protected void recordDidInsert()
+    {
+        super.recordDidInsert();
+        DeviceIdentityCache.transportDidSave(this, this.prevUniqueID);
+        this.prevUniqueID = null;
+    }
+
+    /**
+    *** Callback after this Transport has been updated in the table
+    **/
+    protected void recordDidUpdate()
+    {
+        super.recordDidUpdate();
+        DeviceIdentityCache.transportDidSave(this, this.prevUniqueID);
+        this.prevUniqueID = null;
+    }
+
+    // ------------------------------------------------------------------------
+
     private Account assocAccount = null;
     private Device  assocDevice  = null;
 
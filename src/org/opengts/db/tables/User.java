@@ -317,6 +317,8 @@ public class User
                 User.Key.class,
                 true/*editable*/, true/*viewable*/);
             factory.addParentTable(Account.TABLE_NAME());
+            // -- record cache (if "db.recordCache.enable" is true)
+            factory.setRecordCache(2000, 300L);
         }
         return factory;
     }
@@ -1543,8 +1545,16 @@ public class User
         } else {
             String acctID = account.getAccountID();
             User.Key userKey = new User.Key(acctID, userID);
+            DBRecordCache<User> cache = User.getFactory().getRecordCache();
+            User user = (cache != null)? cache.get(userKey) : null;
+            if (user != null) {
+                user.setAccount(account);
+                return user; // cached copy
+            }
+            long cacheGen = (cache != null)? cache.getGeneration() : 0L;
             if (userKey.exists()) {
-                User user = userKey.getDBRecord(true);
+                user = userKey.getDBRecord(true);
+                if (cache != null) { cache.put(user, cacheGen); }
                 user.setAccount(account);
                 return user;
             } else {
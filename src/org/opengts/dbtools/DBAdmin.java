@@ -880,6 +880,11 @@ public class DBAdmin
     public  static final String ARG_OVERWRITE[]     = new String[] { "overwrite"     };
     public  static final String ARG_NODROPWARN[]    = new String[] { "noDropWarning" };
     public  static final String ARG_BEAN[]          = new String[] { "bean"          };
+    public  static final String ARG_PARTITIONS[]    = new String[] { "partitions"    };
+    public  static final String ARG_PARTITION_TBL[] = new String[] { "partitionTable" };
+    public  static final String ARG_ADD_PARTS[]     = new String[] { "addPartitions" };
+    public  static final String ARG_FROM[]          = new String[] { "from"          };
+    public  static final String ARG_COUNT[]         = new String[] { "count"         };
   //public  static final String ARG_HIBXML[]        = new String[] { "hibxml"        };
   //public  static final String ARG_RELOAD[]        = new String[] { "reload"        };
 
@@ -1404,6 +1409,64 @@ public class DBAdmin
             //return DBAdminExec.EXIT; // go no further
         }
 
+        /* partitions: display/create time-range partitions */
+        // bin/exe DBAdmin -partitions=<table>
+        // bin/exe DBAdmin -partitionTable=<table> [-from=<time>] [-count=<future>]
+        // bin/exe DBAdmin -addPartitions=<table> [-count=<future>]
+        if (RTConfig.hasProperty(ARG_PARTITIONS)    || 
+            RTConfig.hasProperty(ARG_PARTITION_TBL) || 
+            RTConfig.hasProperty(ARG_ADD_PARTS)       ) {
+            execCmd++;
+            String table = RTConfig.getString(ARG_PARTITIONS,
+                RTConfig.getString(ARG_PARTITION_TBL, RTConfig.getString(ARG_ADD_PARTS,null)));
+            DBFactory<? extends DBRecord> f = DBAdmin._getTableFactory(table);
+            DBPartitionManager partMgr = (f != null)? f.getPartitionManager() : null;
+            if (f == null) {
+                Print.logError("Table not found: " + table);
+                return DBAdminExec.ERROR;
+            } else
+            if (partMgr == null) {
+                Print.logError("Table does not support partitioning: " + table);
+                return DBAdminExec.ERROR;
+            }
+            int futureCount = RTConfig.getInt(ARG_COUNT,-1);
+            try {
+                if (RTConfig.hasProperty(ARG_PARTITION_TBL)) {
+                    long fromSec = DateTime.getCurrentTimeSec();
+                    String fromArg = RTConfig.getString(ARG_FROM,null);
+                    if (!StringTools.isBlank(fromArg)) {
+                        DateTime fromDT = DateTime.parseArgumentDate(fromArg, DateTime.GMT, false);
+                        if (fromDT == null) {
+                            Print.logError("Invalid '-" + ARG_FROM[0] + "' time: " + fromArg);
+                            return DBAdminExec.ERROR;
+                        }
+                        fromSec = fromDT.getTimeSec();
+                    }
+                    Print.logInfo("Partitioning table (this may take some time): " + table);
+                    int count = partMgr.partitionTable(fromSec, futureCount);
+                    Print.logInfo("Created " + count + " partitions: " + table);
+                } else
+                if (RTConfig.hasProperty(ARG_ADD_PARTS)) {
+                    int count = partMgr.createFuturePartitions(futureCount);
+                    Print.logInfo("Created " + count + " future partitions: " + table);
+                }
+                java.util.List<DBPartitionManager.Partition> parts = partMgr.getPartitions();
+                Print.sysPrintln("Table " + table + " partitions [" + partMgr.getFieldName() + ", " + partMgr.getInterval() + "]:");
+                if (parts.isEmpty()) {
+                    Print.sysPrintln("  (not partitioned)");
+                }
+                for (DBPartitionManager.Partition p : parts) {
+                    Print.sysPrintln("  " + p);
+                }
+            } catch (DateTime.DateParseException dpe) {
+                Print.logError("Invalid '-" + ARG_FROM[0] + "' time: " + dpe.getMessage());
+                return DBAdminExec.ERROR;
+            } catch (DBException dbe) {
+                Print.logException("Partition error: " + table, dbe);
+                return DBAdminExec.ERROR;
+            }
+        }
+
         /* bean: validate bean access methods for specified table */
         // bin/exe DBAdmin -bean=table
         if (RTConfig.hasProperty(ARG_BEAN)) {
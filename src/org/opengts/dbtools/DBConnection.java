@@ -374,7 +374,7 @@ public class DBConnection
     **/
     public static void closeAllConnections()
     {
-        int closed = 0;
+        int closed = DBConnectionPool.closeAllPools();
         if (dbConnectionList != null) {
             for (DBConnection dbc : dbConnectionList) {
                 if ((dbc != null) && !dbc.isConnectionClosed()) {
@@ -401,6 +401,10 @@ public class DBConnection
     **/
     public static DBConnection getDBConnection(String uri, String user, String pass)
     {
+        if ((uri != null) && DBConnectionPool.isEnabled()) {
+            // -- built-in connection pool (does not use "ConnectionPoolLock")
+            return DBConnectionPool.getPool(uri, user, pass).borrow();
+        } else
         if (uri != null) {
             DBConnection dbc = null;
             String dbConnMsg = null;
@@ -447,6 +451,9 @@ public class DBConnection
     
     public static boolean isLocked(DBConnection dbc)
     {
+        if ((dbc != null) && (dbc.connPool != null)) {
+            return dbc.connPool.isBorrowed(dbc);
+        } else
         if (dbc != null) {
             int LC = 0;
             synchronized (DBConnection.ConnectionPoolLock) {
@@ -464,6 +471,9 @@ public class DBConnection
     public static void release(DBConnection dbc)
     {
         //Print.logInfo("Releasing DBConnection ...");
+        if ((dbc != null) && (dbc.connPool != null)) {
+            dbc.connPool.release(dbc);
+        } else
         if (dbc != null) {
             boolean alreadyReleased = false;
             synchronized (DBConnection.ConnectionPoolLock) {
@@ -506,6 +516,12 @@ public class DBConnection
     private int         lockCount           = 0;
     private Throwable   lastLockTrace       = null;
 
+    private Map<String,PreparedStatement> stmtCache = null; // idle PreparedStatements
+    private Map<PreparedStatement,String> stmtInUse = null; // checked-out PreparedStatements
+
+    private DBConnectionPool    connPool            = null;
+    private String              unavailableMsg      = null;
+
     /**
     *** Constructor
     *** @param uri  The connection URI
@@ -529,6 +545,38 @@ public class DBConnection
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Sets the DBConnectionPool which owns this DBConnection
+    *** @param pool  The owning DBConnectionPool
+    *** @param name  The connection name (displayed in connection messages)
+    **/
+    protected void setConnectionPool(DBConnectionPool pool, String name)
+    {
+        this.connPool   = pool;
+        this.threadName = name;
+    }
+
+    /**
+    *** Marks this DBConnection as unavailable (ie. the owning DBConnectionPool was
+    *** exhausted).  Any attempt to use this connection throws an SQLException.
+    *** @param msg  The SQLException message
+    **/
+    protected void setUnavailable(String msg)
+    {
+        this.unavailableMsg = msg;
+    }
+
+    /**
+    *** Gets the DBConnectionPool which owns this DBConnection
+    *** @return The owning DBConnectionPool, or null if this connection is not pooled
+    **/
+    public DBConnectionPool getConnectionPool()
+    {
+        return this.connPool;
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Gets the DBConnection lock count (should be either '0' or '1')
     **/
@@ -628,6 +676,9 @@ public class DBConnection
     public Connection getConnection()
         throws SQLException
     {
+        if (this.unavailableMsg != null) {
+            throw new SQLException(this.unavailableMsg);
+        }
         if (this.isConnectionClosed()) {
 
             /* make sure connection is closed */
@@ -690,6 +741,7 @@ public class DBConnection
     **/
     public void closeConnection()
     {
+        this._clearStatementCache();
         if (this.dbConnection != null) {
             try {
                 if (!this.dbConnection.isClosed()) {
@@ -736,6 +788,40 @@ public class DBConnection
         }
     }
 
+    /**
+    *** Checks that an open database connection is still usable.  A connection
+    *** which is not currently open is considered valid (it will be opened on
+    *** next use).
+    *** @param timeoutSec  The validation timeout, in seconds
+    *** @return True if the connection is usable, false if it should be closed
+    **/
+    public boolean ping(int timeoutSec)
+    {
+        if (this.dbConnection == null) {
+            return true;
+        }
+        try {
+            if (this.dbConnection.isClosed()) {
+                return true;
+            }
+            return this.dbConnection.isValid(timeoutSec);
+        } catch (AbstractMethodError ame) {
+            // -- pre-JDBC4 driver: fall through to "SELECT 1"
+        } catch (SQLException sqe) {
+            return false;
+        }
+        Statement stmt = null;
+        try {
+            stmt = this.dbConnection.createStatement();
+            stmt.execute("SELECT 1");
+            return true;
+        } catch (SQLException sqe) {
+            return false;
+        } finally {
+            if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+        }
+    }
+
     /**
     *** Returns true if the last time this connection was used is beyond the timeout interval
     *** @return True if the last time this connection was used is beyond the timeout interval
@@ -962,6 +1048,28 @@ public class DBConnection
     public long executeUpdate(String sql, boolean rtnAutoIncrVal)
         throws SQLException, DBException
     {
+        long rtn = this._executeUpdateRetry(sql, rtnAutoIncrVal);
+        return rtnAutoIncrVal? rtn : -1L;
+    }
+
+    /**
+    *** Execute the specified SQL update, and return the number of affected rows
+    *** @param sql  The String SQL statement to execute
+    *** @return The number of affected rows
+    *** @throws SQLException  If an SQL error occurs
+    *** @throws DBException   If a database error occurs
+    **/
+    public int executeUpdateCount(String sql)
+        throws SQLException, DBException
+    {
+        return (int)this._executeUpdateRetry(sql, false);
+    }
+
+    /* execute update, retrying once on communication failure */
+    private long _executeUpdateRetry(String sql, boolean rtnAutoIncrVal)
+        throws SQLException, DBException
+    {
+        DBReplicaRouter.markWrite(); // subsequent reads by this session/thread go to the primary
         try {
             if (ShowExecutedSQL) { 
                 Print.logInfo("SQL: " + sql); 
@@ -1000,7 +1108,8 @@ public class DBConnection
     *** @param sql  The String SQL statement to execute
     *** @param rtnAutoIncrVal If auto-generated fields (ie. "auto_increment")
     ***        should be returned
-    *** @return The generated auto increment value or -1
+    *** @return The generated auto increment value (or -1), or the number of affected rows
+    ***         if 'rtnAutoIncrVal' is false
     *** @throws SQLException  If an SQL error occurs
     *** @throws DBException   If a database error occurs
     **/
@@ -1022,8 +1131,7 @@ public class DBConnection
                     return -1L;
                 }
             } else {
-                stmt.executeUpdate(sql); // known to throw IOException
-                return -1L;
+                return (long)stmt.executeUpdate(sql); // known to throw IOException
             }
         } catch (SQLException sqe) {
             throw sqe;
@@ -1035,5 +1143,324 @@ public class DBConnection
     }
 
     // ------------------------------------------------------------------------
+    // PreparedStatement cache
+
+    /**
+    *** Gets the maximum number of idle PreparedStatements cached per connection
+    *** @return The maximum number of cached PreparedStatements
+    **/
+    public static int getPreparedStatementCacheSize()
+    {
+        return RTConfig.getInt(RTKey.DB_PREPARED_STATEMENT_CACHE, 64);
+    }
+
+    /**
+    *** Returns a PreparedStatement for the specified SQL.  A cached idle statement
+    *** is returned if available, otherwise a new statement is prepared.  The 
+    *** returned statement must be returned with "releaseStatement(...)".
+    *** @param sql  The SQL statement containing '?' parameter placeholders
+    *** @param rtnAutoIncrVal If auto-generated fields (ie. "auto_increment")
+    ***        should be returned
+    *** @return The PreparedStatement
+    *** @throws SQLException  If an SQL error occurs
+    **/
+    public PreparedStatement prepareStatement(String sql, boolean rtnAutoIncrVal)
+        throws SQLException
+    {
+        Connection conn = this.getConnection(); // may reopen (clears statement cache)
+        String     key  = rtnAutoIncrVal? ("#" + sql) : sql;
+        synchronized (this) {
+            PreparedStatement ps = (this.stmtCache != null)? this.stmtCache.remove(key) : null;
+            if (ps == null) {
+                if (rtnAutoIncrVal) {
+                    ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                } else {
+                    ps = conn.prepareStatement(sql);
+                }
+            }
+            if (this.stmtInUse == null) {
+                this.stmtInUse = new IdentityHashMap<PreparedStatement,String>();
+            }
+            this.stmtInUse.put(ps, key);
+            return ps;
+        }
+    }
+
+    /**
+    *** Returns the specified Statement to the PreparedStatement cache.  Statements 
+    *** which were not obtained from "prepareStatement(...)", or which can not be
+    *** cached, are closed.
+    *** @param stmt  The Statement to release
+    **/
+    public void releaseStatement(Statement stmt)
+    {
+        if (stmt == null) {
+            return;
+        }
+        synchronized (this) {
+            String key = (this.stmtInUse != null)? this.stmtInUse.remove(stmt) : null;
+            final int maxSize = DBConnection.getPreparedStatementCacheSize();
+            if ((key != null) && (maxSize > 0) && (this.dbConnection != null)) {
+                try {
+                    PreparedStatement ps = (PreparedStatement)stmt;
+                    ps.clearParameters();
+                    if (this.stmtCache == null) {
+                        this.stmtCache = new LinkedHashMap<String,PreparedStatement>(16, 0.75F, true) {
+                            protected boolean removeEldestEntry(Map.Entry<String,PreparedStatement> eldest) {
+                                if (this.size() > maxSize) {
+                                    try { eldest.getValue().close(); } catch (Throwable t) {}
+                                    return true;
+                                } else {
+                                    return false;
+                                }
+                            }
+                        };
+                    }
+                    if (!this.stmtCache.containsKey(key)) {
+                        this.stmtCache.put(key, ps);
+                        return;
+                    }
+                } catch (Throwable th) {
+                    // -- close below
+                }
+            }
+        }
+        try { stmt.close(); } catch (Throwable t) {}
+    }
+
+    /**
+    *** Closes all cached PreparedStatements.  Checked-out statements will be
+    *** closed when they are released.
+    **/
+    private void _clearStatementCache()
+    {
+        synchronized (this) {
+            if (this.stmtCache != null) {
+                for (PreparedStatement ps : this.stmtCache.values()) {
+                    try { ps.close(); } catch (Throwable t) {}
+                }
+                this.stmtCache.clear();
+            }
+            if (this.stmtInUse != null) {
+                this.stmtInUse.clear();
+            }
+        }
+    }
+
+    /**
+    *** Returns a displayable String of the specified SQL and parameter values
+    **/
+    private static String _getPreparedSQL(String sql, Object vals[])
+    {
+        StringBuffer sb = new StringBuffer(sql);
+        sb.append(" [");
+        for (int i = 0; i < vals.length; i++) {
+            if (i > 0) { sb.append(","); }
+            sb.append(DBFieldValues.toStringValue(vals[i]));
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Execute the specified prepared SQL statement with the specified parameters.
+    *** The returned statement must be released with "releaseStatement(...)".
+    *** @param sql   The SQL statement containing '?' parameter placeholders
+    *** @param flds  The fields corresponding to each parameter
+    *** @param vals  The parameter values
+    *** @return The returned executed statement
+    *** @throws SQLException  If an SQL error occurs
+    *** @throws DBException   If a database error occurs
+    **/
+    public PreparedStatement executePrepared(String sql, DBField flds[], Object vals[])
+        throws SQLException, DBException
+    {
+        try {
+            if (ShowExecutedSQL) { 
+                long startMS = System.currentTimeMillis();
+                PreparedStatement ps = this._executePrepared(sql, flds, vals);
+                long nowMS = System.currentTimeMillis();
+                Print.logInfo("SQL(Time): " + _getPreparedSQL(sql,vals) + " [" + (nowMS - startMS) + " ms]"); 
+                return ps;
+            } else {
+                return this._executePrepared(sql, flds, vals);
+            }
+        } catch (SQLException sqe) {
+            int errCode = sqe.getErrorCode();
+            if (DBConnection.parseCommunicationsException(sqe)) {
+                // close/retry connection
+                this.closeConnection();
+                return this._executePrepared(sql, flds, vals); // try once more
+            } else
+            if ((errCode == DBFactory.SQLERR_SYNTAX_ERROR)  ||
+                (errCode == DBFactory.SQLERR_UNKNOWN_COLUMN)  ) {
+                // print sql statement for syntax errors
+                Print.logError("SQL(SyntaxError): " + _getPreparedSQL(sql,vals));
+                throw sqe;
+            } else {
+                throw sqe;
+            }
+        }
+    }
+
+    /**
+    *** Execute the specified prepared SQL statement with the specified parameters.
+    **/
+    protected PreparedStatement _executePrepared(String sql, DBField flds[], Object vals[])
+        throws SQLException
+    {
+        PreparedStatement ps = null;
+        try {
+            LastSQLExecuted = sql;
+            ps = this.prepareStatement(sql, false); // may throw SQLException
+            for (int i = 0; i < flds.length; i++) {
+                flds[i].setParameter(ps, i + 1, vals[i]);
+            }
+            ps.execute();
+            return ps;
+        } catch (SQLException sqe) { // CommunicationsException?
+            // -- release PreparedStatement if an exception occurs
+            this.releaseStatement(ps);
+            throw sqe;
+        }
+    }
+
+    /**
+    *** Execute the specified prepared SQL update with the specified parameters
+    *** @param sql   The SQL statement containing '?' parameter placeholders
+    *** @param flds  The fields corresponding to each parameter
+    *** @param vals  The parameter values
+    *** @param rtnAutoIncrVal If auto-generated fields (ie. "auto_increment")
+    ***        should be returned
+    *** @return The generated auto increment value or -1
+    *** @throws SQLException  If an SQL error occurs
+    *** @throws DBException   If a database error occurs
+    **/
+    public long executePreparedUpdate(String sql, DBField flds[], Object vals[], boolean rtnAutoIncrVal)
+        throws SQLException, DBException
+    {
+        DBReplicaRouter.markWrite(); // subsequent reads by this session/thread go to the primary
+        try {
+            if (ShowExecutedSQL) { 
+                Print.logInfo("SQL: " + _getPreparedSQL(sql,vals)); 
+            }
+            return this._executePreparedUpdate(sql, flds, vals, rtnAutoIncrVal);
+        } catch (SQLException sqe) { 
+            if (DBConnection.parseCommunicationsException(sqe)) {
+                // close/retry connection
+                this.closeConnection();
+                return this._executePreparedUpdate(sql, flds, vals, rtnAutoIncrVal);
+            } else {
+                throw sqe;
+            }
+        }
+    }
+
+    /**
+    *** Execute the specified prepared SQL update with the specified parameters
+    **/
+    private long _executePreparedUpdate(String sql, DBField flds[], Object vals[], boolean rtnAutoIncrVal)
+        throws SQLException
+    {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            LastSQLExecuted = sql;
+            ps = this.prepareStatement(sql, rtnAutoIncrVal); // may throw SQLException
+            for (int i = 0; i < flds.length; i++) {
+                flds[i].setParameter(ps, i + 1, vals[i]);
+            }
+            ps.executeUpdate();
+            if (rtnAutoIncrVal) {
+                rs = ps.getGeneratedKeys();
+                if (rs.next()) {
+                    return rs.getLong(1);
+                } else {
+                    Print.logError("Expected Auto-Increment value not found!");
+                    return -1L;
+                }
+            } else {
+                return -1L;
+            }
+        } finally {
+            if (rs != null) { try { rs.close(); } catch (Throwable t) {} }
+            this.releaseStatement(ps);
+        }
+    }
+
+    /**
+    *** Execute the specified prepared SQL update once for each set of parameters,
+    *** as a single JDBC batch within a single transaction
+    *** @param sql     The SQL statement containing '?' parameter placeholders
+    *** @param flds    The fields corresponding to each parameter
+    *** @param valList The list of parameter values (one array per execution)
+    *** @return The total number of rows updated (may be less than the actual count
+    ***         if the driver does not report per-statement counts)
+    *** @throws SQLException  If an SQL error occurs (the transaction is rolled back)
+    *** @throws DBException   If a database error occurs
+    **/
+    public long executePreparedBatch(String sql, DBField flds[], java.util.List<Object[]> valList)
+        throws SQLException, DBException
+    {
+        DBReplicaRouter.markWrite(); // subsequent reads by this session/thread go to the primary
+        try {
+            if (ShowExecutedSQL) {
+                Print.logInfo("SQL(Batch): " + sql + " [" + valList.size() + " rows]");
+            }
+            return this._executePreparedBatch(sql, flds, valList);
+        } catch (SQLException sqe) {
+            if (DBConnection.parseCommunicationsException(sqe)) {
+                // close/retry connection
+                this.closeConnection();
+                return this._executePreparedBatch(sql, flds, valList);
+            } else {
+                throw sqe;
+            }
+        }
+    }
+
+    /**
+    *** Execute the specified prepared SQL update once for each set of parameters
+    **/
+    private long _executePreparedBatch(String sql, DBField flds[], java.util.List<Object[]> valList)
+        throws SQLException
+    {
+        Connection conn = this.getConnection(); // may throw SQLException
+        boolean autoCommit = conn.getAutoCommit();
+        PreparedStatement ps = null;
+        try {
+            LastSQLExecuted = sql;
+            if (autoCommit) { conn.setAutoCommit(false); }
+            ps = this.prepareStatement(sql, false); // may throw SQLException
+            for (Object vals[] : valList) {
+                for (int i = 0; i < flds.length; i++) {
+                    flds[i].setParameter(ps, i + 1, vals[i]);
+                }
+                ps.addBatch();
+            }
+            int counts[] = ps.executeBatch();
+            conn.commit();
+            long total = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) { total += counts[i]; }
+            }
+            return total;
+        } catch (SQLException sqe) {
+            try { conn.rollback(); } catch (Throwable t) {}
+            throw sqe;
+        } finally {
+            if (ps != null) {
+                try { ps.clearBatch(); } catch (Throwable t) {}
+                this.releaseStatement(ps);
+            }
+            if (autoCommit) {
+                try { conn.setAutoCommit(true); } catch (Throwable t) {}
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
 
 }
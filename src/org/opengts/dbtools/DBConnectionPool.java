@@ -0,0 +1,605 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Built-in lock-striped DBConnection pool
+// ----------------------------------------------------------------------------
+package org.opengts.dbtools;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+
+/**
+*** A bounded pool of DBConnections, shared by all threads, used in place of the
+*** per-thread DBConnection model when "db.connectionPool" is enabled.<br>
+*** Idle connections are kept in several independently locked lists ("stripes"),
+*** selected by the borrowing thread, so that borrow/release does not contend on
+*** a single global lock.  The number of concurrently borrowed connections is
+*** bounded by "db.connectionPool.maxSize".  If no connection becomes available within
+*** "db.connectionPool.maxWaitMS", up to "db.connectionPool.maxOverflow" unpooled
+*** connections are opened; beyond that the borrower is given a connection which
+*** throws an SQLException when used.<br>
+*** A thread which already holds a connection from this pool is given the same
+*** connection again (nested "getDefaultConnection()" calls), matching the
+*** behavior of the per-thread model.
+**/
+
+public class DBConnectionPool
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        DFT_MIN_SIZE            = 2;
+    public  static final int        DFT_MAX_SIZE            = 50;
+    public  static final int        DFT_STRIPES             = 8;
+    public  static final long       DFT_MAX_WAIT_MS         = 10000L;
+    public  static final int        DFT_MAX_OVERFLOW        = 2;
+    public  static final long       DFT_VALIDATE_IDLE_MS    = 30000L;
+    public  static final int        DFT_PING_TIMEOUT_SEC    = 2;
+    public  static final long       DFT_MAX_IDLE_MS         = 600000L;
+    public  static final long       DFT_EVICT_INTERVAL_MS   = 30000L;
+    public  static final long       DFT_LEAK_THRESHOLD_MS   = 120000L;
+
+    /**
+    *** Returns true if the built-in connection pool is enabled
+    **/
+    public static boolean isEnabled()
+    {
+        return RTConfig.getBoolean(RTKey.DB_CONNECTION_POOL, false);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static Map<String,DBConnectionPool> poolMap     = new HashMap<String,DBConnectionPool>();
+    private static Thread                       evictThread = null;
+
+    /**
+    *** Gets the DBConnectionPool for the specified URI/user, creating it if necessary
+    *** @param uri  The connection URI
+    *** @param user The user name
+    *** @param pass The password
+    *** @return The DBConnectionPool
+    **/
+    public static DBConnectionPool getPool(String uri, String user, String pass)
+    {
+        String key = uri + "|" + StringTools.trim(user);
+        synchronized (DBConnectionPool.poolMap) {
+            DBConnectionPool pool = DBConnectionPool.poolMap.get(key);
+            if (pool == null) {
+                pool = new DBConnectionPool(uri, user, pass);
+                DBConnectionPool.poolMap.put(key, pool);
+                Print.logInfo("New DBConnectionPool: " + uri + " [max=" + pool.maxSize + "]");
+                DBConnectionPool._startEvictionThread();
+            }
+            return pool;
+        }
+    }
+
+    /**
+    *** Gets a list of all DBConnectionPools
+    **/
+    private static java.util.List<DBConnectionPool> _getPools()
+    {
+        synchronized (DBConnectionPool.poolMap) {
+            return new Vector<DBConnectionPool>(DBConnectionPool.poolMap.values());
+        }
+    }
+
+    /**
+    *** Closes all idle pooled connections.  Borrowed connections are closed when
+    *** they are released
+    *** @return The number of connections closed
+    **/
+    public static int closeAllPools()
+    {
+        int closed = 0;
+        for (DBConnectionPool pool : DBConnectionPool._getPools()) {
+            closed += pool.closeIdle(0);
+        }
+        return closed;
+    }
+
+    /**
+    *** Gets the statistics for all DBConnectionPools
+    **/
+    public static String getAllStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        for (DBConnectionPool pool : DBConnectionPool._getPools()) {
+            if (sb.length() > 0) { sb.append("\n"); }
+            sb.append(pool.getStatistics());
+        }
+        return sb.toString();
+    }
+
+    /**
+    *** Starts the idle-eviction/leak-detection thread
+    **/
+    private static void _startEvictionThread()
+    {
+        // "DBConnectionPool.poolMap" lock required
+        if (DBConnectionPool.evictThread == null) {
+            DBConnectionPool.evictThread = new Thread(new Runnable() {
+                public void run() {
+                    for (;;) {
+                        long intervMS = RTConfig.getLong(RTKey.DB_CONNECTION_POOL_EVICT, DFT_EVICT_INTERVAL_MS);
+                        try { Thread.sleep(Math.max(intervMS,1000L)); } catch (InterruptedException ie) { break; }
+                        for (DBConnectionPool pool : DBConnectionPool._getPools()) {
+                            try {
+                                pool._checkLeaks();
+                                pool._evictIdle();
+                                pool._ensureMinimum();
+                            } catch (Throwable th) {
+                                Print.logException("DBConnectionPool maintenance error", th);
+                            }
+                        }
+                    }
+                }
+            }, "DBConnectionPool");
+            DBConnectionPool.evictThread.setDaemon(true);
+            DBConnectionPool.evictThread.start();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Pooled connection entry
+    **/
+    private static class PoolEntry
+    {
+        private DBConnection dbc         = null;
+        private boolean      overflow    = false;
+        private boolean      unavailable = false;
+        private Thread       owner       = null;
+        private int          depth       = 0;
+        private long         idleSinceMS = 0L;
+        private long         borrowMS    = 0L;
+        private Throwable    borrowTrace = null;
+        private boolean      leakLogged  = false;
+        public PoolEntry(DBConnection dbc, boolean overflow) {
+            this.dbc      = dbc;
+            this.overflow = overflow;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private String                      uri             = null;
+    private String                      user            = null;
+    private String                      pass            = null;
+
+    private int                         minSize         = DFT_MIN_SIZE;
+    private int                         maxSize         = DFT_MAX_SIZE;
+    private ArrayDeque<PoolEntry>       stripe[]        = null;
+    private Semaphore                   permits         = null;
+    private AtomicInteger               openCount       = new AtomicInteger(0);
+    private AtomicInteger               overflowCount   = new AtomicInteger(0);
+    private AtomicInteger               connSeq         = new AtomicInteger(0);
+
+    private ThreadLocal<PoolEntry>      threadEntry     = new ThreadLocal<PoolEntry>();
+    private Map<DBConnection,PoolEntry> borrowed        = new ConcurrentHashMap<DBConnection,PoolEntry>();
+
+    private AtomicLong                  borrowCount     = new AtomicLong(0L);
+    private AtomicLong                  waitCount       = new AtomicLong(0L);
+    private AtomicLong                  timeoutCount    = new AtomicLong(0L);
+    private AtomicLong                  rejectCount     = new AtomicLong(0L);
+    private AtomicLong                  createCount     = new AtomicLong(0L);
+    private AtomicLong                  evictCount      = new AtomicLong(0L);
+    private AtomicLong                  invalidCount    = new AtomicLong(0L);
+    private AtomicLong                  leakCount       = new AtomicLong(0L);
+    private AtomicLong                  acquireNanos    = new AtomicLong(0L);
+    private AtomicLong                  acquireMaxNanos = new AtomicLong(0L);
+    private AtomicLong                  waitNanos       = new AtomicLong(0L);
+    private AtomicLong                  waitMaxNanos    = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    *** @param uri  The connection URI
+    *** @param user The user name
+    *** @param pass The password
+    **/
+    @SuppressWarnings("unchecked")
+    protected DBConnectionPool(String uri, String user, String pass)
+    {
+        this.uri     = uri;
+        this.user    = user;
+        this.pass    = pass;
+        this.maxSize = Math.max(RTConfig.getInt(RTKey.DB_CONNECTION_POOL_MAX_SIZE, DFT_MAX_SIZE), 1);
+        this.minSize = Math.min(Math.max(RTConfig.getInt(RTKey.DB_CONNECTION_POOL_MIN_SIZE, DFT_MIN_SIZE), 0), this.maxSize);
+        int stripes  = Math.max(RTConfig.getInt(RTKey.DB_CONNECTION_POOL_STRIPES, DFT_STRIPES), 1);
+        this.stripe  = new ArrayDeque[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripe[i] = new ArrayDeque<PoolEntry>();
+        }
+        this.permits = new Semaphore(this.maxSize, true);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the idle-list stripe index for the current thread
+    **/
+    private int _stripeIndex()
+    {
+        long tid = Thread.currentThread().getId();
+        return (int)(tid % this.stripe.length);
+    }
+
+    /**
+    *** Removes and returns an idle entry, checking the current thread's stripe first
+    **/
+    private PoolEntry _pollIdle()
+    {
+        int ndx = this._stripeIndex();
+        for (int i = 0; i < this.stripe.length; i++) {
+            ArrayDeque<PoolEntry> idle = this.stripe[(ndx + i) % this.stripe.length];
+            synchronized (idle) {
+                PoolEntry pe = idle.pollFirst();
+                if (pe != null) {
+                    return pe;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+    *** Returns an entry to the current thread's idle stripe
+    **/
+    private void _pushIdle(PoolEntry pe)
+    {
+        pe.idleSinceMS = System.currentTimeMillis();
+        ArrayDeque<PoolEntry> idle = this.stripe[this._stripeIndex()];
+        synchronized (idle) {
+            idle.addFirst(pe); // most recently used first
+        }
+    }
+
+    /**
+    *** Creates a new pooled entry
+    **/
+    private PoolEntry _createEntry(boolean overflow)
+    {
+        DBConnection dbc = new DBConnection(this.uri, this.user, this.pass);
+        dbc.setConnectionPool(this, "pool-" + this.connSeq.incrementAndGet());
+        if (!overflow) {
+            this.openCount.incrementAndGet();
+        }
+        this.createCount.incrementAndGet();
+        return new PoolEntry(dbc, overflow);
+    }
+
+    /**
+    *** Updates the specified max value
+    **/
+    private static void _updateMax(AtomicLong max, long val)
+    {
+        for (;;) {
+            long m = max.get();
+            if ((val <= m) || max.compareAndSet(m, val)) {
+                return;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Borrows a DBConnection from this pool.  The connection must be returned
+    *** with "DBConnection.release(dbc)"
+    *** @return The DBConnection
+    **/
+    public DBConnection borrow()
+    {
+
+        /* already held by this thread? */
+        PoolEntry cur = this.threadEntry.get();
+        if (cur != null) {
+            if ((cur.owner == Thread.currentThread()) && (this.borrowed.get(cur.dbc) == cur)) {
+                cur.depth++;
+                return cur.dbc;
+            }
+            this.threadEntry.remove(); // stale (released by another thread)
+        }
+
+        /* acquire permit */
+        long startNS = System.nanoTime();
+        boolean permit = this.permits.tryAcquire();
+        if (!permit) {
+            this.waitCount.incrementAndGet();
+            long maxWaitMS = RTConfig.getLong(RTKey.DB_CONNECTION_POOL_MAX_WAIT, DFT_MAX_WAIT_MS);
+            try {
+                permit = this.permits.tryAcquire(maxWaitMS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                permit = false;
+            }
+            long waitNS = System.nanoTime() - startNS;
+            this.waitNanos.addAndGet(waitNS);
+            _updateMax(this.waitMaxNanos, waitNS);
+        }
+
+        /* get entry */
+        PoolEntry pe;
+        if (permit) {
+            pe = this._pollIdle();
+            if (pe != null) {
+                this._validate(pe);
+            } else {
+                pe = this._createEntry(false);
+            }
+        } else {
+            // -- pool exhausted: use a limited number of unpooled connections
+            this.timeoutCount.incrementAndGet();
+            int maxOverflow = RTConfig.getInt(RTKey.DB_CONNECTION_POOL_OVERFLOW, DFT_MAX_OVERFLOW);
+            if (this.overflowCount.incrementAndGet() <= maxOverflow) {
+                Print.logWarn("DBConnectionPool exhausted (max=" + this.maxSize + "), using overflow connection");
+                pe = this._createEntry(true);
+            } else {
+                // -- overflow exhausted: fail the caller on first use of the connection
+                this.overflowCount.decrementAndGet();
+                this.rejectCount.incrementAndGet();
+                String msg = "DBConnectionPool exhausted (max=" + this.maxSize + ", overflow=" + maxOverflow + ")";
+                Print.logError(msg);
+                DBConnection dbc = new DBConnection(this.uri, this.user, this.pass);
+                dbc.setConnectionPool(this, "pool-unavailable");
+                dbc.setUnavailable(msg);
+                pe = new PoolEntry(dbc, true);
+                pe.unavailable = true;
+            }
+        }
+
+        /* mark borrowed */
+        pe.owner       = Thread.currentThread();
+        pe.depth       = 1;
+        pe.borrowMS    = System.currentTimeMillis();
+        pe.leakLogged  = false;
+        pe.borrowTrace = null;
+        if (RTConfig.getBoolean(RTKey.DB_CONNECTION_POOL_TRACE, false) &&
+            (RTConfig.getLong(RTKey.DB_CONNECTION_POOL_LEAK, DFT_LEAK_THRESHOLD_MS) > 0L)) {
+            // -- borrow stack trace, displayed if a leak is detected (expensive, off by default)
+            pe.borrowTrace = new Throwable("DBConnection borrowed by '" + pe.owner.getName() + "'");
+        }
+        this.borrowed.put(pe.dbc, pe);
+        this.threadEntry.set(pe);
+
+        /* metrics */
+        long acqNS = System.nanoTime() - startNS;
+        this.borrowCount.incrementAndGet();
+        this.acquireNanos.addAndGet(acqNS);
+        _updateMax(this.acquireMaxNanos, acqNS);
+        return pe.dbc;
+
+    }
+
+    /**
+    *** Returns a borrowed DBConnection to this pool
+    *** @param dbc  The borrowed DBConnection
+    **/
+    public void release(DBConnection dbc)
+    {
+        if (dbc == null) {
+            return;
+        }
+
+        /* find entry */
+        PoolEntry pe = this.borrowed.get(dbc);
+        if (pe == null) {
+            // -- not borrowed (already released?)
+            return;
+        }
+        if (pe.owner == Thread.currentThread()) {
+            if (--pe.depth > 0) {
+                return; // still held by an outer caller
+            }
+            this.threadEntry.remove();
+        } else {
+            Print.logWarn("DBConnection released by a thread other than the borrowing thread");
+        }
+
+        /* return to pool */
+        this.borrowed.remove(dbc);
+        pe.owner       = null;
+        pe.depth       = 0;
+        pe.borrowTrace = null;
+        if (pe.overflow) {
+            dbc.closeConnection();
+            if (!pe.unavailable) {
+                this.overflowCount.decrementAndGet();
+            }
+        } else {
+            this._pushIdle(pe);
+            this.permits.release();
+        }
+
+    }
+
+    /**
+    *** Returns true if the specified DBConnection is currently borrowed from this pool
+    **/
+    public boolean isBorrowed(DBConnection dbc)
+    {
+        return (dbc != null) && this.borrowed.containsKey(dbc);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Validates an idle entry prior to reuse.  The connection is pinged if it has
+    *** been idle longer than "db.connectionPool.validateIdleMS", and closed if the
+    *** ping fails (the DBConnection will reconnect on next use).
+    **/
+    private void _validate(PoolEntry pe)
+    {
+        long validateMS = RTConfig.getLong(RTKey.DB_CONNECTION_POOL_VALIDATE, DFT_VALIDATE_IDLE_MS);
+        if ((validateMS >= 0L) && ((System.currentTimeMillis() - pe.idleSinceMS) >= validateMS)) {
+            int timeoutSec = RTConfig.getInt(RTKey.DB_CONNECTION_POOL_PING_TMO, DFT_PING_TIMEOUT_SEC);
+            if (!pe.dbc.ping(timeoutSec)) {
+                this.invalidCount.incrementAndGet();
+                Print.logDebug("DBConnectionPool: closing invalid connection");
+                pe.dbc.closeConnection();
+            }
+        }
+    }
+
+    /**
+    *** Logs connections which have been borrowed longer than the leak threshold
+    **/
+    private void _checkLeaks()
+    {
+        long leakMS = RTConfig.getLong(RTKey.DB_CONNECTION_POOL_LEAK, DFT_LEAK_THRESHOLD_MS);
+        if (leakMS <= 0L) {
+            return;
+        }
+        long nowMS = System.currentTimeMillis();
+        for (PoolEntry pe : this.borrowed.values()) {
+            if (!pe.leakLogged && ((nowMS - pe.borrowMS) > leakMS)) {
+                pe.leakLogged = true;
+                this.leakCount.incrementAndGet();
+                Throwable trace = pe.borrowTrace;
+                String msg = "Possible DBConnection leak: held for " + (nowMS - pe.borrowMS) + " ms";
+                if (trace != null) {
+                    Print.logException(msg, trace);
+                } else {
+                    Print.logWarn(msg);
+                }
+            }
+        }
+    }
+
+    /**
+    *** Closes idle connections which have exceeded "db.connectionPool.maxIdleMS",
+    *** while keeping at least the minimum number of connections open
+    **/
+    private void _evictIdle()
+    {
+        long maxIdleMS = RTConfig.getLong(RTKey.DB_CONNECTION_POOL_MAX_IDLE, DFT_MAX_IDLE_MS);
+        if (maxIdleMS > 0L) {
+            this.closeIdle(maxIdleMS);
+        }
+    }
+
+    /**
+    *** Closes idle connections which have been idle at least the specified time
+    *** @param minIdleMS  The minimum idle time (0 to close all idle connections,
+    ***                   ignoring the minimum pool size)
+    *** @return The number of connections closed
+    **/
+    public int closeIdle(long minIdleMS)
+    {
+        long nowMS  = System.currentTimeMillis();
+        int  closed = 0;
+        for (ArrayDeque<PoolEntry> idle : this.stripe) {
+            java.util.List<PoolEntry> evict = new Vector<PoolEntry>();
+            synchronized (idle) {
+                // -- oldest entries are at the end of the stripe
+                while (!idle.isEmpty()) {
+                    PoolEntry pe = idle.peekLast();
+                    if ((nowMS - pe.idleSinceMS) < minIdleMS) {
+                        break;
+                    } else
+                    if ((minIdleMS > 0L) && (this.openCount.get() <= this.minSize)) {
+                        break;
+                    }
+                    idle.pollLast();
+                    this.openCount.decrementAndGet();
+                    evict.add(pe);
+                }
+            }
+            for (PoolEntry pe : evict) {
+                pe.dbc.closeConnection();
+                this.evictCount.incrementAndGet();
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    /**
+    *** Opens connections until the minimum pool size is reached
+    **/
+    private void _ensureMinimum()
+    {
+        while (this.openCount.get() < this.minSize) {
+            PoolEntry pe = this._createEntry(false);
+            try {
+                pe.dbc.getConnection(); // open now
+            } catch (SQLException sqe) {
+                this.openCount.decrementAndGet();
+                Print.logWarn("DBConnectionPool: unable to open minimum connections: " + sqe);
+                return;
+            }
+            this._pushIdle(pe);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of open (pooled) connections
+    **/
+    public int getOpenCount()
+    {
+        return this.openCount.get();
+    }
+
+    /**
+    *** Gets the number of currently borrowed connections
+    **/
+    public int getBorrowedCount()
+    {
+        return this.borrowed.size();
+    }
+
+    /**
+    *** Gets the pool statistics
+    **/
+    public String getStatistics()
+    {
+        long borrows = this.borrowCount.get();
+        long waits   = this.waitCount.get();
+        StringBuffer sb = new StringBuffer();
+        sb.append("DBConnectionPool[").append(this.uri).append("]");
+        sb.append(" open=").append(this.getOpenCount());
+        sb.append(" borrowed=").append(this.getBorrowedCount());
+        sb.append(" max=").append(this.maxSize);
+        sb.append(" borrows=").append(borrows);
+        sb.append(" created=").append(this.createCount.get());
+        sb.append(" evicted=").append(this.evictCount.get());
+        sb.append(" invalid=").append(this.invalidCount.get());
+        sb.append(" leaks=").append(this.leakCount.get());
+        sb.append(" waits=").append(waits);
+        sb.append(" timeouts=").append(this.timeoutCount.get());
+        sb.append(" overflow=").append(this.overflowCount.get());
+        sb.append(" rejected=").append(this.rejectCount.get());
+        sb.append(" acquireAvgUS=").append((borrows > 0L)? (this.acquireNanos.get() / borrows / 1000L) : 0L);
+        sb.append(" acquireMaxUS=").append(this.acquireMaxNanos.get() / 1000L);
+        sb.append(" waitAvgMS=").append((waits > 0L)? (this.waitNanos.get() / waits / 1000000L) : 0L);
+        sb.append(" waitMaxMS=").append(this.waitMaxNanos.get() / 1000000L);
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
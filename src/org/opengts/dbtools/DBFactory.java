@@ -353,6 +353,7 @@ public class DBFactory<gDBR extends DBRecord>
     private OrderedMap<String,DBField>              fieldMap            = null;
     private boolean                                 fieldArrayReady     = false;
     private DBField                                 fieldArray[]        = null;     // optimization
+    private DBFieldSlots                            fieldSlots          = null;     // slot storage layout
 
     private boolean                                 editable            = true;
     private boolean                                 viewable            = true;
@@ -361,11 +362,19 @@ public class DBFactory<gDBR extends DBRecord>
     private DBFactory<? extends DBRecord>           childFactories[]    = null;
 
     private DBRecordListener<gDBR>                  recordListener      = null;
+    private DBRecordDeleteListener<gDBR>            deleteListener      = null;
 
     private boolean                                 logMissingColumns   = true; // default log
 
     private boolean                                 allowInnoDBCOUNT    = true; // allow "COUNT(*)" for InnoDB
 
+    private DBPartitionManager                      partitionMgr        = null; // time-range partitions
+
+    private int                                     rcdCacheSize        = 0;    // 0 = not cacheable
+    private long                                    rcdCacheAgeSec      = 0L;
+    private volatile DBRecordCache<gDBR>            rcdCache            = null;
+    private String                                  rcdCacheLocal[]     = null; // write-through fields
+
     // ------------------------------------------------------------------------
 
     /**
@@ -544,6 +553,13 @@ public class DBFactory<gDBR extends DBRecord>
         this.fieldArrayReady = false;
         this.getFields();
 
+        /* slot storage layout for DBFieldValues */
+        if (RTConfig.getBoolean(RTKey.DB_FIELD_SLOT_STORAGE,true)) {
+            this.fieldSlots = new DBFieldSlots(this.getFields());
+        } else {
+            this.fieldSlots = null;
+        }
+
         /* set "logMissingColumns" default */
         // -- ie. EventData.logMissingColumns=false
         String lmcKey = utableName + RTKey._DB_LOG_MISSING_COLUMNS;
@@ -1019,6 +1035,15 @@ public class DBFactory<gDBR extends DBRecord>
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Gets the slot storage layout for the fields of this DBFactory
+    *** @return The DBFieldSlots, or null if slot storage is disabled
+    **/
+    public DBFieldSlots getFieldSlots()
+    {
+        return this.fieldSlots;
+    }
+
     /**
     *** Returns an array of all DBFields defined by this DBFactory
     *** @return An array of defined DBFields
@@ -3509,6 +3534,91 @@ public class DBFactory<gDBR extends DBRecord>
         this.allowInnoDBCOUNT = countOK;
     }
 
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the time field on which this (append-only) table may be range partitioned
+    *** @param fldName  The time field name (seconds since the epoch)
+    *** @param interval The partition interval
+    **/
+    public void setPartitionField(String fldName, DBPartitionManager.Interval interval)
+    {
+        if ((fldName == null) || !this.hasField(fldName)) {
+            Print.logError("Invalid partition field: " + this.getUntranslatedTableName() + "." + fldName);
+            this.partitionMgr = null;
+        } else {
+            this.partitionMgr = new DBPartitionManager(this, fldName, interval);
+            DBPartitionManager.register(this.partitionMgr);
+        }
+    }
+
+    /**
+    *** Sets the default record cache size and maximum age for this table.  The record
+    *** cache is only created if "db.recordCache.enable" is true.
+    *** @param dftSize    The default maximum number of cached records (0 to disable)
+    *** @param dftAgeSec  The default maximum age of a cached record (seconds)
+    **/
+    public void setRecordCache(int dftSize, long dftAgeSec)
+    {
+        String utableName = this.getUntranslatedTableName();
+        this.rcdCacheSize   = RTConfig.getInt( RTKey.DB_RECORD_CACHE_SIZE_ + utableName, dftSize);
+        this.rcdCacheAgeSec = RTConfig.getLong(RTKey.DB_RECORD_CACHE_AGE_  + utableName, dftAgeSec);
+    }
+
+    /**
+    *** Sets the record cache "local" fields.  Updates which only change these fields are
+    *** written through to the cached record, and are not published to other nodes.
+    *** Must be called before the record cache is created.
+    *** @param fldNames  The local field names
+    **/
+    public void setRecordCacheLocalFields(String... fldNames)
+    {
+        this.rcdCacheLocal = fldNames;
+    }
+
+    /**
+    *** Gets the record cache "local" fields (may be null)
+    **/
+    public String[] getRecordCacheLocalFields()
+    {
+        return this.rcdCacheLocal;
+    }
+
+    /**
+    *** Gets the DBRecordCache for this table
+    *** @return The DBRecordCache, or null if records of this table are not cached
+    **/
+    public DBRecordCache<gDBR> getRecordCache()
+    {
+        if ((this.rcdCache == null) && (this.rcdCacheSize > 0) && DBRecordCache.isEnabled()) {
+            synchronized (this) {
+                if (this.rcdCache == null) {
+                    this.rcdCache = new DBRecordCache<gDBR>(this, this.rcdCacheSize, this.rcdCacheAgeSec);
+                }
+            }
+        }
+        return this.rcdCache;
+    }
+
+    /**
+    *** Gets the DBRecordCache for this table, if it has already been created
+    **/
+    /* package */ DBRecordCache<gDBR> _getRecordCacheIfPresent()
+    {
+        return this.rcdCache;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the DBPartitionManager for this table
+    *** @return The DBPartitionManager, or null if this table does not support partitioning
+    **/
+    public DBPartitionManager getPartitionManager()
+    {
+        return this.partitionMgr;
+    }
+
     /**
     *** Returns the number of records  contained in the table represented by this DBFactory
     *** and based on the specified 'where' clause.
@@ -3670,6 +3780,15 @@ public class DBFactory<gDBR extends DBRecord>
         return this.recordListener;
     }
 
+    /**
+    *** Sets the DBRecordDeleteListener for this DBFactory
+    *** param delListener  The DBRecordDeleteListener
+    **/
+    public void setRecordDeleteListener(DBRecordDeleteListener<gDBR> delListener)
+    {
+        this.deleteListener = delListener;
+    }
+
     /**
     *** Callback when record is about to be inserted into the table
     *** @param rcd  The record about to be inserted
@@ -3714,6 +3833,17 @@ public class DBFactory<gDBR extends DBRecord>
         }
     }
 
+    /**
+    *** Callback after record(s) have been deleted from the table
+    *** @param rcdKey  The key of the deleted record (may be a partial key)
+    **/
+    public void recordDidDelete(DBRecordKey<gDBR> rcdKey)
+    {
+        if (this.deleteListener != null) {
+            this.deleteListener.recordDidDelete(rcdKey);
+        }
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
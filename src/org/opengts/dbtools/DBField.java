@@ -1529,6 +1529,68 @@ public class DBField
         }
     }
 
+    /**
+    *** Binds the specified object to the PreparedStatement parameter at the
+    *** specified index.  The bound value matches the value that would be
+    *** produced by "getQValue(...)" for the same object.
+    *** @param ps   The PreparedStatement
+    *** @param ndx  The 1-based parameter index
+    *** @param v    The Object to bind
+    *** @throws SQLException  If an SQL error occurs
+    **/
+    public void setParameter(PreparedStatement ps, int ndx, Object v)
+        throws SQLException
+    {
+
+        /* DBFieldType? */
+        if (v instanceof DBFieldType) {
+            v = ((DBFieldType)v).getObject();
+        }
+
+        /* BLOB */
+        if (this.isBLOB()) {
+            if (v instanceof byte[]) {
+                ps.setBytes(ndx, (byte[])v);
+            } else {
+                String vs = DBFieldValues.toStringValue(v);
+                if (vs.equals("") || vs.equalsIgnoreCase("0x")) {
+                    ps.setString(ndx, "");
+                } else {
+                    String hex = StringTools.startsWithIgnoreCase(vs,"0x")? vs.substring(2) : vs;
+                    ps.setBytes(ndx, StringTools.parseHex(hex,new byte[0]));
+                }
+            }
+            return;
+        }
+
+        /* typed values */
+        if ((v instanceof Integer) || (v instanceof Short) || (v instanceof Byte)) {
+            ps.setInt(ndx, ((Number)v).intValue());
+        } else
+        if (v instanceof Long) {
+            ps.setLong(ndx, ((Long)v).longValue());
+        } else
+        if ((v instanceof Double) || (v instanceof Float)) {
+            double d = ((Number)v).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                // -- sanitized by "toStringValue"
+                ps.setString(ndx, DBFieldValues.toStringValue(v));
+            } else
+            if (v instanceof Float) {
+                ps.setFloat(ndx, ((Float)v).floatValue());
+            } else {
+                ps.setDouble(ndx, d);
+            }
+        } else
+        if (v instanceof Boolean) {
+            ps.setInt(ndx, ((Boolean)v).booleanValue()? 1 : 0);
+        } else {
+            // -- String, DateTime, null, etc.
+            ps.setString(ndx, DBFieldValues.toStringValue(v));
+        }
+
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -0,0 +1,216 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Per-table field slot layout used by DBFieldValues slot storage
+// ----------------------------------------------------------------------------
+package org.opengts.dbtools;
+
+import java.lang.*;
+import java.util.*;
+
+import org.opengts.util.*;
+
+/**
+*** <code>DBFieldSlots</code> assigns each DBField of a table a slot index, and maps
+*** numeric/boolean fields onto primitive <code>long</code>/<code>double</code> storage
+*** arrays, so that <code>DBFieldValues</code> can hold record values without a
+*** per-record map, or a boxed value per numeric column.<br>
+*** An instance is created once per DBFactory, and is shared (read-only) by all records
+*** of the table.
+**/
+
+public class DBFieldSlots
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    TYPE_OBJECT     = 0;    // Object[] storage
+    public  static final int    TYPE_BOOLEAN    = 1;    // long[] storage (0/1)
+    public  static final int    TYPE_INTEGER    = 2;    // long[] storage
+    public  static final int    TYPE_LONG       = 3;    // long[] storage
+    public  static final int    TYPE_FLOAT      = 4;    // double[] storage
+    public  static final int    TYPE_DOUBLE     = 5;    // double[] storage
+
+    // ------------------------------------------------------------------------
+
+    private DBField             fields[]        = null;
+    private int                 slotType[]      = null;
+    private int                 slotIndex[]     = null;     // index into the storage array for the type
+    private boolean             slotKey[]       = null;
+
+    private int                 longCount       = 0;
+    private int                 doubleCount     = 0;
+    private int                 objectCount     = 0;
+
+    private Map<String,Integer> slotMap         = null;     // field/column name to slot
+    private Map<String,String>  caseMap         = null;     // lower-case name to column name
+
+    /**
+    *** Constructor
+    *** @param fld  The table fields, in slot order
+    **/
+    public DBFieldSlots(DBField fld[])
+    {
+        int n = (fld != null)? fld.length : 0;
+        this.fields    = new DBField[n];
+        this.slotType  = new int[n];
+        this.slotIndex = new int[n];
+        this.slotKey   = new boolean[n];
+        this.slotMap   = new HashMap<String,Integer>(n * 3);
+        this.caseMap   = new HashMap<String,String>(n * 2);
+        for (int s = 0; s < n; s++) {
+            DBField f = fld[s];
+            this.fields[s]  = f;
+            this.slotKey[s] = f.isPrimaryKey();
+            if (f.isTypeBoolean()) {
+                this.slotType[s]  = TYPE_BOOLEAN;
+                this.slotIndex[s] = this.longCount++;
+            } else
+            if (f.isTypeInteger()) {
+                this.slotType[s]  = TYPE_INTEGER;
+                this.slotIndex[s] = this.longCount++;
+            } else
+            if (f.isTypeLong()) {
+                this.slotType[s]  = TYPE_LONG;
+                this.slotIndex[s] = this.longCount++;
+            } else
+            if (f.isTypeFloat()) {
+                this.slotType[s]  = TYPE_FLOAT;
+                this.slotIndex[s] = this.doubleCount++;
+            } else
+            if (f.isTypeDouble()) {
+                this.slotType[s]  = TYPE_DOUBLE;
+                this.slotIndex[s] = this.doubleCount++;
+            } else {
+                this.slotType[s]  = TYPE_OBJECT;
+                this.slotIndex[s] = this.objectCount++;
+            }
+            Integer slot = new Integer(s);
+            String name = f.getName();
+            String colName = DBProvider.translateColumnName(name);
+            this.slotMap.put(name, slot);
+            if (!colName.equals(name)) {
+                this.slotMap.put(colName, slot);
+            }
+            this.caseMap.put(colName.toLowerCase(), colName);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of slots (fields)
+    **/
+    public int getSlotCount()
+    {
+        return this.fields.length;
+    }
+
+    /**
+    *** Gets the number of <code>long</code> storage slots
+    **/
+    public int getLongCount()
+    {
+        return this.longCount;
+    }
+
+    /**
+    *** Gets the number of <code>double</code> storage slots
+    **/
+    public int getDoubleCount()
+    {
+        return this.doubleCount;
+    }
+
+    /**
+    *** Gets the number of <code>Object</code> storage slots
+    **/
+    public int getObjectCount()
+    {
+        return this.objectCount;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the slot for the specified field/column name
+    *** @param fldName  The field name (case-sensitive)
+    *** @return The slot, or -1 if the field does not exist
+    **/
+    public int getSlot(String fldName)
+    {
+        Integer slot = (fldName != null)? this.slotMap.get(fldName) : null;
+        return (slot != null)? slot.intValue() : -1;
+    }
+
+    /**
+    *** Gets the slot for the specified DBField
+    *** @param fld  The DBField
+    *** @return The slot, or -1 if the field does not exist
+    **/
+    public int getSlot(DBField fld)
+    {
+        return (fld != null)? this.getSlot(fld.getName()) : -1;
+    }
+
+    /**
+    *** Gets the DBField for the specified slot
+    **/
+    public DBField getField(int slot)
+    {
+        return this.fields[slot];
+    }
+
+    /**
+    *** Gets the storage type (TYPE_OBJECT, TYPE_LONG, ...) for the specified slot
+    **/
+    public int getType(int slot)
+    {
+        return this.slotType[slot];
+    }
+
+    /**
+    *** Gets the index into the storage array for the specified slot
+    **/
+    public int getIndex(int slot)
+    {
+        return this.slotIndex[slot];
+    }
+
+    /**
+    *** Returns true if the specified slot is a primary key field
+    **/
+    public boolean isKey(int slot)
+    {
+        return this.slotKey[slot];
+    }
+
+    /**
+    *** Converts the case-insensitive field name to the proper case column name
+    *** @param fldName  The case-insensitive field name
+    *** @return The column name, or null if not found
+    **/
+    public String getFieldName(String fldName)
+    {
+        return (fldName != null)? this.caseMap.get(fldName.toLowerCase()) : null;
+    }
+
+    // ------------------------------------------------------------------------
+
+}
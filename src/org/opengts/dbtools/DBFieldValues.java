@@ -85,6 +85,14 @@ public class DBFieldValues
     private OrderedMap<String,DBField>  fieldMap        = null;
     private Map<String,String>          caseMap         = null; // order is not important
 
+    /* slot storage (used in place of the above maps if the DBFactory has a slot layout) */
+    private DBFieldSlots                slots           = null;
+    private long                        slotSet[]       = null; // value has been set
+    private long                        slotNull[]      = null; // value has been set to null
+    private long                        slotLong[]      = null; // boolean/int/long values
+    private double                      slotDouble[]    = null; // float/double values
+    private Object                      slotObject[]    = null; // all other values
+
     private DBFieldValues               fieldDelegate   = null;
 
     private boolean                     mustExist       = true;
@@ -94,9 +102,7 @@ public class DBFieldValues
     **/
     private DBFieldValues()
     {
-        this.valueMap  = new OrderedMap<String,Object>();
-        this.fieldMap  = new OrderedMap<String,DBField>();
-        this.caseMap   = new HashMap<String,String>();
+        super();
     }
 
     /**
@@ -118,6 +124,20 @@ public class DBFieldValues
         this.recordKey = rcdKey;
         this.fieldDelegate = delegate; // may be null
 
+        /* slot storage? */
+        DBFieldSlots fs = rcdKey.getFactory().getFieldSlots();
+        if (fs != null) {
+            // -- field maps are shared by all records, value arrays are created when needed
+            int words = (fs.getSlotCount() + 63) >>> 6;
+            this.slots    = fs;
+            this.slotSet  = new long[words];
+            this.slotNull = new long[words];
+            return;
+        }
+        this.valueMap  = new OrderedMap<String,Object>();
+        this.fieldMap  = new OrderedMap<String,DBField>();
+        this.caseMap   = new HashMap<String,String>();
+
         /* get fields (key fields only, if delegate is specified) */
         DBField fld[] = (this.fieldDelegate == null)? 
             rcdKey.getFields()    : // no field delegate
@@ -231,6 +251,231 @@ public class DBFieldValues
         }
     }
 
+    // ------------------------------------------------------------------------
+    // slot storage
+
+    /* return true if the slot value has been set */
+    private boolean _isSlotSet(int s)
+    {
+        return ((this.slotSet[s >>> 6] & (1L << s)) != 0L);
+    }
+
+    /* return true if the slot value has been set to null */
+    private boolean _isSlotNull(int s)
+    {
+        return ((this.slotNull[s >>> 6] & (1L << s)) != 0L);
+    }
+
+    /* mark the slot as set (and null/non-null) */
+    private void _markSlot(int s, boolean isNull)
+    {
+        this.slotSet[s >>> 6] |= (1L << s);
+        if (isNull) {
+            this.slotNull[s >>> 6] |=  (1L << s);
+        } else {
+            this.slotNull[s >>> 6] &= ~(1L << s);
+        }
+    }
+
+    /* return the long storage array */
+    private long[] _slotLongs()
+    {
+        if (this.slotLong == null) {
+            this.slotLong = new long[this.slots.getLongCount()];
+        }
+        return this.slotLong;
+    }
+
+    /* return the double storage array */
+    private double[] _slotDoubles()
+    {
+        if (this.slotDouble == null) {
+            this.slotDouble = new double[this.slots.getDoubleCount()];
+        }
+        return this.slotDouble;
+    }
+
+    /* return the Object storage array */
+    private Object[] _slotObjects()
+    {
+        if (this.slotObject == null) {
+            this.slotObject = new Object[this.slots.getObjectCount()];
+        }
+        return this.slotObject;
+    }
+
+    /* return the slot for the specified field name, if the slot has a non-null primitive value */
+    private int _getPrimitiveSlot(String fldName)
+    {
+        if (this.slots != null) {
+            int s = this.slots.getSlot(fldName);
+            if ((s >= 0) && this._isSlotSet(s) && !this._isSlotNull(s) && 
+                (this.slots.getType(s) != DBFieldSlots.TYPE_OBJECT)) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    /* return the (boxed) slot value, or null if not set */
+    private Object _getSlotValue(int s)
+    {
+        if ((s < 0) || !this._isSlotSet(s) || this._isSlotNull(s)) {
+            return null;
+        }
+        int ndx = this.slots.getIndex(s);
+        switch (this.slots.getType(s)) {
+            case DBFieldSlots.TYPE_BOOLEAN: return Boolean.valueOf(this.slotLong[ndx] != 0L);
+            case DBFieldSlots.TYPE_INTEGER: return Integer.valueOf((int)this.slotLong[ndx]);
+            case DBFieldSlots.TYPE_LONG   : return Long.valueOf(this.slotLong[ndx]);
+            case DBFieldSlots.TYPE_FLOAT  : return Float.valueOf((float)this.slotDouble[ndx]);
+            case DBFieldSlots.TYPE_DOUBLE : return Double.valueOf(this.slotDouble[ndx]);
+            default                       : return this.slotObject[ndx];
+        }
+    }
+
+    /* store the (validated) value in the specified slot */
+    private void _putSlotValue(int s, Object val)
+    {
+        int ndx = this.slots.getIndex(s);
+        switch (this.slots.getType(s)) {
+            case DBFieldSlots.TYPE_BOOLEAN:
+                if (val instanceof Boolean) {
+                    this._slotLongs()[ndx] = ((Boolean)val).booleanValue()? 1L : 0L;
+                } else
+                if (val instanceof Number) {
+                    this._slotLongs()[ndx] = (((Number)val).intValue() != 0)? 1L : 0L;
+                } else {
+                    val = null;
+                }
+                break;
+            case DBFieldSlots.TYPE_INTEGER:
+            case DBFieldSlots.TYPE_LONG:
+                if (val instanceof Number) {
+                    this._slotLongs()[ndx] = ((Number)val).longValue();
+                } else {
+                    val = null;
+                }
+                break;
+            case DBFieldSlots.TYPE_FLOAT:
+            case DBFieldSlots.TYPE_DOUBLE:
+                if (val instanceof Number) {
+                    this._slotDoubles()[ndx] = ((Number)val).doubleValue();
+                } else {
+                    val = null;
+                }
+                break;
+            default:
+                this._slotObjects()[ndx] = val;
+                break;
+        }
+        this._markSlot(s, (val == null));
+    }
+
+    /**
+    *** Stores a primitive long value (boolean/int/long slot) directly, if possible
+    *** @return True if stored, false if the caller must use the Object path
+    **/
+    private boolean _setSlotLong(String fldName, int type, long val)
+    {
+        if ((this.slots == null) || (this.fieldDelegate != null)) {
+            return false;
+        }
+        int s = this.slots.getSlot(fldName);
+        if ((s < 0) || (this.slots.getType(s) != type)) {
+            return false;
+        }
+        return this._setSlotLong(s, val);
+    }
+
+    /* store a primitive long value in the specified slot, and update the DBRecord changed state */
+    private boolean _setSlotLong(int s, long val)
+    {
+        DBRecord rcd = this.recordKey._getDBRecord();
+        if (rcd == null) {
+            return false;
+        }
+        int  ndx  = this.slots.getIndex(s);
+        long vals[] = this._slotLongs();
+        boolean changed = !this._isSlotSet(s) || this._isSlotNull(s) || (vals[ndx] != val);
+        vals[ndx] = val;
+        this._markSlot(s, false);
+        if (changed) {
+            rcd.setChanged(this.slots.getField(s).getName());
+        }
+        return true;
+    }
+
+    /**
+    *** Stores a primitive double value (float/double slot) directly, if possible
+    *** @return True if stored, false if the caller must use the Object path
+    **/
+    private boolean _setSlotDouble(String fldName, int type, double val)
+    {
+        if ((this.slots == null) || (this.fieldDelegate != null)) {
+            return false;
+        }
+        int s = this.slots.getSlot(fldName);
+        if ((s < 0) || (this.slots.getType(s) != type)) {
+            return false;
+        }
+        return this._setSlotDouble(s, val);
+    }
+
+    /* store a primitive double value in the specified slot, and update the DBRecord changed state */
+    private boolean _setSlotDouble(int s, double val)
+    {
+        DBRecord rcd = this.recordKey._getDBRecord();
+        if (rcd == null) {
+            return false;
+        }
+        int    ndx  = this.slots.getIndex(s);
+        double vals[] = this._slotDoubles();
+        boolean changed;
+        if (!this._isSlotSet(s) || this._isSlotNull(s)) {
+            changed = true;
+        } else
+        if (this.slots.getType(s) == DBFieldSlots.TYPE_FLOAT) {
+            // -- same as "Float.equals"
+            changed = (Float.floatToIntBits((float)vals[ndx]) != Float.floatToIntBits((float)val));
+        } else {
+            // -- same as "Double.equals"
+            changed = (Double.doubleToLongBits(vals[ndx]) != Double.doubleToLongBits(val));
+        }
+        vals[ndx] = val;
+        this._markSlot(s, false);
+        if (changed) {
+            rcd.setChanged(this.slots.getField(s).getName());
+        }
+        return true;
+    }
+
+    /**
+    *** Reads a primitive field value from the ResultSet directly into its slot, if possible
+    *** (the values read are the same as those returned by "DBField.getResultSetValue")
+    *** @return True if stored, false if the caller must use the Object path
+    **/
+    private boolean _setSlotResultSet(DBField fld, ResultSet rs)
+        throws SQLException
+    {
+        if ((this.slots == null) || (this.fieldDelegate != null)) {
+            return false;
+        }
+        int s = this.slots.getSlot(fld);
+        if ((s < 0) || (this.slots.getField(s) != fld)) {
+            return false;
+        }
+        String n = fld.getName();
+        switch (this.slots.getType(s)) {
+            case DBFieldSlots.TYPE_BOOLEAN: return this._setSlotLong(  s, (rs.getInt(n) != 0)? 1L : 0L);
+            case DBFieldSlots.TYPE_INTEGER: return this._setSlotLong(  s, (long)rs.getInt(n));
+            case DBFieldSlots.TYPE_LONG   : return this._setSlotLong(  s, rs.getLong(n));
+            case DBFieldSlots.TYPE_FLOAT  : return this._setSlotDouble(s, (double)rs.getFloat(n));
+            case DBFieldSlots.TYPE_DOUBLE : return this._setSlotDouble(s, rs.getDouble(n));
+            default                       : return false;
+        }
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -345,7 +590,16 @@ public class DBFieldValues
         /* store value */
         String fldName = fld.getName();
         Object oldVal = this._getFieldValue(fldName, true);
-        this.valueMap.put(fldName, newVal);
+        if (this.slots != null) {
+            int s = this.slots.getSlot(fld);
+            if (s < 0) {
+                Print.logError("Field not found in slot layout: " + this.getUntranslatedTableName() + "." + fldName);
+                return false;
+            }
+            this._putSlotValue(s, newVal);
+        } else {
+            this.valueMap.put(fldName, newVal);
+        }
 
         /* also set delegate */
         if (this.fieldDelegate != null) {
@@ -418,6 +672,9 @@ public class DBFieldValues
     **/
     public boolean setOptionalFieldValue(String fldName, int val) 
     {
+        if (this._setSlotLong(fldName, DBFieldSlots.TYPE_INTEGER, (long)val)) {
+            return true;
+        }
         return this._setFieldValue(fldName, false, (Object)(new Integer(val)));
     }
 
@@ -429,6 +686,9 @@ public class DBFieldValues
     **/
     public boolean setFieldValue(String fldName, int val) 
     {
+        if (this._setSlotLong(fldName, DBFieldSlots.TYPE_INTEGER, (long)val)) {
+            return true;
+        }
         return this._setFieldValue(fldName, true, (Object)(new Integer(val)));
     }
 
@@ -440,6 +700,9 @@ public class DBFieldValues
     **/
     public boolean setOptionalFieldValue(String fldName, long val) 
     {
+        if (this._setSlotLong(fldName, DBFieldSlots.TYPE_LONG, val)) {
+            return true;
+        }
         return this._setFieldValue(fldName, false, (Object)(new Long(val)));
     }
           /**
@@ -450,6 +713,9 @@ public class DBFieldValues
     **/
     public boolean setFieldValue(String fldName, long val) 
     {
+        if (this._setSlotLong(fldName, DBFieldSlots.TYPE_LONG, val)) {
+            return true;
+        }
         return this._setFieldValue(fldName, true, (Object)(new Long(val)));
     }
 
@@ -461,6 +727,9 @@ public class DBFieldValues
     **/
     public boolean setOptionalFieldValue(String fldName, float val) 
     {
+        if (this._setSlotDouble(fldName, DBFieldSlots.TYPE_FLOAT, (double)val)) {
+            return true;
+        }
         return this._setFieldValue(fldName, false, (Object)(new Float(val)));
     }
 
@@ -472,6 +741,9 @@ public class DBFieldValues
     **/
     public boolean setFieldValue(String fldName, float val) 
     {
+        if (this._setSlotDouble(fldName, DBFieldSlots.TYPE_FLOAT, (double)val)) {
+            return true;
+        }
         return this._setFieldValue(fldName, true, (Object)(new Float(val)));
     }
 
@@ -483,6 +755,9 @@ public class DBFieldValues
     **/
     public boolean setOptionalFieldValue(String fldName, double val) 
     {
+        if (this._setSlotDouble(fldName, DBFieldSlots.TYPE_DOUBLE, val)) {
+            return true;
+        }
         return this._setFieldValue(fldName, false, (Object)(new Double(val)));
     }
 
@@ -494,6 +769,9 @@ public class DBFieldValues
     **/
     public boolean setFieldValue(String fldName, double val) 
     {
+        if (this._setSlotDouble(fldName, DBFieldSlots.TYPE_DOUBLE, val)) {
+            return true;
+        }
         return this._setFieldValue(fldName, true, (Object)(new Double(val)));
     }
 
@@ -505,6 +783,9 @@ public class DBFieldValues
     **/
     public boolean setOptionalFieldValue(String fldName, boolean val) 
     {
+        if (this._setSlotLong(fldName, DBFieldSlots.TYPE_BOOLEAN, val? 1L : 0L)) {
+            return true;
+        }
         return this._setFieldValue(fldName, false, (Object)(new Boolean(val)));
     }
 
@@ -516,6 +797,9 @@ public class DBFieldValues
     **/
     public boolean setFieldValue(String fldName, boolean val) 
     {
+        if (this._setSlotLong(fldName, DBFieldSlots.TYPE_BOOLEAN, val? 1L : 0L)) {
+            return true;
+        }
         return this._setFieldValue(fldName, true, (Object)(new Boolean(val)));
     }
 
@@ -607,8 +891,10 @@ public class DBFieldValues
             for (int i = 0; i < fld.length; i++) {
                 if (setPrimaryKey || !fld[i].isPrimaryKey()) {
                     try {
-                        Object val = fld[i].getResultSetValue(rs); // may throw exception if field does not exist
-                        this._setFieldValue(fld[i], val);
+                        if (!this._setSlotResultSet(fld[i], rs)) { // primitive slot
+                            Object val = fld[i].getResultSetValue(rs); // may throw exception if field does not exist
+                            this._setFieldValue(fld[i], val);
+                        }
                     } catch (SQLException sqe) {
                         // we want to ignore "Column 'xxxx' not found" errors [found: SQLState:S0022;ErrorCode:0]
                         int errCode = sqe.getErrorCode(); // in the test we performed, this was '0' (thus useless)
@@ -766,10 +1052,14 @@ public class DBFieldValues
     **/
     public String getFieldName(String fldName)
     {
-        if (fldName != null) {
-            return this.caseMap.get(fldName.toLowerCase());
-        } else {
+        if (fldName == null) {
             return null;
+        } else
+        if (this.slots != null) {
+            String fn = this.slots.getFieldName(fldName);
+            return this.hasField(fn)? fn : null;
+        } else {
+            return this.caseMap.get(fldName.toLowerCase());
         }
     }
     
@@ -784,6 +1074,11 @@ public class DBFieldValues
     {
         if (fldName == null) {
             return false;
+        } else
+        if (this.slots != null) {
+            // -- a delegating (key) instance only contains the key fields
+            int s = this.slots.getSlot(DBProvider.translateColumnName(fldName));
+            return (s >= 0) && ((this.fieldDelegate == null) || this.slots.isKey(s));
         } else {
             String fn = DBProvider.translateColumnName(fldName);
             return this.fieldMap.containsKey(fn);
@@ -802,7 +1097,7 @@ public class DBFieldValues
             // no field name, no field value
             return false;
         } else
-        if (this.valueMap.containsKey(fldName)) {
+        if ((this.slots != null)? this._hasSlotValue(fldName) : this.valueMap.containsKey(fldName)) {
             // found in this value map
             return true;
         } else
@@ -832,7 +1127,9 @@ public class DBFieldValues
         }
 
         /* get value, return if found */
-        Object val = this.valueMap.get(fldName);
+        Object val = (this.slots != null)? 
+            this._getSlotValue(this.slots.getSlot(fldName)) :
+            this.valueMap.get(fldName);
         if (val != null) {
             // field value found
             //Print.logInfo("("+this.getName() + ") " + fldName + " value: " + val);
@@ -938,6 +1235,132 @@ public class DBFieldValues
         return this._getFieldValue(fldName, true, rtnDft);
     }
 
+    /**
+    *** Gets the value for the specified field name as a <code>long</code>.  Equivalent to
+    *** <code>((obj instanceof Number)? ((Number)obj).longValue() : dft)</code>, where 'obj' 
+    *** is the field value, but without creating a boxed value for primitive slots.
+    *** @param fldName        The field name for the value retrieved
+    *** @param requiredField  True to indicate that this field is required
+    *** @param dft            The value returned if the field value is not a Number
+    *** @return The field value
+    **/
+    public long getFieldLong(String fldName, boolean requiredField, long dft)
+    {
+        int s = this._getPrimitiveSlot(fldName);
+        if (s >= 0) {
+            int ndx = this.slots.getIndex(s);
+            switch (this.slots.getType(s)) {
+                case DBFieldSlots.TYPE_BOOLEAN: return dft; // Boolean is not a Number
+                case DBFieldSlots.TYPE_INTEGER: return (long)((int)this.slotLong[ndx]);
+                case DBFieldSlots.TYPE_LONG   : return this.slotLong[ndx];
+                case DBFieldSlots.TYPE_FLOAT  : return (long)((float)this.slotDouble[ndx]);
+                case DBFieldSlots.TYPE_DOUBLE : return (long)this.slotDouble[ndx];
+            }
+        }
+        Object obj = this._getFieldValue(fldName, requiredField);
+        return (obj instanceof Number)? ((Number)obj).longValue() : dft;
+    }
+
+    /**
+    *** Gets the value for the specified field name as an <code>int</code>
+    *** (see "getFieldLong")
+    **/
+    public int getFieldInt(String fldName, boolean requiredField, int dft)
+    {
+        int s = this._getPrimitiveSlot(fldName);
+        if (s >= 0) {
+            int ndx = this.slots.getIndex(s);
+            switch (this.slots.getType(s)) {
+                case DBFieldSlots.TYPE_BOOLEAN: return dft; // Boolean is not a Number
+                case DBFieldSlots.TYPE_INTEGER: return (int)this.slotLong[ndx];
+                case DBFieldSlots.TYPE_LONG   : return (int)this.slotLong[ndx];
+                case DBFieldSlots.TYPE_FLOAT  : return (int)((float)this.slotDouble[ndx]);
+                case DBFieldSlots.TYPE_DOUBLE : return (int)this.slotDouble[ndx];
+            }
+        }
+        Object obj = this._getFieldValue(fldName, requiredField);
+        return (obj instanceof Number)? ((Number)obj).intValue() : dft;
+    }
+
+    /**
+    *** Gets the value for the specified field name as a <code>double</code>
+    *** (see "getFieldLong")
+    **/
+    public double getFieldDouble(String fldName, boolean requiredField, double dft)
+    {
+        int s = this._getPrimitiveSlot(fldName);
+        if (s >= 0) {
+            int ndx = this.slots.getIndex(s);
+            switch (this.slots.getType(s)) {
+                case DBFieldSlots.TYPE_BOOLEAN: return dft; // Boolean is not a Number
+                case DBFieldSlots.TYPE_INTEGER: return (double)((int)this.slotLong[ndx]);
+                case DBFieldSlots.TYPE_LONG   : return (double)this.slotLong[ndx];
+                case DBFieldSlots.TYPE_FLOAT  : return (double)((float)this.slotDouble[ndx]);
+                case DBFieldSlots.TYPE_DOUBLE : return this.slotDouble[ndx];
+            }
+        }
+        Object obj = this._getFieldValue(fldName, requiredField);
+        return (obj instanceof Number)? ((Number)obj).doubleValue() : dft;
+    }
+
+    /**
+    *** Gets the value for the specified field name as a <code>float</code>
+    *** (see "getFieldLong")
+    **/
+    public float getFieldFloat(String fldName, boolean requiredField, float dft)
+    {
+        int s = this._getPrimitiveSlot(fldName);
+        if (s >= 0) {
+            int ndx = this.slots.getIndex(s);
+            switch (this.slots.getType(s)) {
+                case DBFieldSlots.TYPE_BOOLEAN: return dft; // Boolean is not a Number
+                case DBFieldSlots.TYPE_INTEGER: return (float)((int)this.slotLong[ndx]);
+                case DBFieldSlots.TYPE_LONG   : return (float)this.slotLong[ndx];
+                case DBFieldSlots.TYPE_FLOAT  : return (float)this.slotDouble[ndx];
+                case DBFieldSlots.TYPE_DOUBLE : return (float)this.slotDouble[ndx];
+            }
+        }
+        Object obj = this._getFieldValue(fldName, requiredField);
+        return (obj instanceof Number)? ((Number)obj).floatValue() : dft;
+    }
+
+    /**
+    *** Gets the value for the specified field name as a <code>boolean</code>.  Boolean values
+    *** are returned as-is, Number values are true if non-zero, otherwise 'dft' is returned.
+    **/
+    public boolean getFieldBoolean(String fldName, boolean requiredField, boolean dft)
+    {
+        int s = this._getPrimitiveSlot(fldName);
+        if (s >= 0) {
+            int ndx = this.slots.getIndex(s);
+            switch (this.slots.getType(s)) {
+                case DBFieldSlots.TYPE_BOOLEAN: return (this.slotLong[ndx] != 0L);
+                case DBFieldSlots.TYPE_INTEGER: return ((int)this.slotLong[ndx] != 0);
+                case DBFieldSlots.TYPE_LONG   : return ((int)this.slotLong[ndx] != 0);
+                case DBFieldSlots.TYPE_FLOAT  : return ((int)((float)this.slotDouble[ndx]) != 0);
+                case DBFieldSlots.TYPE_DOUBLE : return ((int)this.slotDouble[ndx] != 0);
+            }
+        }
+        Object obj = this._getFieldValue(fldName, requiredField);
+        if (obj instanceof Boolean) {
+            return ((Boolean)obj).booleanValue();
+        } else 
+        if (obj instanceof Number) {
+            return (((Number)obj).intValue() != 0)? true : false;
+        } else {
+            return dft;
+        }
+    }
+
+    /* return true if a value has been set in the slot for the specified field name */
+    private boolean _hasSlotValue(String fldName)
+    {
+        int s = this.slots.getSlot(fldName);
+        return (s >= 0) && this._isSlotSet(s);
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Gets the String representation of the field value
     *** @param fldName  The field name for the value retrieved
@@ -970,6 +1393,16 @@ public class DBFieldValues
         String utableName = this.getUntranslatedTableName();
         sb.append(this.getName()).append(" ");
         sb.append("[").append(utableName).append("]");
+        if (this.slots != null) {
+            for (int s = 0; s < this.slots.getSlotCount(); s++) {
+                if (this._isSlotSet(s)) {
+                    Object val = this._getSlotValue(s);
+                    sb.append(" ");
+                    sb.append(this.slots.getField(s).getName()).append("=").append(StringTools.trim(val));
+                }
+            }
+            return sb.toString();
+        }
         for (String fld : this.valueMap.keySet()) {
             Object val = this.valueMap.get(fld);
             sb.append(" ");
@@ -0,0 +1,523 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  MySQL time-range partition management for append-only tables
+// ----------------------------------------------------------------------------
+package org.opengts.dbtools;
+
+import java.lang.*;
+import java.util.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+
+/**
+*** <code>DBPartitionManager</code> maintains MySQL "RANGE" partitions on a time
+*** column (seconds since the epoch) of an append-only table, such as "EventData".<br>
+*** Partitions are monthly or daily (GMT), and are named "p&lt;yyyyMM&gt;" or
+*** "p&lt;yyyyMMdd&gt;" after the start of the range they contain.  A final "pmax"
+*** partition ("VALUES LESS THAN MAXVALUE") catches any rows beyond the last range,
+*** and future ranges are split from it (while it is still empty) by
+*** "createFuturePartitions".  Old data is removed by dropping whole partitions,
+*** which is a metadata operation, rather than with row-level DELETEs.<br>
+*** Since the first remaining partition always covers all values below its upper
+*** bound, rows older than the oldest partition may still be inserted after a drop.
+**/
+
+public class DBPartitionManager
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final String     MAX_PARTITION_NAME      = "pmax";
+
+    public  static final int        DFT_FUTURE_COUNT        = 3;
+    public  static final long       DFT_MAINTENANCE_MS      = 3600000L; // 1 hour
+
+    /**
+    *** Partition interval
+    **/
+    public enum Interval {
+        MONTH,
+        DAY;
+        public static Interval parse(String s, Interval dft) {
+            if (StringTools.isBlank(s)) {
+                return dft;
+            } else
+            if (s.equalsIgnoreCase("month") || s.equalsIgnoreCase("monthly")) {
+                return MONTH;
+            } else
+            if (s.equalsIgnoreCase("day") || s.equalsIgnoreCase("daily")) {
+                return DAY;
+            } else {
+                return dft;
+            }
+        }
+    };
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Partition information
+    **/
+    public static class Partition
+    {
+        private String  name      = null;
+        private long    lessThan  = 0L;     // exclusive upper bound (Long.MAX_VALUE for MAXVALUE)
+        private long    rows      = 0L;     // estimated (InnoDB)
+        public Partition(String name, long lessThan, long rows) {
+            this.name     = name;
+            this.lessThan = lessThan;
+            this.rows     = rows;
+        }
+        public String getName() {
+            return this.name;
+        }
+        public long getLessThan() {
+            return this.lessThan;
+        }
+        public boolean isMaxValue() {
+            return (this.lessThan == Long.MAX_VALUE);
+        }
+        public long getEstimatedRows() {
+            return this.rows;
+        }
+        public String toString() {
+            StringBuffer sb = new StringBuffer();
+            sb.append(this.name);
+            sb.append(" < ");
+            sb.append(this.isMaxValue()? "MAXVALUE" : (new DateTime(this.lessThan,DateTime.GMT)).toString());
+            sb.append(" [~").append(this.rows).append(" rows]");
+            return sb.toString();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static Vector<DBPartitionManager>   managerList     = new Vector<DBPartitionManager>();
+    private static Thread                       maintThread     = null;
+
+    /**
+    *** Registers a partition manager for automatic future-partition creation.
+    *** The maintenance thread is started if "db.partition.autoCreate" is true.
+    **/
+    protected static void register(DBPartitionManager mgr)
+    {
+        synchronized (DBPartitionManager.managerList) {
+            DBPartitionManager.managerList.add(mgr);
+            if (RTConfig.getBoolean(RTKey.DB_PARTITION_AUTO_CREATE,false)) {
+                DBPartitionManager._startMaintenanceThread();
+            }
+        }
+    }
+
+    /**
+    *** Starts the future-partition maintenance thread
+    **/
+    private static void _startMaintenanceThread()
+    {
+        // "DBPartitionManager.managerList" lock required
+        if (DBPartitionManager.maintThread == null) {
+            DBPartitionManager.maintThread = new Thread(new Runnable() {
+                public void run() {
+                    for (;;) {
+                        java.util.List<DBPartitionManager> mgrs;
+                        synchronized (DBPartitionManager.managerList) {
+                            mgrs = new Vector<DBPartitionManager>(DBPartitionManager.managerList);
+                        }
+                        for (DBPartitionManager mgr : mgrs) {
+                            try {
+                                if (mgr.isPartitioned()) {
+                                    mgr.createFuturePartitions(-1);
+                                }
+                            } catch (Throwable th) {
+                                Print.logException("DBPartitionManager maintenance error: " + mgr.getTableName(), th);
+                            }
+                        }
+                        long intervMS = RTConfig.getLong(RTKey.DB_PARTITION_MAINT_INTERVAL, DFT_MAINTENANCE_MS);
+                        try { Thread.sleep(Math.max(intervMS,60000L)); } catch (InterruptedException ie) { break; }
+                    }
+                }
+            }, "DBPartitionManager");
+            DBPartitionManager.maintThread.setDaemon(true);
+            DBPartitionManager.maintThread.start();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private DBFactory<? extends DBRecord>   factory     = null;
+    private String                          fieldName   = null;
+    private Interval                        interval    = Interval.MONTH;
+
+    /**
+    *** Constructor
+    *** @param fact     The table DBFactory
+    *** @param fldName  The time field (seconds since the epoch) on which the table is partitioned
+    *** @param interval The partition interval
+    **/
+    public DBPartitionManager(DBFactory<? extends DBRecord> fact, String fldName, Interval interval)
+    {
+        this.factory   = fact;
+        this.fieldName = fldName;
+        this.interval  = (interval != null)? interval : Interval.MONTH;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the table DBFactory
+    **/
+    public DBFactory<? extends DBRecord> getFactory()
+    {
+        return this.factory;
+    }
+
+    /**
+    *** Gets the (untranslated) table name
+    **/
+    public String getTableName()
+    {
+        return this.factory.getUntranslatedTableName();
+    }
+
+    /**
+    *** Gets the partition time field name
+    **/
+    public String getFieldName()
+    {
+        return this.fieldName;
+    }
+
+    /**
+    *** Gets the partition interval
+    **/
+    public Interval getInterval()
+    {
+        return this.interval;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the start of the interval containing the specified time
+    *** @param timeSec  The time (seconds)
+    *** @return The interval start time (seconds, GMT)
+    **/
+    public long getIntervalStart(long timeSec)
+    {
+        Calendar cal = new GregorianCalendar(DateTime.GMT);
+        cal.setTimeInMillis(timeSec * 1000L);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE     , 0);
+        cal.set(Calendar.SECOND     , 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        if (this.interval == Interval.MONTH) {
+            cal.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        return cal.getTimeInMillis() / 1000L;
+    }
+
+    /**
+    *** Returns the start of the interval following the interval containing the
+    *** specified time
+    *** @param timeSec  The time (seconds)
+    *** @return The next interval start time (seconds, GMT)
+    **/
+    public long getNextIntervalStart(long timeSec)
+    {
+        Calendar cal = new GregorianCalendar(DateTime.GMT);
+        cal.setTimeInMillis(this.getIntervalStart(timeSec) * 1000L);
+        if (this.interval == Interval.MONTH) {
+            cal.add(Calendar.MONTH, 1);
+        } else {
+            cal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return cal.getTimeInMillis() / 1000L;
+    }
+
+    /**
+    *** Gets the partition name for the interval containing the specified time
+    **/
+    public String getPartitionName(long timeSec)
+    {
+        String fmt = (this.interval == Interval.MONTH)? "yyyyMM" : "yyyyMMdd";
+        return "p" + (new DateTime(this.getIntervalStart(timeSec),DateTime.GMT)).format(fmt);
+    }
+
+    /**
+    *** Returns the partition definition "PARTITION pX VALUES LESS THAN (Y)" for the
+    *** interval containing the specified time
+    **/
+    private String _partitionDefinition(long timeSec)
+    {
+        return "PARTITION " + this.getPartitionName(timeSec) +
+            " VALUES LESS THAN (" + this.getNextIntervalStart(timeSec) + ")";
+    }
+
+    /**
+    *** Returns the partition definition for the MAXVALUE partition
+    **/
+    private static String _maxPartitionDefinition()
+    {
+        return "PARTITION " + MAX_PARTITION_NAME + " VALUES LESS THAN MAXVALUE";
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Throws a DBException if the current DBProvider does not support partitioning
+    **/
+    private static void _checkProvider()
+        throws DBException
+    {
+        if (DBProvider.getProvider().getID() != DBProvider.DB_MYSQL) {
+            throw new DBException("Table partitioning only supported for MySQL");
+        }
+    }
+
+    /**
+    *** Gets the current table partitions, ordered by range
+    *** @return The list of partitions (empty if the table is not partitioned)
+    **/
+    public java.util.List<Partition> getPartitions()
+        throws DBException
+    {
+        DBPartitionManager._checkProvider();
+        String sql =
+            "SELECT PARTITION_NAME,PARTITION_DESCRIPTION,TABLE_ROWS" +
+            " FROM information_schema.PARTITIONS" +
+            " WHERE TABLE_SCHEMA='" + DBProvider.getDBName() + "'" +
+            " AND TABLE_NAME='" + this.factory.getTranslatedTableName() + "'" +
+            " AND PARTITION_NAME IS NOT NULL" +
+            " ORDER BY PARTITION_ORDINAL_POSITION";
+        java.util.List<Partition> list = new Vector<Partition>();
+        DBConnection dbc  = null;
+        Statement    stmt = null;
+        ResultSet    rs   = null;
+        try {
+            dbc  = DBConnection.getDefaultConnection();
+            stmt = dbc.execute(sql);
+            rs   = stmt.getResultSet();
+            while (rs.next()) {
+                String name = rs.getString(1);
+                String desc = StringTools.trim(rs.getString(2));
+                long   rows = rs.getLong(3);
+                long   lt   = desc.equalsIgnoreCase("MAXVALUE")? Long.MAX_VALUE : StringTools.parseLong(desc,0L);
+                list.add(new Partition(name, lt, rows));
+            }
+        } catch (SQLException sqe) {
+            throw new DBException("Reading partitions: " + this.getTableName(), sqe);
+        } finally {
+            DBConnection.release(dbc, stmt, rs);
+        }
+        return list;
+    }
+
+    /**
+    *** Returns true if the table is currently partitioned
+    **/
+    public boolean isPartitioned()
+        throws DBException
+    {
+        return !ListTools.isEmpty(this.getPartitions());
+    }
+
+    /**
+    *** Executes the specified partition ALTER TABLE statement
+    **/
+    private void _alterTable(String sql)
+        throws DBException
+    {
+        Print.logInfo("Partition: " + sql);
+        DBConnection dbc = null;
+        try {
+            dbc = DBConnection.getDefaultConnection();
+            dbc.executeUpdate(sql);
+        } catch (SQLException sqe) {
+            throw new DBException("Altering partitions: " + this.getTableName(), sqe);
+        } finally {
+            DBConnection.release(dbc);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of future partitions to maintain ahead of the current time
+    **/
+    private static int _getFutureCount(int count)
+    {
+        if (count < 0) {
+            count = RTConfig.getInt(RTKey.DB_PARTITION_FUTURE_COUNT, DFT_FUTURE_COUNT);
+        }
+        return Math.max(count, 1);
+    }
+
+    /**
+    *** Partitions an existing non-partitioned table.  Note that this rebuilds the table,
+    *** and should be run when the table is not in heavy use.  Every unique key of the
+    *** table must include the partition field.
+    *** @param fromSec      The start time of the first partition.  Older rows are placed
+    ***                     in the first partition.
+    *** @param futureCount  The number of future partitions to create (<0 for default)
+    *** @return The number of partitions created
+    **/
+    public int partitionTable(long fromSec, int futureCount)
+        throws DBException
+    {
+        if (this.isPartitioned()) {
+            throw new DBException("Table already partitioned: " + this.getTableName());
+        }
+        long nowSec = DateTime.getCurrentTimeSec();
+        if ((fromSec <= 0L) || (fromSec > nowSec)) {
+            fromSec = nowSec;
+        }
+
+        /* partition definitions */
+        long lastSec = this._getFutureStart(nowSec, DBPartitionManager._getFutureCount(futureCount));
+        StringBuffer sb = new StringBuffer();
+        int count = 0;
+        for (long t = this.getIntervalStart(fromSec); t < lastSec; t = this.getNextIntervalStart(t)) {
+            if (sb.length() > 0) { sb.append(","); }
+            sb.append(this._partitionDefinition(t));
+            count++;
+        }
+        sb.append(",").append(DBPartitionManager._maxPartitionDefinition());
+
+        /* alter */
+        String colName = DBProvider.translateColumnName(this.fieldName);
+        this._alterTable(
+            "ALTER TABLE " + this.factory.getTranslatedTableName() +
+            " PARTITION BY RANGE (" + colName + ") (" + sb + ")");
+        return count + 1;
+
+    }
+
+    /**
+    *** Returns the start time of the interval following the last required future interval
+    **/
+    private long _getFutureStart(long nowSec, int futureCount)
+    {
+        long t = this.getNextIntervalStart(nowSec); // end of current interval
+        for (int i = 0; i < futureCount; i++) {
+            t = this.getNextIntervalStart(t);
+        }
+        return t;
+    }
+
+    /**
+    *** Creates any missing future partitions, by splitting them from the "pmax"
+    *** partition (which is expected to be empty).
+    *** @param futureCount  The number of future partitions to maintain (<0 for default)
+    *** @return The number of partitions created
+    **/
+    public int createFuturePartitions(int futureCount)
+        throws DBException
+    {
+        java.util.List<Partition> parts = this.getPartitions();
+        if (ListTools.isEmpty(parts)) {
+            throw new DBException("Table not partitioned: " + this.getTableName());
+        }
+
+        /* last bounded partition */
+        Partition last = parts.get(parts.size() - 1);
+        if (!last.isMaxValue()) {
+            throw new DBException("Missing '" + MAX_PARTITION_NAME + "' partition: " + this.getTableName());
+        }
+        long lastBound = 0L;
+        for (Partition p : parts) {
+            if (!p.isMaxValue() && (p.getLessThan() > lastBound)) {
+                lastBound = p.getLessThan();
+            }
+        }
+        if (lastBound <= 0L) {
+            lastBound = this.getIntervalStart(DateTime.getCurrentTimeSec());
+        }
+
+        /* new partitions */
+        long nowSec  = DateTime.getCurrentTimeSec();
+        long lastSec = this._getFutureStart(nowSec, DBPartitionManager._getFutureCount(futureCount));
+        StringBuffer sb = new StringBuffer();
+        int count = 0;
+        for (long t = lastBound; t < lastSec; t = this.getNextIntervalStart(t)) {
+            sb.append(this._partitionDefinition(t)).append(",");
+            count++;
+        }
+        if (count <= 0) {
+            return 0;
+        }
+        if (last.getEstimatedRows() > 0L) {
+            Print.logWarn("Partition '" + MAX_PARTITION_NAME + "' is not empty (~" + last.getEstimatedRows() + " rows): " + this.getTableName());
+        }
+        sb.append(DBPartitionManager._maxPartitionDefinition());
+
+        /* reorganize "pmax" */
+        this._alterTable(
+            "ALTER TABLE " + this.factory.getTranslatedTableName() +
+            " REORGANIZE PARTITION " + MAX_PARTITION_NAME + " INTO (" + sb + ")");
+        return count;
+
+    }
+
+    /**
+    *** Gets the partitions which contain only rows prior to the specified time
+    *** @param timeSec  The time (seconds)
+    *** @return The list of partitions whose upper bound is less than or equal to the time
+    **/
+    public java.util.List<Partition> getPartitionsBefore(long timeSec)
+        throws DBException
+    {
+        java.util.List<Partition> list = new Vector<Partition>();
+        for (Partition p : this.getPartitions()) {
+            if (!p.isMaxValue() && (p.getLessThan() <= timeSec)) {
+                list.add(p);
+            }
+        }
+        return list;
+    }
+
+    /**
+    *** Drops the specified partitions (and all rows contained therein)
+    *** @param parts  The partitions to drop
+    *** @return The number of partitions dropped
+    **/
+    public int dropPartitions(java.util.List<Partition> parts)
+        throws DBException
+    {
+        if (ListTools.isEmpty(parts)) {
+            return 0;
+        }
+        StringBuffer sb = new StringBuffer();
+        for (Partition p : parts) {
+            if (p.isMaxValue()) {
+                throw new DBException("Cannot drop '" + p.getName() + "' partition");
+            }
+            if (sb.length() > 0) { sb.append(","); }
+            sb.append(p.getName());
+        }
+        this._alterTable(
+            "ALTER TABLE " + this.factory.getTranslatedTableName() +
+            " DROP PARTITION " + sb);
+        return parts.size();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
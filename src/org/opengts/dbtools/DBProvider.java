@@ -252,6 +252,7 @@ public class DBProvider
     public    static final long     FLAGS_NONE              = 0x0000000000000000L;
     public    static final long     FLAGS_LIMIT             = 0x0000000000000001L;
     public    static final long     FLAGS_OFFSET            = 0x0000000000000002L;
+    public    static final long     FLAGS_PREPARED          = 0x0000000000000004L;
 
     // ------------------------------------------------------------------------
 
@@ -332,7 +333,7 @@ public class DBProvider
         null,                                       // index name filter
         null,                                       // table name filter
         "type=MyISAM",                              // "CREATE TABLE" suffix
-        FLAGS_LIMIT|FLAGS_OFFSET,                   // flags
+        FLAGS_LIMIT|FLAGS_OFFSET|FLAGS_PREPARED,    // flags
         new String[] {
             /* SQL_UNKNOWN */ "",
             /* SQL_BOOLEAN */ "TINYINT",            //  8bit          Java 'boolean'
@@ -363,7 +364,7 @@ public class DBProvider
         null,                                       // index name filter
         null,                                       // table name filter
         "engine=MyISAM",                            // "CREATE TABLE" suffix
-        FLAGS_LIMIT|FLAGS_OFFSET,                   // flags
+        FLAGS_LIMIT|FLAGS_OFFSET|FLAGS_PREPARED,    // flags
         new String[] {
             /* SQL_UNKNOWN */ "",
             /* SQL_BOOLEAN */ "TINYINT",            //  8bit          Java 'boolean'
@@ -396,7 +397,7 @@ public class DBProvider
         null,                                       // index name filter
         null,                                       // table name filter
         "engine=InnoDB",                            // "CREATE TABLE" suffix
-        FLAGS_LIMIT|FLAGS_OFFSET,                   // flags
+        FLAGS_LIMIT|FLAGS_OFFSET|FLAGS_PREPARED,    // flags
         new String[] {
             /* SQL_UNKNOWN */ "",
             /* SQL_BOOLEAN */ "TINYINT",            //  8bit          Java 'boolean'
@@ -443,7 +444,7 @@ public class DBProvider
         null,                                       // index name filter
         null,                                       // table name filter
         "engine=MyISAM",                            // "CREATE TABLE" suffix
-        FLAGS_LIMIT|FLAGS_OFFSET,                   // flags
+        FLAGS_LIMIT|FLAGS_OFFSET|FLAGS_PREPARED,    // flags
         new String[] {
             /* SQL_UNKNOWN */ "",
             /* SQL_BOOLEAN */ "TINYINT",            //  8bit          Java 'boolean'
@@ -534,7 +535,7 @@ public class DBProvider
         null,                                       // index name filter
         new NameFilterLowerCase(""),                // table name filter
         null,                                       // "CREATE TABLE" suffix (ie. index type)
-        FLAGS_LIMIT|FLAGS_OFFSET,                   // flags
+        FLAGS_LIMIT|FLAGS_OFFSET|FLAGS_PREPARED,    // flags
         new String[] {
             /* SQL_UNKNOWN */ "",
             /* SQL_BOOLEAN */ "SMALLINT",           //  8bit          Java 'boolean'
@@ -565,7 +566,7 @@ public class DBProvider
         null,                                       // index name filter
         new NameFilter("PG"),                       // table name filter
         null,                                       // "CREATE TABLE" suffix (ie. index type)
-        FLAGS_LIMIT|FLAGS_OFFSET,                   // flags
+        FLAGS_LIMIT|FLAGS_OFFSET|FLAGS_PREPARED,    // flags
         new String[] {
             /* SQL_UNKNOWN */ "",
             /* SQL_BOOLEAN */ "TINYINT",            //  8bit          Java 'boolean'
@@ -2204,6 +2205,9 @@ public class DBProvider
         // Derby:      INSERT INTO <table> (<column>,<column>,...) VALUES (<value>,<value>,...)
         // PostgreSQL: INSERT INTO <table> (<column>,<column>,...) VALUES (<value>,<value>,...)
         boolean addedField = false;
+        boolean prepared   = DBProvider.usePreparedStatements();
+        java.util.List<DBField> prepFld = prepared? new Vector<DBField>() : null;
+        java.util.List<Object>  prepVal = prepared? new Vector<Object>()  : null;
         sb.append("INSERT INTO ").append(recKey.getTranslatedTableName());
         StringBuffer colSB = new StringBuffer();
         StringBuffer valSB = new StringBuffer();
@@ -2222,12 +2226,17 @@ public class DBProvider
                     valSB.append(","); 
                 }
                 Object fldVal = fieldValues.getFieldValue(fldName,true);
-                String dbVal  = field[i].getQValue(fldVal);
                 //colSB.append(DBProvider.getProvider().getStartColumnChar());
                 //colSB.append(fldName);
                 //colSB.append(DBProvider.getProvider().getEndColumnChar());
                 colSB.append(DBProvider.getProvider().quoteColumnName(fldName));
-                valSB.append(dbVal);
+                if (prepared) {
+                    valSB.append("?");
+                    prepFld.add(field[i]);
+                    prepVal.add(fldVal);
+                } else {
+                    valSB.append(field[i].getQValue(fldVal));
+                }
                 addedField = true;
             } else
             if (recFact.logMissingColumnWarning()) {
@@ -2265,6 +2274,15 @@ public class DBProvider
             DBConnection dbc = null;
             try {
                 dbc = DBConnection.getDefaultConnection();
+                if (prepared) {
+                    DBField pf[] = prepFld.toArray(new DBField[prepFld.size()]);
+                    Object  pv[] = prepVal.toArray();
+                    long autoIncrVal = dbc.executePreparedUpdate(sb.toString(), pf, pv, (autoIncrField != null));
+                    if ((autoIncrField != null) && (autoIncrVal >= 0)) {
+                        Print.logDebug("Auto-Increment value: " + autoIncrVal);
+                        fieldValues.setFieldValue(autoIncrField.getName(), autoIncrVal);
+                    }
+                } else
                 if (autoIncrField != null) {
                     long autoIncrVal = dbc.executeUpdate(sb.toString(), true);
                     if (autoIncrVal >= 0) {
@@ -2291,6 +2309,198 @@ public class DBProvider
         
     }
     
+    /**
+    *** Returns true if the current DB provider supports an insert statement which 
+    *** ignores records that already exist (see <code>insertRecordsIntoTable</code>)
+    *** @return True if duplicate records may be ignored
+    **/
+    public static boolean supportsInsertIgnore()
+    {
+        switch (DBProvider.getProvider().getID()) {
+            case DB_MYSQL     : return true; // INSERT IGNORE INTO ...
+            case DB_MARIADB   : return true; // INSERT IGNORE INTO ...
+            case DB_POSTGRESQL: return true; // INSERT INTO ... ON CONFLICT DO NOTHING
+            default           : return false;
+        }
+    }
+
+    /**
+    *** Returns the fields (existing columns) inserted by a multi-record insert
+    *** @param recKey  The key of the first record to insert
+    *** @return The list of fields to insert (empty if no columns exist)
+    *** @throws DBException   If the table contains an auto-increment field
+    **/
+    private static java.util.List<DBField> _getInsertRecordsFields(DBRecordKey recKey)
+        throws DBException
+    {
+        String      xtableName      = recKey.getTranslatedTableName();
+        Map         existingColumns = recKey.getFactory().getExistingColumnMap(false);
+        DBField     field[]         = recKey.getFields();
+        java.util.List<DBField> insFields = new Vector<DBField>();
+        for (int i = 0; i < field.length; i++) {
+            String fldName = field[i].getName();
+            String xFldName = DBProvider.translateColumnName(fldName);
+            if (field[i].isAutoIncrement()) {
+                // -- the generated values cannot be returned for multiple records
+                throw new DBException("Multi-record insert not supported with auto-increment field: " + xtableName);
+            }
+            if ((existingColumns == null) || existingColumns.containsKey(xFldName)) {
+                insFields.add(field[i]);
+            }
+        }
+        if (insFields.isEmpty()) {
+            Print.logInfo("No columns specified to insert!!! [" + xtableName + "]");
+        }
+        return insFields;
+    }
+
+    /**
+    *** Returns the "INSERT INTO &lt;table&gt; (&lt;column&gt;,...) VALUES " prefix
+    **/
+    private static StringBuffer _getInsertRecordsPrefix(String xtableName, java.util.List<DBField> insFields, boolean ignoreDups)
+    {
+        // MySQL:      INSERT IGNORE INTO <table> (<column>,...) VALUES ...
+        // PostgreSQL: INSERT INTO <table> (<column>,...) VALUES ... ON CONFLICT DO NOTHING
+        int dbProvID = DBProvider.getProvider().getID();
+        StringBuffer sb = new StringBuffer();
+        if (ignoreDups && ((dbProvID == DB_MYSQL) || (dbProvID == DB_MARIADB))) {
+            sb.append("INSERT IGNORE INTO ").append(xtableName).append(" (");
+        } else {
+            sb.append("INSERT INTO ").append(xtableName).append(" (");
+        }
+        for (int i = 0; i < insFields.size(); i++) {
+            if (i > 0) { sb.append(","); }
+            sb.append(DBProvider.getProvider().quoteColumnName(insFields.get(i).getName()));
+        }
+        sb.append(") VALUES ");
+        return sb;
+    }
+
+    /**
+    *** Returns the "ON CONFLICT" suffix for an insert which ignores existing records
+    **/
+    private static String _getInsertRecordsSuffix(boolean ignoreDups)
+    {
+        if (ignoreDups && (DBProvider.getProvider().getID() == DB_POSTGRESQL)) {
+            return " ON CONFLICT DO NOTHING";
+        } else {
+            return "";
+        }
+    }
+
+    /**
+    *** Returns a literal (non-prepared) insert statement for the specified records.<br>
+    *** This is intended for statements which must be saved as text and executed
+    *** later (ie. spooled), and should be used with a small number of records.
+    *** Use <code>insertRecordsIntoTable</code> to insert records directly.
+    *** @param recList    The list of records to insert (all from the same table)
+    *** @param ignoreDups True to ignore records which already exist (the returned
+    ***                   statement is null if not supported by the DB provider,
+    ***                   see <code>supportsInsertIgnore</code>)
+    *** @return The insert statement, or null if there is nothing to insert
+    *** @throws DBException   If a database error occurs
+    **/
+    public static String getInsertRecordsStatement(java.util.List<? extends DBRecord> recList, boolean ignoreDups)
+        throws DBException
+    {
+
+        /* nothing to insert? */
+        if (ListTools.isEmpty(recList)) {
+            return null;
+        } else
+        if (ignoreDups && !DBProvider.supportsInsertIgnore()) {
+            return null;
+        }
+
+        /* columns (from first record) */
+        DBRecordKey firstKey = recList.get(0).getRecordKey();
+        java.util.List<DBField> insFields = DBProvider._getInsertRecordsFields(firstKey);
+        if (insFields.isEmpty()) {
+            return null;
+        }
+        StringBuffer sb = DBProvider._getInsertRecordsPrefix(firstKey.getTranslatedTableName(), insFields, ignoreDups);
+
+        /* values */
+        // -- INSERT INTO <table> (<column>,...) VALUES (<value>,...),(<value>,...),...
+        for (int r = 0; r < recList.size(); r++) {
+            DBFieldValues fieldValues = recList.get(r).getRecordKey().getFieldValues();
+            if (r > 0) { sb.append(","); }
+            sb.append("(");
+            for (int i = 0; i < insFields.size(); i++) {
+                DBField fld = insFields.get(i);
+                if (i > 0) { sb.append(","); }
+                sb.append(fld.getQValue(fieldValues.getFieldValue(fld.getName(),true)));
+            }
+            sb.append(")");
+        }
+        sb.append(DBProvider._getInsertRecordsSuffix(ignoreDups));
+        return sb.toString();
+
+    }
+
+    /**
+    *** Insert the specified records into their table, as a single JDBC batch of a
+    *** prepared single-record insert statement (within a single transaction).  If any
+    *** record cannot be inserted, none of the records are inserted.
+    *** @param recList    The list of records to insert (all from the same table)
+    *** @param ignoreDups True to ignore records which already exist (requires
+    ***                   <code>supportsInsertIgnore</code>)
+    *** @return The number of records inserted (may be less than the actual count if
+    ***         the driver does not report per-statement counts)
+    *** @throws SQLException  If an SQL error occurs
+    *** @throws DBException   If a database error occurs
+    **/
+    public static long insertRecordsIntoTable(java.util.List<? extends DBRecord> recList, boolean ignoreDups)
+        throws SQLException, DBException
+    {
+
+        /* nothing to insert? */
+        if (ListTools.isEmpty(recList)) {
+            return 0L;
+        } else
+        if (ignoreDups && !DBProvider.supportsInsertIgnore()) {
+            throw new DBException("Insert ignoring existing records not supported by DB provider");
+        }
+
+        /* prepared statement (from first record) */
+        DBRecordKey firstKey = recList.get(0).getRecordKey();
+        java.util.List<DBField> insFields = DBProvider._getInsertRecordsFields(firstKey);
+        if (insFields.isEmpty()) {
+            return 0L;
+        }
+        StringBuffer sb = DBProvider._getInsertRecordsPrefix(firstKey.getTranslatedTableName(), insFields, ignoreDups);
+        sb.append("(");
+        for (int i = 0; i < insFields.size(); i++) {
+            if (i > 0) { sb.append(","); }
+            sb.append("?");
+        }
+        sb.append(")");
+        sb.append(DBProvider._getInsertRecordsSuffix(ignoreDups));
+        String  sql     = sb.toString();
+        DBField pf[]    = insFields.toArray(new DBField[insFields.size()]);
+
+        /* parameter values */
+        java.util.List<Object[]> vals = new Vector<Object[]>(recList.size());
+        for (DBRecord rec : recList) {
+            DBFieldValues fieldValues = rec.getRecordKey().getFieldValues();
+            Object pv[] = new Object[pf.length];
+            for (int i = 0; i < pf.length; i++) {
+                pv[i] = fieldValues.getFieldValue(pf[i].getName(),true);
+            }
+            vals.add(pv);
+        }
+
+        /* execute */
+        DBConnection dbc = null;
+        try {
+            dbc = DBConnection.getDefaultConnection();
+            return dbc.executePreparedBatch(sql, pf, vals);
+        } finally {
+            DBConnection.release(dbc);
+        }
+
+    }
+
     /**
     *** Assemble an update statement (and execute) for the specified record and
     *** array of fields to update
@@ -2349,6 +2559,9 @@ public class DBProvider
         DBFieldValues fieldValues = recKey.getFieldValues();
         DBField       field[]     = recKey.getFields();
         boolean       addedField  = false;
+        boolean       prepared    = DBProvider.usePreparedStatements();
+        java.util.List<DBField> prepFld = prepared? new Vector<DBField>() : null;
+        java.util.List<Object>  prepVal = prepared? new Vector<Object>()  : null;
         for (int i = 0; i < field.length; i++) {
             String fldName = field[i].getName();
             // check explicit update field set
@@ -2406,17 +2619,26 @@ public class DBProvider
             // update existing columns
             if (addedField) { sb.append(", "); }
             Object fldVal = fieldValues.getFieldValue(fldName,true);
-            String dbVal  = field[i].getQValue(fldVal);
             //sb.append(DBProvider.getProvider().getStartColumnChar());
             //sb.append(fldName);
             //sb.append(DBProvider.getProvider().getEndColumnChar());
             sb.append(DBProvider.getProvider().quoteColumnName(fldName));
-            sb.append("=").append(dbVal);
+            if (prepared) {
+                sb.append("=?");
+                prepFld.add(field[i]);
+                prepVal.add(fldVal);
+            } else {
+                sb.append("=").append(field[i].getQValue(fldVal));
+            }
             addedField = true;
         } // updated field loop
 
         /* where */
-        sb.append(recKey.getWhereClause(DBWhere.KEY_FULL));
+        if (prepared) {
+            sb.append(recKey.getPreparedWhereClause(prepFld, prepVal));
+        } else {
+            sb.append(recKey.getWhereClause(DBWhere.KEY_FULL));
+        }
         //Print.logInfo("Update SQL: " + sb);
 
         /* execute */
@@ -2424,7 +2646,12 @@ public class DBProvider
             DBConnection dbc = null;
             try {
                 dbc = DBConnection.getDefaultConnection();
-                dbc.executeUpdate(sb.toString());
+                if (prepared) {
+                    DBField pf[] = prepFld.toArray(new DBField[prepFld.size()]);
+                    dbc.executePreparedUpdate(sb.toString(), pf, prepVal.toArray(), false);
+                } else {
+                    dbc.executeUpdate(sb.toString());
+                }
             } catch (SQLException sqle) {
                 Print.logError("SQL(ExecuteUpdate): " + sb);
                 throw sqle; // rethrow exception
@@ -2439,7 +2666,105 @@ public class DBProvider
             Print.logInfo("No columns specified to update!!! [" + xtableName + "]");
             return false;
         }
-        
+
+    }
+
+    /**
+    *** Update the specified set of fields in each of the specified records.  When
+    *** PreparedStatements are in use, records sharing the same update statement are
+    *** updated in a single JDBC batch (one transaction per statement), otherwise each
+    *** record is updated individually.
+    *** @param rcdList   The records to update
+    *** @param updFldSet The set of fields to update (required)
+    *** @return The number of records for which an update was executed
+    *** @throws SQLException  If an SQL error occurs
+    *** @throws DBException   If a database error occurs
+    **/
+    public static int updateRecordsInTable(java.util.List<? extends DBRecord> rcdList, Set<String> updFldSet)
+        throws SQLException, DBException
+    {
+
+        /* nothing to update? */
+        if (ListTools.isEmpty(rcdList) || ListTools.isEmpty(updFldSet)) {
+            return 0;
+        }
+
+        /* not prepared: update individually */
+        if (!DBProvider.usePreparedStatements()) {
+            int count = 0;
+            for (DBRecord rec : rcdList) {
+                if (DBProvider.updateRecordInTable(rec, updFldSet)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /* group parameter values by statement */
+        Map<String,DBField[]>                 stmtFlds = new LinkedHashMap<String,DBField[]>();
+        Map<String,java.util.List<Object[]>>  stmtVals = new LinkedHashMap<String,java.util.List<Object[]>>();
+        for (DBRecord rec : rcdList) {
+            DBRecordKey   recKey      = rec.getRecordKey();
+            String        xtableName  = recKey.getTranslatedTableName();
+            DBFactory     recFact     = recKey.getFactory();
+            Map       existingColumns = recFact.getExistingColumnMap(false);
+            DBFieldValues fieldValues = recKey.getFieldValues();
+            DBField       field[]     = recKey.getFields();
+            StringBuffer  sb          = new StringBuffer();
+            sb.append("UPDATE ").append(xtableName).append(" SET ");
+            java.util.List<DBField> prepFld = new Vector<DBField>();
+            java.util.List<Object>  prepVal = new Vector<Object>();
+            for (int i = 0; i < field.length; i++) {
+                String fldName = field[i].getName();
+                if (!updFldSet.contains(fldName)) {
+                    continue;
+                } else
+                if (!field[i].isUpdateAllowed() || field[i].isAutoIncrement()) {
+                    continue;
+                } else
+                if ((existingColumns != null) && !existingColumns.containsKey(fldName)) {
+                    continue;
+                }
+                if (!prepFld.isEmpty()) { sb.append(", "); }
+                sb.append(DBProvider.getProvider().quoteColumnName(fldName)).append("=?");
+                prepFld.add(field[i]);
+                prepVal.add(fieldValues.getFieldValue(fldName,true));
+            }
+            if (prepFld.isEmpty()) {
+                continue;
+            }
+            sb.append(recKey.getPreparedWhereClause(prepFld, prepVal));
+            String sql = sb.toString();
+            java.util.List<Object[]> vals = stmtVals.get(sql);
+            if (vals == null) {
+                vals = new Vector<Object[]>();
+                stmtVals.put(sql, vals);
+                stmtFlds.put(sql, prepFld.toArray(new DBField[prepFld.size()]));
+            }
+            vals.add(prepVal.toArray());
+        }
+
+        /* execute */
+        int count = 0;
+        for (String sql : stmtVals.keySet()) {
+            java.util.List<Object[]> vals = stmtVals.get(sql);
+            DBConnection dbc = null;
+            try {
+                dbc = DBConnection.getDefaultConnection();
+                dbc.executePreparedBatch(sql, stmtFlds.get(sql), vals);
+                count += vals.size();
+            } catch (SQLException sqle) {
+                Print.logError("SQL(ExecuteBatch): " + sql);
+                throw sqle; // rethrow exception
+            } catch (DBException dbe) {
+                Print.logError("SQL(ExecuteBatch): " + sql);
+                throw dbe; // rethrow exception
+            } finally {
+                DBConnection.release(dbc);
+            }
+        }
+        return count;
+
     }
 
     // ------------------------------------------------------------------------
@@ -3015,6 +3340,26 @@ public class DBProvider
         return ((this.jdbcFlags & FLAGS_OFFSET) != 0);
     }
 
+    /**
+    *** Returns true if the DBProvider supports parameterized PreparedStatements
+    *** @return True if the DBProvider supports parameterized PreparedStatements
+    **/
+    public boolean supportsPreparedStatements()
+    {
+        return ((this.jdbcFlags & FLAGS_PREPARED) != 0);
+    }
+
+    /**
+    *** Returns true if parameterized PreparedStatements should be used for
+    *** record insert/update/select operations
+    *** @return True if PreparedStatements should be used
+    **/
+    public static boolean usePreparedStatements()
+    {
+        return DBProvider.getProvider().supportsPreparedStatements() &&
+            RTConfig.getBoolean(RTKey.DB_PREPARED_STATEMENTS,true);
+    }
+
     // ------------------------------------------------------------------------
 
     /*
@@ -297,9 +297,21 @@ public abstract class DBRecord<gDBR extends DBRecord>
         Statement   stmt  = null;
         ResultSet   rs    = null;
         long        count = 0L;
+        long      startMS = System.currentTimeMillis();
+        Throwable readErr = null;
         try {
-            dbc  = DBConnection.getDefaultConnection();
-            stmt = dbc.execute(dsel.toString());
+            dbc  = DBReplicaRouter.getReadConnection(); // replica, if available
+            try {
+                stmt = dbc.execute(dsel.toString());
+            } catch (SQLException sqe) {
+                if (!DBReplicaRouter.isReplica(dbc)) { throw sqe; }
+                // -- replica failed: retry on primary
+                DBReplicaRouter.recordRead(dbc, startMS, sqe);
+                DBConnection.release(dbc);
+                dbc     = DBConnection.getDefaultConnection();
+                startMS = System.currentTimeMillis();
+                stmt    = dbc.execute(dsel.toString());
+            }
             rs   = stmt.getResultSet();
             if (rs.next()) {
                 // this only has 1 column
@@ -309,10 +321,12 @@ public abstract class DBRecord<gDBR extends DBRecord>
         } catch (SQLException sqe) {
             // Apache Derby may complain that column DBProvider.FLD_COUNT() doesn't exist
             //this.setLastCaughtSQLException(sqe); // getRecordCount(...)
+            readErr = sqe;
             throw new DBException("Record Count", sqe);
         } finally {
             if (rs   != null) { try { rs.close();   } catch (Throwable t) {} }
             if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+            DBReplicaRouter.recordRead(dbc, startMS, readErr);
             DBConnection.release(dbc);
         }
 
@@ -440,6 +454,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     private   Vector<DBChangeListener>  changeNotification      = null;
     
     private   boolean                   isVirtual               = false;
+    private   Set<String>               partialFields           = null;
 
     protected boolean                   isValidating            = false;
     protected SQLException              lastSQLException        = null;
@@ -750,6 +765,74 @@ public abstract class DBRecord<gDBR extends DBRecord>
         DBRecordHandler<T> rcdHandler)
         throws DBException
     {
+        return DBRecord._select(dsel.getFactory(), dsel.toString(), null, null, 
+            dsel.getProjectedFields(), rcdHandler);
+    }
+
+    /**
+    *** Gets an array of DBRecords based on the specified DBSelect, executed as a 
+    *** PreparedStatement with the specified parameters
+    *** @param dsel       The DBSelect selection criteria (containing '?' parameter placeholders)
+    *** @param flds       The fields corresponding to each parameter
+    *** @param vals       The parameter values
+    *** @param rcdHandler The optional DBRecordHandler
+    *** @return The returned array of DBRecords
+    *** @throws DBException If a DB access error occurs
+    **/
+    protected static <T extends DBRecord> T[] select(DBSelect<T> dsel, 
+        DBField flds[], Object vals[],
+        DBRecordHandler<T> rcdHandler)
+        throws DBException
+    {
+        return DBRecord._select(dsel.getFactory(), dsel.toString(), flds, vals, 
+            dsel.getProjectedFields(), rcdHandler);
+    }
+
+    /**
+    *** Gets an array of DBRecords based on the specified parameterized SQL select
+    *** @param fact       The table DBFactory
+    *** @param sql        The SQL select statement containing '?' parameter placeholders
+    *** @param flds       The fields corresponding to each parameter
+    *** @param vals       The parameter values
+    *** @param rcdHandler The optional DBRecordHandler
+    *** @return The returned array of DBRecords
+    *** @throws DBException If a DB access error occurs
+    **/
+    protected static <T extends DBRecord> T[] select(DBFactory<T> fact, 
+        String sql, DBField flds[], Object vals[],
+        DBRecordHandler<T> rcdHandler)
+        throws DBException
+    {
+        return DBRecord._select(fact, sql, flds, vals, null, rcdHandler);
+    }
+
+    /**
+    *** Executes the specified SQL select on the specified connection.  If 'flds' 
+    *** is non-null, the SQL select is executed as a PreparedStatement.
+    **/
+    private static Statement _executeRead(DBConnection dbc,
+        String sql, DBField flds[], Object vals[])
+        throws SQLException, DBException
+    {
+        if (flds != null) {
+            return dbc.executePrepared(sql, flds, vals);
+        } else {
+            return dbc.execute(sql);
+        }
+    }
+
+    /**
+    *** Gets an array of DBRecords based on the specified SQL select.  If 'flds' 
+    *** is non-null, the SQL select is executed as a PreparedStatement.  If 'prjFlds'
+    *** is non-null, the SQL select is a projection containing only the primary keys
+    *** and the specified fields, and the returned records are marked as partial.
+    **/
+    private static <T extends DBRecord> T[] _select(DBFactory<T> fact, 
+        String sql, DBField flds[], Object vals[],
+        String prjFlds[],
+        DBRecordHandler<T> rcdHandler)
+        throws DBException
+    {
 
         /* get result set */
         long       rcdCnt = 0L;
@@ -757,11 +840,22 @@ public abstract class DBRecord<gDBR extends DBRecord>
         Statement    stmt = null;
         ResultSet    rs   = null;
         java.util.List<T> rcdList = new Vector<T>();
-        DBFactory<T> fact = dsel.getFactory();
+        long      startMS = System.currentTimeMillis();
+        Throwable readErr = null;
 
         try {
-            dbc  = DBConnection.getDefaultConnection();
-            stmt = dbc.execute(dsel.toString());
+            dbc  = DBReplicaRouter.getReadConnection(); // replica, if available
+            try {
+                stmt = DBRecord._executeRead(dbc, sql, flds, vals);
+            } catch (SQLException sqe) {
+                if (!DBReplicaRouter.isReplica(dbc)) { throw sqe; }
+                // -- replica failed: retry on primary
+                DBReplicaRouter.recordRead(dbc, startMS, sqe);
+                DBConnection.release(dbc);
+                dbc     = DBConnection.getDefaultConnection();
+                startMS = System.currentTimeMillis();
+                stmt    = DBRecord._executeRead(dbc, sql, flds, vals);
+            }
             rs   = stmt.getResultSet();
             /* extract records from result set */
             T lastRcd = null; // last/prior record
@@ -770,8 +864,15 @@ public abstract class DBRecord<gDBR extends DBRecord>
                 DBRecordKey<T> rcdKey = fact.createKey(rs); // may throw DBException
                 if (rcdKey != null) {
                     T rcd = rcdKey.getDBRecord();
-                    rcd.setAllFieldValues(rs); // TODO: possible bug
-                    //rcd.setAllFieldValues(rs, dsel.getSelectedFields());
+                    if (prjFlds == null) {
+                        rcd.setAllFieldValues(rs); // TODO: possible bug
+                    } else {
+                        // -- projection: only the selected columns are present
+                        if (prjFlds.length > 0) {
+                            rcd.setAllFieldValues(rs, prjFlds);
+                        }
+                        rcd.setPartialFields(prjFlds);
+                    }
                     if (rcdHandler != null) {
                         int rcdStatus = rcdHandler.handleDBRecord(rcd);
                         if (rcdStatus == DBRecordHandler.DBRH_SKIP) {
@@ -823,6 +924,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
             }
         } catch (SQLException sqe) {
             //this.setLastCaughtSQLException(sqe); // select(...)
+            readErr = sqe;
             throw new DBException("Record Selection (Record #"+rcdCnt+")", sqe);
         } catch (java.lang.OutOfMemoryError oome) {
             throw new DBException("Out Of Memory (Record #"+rcdCnt+")", oome);
@@ -830,7 +932,8 @@ public abstract class DBRecord<gDBR extends DBRecord>
             throw new DBException("Unexpected error (Record #"+rcdCnt+")", th);
         } finally {
             if (rs   != null) { try { rs.close();   } catch (Throwable t) {} }
-            if (stmt != null) { try { stmt.close(); } catch (Throwable t) {} }
+            if (dbc  != null) { dbc.releaseStatement(stmt); }
+            DBReplicaRouter.recordRead(dbc, startMS, readErr);
             DBConnection.release(dbc);
         }
 
@@ -869,6 +972,10 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public void setChanged(String fieldName)
     {
+        if ((this.partialFields != null) && (fieldName != null)) {
+            // -- explicitly set on a partial record, may now be updated
+            this.partialFields.add(fieldName);
+        }
         this.changed = true;
         this.fireChangeNotification(fieldName);
     }
@@ -883,6 +990,10 @@ public abstract class DBRecord<gDBR extends DBRecord>
     public void setChanged(String fieldName, Object oldVal, Object newVal)
     {
         // called by "<DBFieldValues>.setFieldValue(...)"
+        if ((this.partialFields != null) && (fieldName != null)) {
+            // -- explicitly set on a partial record, may now be updated
+            this.partialFields.add(fieldName);
+        }
         if (oldVal == newVal) {
             // ignore (has not changed)
         } else
@@ -1056,16 +1167,27 @@ public abstract class DBRecord<gDBR extends DBRecord>
             if (!ListTools.isEmpty(fldNames)) {
                 dsel.setSelectedFields(fldNames);
             }
-            String wh = recKey.getWhereClause(DBWhere.KEY_FULL);
-            dsel.setWhere(wh);
+            String wh;
             dbc  = DBConnection.getDefaultConnection();
-            stmt = dbc.execute(dsel.toString());
+            if (DBProvider.usePreparedStatements()) {
+                java.util.List<DBField> prepFld = new Vector<DBField>();
+                java.util.List<Object>  prepVal = new Vector<Object>();
+                wh = recKey.getPreparedWhereClause(prepFld, prepVal);
+                dsel.setWhere(wh);
+                stmt = dbc.executePrepared(dsel.toString(), 
+                    prepFld.toArray(new DBField[prepFld.size()]), prepVal.toArray());
+            } else {
+                wh = recKey.getWhereClause(DBWhere.KEY_FULL);
+                dsel.setWhere(wh);
+                stmt = dbc.execute(dsel.toString());
+            }
             rs   = stmt.getResultSet();
             if (rs.next()) {
                 if (!ListTools.isEmpty(fldNames)) {
                     this.setAllFieldValues(rs, fldNames); // exclude primary keys
                 } else {
                     this.setAllFieldValues(rs); // exclude primary keys
+                    this.setPartialFields((String[])null); // all fields loaded
                     this.clearChanged();
                 }
                 return (gDBR)this;    // "unchecked cast"
@@ -1079,7 +1201,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
             throw new DBException("Reload", sqe);
         } finally {
             if (rs   != null) { try{ rs.close();   } catch (Throwable t) {} }
-            if (stmt != null) { try{ stmt.close(); } catch (Throwable t) {} }
+            if (dbc  != null) { dbc.releaseStatement(stmt); }
             DBConnection.release(dbc);
         }
     }
@@ -1514,25 +1636,21 @@ public abstract class DBRecord<gDBR extends DBRecord>
         /* save allowed? */
         if (!this.isOkToSave()) {
             throw new DBException("Update not allowed");
+        } else
+        if (this.isPartial()) {
+            throw new DBException("Insert not allowed (partial record): " + this.getRecordKey());
         }
 
         /* insert */
         try {
 
-            /* creation time/user */
-            long nowTimeMS = DateTime.getCurrentTimeMillis();
-            long nowTime   = nowTimeMS / 1000L;
-            this.setCreationMillis(nowTimeMS);
-            this.setCreationTime(nowTime);
-
-            /* last update time */
-            this.setLastUpdateTime(nowTime);
-            this.setLastUpdateAccount(DBRecord.GetCurrentAccount(),true);
-            this.setLastUpdateUser(DBRecord.GetCurrentUser(),true);
+            /* creation/last-update time/user */
+            this._setInsertValues();
 
             /* insert */
             this.recordWillInsert();
             DBProvider.insertRecordIntoTable(this);
+            DBRecordCache.invalidate(this.getRecordKey());
             this.recordDidInsert();
 
             /* clear changes */
@@ -1551,6 +1669,115 @@ public abstract class DBRecord<gDBR extends DBRecord>
         }
     }
 
+    /**
+    *** Sets the creation and last-update time/user values prior to insertion
+    **/
+    private void _setInsertValues()
+    {
+
+        /* creation time/user */
+        long nowTimeMS = DateTime.getCurrentTimeMillis();
+        long nowTime   = nowTimeMS / 1000L;
+        this.setCreationMillis(nowTimeMS);
+        this.setCreationTime(nowTime);
+
+        /* last update time */
+        this.setLastUpdateTime(nowTime);
+        this.setLastUpdateAccount(DBRecord.GetCurrentAccount(),true);
+        this.setLastUpdateUser(DBRecord.GetCurrentUser(),true);
+
+    }
+
+    /**
+    *** Prepares the specified records for insertion (see <code>insert</code>).  All 
+    *** records must be from the same table.  The caller is responsible for inserting
+    *** the records (ie. <code>DBProvider.insertRecordsIntoTable</code>), then calling 
+    *** <code>recordsDidInsert</code>.
+    *** @param rcdList  The list of records to insert
+    *** @throws DBException if a record may not be saved
+    **/
+    public static void prepareInsertRecords(java.util.List<? extends DBRecord> rcdList)
+        throws DBException
+    {
+        if (ListTools.isEmpty(rcdList)) {
+            return;
+        }
+        for (DBRecord rcd : rcdList) {
+            if (!rcd.isOkToSave()) {
+                throw new DBException("Update not allowed");
+            }
+            rcd._setInsertValues();
+            rcd.recordWillInsert();
+        }
+    }
+
+    /**
+    *** Callback after the records prepared by <code>prepareInsertRecords</code> have
+    *** been inserted
+    *** @param rcdList  The list of inserted records
+    **/
+    public static void recordsDidInsert(java.util.List<? extends DBRecord> rcdList)
+    {
+        if (rcdList != null) {
+            for (DBRecord rcd : rcdList) {
+                DBRecordCache.invalidate(rcd.getRecordKey());
+                rcd.recordDidInsert();
+                rcd.clearChanged();
+            }
+        }
+    }
+
+    /**
+    *** Updates the specified fields in each of the specified records, using a single
+    *** batched update (per table) where supported.  A failure rolls back the entire
+    *** batch, in which case the caller may retry the records individually.
+    *** @param rcdList    The list of records to update
+    *** @param updFldSet  The Set of fields to update (required)
+    *** @throws DBException if a database error occurs.
+    **/
+    public static void updateRecords(java.util.List<? extends DBRecord> rcdList, Set<String> updFldSet)
+        throws DBException
+    {
+        if (ListTools.isEmpty(rcdList) || ListTools.isEmpty(updFldSet)) {
+            return;
+        }
+
+        /* update time/user */
+        Set<String> fldSet  = new HashSet<String>(updFldSet);
+        long        nowTime = DateTime.getCurrentTimeSec();
+        String    updAcctID = DBRecord.GetCurrentAccount();
+        String    updUserID = DBRecord.GetCurrentUser();
+        for (DBRecord rcd : rcdList) {
+            if (!rcd.isOkToSave()) {
+                throw new DBException("Update not allowed");
+            }
+            if (rcd.setLastUpdateTime(nowTime))          { fldSet.add(FLD_lastUpdateTime);    }
+            if (rcd.setLastUpdateAccount(updAcctID,false)) { fldSet.add(FLD_lastUpdateAccount); }
+            if (rcd.setLastUpdateUser(updUserID,false))    { fldSet.add(FLD_lastUpdateUser);    }
+        }
+        for (DBRecord rcd : rcdList) {
+            // -- an unloaded field would be overwritten with its default value
+            String unloaded = rcd.getUnloadedField(fldSet);
+            if (unloaded != null) {
+                throw new DBException("Update not allowed (partial record, field '" + unloaded + "' not loaded): " + rcd.getRecordKey());
+            }
+            rcd.recordWillUpdate();
+        }
+
+        /* update */
+        try {
+            DBProvider.updateRecordsInTable(rcdList, fldSet);
+        } catch (SQLException sqe) {
+            throw new DBException("Update records [" + rcdList.size() + "]", sqe);
+        }
+        for (DBRecord rcd : rcdList) {
+            DBRecordCache.recordDidUpdate(rcd, fldSet);
+            rcd.recordDidUpdate();
+            rcd.clearChanged();
+        }
+
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -1590,6 +1817,10 @@ public abstract class DBRecord<gDBR extends DBRecord>
         /* save allowed? */
         if (!this.isOkToSave()) {
             throw new DBException("Update not allowed");
+        } else
+        if (this.isPartial() && (updFldSet == null)) {
+            // -- a full update would overwrite the unloaded fields with default values
+            throw new DBException("Update not allowed (partial record): " + this.getRecordKey());
         }
         
         /* update */
@@ -1605,11 +1836,17 @@ public abstract class DBRecord<gDBR extends DBRecord>
                 if (updTime) { updFldSet.add(FLD_lastUpdateTime);    }
                 if (updAcct) { updFldSet.add(FLD_lastUpdateAccount); }
                 if (updUser) { updFldSet.add(FLD_lastUpdateUser);    }
+                // -- an unloaded field would be overwritten with its default value
+                String unloaded = this.getUnloadedField(updFldSet);
+                if (unloaded != null) {
+                    throw new DBException("Update not allowed (partial record, field '" + unloaded + "' not loaded): " + this.getRecordKey());
+                }
             }
 
             /* update */
             this.recordWillUpdate();
             DBProvider.updateRecordInTable(this, updFldSet);
+            DBRecordCache.recordDidUpdate(this, updFldSet);
             this.recordDidUpdate();
             
             /* clear changed fields */
@@ -1710,6 +1947,62 @@ public abstract class DBRecord<gDBR extends DBRecord>
         return this.isVirtual;
     }
 
+    /**
+    *** Marks this DBRecord as partial, containing only the primary keys and the 
+    *** specified field values (ie. read from a projected DBSelect).  A partial record 
+    *** may not be inserted, or fully updated, but may be updated by explicitly 
+    *** specifying the fields to update, provided that each of the fields was either
+    *** loaded or has since been set.
+    *** @param fldNames  The loaded (non-key) field names, or null to clear the partial state
+    **/
+    public void setPartialFields(String... fldNames)
+    {
+        this.partialFields = (fldNames != null)? ListTools.toSet(fldNames,new HashSet<String>()) : null;
+    }
+
+    /**
+    *** Returns true if this DBRecord is partial (contains only a subset of the field values)
+    **/
+    public boolean isPartial()
+    {
+        return (this.partialFields != null);
+    }
+
+    /**
+    *** Returns true if the specified field value has been loaded into this DBRecord.
+    *** (always true if this DBRecord is not partial)
+    **/
+    public boolean isLoadedField(String fldName)
+    {
+        if (this.partialFields == null) {
+            return true;
+        } else
+        if (this.partialFields.contains(fldName)) {
+            return true;
+        } else {
+            DBField fld = this._getFactory().getField(fldName);
+            return (fld != null) && fld.isPrimaryKey();
+        }
+    }
+
+    /**
+    *** Gets the first of the specified fields which has not been loaded into (or set in)
+    *** this partial DBRecord
+    *** @param fldNames  The field names to check
+    *** @return The first unloaded field name, or null if all fields are loaded
+    **/
+    protected String getUnloadedField(Collection<String> fldNames)
+    {
+        if ((this.partialFields != null) && (fldNames != null)) {
+            for (String fn : fldNames) {
+                if (!this.isLoadedField(fn)) {
+                    return fn;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
     *** Returns true if this DBRecord is ok to save
     **/
@@ -2266,15 +2559,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public boolean getOptionalFieldValue(String fldName, boolean dft)
     {
-        Object obj = this.getOptionalFieldValue(fldName);
-        if (obj instanceof Boolean) {
-            return ((Boolean)obj).booleanValue();
-        } else 
-        if (obj instanceof Number) {
-            return (((Number)obj).intValue() != 0)? true : false;
-        } else {
-            return dft;
-        }
+        return this.getRecordKey().getFieldValues().getFieldBoolean(fldName, false, dft);
     }
 
     /**
@@ -2287,15 +2572,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public boolean getFieldValue(String fldName, boolean dft)
     {
-        Object obj = this.getFieldValue(fldName);
-        if (obj instanceof Boolean) {
-            return ((Boolean)obj).booleanValue();
-        } else 
-        if (obj instanceof Number) {
-            return (((Number)obj).intValue() != 0)? true : false;
-        } else {
-            return dft;
-        }
+        return this.getRecordKey().getFieldValues().getFieldBoolean(fldName, true, dft);
     }
 
     /**
@@ -2359,8 +2636,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public int getOptionalFieldValue(String fldName, int dft)
     {
-        Object obj = this.getOptionalFieldValue(fldName);
-        return (obj instanceof Number)? ((Number)obj).intValue() : dft;
+        return this.getRecordKey().getFieldValues().getFieldInt(fldName, false, dft);
     }
 
     /**
@@ -2373,8 +2649,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public int getFieldValue(String fldName, int dft)
     {
-        Object obj = this.getFieldValue(fldName);
-        return (obj instanceof Number)? ((Number)obj).intValue() : dft;
+        return this.getRecordKey().getFieldValues().getFieldInt(fldName, true, dft);
     }
 
     /**
@@ -2438,8 +2713,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public long getOptionalFieldValue(String fldName, long dft)
     {
-        Object obj = this.getOptionalFieldValue(fldName);
-        return (obj instanceof Number)? ((Number)obj).longValue() : dft;
+        return this.getRecordKey().getFieldValues().getFieldLong(fldName, false, dft);
     }
 
     /**
@@ -2452,8 +2726,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public long getFieldValue(String fldName, long dft)
     {
-        Object obj = this.getFieldValue(fldName);
-        return (obj instanceof Number)? ((Number)obj).longValue() : dft;
+        return this.getRecordKey().getFieldValues().getFieldLong(fldName, true, dft);
     }
 
     /**
@@ -2517,8 +2790,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public float getOptionalFieldValue(String fldName, float dft)
     {
-        Object obj = this.getOptionalFieldValue(fldName);
-        return (obj instanceof Number)? ((Number)obj).floatValue() : dft;
+        return this.getRecordKey().getFieldValues().getFieldFloat(fldName, false, dft);
     }
 
     /**
@@ -2531,8 +2803,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public float getFieldValue(String fldName, float dft)
     {
-        Object obj = this.getFieldValue(fldName);
-        return (obj instanceof Number)? ((Number)obj).floatValue() : dft;
+        return this.getRecordKey().getFieldValues().getFieldFloat(fldName, true, dft);
     }
 
     /**
@@ -2596,8 +2867,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public double getOptionalFieldValue(String fldName, double dft)
     {
-        Object obj = this.getOptionalFieldValue(fldName);
-        return (obj instanceof Number)? ((Number)obj).doubleValue() : dft;
+        return this.getRecordKey().getFieldValues().getFieldDouble(fldName, false, dft);
     }
 
     /**
@@ -2610,8 +2880,7 @@ public abstract class DBRecord<gDBR extends DBRecord>
     **/
     public double getFieldValue(String fldName, double dft)
     {
-        Object obj = this.getFieldValue(fldName);
-        return (obj instanceof Number)? ((Number)obj).doubleValue() : dft;
+        return this.getRecordKey().getFieldValues().getFieldDouble(fldName, true, dft);
     }
 
     /**
@@ -0,0 +1,528 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Per-table DBRecord cache with local and cross-node invalidation
+// ----------------------------------------------------------------------------
+package org.opengts.dbtools;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.opengts.util.*;
+
+/**
+*** <code>DBRecordCache</code> caches records of a single table by primary key, so that
+*** frequently read records (ie. Account/Device) do not require a DB select on each
+*** lookup.<br>
+*** The cache holds private copies of the records.  <code>put</code> stores a copy of the
+*** specified record, and <code>get</code> returns a new copy on each call, so callers may
+*** freely modify (and save) the returned record without affecting other callers.<br>
+*** Entries are removed when a record of the table is inserted, updated, or deleted within
+*** this JVM (see <code>DBRecord.insert/update</code>, <code>DBRecordKey.delete</code>).  If
+*** an <code>InvalidationChannel</code> is configured ("db.recordCache.channelClass"), the
+*** invalidation is also published to other nodes.  Otherwise changes made by other
+*** processes are picked up when the entry expires.<br>
+*** Updates which only change the table "local" fields (see
+*** <code>DBFactory.setRecordCacheLocalFields</code>, ie. the Device last-event fields
+*** updated for each received event) are written through to the cached record instead,
+*** and are not published.  Other nodes pick up these fields when their entry expires.<br>
+*** The cache is enabled with "db.recordCache.enable=true".  The size/age for a table may
+*** be overridden with "db.recordCache.size.&lt;Table&gt;" and
+*** "db.recordCache.ageSec.&lt;Table&gt;".
+**/
+
+public class DBRecordCache<gDBR extends DBRecord>
+{
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if record caching is enabled
+    **/
+    public static boolean isEnabled()
+    {
+        return RTConfig.getBoolean(RTKey.DB_RECORD_CACHE, false);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Receives invalidations published by other nodes
+    **/
+    public interface InvalidationListener
+    {
+        /**
+        *** Called when a record (or table) has been invalidated on another node
+        *** @param utableName  The untranslated table name
+        *** @param key         The record key, or null to invalidate the entire table
+        **/
+        public void invalidated(String utableName, String key);
+    }
+
+    /**
+    *** Message channel used to publish invalidations to other nodes
+    **/
+    public interface InvalidationChannel
+    {
+        /**
+        *** Sets the listener which receives invalidations from other nodes
+        **/
+        public void setListener(InvalidationListener listener);
+        /**
+        *** Publishes an invalidation to other nodes
+        *** @param utableName  The untranslated table name
+        *** @param key         The record key, or null to invalidate the entire table
+        **/
+        public void publish(String utableName, String key);
+    }
+
+    /**
+    *** In-process InvalidationChannel.  Each instance represents a node, and invalidations
+    *** published by an instance are delivered to the listeners of all other instances
+    *** in this JVM.  Used for testing cross-node invalidation without a message broker.
+    **/
+    public static class LocalInvalidationChannel
+        implements InvalidationChannel
+    {
+        private static Vector<LocalInvalidationChannel> nodes = new Vector<LocalInvalidationChannel>();
+        private InvalidationListener listener = null;
+        public LocalInvalidationChannel() {
+            LocalInvalidationChannel.nodes.add(this);
+        }
+        public void setListener(InvalidationListener listener) {
+            this.listener = listener;
+        }
+        public void publish(String utableName, String key) {
+            for (LocalInvalidationChannel node : new Vector<LocalInvalidationChannel>(LocalInvalidationChannel.nodes)) {
+                if ((node != this) && (node.listener != null)) {
+                    node.listener.invalidated(utableName, key);
+                }
+            }
+        }
+        public void close() {
+            LocalInvalidationChannel.nodes.remove(this);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static Map<String,DBRecordCache<? extends DBRecord>> cacheMap = new HashMap<String,DBRecordCache<? extends DBRecord>>();
+    private static InvalidationChannel  channel         = null;
+    private static boolean              channelInit     = false;
+
+    /**
+    *** Gets the registered DBRecordCache for the specified table
+    **/
+    private static DBRecordCache<? extends DBRecord> _getCache(String utableName)
+    {
+        synchronized (DBRecordCache.cacheMap) {
+            return DBRecordCache.cacheMap.get(utableName);
+        }
+    }
+
+    /**
+    *** Sets the InvalidationChannel (overrides "db.recordCache.channelClass")
+    **/
+    public static void setInvalidationChannel(InvalidationChannel chan)
+    {
+        synchronized (DBRecordCache.cacheMap) {
+            DBRecordCache.channel     = chan;
+            DBRecordCache.channelInit = true;
+            if (chan != null) {
+                chan.setListener(new InvalidationListener() {
+                    public void invalidated(String utableName, String key) {
+                        DBRecordCache<? extends DBRecord> cache = DBRecordCache._getCache(utableName);
+                        if (cache != null) {
+                            cache.remoteCount.incrementAndGet();
+                            cache._invalidate(key);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+    *** Gets the configured InvalidationChannel
+    *** @return The InvalidationChannel, or null if not configured
+    **/
+    private static InvalidationChannel _getInvalidationChannel()
+    {
+        if (!DBRecordCache.channelInit) {
+            InvalidationChannel chan = null;
+            String chanClass = RTConfig.getString(RTKey.DB_RECORD_CACHE_CHANNEL, null);
+            if (!StringTools.isBlank(chanClass)) {
+                try {
+                    chan = (InvalidationChannel)Class.forName(chanClass).newInstance();
+                    Print.logInfo("DBRecordCache invalidation channel: " + chanClass);
+                } catch (Throwable th) { // ClassNotFoundException, ClassCastException, ...
+                    Print.logException("Unable to create DBRecordCache invalidation channel: " + chanClass, th);
+                }
+            }
+            DBRecordCache.setInvalidationChannel(chan);
+        }
+        return DBRecordCache.channel;
+    }
+
+    /**
+    *** Publishes an invalidation to other nodes
+    **/
+    private static void _publish(String utableName, String key)
+    {
+        InvalidationChannel chan = DBRecordCache._getInvalidationChannel();
+        if (chan != null) {
+            try {
+                chan.publish(utableName, key);
+            } catch (Throwable th) {
+                Print.logException("DBRecordCache invalidation publish failed: " + utableName, th);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Removes the specified record from the cache of its table (if any), and
+    *** publishes the invalidation to other nodes
+    *** @param rcdKey  The key of the inserted/updated/deleted record
+    **/
+    public static void invalidate(DBRecordKey<? extends DBRecord> rcdKey)
+    {
+        if (rcdKey != null) {
+            DBRecordCache<? extends DBRecord> cache = rcdKey.getFactory()._getRecordCacheIfPresent();
+            if (cache != null) {
+                String key = rcdKey.toString();
+                cache._invalidate(key);
+                DBRecordCache._publish(cache.getTableName(), key);
+            }
+        }
+    }
+
+    /**
+    *** Updates the cached copy of the specified record after the specified fields have
+    *** been updated in the DB.  If only the table "local" fields were updated, the new
+    *** values are written through to the cached copy (and not published), otherwise the
+    *** record is invalidated (see <code>invalidate</code>).
+    *** @param rcd        The updated record
+    *** @param updFldSet  The updated fields (null if all fields were updated)
+    **/
+    public static void recordDidUpdate(DBRecord rcd, Set<String> updFldSet)
+    {
+        if (rcd != null) {
+            DBRecordKey<? extends DBRecord> rcdKey = rcd.getRecordKey();
+            DBRecordCache<? extends DBRecord> cache = rcdKey.getFactory()._getRecordCacheIfPresent();
+            if ((cache != null) && !cache._writeThrough(rcdKey.toString(), rcd, updFldSet)) {
+                DBRecordCache.invalidate(rcdKey);
+            }
+        }
+    }
+
+    /**
+    *** Removes all records from the cache of the specified table (if any), and
+    *** publishes the invalidation to other nodes
+    *** @param utableName  The untranslated table name
+    **/
+    public static void invalidateTable(String utableName)
+    {
+        DBRecordCache<? extends DBRecord> cache = DBRecordCache._getCache(utableName);
+        if (cache != null) {
+            cache._invalidate(null);
+            DBRecordCache._publish(utableName, null);
+        }
+    }
+
+    /**
+    *** Gets the statistics for all DBRecordCaches
+    **/
+    public static String getAllStatistics()
+    {
+        java.util.List<DBRecordCache<? extends DBRecord>> list;
+        synchronized (DBRecordCache.cacheMap) {
+            list = new Vector<DBRecordCache<? extends DBRecord>>(DBRecordCache.cacheMap.values());
+        }
+        StringBuffer sb = new StringBuffer();
+        for (DBRecordCache<? extends DBRecord> cache : list) {
+            if (sb.length() > 0) { sb.append("\n"); }
+            sb.append(cache.getStatistics());
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Cached record holder.  The record may be replaced by a write-through update
+    *** without changing the age of the cache entry.
+    **/
+    private static class CachedRecord<R extends DBRecord>
+    {
+        private volatile R rcd = null;
+        public CachedRecord(R rcd) {
+            this.rcd = rcd;
+        }
+    }
+
+    private static final long       TOMBSTONE_MS    = 60000L; // max time between "getGeneration" and "put"
+
+    private DBFactory<gDBR>         factory         = null;
+    private MemCache<String,CachedRecord<gDBR>> memCache = null;
+    private Set<String>             localFields     = null;
+
+    private AtomicLong              sequence        = new AtomicLong(0L);
+    private long                    tableSeq        = 0L; // sequence of last table invalidation
+    private long                    purgedSeq       = 0L; // highest sequence of a purged tombstone
+    private LinkedHashMap<String,long[]> tombstones = new LinkedHashMap<String,long[]>(); // key -> {seq,timeMS}
+
+    private AtomicLong              hitCount        = new AtomicLong(0L);
+    private AtomicLong              missCount       = new AtomicLong(0L);
+    private AtomicLong              invalidCount    = new AtomicLong(0L);
+    private AtomicLong              remoteCount     = new AtomicLong(0L);
+    private AtomicLong              localCount      = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    *** @param fact    The table DBFactory
+    *** @param maxSize The maximum number of cached records
+    *** @param ageSec  The maximum age of a cached record (seconds)
+    **/
+    public DBRecordCache(DBFactory<gDBR> fact, int maxSize, long ageSec)
+    {
+        this.factory  = fact;
+        this.memCache = new MemCache<String,CachedRecord<gDBR>>(maxSize);
+        this.memCache.setMaximumEntryAgeMS(ageSec * 1000L);
+        String lf[] = fact.getRecordCacheLocalFields();
+        if (!ListTools.isEmpty(lf)) {
+            this.localFields = ListTools.toSet(lf, new HashSet<String>());
+            this.localFields.add(DBRecord.FLD_lastUpdateTime);
+            this.localFields.add(DBRecord.FLD_lastUpdateAccount);
+            this.localFields.add(DBRecord.FLD_lastUpdateUser);
+        }
+        synchronized (DBRecordCache.cacheMap) {
+            DBRecordCache.cacheMap.put(this.getTableName(), this);
+        }
+        DBRecordCache._getInvalidationChannel(); // register listener
+        Print.logInfo("New DBRecordCache: " + this.getTableName() + " [max=" + this.memCache.getMaximumCacheSize() + ", ageSec=" + ageSec + "]");
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the (untranslated) table name
+    **/
+    public String getTableName()
+    {
+        return this.factory.getUntranslatedTableName();
+    }
+
+    /**
+    *** Gets the current invalidation generation.  This value should be obtained before
+    *** reading a record from the DB, and passed to <code>put</code>, so that a record which
+    *** was changed while it was being read is not cached.  Only changes to the same record
+    *** (or to the entire table) prevent the record from being cached.
+    **/
+    public long getGeneration()
+    {
+        return this.sequence.get();
+    }
+
+    /**
+    *** Records that the specified record (or all records) changed at a new generation, so
+    *** that a concurrent <code>put</code> of a copy read before the change is discarded.
+    *** Tombstones older than TOMBSTONE_MS are removed.
+    *** Must be called while synchronized on "memCache".
+    **/
+    private void _tombstone(String key)
+    {
+        long seq   = this.sequence.incrementAndGet();
+        long nowMS = System.currentTimeMillis();
+        if (key == null) {
+            this.tableSeq = seq;
+            this.tombstones.clear();
+            return;
+        }
+        this.tombstones.remove(key); // re-insert at end (insertion order)
+        this.tombstones.put(key, new long[] { seq, nowMS });
+        for (Iterator<long[]> i = this.tombstones.values().iterator(); i.hasNext();) {
+            long t[] = i.next();
+            if ((nowMS - t[1]) < TOMBSTONE_MS) {
+                break;
+            }
+            this.purgedSeq = Math.max(this.purgedSeq, t[0]);
+            i.remove();
+        }
+    }
+
+    /**
+    *** Returns true if the specified record key changed after the specified generation.
+    *** Must be called while synchronized on "memCache".
+    **/
+    private boolean _changedSince(String key, long generation)
+    {
+        if ((generation < this.tableSeq) || (generation < this.purgedSeq)) {
+            return true;
+        }
+        long t[] = this.tombstones.get(key);
+        return ((t != null) && (t[0] > generation));
+    }
+
+    /**
+    *** Creates a copy of the specified record
+    **/
+    @SuppressWarnings("unchecked")
+    private gDBR _copy(gDBR rcd)
+        throws DBException
+    {
+        DBRecordKey<gDBR> srcKey = (DBRecordKey<gDBR>)rcd.getRecordKey(); // unchecked cast
+        DBFieldValues srcVals = srcKey.getFieldValues();
+        DBRecordKey<gDBR> key = this.factory.createKey();
+        for (DBField kf : this.factory.getKeyFields()) {
+            key.setKeyValue(kf.getName(), srcVals.getFieldValue(kf.getName()));
+        }
+        gDBR copy = key.getDBRecord();
+        copy.setAllFieldValues(rcd);
+        copy.clearChanged();
+        return copy;
+    }
+
+    /**
+    *** Gets a copy of the cached record for the specified key
+    *** @param rcdKey  The record key
+    *** @return A copy of the cached record, or null if the record is not cached
+    **/
+    public gDBR get(DBRecordKey<gDBR> rcdKey)
+    {
+        if (rcdKey == null) {
+            return null;
+        }
+        CachedRecord<gDBR> cr = this.memCache.getValue(rcdKey.toString(), null);
+        gDBR rcd = (cr != null)? cr.rcd : null;
+        if (rcd == null) {
+            this.missCount.incrementAndGet();
+            return null;
+        }
+        try {
+            gDBR copy = this._copy(rcd); // cached record is never modified
+            this.hitCount.incrementAndGet();
+            return copy;
+        } catch (DBException dbe) {
+            Print.logException("DBRecordCache copy error: " + this.getTableName(), dbe);
+            return null;
+        }
+    }
+
+    /**
+    *** Caches a copy of the specified (fully loaded) record
+    *** @param rcd         The record to cache
+    *** @param generation  The invalidation generation obtained (via <code>getGeneration</code>)
+    ***                    before the record was read
+    **/
+    public void put(gDBR rcd, long generation)
+    {
+        if ((rcd == null) || rcd.isPartial() || rcd.hasChanged()) {
+            return; // partial/modified records are not cached
+        }
+        try {
+            gDBR copy = this._copy(rcd);
+            String key = copy.getRecordKey().toString();
+            synchronized (this.memCache) { // coordinate with "_invalidate"
+                if (!this._changedSince(key, generation)) {
+                    this.memCache.addValue(key, new CachedRecord<gDBR>(copy));
+                }
+            }
+        } catch (DBException dbe) {
+            Print.logException("DBRecordCache copy error: " + this.getTableName(), dbe);
+        }
+    }
+
+    /**
+    *** Removes the specified record (or all records) from this cache
+    *** @param key  The record key, or null to remove all records
+    **/
+    private void _invalidate(String key)
+    {
+        synchronized (this.memCache) {
+            this._tombstone(key);
+            if (key != null) {
+                this.memCache.removeValue(key);
+            } else {
+                this.memCache.clearCache();
+            }
+        }
+        this.invalidCount.incrementAndGet();
+    }
+
+    /**
+    *** Writes the specified updated field values through to the cached copy of the record
+    *** (if cached), if all of the updated fields are "local" fields.
+    *** @param key        The record key
+    *** @param rcd        The updated record
+    *** @param updFldSet  The updated fields (null if all fields were updated)
+    *** @return True if the update was written through, false if the record must be invalidated
+    **/
+    private boolean _writeThrough(String key, DBRecord rcd, Set<String> updFldSet)
+    {
+        if ((this.localFields == null) || ListTools.isEmpty(updFldSet) || !this.localFields.containsAll(updFldSet)) {
+            return false;
+        }
+        synchronized (this.memCache) {
+            this._tombstone(key); // discard concurrent puts of the previous values
+            CachedRecord<gDBR> cr = this.memCache.getValue(key, null);
+            if ((cr != null) && (cr.rcd != null)) {
+                try {
+                    gDBR copy = this._copy(cr.rcd); // cached record is never modified
+                    for (String fn : updFldSet) {
+                        copy.setFieldValue(fn, rcd.getFieldValue(fn));
+                    }
+                    copy.clearChanged();
+                    cr.rcd = copy;
+                } catch (DBException dbe) {
+                    Print.logException("DBRecordCache copy error: " + this.getTableName(), dbe);
+                    this.memCache.removeValue(key);
+                }
+            }
+        }
+        this.localCount.incrementAndGet();
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the cache statistics
+    **/
+    public String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("DBRecordCache[").append(this.getTableName()).append("]");
+        sb.append(" size=").append(this.memCache.getSize());
+        sb.append(" max=").append(this.memCache.getMaximumCacheSize());
+        sb.append(" hits=").append(this.hitCount.get());
+        sb.append(" misses=").append(this.missCount.get());
+        sb.append(" invalidated=").append(this.invalidCount.get());
+        sb.append(" remote=").append(this.remoteCount.get());
+        sb.append(" writeThrough=").append(this.localCount.get());
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
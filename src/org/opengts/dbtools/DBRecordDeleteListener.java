@@ -0,0 +1,43 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Optional callback listener for DBRecord deletes
+// ----------------------------------------------------------------------------
+package org.opengts.dbtools;
+
+import java.util.*;
+
+import org.opengts.util.*;
+
+/**
+*** <code>DBRecordDeleteListener</code> optional callback listener for DBRecord deletes.
+*** Registered separately from the <code>DBRecordListener</code> 
+*** (see <code>DBFactory.setRecordDeleteListener</code>).
+**/
+
+public interface DBRecordDeleteListener<gDBR extends DBRecord>
+{
+
+    /**
+    *** Callback after record(s) matching the specified key have been deleted from the table
+    *** @param rcdKey  The key of the deleted record (may be a partial key)
+    **/
+    public void recordDidDelete(DBRecordKey<gDBR> rcdKey);
+
+}
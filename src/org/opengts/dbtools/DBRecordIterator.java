@@ -30,11 +30,17 @@ import org.opengts.util.*;
 
 /**
 *** <code>DBRecordIterator</code> is used to iterate through a DBRecord selection.<br>
-*** This DBRecordIterator currently uses the SQL DB provider OFFSET/LIMIT keywords to
-*** iterate through a selection, and thus is only supported by DB providers that support
-*** these keywords.  This method has the disadvantage that record insertions/deletions 
-*** occurring while this DBRecordIterator is in use may cause this iterator to possibly 
-*** miss some records, or produce duplicate records.
+*** By default, this DBRecordIterator iterates through a selection by keyset (seek):
+*** each block is ordered by the order-by fields followed by the remaining primary
+*** key fields, and selects only the records which follow the last record of the
+*** previous block.  Each block is then an index range scan, regardless of how far
+*** into the selection the iteration has progressed.<br>
+*** If the selection can not be paged by keyset (ie. it is ordered by a non-key field),
+*** the SQL DB provider OFFSET/LIMIT keywords are used instead, which is only supported by
+*** DB providers that support these keywords.  This method has the disadvantage that
+*** the DB must scan all skipped records for each block, and that record
+*** insertions/deletions occurring while this DBRecordIterator is in use may cause this
+*** iterator to possibly miss some records, or produce duplicate records.
 **/
 
 public class DBRecordIterator<DBR extends DBRecord>
@@ -53,6 +59,9 @@ public class DBRecordIterator<DBR extends DBRecord>
     private long                limit           = DEFAULT_LIMIT;
     
     private DBRecordKey<DBR>    lastRecordKey   = null;
+
+    private String              keysetFields[]  = null;
+    private Object              keysetValues[]  = null;
     
     // ------------------------------------------------------------------------
 
@@ -90,21 +99,37 @@ public class DBRecordIterator<DBR extends DBRecord>
     }
 
     /**
-    *** Constructor
+    *** Constructor (keyset pagination if supported by the selection)
     *** @param dbSel The DBSelect instance
-    *** @throws DBException if the DBProvider does not support offset/limit.
+    *** @throws DBException if the DBProvider does not support limit, or the selection
+    ***         requires offset and the DBProvider does not support offset.
     **/
     public DBRecordIterator(DBSelect<DBR> dbSel)
         throws DBException
+    {
+        this(dbSel, true);
+    }
+
+    /**
+    *** Constructor
+    *** @param dbSel     The DBSelect instance
+    *** @param useKeyset True to page by keyset (seek) if supported by the selection, 
+    ***                  false to always page by offset/limit.
+    *** @throws DBException if the DBProvider does not support limit, or the selection
+    ***         requires offset and the DBProvider does not support offset.
+    **/
+    public DBRecordIterator(DBSelect<DBR> dbSel, boolean useKeyset)
+        throws DBException
     {
         super();
         this.iterator   = null;
         this.dbSelector = dbSel;
         if (this.dbSelector != null) {
+            this.keysetFields = useKeyset? this.dbSelector.getKeysetFields() : null;
             if (!this.dbSelector.supportsLimit()) {
                 throw new DBException("DB provider does not support LIMIT");
             } else
-            if (!this.dbSelector.supportsOffset()) {
+            if ((this.keysetFields == null) && !this.dbSelector.supportsOffset()) {
                 throw new DBException("DB provider does not support OFFSET");
             }
         }
@@ -130,6 +155,16 @@ public class DBRecordIterator<DBR extends DBRecord>
         this.limit = (limit > 0L)? limit : DEFAULT_LIMIT;
     }
     
+    /**
+    *** Returns true if this iterator pages through the selection by keyset (seek),
+    *** false if by offset/limit
+    *** @return True if paging by keyset
+    **/
+    public boolean isKeysetPagination()
+    {
+        return (this.keysetFields != null);
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -166,6 +201,37 @@ public class DBRecordIterator<DBR extends DBRecord>
         }
     }
 
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Passes each remaining DBRecord to the specified handler, until the records are
+    *** exhausted, or the handler returns a "stop" indicator.  Records are not saved.
+    *** @param rcdHandler  The DBRecordHandler
+    *** @return The number of records passed to the handler
+    *** @throws DBException if a DB access error occurs, or is thrown by the handler
+    **/
+    public long handleRecords(DBRecordHandler<DBR> rcdHandler)
+        throws DBException
+    {
+        long count = 0L;
+        while (this.hasNext()) {
+            DBR rcd;
+            try {
+                rcd = this.next();
+            } catch (DBNotFoundException dbnfe) {
+                break; // not likely to occur
+            }
+            count++;
+            if (rcdHandler != null) {
+                int rtn = rcdHandler.handleDBRecord(rcd);
+                if ((rtn & DBRecordHandler.DBRH_STOP) != 0) {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -199,8 +265,13 @@ public class DBRecordIterator<DBR extends DBRecord>
             throw new DBNotFoundException("No db selector");
         }
         
-        /* offset/limit */
-        this.dbSelector.setOffset(this.offset);
+        /* keyset or offset/limit */
+        if (this.keysetFields != null) {
+            this.dbSelector.setOffset(0L);
+            this.dbSelector.setKeysetCursor(this.keysetFields, this.keysetValues);
+        } else {
+            this.dbSelector.setOffset(this.offset);
+        }
         this.dbSelector.setLimit(this.limit);
         this.dbSelector.setLastRecordKey(this.lastRecordKey);
 
@@ -220,11 +291,20 @@ public class DBRecordIterator<DBR extends DBRecord>
             this.dbSelector = null;
             this.iterator = null;
             this.lastRecordKey = null;
+            this.keysetValues = null;
             throw new DBNotFoundException("No more records");
         }
         
         /* last record retrieved */
-        this.lastRecordKey = rcdArry[rcdArry.length - 1].getRecordKey(); // "unchecked cast"
+        DBR lastRcd = rcdArry[rcdArry.length - 1];
+        this.lastRecordKey = lastRcd.getRecordKey(); // "unchecked cast"
+        if (this.keysetFields != null) {
+            Object val[] = new Object[this.keysetFields.length];
+            for (int i = 0; i < val.length; i++) {
+                val[i] = lastRcd.getFieldValue(this.keysetFields[i]);
+            }
+            this.keysetValues = val;
+        }
 
         /* advance offset */
         this.offset += rcdArry.length;
@@ -492,6 +492,36 @@ public abstract class DBRecordKey<gDBR extends DBRecord>
 
         // DBSelect: SELECT <Keys> FROM <TableName> <KeyWhere>
         String firstKey = kfld[0].getName();
+
+        /* full primary key lookup using a PreparedStatement */
+        if (usePrimaryKey && (whereKeyType == DBWhere.KEY_FULL) && DBProvider.usePreparedStatements()) {
+            java.util.List<DBField> prepFld = new Vector<DBField>();
+            java.util.List<Object>  prepVal = new Vector<Object>();
+            DBSelect<gDBR> psel = new DBSelect<gDBR>(this.getFactory());
+            psel.setSelectedFields(firstKey);
+            psel.setWhere(this.getPreparedWhereClause(prepFld, prepVal));
+            DBConnection dbc  = null;
+            Statement    stmt = null;
+            ResultSet    rs   = null;
+            try {
+                dbc  = DBConnection.getDefaultConnection();
+                stmt = dbc.executePrepared(psel.toString(), 
+                    prepFld.toArray(new DBField[prepFld.size()]), prepVal.toArray());
+                rs   = stmt.getResultSet();
+                return rs.next();
+            } catch (SQLException sqe) {
+                if (sqe.getErrorCode() != DBFactory.SQLERR_TABLE_NOTLOCKED) {
+                    throw sqe;
+                }
+                // -- fall through to the table lock handling below
+            } finally {
+                if (rs   != null) { try { rs.close(); } catch (Throwable t) {} }
+                if (dbc  != null) { dbc.releaseStatement(stmt); }
+                DBConnection.release(dbc);
+            }
+        }
+
+        /* key lookup */
         DBSelect<gDBR> dsel = new DBSelect<gDBR>(this.getFactory());
         dsel.setSelectedFields(firstKey);
         dsel.setWhere(this._getWhereClause(altIndexName, whereKeyType));
@@ -656,6 +686,13 @@ public abstract class DBRecordKey<gDBR extends DBRecord>
             dbc.executeUpdate(ddel.toString());
         } finally {
             DBConnection.release(dbc);
+            if ((altIndexName == null) && (whereKeyType == DBWhere.KEY_FULL)) {
+                DBRecordCache.invalidate(this);
+            } else {
+                // -- partial/alternate key may delete more than one record
+                DBRecordCache.invalidateTable(this.getUntranslatedTableName());
+            }
+            this.getFactory().recordDidDelete(this);
         }
     }
     
@@ -712,6 +749,39 @@ public abstract class DBRecordKey<gDBR extends DBRecord>
         return this._getWhereClause(null, whereKeyType); // primary key 'where'
     }
 
+    /**
+    *** Gets the parameterized 'WHERE' clause for the full primary key of this key.  
+    *** The key fields and values are appended to the specified lists, in the
+    *** order of the '?' placeholders in the returned clause.
+    *** @param prepFld  The list to which the key fields are appended
+    *** @param prepVal  The list to which the key values are appended
+    *** @return The parameterized 'WHERE' clause for this key
+    *** @throws DBException If a key value is missing
+    **/
+    public String getPreparedWhereClause(java.util.List<DBField> prepFld, java.util.List<Object> prepVal)
+        throws DBException
+    {
+        DBField keyFlds[] = this.getKeyFields();
+        if (ListTools.isEmpty(keyFlds)) { 
+            throw new DBException("No keys defined: " + this.getUntranslatedTableName()); 
+        }
+        DBProvider    dbp     = DBProvider.getProvider();
+        DBFieldValues keyVals = this.getKeyValues();
+        StringBuffer  sb      = new StringBuffer(" WHERE ");
+        for (int i = 0; i < keyFlds.length; i++) {
+            String fldName = keyFlds[i].getName();
+            if (!keyVals.hasFieldValue(fldName)) {
+                String m = "Missing key for 'WHERE' clause! [" + this.getUntranslatedTableName() + "." + fldName + "]";
+                throw new DBException(m);
+            }
+            if (i > 0) { sb.append(" AND "); }
+            sb.append("(").append(dbp.quoteColumnName(fldName)).append("=?)");
+            prepFld.add(keyFlds[i]);
+            prepVal.add(keyVals.getFieldValue(fldName));
+        }
+        return sb.toString();
+    }
+
     /**
     *** Return the 'WHERE' clause for this key [CHECK]
     *** @param altIndexName The alternate index name. If null or blank, uses 
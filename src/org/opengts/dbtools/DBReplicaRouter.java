@@ -0,0 +1,508 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Read-replica routing for read-only DB selections
+// ----------------------------------------------------------------------------
+package org.opengts.dbtools;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.sql.*;
+
+import org.opengts.util.*;
+
+/**
+*** Routes read-only selections (ie. "DBRecord.select", "DBRecord.getRecordCount") to
+*** the read-replicas listed in "db.replica.url", chosen by the weights listed in
+*** "db.replica.weight".<br>
+*** A replica is skipped while its replication lag exceeds "db.replica.maxLagSec", or
+*** for "db.replica.errorBackoffMS" after a failed selection, in which case the primary
+*** database is used.  Reads for a read-after-write key (ie. a web session, see
+*** "setReadAfterWriteKey", otherwise the current thread) which has written to the primary
+*** within the last "db.replica.readAfterWriteMS", or from a thread which currently holds
+*** table locks, are also sent to the primary, so that a session always reads its own
+*** writes, regardless of which (pooled) thread handles the following request.<br>
+*** Per-target (primary and replica) read counts, errors, and latency are recorded.
+**/
+
+public class DBReplicaRouter
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final long       DFT_MAX_LAG_SEC         = 30L;
+    public  static final long       DFT_LAG_CHECK_MS        = 10000L;
+    public  static final long       DFT_READ_AFTER_WRITE_MS = 10000L;
+    public  static final long       DFT_ERROR_BACKOFF_MS    = 30000L;
+
+    private static final String     PRIMARY_NAME            = "primary";
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Routing target (primary or replica)
+    **/
+    private static class Target
+    {
+        private String      name        = null;
+        private String      uri         = null;
+        private int         weight      = 1;
+        private boolean     isPrimary   = false;
+        private AtomicLong  readCount   = new AtomicLong(0L);
+        private AtomicLong  errorCount  = new AtomicLong(0L);
+        private AtomicLong  totalMS     = new AtomicLong(0L);
+        private AtomicLong  maxMS       = new AtomicLong(0L);
+        private AtomicLong  lagSkips    = new AtomicLong(0L);
+        private volatile long lagSec      = -1L; // unknown
+        private volatile long lagCheckMS  = 0L;
+        private volatile long errorUntil  = 0L;
+        public Target(String name, String uri, int weight, boolean isPrimary) {
+            this.name      = name;
+            this.uri       = uri;
+            this.weight    = Math.max(weight, 0);
+            this.isPrimary = isPrimary;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static Object               initLock        = new Object();
+    private static volatile Target      replicas[]      = null;
+    private static volatile Target      primary         = null;
+    private static volatile String      replicaUser     = null;
+    private static volatile String      replicaPass     = null;
+
+    private static ThreadLocal<String>  rawKey          = new ThreadLocal<String>();
+    private static Map<String,Long>     lastWriteMS     = new HashMap<String,Long>();
+    private static long                 lastPurgeMS     = 0L;
+
+    /**
+    *** Returns true if read-replicas have been configured
+    **/
+    public static boolean isEnabled()
+    {
+        return !ListTools.isEmpty(DBReplicaRouter._getReplicas());
+    }
+
+    /**
+    *** Gets the configured replica targets
+    **/
+    private static Target[] _getReplicas()
+    {
+        if (DBReplicaRouter.replicas == null) {
+            synchronized (DBReplicaRouter.initLock) {
+                if (DBReplicaRouter.replicas == null) {
+                    String urls[] = RTConfig.getStringArray(RTKey.DB_REPLICA_URL, null);
+                    String wgts[] = RTConfig.getStringArray(RTKey.DB_REPLICA_WEIGHT, null);
+                    java.util.List<Target> list = new Vector<Target>();
+                    if (urls != null) {
+                        for (int i = 0; i < urls.length; i++) {
+                            String uri = StringTools.trim(urls[i]);
+                            if (uri.equals("")) { continue; }
+                            int wgt = ((wgts != null) && (i < wgts.length))? StringTools.parseInt(wgts[i],1) : 1;
+                            if (wgt <= 0) {
+                                Print.logInfo("DB replica disabled (weight=0): " + uri);
+                                continue;
+                            }
+                            list.add(new Target("replica-" + (list.size() + 1), uri, wgt, false));
+                            Print.logInfo("DB replica: " + uri + " [weight=" + wgt + "]");
+                        }
+                    }
+                    DBReplicaRouter.replicaUser = RTConfig.getString(RTKey.DB_REPLICA_USER, null);
+                    DBReplicaRouter.replicaPass = RTConfig.getString(RTKey.DB_REPLICA_PASS, null);
+                    DBReplicaRouter.primary     = new Target(PRIMARY_NAME, null, 0, true);
+                    DBReplicaRouter.replicas    = list.toArray(new Target[list.size()]);
+                }
+            }
+        }
+        return DBReplicaRouter.replicas;
+    }
+
+    /**
+    *** Reloads the replica configuration (statistics are reset)
+    **/
+    public static void reset()
+    {
+        synchronized (DBReplicaRouter.initLock) {
+            DBReplicaRouter.replicas = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // read-after-write
+
+    /**
+    *** Sets the read-after-write key for the current thread (ie. the web session ID), for
+    *** the duration of the current request.  Writes are recorded, and subsequent reads are
+    *** sent to the primary, for this key rather than for the current thread.
+    *** @param key  The read-after-write key, or null to clear (use the current thread)
+    **/
+    public static void setReadAfterWriteKey(String key)
+    {
+        if (StringTools.isBlank(key)) {
+            DBReplicaRouter.rawKey.remove();
+        } else {
+            DBReplicaRouter.rawKey.set(key);
+        }
+    }
+
+    /**
+    *** Gets the read-after-write key for the current thread
+    **/
+    private static String _getReadAfterWriteKey()
+    {
+        String key = DBReplicaRouter.rawKey.get();
+        return (key != null)? key : ("thread-" + Thread.currentThread().getId());
+    }
+
+    /**
+    *** Records that the current read-after-write key (see "setReadAfterWriteKey") has written
+    *** to the primary database.  Subsequent reads for this key are sent to the primary for
+    *** the following "db.replica.readAfterWriteMS" milliseconds.
+    **/
+    public static void markWrite()
+    {
+        if (DBReplicaRouter.isEnabled()) {
+            long nowMS = System.currentTimeMillis();
+            long rawMS = RTConfig.getLong(RTKey.DB_REPLICA_READ_AFTER_WRITE, DFT_READ_AFTER_WRITE_MS);
+            String key = DBReplicaRouter._getReadAfterWriteKey();
+            synchronized (DBReplicaRouter.lastWriteMS) {
+                DBReplicaRouter.lastWriteMS.put(key, new Long(nowMS));
+                if ((nowMS - DBReplicaRouter.lastPurgeMS) >= rawMS) {
+                    // -- remove expired keys
+                    for (Iterator<Long> i = DBReplicaRouter.lastWriteMS.values().iterator(); i.hasNext();) {
+                        if ((nowMS - i.next().longValue()) >= rawMS) {
+                            i.remove();
+                        }
+                    }
+                    DBReplicaRouter.lastPurgeMS = nowMS;
+                }
+            }
+        }
+    }
+
+    /**
+    *** Returns true if reads by the current thread must be sent to the primary
+    **/
+    private static boolean _isPrimaryRequired()
+    {
+
+        /* table locks are held on the primary connection */
+        if (DBProvider.getLockLevel() > 0) {
+            return true;
+        }
+
+        /* read-after-write */
+        String key = DBReplicaRouter._getReadAfterWriteKey();
+        synchronized (DBReplicaRouter.lastWriteMS) {
+            Long lw = DBReplicaRouter.lastWriteMS.get(key);
+            if (lw != null) {
+                long rawMS = RTConfig.getLong(RTKey.DB_REPLICA_READ_AFTER_WRITE, DFT_READ_AFTER_WRITE_MS);
+                if ((System.currentTimeMillis() - lw.longValue()) < rawMS) {
+                    return true;
+                }
+                DBReplicaRouter.lastWriteMS.remove(key);
+            }
+        }
+
+        return false;
+    }
+
+    // ------------------------------------------------------------------------
+    // replication lag
+
+    /**
+    *** Gets the replication lag query for the current DBProvider
+    **/
+    private static String _getLagQuery()
+    {
+        String lagQuery = RTConfig.getString(RTKey.DB_REPLICA_LAG_QUERY, null);
+        if (!StringTools.isBlank(lagQuery)) {
+            return lagQuery;
+        }
+        switch (DBProvider.getProvider().getID()) {
+            case DBProvider.DB_MYSQL:
+                return "SHOW SLAVE STATUS";
+            case DBProvider.DB_POSTGRESQL:
+                return "SELECT CASE WHEN pg_is_in_recovery() THEN " +
+                    "COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())),0) " +
+                    "ELSE 0 END";
+            default:
+                return null; // lag not checked
+        }
+    }
+
+    /**
+    *** Reads the replication lag (in seconds) of the specified replica
+    *** @return The lag in seconds, or Long.MAX_VALUE if the replica is not replicating
+    **/
+    private static long _readLagSec(Target t)
+        throws SQLException, DBException
+    {
+        String lagQuery = DBReplicaRouter._getLagQuery();
+        if (lagQuery == null) {
+            return 0L;
+        }
+        DBConnection dbc  = null;
+        Statement    stmt = null;
+        ResultSet    rs   = null;
+        try {
+            dbc  = DBReplicaRouter._getConnection(t);
+            stmt = dbc.execute(lagQuery);
+            rs   = stmt.getResultSet();
+            if (!rs.next()) {
+                return Long.MAX_VALUE; // not a replica (MySQL: replication not configured)
+            }
+            Object lag;
+            if (lagQuery.toUpperCase().startsWith("SHOW SLAVE STATUS")) {
+                lag = rs.getObject("Seconds_Behind_Master"); // null if replication stopped
+            } else {
+                lag = rs.getObject(1);
+            }
+            return (lag != null)? Math.round(StringTools.parseDouble(lag.toString(),0.0)) : Long.MAX_VALUE;
+        } finally {
+            DBConnection.release(dbc, stmt, rs);
+        }
+    }
+
+    /**
+    *** Returns true if the replication lag of the specified replica is acceptable.
+    *** The lag is re-read at most once every "db.replica.lagCheckMS" milliseconds.
+    **/
+    private static boolean _isLagOK(Target t, long nowMS)
+    {
+        long checkMS = RTConfig.getLong(RTKey.DB_REPLICA_LAG_CHECK, DFT_LAG_CHECK_MS);
+        if ((nowMS - t.lagCheckMS) >= checkMS) {
+            synchronized (t) {
+                if ((nowMS - t.lagCheckMS) >= checkMS) {
+                    t.lagCheckMS = nowMS;
+                    try {
+                        long lag = DBReplicaRouter._readLagSec(t);
+                        if ((lag > DBReplicaRouter._getMaxLagSec()) && (t.lagSec <= DBReplicaRouter._getMaxLagSec())) {
+                            Print.logWarn("DB replica lagging: " + t.uri + " [" + ((lag == Long.MAX_VALUE)? "not replicating" : (lag + " sec")) + "]");
+                        }
+                        t.lagSec = lag;
+                    } catch (Throwable th) { // SQLException, DBException
+                        Print.logError("DB replica lag check failed: " + t.uri + " [" + th + "]");
+                        t.errorCount.incrementAndGet();
+                        t.errorUntil = nowMS + RTConfig.getLong(RTKey.DB_REPLICA_ERROR_BACKOFF, DFT_ERROR_BACKOFF_MS);
+                        return false;
+                    }
+                }
+            }
+        }
+        return (t.lagSec >= 0L) && (t.lagSec <= DBReplicaRouter._getMaxLagSec());
+    }
+
+    /**
+    *** Gets the maximum acceptable replication lag (seconds)
+    **/
+    private static long _getMaxLagSec()
+    {
+        return RTConfig.getLong(RTKey.DB_REPLICA_MAX_LAG, DFT_MAX_LAG_SEC);
+    }
+
+    // ------------------------------------------------------------------------
+    // connections
+
+    /**
+    *** Gets a DBConnection to the specified replica
+    **/
+    private static DBConnection _getConnection(Target t)
+    {
+        String usr = (DBReplicaRouter.replicaUser != null)? DBReplicaRouter.replicaUser : DBProvider.getDBUsername();
+        String pwd = (DBReplicaRouter.replicaPass != null)? DBReplicaRouter.replicaPass : DBProvider.getDBPassword();
+        return DBConnection.getDBConnection(t.uri, usr, pwd);
+    }
+
+    /**
+    *** Chooses an available replica, by weight
+    *** @return The chosen replica, or null if no replica is available
+    **/
+    private static Target _chooseReplica()
+    {
+        Target reps[] = DBReplicaRouter._getReplicas();
+        if (ListTools.isEmpty(reps)) {
+            return null;
+        }
+
+        /* available replicas */
+        long   nowMS = System.currentTimeMillis();
+        Target avail[] = new Target[reps.length];
+        int    cnt = 0, totWgt = 0;
+        for (Target t : reps) {
+            if (nowMS < t.errorUntil) {
+                continue;
+            } else
+            if (!DBReplicaRouter._isLagOK(t, nowMS)) {
+                t.lagSkips.incrementAndGet();
+                continue;
+            }
+            avail[cnt++] = t;
+            totWgt += t.weight;
+        }
+        if (cnt == 0) {
+            return null;
+        } else
+        if (cnt == 1) {
+            return avail[0];
+        }
+
+        /* weighted choice */
+        int r = (int)(Math.random() * totWgt);
+        for (int i = 0; i < cnt; i++) {
+            r -= avail[i].weight;
+            if (r < 0) {
+                return avail[i];
+            }
+        }
+        return avail[cnt - 1];
+
+    }
+
+    /**
+    *** Gets a DBConnection for a read-only selection.  This will be a replica connection
+    *** if a replica is configured and available, and the current thread is not required
+    *** to read from the primary, otherwise the default (primary) connection is returned.
+    *** The connection must be released with "DBConnection.release(dbc)".
+    *** @return The DBConnection
+    **/
+    public static DBConnection getReadConnection()
+    {
+        if (DBReplicaRouter.isEnabled() && !DBReplicaRouter._isPrimaryRequired()) {
+            Target t = DBReplicaRouter._chooseReplica();
+            if (t != null) {
+                DBConnection dbc = DBReplicaRouter._getConnection(t);
+                if (dbc != null) {
+                    return dbc;
+                }
+            }
+        }
+        return DBConnection.getDefaultConnection();
+    }
+
+    /**
+    *** Returns true if the specified DBConnection is a replica connection
+    **/
+    public static boolean isReplica(DBConnection dbc)
+    {
+        return (DBReplicaRouter._getTarget(dbc) != null);
+    }
+
+    /**
+    *** Gets the replica target for the specified DBConnection
+    *** @return The replica Target, or null if the connection is not a replica connection
+    **/
+    private static Target _getTarget(DBConnection dbc)
+    {
+        Target reps[] = DBReplicaRouter.replicas;
+        if ((dbc != null) && !ListTools.isEmpty(reps)) {
+            String uri = dbc.getUri();
+            for (Target t : reps) {
+                if (t.uri.equals(uri)) {
+                    return t;
+                }
+            }
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // metrics
+
+    /**
+    *** Records the completion of a read-only selection
+    *** @param dbc      The DBConnection used for the selection
+    *** @param startMS  The selection start time (milliseconds)
+    *** @param error    The error which occurred, or null if the selection was successful
+    **/
+    public static void recordRead(DBConnection dbc, long startMS, Throwable error)
+    {
+        if (DBReplicaRouter.replicas == null) {
+            return; // not initialized
+        }
+        Target t = DBReplicaRouter._getTarget(dbc);
+        if (t == null) {
+            t = DBReplicaRouter.primary;
+            if (t == null) {
+                return;
+            }
+        }
+        long elapsedMS = System.currentTimeMillis() - startMS;
+        t.readCount.incrementAndGet();
+        t.totalMS.addAndGet(elapsedMS);
+        for (;;) {
+            long m = t.maxMS.get();
+            if ((elapsedMS <= m) || t.maxMS.compareAndSet(m, elapsedMS)) {
+                break;
+            }
+        }
+        if (error != null) {
+            t.errorCount.incrementAndGet();
+            if (!t.isPrimary) {
+                long backoffMS = RTConfig.getLong(RTKey.DB_REPLICA_ERROR_BACKOFF, DFT_ERROR_BACKOFF_MS);
+                t.errorUntil = System.currentTimeMillis() + backoffMS;
+                Print.logWarn("DB replica read failed, suspended for " + backoffMS + " ms: " + t.uri + " [" + error + "]");
+            }
+        }
+    }
+
+    /**
+    *** Gets the read statistics for a target
+    **/
+    private static String _getStatistics(Target t)
+    {
+        long reads = t.readCount.get();
+        StringBuffer sb = new StringBuffer();
+        sb.append("DBReplicaRouter[").append(t.name).append("]");
+        if (!t.isPrimary) {
+            sb.append(" ").append(t.uri);
+            sb.append(" weight=").append(t.weight);
+            sb.append(" lag=").append((t.lagSec == Long.MAX_VALUE)? "none" : (t.lagSec < 0L)? "?" : String.valueOf(t.lagSec));
+            sb.append(" lagSkips=").append(t.lagSkips.get());
+            sb.append(" suspended=").append(System.currentTimeMillis() < t.errorUntil);
+        }
+        sb.append(" reads=").append(reads);
+        sb.append(" errors=").append(t.errorCount.get());
+        sb.append(" avgMS=").append((reads > 0L)? (t.totalMS.get() / reads) : 0L);
+        sb.append(" maxMS=").append(t.maxMS.get());
+        return sb.toString();
+    }
+
+    /**
+    *** Gets the read statistics for the primary and all replicas
+    **/
+    public static String getAllStatistics()
+    {
+        Target reps[] = DBReplicaRouter._getReplicas();
+        StringBuffer sb = new StringBuffer();
+        Target prim = DBReplicaRouter.primary;
+        if (prim != null) {
+            sb.append(DBReplicaRouter._getStatistics(prim));
+        }
+        for (Target t : reps) {
+            sb.append("\n").append(DBReplicaRouter._getStatistics(t));
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -55,6 +55,7 @@ public class DBSelect<gDBR extends DBRecord>
     private DBFactory<gDBR> factory         = null;
     
     private String          selectFields[]  = null;
+    private String          projectFields[] = null; // projected non-key fields
     private String          utableName      = null;
     private String          where           = null;
     private String          orderByFields[] = null;
@@ -62,6 +63,9 @@ public class DBSelect<gDBR extends DBRecord>
     private long            limit           = 0L;   // no limit
     private long            offset          = 0L;   // beginning of list
 
+    private String          keysetFields[]  = null; // keyset order/cursor fields
+    private String          keysetWhere     = null; // keyset cursor condition
+
     /**
     *** Constructor
     *** @param fact  The table DBFactory instance
@@ -124,7 +128,8 @@ public class DBSelect<gDBR extends DBRecord>
     public void setSelectedFields(Set<String> sf)
     {
         if (ListTools.isEmpty(sf)) {
-            this.selectFields = null;
+            this.selectFields  = null;
+            this.projectFields = null;
         } else {
             this.setSelectedFields(sf.toArray(new String[sf.size()]));
         }
@@ -136,6 +141,7 @@ public class DBSelect<gDBR extends DBRecord>
     **/
     public void setSelectedFields(String... sf)
     {
+        this.projectFields = null;
         if (ListTools.isEmpty(sf)) {
             this.selectFields = null;
         } else {
@@ -177,6 +183,87 @@ public class DBSelect<gDBR extends DBRecord>
         return ((this.selectFields != null) && (this.selectFields.length > 0))? this.selectFields : null;
     }
 
+    // ------------------------------------------------------------------------
+    // Projected fields
+
+    /**
+    *** Sets the projected fields.  The selection is limited to the primary key fields
+    *** and the specified fields, and the returned records will be marked as partial
+    *** (see <code>DBRecord.isPartial()</code>).  The projection is cleared if the 
+    *** specified fields are null/empty, or include all fields of the table.
+    *** @param pf  A Set of field names to project
+    **/
+    public void setProjectedFields(Set<String> pf)
+    {
+        this.setProjectedFields(!ListTools.isEmpty(pf)? pf.toArray(new String[pf.size()]) : null);
+    }
+
+    /**
+    *** Sets the projected fields.  The selection is limited to the primary key fields
+    *** and the specified fields, and the returned records will be marked as partial
+    *** (see <code>DBRecord.isPartial()</code>).  The projection is cleared if the 
+    *** specified fields are null/empty, or include all fields of the table.
+    *** @param pf  An array of field names to project
+    **/
+    public void setProjectedFields(String... pf)
+    {
+        DBFactory<gDBR> fact = this.getFactory();
+        if (ListTools.isEmpty(pf) || (fact == null)) {
+            this.selectFields  = null;
+            this.projectFields = null;
+            return;
+        }
+
+        /* primary keys are always selected (required to create the record key) */
+        OrderedSet<String> selFlds = new OrderedSet<String>();
+        for (DBField kf : fact.getKeyFields()) {
+            selFlds.add(kf.getName());
+        }
+
+        /* projected fields */
+        java.util.List<String> prjFlds = new Vector<String>();
+        for (int i = 0; i < pf.length; i++) {
+            DBField fld = fact.getField(pf[i]);
+            if (fld == null) {
+                // -- not installed (ie. optional field), value will be the default
+                Print.logDebug("Projected field does not exist: %s.%s", fact.getUntranslatedTableName(), pf[i]);
+            } else
+            if (!selFlds.contains(fld.getName())) {
+                selFlds.add(fld.getName());
+                prjFlds.add(fld.getName());
+            }
+        }
+
+        /* all fields? */
+        if (selFlds.size() >= fact.getFields().length) {
+            // -- nothing to project
+            this.selectFields  = null;
+            this.projectFields = null;
+        } else {
+            this.selectFields  = selFlds.toArray(new String[selFlds.size()]);
+            this.projectFields = prjFlds.toArray(new String[prjFlds.size()]);
+        }
+
+    }
+
+    /**
+    *** Returns true if this DBSelect has projected fields defined
+    *** @return True if this DBSelect has projected fields defined
+    **/
+    public boolean isProjected()
+    {
+        return (this.projectFields != null);
+    }
+
+    /**
+    *** Gets the projected (non-key) fields
+    *** @return The projected fields, or null if no projection has been defined
+    **/
+    public String[] getProjectedFields()
+    {
+        return this.projectFields;
+    }
+
     // ------------------------------------------------------------------------
     // Table name
 
@@ -447,6 +534,100 @@ public class DBSelect<gDBR extends DBRecord>
         return this.offset;
     }
 
+    // ------------------------------------------------------------------------
+    // KEYSET (seek) pagination
+
+    /**
+    *** Gets the ordered list of fields which may be used as a keyset (seek) cursor for
+    *** this DBSelect.  The cursor consists of the defined order-by fields followed by the
+    *** remaining primary key fields, which together uniquely identify a record and
+    *** preserve the requested ordering.
+    *** @return The keyset cursor field names, or null if this DBSelect can not be paged
+    ***         by keyset (ie. no factory, or an order-by field is not a primary key field)
+    **/
+    public String[] getKeysetFields()
+    {
+        DBFactory<gDBR> fact = this.getFactory();
+        if (fact == null) {
+            return null;
+        }
+        String keyNames[] = fact.getKeyNames();
+        if ((keyNames == null) || (keyNames.length == 0)) {
+            return null;
+        }
+        java.util.List<String> fldList = new Vector<String>();
+        String obf[] = this.getOrderByFields();
+        if (obf != null) {
+            for (int i = 0; i < obf.length; i++) {
+                if (!ListTools.contains(keyNames, obf[i])) {
+                    // -- a non-key order-by field may be null/non-unique
+                    return null;
+                } else
+                if (!fldList.contains(obf[i])) {
+                    fldList.add(obf[i]);
+                }
+            }
+        }
+        for (int i = 0; i < keyNames.length; i++) {
+            if (!fldList.contains(keyNames[i])) {
+                fldList.add(keyNames[i]);
+            }
+        }
+        return fldList.toArray(new String[fldList.size()]);
+    }
+
+    /**
+    *** Sets the keyset (seek) cursor for this DBSelect.  When set, the selection is
+    *** ordered by all of the specified fields (in the ascending/descending order set by
+    *** "setOrderAscending"), and only records following the specified cursor values are
+    *** selected.
+    *** @param fields  The keyset cursor fields (see "getKeysetFields"), or null to clear
+    *** @param values  The cursor values of the last record retrieved, or null to start
+    ***                at the beginning of the selection
+    **/
+    public void setKeysetCursor(String fields[], Object values[])
+    {
+        if ((fields == null) || (fields.length == 0)) {
+            this.keysetFields = null;
+            this.keysetWhere  = null;
+        } else
+        if ((values == null) || (values.length != fields.length)) {
+            this.keysetFields = fields;
+            this.keysetWhere  = null;
+        } else {
+            // -- ascending : (f0 >= v0) AND ((f0 > v0) OR ((f0 = v0) AND (f1 > v1)) OR ...)
+            // -  descending: (f0 <= v0) AND ((f0 < v0) OR ((f0 = v0) AND (f1 < v1)) OR ...)
+            // -  the leading range term allows the DB to seek on the index
+            boolean asc = this.isOrderAscending();
+            DBWhere dwh = new DBWhere(this.getFactory());
+            String term[] = new String[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                String op[] = new String[i + 1];
+                for (int e = 0; e < i; e++) {
+                    op[e] = dwh.EQ(fields[e], values[e]);
+                }
+                op[i] = asc? dwh.GT(fields[i], values[i]) : dwh.LT(fields[i], values[i]);
+                term[i] = (op.length > 1)? dwh.AND(op) : op[0];
+            }
+            String seek = (term.length > 1)? dwh.OR(term) : term[0];
+            if (fields.length > 1) {
+                String first = asc? dwh.GE(fields[0], values[0]) : dwh.LE(fields[0], values[0]);
+                seek = dwh.AND(first, seek);
+            }
+            this.keysetFields = fields;
+            this.keysetWhere  = seek;
+        }
+    }
+
+    /**
+    *** Returns true if a keyset (seek) cursor has been defined for this DBSelect
+    *** @return True if a keyset cursor has been defined
+    **/
+    public boolean hasKeysetCursor()
+    {
+        return (this.keysetFields != null);
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -543,10 +724,33 @@ public class DBSelect<gDBR extends DBRecord>
 
         /* WHERE */
         if (this.hasWhere()) {
-            sb.append(" ").append(this.getWhere());
+            if (this.keysetWhere != null) {
+                // -- WHERE (<where>) AND (<keyset>): the where clause may contain a top-level "OR"
+                String wh = this.getWhere().substring("WHERE ".length()).trim();
+                sb.append(" WHERE (").append(wh).append(") AND (").append(this.keysetWhere).append(")");
+            } else {
+                sb.append(" ").append(this.getWhere());
+            }
+        } else
+        if (this.keysetWhere != null) {
+            sb.append(" WHERE ").append(this.keysetWhere);
         }
 
         /* ORDER BY */
+        if (this.keysetFields != null) {
+            // -- keyset order: each field sorted in the same direction
+            sb.append(" ORDER BY ");
+            String fld[] = this.keysetFields;
+            for (int i = 0; i < fld.length; i++) {
+                if (i > 0) {
+                    sb.append(",");
+                }
+                sb.append(dbp.quoteColumnName(fld[i]));
+                if (!this.isOrderAscending()) {
+                    sb.append(" DESC");
+                }
+            }
+        } else
         if (this.hasOrderByFields()) {
             sb.append(" ORDER BY ");
             String fld[] = this.getOrderByFields();
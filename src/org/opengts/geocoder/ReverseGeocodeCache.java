@@ -52,7 +52,7 @@ public class ReverseGeocodeCache
     *** @param dec  The the number of decimal points to retain (must be either 4 or 5)
     *** @return The encoded Long GeoPoint
     **/
-    private static long encodeGeoPoint(GeoPoint gp, int dec)
+    protected static long encodeGeoPoint(GeoPoint gp, int dec)
     {
         if (GeoPoint.isValid(gp)) {
             double gpLat = gp.getLatitude();
@@ -185,11 +185,14 @@ public class ReverseGeocodeCache
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
-    private MemCache<Long,Object>   rgCacheMap      = null;
+    private MemCacheAPI<Long,Object> rgCacheMap     = null;
     private int                     rgStoreType     = Store_As_StringJSON;
 
     private AutoTrimThread          autoTrimThread  = null;
 
+    private ReverseGeocodeStore     rgStore         = null;
+    private double                  rgRadiusM       = 0.0;
+
     /**
     *** Constructor
     **/
@@ -205,9 +208,18 @@ public class ReverseGeocodeCache
     {
         super();
         this.rgStoreType = Store_As_StringJSON;
-        this.rgCacheMap  = new MemCache<Long,Object>();
-        this.rgCacheMap.setMaximumCacheSize(maxSize);
-        this.rgCacheMap.setMaximumEntryAgeMS(maxAgeMS);
+        this.rgCacheMap  = new ConcurrentMemCache<Long,Object>(maxSize, maxAgeMS);
+    }
+
+    /**
+    *** Constructor
+    *** @param cache  The MemCacheAPI used to store cached ReverseGeocodes
+    **/
+    public ReverseGeocodeCache(MemCacheAPI<Long,Object> cache)
+    {
+        super();
+        this.rgStoreType = Store_As_StringJSON;
+        this.rgCacheMap  = cache; // must not be null
     }
 
     // ------------------------------------------------------------------------
@@ -222,7 +234,21 @@ public class ReverseGeocodeCache
     
     public int getSizeCutbackCount()
     {
-        return this.rgCacheMap.getMaximumCacheSizeCutbackCount();
+        if (this.rgCacheMap instanceof MemCache) {
+            return ((MemCache<Long,Object>)this.rgCacheMap).getMaximumCacheSizeCutbackCount();
+        }
+        return 0;
+    }
+
+    /**
+    *** Gets the cache statistics (if supported by the underlying cache)
+    **/
+    public String getStatistics()
+    {
+        if (this.rgCacheMap instanceof ConcurrentMemCache) {
+            return ((ConcurrentMemCache<Long,Object>)this.rgCacheMap).getStatistics();
+        }
+        return "size=" + this.getSize();
     }
 
     // ------------------------------------------------------------------------
@@ -270,7 +296,9 @@ public class ReverseGeocodeCache
     **/
     public void setTrimOnAdd(boolean trim)
     {
-        this.rgCacheMap.setTrimOnAdd(trim);
+        if (this.rgCacheMap instanceof MemCache) {
+            ((MemCache<Long,Object>)this.rgCacheMap).setTrimOnAdd(trim);
+        }
     }
 
     /**
@@ -278,7 +306,18 @@ public class ReverseGeocodeCache
     **/
     protected void trimCache()
     {
-        this.rgCacheMap.trimCache("RGCacheTrim");
+        if (this.rgCacheMap instanceof MemCache) {
+            ((MemCache<Long,Object>)this.rgCacheMap).trimCache("RGCacheTrim");
+        }
+    }
+
+    /**
+    *** Returns true if the underlying cache must be periodically trimmed
+    *** (ConcurrentMemCache evicts entries as they are added)
+    **/
+    public boolean requiresTrimThread()
+    {
+        return (this.rgCacheMap instanceof MemCache);
     }
 
     // ------------------------------------------------------------------------
@@ -290,6 +329,10 @@ public class ReverseGeocodeCache
     **/
     public boolean startAutoTrimThread(long intervalMS)
     {
+        if (!this.requiresTrimThread()) {
+            // -- not required
+            return true;
+        } else
         if (this.autoTrimThread != null) {
             // -- already started
             return true;
@@ -316,16 +359,66 @@ public class ReverseGeocodeCache
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
+    /**
+    *** Sets the persistent ReverseGeocodeStore, checked when the ReverseGeocode is not
+    *** found in the memory cache.
+    *** @param store    The ReverseGeocodeStore (null to disable)
+    *** @param radiusM  The nearest-neighbor radius (meters) used if the location is not 
+    ***                 found in the store (0 to disable nearest-neighbor lookups)
+    **/
+    public void setPersistentStore(ReverseGeocodeStore store, double radiusM)
+    {
+        this.rgStore   = store;
+        this.rgRadiusM = (radiusM > 0.0)? radiusM : 0.0;
+    }
+
+    /**
+    *** Gets the persistent ReverseGeocodeStore (may be null)
+    **/
+    public ReverseGeocodeStore getPersistentStore()
+    {
+        return this.rgStore;
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Gets the cached ReverseGeocode for the specified GeoPoint, or null if
     *** no ReverseGeocode exists for the specified GeoPoint.
     **/
     public ReverseGeocode getReverseGeocode(GeoPoint gp)
+    {
+        return this.getReverseGeocode(gp, null);
+    }
+
+    /**
+    *** Gets the cached ReverseGeocode for the specified GeoPoint, or null if
+    *** no ReverseGeocode exists for the specified GeoPoint.
+    *** The memory cache is checked first, then the persistent store (if defined)
+    *** for the GeoPoint/locale, then the nearest stored location within the 
+    *** nearest-neighbor radius.
+    **/
+    public ReverseGeocode getReverseGeocode(GeoPoint gp, String localeStr)
     {
         if (GeoPoint.isValid(gp)) {
             // -- get ReverseGeocode entry
-            Long   rgKey = new Long(encodeGeoPoint(gp,GEOPOINT_DECIMAL));
-            Object rgVal = this.rgCacheMap.getValue(rgKey);
+            long   gpKey = encodeGeoPoint(gp,GEOPOINT_DECIMAL);
+            Long   rgKey = new Long(gpKey);
+            Object rgVal = this.rgCacheMap.getValue(rgKey, null);
+            // -- check persistent store
+            if ((rgVal == null) && (this.rgStore != null)) {
+                String rgJSON = this.rgStore.getValue(gpKey, localeStr);
+                if (rgJSON != null) {
+                    // -- exact match, cache in memory
+                    this.rgCacheMap.addValue(rgKey, rgJSON);
+                    rgVal = rgJSON;
+                } else
+                if (this.rgRadiusM > 0.0) {
+                    // -- nearest match, not cached under this key (the location may
+                    // -  be closer to a different address stored later)
+                    rgVal = this.rgStore.getNearestValue(gp, localeStr, this.rgRadiusM);
+                }
+            }
             // -- not found?
             if (rgVal == null) {
                 // -- key does not exist
@@ -371,10 +464,20 @@ public class ReverseGeocodeCache
     *** Adds the specified ReverseGeocode to the cache for the specified GeoPoint.
     **/
     public boolean addReverseGeocode(GeoPoint gp, ReverseGeocode rg)
+    {
+        return this.addReverseGeocode(gp, null, rg);
+    }
+
+    /**
+    *** Adds the specified ReverseGeocode to the cache (and persistent store, if
+    *** defined) for the specified GeoPoint/locale.
+    **/
+    public boolean addReverseGeocode(GeoPoint gp, String localeStr, ReverseGeocode rg)
     {
         if (GeoPoint.isValid(gp) && (rg != null)) {
             // -- create key/value
-            Long   rgKey = new Long(encodeGeoPoint(gp,GEOPOINT_DECIMAL));
+            long   gpKey = encodeGeoPoint(gp,GEOPOINT_DECIMAL);
+            Long   rgKey = new Long(gpKey);
             Object rgVal;
             switch (this.rgStoreType) {
                 case Store_As_FullAddress:
@@ -393,6 +496,9 @@ public class ReverseGeocodeCache
             }
             // -- add
             this.rgCacheMap.addValue(rgKey, rgVal);
+            if (this.rgStore != null) {
+                this.rgStore.addValue(gpKey, gp, localeStr, rg.toJSON().toString(false));
+            }
             return true;
         } else {
             // -- invalid entry
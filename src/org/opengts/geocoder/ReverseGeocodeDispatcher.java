@@ -0,0 +1,622 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Asynchronous, coalescing, rate-limited reverse-geocode request dispatcher
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder;
+
+import java.util.*;
+import java.io.*;
+import java.net.*;
+
+import org.opengts.util.*;
+import org.opengts.geocoder.nominatim.Nominatim;
+
+/**
+*** <code>ReverseGeocodeDispatcher</code> performs reverse-geocode requests asynchronously
+*** on a shared, bounded ThreadPool.<br>
+*** Requests are queued per ReverseGeocodeProvider (by name) and keyed by the rounded
+*** GeoPoint (see "ReverseGeocodeDispatcher.keyDecimals") and locale.  A request submitted
+*** while another request for the same key is queued or in progress is coalesced with it,
+*** so that concurrent events at the same location share a single provider call.<br>
+*** Each provider is limited by a token-bucket ("rateLimitPerSecond"/"rateLimitBurst"
+*** provider properties) and by a maximum number of concurrent requests
+*** ("maxConcurrentRequests").  Providers which support bulk requests (see
+*** <code>ReverseGeocodeProviderAdapter.getMaximumBatchSize</code>) receive up to that
+*** many queued GeoPoints per call, which happens naturally whenever requests queue up
+*** behind the rate limit.
+**/
+
+public class ReverseGeocodeDispatcher
+{
+
+    // ------------------------------------------------------------------------
+
+    // ReverseGeocodeDispatcher.ThreadPool.maximumPoolSize=10
+    // ReverseGeocodeDispatcher.ThreadPool.maximumIdleSeconds=60
+    // ReverseGeocodeDispatcher.ThreadPool.maximumQueueSize=0
+    private static final RTKey PROP_ThreadPool_ReverseGeocode_   = RTKey.valueOf(RTKey.ThreadPool_ReverseGeocode_);
+    private static final int   ThreadPool_ReverseGeocode_Size    = 10;   // max threads
+    private static final int   ThreadPool_ReverseGeocode_IdleSec = 60;   // trim idle threads
+    private static final int   ThreadPool_ReverseGeocode_QueSize =  0;   // max queue size
+
+    // ------------------------------------------------------------------------
+
+    private static ReverseGeocodeDispatcher Dispatcher = null;
+
+    /**
+    *** Gets the shared ReverseGeocodeDispatcher instance
+    **/
+    public static ReverseGeocodeDispatcher getInstance()
+    {
+        synchronized (ReverseGeocodeDispatcher.class) {
+            if (Dispatcher == null) {
+                Dispatcher = new ReverseGeocodeDispatcher();
+            }
+            return Dispatcher;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Notified when a submitted reverse-geocode request has completed
+    **/
+    public interface ReverseGeocodeListener
+    {
+        /**
+        *** Called (on a dispatcher thread) when the reverse-geocode has completed
+        *** @param gp  The submitted GeoPoint
+        *** @param rg  The ReverseGeocode, or null if no address was found
+        **/
+        public void reverseGeocodeComplete(GeoPoint gp, ReverseGeocode rg);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Token-bucket rate limiter
+    **/
+    protected static class TokenBucket
+    {
+        private double rate    = 0.0;  // tokens per second (0 = unlimited)
+        private double burst   = 1.0;  // maximum tokens
+        private double tokens  = 1.0;
+        private long   lastMS  = 0L;
+        public TokenBucket(double rate, int burst) {
+            this.rate   = rate;
+            this.burst  = (double)Math.max(burst, 1);
+            this.tokens = this.burst;
+            this.lastMS = System.currentTimeMillis();
+        }
+        /* reserve a token, return the number of milliseconds to wait before using it */
+        public synchronized long reserve() {
+            if (this.rate <= 0.0) {
+                return 0L;
+            }
+            long nowMS = System.currentTimeMillis();
+            this.tokens = Math.min(this.burst, this.tokens + ((double)(nowMS - this.lastMS) * this.rate / 1000.0));
+            this.lastMS = nowMS;
+            this.tokens -= 1.0;
+            if (this.tokens >= 0.0) {
+                return 0L;
+            } else {
+                return (long)Math.ceil(-this.tokens * 1000.0 / this.rate);
+            }
+        }
+        /* wait for a token */
+        public void acquire() {
+            long waitMS = this.reserve();
+            if (waitMS > 0L) {
+                try { Thread.sleep(waitMS); } catch (InterruptedException ie) {}
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** A pending (queued or in-progress) reverse-geocode request
+    **/
+    private static class Request
+    {
+        private String                          key       = null;
+        private ReverseGeocodeProvider          rgp       = null;
+        private GeoPoint                        geoPoint  = null;
+        private String                          localeStr = null;
+        private boolean                         cache     = false;
+        private RTProperties                    rtProps   = null;
+        private java.util.List<ReverseGeocodeListener> listeners = new Vector<ReverseGeocodeListener>();
+        public Request(String key, ReverseGeocodeProvider rgp, GeoPoint gp, String localeStr, boolean cache, RTProperties rtProps) {
+            this.key       = key;
+            this.rgp       = rgp;
+            this.geoPoint  = gp;
+            this.localeStr = localeStr;
+            this.cache     = cache;
+            this.rtProps   = rtProps;
+        }
+        /* true if this request may be included in the same provider call as 'r' */
+        public boolean isBatchCompatible(Request r) {
+            return (this.rgp == r.rgp) && (this.rtProps == r.rtProps) && (this.cache == r.cache) &&
+                StringTools.blankDefault(this.localeStr,"").equals(StringTools.blankDefault(r.localeStr,""));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Request queue and worker accounting for a single provider
+    **/
+    private class ProviderQueue
+        implements Runnable
+    {
+        private String                  name        = null;
+        private TokenBucket             bucket      = null;
+        private int                     maxWorkers  = 1;
+        private int                     maxBatch    = 1;
+        private int                     workers     = 0;
+        private LinkedList<Request>     queue       = new LinkedList<Request>();
+        public ProviderQueue(ReverseGeocodeProvider rgp) {
+            this.name = rgp.getName();
+            if (rgp instanceof ReverseGeocodeProviderAdapter) {
+                ReverseGeocodeProviderAdapter rgpa = (ReverseGeocodeProviderAdapter)rgp;
+                this.bucket     = new TokenBucket(rgpa.getRateLimitPerSecond(), rgpa.getRateLimitBurst());
+                this.maxWorkers = rgpa.getMaximumConcurrentRequests();
+                this.maxBatch   = Math.max(rgpa.getMaximumBatchSize(), 1);
+            } else {
+                this.bucket     = new TokenBucket(0.0, 1);
+            }
+        }
+        /* take the next batch of compatible requests (caller must hold dispatcher lock) */
+        private java.util.List<Request> _takeBatch() {
+            Request first = this.queue.poll();
+            if (first == null) {
+                return null;
+            }
+            java.util.List<Request> batch = new Vector<Request>();
+            batch.add(first);
+            for (Iterator<Request> i = this.queue.iterator(); i.hasNext() && (batch.size() < this.maxBatch);) {
+                Request r = i.next();
+                if (r.isBatchCompatible(first)) {
+                    batch.add(r);
+                    i.remove();
+                }
+            }
+            return batch;
+        }
+        public void run() {
+            ReverseGeocodeDispatcher rgd = ReverseGeocodeDispatcher.this;
+            for (;;) {
+                java.util.List<Request> batch;
+                synchronized (rgd) {
+                    batch = this._takeBatch();
+                    if (batch == null) {
+                        this.workers--;
+                        return;
+                    }
+                    rgd.queuedCount -= batch.size();
+                }
+                this.bucket.acquire();
+                ReverseGeocode rg[] = rgd._reverseGeocode(batch);
+                rgd._complete(batch, rg);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private ThreadPool                  threadPool      = null;
+    private Map<String,ProviderQueue>   providers       = new HashMap<String,ProviderQueue>();
+    private Map<String,Request>         pending         = new HashMap<String,Request>();
+    private int                         queuedCount     = 0;
+
+    /* statistics */
+    private long                        submitCount     = 0L;
+    private long                        coalescedCount  = 0L;
+    private long                        rejectedCount   = 0L;
+    private long                        callCount       = 0L;
+    private long                        batchCallCount  = 0L;
+    private long                        completeCount   = 0L;
+
+    /**
+    *** Constructor
+    **/
+    public ReverseGeocodeDispatcher()
+    {
+        this.threadPool = new ThreadPool(
+            "ReverseGeocodeDispatcher",
+            PROP_ThreadPool_ReverseGeocode_, // property allowing default override
+            ThreadPool_ReverseGeocode_Size,
+            ThreadPool_ReverseGeocode_IdleSec,
+            ThreadPool_ReverseGeocode_QueSize);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the coalescing key for the specified provider/GeoPoint/locale
+    **/
+    protected static String getRequestKey(ReverseGeocodeProvider rgp, GeoPoint gp, String localeStr)
+    {
+        int dec = RTConfig.getInt(RTKey.REVERSE_GEOCODE_KEY_DECIMALS, 4);
+        long gpKey = ReverseGeocodeCache.encodeGeoPoint(gp, dec);
+        return rgp.getName() + "|" + StringTools.blankDefault(localeStr,"") + "|" + Long.toHexString(gpKey);
+    }
+
+    /**
+    *** Submits a reverse-geocode request.  The listener is notified on a dispatcher thread
+    *** when the reverse-geocode completes.
+    *** @param rgp       The ReverseGeocodeProvider
+    *** @param gp        The GeoPoint to reverse-geocode
+    *** @param localeStr The locale
+    *** @param cache     True to cache the result (see "ReverseGeocodeProvider.getReverseGeocode")
+    *** @param rtProps   Temporary RTConfig properties in effect during the provider call
+    ***                  (ie. the PrivateLabel properties), may be null
+    *** @param listener  The listener notified when the request completes
+    *** @return True if the request was queued (or coalesced with a pending request), false
+    ***         if the queue or ThreadPool is full (in which case the caller should 
+    ***         reverse-geocode directly)
+    **/
+    public boolean submit(ReverseGeocodeProvider rgp, GeoPoint gp, String localeStr, boolean cache,
+        RTProperties rtProps, ReverseGeocodeListener listener)
+    {
+        if ((rgp == null) || !GeoPoint.isValid(gp) || (listener == null)) {
+            return false;
+        }
+        String key = ReverseGeocodeDispatcher.getRequestKey(rgp, gp, localeStr);
+        ProviderQueue pq = null;
+        synchronized (this) {
+            this.submitCount++;
+            // -- coalesce with a pending request
+            Request req = this.pending.get(key);
+            if (req != null) {
+                req.listeners.add(listener);
+                req.cache |= cache;
+                this.coalescedCount++;
+                return true;
+            }
+            // -- queue full?
+            int maxQueue = RTConfig.getInt(RTKey.REVERSE_GEOCODE_QUEUE_SIZE, 10000);
+            if ((maxQueue > 0) && (this.queuedCount >= maxQueue)) {
+                this.rejectedCount++;
+                return false;
+            }
+            // -- queue new request
+            req = new Request(key, rgp, gp, localeStr, cache, rtProps);
+            req.listeners.add(listener);
+            this.pending.put(key, req);
+            pq = this.providers.get(rgp.getName());
+            if (pq == null) {
+                pq = new ProviderQueue(rgp);
+                this.providers.put(rgp.getName(), pq);
+            }
+            pq.queue.add(req);
+            this.queuedCount++;
+            if (pq.workers >= pq.maxWorkers) {
+                return true; // an active worker will take this request
+            }
+            pq.workers++;
+            if (!this.threadPool.run(pq)) {
+                // -- ThreadPool full
+                pq.workers--;
+                if (pq.workers > 0) {
+                    return true; // an active worker will take this request
+                }
+                // -- no active worker, the caller reverse-geocodes directly
+                pq.queue.remove(req);
+                this.pending.remove(key);
+                this.queuedCount--;
+                this.rejectedCount++;
+                Print.logWarn("ReverseGeocodeDispatcher ThreadPool full, rejecting request: " + pq.name);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Performs the provider call for the specified batch of requests
+    **/
+    private ReverseGeocode[] _reverseGeocode(java.util.List<Request> batch)
+    {
+        Request first = batch.get(0);
+        ReverseGeocode rg[] = null;
+        if (first.rtProps != null) {
+            RTConfig.pushTemporaryProperties(first.rtProps);
+        }
+        try {
+            if (batch.size() == 1) {
+                rg = new ReverseGeocode[] { first.rgp.getReverseGeocode(first.geoPoint, first.localeStr, first.cache) };
+                synchronized (this) { this.callCount++; }
+            } else {
+                GeoPoint gp[] = new GeoPoint[batch.size()];
+                for (int i = 0; i < gp.length; i++) {
+                    gp[i] = batch.get(i).geoPoint;
+                }
+                ReverseGeocodeProviderAdapter rgpa = (ReverseGeocodeProviderAdapter)first.rgp;
+                rg = rgpa.getReverseGeocodes(gp, first.localeStr, first.cache);
+                synchronized (this) { this.callCount++; this.batchCallCount++; }
+            }
+        } catch (Throwable th) {
+            Print.logException("Reverse-geocode failed [" + first.rgp.getName() + "]", th);
+        } finally {
+            if (first.rtProps != null) {
+                RTConfig.popTemporaryProperties(first.rtProps);
+            }
+        }
+        return rg;
+    }
+
+    /**
+    *** Removes the completed requests from the pending map and notifies their listeners
+    **/
+    private void _complete(java.util.List<Request> batch, ReverseGeocode rg[])
+    {
+        for (int i = 0; i < batch.size(); i++) {
+            Request req = batch.get(i);
+            ReverseGeocode r = ((rg != null) && (i < rg.length))? rg[i] : null;
+            java.util.List<ReverseGeocodeListener> listeners;
+            synchronized (this) {
+                this.pending.remove(req.key);
+                this.completeCount++;
+                listeners = new Vector<ReverseGeocodeListener>(req.listeners);
+            }
+            for (ReverseGeocodeListener rgl : listeners) {
+                try {
+                    rgl.reverseGeocodeComplete(req.geoPoint, r);
+                } catch (Throwable th) {
+                    Print.logException("ReverseGeocodeListener error", th);
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of queued (not yet dispatched) requests
+    **/
+    public synchronized int getQueuedCount()
+    {
+        return this.queuedCount;
+    }
+
+    /**
+    *** Gets the number of pending (queued or in-progress) requests
+    **/
+    public synchronized int getPendingCount()
+    {
+        return this.pending.size();
+    }
+
+    /**
+    *** Gets the number of provider calls performed
+    **/
+    public synchronized long getCallCount()
+    {
+        return this.callCount;
+    }
+
+    /**
+    *** Gets the number of submitted requests coalesced with a pending request
+    **/
+    public synchronized long getCoalescedCount()
+    {
+        return this.coalescedCount;
+    }
+
+    /**
+    *** Gets a String representation of the dispatcher statistics
+    **/
+    public synchronized String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("submitted=").append(this.submitCount);
+        sb.append(" coalesced=").append(this.coalescedCount);
+        sb.append(" rejected=").append(this.rejectedCount);
+        sb.append(" calls=").append(this.callCount);
+        sb.append(" batchCalls=").append(this.batchCallCount);
+        sb.append(" completed=").append(this.completeCount);
+        sb.append(" queued=").append(this.queuedCount);
+        sb.append(" pending=").append(this.pending.size());
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Stub HTTP reverse-geocoder, returning Nominatim XML responses (testing only)
+    **/
+    private static class StubGeocoder
+        implements Runnable
+    {
+        private ServerSocket server   = null;
+        private ThreadPool   pool     = new ThreadPool("StubGeocoder", 16);
+        private long         delayMS  = 0L;
+        private int          hitCount = 0;
+        public StubGeocoder(long delayMS) throws IOException {
+            this.server  = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+            this.delayMS = delayMS;
+            Thread t = new Thread(this, "StubGeocoder");
+            t.setDaemon(true);
+            t.start();
+        }
+        public int getPort() {
+            return this.server.getLocalPort();
+        }
+        public synchronized int getHitCount() {
+            return this.hitCount;
+        }
+        public void run() {
+            for (;;) {
+                final Socket client;
+                try {
+                    client = this.server.accept();
+                } catch (IOException ioe) {
+                    return;
+                }
+                this.pool.run(new Runnable() {
+                    public void run() {
+                        StubGeocoder.this._handleRequest(client);
+                    }
+                });
+            }
+        }
+        private static String _getQueryArg(String reqLine, String arg) {
+            int p = reqLine.indexOf(arg + "=");
+            if (p < 0) {
+                return "";
+            }
+            int e = p + arg.length() + 1;
+            while ((e < reqLine.length()) && ("& ".indexOf(reqLine.charAt(e)) < 0)) { e++; }
+            return reqLine.substring(p + arg.length() + 1, e);
+        }
+        private void _handleRequest(Socket client) {
+            try {
+                // -- "GET /reverse?format=xml&lat=...&lon=... HTTP/1.1", followed by headers
+                BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), "UTF-8"));
+                String reqLine = StringTools.trim(in.readLine());
+                for (String h = in.readLine(); (h != null) && !h.equals(""); h = in.readLine()) {}
+                synchronized (this) { this.hitCount++; }
+                if (this.delayMS > 0L) {
+                    try { Thread.sleep(this.delayMS); } catch (InterruptedException ie) {}
+                }
+                String lat = _getQueryArg(reqLine, "lat");
+                String lon = _getQueryArg(reqLine, "lon");
+                String xml =
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                    "<reversegeocode>" +
+                    "<result>" + lat + "/" + lon + " Main Street, Stubtown</result>" +
+                    "<addressparts>" +
+                    "<road>Main Street</road><city>Stubtown</city><state>Stub</state>" +
+                    "<postcode>00000</postcode><country_code>us</country_code>" +
+                    "</addressparts>" +
+                    "</reversegeocode>\n";
+                byte body[] = xml.getBytes("UTF-8");
+                OutputStream out = client.getOutputStream();
+                out.write((
+                    "HTTP/1.0 200 OK\r\n" +
+                    "Content-Type: text/xml; charset=UTF-8\r\n" +
+                    "Content-Length: " + body.length + "\r\n" +
+                    "Connection: close\r\n" +
+                    "\r\n").getBytes("UTF-8"));
+                out.write(body);
+                out.flush();
+            } catch (IOException ioe) {
+                Print.logError("StubGeocoder error: " + ioe);
+            } finally {
+                try { client.close(); } catch (IOException ioe) {}
+            }
+        }
+    }
+
+    /**
+    *** Debug/Testing entry point.<br>
+    *** Submits reverse-geocode requests for a set of nearby GeoPoints to a Nominatim
+    *** provider which uses a local stub HTTP reverse-geocoder, then displays the 
+    *** coalescing/rate-limit/batch statistics.  Options:<br>
+    ***   -count=&lt;N&gt;       Number of submitted requests [default 400]<br>
+    ***   -points=&lt;N&gt;      Number of distinct GeoPoints [default 40]<br>
+    ***   -rate=&lt;N&gt;        Provider "rateLimitPerSecond" [default 20]<br>
+    ***   -burst=&lt;N&gt;       Provider "rateLimitBurst" [default 5]<br>
+    ***   -concurrent=&lt;N&gt;  Provider "maxConcurrentRequests" [default 2]<br>
+    ***   -batch=&lt;N&gt;       Provider maximum batch size [default 1]<br>
+    ***   -delayMS=&lt;N&gt;     Stub geocoder response delay [default 20]<br>
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        Print.setAllOutputToStdout(true);
+        int  count      = RTConfig.getInt( "count"     , 400);
+        int  points     = Math.max(RTConfig.getInt("points", 40), 1);
+        final int batch = Math.max(RTConfig.getInt("batch", 1), 1);
+        long delayMS    = RTConfig.getLong("delayMS"   , 20L);
+
+        /* stub geocoder */
+        StubGeocoder stub;
+        try {
+            stub = new StubGeocoder(delayMS);
+        } catch (IOException ioe) {
+            Print.logError("Unable to start stub geocoder: " + ioe);
+            System.exit(1);
+            return;
+        }
+        Print.sysPrintln("Stub geocoder: http://127.0.0.1:" + stub.getPort() + "/reverse");
+
+        /* provider */
+        RTProperties rtp = new RTProperties();
+        rtp.setString("reverseURL", "http://127.0.0.1:" + stub.getPort() + "/reverse?");
+        rtp.setString(ReverseGeocodeProviderAdapter.PROP_rateLimitPerSecond[0], RTConfig.getString("rate"      ,"20"));
+        rtp.setString(ReverseGeocodeProviderAdapter.PROP_rateLimitBurst[0]    , RTConfig.getString("burst"     ,"5" ));
+        rtp.setString(ReverseGeocodeProviderAdapter.PROP_maxConcurrent[0]     , RTConfig.getString("concurrent","2" ));
+        final ReverseGeocodeProviderAdapter rgp = new Nominatim("nominatim", null, rtp) {
+            public int getMaximumBatchSize() {
+                return batch;
+            }
+        };
+
+        /* submit */
+        final int result[] = new int[] { 0, 0 }; // found, not-found
+        ReverseGeocodeListener rgl = new ReverseGeocodeListener() {
+            public void reverseGeocodeComplete(GeoPoint gp, ReverseGeocode rg) {
+                synchronized (result) {
+                    result[((rg != null) && "Stubtown".equals(rg.getCity()))? 0 : 1]++;
+                    result.notifyAll();
+                }
+            }
+        };
+        ReverseGeocodeDispatcher rgd = new ReverseGeocodeDispatcher();
+        long startMS = System.currentTimeMillis();
+        int direct = 0;
+        for (int i = 0; i < count; i++) {
+            int    k   = i % points;
+            double jit = (double)(i % 3) * 0.000001; // coalesced by the rounded key
+            GeoPoint gp = new GeoPoint(39.1 + (k * 0.01) + jit, -142.2 + jit);
+            if (!rgd.submit(rgp, gp, "en", false, null, rgl)) {
+                // -- rejected, reverse-geocode directly
+                rgl.reverseGeocodeComplete(gp, rgp.getReverseGeocode(gp, "en", false));
+                direct++;
+            }
+        }
+
+        /* wait for completion */
+        synchronized (result) {
+            long untilMS = System.currentTimeMillis() + 60000L;
+            while ((result[0] + result[1]) < count) {
+                long waitMS = untilMS - System.currentTimeMillis();
+                if (waitMS <= 0L) {
+                    break;
+                }
+                try { result.wait(waitMS); } catch (InterruptedException ie) { break; }
+            }
+        }
+        long deltaMS = System.currentTimeMillis() - startMS;
+        Print.sysPrintln("Found=" + result[0] + " NotFound=" + result[1] + " Direct=" + direct + 
+            " StubHits=" + stub.getHitCount() + " ElapsedMS=" + deltaMS);
+        Print.sysPrintln("Dispatcher: " + rgd.getStatistics());
+        System.exit(((result[0] == count) && (stub.getHitCount() <= points))? 0 : 1);
+
+    }
+
+    // ------------------------------------------------------------------------
+
+}
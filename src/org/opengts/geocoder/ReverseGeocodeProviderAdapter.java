@@ -48,6 +48,9 @@ public abstract class ReverseGeocodeProviderAdapter
 
     public static final String PROP_alwaysFast[]            = new String[] { "alwaysFast", "forceAlwaysFast" }; // Boolean: false
     public static final String PROP_maxFailoverSeconds[]    = new String[] { "maxFailoverSeconds" }; // Long: 
+    public static final String PROP_rateLimitPerSecond[]    = new String[] { "rateLimitPerSecond" }; // Double: 0.0 (unlimited)
+    public static final String PROP_rateLimitBurst[]        = new String[] { "rateLimitBurst" };     // Integer: 1
+    public static final String PROP_maxConcurrent[]         = new String[] { "maxConcurrentRequests" }; // Integer: 2
 
     // ------------------------------------------------------------------------
 
@@ -359,6 +362,67 @@ public abstract class ReverseGeocodeProviderAdapter
     /* get reverse-geocode */
     public abstract ReverseGeocode getReverseGeocode(GeoPoint gp, String localeStr, boolean cache);
 
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the maximum number of reverse-geocode requests per second (used by the
+    *** ReverseGeocodeDispatcher).  Returns 0.0 if requests are not rate-limited.
+    **/
+    public double getRateLimitPerSecond()
+    {
+        RTProperties rtp = this.getProperties();
+        double rate = rtp.getDouble(PROP_rateLimitPerSecond, 0.0);
+        return (rate > 0.0)? rate : 0.0;
+    }
+
+    /**
+    *** Gets the number of rate-limited requests which may be issued in a burst
+    **/
+    public int getRateLimitBurst()
+    {
+        RTProperties rtp = this.getProperties();
+        int burst = rtp.getInt(PROP_rateLimitBurst, 1);
+        return (burst > 0)? burst : 1;
+    }
+
+    /**
+    *** Gets the maximum number of concurrent requests (used by the ReverseGeocodeDispatcher)
+    **/
+    public int getMaximumConcurrentRequests()
+    {
+        RTProperties rtp = this.getProperties();
+        int max = rtp.getInt(PROP_maxConcurrent, 2);
+        return (max > 0)? max : 1;
+    }
+
+    /**
+    *** Gets the maximum number of GeoPoints which may be reverse-geocoded in a single
+    *** call to "getReverseGeocodes".  Providers supporting a bulk/batch request should
+    *** override this method, and "getReverseGeocodes".
+    **/
+    public int getMaximumBatchSize()
+    {
+        return 1;
+    }
+
+    /**
+    *** Returns the ReverseGeocodes for the specified GeoPoints.  The default 
+    *** implementation calls "getReverseGeocode" for each GeoPoint.  Providers supporting
+    *** a bulk/batch request should override this method.
+    *** @param gp        The GeoPoints to reverse-geocode
+    *** @param localeStr The locale
+    *** @param cache     True to cache the results
+    *** @return The ReverseGeocodes (same length/order as 'gp', elements may be null)
+    **/
+    public ReverseGeocode[] getReverseGeocodes(GeoPoint gp[], String localeStr, boolean cache)
+    {
+        ReverseGeocode rg[] = new ReverseGeocode[(gp != null)? gp.length : 0];
+        for (int i = 0; i < rg.length; i++) {
+            rg[i] = this.getReverseGeocode(gp[i], localeStr, cache);
+        }
+        return rg;
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
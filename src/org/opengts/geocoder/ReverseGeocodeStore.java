@@ -0,0 +1,681 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Persistent (file based) ReverseGeocode store, shared by local processes
+// ----------------------------------------------------------------------------
+package org.opengts.geocoder;
+
+import java.util.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+import org.opengts.util.*;
+
+/**
+*** <code>ReverseGeocodeStore</code> is a persistent ReverseGeocode store, kept in a single
+*** append-only file which may be shared by all GTS processes on the local host (ie. DCS
+*** servers, "runserver" processes, and the web-application).<br>
+*** Entries are keyed by the encoded GeoPoint (see "ReverseGeocodeCache.encodeGeoPoint")
+*** and locale.  Access to the file is serialized between processes with file locks, and
+*** each process keeps an in-memory index of the file (key, location, and file offset only,
+*** values are read from the file when needed), which is refreshed from the records appended
+*** by other processes.  Entries older than the maximum age are ignored, and are removed when
+*** the file is compacted (which occurs when more than half of the file is obsolete).  The
+*** compacted file is written to a temporary file which then replaces the store file, so a
+*** failed compaction never leaves a partially rewritten store.<br>
+*** The store also supports a nearest-neighbor lookup, which returns the closest stored
+*** ReverseGeocode within a specified radius of the requested location.
+**/
+
+public class ReverseGeocodeStore
+{
+
+    // ------------------------------------------------------------------------
+
+    /* ReverseGeocodeProvider properties */
+    public  static final String PROP_cacheStoreFile             = "cacheStoreFile";           // String: store file path
+    public  static final String PROP_cacheStoreMaxAgeSec        = "cacheStoreMaxAgeSec";      // Long: max age of stored entry
+    public  static final String PROP_cacheNearestRadiusMeters   = "cacheNearestRadiusMeters"; // Double: nearest-neighbor radius
+
+    public  static final long   DEFAULT_MAX_AGE_SEC             = DateTime.DaySeconds(90);
+    public  static final double MAX_NEAREST_RADIUS_METERS       = 1000.0;
+
+    private static final int    FILE_MAGIC                      = 0x52475331; // "RGS1"
+    private static final int    FILE_REPLACED                   = 0x52475358; // "RGSX" (replaced by compaction)
+    private static final int    HEADER_SIZE                     = 4 + 8;      // magic + generation
+    private static final int    MAX_RECORD_SIZE                 = 256 * 1024;
+
+    private static final long   REFRESH_INTERVAL_MS             = 1000L;
+    private static final long   COMPACT_MIN_FILE_SIZE           = 1024L * 1024L;
+
+    private static final double CELL_SCALE                      = 1000.0;     // 0.001 degree grid cells
+    private static final double METERS_PER_DEGREE               = 111320.0;
+
+    // ------------------------------------------------------------------------
+
+    private static Map<String,ReverseGeocodeStore> storeMap = new HashMap<String,ReverseGeocodeStore>();
+
+    /**
+    *** Gets the ReverseGeocodeStore for the file specified by the ReverseGeocodeProvider
+    *** property "cacheStoreFile"
+    *** @param rtProps  The ReverseGeocodeProvider properties
+    *** @return The ReverseGeocodeStore, or null if no store file has been specified
+    **/
+    public static ReverseGeocodeStore getStore(RTProperties rtProps)
+    {
+        String path = (rtProps != null)? rtProps.getString(PROP_cacheStoreFile,null) : null;
+        if (StringTools.isBlank(path)) {
+            return null;
+        }
+        long maxAgeSec = rtProps.getLong(PROP_cacheStoreMaxAgeSec, DEFAULT_MAX_AGE_SEC);
+        return ReverseGeocodeStore.getStore(new File(path), maxAgeSec);
+    }
+
+    /**
+    *** Gets the ReverseGeocodeStore for the specified file (one instance per file)
+    *** @param file       The store file
+    *** @param maxAgeSec  The maximum age of stored entries (0 for indefinite)
+    *** @return The ReverseGeocodeStore
+    **/
+    public static ReverseGeocodeStore getStore(File file, long maxAgeSec)
+    {
+        String path = file.getAbsolutePath();
+        synchronized (ReverseGeocodeStore.storeMap) {
+            ReverseGeocodeStore store = ReverseGeocodeStore.storeMap.get(path);
+            if (store == null) {
+                store = new ReverseGeocodeStore(file, maxAgeSec);
+                ReverseGeocodeStore.storeMap.put(path, store);
+            }
+            return store;
+        }
+    }
+
+    /**
+    *** Gets the nearest-neighbor radius specified by the ReverseGeocodeProvider property
+    *** "cacheNearestRadiusMeters" (0 if nearest-neighbor lookups are disabled)
+    **/
+    public static double getNearestRadiusMeters(RTProperties rtProps)
+    {
+        double radM = (rtProps != null)? rtProps.getDouble(PROP_cacheNearestRadiusMeters,0.0) : 0.0;
+        return (radM > 0.0)? Math.min(radM, MAX_NEAREST_RADIUS_METERS) : 0.0;
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Stored entry
+    **/
+    private static class Entry
+    {
+        private long   gpKey    = 0L;
+        private String locale   = "";
+        private double lat      = 0.0;
+        private double lon      = 0.0;
+        private long   timeSec  = 0L;
+        private long   offset   = 0L;  // record position in file
+        private int    size     = 0;   // record size in file
+        public Entry(long gpKey, String locale, double lat, double lon, long timeSec, long offset, int size) {
+            this.gpKey   = gpKey;
+            this.locale  = locale;
+            this.lat     = lat;
+            this.lon     = lon;
+            this.timeSec = timeSec;
+            this.offset  = offset;
+            this.size    = size;
+        }
+        public String getKey() {
+            return ReverseGeocodeStore._entryKey(this.gpKey, this.locale);
+        }
+        public boolean isExpired(long nowSec, long maxAgeSec) {
+            return (maxAgeSec > 0L) && ((nowSec - this.timeSec) > maxAgeSec);
+        }
+    }
+
+    private static String _entryKey(long gpKey, String locale)
+    {
+        return gpKey + "|" + StringTools.trim(locale);
+    }
+
+    private static long _cellKey(double lat, double lon)
+    {
+        long cLat = (long)Math.floor(lat * CELL_SCALE);
+        long cLon = (long)Math.floor(lon * CELL_SCALE);
+        return (cLat << 32) | (cLon & 0xFFFFFFFFL);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private File                        file        = null;
+    private long                        maxAgeSec   = DEFAULT_MAX_AGE_SEC;
+
+    private RandomAccessFile            raf         = null;
+    private long                        generation  = -1L;
+    private long                        indexEnd    = 0L;   // file position indexed so far
+    private long                        liveBytes   = 0L;   // bytes occupied by current entries
+    private long                        lastRefresh = 0L;
+
+    private Map<String,Entry>           index       = new HashMap<String,Entry>();
+    private Map<Long,java.util.List<Entry>> grid    = new HashMap<Long,java.util.List<Entry>>();
+
+    private long                        hitCount    = 0L;
+    private long                        nearCount   = 0L;
+    private long                        missCount   = 0L;
+
+    /**
+    *** Constructor
+    *** @param file       The store file
+    *** @param maxAgeSec  The maximum age of stored entries (0 for indefinite)
+    **/
+    private ReverseGeocodeStore(File file, long maxAgeSec)
+    {
+        this.file      = file;
+        this.maxAgeSec = (maxAgeSec > 0L)? maxAgeSec : 0L;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Opens the store file (if not already open)
+    **/
+    private RandomAccessFile _open()
+        throws IOException
+    {
+        if (this.raf == null) {
+            File dir = this.file.getParentFile();
+            if ((dir != null) && !dir.isDirectory()) {
+                dir.mkdirs();
+            }
+            this.raf = new RandomAccessFile(this.file, "rw");
+        }
+        return this.raf;
+    }
+
+    /**
+    *** Opens and locks the store file, reopening the file if it has been replaced
+    *** by a compaction in another process
+    *** @param shared  True for a shared (read) lock, false for an exclusive lock
+    *** @return The file lock
+    **/
+    private FileLock _lock(boolean shared)
+        throws IOException
+    {
+        for (int i = 0;; i++) {
+            RandomAccessFile f = this._open();
+            FileLock lock = f.getChannel().lock(0L, Long.MAX_VALUE, shared);
+            boolean replaced = false;
+            if (f.length() >= 4L) {
+                f.seek(0L);
+                replaced = (f.readInt() == FILE_REPLACED);
+            }
+            if (!replaced) {
+                return lock;
+            } else
+            if (i >= 5) {
+                _release(lock);
+                throw new IOException("ReverseGeocodeStore file replaced: " + this.file);
+            }
+            this.close(); // releases lock, reopen replacement file
+        }
+    }
+
+    /**
+    *** Releases the specified file lock (if still valid)
+    **/
+    private static void _release(FileLock lock)
+    {
+        if ((lock != null) && lock.isValid()) {
+            try { lock.release(); } catch (IOException ioe) { /* ignore */ }
+        }
+    }
+
+    /**
+    *** Closes the store file
+    **/
+    public synchronized void close()
+    {
+        if (this.raf != null) {
+            try { this.raf.close(); } catch (IOException ioe) { /* ignore */ }
+            this.raf = null;
+        }
+        this.generation = -1L;
+    }
+
+    /**
+    *** Clears the in-memory index
+    **/
+    private void _clearIndex()
+    {
+        this.index.clear();
+        this.grid.clear();
+        this.indexEnd  = HEADER_SIZE;
+        this.liveBytes = 0L;
+    }
+
+    /**
+    *** Adds the entry to the in-memory index
+    **/
+    private void _indexEntry(Entry e)
+    {
+        Entry old = this.index.put(e.getKey(), e);
+        if (old != null) {
+            this.liveBytes -= old.size;
+            java.util.List<Entry> cell = this.grid.get(new Long(_cellKey(old.lat,old.lon)));
+            if (cell != null) { cell.remove(old); }
+        }
+        this.liveBytes += e.size;
+        Long cellKey = new Long(_cellKey(e.lat,e.lon));
+        java.util.List<Entry> cell = this.grid.get(cellKey);
+        if (cell == null) {
+            cell = new Vector<Entry>();
+            this.grid.put(cellKey, cell);
+        }
+        cell.add(e);
+    }
+
+    /**
+    *** Reads/validates the file header, initializing an empty file.
+    *** Must be called while holding a file lock.
+    *** @return The file generation
+    **/
+    private long _readHeader(RandomAccessFile f)
+        throws IOException
+    {
+        if (f.length() < HEADER_SIZE) {
+            f.setLength(0L);
+            f.seek(0L);
+            f.writeInt(FILE_MAGIC);
+            f.writeLong(0L);
+            return 0L;
+        }
+        f.seek(0L);
+        if (f.readInt() != FILE_MAGIC) {
+            throw new IOException("Invalid ReverseGeocodeStore file: " + this.file);
+        }
+        return f.readLong();
+    }
+
+    /**
+    *** Reads the records appended since the last refresh into the in-memory index.
+    *** Must be called while holding a file lock.
+    **/
+    private void _refresh(RandomAccessFile f)
+        throws IOException
+    {
+        long gen = this._readHeader(f);
+        if (gen != this.generation) {
+            // -- new file, or compacted by another process: reload
+            this._clearIndex();
+            this.generation = gen;
+        }
+        long fileLen = f.length();
+        if (fileLen <= this.indexEnd) {
+            return;
+        }
+        byte buf[] = new byte[(int)Math.min(fileLen - this.indexEnd, 16L * 1024L * 1024L)];
+        while (this.indexEnd < fileLen) {
+            f.seek(this.indexEnd);
+            int n = f.read(buf, 0, (int)Math.min(buf.length, fileLen - this.indexEnd));
+            if (n <= 0) {
+                break;
+            }
+            int pos = 0;
+            while ((pos + 4) <= n) {
+                int recLen = ((buf[pos] & 0xFF) << 24) | ((buf[pos+1] & 0xFF) << 16) | ((buf[pos+2] & 0xFF) << 8) | (buf[pos+3] & 0xFF);
+                if ((recLen <= 0) || (recLen > MAX_RECORD_SIZE)) {
+                    // -- invalid record length (partial write?), ignore remainder of file
+                    Print.logWarn("Invalid ReverseGeocodeStore record at " + (this.indexEnd + pos));
+                    this.indexEnd = fileLen;
+                    return;
+                }
+                if ((pos + 4 + recLen) > n) {
+                    break; // record spans buffer
+                }
+                try {
+                    DataInputStream din = new DataInputStream(new ByteArrayInputStream(buf, pos + 4, recLen));
+                    long   gpKey   = din.readLong();
+                    String locale  = din.readUTF();
+                    double lat     = din.readDouble();
+                    double lon     = din.readDouble();
+                    long   timeSec = din.readLong();
+                    this._indexEntry(new Entry(gpKey, locale, lat, lon, timeSec, this.indexEnd + pos, 4 + recLen));
+                } catch (IOException ioe) {
+                    Print.logWarn("Invalid ReverseGeocodeStore record at " + (this.indexEnd + pos));
+                }
+                pos += 4 + recLen;
+            }
+            if (pos == 0) {
+                // -- incomplete record at end of file (being written, or partial write)
+                break;
+            }
+            this.indexEnd += pos;
+        }
+    }
+
+    /**
+    *** Refreshes the in-memory index (at most once per REFRESH_INTERVAL_MS)
+    **/
+    private void _refreshIfNeeded()
+    {
+        long nowMS = System.currentTimeMillis();
+        if ((this.generation >= 0L) && ((nowMS - this.lastRefresh) < REFRESH_INTERVAL_MS)) {
+            return;
+        }
+        this.lastRefresh = nowMS;
+        FileLock lock = null;
+        try {
+            lock = this._lock(true); // shared
+            this._refresh(this.raf);
+        } catch (Throwable th) {
+            Print.logException("Unable to read ReverseGeocodeStore: " + this.file, th);
+            this.close();
+        } finally {
+            _release(lock);
+        }
+    }
+
+    /**
+    *** Reads the stored value of the specified entry from the file.
+    *** Indexed records are never modified (compaction writes a new file), so no file lock
+    *** is required.
+    *** @return The stored value, or null if the record could not be read
+    **/
+    private String _readValue(Entry e)
+    {
+        if (this.raf == null) {
+            return null;
+        }
+        try {
+            byte rec[] = new byte[e.size - 4];
+            this.raf.seek(e.offset + 4L);
+            this.raf.readFully(rec);
+            DataInputStream din = new DataInputStream(new ByteArrayInputStream(rec));
+            din.readLong();     // gpKey
+            din.readUTF();      // locale
+            din.readDouble();   // latitude
+            din.readDouble();   // longitude
+            din.readLong();     // timeSec
+            return din.readUTF();
+        } catch (IOException ioe) {
+            Print.logWarn("Unable to read ReverseGeocodeStore record at " + e.offset + ": " + ioe);
+            return null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the stored ReverseGeocode value (JSON) for the specified GeoPoint key/locale
+    *** @param gpKey   The encoded GeoPoint
+    *** @param locale  The locale
+    *** @return The stored value, or null if not found, or expired
+    **/
+    public synchronized String getValue(long gpKey, String locale)
+    {
+        this._refreshIfNeeded();
+        Entry e = this.index.get(_entryKey(gpKey,locale));
+        if ((e != null) && !e.isExpired(DateTime.getCurrentTimeSec(),this.maxAgeSec)) {
+            String value = this._readValue(e);
+            if (value != null) {
+                this.hitCount++;
+                return value;
+            }
+        }
+        this.missCount++;
+        return null;
+    }
+
+    /**
+    *** Gets the stored ReverseGeocode value (JSON) nearest to the specified location,
+    *** within the specified radius
+    *** @param gp       The location
+    *** @param locale   The locale
+    *** @param radiusM  The maximum distance, in meters
+    *** @return The nearest stored value, or null if none found within the radius
+    **/
+    public synchronized String getNearestValue(GeoPoint gp, String locale, double radiusM)
+    {
+        if (!GeoPoint.isValid(gp) || (radiusM <= 0.0)) {
+            return null;
+        }
+        this._refreshIfNeeded();
+        double radM   = Math.min(radiusM, MAX_NEAREST_RADIUS_METERS);
+        double lat    = gp.getLatitude();
+        double lon    = gp.getLongitude();
+        double dLat   = radM / METERS_PER_DEGREE;
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double dLon   = radM / (METERS_PER_DEGREE * cosLat);
+        long   minLat = (long)Math.floor((lat - dLat) * CELL_SCALE);
+        long   maxLat = (long)Math.floor((lat + dLat) * CELL_SCALE);
+        long   minLon = (long)Math.floor((lon - dLon) * CELL_SCALE);
+        long   maxLon = (long)Math.floor((lon + dLon) * CELL_SCALE);
+        String loc    = StringTools.trim(locale);
+        long   nowSec = DateTime.getCurrentTimeSec();
+        Entry  best   = null;
+        double bestM  = radM;
+        for (long cLat = minLat; cLat <= maxLat; cLat++) {
+            for (long cLon = minLon; cLon <= maxLon; cLon++) {
+                java.util.List<Entry> cell = this.grid.get(new Long((cLat << 32) | (cLon & 0xFFFFFFFFL)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry e : cell) {
+                    if (!e.locale.equals(loc) || e.isExpired(nowSec,this.maxAgeSec)) {
+                        continue;
+                    }
+                    double m = gp.metersToPoint(new GeoPoint(e.lat,e.lon));
+                    if (m <= bestM) {
+                        best  = e;
+                        bestM = m;
+                    }
+                }
+            }
+        }
+        String value = (best != null)? this._readValue(best) : null;
+        if (value != null) {
+            this.nearCount++;
+            return value;
+        }
+        return null;
+    }
+
+    /**
+    *** Adds the specified ReverseGeocode value (JSON) to the store
+    *** @param gpKey   The encoded GeoPoint
+    *** @param gp      The location
+    *** @param locale  The locale
+    *** @param value   The ReverseGeocode value (JSON)
+    *** @return True if the value was stored
+    **/
+    public synchronized boolean addValue(long gpKey, GeoPoint gp, String locale, String value)
+    {
+        if (!GeoPoint.isValid(gp) || StringTools.isBlank(value)) {
+            return false;
+        }
+
+        /* encode record */
+        byte rec[];
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(bos);
+            dos.writeInt(0); // length placeholder
+            dos.writeLong(gpKey);
+            dos.writeUTF(StringTools.trim(locale));
+            dos.writeDouble(gp.getLatitude());
+            dos.writeDouble(gp.getLongitude());
+            dos.writeLong(DateTime.getCurrentTimeSec());
+            dos.writeUTF(value);
+            dos.flush();
+            rec = bos.toByteArray();
+        } catch (IOException ioe) { // UTFDataFormatException (value too long)
+            return false;
+        }
+        int recLen = rec.length - 4;
+        if (recLen > MAX_RECORD_SIZE) {
+            return false;
+        }
+        rec[0] = (byte)(recLen >>> 24);
+        rec[1] = (byte)(recLen >>> 16);
+        rec[2] = (byte)(recLen >>>  8);
+        rec[3] = (byte)(recLen       );
+
+        /* append */
+        FileLock lock = null;
+        try {
+            lock = this._lock(false); // exclusive
+            RandomAccessFile f = this.raf;
+            this._refresh(f);
+            if (f.length() > this.indexEnd) {
+                // -- discard partial record at end of file
+                f.setLength(this.indexEnd);
+            }
+            f.seek(this.indexEnd);
+            f.write(rec);
+            this._refresh(f); // index new record
+            this.lastRefresh = System.currentTimeMillis();
+            // -- compact if more than half of the file is obsolete
+            long fileLen = f.length();
+            if ((fileLen > COMPACT_MIN_FILE_SIZE) && ((this.liveBytes * 2L) < fileLen)) {
+                this._compact(f);
+            }
+            return true;
+        } catch (Throwable th) {
+            Print.logException("Unable to write ReverseGeocodeStore: " + this.file, th);
+            this.close();
+            return false;
+        } finally {
+            _release(lock);
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Compacts the store file, removing replaced and expired entries
+    **/
+    public synchronized void compact()
+    {
+        FileLock lock = null;
+        try {
+            lock = this._lock(false); // exclusive
+            this._refresh(this.raf);
+            this._compact(this.raf);
+        } catch (Throwable th) {
+            Print.logException("Unable to compact ReverseGeocodeStore: " + this.file, th);
+            this.close();
+        } finally {
+            _release(lock);
+        }
+    }
+
+    /**
+    *** Writes the current (unexpired) entries to a temporary file, which then replaces
+    *** the store file.  The replaced file is marked so that other processes reopen the
+    *** store file, and this store is closed (the index is reloaded on the next access).
+    *** Must be called while holding an exclusive file lock, after "_refresh".
+    **/
+    private void _compact(RandomAccessFile f)
+        throws IOException
+    {
+        long oldLen = f.length();
+        long nowSec = DateTime.getCurrentTimeSec();
+
+        /* write current entries to temporary file */
+        File tmpFile = new File(this.file.getPath() + ".tmp");
+        long newLen  = HEADER_SIZE;
+        FileOutputStream fos = null;
+        try {
+            fos = new FileOutputStream(tmpFile);
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos));
+            dos.writeInt(FILE_MAGIC);
+            dos.writeLong(this.generation + 1L);
+            byte rec[] = new byte[MAX_RECORD_SIZE + 4];
+            for (Entry e : this.index.values()) {
+                if (e.isExpired(nowSec,this.maxAgeSec)) {
+                    continue;
+                }
+                f.seek(e.offset);
+                f.readFully(rec, 0, e.size);
+                dos.write(rec, 0, e.size);
+                newLen += e.size;
+            }
+            dos.flush();
+            fos.getFD().sync();
+        } catch (IOException ioe) {
+            if (fos != null) { try { fos.close(); } catch (IOException x) { /* ignore */ } }
+            tmpFile.delete();
+            throw ioe;
+        }
+        fos.close();
+
+        /* replace store file */
+        if (!tmpFile.renameTo(this.file)) {
+            Print.logWarn("Unable to replace ReverseGeocodeStore: " + this.file);
+            tmpFile.delete();
+            return;
+        }
+
+        /* mark replaced file, other processes reopen the store file */
+        f.seek(0L);
+        f.writeInt(FILE_REPLACED);
+        f.getChannel().force(false);
+        this.close(); // releases lock
+        Print.logInfo("Compacted ReverseGeocodeStore: " + this.file + " [" + oldLen + " ==> " + newLen + " bytes]");
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of indexed entries
+    **/
+    public synchronized int getSize()
+    {
+        this._refreshIfNeeded();
+        return this.index.size();
+    }
+
+    /**
+    *** Gets the store statistics
+    **/
+    public synchronized String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("entries=").append(this.index.size());
+        sb.append(" fileBytes=").append(this.indexEnd);
+        sb.append(" liveBytes=").append(this.liveBytes);
+        sb.append(" hits=").append(this.hitCount);
+        sb.append(" nearest=").append(this.nearCount);
+        sb.append(" misses=").append(this.missCount);
+        return sb.toString();
+    }
+
+    /**
+    *** Returns a String representation of this store
+    **/
+    public String toString()
+    {
+        return "ReverseGeocodeStore[" + this.file + "]";
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -429,6 +429,15 @@ public class GoogleGeocodeV3
             this.rgCache.startAutoTrimThread(AUTO_TRIM_INTERVAL_MS);
         }
 
+        /* persistent ReverseGeocodeStore (shared by local processes) */
+        ReverseGeocodeStore rgStore = ReverseGeocodeStore.getStore(rtProps); // null if not configured
+        if (rgStore != null) {
+            if (this.rgCache == null) {
+                this.rgCache = new ReverseGeocodeCache();
+            }
+            this.rgCache.setPersistentStore(rgStore, ReverseGeocodeStore.getNearestRadiusMeters(rtProps));
+        }
+
     }
 
     // ------------------------------------------------------------------------
@@ -548,7 +557,7 @@ public class GoogleGeocodeV3
             /* check ReverseGeocodeCache */
             if (this.rgCache != null) {
                 // -- ReverseGeocodeCache check here
-                rg = this.rgCache.getReverseGeocode(gp); // "localeStr" is ignored
+                rg = this.rgCache.getReverseGeocode(gp, localeStr); // "localeStr" used by persistent store only
                 if (rg != null) {
                     isCached = true;
                     break;
@@ -567,7 +576,7 @@ public class GoogleGeocodeV3
                 // -- found reverse-geocode
                 isCached = false;
                 if (cache && (this.rgCache != null)) {
-                    this.rgCache.addReverseGeocode(gp, rg);
+                    this.rgCache.addReverseGeocode(gp, localeStr, rg);
                 }
                 break;
             }
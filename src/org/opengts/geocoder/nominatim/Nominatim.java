@@ -165,6 +165,15 @@ public class Nominatim
             this.rgCache.startAutoTrimThread(AUTO_TRIM_INTERVAL_MS);
         }
 
+        /* persistent ReverseGeocodeStore (shared by local processes) */
+        ReverseGeocodeStore rgStore = ReverseGeocodeStore.getStore(rtProps); // null if not configured
+        if (rgStore != null) {
+            if (this.rgCache == null) {
+                this.rgCache = new ReverseGeocodeCache();
+            }
+            this.rgCache.setPersistentStore(rgStore, ReverseGeocodeStore.getNearestRadiusMeters(rtProps));
+        }
+
     }
 
     // ------------------------------------------------------------------------
@@ -223,7 +232,7 @@ public class Nominatim
             /* check ReverseGeocodeCache */
             if (this.rgCache != null) {
                 // -- ReverseGeocodeCache check here
-                rg = this.rgCache.getReverseGeocode(gp); // "localeStr" is ignored
+                rg = this.rgCache.getReverseGeocode(gp, localeStr); // "localeStr" used by persistent store only
                 if (rg != null) {
                     isCached = true;
                     break;
@@ -241,7 +250,7 @@ public class Nominatim
             if (rg != null) {
                 isCached = false;
                 if (this.rgCache != null) {
-                    this.rgCache.addReverseGeocode(gp, rg);
+                    this.rgCache.addReverseGeocode(gp, localeStr, rg);
                 }
                 break;
             }
@@ -98,16 +98,22 @@ public class TrackClientPacketHandler
     /* workhorse of the packet handler */
     public byte[] getHandlePacket(byte pktBytes[]) 
     {
-        if (pktBytes == null) {
+        int pktLen = (pktBytes != null)? pktBytes.length : 0;
+        return this.getHandlePacket(pktBytes, 0, pktLen);
+    }
+
+    /* parse the packet in place from the session read buffer slice */
+    public byte[] getHandlePacket(byte buff[], int ofs, int pktLen) 
+    {
+        if (buff == null) {
             Print.logError("Packet is null");
         } else
-        if (pktBytes.length < 12) {
-            Print.logError("Unexpected packet length: " + pktBytes.length);
+        if (pktLen < 12) {
+            Print.logError("Unexpected packet length: " + pktLen);
         } else {
             // skip the first 12 bytes of this packet and parse the rest
-            int ofs = 12;
-            int len = pktBytes.length - ofs;
-            String s = StringTools.toStringValue(pktBytes,ofs,len).trim();
+            int len = pktLen - 12;
+            String s = StringTools.toStringValue(buff,ofs+12,len).trim();
             Print.logInfo("Recv: " + s); // debug message
             this.parseInsertRecord(s);
             this.eventCount++;
@@ -114,15 +114,22 @@ public class TrackClientPacketHandler
     /* workhorse of the packet handler */
     public byte[] getHandlePacket(byte pktBytes[]) 
     {
-        if (ListTools.isEmpty(pktBytes)) {
+        int pktLen = (pktBytes != null)? pktBytes.length : 0;
+        return this.getHandlePacket(pktBytes, 0, pktLen);
+    }
+
+    /* parse the packet in place from the session read buffer slice */
+    public byte[] getHandlePacket(byte buff[], int ofs, int pktLen) 
+    {
+        if ((buff == null) || (pktLen <= 0)) {
             Print.logWarn("Ignoring empty/null packet");
         } else
-        if (pktBytes.length < 2) {
-            Print.logError("Unexpected packet length: " + pktBytes.length);
+        if (pktLen < 2) {
+            Print.logError("Unexpected packet length: " + pktLen);
         } else {
-           	String s = StringTools.toStringValue(pktBytes).trim();
+           	String s = StringTools.toStringValue(buff,ofs,pktLen).trim();
             Print.logInfo("Recv: " + s); // debug message
-            Print.logInfo("Hex: 0x" + StringTools.toHexString(pktBytes)); // debug message			
+            Print.logInfo("Hex: 0x" + StringTools.toHexString(buff,ofs,pktLen)); // debug message			
             return this.parseInsertRecord_lantrix(s);			
         }
         return null; // no return packets are expected
@@ -127,14 +127,21 @@ public class TrackClientPacketHandler
     /* workhorse of the packet handler */
     public byte[] getHandlePacket(byte pktBytes[]) 
     {
-        if (ListTools.isEmpty(pktBytes)) {
+        int pktLen = (pktBytes != null)? pktBytes.length : 0;
+        return this.getHandlePacket(pktBytes, 0, pktLen);
+    }
+
+    /* parse the packet in place from the session read buffer slice */
+    public byte[] getHandlePacket(byte buff[], int ofs, int pktLen) 
+    {
+        if ((buff == null) || (pktLen <= 0)) {
             Print.logWarn("Ignoring empty/null packet");
         } else
-        if (pktBytes.length < 11) {
-            Print.logError("Unexpected packet length: " + pktBytes.length);
+        if (pktLen < 11) {
+            Print.logError("Unexpected packet length: " + pktLen);
         } else {
-            Print.logInfo("Receive: " + StringTools.toStringValue(pktBytes,'.')); // debug message
-            String s = StringTools.toStringValue(pktBytes).trim();
+            Print.logInfo("Receive: " + StringTools.toStringValue(buff,ofs,pktLen,'.')); // debug message
+            String s = StringTools.toStringValue(buff,ofs,pktLen).trim();
             Print.logInfo("Parsing: " + s); // debug message
             if (s.startsWith("##")) {
                 Print.logError("Unexpected Packet prefix - TK103 packet? (use 'tk10x' DCS)");
@@ -32,6 +32,8 @@ package org.opengts.servers.template;
 import java.lang.*;
 import java.util.*;
 import java.io.*;
+import java.net.*;
+import java.lang.management.*;
 
 import org.opengts.util.*;
 import org.opengts.dbtools.*;
@@ -61,6 +63,7 @@ public class Main
     public  static final String ARG_DEBUG[]     = new String[] { "debug"  };
     public  static final String ARG_FORMAT[]    = new String[] { "format" , "parseFormat" };
     public  static final String ARG_INSERT[]    = new String[] { "insert" };
+    public  static final String ARG_SESSTEST[]  = new String[] { "sessionTest" };
 
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
@@ -125,6 +128,108 @@ public class Main
         }
     }
 
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Session load test
+
+    /* return the resident set size of this process (Linux only), or -1 if unavailable */
+    private static long getProcessResidentKB()
+    {
+        File status = new File("/proc/self/status");
+        if (!status.isFile()) {
+            return -1L;
+        }
+        BufferedReader br = null;
+        try {
+            br = new BufferedReader(new FileReader(status));
+            for (String line = br.readLine(); line != null; line = br.readLine()) {
+                if (line.startsWith("VmRSS:")) {
+                    // -- "VmRSS:    123456 kB"
+                    return StringTools.parseLong(line.substring(6).trim().split("\\s+")[0], -1L);
+                }
+            }
+            return -1L;
+        } catch (IOException ioe) {
+            return -1L;
+        } finally {
+            if (br != null) { try { br.close(); } catch (Throwable th) {/*ignore*/} }
+        }
+    }
+
+    /* return the used heap memory (after a gc) */
+    private static long getUsedHeapKB()
+    {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        try { Thread.sleep(200L); } catch (Throwable th) {/*ignore*/}
+        return (rt.totalMemory() - rt.freeMemory()) / 1024L;
+    }
+
+    /* print a session test measurement */
+    private static void printSessionTestStats(String title, int sessions)
+    {
+        int  thrCnt = ManagementFactory.getThreadMXBean().getThreadCount(); // platform threads
+        long heapKB = getUsedHeapKB();
+        long rssKB  = getProcessResidentKB();
+        Print.sysPrintln(title + ": sessions=" + sessions + 
+            ", platformThreads=" + thrCnt + 
+            ", heapUsed=" + heapKB + " KB" + 
+            ", processRSS=" + ((rssKB >= 0L)? (rssKB + " KB") : "n/a"));
+    }
+
+    /**
+    *** Opens the specified number of idle TCP connections to the local TCP listener,
+    *** and displays the number of platform threads and memory used while all sessions
+    *** are active.  Run once with "-ServerSocketThread.virtualThreadSessions=false"
+    *** and once with "=true" to compare the pooled platform-thread and virtual-thread
+    *** session modes.
+    *** @param sst    The local TCP listener
+    *** @param count  The number of client connections to open
+    *** @return The process exit code
+    **/
+    private static int runSessionTest(ServerSocketThread sst, int count)
+    {
+        int port = sst.getLocalPort();
+        String mode = sst.getVirtualThreadSessions()? "VirtualThread" : "PlatformThread";
+        Print.sysPrintln("Session test: mode=" + mode + ", port=" + port + ", connections=" + count);
+        sst.setLoggingEnabled(false); // one "Remote client port" message per session otherwise
+        printSessionTestStats("Baseline", sst.getActiveSessionCount());
+
+        /* open client connections */
+        long startMS = DateTime.getCurrentTimeMillis();
+        java.util.List<Socket> clients = new ArrayList<Socket>();
+        try {
+            InetSocketAddress addr = new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port);
+            for (int i = 0; i < count; i++) {
+                Socket s = new Socket();
+                s.connect(addr, 5000);
+                clients.add(s);
+            }
+        } catch (Throwable th) { // IOException, OutOfMemoryError
+            Print.sysPrintln("Stopped opening connections at " + clients.size() + ": " + th);
+        }
+
+        /* wait for all sessions to start */
+        long timeoutMS = DateTime.getCurrentTimeMillis() + 60000L;
+        while ((sst.getActiveSessionCount() < clients.size()) && (DateTime.getCurrentTimeMillis() < timeoutMS)) {
+            try { Thread.sleep(100L); } catch (Throwable th) {/*ignore*/}
+        }
+        long deltaMS = DateTime.getCurrentTimeMillis() - startMS;
+        printSessionTestStats("Active [" + deltaMS + " ms]", sst.getActiveSessionCount());
+
+        /* close client connections */
+        for (Socket s : clients) {
+            try { s.close(); } catch (Throwable th) {/*ignore*/}
+        }
+        timeoutMS = DateTime.getCurrentTimeMillis() + 60000L;
+        while ((sst.getActiveSessionCount() > 0) && (DateTime.getCurrentTimeMillis() < timeoutMS)) {
+            try { Thread.sleep(100L); } catch (Throwable th) {/*ignore*/}
+        }
+        printSessionTestStats("Closed", sst.getActiveSessionCount());
+        return (sst.getActiveSessionCount() == 0)? 0 : 1;
+
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
     // Main entry point
@@ -160,6 +265,7 @@ public class Main
         Print.logInfo("  [-format=<parser#>] Parser Format #");
         Print.logInfo("  -start              Start server on the specified port.");
         Print.logInfo("  -parseFile=<file>   File from which data will be parsed.");
+        Print.logInfo("  -sessionTest=<n>    Open 'n' local idle TCP sessions, display thread/memory usage.");
         Print.logInfo("");
 
         /* exit */
@@ -215,6 +321,28 @@ public class Main
             System.exit(0);
         }
 
+        /* session load test (TCP listener only, does not require the DB) */
+        if (RTConfig.hasProperty(ARG_SESSTEST)) {
+            int count = RTConfig.getInt(ARG_SESSTEST,1000);
+            int tcpPorts[] = getTcpPorts();
+            if (ListTools.isEmpty(tcpPorts)) {
+                Print.sysPrintln("No TCP port specified");
+                System.exit(1);
+            }
+            // -- keep sessions open for the duration of the test
+            TrackServer.setTcpIdleTimeout(10L * 60L * 1000L);
+            TrackServer.setTcpSessionTimeout(20L * 60L * 1000L);
+            int exit = 1;
+            try {
+                TrackServer ts = TrackServer.startTrackServer(new int[] { tcpPorts[0] }, null, 0);
+                ServerSocketThread sst = ts.getServerSocketThread_tcp(tcpPorts[0]);
+                exit = (sst != null)? Main.runSessionTest(sst, count) : 1;
+            } catch (Throwable t) { // trap any server exception
+                Print.logError("Error: " + t);
+            }
+            System.exit(exit);
+        }
+
         /* make sure the DB is properly initialized */
         if (!DBAdmin.verifyTablesExist()) {
             Print.logFatal("MySQL database has not yet been properly initialized");
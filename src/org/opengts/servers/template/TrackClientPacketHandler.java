@@ -543,6 +543,13 @@ public class TrackClientPacketHandler
 
     /* workhorse of the packet handler */
     public byte[] getHandlePacket(byte pktBytes[]) 
+    {
+        int pktLen = (pktBytes != null)? pktBytes.length : 0;
+        return this.getHandlePacket(pktBytes, 0, pktLen);
+    }
+
+    /* workhorse of the packet handler (packet is a slice of the session read buffer) */
+    public byte[] getHandlePacket(byte buff[], int ofs, int pktLen) 
     {
 
         // After determining the length of a client packet (see method 'getActualPacketLength'),
@@ -550,11 +557,13 @@ public class TrackClientPacketHandler
         // It is the responsibility of this method to determine what type of packet was received
         // from the client, parse/insert any event data into the tables, and return any expected 
         // response that the client may be expected in the form of a byte array.
-        if ((pktBytes != null) && (pktBytes.length > 0)) {
+        // The packet bytes are [ofs,ofs+pktLen) of the session read buffer, which is reused
+        // for the next packet, so the bytes must be parsed/copied before this method returns.
+        if ((buff != null) && (pktLen > 0)) {
             
             /* (debug message) display received data packet */
-            Print.logInfo("Recv[HEX]: " + StringTools.toHexString(pktBytes));
-            String s = StringTools.toStringValue(pktBytes).trim(); // remove leading/trailing spaces
+            Print.logInfo("Recv[HEX]: " + StringTools.toHexString(buff,ofs,pktLen));
+            String s = StringTools.toStringValue(buff,ofs,pktLen).trim(); // remove leading/trailing spaces
             Print.logInfo("Recv[TXT]: " + s); // debug message
             
             /* parse/insert event */
@@ -571,10 +580,10 @@ public class TrackClientPacketHandler
             // The above examples assume ASCII data.  If the data arrives as a binary data packet,
             // the utility class "org.opengts.util.Payload" can be used to parse the binary data:
             // For example:
-            //   Assume 'pktBytes' contains the following binary hex data:
+            //   Assume 'buff' contains the following binary hex data at 'ofs':
             //      01 02 03 04 05 06 07 08 09 0A 0B
             //   One way to parse this binary data would be as follows:
-            //      Payload p = new Payload(pktBytes);
+            //      Payload p = new Payload(buff, ofs, pktLen);
             //      int fld_1 = (int)p.readLong(3,0L);   // parse 0x010203   into 'fld_1'
             //      int fld_2 = (int)p.readLong(4,0L);   // parse 0x04050607 into 'fld_2'
             //      int fld_3 = (int)p.readLong(2,0L);   // parse 0x00809    into 'fld_2'
@@ -398,10 +398,20 @@ public class TrackClientPacketHandler
     *** Workhorse of the packet handler.  Parse/insert event data.
     **/
     public byte[] getHandlePacket(byte pktBytes[]) 
+    {
+        int pktLen = (pktBytes != null)? pktBytes.length : 0;
+        return this.getHandlePacket(pktBytes, 0, pktLen);
+    }
+
+    /**
+    *** Parse/insert event data from the packet slice of the session read buffer 
+    *** (the packet is parsed in place, without copying it to a separate array)
+    **/
+    public byte[] getHandlePacket(byte buff[], int ofs, int pktLen) 
     {
 
         /* empty packet */
-        if (ListTools.isEmpty(pktBytes)) {
+        if ((buff == null) || (pktLen <= 0)) {
             Print.logWarn("Ignoring empty/null packet");
             return null;
         }
@@ -410,13 +420,13 @@ public class TrackClientPacketHandler
         //Print.logDebug("Device Type: " + this.tkDevType);
 
         /* invalid length */
-        if (pktBytes.length < 11) {
-            if ((pktBytes.length == 1) && !IsDeviceTypeUnknown(this.tkDevType)) {
+        if (pktLen < 11) {
+            if ((pktLen == 1) && !IsDeviceTypeUnknown(this.tkDevType)) {
                 // quietly consume single byte for known device types
                 // (likely garbage characters between packets)
-                //Print.logWarn("Ignoring byte: 0x" + StringTools.toHexString(pktBytes));
+                //Print.logWarn("Ignoring byte: 0x" + StringTools.toHexString(buff,ofs,pktLen));
             } else {
-                Print.logError("Unexpected packet length ("+this.tkDevType+"): " + pktBytes.length);
+                Print.logError("Unexpected packet length ("+this.tkDevType+"): " + pktLen);
             }
             return null;
         }
@@ -425,11 +435,11 @@ public class TrackClientPacketHandler
         this.clearSavedEventCount();
 
         /* debug/header */
-        Print.logInfo("Recv: " + StringTools.toStringValue(pktBytes,'.'));
-        if (!StringTools.isPrintableASCII(pktBytes)) {
-        Print.logInfo("Hex : 0x" + StringTools.toHexString(pktBytes)); 
+        Print.logInfo("Recv: " + StringTools.toStringValue(buff,ofs,pktLen,'.'));
+        if (!StringTools.isPrintableASCII(buff,ofs,pktLen,true)) {
+        Print.logInfo("Hex : 0x" + StringTools.toHexString(buff,ofs,pktLen)); 
         }
-        String s = StringTools.toStringValue(pktBytes).trim();
+        String s = StringTools.toStringValue(buff,ofs,pktLen).trim();
 
         /* TK103-2: keep-alive packet? */
         if (s.startsWith("##")) {
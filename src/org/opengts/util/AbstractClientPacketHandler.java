@@ -42,7 +42,7 @@ import javax.net.*;
 **/
 
 public abstract class AbstractClientPacketHandler
-    implements ClientPacketHandler
+    implements ClientPacketHandler, ClientPacketSliceHandler
 {
 
     // ------------------------------------------------------------------------
@@ -542,6 +542,21 @@ public abstract class AbstractClientPacketHandler
     public abstract byte[] getHandlePacket(byte cmd[]) 
         throws Exception;
 
+    /**
+    *** Parse the packet contained in the specified slice of the session read buffer, 
+    *** and return any response that should be sent back to the remote device.
+    *** The buffer is reused for subsequent packets.  The default implementation copies
+    *** the packet and calls "getHandlePacket(byte[])".  Override to parse the packet 
+    *** in place.
+    **/
+    public byte[] getHandlePacket(byte buff[], int offset, int length) 
+        throws Exception
+    {
+        byte cmd[] = new byte[length];
+        System.arraycopy(buff, offset, cmd, 0, length);
+        return this.getHandlePacket(cmd);
+    }
+
     /**
     *** Callback: timeout interrupt
     *** Called periodically during an idle read.  The periodic timeout is based on the value
@@ -0,0 +1,455 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Asynchronous log writer for Print
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.io.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+*** Asynchronous log writer used by <code>Print</code> when "log.async.enable" is true.<br>
+*** Logging threads publish log entries into a pre-allocated, lock-free ring buffer
+*** ("log.async.bufferSize" entries), which is drained by a single writer thread.  The
+*** writer formats the entries (message format, date, and caller stack-frame), and writes
+*** each drained batch to the log output with a single write, so the log file is opened
+*** (and checked for rotation per the "log.file.rotate.*" properties) once per batch
+*** rather than once per message.<br>
+*** When the buffer is full, logging threads wait for the writer, unless
+*** "log.async.discardWhenFull" is true, in which case INFO/DEBUG entries are discarded.
+**/
+
+public class AsyncLogWriter
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int    DFT_BUFFER_SIZE     = 8192;
+
+    private static final int    MAX_BATCH_ENTRIES   = 1024;
+    private static final long   IDLE_PARK_NS        = 100L * 1000000L; // 100ms
+    private static final long   FULL_PARK_NS        = 100L * 1000L;    // 100us
+
+    private static final String DATE_FORMAT         = "MM/dd HH:mm:ss";
+
+    // ------------------------------------------------------------------------
+
+    private static AsyncLogWriter   logWriter       = null;
+
+    /**
+    *** Gets the AsyncLogWriter instance, starting the writer thread on first use
+    **/
+    public static AsyncLogWriter getInstance()
+    {
+        AsyncLogWriter lw = logWriter;
+        if (lw == null) {
+            synchronized (AsyncLogWriter.class) {
+                if (logWriter == null) {
+                    int size = RTConfig.getInt(RTKey.LOG_ASYNC_BUFFER_SIZE, DFT_BUFFER_SIZE);
+                    boolean discard = RTConfig.getBoolean(RTKey.LOG_ASYNC_DISCARD_WHEN_FULL, false);
+                    AsyncLogWriter w = new AsyncLogWriter(size, discard);
+                    w.start();
+                    logWriter = w;
+                }
+                lw = logWriter;
+            }
+        }
+        return lw;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** A ring buffer slot
+    **/
+    private static class Entry
+    {
+        private volatile long   seq     = -1L;   // sequence of the published entry
+        private int             level   = 0;
+        private boolean         raw     = false; // preformatted message (no header/newline)
+        private boolean         header  = false;
+        private long            timeMS  = 0L;    // >0 to include date in header
+        private Throwable       caller  = null;  // non-null to include stack-frame in header
+        private int             frame   = 0;
+        private String          msg     = null;
+        private Object          args[]  = null;
+        public void clear() {
+            this.caller = null;
+            this.msg    = null;
+            this.args   = null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private Entry               ring[]          = null;
+    private int                 mask            = 0;
+    private boolean             discardWhenFull = false;
+
+    private AtomicLong          tail            = new AtomicLong(0L); // next sequence to claim
+    private volatile long       head            = 0L;                 // next sequence to write
+    private volatile long       written         = 0L;                 // next sequence not yet written
+
+    private Thread              writerThread    = null;
+    private volatile boolean    writerIdle      = false;
+
+    private AtomicLong          writtenCount    = new AtomicLong(0L);
+    private AtomicLong          discardCount    = new AtomicLong(0L);
+    private AtomicLong          batchCount      = new AtomicLong(0L);
+
+    /* writer-thread state */
+    private StringBuilder       fmtBuffer       = new StringBuilder(256);
+    private ByteArrayOutputStream outBuffer     = new ByteArrayOutputStream(64 * 1024);
+    private long                lastDateSec     = -1L;
+    private String              lastDateStr     = "";
+
+    /**
+    *** Constructor
+    *** @param size     The ring buffer size (rounded up to a power of 2)
+    *** @param discard  True to discard INFO/DEBUG entries when the buffer is full
+    **/
+    public AsyncLogWriter(int size, boolean discard)
+    {
+        int cap = 64;
+        while ((cap < size) && (cap < (1 << 20))) { cap <<= 1; }
+        this.ring = new Entry[cap];
+        for (int i = 0; i < cap; i++) {
+            this.ring[i] = new Entry();
+        }
+        this.mask = cap - 1;
+        this.discardWhenFull = discard;
+    }
+
+    /**
+    *** Starts the writer thread
+    **/
+    private void start()
+    {
+        this.writerThread = new Thread("AsyncLogWriter") {
+            public void run() {
+                AsyncLogWriter.this._writerLoop();
+            }
+        };
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread("AsyncLogWriter_shutdown") {
+            public void run() {
+                AsyncLogWriter.this.flush(5000L);
+            }
+        });
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if the specified argument may be formatted later on the writer
+    *** thread (ie. it is immutable)
+    **/
+    private static boolean _isImmutable(Object a)
+    {
+        return (a == null)              ||
+            (a instanceof String)       ||
+            (a instanceof Integer)      ||
+            (a instanceof Long)         ||
+            (a instanceof Double)       ||
+            (a instanceof Float)        ||
+            (a instanceof Short)        ||
+            (a instanceof Byte)         ||
+            (a instanceof Boolean)      ||
+            (a instanceof Character)    ||
+            (a instanceof Enum);
+    }
+
+    /**
+    *** Queues a log message
+    *** @param level   The log level
+    *** @param header  True to include the log header
+    *** @param timeMS  The log time (if > 0, the date is included in the header)
+    *** @param caller  Throwable created by the logging thread, if the caller stack-frame
+    ***                is to be included in the header (decoded on the writer thread)
+    *** @param frame   The caller stack-frame index within 'caller'
+    *** @param msg     The message (or message format)
+    *** @param args    The message format arguments
+    **/
+    public void log(int level, boolean header, long timeMS, Throwable caller, int frame, String msg, Object args[])
+    {
+        if ((args != null) && (args.length > 0)) {
+            for (int i = 0; i < args.length; i++) {
+                if (!_isImmutable(args[i])) {
+                    // -- mutable argument: format now
+                    msg  = AsyncLogWriter._format(msg, args);
+                    args = null;
+                    break;
+                }
+            }
+        }
+        this._publish(level, false, header, timeMS, caller, frame, msg, args);
+    }
+
+    /**
+    *** Queues a preformatted log message (written as-is)
+    *** @param level   The log level
+    *** @param logMsg  The message
+    **/
+    public void logRaw(int level, String logMsg)
+    {
+        this._publish(level, true, false, 0L, null, 0, logMsg, null);
+    }
+
+    /**
+    *** Publishes an entry into the ring buffer
+    **/
+    private void _publish(int level, boolean raw, boolean header, long timeMS, Throwable caller, int frame, String msg, Object args[])
+    {
+
+        /* writer thread logging (ie. from within log output) */
+        if (Thread.currentThread() == this.writerThread) {
+            this._writeDirect(level, raw, header, timeMS, caller, frame, msg, args);
+            return;
+        }
+
+        /* claim a sequence */
+        long seq;
+        for (;;) {
+            seq = this.tail.get();
+            if ((seq - this.head) >= this.ring.length) {
+                // -- buffer full
+                if (this.discardWhenFull && (level >= Print.LOG_INFO)) {
+                    this.discardCount.incrementAndGet();
+                    return;
+                }
+                LockSupport.unpark(this.writerThread);
+                LockSupport.parkNanos(FULL_PARK_NS);
+                continue;
+            }
+            if (this.tail.compareAndSet(seq, seq + 1L)) {
+                break;
+            }
+        }
+
+        /* fill and publish */
+        Entry e = this.ring[(int)(seq & this.mask)];
+        e.level  = level;
+        e.raw    = raw;
+        e.header = header;
+        e.timeMS = timeMS;
+        e.caller = caller;
+        e.frame  = frame;
+        e.msg    = msg;
+        e.args   = args;
+        e.seq    = seq; // volatile write: publish
+
+        /* wake writer */
+        if (this.writerIdle) {
+            LockSupport.unpark(this.writerThread);
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Writer thread main loop
+    **/
+    private void _writerLoop()
+    {
+        for (;;) {
+            try {
+                if (this._drain() > 0) {
+                    continue;
+                }
+                this.writerIdle = true;
+                if (!this._hasPublished()) {
+                    LockSupport.parkNanos(IDLE_PARK_NS);
+                }
+                this.writerIdle = false;
+            } catch (Throwable th) {
+                // -- do not allow the writer thread to exit
+                Print.sysPrintln("[AsyncLogWriter] Exception: " + th);
+            }
+        }
+    }
+
+    /**
+    *** Returns true if the next entry has been published
+    **/
+    private boolean _hasPublished()
+    {
+        long h = this.head;
+        return (this.ring[(int)(h & this.mask)].seq == h);
+    }
+
+    /**
+    *** Formats and writes the published entries, in a single batch
+    *** @return The number of entries written
+    **/
+    private int _drain()
+    {
+        this.outBuffer.reset();
+        int count = 0;
+        long h = this.head;
+        while (count < MAX_BATCH_ENTRIES) {
+            Entry e = this.ring[(int)(h & this.mask)];
+            if (e.seq != h) {
+                break; // not yet published
+            }
+            String s = this._formatEntry(e);
+            e.clear();
+            h++;
+            this.head = h; // volatile write: release slot
+            byte b[] = StringTools.getBytes(s);
+            this.outBuffer.write(b, 0, b.length);
+            count++;
+        }
+        if (count > 0) {
+            Print._writeLogBytes(this.outBuffer);
+            this.writtenCount.addAndGet(count);
+            this.batchCount.incrementAndGet();
+            this.written = h;
+        }
+        return count;
+    }
+
+    /**
+    *** Writes a single entry directly (writer thread only)
+    **/
+    private void _writeDirect(int level, boolean raw, boolean header, long timeMS, Throwable caller, int frame, String msg, Object args[])
+    {
+        Entry e = new Entry();
+        e.level  = level;
+        e.raw    = raw;
+        e.header = header;
+        e.timeMS = timeMS;
+        e.caller = caller;
+        e.frame  = frame;
+        e.msg    = msg;
+        e.args   = args;
+        Print._print(Print._getSysStderr(), 0, false, this._formatEntry(e));
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Formats the message with the specified arguments
+    **/
+    private static String _format(String msg, Object args[])
+    {
+        if (msg == null) {
+            return null;
+        } else
+        if ((args == null) || (args.length == 0)) {
+            return msg;
+        }
+        try {
+            return String.format(msg, args);
+        } catch (Throwable th) {
+            // MissingFormatArgumentException, UnknownFormatConversionException
+            System.out.println("ERROR: [" + msg + "] " + th); // [OUTPUT]
+            return msg;
+        }
+    }
+
+    /**
+    *** Formats the log entry (same format as the synchronous Print log output)
+    **/
+    private String _formatEntry(Entry e)
+    {
+        if (e.raw) {
+            return (e.msg != null)? e.msg : "";
+        }
+        StringBuilder sb = this.fmtBuffer;
+        sb.setLength(0);
+        if (e.header) {
+            sb.append("[");
+            sb.append(Print.getLogLevelString(e.level));
+            if (e.timeMS > 0L) {
+                long sec = e.timeMS / 1000L;
+                if (sec != this.lastDateSec) {
+                    this.lastDateStr = (new DateTime(sec)).format(DATE_FORMAT, null);
+                    this.lastDateSec = sec;
+                }
+                sb.append("|").append(this.lastDateStr);
+            }
+            if (e.caller != null) {
+                sb.append("|");
+                sb.append(Print._getStackFrame(e.caller.getStackTrace(), e.frame));
+            }
+            sb.append("] ");
+        }
+        String msg = AsyncLogWriter._format(e.msg, e.args);
+        if (msg != null) {
+            sb.append(msg);
+            if (!msg.endsWith("\n")) { sb.append("\n"); }
+        } else {
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Waits until all entries published before this call have been written
+    *** @param timeoutMS  The maximum time to wait
+    *** @return True if all entries were written
+    **/
+    public boolean flush(long timeoutMS)
+    {
+        long target = this.tail.get();
+        long untilMS = System.currentTimeMillis() + timeoutMS;
+        while (this.written < target) {
+            if (Thread.currentThread() == this.writerThread) {
+                return false;
+            } else
+            if (System.currentTimeMillis() > untilMS) {
+                return false;
+            }
+            LockSupport.unpark(this.writerThread);
+            LockSupport.parkNanos(FULL_PARK_NS);
+        }
+        return true;
+    }
+
+    /**
+    *** Gets the number of entries waiting to be written
+    **/
+    public long getPendingCount()
+    {
+        return this.tail.get() - this.written;
+    }
+
+    /**
+    *** Gets a String representation of the writer statistics
+    **/
+    public String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("written=").append(this.writtenCount.get());
+        sb.append(" batches=").append(this.batchCount.get());
+        sb.append(" discarded=").append(this.discardCount.get());
+        sb.append(" pending=").append(this.getPendingCount());
+        sb.append(" capacity=").append(this.ring.length);
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+
+}
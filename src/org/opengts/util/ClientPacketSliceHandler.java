@@ -0,0 +1,49 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+// 
+// http://www.apache.org/licenses/LICENSE-2.0
+// 
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Optional ClientPacketHandler support for packets passed as a buffer slice
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+/**
+*** Optional interface for ClientPacketHandler implementations which can parse a
+*** packet in place, within the session read buffer.  ServerSocketThread passes
+*** packets to handlers implementing this interface without copying them, and copies
+*** the packet for "ClientPacketHandler.getHandlePacket(byte[])" otherwise.
+**/
+
+public interface ClientPacketSliceHandler
+{
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Process packet and return response.  The packet is a slice of the session read
+    *** buffer, which is reused for subsequent packets, and must not be retained after 
+    *** this method returns.
+    *** @param buff   The buffer containing the packet
+    *** @param offset The packet offset within the buffer
+    *** @param length The packet length
+    *** @return The response
+    **/
+    public byte[] getHandlePacket(byte buff[], int offset, int length) throws Exception;
+
+    // ------------------------------------------------------------------------
+
+}
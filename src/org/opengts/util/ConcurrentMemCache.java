@@ -0,0 +1,560 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  A concurrent, segmented-LRU memory cache handler
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+*** A concurrent memory cache handler.<br>
+*** The cache is split into independently locked segments (by key hash).  Each segment
+*** maintains a segmented-LRU (SLRU): new entries are added to a "probationary" list, and
+*** are promoted to a "protected" list when accessed again, so that a burst of single-use
+*** entries cannot flush frequently used entries from the cache.  Entries are evicted from
+*** the tail of the probationary list (then the protected list) in O(1) time, as entries
+*** are added, so no separate trim thread is required.<br>
+*** Entries may have individual time-to-live values, and may be weighted (see
+*** <code>Weigher</code>), in which case the maximum cache size is the maximum total
+*** weight of all entries.
+**/
+
+public class ConcurrentMemCache<KEY,VAL>
+    implements MemCacheAPI<KEY,VAL>
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        DEFAULT_CACHE_SIZE      = MemCache.DEFAULT_CACHE_SIZE;
+    public  static final int        DEFAULT_SEGMENTS        = 16;
+
+    public  static final double     PROTECTED_PERCENT       = 0.80;
+
+    private static final int        EXPIRE_SCAN_COUNT       = 2;  // expired tail entries removed per add
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Entry weight calculator
+    **/
+    public interface Weigher<KEY,VAL>
+    {
+        public int getWeight(KEY key, VAL val);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final int LIST_NONE      = 0;
+    private static final int LIST_PROBATION = 1;
+    private static final int LIST_PROTECTED = 2;
+
+    /**
+    *** Cache entry (doubly-linked list node)
+    **/
+    private static class Node<KEY,VAL>
+    {
+        private KEY         key       = null;
+        private VAL         value     = null;
+        private int         weight    = 1;
+        private long        expireMS  = 0L;  // 0 = never expires
+        private int         list      = LIST_NONE;
+        private Node<KEY,VAL> prev    = null;
+        private Node<KEY,VAL> next    = null;
+        public Node(KEY key, VAL val, int weight, long expireMS) {
+            this.key      = key;
+            this.value    = val;
+            this.weight   = weight;
+            this.expireMS = expireMS;
+        }
+        public boolean isExpired(long nowMS) {
+            return (this.expireMS > 0L) && (nowMS >= this.expireMS);
+        }
+    }
+
+    /**
+    *** Doubly-linked node list (head is most-recently-used)
+    **/
+    private static class NodeList<KEY,VAL>
+    {
+        private int           id     = LIST_NONE;
+        private Node<KEY,VAL> head   = null;
+        private Node<KEY,VAL> tail   = null;
+        private long          weight = 0L;
+        public NodeList(int id) {
+            this.id = id;
+        }
+        public void addFirst(Node<KEY,VAL> n) {
+            n.list = this.id;
+            n.prev = null;
+            n.next = this.head;
+            if (this.head != null) { this.head.prev = n; } else { this.tail = n; }
+            this.head = n;
+            this.weight += n.weight;
+        }
+        public void remove(Node<KEY,VAL> n) {
+            if (n.prev != null) { n.prev.next = n.next; } else { this.head = n.next; }
+            if (n.next != null) { n.next.prev = n.prev; } else { this.tail = n.prev; }
+            n.prev = null;
+            n.next = null;
+            n.list = LIST_NONE;
+            this.weight -= n.weight;
+        }
+        public Node<KEY,VAL> getTail() {
+            return this.tail;
+        }
+        public void clear() {
+            this.head   = null;
+            this.tail   = null;
+            this.weight = 0L;
+        }
+    }
+
+    /**
+    *** Independently locked cache segment
+    **/
+    private class Segment
+    {
+        private HashMap<KEY,Node<KEY,VAL>> map       = new HashMap<KEY,Node<KEY,VAL>>();
+        private NodeList<KEY,VAL>          probation = new NodeList<KEY,VAL>(LIST_PROBATION);
+        private NodeList<KEY,VAL>          protect   = new NodeList<KEY,VAL>(LIST_PROTECTED);
+        private long                       maxWeight = 1L;
+        public synchronized void setMaximumWeight(long max) {
+            this.maxWeight = (max > 0L)? max : 1L;
+            this._evict();
+        }
+        public synchronized int size() {
+            return this.map.size();
+        }
+        public synchronized long weight() {
+            return this.probation.weight + this.protect.weight;
+        }
+        public synchronized Node<KEY,VAL> get(KEY key, long nowMS) {
+            Node<KEY,VAL> n = this.map.get(key);
+            if (n == null) {
+                return null;
+            } else
+            if (n.isExpired(nowMS)) {
+                this._remove(n);
+                ConcurrentMemCache.this.expireCount.incrementAndGet();
+                return null;
+            }
+            // -- promote to head of protected list
+            if (n.list == LIST_PROBATION) {
+                this.probation.remove(n);
+                this.protect.addFirst(n);
+                // -- demote excess protected entries to the probationary list
+                long maxProt = (long)((double)this.maxWeight * PROTECTED_PERCENT);
+                while ((this.protect.weight > maxProt) && (this.protect.getTail() != n)) {
+                    Node<KEY,VAL> t = this.protect.getTail();
+                    this.protect.remove(t);
+                    this.probation.addFirst(t);
+                }
+            } else {
+                this.protect.remove(n);
+                this.protect.addFirst(n);
+            }
+            return n;
+        }
+        public synchronized boolean contains(KEY key, long nowMS) {
+            Node<KEY,VAL> n = this.map.get(key);
+            return (n != null) && !n.isExpired(nowMS);
+        }
+        public synchronized void put(Node<KEY,VAL> n, long nowMS) {
+            Node<KEY,VAL> old = this.map.put(n.key, n);
+            if (old != null) {
+                this._unlink(old);
+            }
+            this.probation.addFirst(n);
+            // -- remove a few expired entries from the probationary tail
+            for (int i = 0; i < EXPIRE_SCAN_COUNT; i++) {
+                Node<KEY,VAL> t = this.probation.getTail();
+                if ((t == null) || (t == n) || !t.isExpired(nowMS)) { break; }
+                this._remove(t);
+                ConcurrentMemCache.this.expireCount.incrementAndGet();
+            }
+            this._evict();
+        }
+        public synchronized boolean remove(KEY key) {
+            Node<KEY,VAL> n = this.map.get(key);
+            if (n != null) {
+                this._remove(n);
+                return true;
+            }
+            return false;
+        }
+        public synchronized void clear() {
+            this.map.clear();
+            this.probation.clear();
+            this.protect.clear();
+        }
+        private void _evict() {
+            while ((this.probation.weight + this.protect.weight) > this.maxWeight) {
+                Node<KEY,VAL> t = this.probation.getTail();
+                if (t == null) {
+                    t = this.protect.getTail();
+                }
+                if ((t == null) || (this.map.size() <= 1)) {
+                    break; // retain a single (overweight) entry
+                }
+                this._remove(t);
+                ConcurrentMemCache.this.evictCount.incrementAndGet();
+            }
+        }
+        private void _unlink(Node<KEY,VAL> n) {
+            if (n.list == LIST_PROBATION) {
+                this.probation.remove(n);
+            } else
+            if (n.list == LIST_PROTECTED) {
+                this.protect.remove(n);
+            }
+        }
+        private void _remove(Node<KEY,VAL> n) {
+            this._unlink(n);
+            this.map.remove(n.key);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private Segment             segments[]  = null;
+    private int                 segMask     = 0;
+    private Weigher<KEY,VAL>    weigher     = null;
+
+    private volatile int        maxSize     = DEFAULT_CACHE_SIZE;
+    private volatile long       maxAgeMS    = 0L;
+
+    private AtomicLong          hitCount    = new AtomicLong(0L);
+    private AtomicLong          missCount   = new AtomicLong(0L);
+    private AtomicLong          evictCount  = new AtomicLong(0L);
+    private AtomicLong          expireCount = new AtomicLong(0L);
+
+    /**
+    *** Constructor
+    **/
+    public ConcurrentMemCache()
+    {
+        this(DEFAULT_CACHE_SIZE, 0L);
+    }
+
+    /**
+    *** Constructor
+    *** @param maxSize   The maximum cache size (total weight)
+    *** @param maxAgeMS  The default maximum entry age (0 for indefinite)
+    **/
+    public ConcurrentMemCache(int maxSize, long maxAgeMS)
+    {
+        this(maxSize, maxAgeMS, null);
+    }
+
+    /**
+    *** Constructor
+    *** @param maxSize   The maximum cache size (total weight)
+    *** @param maxAgeMS  The default maximum entry age (0 for indefinite)
+    *** @param weigher   The entry weight calculator (null for a weight of 1 per entry)
+    **/
+    public ConcurrentMemCache(int maxSize, long maxAgeMS, Weigher<KEY,VAL> weigher)
+    {
+        super();
+        int segCnt = 1;
+        while ((segCnt < DEFAULT_SEGMENTS) && ((segCnt * 2) <= Math.max(maxSize / 64, 1))) {
+            segCnt *= 2; // at least 64 entries per segment
+        }
+        this.segments = this._newSegments(segCnt);
+        for (int i = 0; i < segCnt; i++) {
+            this.segments[i] = new Segment();
+        }
+        this.segMask = segCnt - 1;
+        this.weigher = weigher;
+        this.setMaximumCacheSize(maxSize);
+        this.setMaximumEntryAgeMS(maxAgeMS);
+    }
+
+    // ------------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private Segment[] _newSegments(int count)
+    {
+        return (Segment[])new ConcurrentMemCache.Segment[count];
+    }
+
+    /**
+    *** Gets the segment for the specified key
+    **/
+    private Segment _getSegment(KEY key)
+    {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        h ^= (h >>>  7);
+        return this.segments[h & this.segMask];
+    }
+
+    /**
+    *** Gets the weight of the specified entry
+    **/
+    private int _getWeight(KEY key, VAL val)
+    {
+        if (this.weigher != null) {
+            int w = this.weigher.getWeight(key, val);
+            return (w > 0)? w : 1;
+        }
+        return 1;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the maximum cache size (total weight of all entries)
+    *** @param maxSize  The maximum cache size
+    *** @return The set maximum cache size
+    **/
+    public int setMaximumCacheSize(int maxSize)
+    {
+        this.maxSize = (maxSize > 0)? maxSize : DEFAULT_CACHE_SIZE;
+        int segCnt = this.segments.length;
+        for (int i = 0; i < segCnt; i++) {
+            // -- distribute the remainder, so the segment maximums sum to "maxSize"
+            long segMax = (this.maxSize / segCnt) + ((i < (this.maxSize % segCnt))? 1 : 0);
+            this.segments[i].setMaximumWeight(segMax);
+        }
+        return this.maxSize;
+    }
+
+    /**
+    *** Gets the maximum cache size (total weight of all entries)
+    **/
+    public int getMaximumCacheSize()
+    {
+        return this.maxSize;
+    }
+
+    /**
+    *** Sets the default maximum entry age, in milliseconds (0 for indefinite)
+    *** Applies only to entries subsequently added.
+    **/
+    public long setMaximumEntryAgeMS(long maxAgeMS)
+    {
+        this.maxAgeMS = (maxAgeMS > 0L)? maxAgeMS : 0L;
+        return this.maxAgeMS;
+    }
+
+    /**
+    *** Gets the default maximum entry age, in milliseconds (0 for indefinite)
+    **/
+    public long getMaximumEntryAgeMS()
+    {
+        return this.maxAgeMS;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of entries in the cache
+    **/
+    public int getSize()
+    {
+        int size = 0;
+        for (Segment s : this.segments) {
+            size += s.size();
+        }
+        return size;
+    }
+
+    /**
+    *** Gets the total weight of all entries in the cache
+    **/
+    public long getWeight()
+    {
+        long weight = 0L;
+        for (Segment s : this.segments) {
+            weight += s.weight();
+        }
+        return weight;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Adds an entry to the cache, using the default maximum entry age
+    *** @param key  The key to add
+    *** @param val  The value to associate with the specified key
+    **/
+    public void addValue(KEY key, VAL val)
+    {
+        this.addValue(key, val, this.maxAgeMS);
+    }
+
+    /**
+    *** Adds an entry to the cache
+    *** @param key    The key to add
+    *** @param val    The value to associate with the specified key
+    *** @param ttlMS  The time-to-live of this entry (0 for indefinite)
+    **/
+    public void addValue(KEY key, VAL val, long ttlMS)
+    {
+        if (key != null) {
+            long nowMS = System.currentTimeMillis();
+            long expMS = (ttlMS > 0L)? (nowMS + ttlMS) : 0L;
+            Node<KEY,VAL> n = new Node<KEY,VAL>(key, val, this._getWeight(key,val), expMS);
+            this._getSegment(key).put(n, nowMS);
+        }
+    }
+
+    /**
+    *** Returns true if the specified (unexpired) key exists in the cache
+    **/
+    public boolean hasValue(KEY key)
+    {
+        if (key != null) {
+            return this._getSegment(key).contains(key, System.currentTimeMillis());
+        }
+        return false;
+    }
+
+    /**
+    *** Gets the value for the specified key, or null if the key does not exist
+    **/
+    public VAL getValue(KEY key)
+    {
+        return this.getValue(key, null);
+    }
+
+    /**
+    *** Gets the value for the specified key
+    *** @param key  The key of the value to retrieve
+    *** @param dft  The default value if the key does not exist
+    *** @return The value for the specified key, or specified default if the key does not exist
+    **/
+    public VAL getValue(KEY key, VAL dft)
+    {
+        Node<KEY,VAL> n = (key != null)? this._getSegment(key).get(key, System.currentTimeMillis()) : null;
+        if (n != null) {
+            this.hitCount.incrementAndGet();
+            return n.value;
+        } else {
+            this.missCount.incrementAndGet();
+            return dft;
+        }
+    }
+
+    /**
+    *** Removes the specified key from the cache
+    *** @return True if the key was removed
+    **/
+    public boolean removeValue(KEY key)
+    {
+        return (key != null)? this._getSegment(key).remove(key) : false;
+    }
+
+    /**
+    *** Removes all entries from the cache
+    **/
+    public void clearCache()
+    {
+        for (Segment s : this.segments) {
+            s.clear();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of cache hits
+    **/
+    public long getHitCount()
+    {
+        return this.hitCount.get();
+    }
+
+    /**
+    *** Gets the number of cache misses
+    **/
+    public long getMissCount()
+    {
+        return this.missCount.get();
+    }
+
+    /**
+    *** Gets the number of entries evicted due to size/weight
+    **/
+    public long getEvictionCount()
+    {
+        return this.evictCount.get();
+    }
+
+    /**
+    *** Gets the number of entries removed due to age
+    **/
+    public long getExpirationCount()
+    {
+        return this.expireCount.get();
+    }
+
+    /**
+    *** Gets the cache hit rate (0.0 to 1.0)
+    **/
+    public double getHitRate()
+    {
+        long hits = this.getHitCount();
+        long reqs = hits + this.getMissCount();
+        return (reqs > 0L)? ((double)hits / (double)reqs) : 0.0;
+    }
+
+    /**
+    *** Resets the cache statistics
+    **/
+    public void resetStatistics()
+    {
+        this.hitCount.set(0L);
+        this.missCount.set(0L);
+        this.evictCount.set(0L);
+        this.expireCount.set(0L);
+    }
+
+    /**
+    *** Gets the cache statistics
+    **/
+    public String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("size=").append(this.getSize());
+        sb.append(" weight=").append(this.getWeight()).append("/").append(this.getMaximumCacheSize());
+        sb.append(" hits=").append(this.getHitCount());
+        sb.append(" misses=").append(this.getMissCount());
+        sb.append(" hitRate=").append(StringTools.format(this.getHitRate()*100.0,"0.0")).append("%");
+        sb.append(" evicted=").append(this.getEvictionCount());
+        sb.append(" expired=").append(this.getExpirationCount());
+        return sb.toString();
+    }
+
+    /**
+    *** Returns a String representation of this cache
+    **/
+    public String toString()
+    {
+        return "ConcurrentMemCache[" + this.getStatistics() + "]";
+    }
+
+    // ------------------------------------------------------------------------
+
+}
@@ -218,6 +218,16 @@ public class MemCache<KEY,VAL>
                 //this.trimCache("addValue");
             }
         }
+        public boolean removeValue(KEY key) {
+            if (key != null) {
+                return (this.cacheMap.remove(key) != null)? true : false;
+            } else {
+                return false;
+            }
+        }
+        public void clearCache() {
+            this.cacheMap.clear();
+        }
         public VAL getValue(KEY key, VAL dft) {
             // -- get entry (return default if not found)
             MemEntry<KEY,VAL> me = this.cacheMap.get(key);
@@ -580,6 +590,32 @@ public class MemCache<KEY,VAL>
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Remove entry from cache
+    *** @param key  The key of the value to remove
+    *** @return True if the key existed in the cache, false otherwise
+    **/
+    public boolean removeValue(KEY key)
+    {
+        boolean rtn;
+        synchronized (this.memCache) {
+            rtn = this.memCache.removeValue(key);
+        }
+        return rtn;
+    }
+
+    /**
+    *** Removes all entries from the cache
+    **/
+    public void clearCache()
+    {
+        synchronized (this.memCache) {
+            this.memCache.clearCache();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Gets a String representation of the contents of this MemCache.
     *** (used for debugging only)
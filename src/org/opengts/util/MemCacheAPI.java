@@ -47,6 +47,25 @@ public interface MemCacheAPI<KEY,VAL>
     **/
     public int getMaximumCacheSize();
 
+    /**
+    *** Sets the maximum entry age, in milliseconds (0 for indefinite)
+    *** @param maxAgeMS  The maximum entry age
+    *** @return The set maximum entry age
+    **/
+    public long setMaximumEntryAgeMS(long maxAgeMS);
+
+    /**
+    *** Gets the maximum entry age, in milliseconds (0 for indefinite)
+    *** @return The maximum entry age
+    **/
+    public long getMaximumEntryAgeMS();
+
+    /**
+    *** Gets the number of entries currently in the cache
+    *** @return The number of entries in the cache
+    **/
+    public int getSize();
+
     // ------------------------------------------------------------------------
 
     /**
@@ -71,4 +90,16 @@ public interface MemCacheAPI<KEY,VAL>
     **/
     public VAL getValue(KEY key, VAL dft);
 
+    /**
+    *** Remove entry from cache
+    *** @param key  The key of the value to remove
+    *** @return True if the key was removed
+    **/
+    public boolean removeValue(KEY key);
+
+    /**
+    *** Remove all entries from cache
+    **/
+    public void clearCache();
+
 }
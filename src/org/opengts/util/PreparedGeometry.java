@@ -0,0 +1,474 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Immutable pre-processed zone geometry for repeated point-inclusion tests
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.lang.*;
+import java.util.*;
+
+/**
+*** Holds a zone shape (multi-point radius, polygon, or swept-point-radius corridor)
+*** in a form that is cheap to test repeatedly: vertices are held in primitive arrays,
+*** a bounding box (expanded by the radius) is used for early rejection, and the
+*** polygon edges/corridor segments/radius points are bucketed by latitude band so
+*** that only the few items which can affect the result are examined.<br>
+*** Instances are immutable and may be shared between threads.
+**/
+
+public class PreparedGeometry
+{
+
+    // ------------------------------------------------------------------------
+
+    public  static final int        TYPE_POINT_RADIUS   = 1;
+    public  static final int        TYPE_POLYGON        = 2;
+    public  static final int        TYPE_SWEPT_RADIUS   = 3;
+
+    /* maximum number of latitude bands */
+    private static final int        MAX_BANDS           = 256;
+
+    /* slop added to the rejection bounds to absorb floating-point rounding */
+    private static final double     EPSILON_DEG         = 1.0E-9;
+
+    private static final double     EARTH_RADIUS_KM     = GeoPoint.EARTH_MEAN_RADIUS_KM;
+    private static final double     RADIANS             = GeoPoint.RADIANS;
+
+    private static double SQ(double v) { return v * v; }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates a prepared multi-point radius geometry.  A point is inside if it is
+    *** within <code>radiusKM</code> of any of the specified points (great-circle).
+    *** @param gp        The zone points
+    *** @param radiusKM  The radius in kilometers
+    *** @return The prepared geometry
+    **/
+    public static PreparedGeometry createPointRadius(GeoPoint gp[], double radiusKM)
+    {
+        return new PreparedGeometry(TYPE_POINT_RADIUS, gp, radiusKM);
+    }
+
+    /**
+    *** Creates a prepared polygon geometry.  Inclusion matches
+    *** "GeoPolygon.isPointInside" (winding number on the lat/lon plane).
+    *** @param gp  The polygon vertices
+    *** @return The prepared geometry
+    **/
+    public static PreparedGeometry createPolygon(GeoPoint gp[])
+    {
+        return new PreparedGeometry(TYPE_POLYGON, gp, 0.0);
+    }
+
+    /**
+    *** Creates a prepared swept-point-radius (corridor) geometry.  A point is inside
+    *** if it is within <code>radiusKM</code> of any segment joining consecutive points.
+    *** @param gp        The corridor points
+    *** @param radiusKM  The corridor half-width in kilometers
+    *** @return The prepared geometry
+    **/
+    public static PreparedGeometry createSweptRadius(GeoPoint gp[], double radiusKM)
+    {
+        if ((gp == null) || (gp.length < 2)) {
+            // -- a single point corridor is a point radius
+            return new PreparedGeometry(TYPE_POINT_RADIUS, gp, radiusKM, TYPE_SWEPT_RADIUS);
+        }
+        return new PreparedGeometry(TYPE_SWEPT_RADIUS, gp, radiusKM);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private final int       type;           // test type
+    private final int       srcType;        // requested type
+    private final GeoPoint  source[];       // points this geometry was prepared from
+    private final double    radiusKM;
+
+    /* vertices (degrees/radians) */
+    private final int       vtxCount;
+    private final double    vLat[];
+    private final double    vLon[];
+    private final double    vLatR[];
+    private final double    vLonR[];
+    private final double    vCos[];
+    private final double    vDLonMax[];     // [POINT_RADIUS] max longitude delta (radians)
+    private final double    sKmX[];         // [SWEPT_RADIUS] km per degree longitude for segment
+
+    /* bounding box (expanded by radius) */
+    private final double    minLat;
+    private final double    maxLat;
+    private final double    minLon;
+    private final double    maxLon;
+    private final boolean   checkLon;
+
+    /* latitude band index (items are points, edges, or segments) */
+    private final int       itemCount;
+    private final double    bandMin;
+    private final double    bandScale;
+    private final int       bandCount;
+    private final int       bandStart[];
+    private final int       bandItem[];
+
+    /**
+    *** Constructor
+    **/
+    private PreparedGeometry(int type, GeoPoint gp[], double radiusKM)
+    {
+        this(type, gp, radiusKM, type);
+    }
+
+    /**
+    *** Constructor
+    **/
+    private PreparedGeometry(int type, GeoPoint gp[], double radiusKM, int srcType)
+    {
+        this.type     = type;
+        this.srcType  = srcType;
+        this.source   = gp;
+        this.radiusKM = (radiusKM > 0.0)? radiusKM : 0.0;
+
+        /* vertices (polygons are closed first, as in "GeoPolygon.isPointInside") */
+        GeoPoint pp[] = (type == TYPE_POLYGON)? GeoPolygon.closePolygon(gp) : gp;
+        int n = (pp != null)? pp.length : 0;
+        this.vtxCount = n;
+        this.vLat     = new double[n];
+        this.vLon     = new double[n];
+        this.vLatR    = new double[n];
+        this.vLonR    = new double[n];
+        this.vCos     = new double[n];
+        double maxAbsLat = 0.0;
+        double vMinLat =  90.0, vMaxLat =  -90.0;
+        double vMinLon = 180.0, vMaxLon = -180.0;
+        for (int i = 0; i < n; i++) {
+            double lat = pp[i].getLatitude();
+            double lon = pp[i].getLongitude();
+            this.vLat[i]  = lat;
+            this.vLon[i]  = lon;
+            this.vLatR[i] = pp[i].getLatitudeRadians();
+            this.vLonR[i] = pp[i].getLongitudeRadians();
+            this.vCos[i]  = Math.cos(this.vLatR[i]);
+            if (lat < vMinLat) { vMinLat = lat; }
+            if (lat > vMaxLat) { vMaxLat = lat; }
+            if (lon < vMinLon) { vMinLon = lon; }
+            if (lon > vMaxLon) { vMaxLon = lon; }
+            if (Math.abs(lat) > maxAbsLat) { maxAbsLat = Math.abs(lat); }
+        }
+
+        /* radius in degrees latitude (distance on a sphere is never less than R*|dLat|) */
+        double rRad = this.radiusKM / EARTH_RADIUS_KM;
+        double rDeg = (type == TYPE_POLYGON)? 0.0 : ((rRad / RADIANS) + EPSILON_DEG);
+
+        /* longitude margin (degrees), or negative if longitude can not be used to reject */
+        double lonMargin;
+        if (type == TYPE_POLYGON) {
+            // -- winding number is zero outside of the vertex longitude range
+            lonMargin = (n >= 3)? 0.0 : -1.0;
+        } else
+        if ((maxAbsLat + rDeg) >= 89.0) {
+            lonMargin = -1.0; // near a pole
+        } else {
+            double c = Math.cos((maxAbsLat + rDeg) * RADIANS);
+            double a = Math.asin(Math.min(1.0, Math.sin(rRad) / c));
+            lonMargin = (Math.max(a, rRad / c) / RADIANS) + EPSILON_DEG;
+        }
+
+        /* bounding box */
+        if (n > 0) {
+            this.minLat   = vMinLat - rDeg;
+            this.maxLat   = vMaxLat + rDeg;
+            this.minLon   = vMinLon - Math.max(lonMargin,0.0);
+            this.maxLon   = vMaxLon + Math.max(lonMargin,0.0);
+            this.checkLon = (lonMargin >= 0.0) && (this.minLon >= -180.0) && (this.maxLon <= 180.0);
+        } else {
+            this.minLat   =  90.0;
+            this.maxLat   = -90.0;
+            this.minLon   = 180.0;
+            this.maxLon   = -180.0;
+            this.checkLon = false;
+        }
+
+        /* per-type item data */
+        if (type == TYPE_POINT_RADIUS) {
+            // -- items are points
+            this.itemCount = n;
+            this.vDLonMax  = new double[n];
+            this.sKmX      = null;
+            double s = Math.sin(rRad);
+            for (int i = 0; i < n; i++) {
+                if ((rRad >= (Math.PI / 2.0)) || (s >= this.vCos[i])) {
+                    this.vDLonMax[i] = Double.POSITIVE_INFINITY; // circle contains a pole
+                } else {
+                    this.vDLonMax[i] = Math.asin(s / this.vCos[i]) + (EPSILON_DEG * RADIANS);
+                }
+            }
+        } else
+        if (type == TYPE_SWEPT_RADIUS) {
+            // -- items are segments [i,i+1], projected about the segment mid-latitude
+            this.itemCount = n - 1;
+            this.vDLonMax  = null;
+            this.sKmX      = new double[n - 1];
+            for (int i = 0; i < (n - 1); i++) {
+                double midLatR = ((this.vLat[i] + this.vLat[i+1]) / 2.0) * RADIANS;
+                this.sKmX[i] = Math.cos(midLatR) * EARTH_RADIUS_KM * RADIANS;
+            }
+        } else {
+            // -- items are edges [i,i+1]
+            this.itemCount = Math.max(n - 1, 0);
+            this.vDLonMax  = null;
+            this.sKmX      = null;
+        }
+
+        /* latitude bands */
+        int bands = Math.max(1, Math.min(MAX_BANDS, this.itemCount));
+        double span = this.maxLat - this.minLat;
+        this.bandMin   = this.minLat;
+        this.bandScale = (span > 0.0)? ((double)bands / span) : 0.0;
+        this.bandCount = (span > 0.0)? bands : 1;
+        int itemLo[] = new int[this.itemCount];
+        int itemHi[] = new int[this.itemCount];
+        int cnt[]    = new int[this.bandCount + 1];
+        for (int i = 0; i < this.itemCount; i++) {
+            double lo, hi;
+            if (type == TYPE_POINT_RADIUS) {
+                lo = this.vLat[i] - rDeg;
+                hi = this.vLat[i] + rDeg;
+            } else {
+                lo = Math.min(this.vLat[i], this.vLat[i+1]) - rDeg;
+                hi = Math.max(this.vLat[i], this.vLat[i+1]) + rDeg;
+            }
+            itemLo[i] = this._band(lo);
+            itemHi[i] = this._band(hi);
+            for (int b = itemLo[i]; b <= itemHi[i]; b++) {
+                cnt[b + 1]++;
+            }
+        }
+        for (int b = 0; b < this.bandCount; b++) {
+            cnt[b + 1] += cnt[b];
+        }
+        this.bandStart = cnt;
+        this.bandItem  = new int[cnt[this.bandCount]];
+        int fill[] = new int[this.bandCount];
+        for (int i = 0; i < this.itemCount; i++) {
+            for (int b = itemLo[i]; b <= itemHi[i]; b++) {
+                this.bandItem[this.bandStart[b] + fill[b]++] = i;
+            }
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /* return the latitude band for the specified latitude (monotonic in 'lat') */
+    private int _band(double lat)
+    {
+        int b = (int)Math.floor((lat - this.bandMin) * this.bandScale);
+        return (b < 0)? 0 : (b >= this.bandCount)? (this.bandCount - 1) : b;
+    }
+
+    /* return the normalized longitude delta [-180..180] */
+    private static double _deltaLon(double lon, double lon0)
+    {
+        double d = lon - lon0;
+        if (d > 180.0) {
+            d -= 360.0;
+        } else
+        if (d < -180.0) {
+            d += 360.0;
+        }
+        return d;
+    }
+
+    /* return the great-circle distance (km) from vertex 'v' to the specified point (haversine) */
+    private double _vertexKM(int v, double latR, double lonR, double cosLat)
+    {
+        double dlat = latR - this.vLatR[v];
+        double dlon = lonR - this.vLonR[v];
+        double a    = SQ(Math.sin(dlat/2.0)) + (this.vCos[v] * cosLat * SQ(Math.sin(dlon/2.0)));
+        double rad  = 2.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1.0 - a));
+        return EARTH_RADIUS_KM * rad;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns the type this geometry was requested as (TYPE_POINT_RADIUS, TYPE_POLYGON,
+    *** TYPE_SWEPT_RADIUS)
+    **/
+    public int getType()
+    {
+        return this.srcType;
+    }
+
+    /**
+    *** Returns the radius (kilometers) this geometry was prepared with
+    **/
+    public double getRadiusKilometers()
+    {
+        return this.radiusKM;
+    }
+
+    /**
+    *** Returns the number of vertices in this geometry
+    **/
+    public int getVertexCount()
+    {
+        return this.vtxCount;
+    }
+
+    /**
+    *** Returns true if this geometry was prepared from the specified points array instance,
+    *** type, and radius
+    **/
+    public boolean isPreparedFrom(int type, GeoPoint gp[], double radiusKM)
+    {
+        if (this.srcType != type) {
+            return false;
+        } else
+        if (this.source != gp) {
+            return false; // identity compare
+        } else
+        if ((type != TYPE_POLYGON) && (this.radiusKM != ((radiusKM > 0.0)? radiusKM : 0.0))) {
+            return false;
+        } else {
+            return true;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if the specified point is inside this geometry
+    *** @param gp  The point to test
+    *** @return True if inside
+    **/
+    public boolean containsPoint(GeoPoint gp)
+    {
+        if ((gp == null) || (this.itemCount <= 0)) {
+            return false;
+        }
+        double lat = gp.getLatitude();
+        double lon = gp.getLongitude();
+
+        /* bounding box rejection */
+        if ((lat < this.minLat) || (lat > this.maxLat)) {
+            return false;
+        } else
+        if (this.checkLon && ((lon < this.minLon) || (lon > this.maxLon))) {
+            return false;
+        }
+
+        /* test items in this latitude band */
+        int b = this._band(lat);
+        int bS = this.bandStart[b], bE = this.bandStart[b + 1];
+        switch (this.type) {
+            case TYPE_POINT_RADIUS : return this._inPointRadius(gp, bS, bE);
+            case TYPE_SWEPT_RADIUS : return this._inSweptRadius(gp, lat, lon, bS, bE);
+            case TYPE_POLYGON      : return this._inPolygon(lat, lon, bS, bE);
+        }
+        return false;
+
+    }
+
+    /* multi-point radius */
+    private boolean _inPointRadius(GeoPoint gp, int bS, int bE)
+    {
+        double latR   = gp.getLatitudeRadians();
+        double lonR   = gp.getLongitudeRadians();
+        double cosLat = Math.cos(latR);
+        double rLatR  = (this.radiusKM / EARTH_RADIUS_KM) + (EPSILON_DEG * RADIANS);
+        for (int k = bS; k < bE; k++) {
+            int v = this.bandItem[k];
+            if (Math.abs(latR - this.vLatR[v]) > rLatR) {
+                continue;
+            }
+            double dLon = Math.abs(_deltaLon(gp.getLongitude(), this.vLon[v])) * RADIANS;
+            if (dLon > this.vDLonMax[v]) {
+                continue;
+            }
+            if (this._vertexKM(v, latR, lonR, cosLat) <= this.radiusKM) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* swept-point-radius corridor */
+    private boolean _inSweptRadius(GeoPoint gp, double lat, double lon, int bS, int bE)
+    {
+        double kmY    = EARTH_RADIUS_KM * RADIANS;
+        double r2     = SQ(this.radiusKM);
+        double latR   = gp.getLatitudeRadians();
+        double lonR   = gp.getLongitudeRadians();
+        double cosLat = Math.cos(latR);
+        for (int k = bS; k < bE; k++) {
+            int s = this.bandItem[k];
+            // -- project onto a local plane with the segment start at the origin
+            double kmX = this.sKmX[s];
+            double bx  = _deltaLon(this.vLon[s+1], this.vLon[s]) * kmX;
+            double by  = (this.vLat[s+1] - this.vLat[s]) * kmY;
+            double px  = _deltaLon(lon, this.vLon[s]) * kmX;
+            double py  = (lat - this.vLat[s]) * kmY;
+            double bb  = (bx * bx) + (by * by);
+            double t   = (bb > 0.0)? (((px * bx) + (py * by)) / bb) : 0.0;
+            if (t <= 0.0) {
+                // -- nearest to segment start
+                if (this._vertexKM(s, latR, lonR, cosLat) <= this.radiusKM) { return true; }
+            } else
+            if (t >= 1.0) {
+                // -- nearest to segment end
+                if (this._vertexKM(s+1, latR, lonR, cosLat) <= this.radiusKM) { return true; }
+            } else {
+                double dx = px - (t * bx);
+                double dy = py - (t * by);
+                if (((dx * dx) + (dy * dy)) <= r2) { return true; }
+                // -- the projection is approximate, always include the vertex circles
+                if (this._vertexKM(s  , latR, lonR, cosLat) <= this.radiusKM) { return true; }
+                if (this._vertexKM(s+1, latR, lonR, cosLat) <= this.radiusKM) { return true; }
+            }
+        }
+        return false;
+    }
+
+    /* polygon (winding number, see "GeoPolygon.isPointInside") */
+    private boolean _inPolygon(double lat, double lon, int bS, int bE)
+    {
+        int wn = 0;
+        for (int k = bS; k < bE; k++) {
+            int i = this.bandItem[k];
+            double x0 = this.vLon[i], y0 = this.vLat[i];
+            double x1 = this.vLon[i+1], y1 = this.vLat[i+1];
+            if (y0 <= lat) {
+                if (y1 > lat) {
+                    // -- upward crossing, point left of edge
+                    if ((((x1 - x0) * (lat - y0)) - ((lon - x0) * (y1 - y0))) > 0.0) { ++wn; }
+                }
+            } else {
+                if (y1 <= lat) {
+                    // -- downward crossing, point right of edge
+                    if ((((x1 - x0) * (lat - y0)) - ((lon - x0) * (y1 - y0))) < 0.0) { --wn; }
+                }
+            }
+        }
+        return (wn != 0);
+    }
+
+    // ------------------------------------------------------------------------
+
+}
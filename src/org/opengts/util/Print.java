@@ -174,6 +174,7 @@ public class Print
 
     private static int          printLogIncludeFrame    = -1;       // lazy init
     private static int          printLogIncludeDate     = -1;       // lazy init
+    private static int          printLogAsync           = -1;       // lazy init
 
     private static boolean      printLogFile_init       = false;    // volatile?
     private static File         printLogFile            = null;
@@ -191,6 +192,7 @@ public class Print
         Print.printLogHeaderLevel     = LOG_UNDEFINED;
         Print.printLogIncludeFrame    = -1;
         Print.printLogIncludeDate     = -1;
+        Print.printLogAsync           = -1;
         Print.printLogFile_init       = false;
         Print.printLogFile            = null;
         Print.printRotateLogFileSize  = -1L;
@@ -234,6 +236,43 @@ public class Print
         return (printLogIncludeDate > 0);
     }
     
+    /**
+    *** Sets the asynchronous logging state.
+    *** @param async  True to write log messages from a background writer thread
+    **/
+    public static void setAsyncLogging(boolean async)
+    {
+        if (!async && (printLogAsync > 0)) {
+            Print.flushLog();
+        }
+        printLogAsync = async? 1 : 0;
+    }
+
+    /**
+    *** Returns true if log messages are written asynchronously (see "AsyncLogWriter")
+    *** @return True if log messages are written asynchronously
+    **/
+    protected static boolean _isAsyncLogging()
+    {
+        if (printLogAsync < 0) {
+            if (!RTConfig.isInitialized()) {
+                return false; // not yet known
+            }
+            printLogAsync = RTConfig.getBoolean(RTKey.LOG_ASYNC_ENABLE,false)? 1 : 0;
+        }
+        return (printLogAsync > 0);
+    }
+
+    /**
+    *** Waits (up to 5 seconds) for queued asynchronous log messages to be written
+    **/
+    public static void flushLog()
+    {
+        if (printLogAsync > 0) {
+            AsyncLogWriter.getInstance().flush(5000L);
+        }
+    }
+
     /**
     *** Returns true if exceptions should be emailed to the recipient on file
     *** @return True if exceptions should be emailed
@@ -364,8 +403,18 @@ public class Print
         /* extract stack frame */
         Throwable t = new Throwable();
         t.fillInStackTrace();
-        StackTraceElement st[] = t.getStackTrace();
-        StackTraceElement sf = (st != null)? st[nextFrame] : null;
+        return Print._getStackFrame(t.getStackTrace(), nextFrame);
+    }
+
+    /**
+    *** Returns a String representation of the specified frame within the specified stackframe.
+    *** @param st     The stackframe
+    *** @param frame  The frame index
+    *** @return The String representation of the requested frame
+    **/
+    public static String _getStackFrame(StackTraceElement st[], int frame)
+    {
+        StackTraceElement sf = ((st != null) && (frame >= 0) && (frame < st.length))? st[frame] : null;
 
         /* no stack frame? */
         if (sf == null) {
@@ -780,7 +829,7 @@ public class Print
     *** Gets the stderr PrintStream
     *** @return The stderr PrintStream (does not return null)
     **/
-    private static PrintStream _getSysStderr()
+    protected static PrintStream _getSysStderr()
     {
         // REDIRECT
         if (Print.allOutputToStdout) {
@@ -991,13 +1040,22 @@ public class Print
 
         /* log stack trace */
         Print._log(level, nextFrame, msg);
-        try {
-            PrintStream out = Print.openPrintStream(); // does not return null
-            _printStackTrace(out, nextFrame, null, t);
-        } catch (Throwable loge) {
-            _printStackTrace(null, nextFrame, null, t);
-        } finally {
-            Print.closePrintStream();
+        if (Print._isAsyncLogging()) {
+            // -- stack trace text must be obtained by this thread
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            PrintStream bosOut = new PrintStream(bos);
+            _printStackTrace(bosOut, nextFrame, null, t);
+            bosOut.flush();
+            AsyncLogWriter.getInstance().logRaw(level, bos.toString());
+        } else {
+            try {
+                PrintStream out = Print.openPrintStream(); // does not return null
+                _printStackTrace(out, nextFrame, null, t);
+            } catch (Throwable loge) {
+                _printStackTrace(null, nextFrame, null, t);
+            } finally {
+                Print.closePrintStream();
+            }
         }
 
         /* email */
@@ -1837,6 +1895,19 @@ public class Print
             return;
         }
 
+        /* asynchronous: header and message are formatted by the writer thread */
+        if (Print._isAsyncLogging()) {
+            boolean   header = (level <= Print.getLogHeaderLevel());
+            long      timeMS = (header && Print._includeDate())? System.currentTimeMillis() : 0L;
+            Throwable caller = null;
+            if (header && Print._includeStackFrame() && (nextFrame >= 0)) {
+                // -- the stack frame elements are decoded on the writer thread
+                caller = new Throwable();
+            }
+            AsyncLogWriter.getInstance().log(level, header, timeMS, caller, nextFrame, msg, args);
+            return;
+        }
+
         /* message accumulator */
         StringBuffer logMsg = new StringBuffer();
 
@@ -1888,6 +1959,12 @@ public class Print
     public static void _writeLog(int level, String logMsg)
     {
 
+        /* asynchronous */
+        if (Print._isAsyncLogging()) {
+            AsyncLogWriter.getInstance().logRaw(level, logMsg);
+            return;
+        }
+
         /* get PrintStream */
         PrintStream out = Print.openPrintStream(); // does not return null
         if (out == null) {
@@ -1911,6 +1988,30 @@ public class Print
 
     }
 
+    /**
+    *** Writes a batch of formatted log messages to the output file (see AsyncLogWriter)
+    *** @param logBytes The formatted log messages
+    **/
+    protected static void _writeLogBytes(ByteArrayOutputStream logBytes)
+    {
+
+        /* get PrintStream */
+        PrintStream out = Print.openPrintStream(); // does not return null
+
+        /* PrintStream output */
+        try {
+            logBytes.writeTo(out);  // [OUTPUT]
+            out.flush();
+        } catch (IOException ioe) {
+            Print.setLogFile(null);
+            Print.sysPrintln("ERROR: Unable to open/write log file: " + ioe);
+            Print._print(Print._getSysStderr(), 0, false, logBytes.toString());
+        } finally {
+            Print.closePrintStream();
+        }
+
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
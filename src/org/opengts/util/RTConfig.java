@@ -70,6 +70,7 @@ import java.io.*;
 import java.util.*;
 import java.net.*;
 import java.math.*;
+import java.util.concurrent.atomic.*;
 
 /**
 *** Provides static support for hierarchical runtime properties
@@ -246,6 +247,177 @@ public class RTConfig
         }
     }
 
+    /**
+    *** Sets the configuration properties at the specified index
+    *** @param ndx  The configuration properties index
+    *** @param rtp  The configuration properties (may be null)
+    **/
+    private static void _setConfigProperties(int ndx, RTProperties rtp)
+    {
+        if (rtp != null) {
+            rtp.addChangeListener(CFG_CHANGE_LISTENER);
+        }
+        CFG_PROPERTIES[ndx] = rtp;
+        RTConfig._configChanged();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // Compiled configuration snapshot:
+    // All property levels other than the thread-local and thread-temporary properties
+    // are shared by all threads.  These levels are flattened into a single key-to-level
+    // map, which is rebuilt only after one of these levels has changed.
+
+    private static AtomicLong       CFG_VERSION             = new AtomicLong(1L);
+    private static volatile Snapshot CFG_SNAPSHOT           = null;
+    private static AtomicInteger    CFG_TEMPORARY_COUNT     = new AtomicInteger(0); // threads with temporary properties
+    private static volatile boolean CFG_THREAD_LOCAL_SET    = false; // thread-local properties have been set
+    private static volatile boolean CFG_LIVE_SYSTEM_PROPS   = false; // System properties are not a copy
+
+    private static RTProperties.PropertyChangeListener CFG_CHANGE_LISTENER = new RTProperties.PropertyChangeListener() {
+        public void propertyChange(RTProperties.PropertyChangeEvent pce) {
+            RTConfig._configChanged();
+        }
+    };
+
+    /**
+    *** Called when one of the shared configuration property levels has changed
+    **/
+    protected static void _configChanged()
+    {
+        CFG_VERSION.incrementAndGet();
+    }
+
+    /**
+    *** Returns true if the current thread has thread-local or temporary properties
+    **/
+    private static boolean _hasThreadProperties()
+    {
+        if ((CFG_TEMPORARY_COUNT.get() > 0) && (RTConfig.getTemporaryPropertiesStackSize() > 0)) {
+            return true;
+        } else
+        if (CFG_THREAD_LOCAL_SET) {
+            RTProperties tlProps = CFG_PROPERTIES[THREAD_LOCAL];
+            return ((tlProps != null) && !tlProps.isEmpty());
+        } else {
+            return false;
+        }
+    }
+
+    /**
+    *** Gets the current runtime configuration version, as seen by the current thread.
+    *** The version changes whenever any of the shared configuration property levels 
+    *** (including the RTKey defaults) is changed, and may be used to cache values 
+    *** obtained from RTConfig (see <code>RTKey.BooleanHandle</code>, etc).
+    *** Note: changes made directly to the System properties (ie. "System.setProperty"), 
+    *** rather than through RTConfig, do not change the version.
+    *** @return The current configuration version, or '-1' if values obtained by the current
+    ***     thread must not be cached (ie. the current thread has thread-local or temporary
+    ***     properties).
+    **/
+    public static long getConfigVersion()
+    {
+        if (RTConfig._hasThreadProperties()) {
+            return -1L;
+        } else {
+            return CFG_VERSION.get();
+        }
+    }
+
+    /**
+    *** Gets the compiled snapshot of the shared configuration property levels, rebuilding
+    *** the snapshot if any of these levels has changed since it was last built.
+    *** @return The Snapshot, or null if the snapshot could not be built at this time (ie.
+    ***     a property level was modified while the snapshot was being built)
+    **/
+    public static Snapshot getSnapshot()
+    {
+        Snapshot snap = CFG_SNAPSHOT;
+        if ((snap == null) || (snap.getVersion() != CFG_VERSION.get())) {
+            synchronized (CFG_PROPERTIES) {
+                snap = CFG_SNAPSHOT;
+                long ver = CFG_VERSION.get();
+                if ((snap == null) || (snap.getVersion() != ver)) {
+                    try {
+                        snap = new Snapshot(ver, CFG_PROPERTIES);
+                        CFG_SNAPSHOT = snap;
+                    } catch (ConcurrentModificationException cme) {
+                        // -- a level was modified while building the snapshot, retry on next lookup
+                        snap = null;
+                    }
+                }
+            }
+        }
+        return snap;
+    }
+
+    /**
+    *** Snapshot class: an immutable flattened view of the shared configuration property
+    *** levels for a specific configuration version
+    **/
+    public static class Snapshot
+    {
+        private long    version     = 0L;
+        private Object  levels[]    = null; // Map<String,RTProperties> (flattened) or RTProperties
+        private int     keyCount    = 0;
+        private Snapshot(long version, RTProperties cfgProps[]) {
+            this.version = version;
+            java.util.List<Object> lvls = new Vector<Object>();
+            Map<String,RTProperties> keyMap = null;
+            for (int i = THREAD_LOCAL + 1; i < cfgProps.length; i++) {
+                RTProperties rtp = cfgProps[i];
+                if (rtp == null) {
+                    continue;
+                }
+                if (rtp.getIgnoreKeyCase() || ((i == SYSTEM_PROPS) && CFG_LIVE_SYSTEM_PROPS)) {
+                    // -- cannot be flattened, this level will be checked directly
+                    if (keyMap != null) {
+                        lvls.add(keyMap);
+                        keyMap = null;
+                    }
+                    lvls.add(rtp);
+                } else {
+                    if (keyMap == null) {
+                        keyMap = new HashMap<String,RTProperties>();
+                    }
+                    for (Object k : rtp.getProperties().keySet()) {
+                        if ((k instanceof String) && !keyMap.containsKey(k) && rtp.hasProperty(k)) {
+                            keyMap.put((String)k, rtp);
+                            this.keyCount++;
+                        }
+                    }
+                }
+            }
+            if (keyMap != null) {
+                lvls.add(keyMap);
+            }
+            this.levels = lvls.toArray(new Object[lvls.size()]);
+        }
+        public long getVersion() {
+            return this.version;
+        }
+        public int getKeyCount() {
+            return this.keyCount;
+        }
+        @SuppressWarnings("unchecked")
+        public RTProperties getPropertiesForKey(String key) {
+            for (int i = 0; i < this.levels.length; i++) {
+                Object lvl = this.levels[i];
+                if (lvl instanceof RTProperties) {
+                    if (((RTProperties)lvl).hasProperty(key)) {
+                        return (RTProperties)lvl;
+                    }
+                } else {
+                    RTProperties rtp = ((Map<String,RTProperties>)lvl).get(key);
+                    if (rtp != null) {
+                        return rtp;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -281,7 +453,7 @@ public class RTConfig
     {
 
         /* find temporary properties that has the specified key */
-        if (CFG_THREAD_TEMPORARY != null) {
+        if ((CFG_THREAD_TEMPORARY != null) && (CFG_TEMPORARY_COUNT.get() > 0)) {
             Stack<RTProperties> rtpStack = CFG_THREAD_TEMPORARY.get();
             if (rtpStack != null) {
                 // back to front
@@ -327,6 +499,7 @@ public class RTConfig
         if (rtpStack == null) {
             rtpStack = new Stack<RTProperties>();
             CFG_THREAD_TEMPORARY.set(rtpStack);
+            CFG_TEMPORARY_COUNT.incrementAndGet();
         }
 
         /* push the properties onto the stack */
@@ -359,6 +532,7 @@ public class RTConfig
                 if (rtpStack.empty()) {
                     // discard Stack (garbage collect)
                     CFG_THREAD_TEMPORARY.set(null);
+                    CFG_TEMPORARY_COUNT.decrementAndGet();
                 }
 
             } else
@@ -387,6 +561,7 @@ public class RTConfig
                 /* clear RTProperties stack */
                 rtpStack.clear();
                 CFG_THREAD_TEMPORARY.set(null);
+                CFG_TEMPORARY_COUNT.decrementAndGet();
 
             }
         }
@@ -408,6 +583,23 @@ public class RTConfig
         }
     }
 
+    /**
+    *** Gets a copy of the temporary <code>RTProperties</code> stack for the current
+    *** thread (bottom of stack first), which may be pushed onto the stack of a
+    *** thread performing work on behalf of the current thread
+    *** @return The temporary <code>RTProperties</code> stack (null if empty)
+    **/
+    public static RTProperties[] getTemporaryPropertiesStack()
+    {
+        if (CFG_THREAD_TEMPORARY != null) {
+            Stack<RTProperties> rtpStack = CFG_THREAD_TEMPORARY.get();
+            if ((rtpStack != null) && !rtpStack.empty()) {
+                return rtpStack.toArray(new RTProperties[rtpStack.size()]);
+            }
+        }
+        return null;
+    }
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -420,7 +612,13 @@ public class RTConfig
         if (CFG_PROPERTIES[THREAD_LOCAL] == null) {
             synchronized (CFG_PROPERTIES) {
                 if (CFG_PROPERTIES[THREAD_LOCAL] == null) {
-                    CFG_PROPERTIES[THREAD_LOCAL] = new RTProperties(new ThreadLocalMap<Object,Object>());
+                    RTProperties tlProps = new RTProperties(new ThreadLocalMap<Object,Object>());
+                    tlProps.addChangeListener(new RTProperties.PropertyChangeListener() {
+                        public void propertyChange(RTProperties.PropertyChangeEvent pce) {
+                            CFG_THREAD_LOCAL_SET = true;
+                        }
+                    });
+                    CFG_PROPERTIES[THREAD_LOCAL] = tlProps;
                 }
             }
         }
@@ -436,7 +634,7 @@ public class RTConfig
         if (CFG_PROPERTIES[RUNTIME_CONSTANT] == null) {
             synchronized (CFG_PROPERTIES) {
                 if (CFG_PROPERTIES[RUNTIME_CONSTANT] == null) {
-                    CFG_PROPERTIES[RUNTIME_CONSTANT] = new RTProperties();
+                    RTConfig._setConfigProperties(RUNTIME_CONSTANT, new RTProperties());
                 }
             }
         }
@@ -546,13 +744,30 @@ public class RTConfig
                 return tempProps;
             }
 
-            /* look for key in our property list stack */
-            //String testKey = RTKey.LOG_LEVEL_HEADER;
-            for (int i = 0; i < CFG_PROPERTIES.length; i++) {
-                RTProperties rtProps = CFG_PROPERTIES[i];
-                if ((rtProps != null) && rtProps.hasProperty(key)) {
-                    //if (key.equals(testKey)) System.out.println("RTConfig.getPropertiesForKey: Found "+testKey+" @ " + getConfigPropertiesIndexName(i));
-                    return rtProps; 
+            /* then the thread-local properties */
+            if (CFG_THREAD_LOCAL_SET) {
+                RTProperties tlProps = CFG_PROPERTIES[THREAD_LOCAL];
+                if ((tlProps != null) && tlProps.hasProperty(key)) {
+                    return tlProps;
+                }
+            }
+
+            /* look for key in the compiled snapshot of the shared property levels */
+            Snapshot snap = RTConfig.getSnapshot();
+            if (snap != null) {
+                RTProperties rtProps = snap.getPropertiesForKey(key);
+                if (rtProps != null) {
+                    return rtProps;
+                }
+            } else {
+                // -- snapshot not available, look for key in our property list stack
+                //String testKey = RTKey.LOG_LEVEL_HEADER;
+                for (int i = THREAD_LOCAL + 1; i < CFG_PROPERTIES.length; i++) {
+                    RTProperties rtProps = CFG_PROPERTIES[i];
+                    if ((rtProps != null) && rtProps.hasProperty(key)) {
+                        //if (key.equals(testKey)) System.out.println("RTConfig.getPropertiesForKey: Found "+testKey+" @ " + getConfigPropertiesIndexName(i));
+                        return rtProps; 
+                    }
                 }
             }
             
@@ -727,7 +942,7 @@ public class RTConfig
             //}
             if (CFG_PROPERTIES[COMMAND_LINE] == null) {
                 // first initialization
-                CFG_PROPERTIES[COMMAND_LINE] = cmdLineProps;     
+                RTConfig._setConfigProperties(COMMAND_LINE, cmdLineProps);
                 _startupInit(true); // initialize now to allow for overriding 'configFile'
             } else {
                 // subsequent re-initialization
@@ -793,7 +1008,7 @@ public class RTConfig
     **/
     public static void _setServletContextProperties(RTProperties props)
     {
-        CFG_PROPERTIES[SERVLET_CONTEXT] = props;
+        RTConfig._setConfigProperties(SERVLET_CONTEXT, props);
     }
 
     /** 
@@ -1352,9 +1567,11 @@ public class RTConfig
 
         /* System properties */
         Properties propMap = null;
+        CFG_LIVE_SYSTEM_PROPS = false;
         if (_allowSysPropChange) {
             try {
                 propMap = System.getProperties();
+                CFG_LIVE_SYSTEM_PROPS = true;
             } catch (SecurityException se) { // SecurityException, AccessControlException
                 Print.sysPrintln("ERROR: Attempting to call 'System.getProperties()': " + se);
             }
@@ -1372,36 +1589,37 @@ public class RTConfig
                 }
             }
         }
-        CFG_PROPERTIES[SYSTEM_PROPS] = new RTProperties(propMap);
+        RTConfig._setConfigProperties(SYSTEM_PROPS, new RTProperties(propMap));
 
         /* environment variables */
         if (RTConfig.getEnvironmentVariablesEnabled()) {
             try {
                 Map<String,String> envMap = System.getenv();
                 //for (String k:envMap.keySet()) {String v = envMap.get(k);Print.logInfo("Env: "+k+"==>"+v);}
-                CFG_PROPERTIES[ENVIRONMENT] = new RTProperties(envMap);
+                RTConfig._setConfigProperties(ENVIRONMENT, new RTProperties(envMap));
                 //CFG_PROPERTIES[ENVIRONMENT].setAllowBlankValues(false);
             } catch (Throwable th) {
                 // security error?
-                CFG_PROPERTIES[ENVIRONMENT] = null;
+                RTConfig._setConfigProperties(ENVIRONMENT, null);
             }
         }
 
         /* load config file/URL */
         if (_foundConfigURL != null) {
-            CFG_PROPERTIES[CONFIG_FILE] = new RTProperties(_foundConfigURL);
+            RTConfig._setConfigProperties(CONFIG_FILE, new RTProperties(_foundConfigURL));
             if (RTConfig.verbose) { 
                 Print.logInfo("Loaded config URL: " + _foundConfigURL); 
             }
         } else {
             //String cfgDir = RTConfig.getFile(RTKey.CONFIG_FILE_DIR);
             //String cfgFile = RTConfig.getFile(RTKey.CONFIG_FILE);
-            CFG_PROPERTIES[CONFIG_FILE] = new RTProperties(); // must be non-null
+            RTConfig._setConfigProperties(CONFIG_FILE, new RTProperties()); // must be non-null
             if (RTConfig.verbose) { 
                 Print.logWarn("No config file was found"); 
             }
         }
         CFG_PROPERTIES[CONFIG_FILE].setKeyReplacementMode(RTProperties.KEY_REPLACEMENT_GLOBAL);
+        RTConfig._configChanged();
 
         /* initialize http proxy */
         // http.proxyHost
@@ -114,6 +114,13 @@ public class RTKey
     public static final String SMTP_THREAD_MODEL_SHOW       = "smtp.threadModel.show";
     public static final String SMTP_IGNORED_EMAIL_FILE      = "smtp.ignoredEmail.file";
     public static final String SMTP_SERVER_SYSADMIN_EMAIL   = "smtp.sysadmin.emailAddress";
+    public static final String SMTP_DISPATCH_MAX_CONNECTIONS= "smtp.dispatch.maxConnections";       // Integer (per SMTP server)
+    public static final String SMTP_DISPATCH_MAX_MESSAGES   = "smtp.dispatch.messagesPerConnection"; // Integer
+    public static final String SMTP_DISPATCH_IDLE_SEC       = "smtp.dispatch.connectionIdleSec";    // Integer (sec)
+    public static final String SMTP_DISPATCH_COALESCE_SEC   = "smtp.dispatch.coalesceSec";          // Integer (sec)
+    public static final String SMTP_DISPATCH_RETRY_SEC      = "smtp.dispatch.retryDelaySec";        // Integer (sec)
+    public static final String SMTP_DISPATCH_MAX_ATTEMPTS   = "smtp.dispatch.maxAttempts";          // Integer
+    public static final String SMTP_DISPATCH_SPOOL_DIR      = "smtp.dispatch.spoolDir";             // File
     public static final String SMTP_PROPERTIES[] = {
         SMTP_DEBUG                ,
         SMTP_SERVER_HOST          ,
@@ -145,12 +152,27 @@ public class RTKey
     public static final String LOG_FILE_ROTATE_DELETE_AGE   = "log.file.rotate.deleteAge";
     public static final String LOG_INCL_DATE                = "log.include.date";
     public static final String LOG_INCL_STACKFRAME          = "log.include.frame";
+    public static final String LOG_ASYNC_ENABLE             = "log.async.enable";
+    public static final String LOG_ASYNC_BUFFER_SIZE        = "log.async.bufferSize";
+    public static final String LOG_ASYNC_DISCARD_WHEN_FULL  = "log.async.discardWhenFull";
     public static final String LOG_EMAIL_EXCEPTIONS         = "log.email.sendExceptions";
     public static final String LOG_EMAIL_FROM               = "log.email.fromAddr";
     public static final String LOG_EMAIL_TO                 = "log.email.toAddr";
     public static final String LOG_SENDMAIL_CLASS           = "log.email.sendmailClass";
     
     public static final String DB_DBCONNECTION_POOL         = "db.dbConnectionPool";                // Boolean
+    public static final String DB_CONNECTION_POOL           = "db.connectionPool";                  // Boolean
+    public static final String DB_CONNECTION_POOL_MIN_SIZE  = "db.connectionPool.minSize";          // Integer
+    public static final String DB_CONNECTION_POOL_MAX_SIZE  = "db.connectionPool.maxSize";          // Integer
+    public static final String DB_CONNECTION_POOL_STRIPES   = "db.connectionPool.stripes";          // Integer
+    public static final String DB_CONNECTION_POOL_MAX_WAIT  = "db.connectionPool.maxWaitMS";        // Long
+    public static final String DB_CONNECTION_POOL_OVERFLOW  = "db.connectionPool.maxOverflow";      // Integer
+    public static final String DB_CONNECTION_POOL_VALIDATE  = "db.connectionPool.validateIdleMS";   // Long
+    public static final String DB_CONNECTION_POOL_PING_TMO  = "db.connectionPool.pingTimeoutSec";   // Integer
+    public static final String DB_CONNECTION_POOL_MAX_IDLE  = "db.connectionPool.maxIdleMS";        // Long
+    public static final String DB_CONNECTION_POOL_EVICT     = "db.connectionPool.evictIntervalMS";  // Long
+    public static final String DB_CONNECTION_POOL_LEAK      = "db.connectionPool.leakThresholdMS";  // Long
+    public static final String DB_CONNECTION_POOL_TRACE     = "db.connectionPool.leakTrace";        // Boolean
     public static final String DB_DATASOURCE_CLASS          = "db.dataSource.class";                // String
     public static final String DB_DATASOURCE_MAX_ACTIVE     = "db.dataSource.maxActive";            // Integer
     public static final String DB_DATASOURCE_MAX_IDLE       = "db.dataSource.maxIdle";              // Integer
@@ -173,10 +195,29 @@ public class RTKey
     public static final String DB_ALLOW_UPDATE_KEY_FIELDS   = "db.allowUpdateKeyFields";            // Boolean
     public static final String DB_INACTIVE_TIMEOUT          = "db.inactiveTimeout";                 // Long (sec)
     public static final String DB_MYSQL_TBLEXIST_SEL_COUNT  = "db.mysql.tableExistsSelectCount";    // Boolean
+    public static final String DB_PREPARED_STATEMENTS       = "db.preparedStatements";              // Boolean
+    public static final String DB_PREPARED_STATEMENT_CACHE  = "db.preparedStatementCacheSize";      // Integer
+    public static final String DB_FIELD_SLOT_STORAGE        = "db.fieldSlotStorage";                // Boolean
+    public static final String DB_REPLICA_URL               = "db.replica.url";                     // String[] (comma separated)
+    public static final String DB_REPLICA_WEIGHT            = "db.replica.weight";                  // Integer[] (comma separated)
+    public static final String DB_REPLICA_USER              = "db.replica.user";                    // String
+    public static final String DB_REPLICA_PASS              = "db.replica.password";                // String
+    public static final String DB_REPLICA_MAX_LAG           = "db.replica.maxLagSec";               // Long (sec)
+    public static final String DB_REPLICA_LAG_CHECK         = "db.replica.lagCheckMS";              // Long (ms)
+    public static final String DB_REPLICA_LAG_QUERY         = "db.replica.lagQuery";                // String
+    public static final String DB_REPLICA_READ_AFTER_WRITE  = "db.replica.readAfterWriteMS";        // Long (ms)
+    public static final String DB_REPLICA_ERROR_BACKOFF     = "db.replica.errorBackoffMS";          // Long (ms)
+    public static final String DB_PARTITION_AUTO_CREATE     = "db.partition.autoCreate";            // Boolean
+    public static final String DB_PARTITION_FUTURE_COUNT    = "db.partition.futureCount";           // Integer
+    public static final String DB_PARTITION_MAINT_INTERVAL  = "db.partition.maintenanceMS";         // Long (ms)
+    public static final String DB_RECORD_CACHE              = "db.recordCache.enable";              // Boolean
+    public static final String DB_RECORD_CACHE_CHANNEL      = "db.recordCache.channelClass";        // String (class name)
 
     public static final String DB_TYPESIZE_                 = "db.typeSize.";                       // Integer
     public static final String DB_TYPEINT_                  = "db.typeInt.";                        // String (INT8|UINT8|INT16|UINT16|...)
     public static final String DB_IGNORE_COLUMN_ERROR_      = "db.ignoreColumnError.";              // Boolean 
+    public static final String DB_RECORD_CACHE_SIZE_        = "db.recordCache.size.";               // Integer
+    public static final String DB_RECORD_CACHE_AGE_         = "db.recordCache.ageSec.";             // Long (sec)
     
     public static final String _DB_LOG_MISSING_COLUMNS      = ".logMissingColumns";                 // Boolean (Suffix)
 
@@ -188,9 +229,26 @@ public class RTKey
     public static final String ThreadPool_SendMail_         = "SendMail.ThreadPool.";               // prefix
     public static final String ThreadPool_EventRuleAction_  = "Rule.ThreadPool.EventRuleAction.";   // prefix
     public static final String ThreadPool_DeviceEventUpdate_= "Device.ThreadPool.DeviceEventUpdate.";// prefix
+    public static final String ThreadPool_ReportExecutor_   = "Report.ThreadPool.ReportExecutor.";  // prefix
+    public static final String ThreadPool_ReverseGeocode_   = "ReverseGeocodeDispatcher.ThreadPool.";// prefix
+    public static final String ThreadPool_RuleEvaluator_    = "Rule.ThreadPool.RuleEvaluator.";     // prefix
+    public static final String ThreadPool_SendMailDispatch_ = "SendMailDispatcher.ThreadPool.";     // prefix
+
+    public static final String REPORT_EXECUTOR_ACTIVE_DEVICES = "Report.executor.activeDevices";    // Integer (per report)
+    public static final String REPORT_EXECUTOR_BUFFER_SIZE  = "Report.executor.deviceBufferSize";   // Integer (events per device)
+    public static final String REPORT_EXECUTOR_MAX_STALL_SEC = "Report.executor.maxStallSec";       // Integer
+
+    public static final String REVERSE_GEOCODE_QUEUE_SIZE   = "ReverseGeocodeDispatcher.maximumQueueSize"; // Integer
+    public static final String REVERSE_GEOCODE_KEY_DECIMALS = "ReverseGeocodeDispatcher.keyDecimals";  // Integer (4|5)
 
     public static final String ServerSocketThread_maximumClientThreadPoolSize = "ServerSocketThread.maximumClientThreadPoolSize"; // Integer
+    public static final String ServerSocketThread_virtualThreadSessions       = "ServerSocketThread.virtualThreadSessions"; // Boolean
     public static final String ServerSocketThread_udpReceiveBufferSize        = "ServerSocketThread.udpReceiveBufferSize"; // Integer
+    public static final String ServerSocketThread_udpReceiveSockets           = "ServerSocketThread.udpReceiveSockets"; // Integer
+    public static final String ServerSocketThread_udpWorkerThreads            = "ServerSocketThread.udpWorkerThreads"; // Integer
+    public static final String ServerSocketThread_udpWorkerQueueSize          = "ServerSocketThread.udpWorkerQueueSize"; // Integer
+    public static final String ServerSocketThread_nioSelectorEnabled          = "ServerSocketThread.nioSelectorEnabled"; // Boolean
+    public static final String ServerSocketThread_nioWorkerPoolSize           = "ServerSocketThread.nioWorkerPoolSize"; // Integer
 
     // ------------------------------------------------------------------------
 
@@ -269,6 +327,13 @@ public class RTKey
         new Entry(SMTP_IGNORED_EMAIL_FILE    , null                             , "File containing ignored email addresses"),
         new Entry(SMTP_DEBUG                 , false                            , "Sendmail debug mode"),
         new Entry(SMTP_SERVER_SYSADMIN_EMAIL , null                             , "SMTP System Admin Email address"),           // APP|WEB
+        new Entry(SMTP_DISPATCH_MAX_CONNECTIONS, 2                              , "SMTP dispatcher connections per server"),
+        new Entry(SMTP_DISPATCH_MAX_MESSAGES , 100                              , "SMTP dispatcher messages per connection"),
+        new Entry(SMTP_DISPATCH_IDLE_SEC     , 10                               , "SMTP dispatcher idle connection seconds"),
+        new Entry(SMTP_DISPATCH_COALESCE_SEC , 60                               , "SMTP dispatcher duplicate email window"),
+        new Entry(SMTP_DISPATCH_RETRY_SEC    , 30                               , "SMTP dispatcher retry delay seconds"),
+        new Entry(SMTP_DISPATCH_MAX_ATTEMPTS , 5                                , "SMTP dispatcher maximum send attempts"),
+        new Entry(SMTP_DISPATCH_SPOOL_DIR    , null                             , "SMTP dispatcher persistent queue directory"),
 
         new Entry("'Print' util attributes"),
         new Entry(LOG_NAME                   , null                             , "log name"),                                  // APP|WEB
@@ -285,6 +350,9 @@ public class RTKey
         new Entry(LOG_FILE_ROTATE_DELETE_AGE , "0"                              , "log file rotate delete age (default days)"), // APP|WEB
         new Entry(LOG_INCL_DATE              , false                            , "include date in logs"),                      // APP|WEB
         new Entry(LOG_INCL_STACKFRAME        , false                            , "include stackframe in logs"),                // APP|WEB
+        new Entry(LOG_ASYNC_ENABLE           , false                            , "asynchronous log writer"),                   // APP|WEB
+        new Entry(LOG_ASYNC_BUFFER_SIZE      , 8192                             , "asynchronous log buffer entries"),           // APP|WEB
+        new Entry(LOG_ASYNC_DISCARD_WHEN_FULL, false                            , "discard info/debug logs when buffer full"),  // APP|WEB
         new Entry(LOG_EMAIL_EXCEPTIONS       , false                            , "EMail exceptions"),                          // APP|WEB
         new Entry(LOG_EMAIL_FROM             , null                             , "Error email sender"),
         new Entry(LOG_EMAIL_TO               , null                             , "Error email recipient"),
@@ -292,6 +360,18 @@ public class RTKey
 
         new Entry("DB attributes"),
         new Entry(DB_DBCONNECTION_POOL       , false                            , "DBConnection Pooling"),                      // APP|WEB
+        new Entry(DB_CONNECTION_POOL         , false                            , "Built-in Connection Pool"),                  // APP|WEB
+        new Entry(DB_CONNECTION_POOL_MIN_SIZE, 2                                , "Connection Pool minimum size"),              // APP|WEB
+        new Entry(DB_CONNECTION_POOL_MAX_SIZE, 50                               , "Connection Pool maximum size"),              // APP|WEB
+        new Entry(DB_CONNECTION_POOL_STRIPES , 8                                , "Connection Pool idle-list stripes"),         // APP|WEB
+        new Entry(DB_CONNECTION_POOL_MAX_WAIT, 10000L                           , "Connection Pool maximum wait (ms)"),         // APP|WEB
+        new Entry(DB_CONNECTION_POOL_OVERFLOW, 2                                , "Connection Pool maximum overflow"),          // APP|WEB
+        new Entry(DB_CONNECTION_POOL_VALIDATE, 30000L                           , "Connection Pool validate idle (ms)"),        // APP|WEB
+        new Entry(DB_CONNECTION_POOL_PING_TMO, 2                                , "Connection Pool validate timeout (sec)"),    // APP|WEB
+        new Entry(DB_CONNECTION_POOL_MAX_IDLE, 600000L                          , "Connection Pool maximum idle (ms)"),         // APP|WEB
+        new Entry(DB_CONNECTION_POOL_EVICT   , 30000L                           , "Connection Pool eviction interval (ms)"),    // APP|WEB
+        new Entry(DB_CONNECTION_POOL_LEAK    , 120000L                          , "Connection Pool leak threshold (ms)"),       // APP|WEB
+        new Entry(DB_CONNECTION_POOL_TRACE   , false                            , "Connection Pool leak borrow-trace"),         // APP|WEB
         new Entry(DB_DATASOURCE_CLASS        , ""                               , "DataSource class"),                          // APP|WEB
         new Entry(DB_DATASOURCE_MAX_ACTIVE   , 100                              , "DataSource maxActive"),                      // APP|WEB
         new Entry(DB_DATASOURCE_MAX_IDLE     , 30                               , "DataSource maxIdle"),                        // APP|WEB
@@ -314,12 +394,38 @@ public class RTKey
         new Entry(DB_ALLOW_UPDATE_KEY_FIELDS , false                            , "Allow updating key fields"),                 // APP|WEB
         new Entry(DB_INACTIVE_TIMEOUT        , (6L*3600L) /*6hrs*/              , "Inactive connection timeout"),               // APP|WEB
         new Entry(DB_MYSQL_TBLEXIST_SEL_COUNT, true                             , "MySQL tableExist use SELECT COUNT(*)"),      // APP|WEB
+        new Entry(DB_PREPARED_STATEMENTS     , true                             , "Use PreparedStatements"),                    // APP|WEB
+        new Entry(DB_PREPARED_STATEMENT_CACHE, 64                               , "PreparedStatement cache size"),              // APP|WEB
+        new Entry(DB_FIELD_SLOT_STORAGE      , true                             , "Slot/primitive record value storage"),       // APP|WEB
+        new Entry(DB_REPLICA_URL             , null                             , "Read-replica URLs"),                         // APP|WEB
+        new Entry(DB_REPLICA_WEIGHT          , null                             , "Read-replica weights"),                      // APP|WEB
+        new Entry(DB_REPLICA_USER            , null                             , "Read-replica user (dft: db.sql.user)"),      // APP|WEB
+        new Entry(DB_REPLICA_PASS            , null                             , "Read-replica password"),                     // APP|WEB
+        new Entry(DB_REPLICA_MAX_LAG         , 30L                              , "Read-replica max replication lag (sec)"),    // APP|WEB
+        new Entry(DB_REPLICA_LAG_CHECK       , 10000L                           , "Read-replica lag check interval (ms)"),      // APP|WEB
+        new Entry(DB_REPLICA_LAG_QUERY       , null                             , "Read-replica lag query"),                    // APP|WEB
+        new Entry(DB_REPLICA_READ_AFTER_WRITE, 10000L                           , "Read-replica read-after-write window (ms)"), // APP|WEB
+        new Entry(DB_REPLICA_ERROR_BACKOFF   , 30000L                           , "Read-replica error backoff (ms)"),           // APP|WEB
+        new Entry(DB_PARTITION_AUTO_CREATE   , false                            , "Auto-create future partitions"),             // APP|WEB
+        new Entry(DB_PARTITION_FUTURE_COUNT  , 3                                , "Number of future partitions"),               // APP|WEB
+        new Entry(DB_PARTITION_MAINT_INTERVAL, 3600000L                         , "Partition maintenance interval (ms)"),       // APP|WEB
+        new Entry(DB_RECORD_CACHE            , false                            , "Enable DBRecord cache"),                     // APP|WEB
+        new Entry(DB_RECORD_CACHE_CHANNEL    , null                             , "DBRecord cache invalidation channel"),       // APP|WEB
 
         new Entry("OSTools attributes"),
         new Entry(OSTOOLS_MEMORY_CHECK_ENABLE, false                            , "Enable memory checks"),                      // APP|WEB
         new Entry(OSTOOLS_MEMORY_TREND_WEIGHT, 0.15                             , "Memory Check Trend Weight"),                 // APP|WEB
         new Entry(OSTOOLS_MEMORY_USAGE_WARN  , 0.90                             , "Memory Usage Limit Warning"),                // APP|WEB
 
+        new Entry("Report executor attributes"),
+        new Entry(REPORT_EXECUTOR_ACTIVE_DEVICES, 4                             , "Concurrent device selections per report"),   // WEB
+        new Entry(REPORT_EXECUTOR_BUFFER_SIZE, 500                              , "Buffered EventData records per device"),     // WEB
+        new Entry(REPORT_EXECUTOR_MAX_STALL_SEC, 300                            , "Cancel report if reader stalls (seconds)"),  // WEB
+
+        new Entry("Reverse-geocode dispatcher attributes"),
+        new Entry(REVERSE_GEOCODE_QUEUE_SIZE , 10000                            , "Maximum queued reverse-geocode requests"),   // APP
+        new Entry(REVERSE_GEOCODE_KEY_DECIMALS, 4                               , "Reverse-geocode coalescing decimals"),       // APP
+
     };
 
     // ------------------------------------------------------------------------
@@ -369,6 +475,7 @@ public class RTKey
                 }
             }
             defaultProperties = null;
+            RTConfig._configChanged();
         }
     }
     
@@ -382,6 +489,7 @@ public class RTKey
             if (rtKey != null) {
                 RTKey.getRuntimeEntryMap().put(rtKey, dftEntry);
                 defaultProperties = null;
+                RTConfig._configChanged();
             }
         }
     }
@@ -433,6 +541,7 @@ public class RTKey
         Entry rtKey = RTKey.getRuntimeEntry(key);
         if (rtKey != null) {
             rtKey.setDefault(val);
+            RTConfig._configChanged();
         } else {
             RTKey.addRuntimeEntry(new Entry(key,val));
         }
@@ -613,6 +722,201 @@ public class RTKey
         }
     }
 
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Handle for a runtime property key whose typed value, as returned by RTConfig, is 
+    *** cached until the runtime configuration changes (see <code>RTConfig.getConfigVersion</code>).
+    *** Intended to be held in a static field and used where the same property is read
+    *** frequently (ie. for each received event).
+    **/
+    public static abstract class Handle
+    {
+        protected String  key   = null;
+        protected boolean dftOK = false;
+        protected Handle(String key, boolean dftOK) {
+            this.key   = key;
+            this.dftOK = dftOK;
+        }
+        public String getKey() {
+            return this.key;
+        }
+        public String toString() {
+            return this.getKey();
+        }
+    }
+
+    /**
+    *** Handle for a <code>boolean</code> runtime property
+    **/
+    public static class BooleanHandle
+        extends Handle
+    {
+        private static class Value {
+            private long version; private boolean dft; private boolean val;
+            public Value(long ver, boolean dft, boolean val) { this.version = ver; this.dft = dft; this.val = val; }
+        }
+        private boolean         dft   = false;
+        private volatile Value  value = null;
+        public BooleanHandle(String key, boolean dft) {
+            this(key, dft, false);
+        }
+        public BooleanHandle(String key, boolean dft, boolean dftOK) {
+            super(key, dftOK);
+            this.dft = dft;
+        }
+        public boolean get() {
+            return this.get(this.dft);
+        }
+        public boolean get(boolean dft) {
+            long ver = RTConfig.getConfigVersion();
+            Value v = this.value;
+            if ((v != null) && (v.version == ver) && (v.dft == dft)) {
+                return v.val;
+            }
+            boolean val = RTConfig.getBoolean(this.key, dft, this.dftOK);
+            if (ver >= 0L) { this.value = new Value(ver, dft, val); }
+            return val;
+        }
+    }
+
+    /**
+    *** Handle for an <code>int</code> runtime property
+    **/
+    public static class IntHandle
+        extends Handle
+    {
+        private static class Value {
+            private long version; private int dft; private int val;
+            public Value(long ver, int dft, int val) { this.version = ver; this.dft = dft; this.val = val; }
+        }
+        private int             dft   = 0;
+        private volatile Value  value = null;
+        public IntHandle(String key, int dft) {
+            this(key, dft, false);
+        }
+        public IntHandle(String key, int dft, boolean dftOK) {
+            super(key, dftOK);
+            this.dft = dft;
+        }
+        public int get() {
+            return this.get(this.dft);
+        }
+        public int get(int dft) {
+            long ver = RTConfig.getConfigVersion();
+            Value v = this.value;
+            if ((v != null) && (v.version == ver) && (v.dft == dft)) {
+                return v.val;
+            }
+            int val = RTConfig.getInt(this.key, dft, this.dftOK);
+            if (ver >= 0L) { this.value = new Value(ver, dft, val); }
+            return val;
+        }
+    }
+
+    /**
+    *** Handle for a <code>long</code> runtime property
+    **/
+    public static class LongHandle
+        extends Handle
+    {
+        private static class Value {
+            private long version; private long dft; private long val;
+            public Value(long ver, long dft, long val) { this.version = ver; this.dft = dft; this.val = val; }
+        }
+        private long            dft   = 0L;
+        private volatile Value  value = null;
+        public LongHandle(String key, long dft) {
+            this(key, dft, false);
+        }
+        public LongHandle(String key, long dft, boolean dftOK) {
+            super(key, dftOK);
+            this.dft = dft;
+        }
+        public long get() {
+            return this.get(this.dft);
+        }
+        public long get(long dft) {
+            long ver = RTConfig.getConfigVersion();
+            Value v = this.value;
+            if ((v != null) && (v.version == ver) && (v.dft == dft)) {
+                return v.val;
+            }
+            long val = RTConfig.getLong(this.key, dft, this.dftOK);
+            if (ver >= 0L) { this.value = new Value(ver, dft, val); }
+            return val;
+        }
+    }
+
+    /**
+    *** Handle for a <code>double</code> runtime property
+    **/
+    public static class DoubleHandle
+        extends Handle
+    {
+        private static class Value {
+            private long version; private double dft; private double val;
+            public Value(long ver, double dft, double val) { this.version = ver; this.dft = dft; this.val = val; }
+        }
+        private double          dft   = 0.0;
+        private volatile Value  value = null;
+        public DoubleHandle(String key, double dft) {
+            this(key, dft, false);
+        }
+        public DoubleHandle(String key, double dft, boolean dftOK) {
+            super(key, dftOK);
+            this.dft = dft;
+        }
+        public double get() {
+            return this.get(this.dft);
+        }
+        public double get(double dft) {
+            long ver = RTConfig.getConfigVersion();
+            Value v = this.value;
+            if ((v != null) && (v.version == ver) && (Double.compare(v.dft,dft) == 0)) {
+                return v.val;
+            }
+            double val = RTConfig.getDouble(this.key, dft, this.dftOK);
+            if (ver >= 0L) { this.value = new Value(ver, dft, val); }
+            return val;
+        }
+    }
+
+    /**
+    *** Handle for a <code>String</code> runtime property
+    **/
+    public static class StringHandle
+        extends Handle
+    {
+        private static class Value {
+            private long version; private String dft; private String val;
+            public Value(long ver, String dft, String val) { this.version = ver; this.dft = dft; this.val = val; }
+        }
+        private String          dft   = null;
+        private volatile Value  value = null;
+        public StringHandle(String key, String dft) {
+            this(key, dft, false);
+        }
+        public StringHandle(String key, String dft, boolean dftOK) {
+            super(key, dftOK);
+            this.dft = dft;
+        }
+        public String get() {
+            return this.get(this.dft);
+        }
+        public String get(String dft) {
+            long ver = RTConfig.getConfigVersion();
+            Value v = this.value;
+            if ((v != null) && (v.version == ver) && ((v.dft == dft) || ((dft != null) && dft.equals(v.dft)))) {
+                return v.val;
+            }
+            String val = RTConfig.getString(this.key, dft, this.dftOK);
+            if (ver >= 0L) { this.value = new Value(ver, dft, val); }
+            return val;
+        }
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -864,7 +864,9 @@ public class RTProperties
         if (this.changeListeners == null) { 
             this.changeListeners = new Vector<PropertyChangeListener>();
         }
-        this.changeListeners.add(pcl);
+        if (!this.changeListeners.contains(pcl)) {
+            this.changeListeners.add(pcl);
+        }
     }
 
     /** 
@@ -886,7 +888,7 @@ public class RTProperties
     protected void firePropertyChanged(Object key, Object oldVal)
     {
         if (this.changeListeners != null) {
-            Object newVal = this.getProperties().get(key);
+            Object newVal = (key != null)? this.getProperties().get(key) : null;
             RTProperties.PropertyChangeEvent pce = new RTProperties.PropertyChangeEvent(key,oldVal,newVal);
             for (Iterator i = this.changeListeners.iterator(); i.hasNext();) {
                 ((RTProperties.PropertyChangeListener)i.next()).propertyChange(pce);
@@ -93,6 +93,8 @@ public class SendMail
 
     private static Class _SendMailArgs_class            = null;
 
+    public  static final String SendMailDispatcher_className = "org.opengts.util.SendMailDispatcher";
+
     /**
     *** Gets the "SendMailArgs" class
     *** @return The "SendMailArgs" class, if "SendMail" enabled, otherwise null.
@@ -250,6 +252,8 @@ public class SendMail
     public  static final int    _THREAD_NEW             = 2;
     public  static final String THREAD_DEBUG            = "debug";
     public  static final int    _THREAD_DEBUG           = 3;
+    public  static final String THREAD_DISPATCH         = "dispatch"; // pooled SMTP connections
+    public  static final int    _THREAD_DISPATCH        = 4;
 
     /**
     *** Returns true if the SendMail thread-model should be displayed when in debug mode.
@@ -269,7 +273,8 @@ public class SendMail
 
     /**
     *** Sets the 'thread model' for email sent by this class.<br>
-    *** The valid values are THREAD_CURRENT, THREAD_POOL, THREAD_NEW, or THREAD_DEBUG.
+    *** The valid values are THREAD_CURRENT, THREAD_POOL, THREAD_NEW, THREAD_DEBUG, or
+    *** THREAD_DISPATCH.
     *** @param model  The specified thread model.
     **/
     public static void SetThreadModel(String model)
@@ -326,6 +331,9 @@ public class SendMail
         } else
         if (model.equalsIgnoreCase(THREAD_DEBUG)) {
             return _THREAD_DEBUG;
+        } else
+        if (model.equalsIgnoreCase(THREAD_DISPATCH)) {
+            return _THREAD_DISPATCH;
         } else {
             return _THREAD_POOL;
         }
@@ -609,6 +617,16 @@ public class SendMail
                 Print.logDebug("Debug SendMail (email not sent)");
                 Print.logDebug(smr.getArgs().toString());
                 return false;
+            case _THREAD_DISPATCH :
+                if (showThreadModel) {
+                    Print.logDebug("Queueing SendMail to dispatcher");
+                }
+                if (SendMail.QueueToDispatcher(args)) {
+                    return true;
+                }
+                // -- dispatcher not available, use thread pool
+                ThreadPool_SendMail.run(smr);
+                return true;
             case _THREAD_POOL  :
             default :
                 if (showThreadModel) {
@@ -619,6 +637,28 @@ public class SendMail
         }
     }
 
+    /**
+    *** Queues the specified email on the SendMailDispatcher (pooled SMTP connections)
+    *** @param args  The email arguments
+    *** @return True if queued, false if the SendMailDispatcher is not available
+    **/
+    private static boolean QueueToDispatcher(Args args)
+    {
+        try {
+            if (GetSendMailArgs_class() != null) {
+                // -- "SendMailDispatcher" requires JavaMail "mail.jar"
+                Class dispatcher = Class.forName(SendMailDispatcher_className);
+                MethodAction ma = new MethodAction(dispatcher, "queue", Args.class);
+                return ((Boolean)ma.invoke(args)).booleanValue();
+            } else {
+                return false;
+            }
+        } catch (Throwable th) {
+            Print.logError("Class '"+SendMailDispatcher_className+"': " + th);
+            return false;
+        }
+    }
+
     /**
     *** SendMailRunnable class.
     **/
@@ -1089,6 +1129,9 @@ public class SendMail
             return StringTools.trim(V);
         }
         // ----
+        public RTProperties getProperties() {
+            return this.smtpProps; // never null
+        }
         public String toString() {
             return this.smtpProps.toString();
         }
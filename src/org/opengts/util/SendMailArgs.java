@@ -189,16 +189,55 @@ public class SendMailArgs
     public static void send(SendMail.Args args)
         throws SendMail.SendMailException
     {
-        String                       from = args.getFrom();
-        String                       to[] = args.getTo();
-        String                       cc[] = args.getCc();
-        String                      bcc[] = args.getBcc();
-        String                    subject = args.getSubject();
-        String                    msgBody = args.getBody();
-        Properties                headers = args.getHeaders();
-        SendMail.Attachment        attach = args.getAttachment();
         SendMail.SmtpProperties smtpProps = args.getSmtpProperties(); // never null
-        boolean                queueRetry = args.getQueueRetry();
+        final String smtpHost  = smtpProps.getHost();
+        final int    smtpPort  = smtpProps.getPort();
+        final String smtpUser  = smtpProps.getUser();
+        final String smtpPass  = smtpProps.getPassword();
+
+        /* SMTP Session */
+        Session session = SendMailArgs._createSession(smtpProps);
+
+        try {
+            MimeMessage msg = SendMailArgs._createMessage(session, args);
+
+            /* send email */
+            msg.saveChanges(); // implicit with send()
+            if (!USE_AUTHENTICATOR && !StringTools.isBlank(smtpUser)) {
+                Transport transport = session.getTransport("smtp");
+                transport.connect(smtpHost, smtpUser, (smtpPass!=null?smtpPass:""));
+                transport.sendMessage(msg, msg.getAllRecipients());
+                transport.close();
+            } else {
+                Transport.send(msg);
+                // java.net.ConnectException: Connection timed out
+            }
+
+            /* success (if we get here) */
+            Print.logDebug("Email sent ...");
+            return /*true*/;
+
+        } catch (MessagingException me) {
+
+            /* did not send email */
+            //return false;
+            throw SendMailArgs._sendMailException(me, smtpHost, smtpPort);
+
+        }
+
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Creates a JavaMail Session for the specified SMTP properties
+    *** @param smtpProps  The SMTP properties
+    *** @return The Session
+    *** @throws SendMail.SendMailException if the SMTP host/port is invalid
+    **/
+    private static Session _createSession(SendMail.SmtpProperties smtpProps)
+        throws SendMail.SendMailException
+    {
 
         /* SMTP properties */
         // http://www.j2ee.me/products/javamail/javadocs/com/sun/mail/smtp/package-summary.html
@@ -225,7 +264,6 @@ public class SendMailArgs
         final String smtpHost  = smtpProps.getHost();
         final int    smtpPort  = smtpProps.getPort();
         final String smtpUser  = smtpProps.getUser();
-        final String smtpEmail = smtpProps.getUserEmail();
         final String smtpPass  = smtpProps.getPassword();
         final String enableSSL = smtpProps.getEnableSSL();
         final String enableTLS = smtpProps.getEnableTLS();
@@ -290,130 +328,238 @@ public class SendMailArgs
 
         /* SMTP Session */
         //props.list(System.out);
-        Session session = Session.getInstance(props, auth);
+        return Session.getInstance(props, auth);
 
-        try {
-            MimeMessage msg = new MimeMessage(session);
+    }
 
-            /* 'From' address */
-            if (StringTools.isBlank(from) || from.equalsIgnoreCase("default")) {
-                msg.setFrom(new InternetAddress(smtpEmail));
-            } else {
-                msg.setFrom(new InternetAddress(from));
-            }
+    /**
+    *** Creates the MimeMessage for the specified email arguments
+    *** @param session  The JavaMail Session
+    *** @param args     The email arguments
+    *** @return The MimeMessage
+    *** @throws SendMail.SendMailException if no 'To' address was specified
+    *** @throws MessagingException if the message could not be created
+    **/
+    private static MimeMessage _createMessage(Session session, SendMail.Args args)
+        throws SendMail.SendMailException, MessagingException
+    {
+        String                       from = args.getFrom();
+        String                       to[] = args.getTo();
+        String                       cc[] = args.getCc();
+        String                      bcc[] = args.getBcc();
+        String                    subject = args.getSubject();
+        String                    msgBody = args.getBody();
+        Properties                headers = args.getHeaders();
+        SendMail.Attachment        attach = args.getAttachment();
+        SendMail.SmtpProperties smtpProps = args.getSmtpProperties(); // never null
+        MimeMessage msg = new MimeMessage(session);
 
-            /* destination email addresses */
-            InternetAddress toAddr[]  = _convertRecipients(to);
-            InternetAddress ccAddr[]  = _convertRecipients(cc);
-            InternetAddress bccAddr[] = _convertRecipients(bcc);
-            if ((toAddr == null) || (toAddr.length <= 0)) {
-                // -- no 'To' email address
-                Print.logError("No 'To' address specified, not sending email");
-                //return false;
-                throw new SendMail.SendMailException("No 'To' address specified");
-            }
+        /* 'From' address */
+        if (StringTools.isBlank(from) || from.equalsIgnoreCase("default")) {
+            msg.setFrom(new InternetAddress(smtpProps.getUserEmail()));
+        } else {
+            msg.setFrom(new InternetAddress(from));
+        }
 
-            /* set headers */
-            for (Iterator i = headers.keySet().iterator(); i.hasNext();) {
-                String k = (String)i.next();
-                String v = headers.getProperty(k);
-                if (v != null) {
-                    msg.setHeader(k, v);
-                }
+        /* destination email addresses */
+        InternetAddress toAddr[]  = _convertRecipients(to);
+        InternetAddress ccAddr[]  = _convertRecipients(cc);
+        InternetAddress bccAddr[] = _convertRecipients(bcc);
+        if ((toAddr == null) || (toAddr.length <= 0)) {
+            // -- no 'To' email address
+            Print.logError("No 'To' address specified, not sending email");
+            //return false;
+            throw new SendMail.SendMailException("No 'To' address specified");
+        }
+
+        /* set headers */
+        for (Iterator i = headers.keySet().iterator(); i.hasNext();) {
+            String k = (String)i.next();
+            String v = headers.getProperty(k);
+            if (v != null) {
+                msg.setHeader(k, v);
             }
+        }
 
-            /* set recipients */
-            msg.setRecipients(Message.RecipientType.TO , toAddr);
-            msg.setRecipients(Message.RecipientType.CC , ccAddr);
-            msg.setRecipients(Message.RecipientType.BCC, bccAddr);
+        /* set recipients */
+        msg.setRecipients(Message.RecipientType.TO , toAddr);
+        msg.setRecipients(Message.RecipientType.CC , ccAddr);
+        msg.setRecipients(Message.RecipientType.BCC, bccAddr);
 
-            /* subject */
-            msg.setSubject(subject, StringTools.CharEncoding_UTF_8);
+        /* subject */
+        msg.setSubject(subject, StringTools.CharEncoding_UTF_8);
 
-            /* date */
-            msg.setSentDate(new Date());
+        /* date */
+        msg.setSentDate(new Date());
 
-            /* message body/content */
-            if ((attach != null) && (attach.getSize() > 0)) {
-                Multipart multipart = new MimeMultipart();
-                if ((msgBody != null) && !msgBody.equals("")) {
-                    MimeBodyPart textBodyPart = new MimeBodyPart();
-                    textBodyPart.setText(msgBody, StringTools.CharEncoding_UTF_8);
-                    multipart.addBodyPart(textBodyPart);
-                }
-                // add attachment
-                BodyPart attachBodyPart = new MimeBodyPart();
-                DataSource source = new ByteArrayDataSource(attach.getName(), attach.getType(), attach.getBytes());
-                attachBodyPart.setDataHandler(new DataHandler(source));
-                attachBodyPart.setFileName(source.getName());
-                multipart.addBodyPart(attachBodyPart);
-                // set content 
-                msg.setContent(multipart);
-            } else {
-                msg.setText(msgBody, StringTools.CharEncoding_UTF_8);
-                //msg.setText(msgBody); // setContent(msgBody, CONTENT_TYPE_PLAIN);
+        /* message body/content */
+        if ((attach != null) && (attach.getSize() > 0)) {
+            Multipart multipart = new MimeMultipart();
+            if ((msgBody != null) && !msgBody.equals("")) {
+                MimeBodyPart textBodyPart = new MimeBodyPart();
+                textBodyPart.setText(msgBody, StringTools.CharEncoding_UTF_8);
+                multipart.addBodyPart(textBodyPart);
             }
+            // add attachment
+            BodyPart attachBodyPart = new MimeBodyPart();
+            DataSource source = new ByteArrayDataSource(attach.getName(), attach.getType(), attach.getBytes());
+            attachBodyPart.setDataHandler(new DataHandler(source));
+            attachBodyPart.setFileName(source.getName());
+            multipart.addBodyPart(attachBodyPart);
+            // set content 
+            msg.setContent(multipart);
+        } else {
+            msg.setText(msgBody, StringTools.CharEncoding_UTF_8);
+            //msg.setText(msgBody); // setContent(msgBody, CONTENT_TYPE_PLAIN);
+        }
 
-            /* send email */
-            msg.saveChanges(); // implicit with send()
-            if (!USE_AUTHENTICATOR && !StringTools.isBlank(smtpUser)) {
-                Transport transport = session.getTransport("smtp");
-                transport.connect(smtpHost, smtpUser, (smtpPass!=null?smtpPass:""));
-                transport.sendMessage(msg, msg.getAllRecipients());
-                transport.close();
-            } else {
-                Transport.send(msg);
+        return msg;
+    }
+
+    /**
+    *** Converts a MessagingException into a SendMailException, setting the retry state
+    *** @param me        The MessagingException
+    *** @param smtpHost  The SMTP host (for logging)
+    *** @param smtpPort  The SMTP port (for logging)
+    *** @return The SendMailException
+    **/
+    private static SendMail.SendMailException _sendMailException(MessagingException me, String smtpHost, int smtpPort)
+    {
+
+        /* error */
+        String message = null;
+        boolean retry = false;
+        Print.logStackTrace("Unable to send email [host="+smtpHost+"; port="+smtpPort+"]", me);
+        for (Exception ex = me; ex != null;) {
+            if (ex instanceof SendFailedException) {
+                // javax.mail.SendFailedException
+                // -- unable to send to some of the listed recipients
+                SendFailedException sfex = (SendFailedException)ex;
+                _printAddresses("Invalid:"     , sfex.getInvalidAddresses());
+                _printAddresses("Valid Unsent:", sfex.getValidUnsentAddresses());
+                _printAddresses("Valid Sent:"  , sfex.getValidSentAddresses());
+                message = "Partial send";
+                retry   = false;
+            } else
+            if (ex instanceof ConnectException) {
                 // java.net.ConnectException: Connection timed out
+                // -- save/retry?
+                message = "Connection Error";
+                retry   = true;
+            } else
+            if (ex instanceof AuthenticationFailedException) {
+                // javax.mail.AuthenticationFailedException: failed to connect
+                // -- save/retry?
+                message = "Authentication Failed";
+                retry   = true;
             }
+            // -- next exception
+            ex = (ex instanceof MessagingException)? ((MessagingException)ex).getNextException() : null;
+        }
 
-            /* success (if we get here) */
-            Print.logDebug("Email sent ...");
-            return /*true*/;
+        /* SendMailException */
+        if (!StringTools.isBlank(message)) {
+            return new SendMail.SendMailException(message,me).setRetry(retry);
+        } else {
+            return new SendMail.SendMailException(me).setRetry(retry);
+        }
 
-        } catch (MessagingException me) {
+    }
 
-            /* error */
-            String message = null;
-            boolean retry = false;
-            SendMail.SendMailException rtn = null;
-            Print.logStackTrace("Unable to send email [host="+smtpHost+"; port="+smtpPort+"]", me);
-            for (Exception ex = me; ex != null;) {
-                if (ex instanceof SendFailedException) {
-                    // javax.mail.SendFailedException
-                    // -- unable to send to some of the listed recipients
-                    SendFailedException sfex = (SendFailedException)ex;
-                    _printAddresses("Invalid:"     , sfex.getInvalidAddresses());
-                    _printAddresses("Valid Unsent:", sfex.getValidUnsentAddresses());
-                    _printAddresses("Valid Sent:"  , sfex.getValidSentAddresses());
-                    message = "Partial send";
-                    retry   = false;
-                } else
-                if (ex instanceof ConnectException) {
-                    // java.net.ConnectException: Connection timed out
-                    // -- save/retry?
-                    message = "Connection Error";
-                    retry   = true;
+    // ------------------------------------------------------------------------
+
+    /**
+    *** SmtpTransport class: a reusable SMTP connection to a single SMTP server profile.
+    *** The connection is opened on the first send, and remains open for subsequent sends
+    *** until closed (or until a send fails).  Not thread-safe, each sending thread should
+    *** use its own SmtpTransport.
+    **/
+    public static class SmtpTransport
+    {
+        private SendMail.SmtpProperties smtpProps = null;
+        private Session                 session   = null;
+        private Transport               transport = null;
+        private int                     sendCount = 0;
+        private long                    lastUseMS = 0L;
+        private int                     connectCount = 0;
+        public SmtpTransport(SendMail.SmtpProperties smtpProps) {
+            this.smtpProps = (smtpProps != null)? smtpProps : new SendMail.SmtpProperties();
+        }
+        /* true if a connection is currently open */
+        public boolean isOpen() {
+            return (this.transport != null);
+        }
+        /* number of messages sent on the current connection */
+        public int getSendCount() {
+            return this.sendCount;
+        }
+        /* number of connections opened by this SmtpTransport */
+        public int getConnectCount() {
+            return this.connectCount;
+        }
+        /* open the connection */
+        private void _connect() throws MessagingException {
+            String smtpUser = this.smtpProps.getUser();
+            String smtpPass = this.smtpProps.getPassword();
+            this.transport = this.session.getTransport("smtp");
+            if (!USE_AUTHENTICATOR && !StringTools.isBlank(smtpUser)) {
+                this.transport.connect(this.smtpProps.getHost(), smtpUser, (smtpPass!=null?smtpPass:""));
+            } else {
+                this.transport.connect();
+            }
+            this.sendCount = 0;
+            this.connectCount++;
+        }
+        /* send the specified email on this connection */
+        public void send(SendMail.Args args) throws SendMail.SendMailException {
+            if (this.session == null) {
+                this.session = SendMailArgs._createSession(this.smtpProps);
+            }
+            boolean reused = false;
+            try {
+                MimeMessage msg = SendMailArgs._createMessage(this.session, args);
+                msg.saveChanges();
+                if (this.transport == null) {
+                    this._connect();
                 } else
-                if (ex instanceof AuthenticationFailedException) {
-                    // javax.mail.AuthenticationFailedException: failed to connect
-                    // -- save/retry?
-                    message = "Authentication Failed";
-                    retry   = true;
+                if (((System.currentTimeMillis() - this.lastUseMS) > 1000L) && !this.transport.isConnected()) {
+                    // -- closed by the server while idle ("isConnected" sends a NOOP)
+                    this.close();
+                    this._connect();
+                } else {
+                    reused = true;
+                }
+                try {
+                    this.transport.sendMessage(msg, msg.getAllRecipients());
+                } catch (MessagingException me) {
+                    if (!reused || (me instanceof SendFailedException)) {
+                        throw me;
+                    }
+                    // -- reused connection failed, try once more on a new connection
+                    Print.logInfo("SMTP connection failed, reconnecting: " + me);
+                    this.close();
+                    this._connect();
+                    this.transport.sendMessage(msg, msg.getAllRecipients());
+                }
+                this.sendCount++;
+                this.lastUseMS = System.currentTimeMillis();
+                Print.logDebug("Email sent (connection message #" + this.sendCount + ") ...");
+            } catch (MessagingException me) {
+                if (!(me instanceof SendFailedException)) {
+                    // -- connection state unknown
+                    this.close();
                 }
-                // -- next exception
-                ex = (ex instanceof MessagingException)? ((MessagingException)ex).getNextException() : null;
+                throw SendMailArgs._sendMailException(me, this.smtpProps.getHost(), this.smtpProps.getPort());
             }
-
-            /* did not send email */
-            //return false;
-            if (!StringTools.isBlank(message)) {
-                throw new SendMail.SendMailException(message,me).setRetry(retry);
-            } else {
-                throw new SendMail.SendMailException(me).setRetry(retry);
+        }
+        /* close the connection */
+        public void close() {
+            if (this.transport != null) {
+                try { this.transport.close(); } catch (Throwable th) {/*ignore*/}
+                this.transport = null;
             }
-
+            this.sendCount = 0;
         }
-
     }
 
     // ------------------------------------------------------------------------
@@ -0,0 +1,908 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Queued email dispatcher using pooled SMTP connections
+// ----------------------------------------------------------------------------
+package org.opengts.util;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.security.MessageDigest;
+
+/**
+*** <code>SendMailDispatcher</code> sends queued email over pooled SMTP connections
+*** (used by the SendMail "dispatch" thread model, see "smtp.threadModel").<br>
+*** Email is queued per SMTP server profile (host, port, user, SSL/TLS settings).  Each
+*** profile is served by at most "smtp.dispatch.maxConnections" workers, each of which
+*** keeps its SMTP connection open and sends up to "smtp.dispatch.messagesPerConnection"
+*** messages on it, closing it after "smtp.dispatch.connectionIdleSec" seconds without
+*** queued email.<br>
+*** An email identical (same SMTP profile, sender, recipients, subject, body, and attachment)
+*** to one queued within the last "smtp.dispatch.coalesceSec" seconds is discarded.<br>
+*** If "smtp.dispatch.spoolDir" is defined, each queued email is also written to that
+*** directory until it has been sent (or has permanently failed), and spooled email is
+*** queued again when the dispatcher is next started.  Spooled email includes the SMTP
+*** properties of its profile.  The SMTP password is omitted if it is the runtime
+*** configuration "smtp.password" (which is used again when the spool is loaded), and
+*** the spool directory and files are created readable/writable by the owner only.<br>
+*** This class requires the JavaMail "mail.jar", and is therefore only referenced by
+*** SendMail via reflection.
+**/
+
+public class SendMailDispatcher
+{
+
+    // ------------------------------------------------------------------------
+
+    // SendMailDispatcher.ThreadPool.maximumPoolSize=20
+    // SendMailDispatcher.ThreadPool.maximumIdleSeconds=60
+    // SendMailDispatcher.ThreadPool.maximumQueueSize=0
+    private static final RTKey PROP_ThreadPool_SendMailDispatch_    = RTKey.valueOf(RTKey.ThreadPool_SendMailDispatch_);
+    private static final int   ThreadPool_SendMailDispatch_Size     = 20;   // max threads
+    private static final int   ThreadPool_SendMailDispatch_IdleSec  = 60;   // trim idle threads
+    private static final int   ThreadPool_SendMailDispatch_QueSize  =  0;   // max queue size
+
+    private static final String SPOOL_EXTN                          = ".mail";
+    private static final String SPOOL_TEMP_EXTN                     = ".tmp";
+    private static final String SPOOL_BAD_EXTN                      = ".bad";
+
+    // ------------------------------------------------------------------------
+
+    private static SendMailDispatcher Dispatcher = null;
+
+    /**
+    *** Gets the shared SendMailDispatcher instance.  Email spooled by a previous instance
+    *** is queued when the instance is first created.
+    **/
+    public static SendMailDispatcher getInstance()
+    {
+        synchronized (SendMailDispatcher.class) {
+            if (Dispatcher == null) {
+                Dispatcher = new SendMailDispatcher();
+                Dispatcher._loadSpool();
+            }
+            return Dispatcher;
+        }
+    }
+
+    /**
+    *** Queues the specified email on the shared SendMailDispatcher
+    *** (called from SendMail via reflection)
+    *** @param args  The email arguments
+    *** @return True if the email was queued (or coalesced with an identical email)
+    **/
+    public static boolean queue(SendMail.Args args)
+    {
+        return SendMailDispatcher.getInstance().submit(args);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the SMTP server profile key for the specified SMTP properties
+    **/
+    protected static String getProfileKey(SendMail.SmtpProperties smtpProps)
+    {
+        String pass = smtpProps.getPassword();
+        StringBuffer sb = new StringBuffer();
+        sb.append(smtpProps.getHost()).append(":").append(smtpProps.getPort());
+        sb.append("|").append(StringTools.blankDefault(smtpProps.getUser(),""));
+        sb.append("|").append((pass != null)? Integer.toHexString(pass.hashCode()) : "");
+        sb.append("|").append(smtpProps.getEnableSSL());
+        sb.append("|").append(smtpProps.getEnableTLS());
+        sb.append("|").append(smtpProps.getTimeoutMS());
+        sb.append("|").append(smtpProps.getDebug());
+        return sb.toString();
+    }
+
+    /**
+    *** Gets the coalescing key for the specified email
+    **/
+    protected static String getCoalesceKey(String profileKey, SendMail.Args args)
+    {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            md.update(StringTools.getBytes(args.getFrom() + "\n"));
+            for (String r : args.getTo() ) { md.update(StringTools.getBytes("to:"  + r + "\n")); }
+            for (String r : args.getCc() ) { md.update(StringTools.getBytes("cc:"  + r + "\n")); }
+            for (String r : args.getBcc()) { md.update(StringTools.getBytes("bcc:" + r + "\n")); }
+            md.update(StringTools.getBytes(args.getSubject() + "\n"));
+            md.update(StringTools.getBytes(args.getBody() + "\n"));
+            SendMail.Attachment attach = args.getAttachment();
+            if ((attach != null) && (attach.getSize() > 0)) {
+                md.update(StringTools.getBytes(attach.getName() + "\n"));
+                md.update(attach.getBytes());
+            }
+            return profileKey + "|" + StringTools.toHexString(md.digest());
+        } catch (Throwable th) { // NoSuchAlgorithmException
+            return null; // no coalescing
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** A queued email
+    **/
+    private static class Entry
+    {
+        private SendMail.Args   args        = null;
+        private File            spoolFile   = null;
+        private int             attempts    = 0;
+        private long            notBeforeMS = 0L;
+        public Entry(SendMail.Args args) {
+            this.args = args;
+        }
+    }
+
+    /**
+    *** Email queue and connection workers for a single SMTP server profile
+    **/
+    private class ProfileQueue
+        implements Runnable
+    {
+        private String                  key         = null;
+        private SendMail.SmtpProperties smtpProps   = null;
+        private int                     workers     = 0;
+        private LinkedList<Entry>       queue       = new LinkedList<Entry>();
+        public ProfileQueue(String key, SendMail.SmtpProperties smtpProps) {
+            this.key       = key;
+            this.smtpProps = smtpProps;
+        }
+        /* take the next email which is due to be sent (caller must hold dispatcher lock) */
+        private Entry _takeNext(long nowMS) {
+            for (Iterator<Entry> i = this.queue.iterator(); i.hasNext();) {
+                Entry e = i.next();
+                if (e.notBeforeMS <= nowMS) {
+                    i.remove();
+                    return e;
+                }
+            }
+            return null;
+        }
+        /* time at which the next queued email is due (caller must hold dispatcher lock) */
+        private long _nextDueMS() {
+            long dueMS = 0L;
+            for (Entry e : this.queue) {
+                if ((dueMS <= 0L) || (e.notBeforeMS < dueMS)) {
+                    dueMS = e.notBeforeMS;
+                }
+            }
+            return dueMS;
+        }
+        public void run() {
+            SendMailDispatcher smd = SendMailDispatcher.this;
+            SendMailArgs.SmtpTransport transport = new SendMailArgs.SmtpTransport(this.smtpProps);
+            try {
+                for (;;) {
+                    Entry entry = null;
+                    synchronized (smd) {
+                        long idleMS    = RTConfig.getInt(RTKey.SMTP_DISPATCH_IDLE_SEC, 10) * 1000L;
+                        long idleStart = System.currentTimeMillis();
+                        for (;;) {
+                            long nowMS = System.currentTimeMillis();
+                            entry = this._takeNext(nowMS);
+                            if (entry != null) {
+                                break;
+                            }
+                            long waitMS;
+                            if (!this.queue.isEmpty()) {
+                                // -- wait for a retry to become due
+                                waitMS = Math.max(this._nextDueMS() - nowMS, 1L);
+                            } else
+                            if (transport.isOpen() && ((idleStart + idleMS) > nowMS)) {
+                                // -- keep the connection open for a while
+                                waitMS = (idleStart + idleMS) - nowMS;
+                            } else {
+                                // -- nothing to send
+                                this.workers--;
+                                return;
+                            }
+                            try { smd.wait(waitMS); } catch (InterruptedException ie) {}
+                        }
+                    }
+                    int maxMsgs = RTConfig.getInt(RTKey.SMTP_DISPATCH_MAX_MESSAGES, 100);
+                    if ((maxMsgs > 0) && (transport.getSendCount() >= maxMsgs)) {
+                        transport.close();
+                    }
+                    smd._send(this, transport, entry);
+                }
+            } finally {
+                transport.close();
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private ThreadPool                  threadPool      = null;
+    private Map<String,ProfileQueue>    profiles        = new HashMap<String,ProfileQueue>();
+    private Map<String,Long>            recent          = new LinkedHashMap<String,Long>();
+    private int                         pendingCount    = 0;
+    private long                        spoolSequence   = 0L;
+
+    /* statistics */
+    private long                        submitCount     = 0L;
+    private long                        coalescedCount  = 0L;
+    private long                        sentCount       = 0L;
+    private long                        retryCount      = 0L;
+    private long                        failedCount     = 0L;
+    private long                        connectCount    = 0L;
+
+    /**
+    *** Constructor
+    **/
+    public SendMailDispatcher()
+    {
+        this.threadPool = new ThreadPool(
+            "SendMailDispatcher",
+            PROP_ThreadPool_SendMailDispatch_, // property allowing default override
+            ThreadPool_SendMailDispatch_Size,
+            ThreadPool_SendMailDispatch_IdleSec,
+            ThreadPool_SendMailDispatch_QueSize);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Queues the specified email for sending
+    *** @param args  The email arguments
+    *** @return True if the email was queued (or coalesced with an identical email)
+    **/
+    public boolean submit(SendMail.Args args)
+    {
+        if (args == null) {
+            return false;
+        }
+        String profileKey = SendMailDispatcher.getProfileKey(args.getSmtpProperties());
+
+        /* coalesce identical email */
+        String coalesceKey = SendMailDispatcher.getCoalesceKey(profileKey, args);
+        if (coalesceKey != null) {
+            long nowMS = System.currentTimeMillis();
+            synchronized (this) {
+                this.submitCount++;
+                for (Iterator<Long> i = this.recent.values().iterator(); i.hasNext();) {
+                    if (i.next().longValue() > nowMS) { break; }
+                    i.remove(); // expired
+                }
+                if (this.recent.containsKey(coalesceKey)) {
+                    this.coalescedCount++;
+                    Print.logDebug("Discarding duplicate email: " + args.getSubject());
+                    return true;
+                }
+                long windowMS = RTConfig.getInt(RTKey.SMTP_DISPATCH_COALESCE_SEC, 60) * 1000L;
+                if (windowMS > 0L) {
+                    this.recent.put(coalesceKey, new Long(nowMS + windowMS));
+                }
+            }
+        } else {
+            synchronized (this) {
+                this.submitCount++;
+            }
+        }
+
+        /* spool and queue */
+        Entry entry = new Entry(args);
+        this._writeSpool(entry);
+        if (!this._queue(profileKey, entry)) {
+            // -- the caller sends this email
+            this._deleteSpool(entry);
+            return false;
+        }
+        return true;
+
+    }
+
+    /**
+    *** Adds the specified email to its profile queue, starting a worker if needed
+    *** @return True if queued, false if no worker could be started (ThreadPool full)
+    **/
+    private boolean _queue(String profileKey, Entry entry)
+    {
+        ProfileQueue pq = null;
+        synchronized (this) {
+            pq = this.profiles.get(profileKey);
+            if (pq == null) {
+                pq = new ProfileQueue(profileKey, entry.args.getSmtpProperties());
+                this.profiles.put(profileKey, pq);
+            }
+            pq.queue.add(entry);
+            this.pendingCount++;
+            this.notifyAll(); // wake an idle worker
+            int maxWorkers = Math.max(RTConfig.getInt(RTKey.SMTP_DISPATCH_MAX_CONNECTIONS, 2), 1);
+            if ((pq.workers >= maxWorkers) || (pq.workers >= pq.queue.size())) {
+                return true; // an active worker will take this email
+            }
+            pq.workers++;
+            if (!this.threadPool.run(pq)) {
+                // -- ThreadPool full
+                pq.workers--;
+                if (pq.workers > 0) {
+                    return true; // an active worker will take this email
+                }
+                pq.queue.remove(entry);
+                this.pendingCount--;
+                this.notifyAll();
+                Print.logWarn("SendMailDispatcher ThreadPool full, email not queued: " + pq.key);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    *** Sends the specified email on the worker transport, requeueing it for retry if
+    *** the failure was transient.
+    **/
+    private void _send(ProfileQueue pq, SendMailArgs.SmtpTransport transport, Entry entry)
+    {
+        boolean done = true;
+        int connCount = transport.getConnectCount();
+        try {
+            transport.send(entry.args);
+            synchronized (this) { this.sentCount++; }
+        } catch (SendMail.SendMailException sme) {
+            entry.attempts++;
+            int maxAttempts = Math.max(RTConfig.getInt(RTKey.SMTP_DISPATCH_MAX_ATTEMPTS, 5), 1);
+            if (sme.getRetry() && (entry.attempts < maxAttempts)) {
+                long retryMS = RTConfig.getInt(RTKey.SMTP_DISPATCH_RETRY_SEC, 30) * 1000L;
+                entry.notBeforeMS = System.currentTimeMillis() + retryMS;
+                Print.logInfo("Email 'send' failed: " + sme + " (retry #" + entry.attempts + " in " + (retryMS/1000L) + " sec)");
+                this._writeSpool(entry); // update attempt count
+                synchronized (this) {
+                    pq.queue.add(entry);
+                    this.retryCount++;
+                }
+                done = false;
+            } else {
+                Print.logWarn("Email 'send' failed: " + sme);
+                synchronized (this) { this.failedCount++; }
+            }
+        } catch (Throwable th) {
+            // -- catch-all, should not occur
+            Print.logException("Email 'send' failed", th);
+            synchronized (this) { this.failedCount++; }
+        }
+        synchronized (this) {
+            this.connectCount += transport.getConnectCount() - connCount;
+        }
+        if (done) {
+            this._deleteSpool(entry);
+            synchronized (this) {
+                this.pendingCount--;
+                this.notifyAll();
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Waits until all queued email has been sent (or has permanently failed)
+    *** @param timeoutMS  The maximum time to wait
+    *** @return True if no email remains queued
+    **/
+    public synchronized boolean waitForEmpty(long timeoutMS)
+    {
+        long endMS = System.currentTimeMillis() + timeoutMS;
+        while (this.pendingCount > 0) {
+            long waitMS = endMS - System.currentTimeMillis();
+            if (waitMS <= 0L) {
+                break;
+            }
+            try { this.wait(waitMS); } catch (InterruptedException ie) { break; }
+        }
+        return (this.pendingCount <= 0);
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the spool directory, or null if spooling is disabled
+    **/
+    private static File _getSpoolDir()
+    {
+        File dir = RTConfig.getFile(RTKey.SMTP_DISPATCH_SPOOL_DIR, null);
+        if ((dir != null) && !dir.isAbsolute()) {
+            File cfgDir = RTConfig.getLoadedConfigDir();
+            dir = (cfgDir != null)? new File(cfgDir,dir.toString()) : null;
+        }
+        if ((dir != null) && !dir.isDirectory()) {
+            if (!dir.mkdirs()) {
+                Print.logError("Unable to create SendMailDispatcher spool directory: " + dir);
+                return null;
+            }
+            SendMailDispatcher._setOwnerOnly(dir);
+        }
+        return dir;
+    }
+
+    private static boolean didWarnOwnerOnly = false;
+
+    /**
+    *** Restricts access to the specified spool file/directory to the owner
+    **/
+    private static void _setOwnerOnly(File f)
+    {
+        boolean ok = 
+            f.setReadable(false,false) && f.setReadable(true,true) &&
+            f.setWritable(false,false) && f.setWritable(true,true);
+        if (ok && f.isDirectory()) {
+            ok = f.setExecutable(false,false) && f.setExecutable(true,true);
+        }
+        if (!ok && !didWarnOwnerOnly) {
+            didWarnOwnerOnly = true; // warn once
+            Print.logWarn("Unable to restrict SendMailDispatcher spool permissions to owner: " + f);
+        }
+    }
+
+    /* put an array of addresses into the spool properties */
+    private static void _putArray(Properties p, String key, String a[])
+    {
+        p.setProperty(key + ".count", String.valueOf(a.length));
+        for (int i = 0; i < a.length; i++) {
+            p.setProperty(key + "." + i, StringTools.trim(a[i]));
+        }
+    }
+
+    /* get an array of addresses from the spool properties */
+    private static String[] _getArray(Properties p, String key)
+    {
+        int n = StringTools.parseInt(p.getProperty(key + ".count"), 0);
+        String a[] = new String[Math.max(n,0)];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = p.getProperty(key + "." + i, "");
+        }
+        return a;
+    }
+
+    /**
+    *** Writes (or rewrites) the spool file of the specified email
+    **/
+    private void _writeSpool(Entry entry)
+    {
+        File dir = (entry.spoolFile != null)? entry.spoolFile.getParentFile() : SendMailDispatcher._getSpoolDir();
+        if (dir == null) {
+            return; // spooling disabled
+        }
+        SendMail.Args args = entry.args;
+
+        /* email properties */
+        Properties p = new Properties();
+        p.setProperty("from", args.getFrom());
+        _putArray(p, "to" , args.getTo());
+        _putArray(p, "cc" , args.getCc());
+        _putArray(p, "bcc", args.getBcc());
+        p.setProperty("subject" , args.getSubject());
+        p.setProperty("body"    , args.getBody());
+        p.setProperty("queRetry", String.valueOf(args.getQueueRetry()));
+        p.setProperty("attempts", String.valueOf(entry.attempts));
+        Properties headers = args.getHeaders();
+        for (String k : headers.stringPropertyNames()) {
+            p.setProperty("header:" + k, headers.getProperty(k));
+        }
+        RTProperties smtpRTP = args.getSmtpProperties().getProperties();
+        String cfgPass = RTConfig.getString(RTKey.SMTP_SERVER_PASSWORD, null);
+        for (Object k : smtpRTP.getPropertyKeys()) {
+            String v = smtpRTP.getString(k.toString(), null);
+            if (v == null) {
+                continue;
+            } else
+            if (k.toString().equals(RTKey.SMTP_SERVER_PASSWORD) && v.equals(cfgPass)) {
+                continue; // runtime configuration password, resolved when loaded
+            }
+            p.setProperty("smtp:" + k, v);
+        }
+        SendMail.Attachment attach = args.getAttachment();
+        if ((attach != null) && (attach.getSize() > 0)) {
+            p.setProperty("attach.name", StringTools.blankDefault(attach.getName(),""));
+            p.setProperty("attach.type", StringTools.blankDefault(attach.getType(),""));
+            p.setProperty("attach.data", Base64.encode(attach.getBytes()));
+        }
+
+        /* write to temporary file, then rename */
+        if (entry.spoolFile == null) {
+            long seq;
+            synchronized (this) { seq = ++this.spoolSequence; }
+            String name = System.currentTimeMillis() + "_" + StringTools.format(seq,"000000") + SPOOL_EXTN;
+            entry.spoolFile = new File(dir, name);
+        }
+        File tmpFile = new File(dir, entry.spoolFile.getName() + SPOOL_TEMP_EXTN);
+        OutputStream out = null;
+        try {
+            // -- create the file with owner-only access before writing any content
+            tmpFile.delete();
+            tmpFile.createNewFile();
+            SendMailDispatcher._setOwnerOnly(tmpFile);
+            out = new FileOutputStream(tmpFile);
+            p.store(out, "SendMailDispatcher queued email");
+            out.close();
+            out = null;
+            if (!tmpFile.renameTo(entry.spoolFile)) {
+                entry.spoolFile.delete();
+                if (!tmpFile.renameTo(entry.spoolFile)) {
+                    throw new IOException("Unable to rename " + tmpFile);
+                }
+            }
+        } catch (IOException ioe) {
+            Print.logError("Unable to write SendMailDispatcher spool file: " + ioe);
+            tmpFile.delete();
+        } finally {
+            if (out != null) { try { out.close(); } catch (Throwable th) {/*ignore*/} }
+        }
+
+    }
+
+    /**
+    *** Deletes the spool file of the specified email
+    **/
+    private void _deleteSpool(Entry entry)
+    {
+        if ((entry.spoolFile != null) && entry.spoolFile.isFile() && !entry.spoolFile.delete()) {
+            Print.logError("Unable to delete SendMailDispatcher spool file: " + entry.spoolFile);
+        }
+    }
+
+    /**
+    *** Queues the email spooled by a previous SendMailDispatcher instance
+    **/
+    private void _loadSpool()
+    {
+        File dir = SendMailDispatcher._getSpoolDir();
+        if (dir == null) {
+            return;
+        }
+        File files[] = dir.listFiles();
+        if (ListTools.isEmpty(files)) {
+            return;
+        }
+        Arrays.sort(files);
+        int count = 0;
+        for (File f : files) {
+            if (!f.getName().endsWith(SPOOL_EXTN)) {
+                continue;
+            }
+            Properties p = new Properties();
+            InputStream in = null;
+            try {
+                in = new FileInputStream(f);
+                p.load(in);
+            } catch (IOException ioe) {
+                Print.logError("Unable to read SendMailDispatcher spool file: " + f + " [" + ioe + "]");
+                p = null;
+            } finally {
+                if (in != null) { try { in.close(); } catch (Throwable th) {/*ignore*/} }
+            }
+            if ((p == null) || !p.containsKey("to.count")) {
+                f.renameTo(new File(dir, f.getName() + SPOOL_BAD_EXTN));
+                continue;
+            }
+            Properties headers = new Properties();
+            RTProperties smtpRTP = new RTProperties();
+            for (String k : p.stringPropertyNames()) {
+                if (k.startsWith("header:")) {
+                    headers.setProperty(k.substring("header:".length()), p.getProperty(k));
+                } else
+                if (k.startsWith("smtp:")) {
+                    smtpRTP.setString(k.substring("smtp:".length()), p.getProperty(k));
+                }
+            }
+            SendMail.Attachment attach = null;
+            if (p.containsKey("attach.data")) {
+                try {
+                    attach = new SendMail.Attachment(Base64.decode(p.getProperty("attach.data")),
+                        p.getProperty("attach.name"), StringTools.blankDefault(p.getProperty("attach.type"),null));
+                } catch (Base64.Base64DecodeException bde) {
+                    Print.logError("Invalid SendMailDispatcher spool file attachment: " + f);
+                    f.renameTo(new File(dir, f.getName() + SPOOL_BAD_EXTN));
+                    continue;
+                }
+            }
+            SendMail.Args args = new SendMail.Args(headers,
+                p.getProperty("from"), _getArray(p,"to"), _getArray(p,"cc"), _getArray(p,"bcc"),
+                p.getProperty("subject"), p.getProperty("body"), attach,
+                new SendMail.SmtpProperties(smtpRTP), StringTools.parseBoolean(p.getProperty("queRetry"),false));
+            Entry entry = new Entry(args);
+            entry.spoolFile = f;
+            entry.attempts  = StringTools.parseInt(p.getProperty("attempts"), 0);
+            synchronized (this) { this.submitCount++; }
+            if (!this._queue(SendMailDispatcher.getProfileKey(args.getSmtpProperties()), entry)) {
+                Print.logWarn("SendMailDispatcher ThreadPool full, remaining spooled email not queued");
+                break; // remains spooled, queued when next started
+            }
+            count++;
+        }
+        if (count > 0) {
+            Print.logInfo("SendMailDispatcher queued spooled email: " + count);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the number of queued (unsent) email
+    **/
+    public synchronized int getPendingCount()
+    {
+        return this.pendingCount;
+    }
+
+    /**
+    *** Gets the number of sent email
+    **/
+    public synchronized long getSentCount()
+    {
+        return this.sentCount;
+    }
+
+    /**
+    *** Gets the number of discarded duplicate email
+    **/
+    public synchronized long getCoalescedCount()
+    {
+        return this.coalescedCount;
+    }
+
+    /**
+    *** Gets a String representation of the dispatcher statistics
+    **/
+    public synchronized String getStatistics()
+    {
+        StringBuffer sb = new StringBuffer();
+        sb.append("submitted=").append(this.submitCount);
+        sb.append(" coalesced=").append(this.coalescedCount);
+        sb.append(" sent=").append(this.sentCount);
+        sb.append(" retried=").append(this.retryCount);
+        sb.append(" failed=").append(this.failedCount);
+        sb.append(" pending=").append(this.pendingCount);
+        sb.append(" connections=").append(this.connectCount);
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** LocalSMTPServer class: a minimal local SMTP server which accepts (and counts) all
+    *** email, for testing the dispatcher without a real SMTP server.
+    **/
+    public static class LocalSMTPServer
+        implements Runnable
+    {
+        private ServerSocket    serverSocket    = null;
+        private int             dropAfter       = 0;
+        private int             connections     = 0;
+        private int             messages        = 0;
+        private Set<String>     subjects        = new HashSet<String>();
+        public LocalSMTPServer(int port, int dropAfter) throws IOException {
+            this.serverSocket = new ServerSocket(port, 50, InetAddress.getByName("127.0.0.1"));
+            this.dropAfter    = dropAfter; // close the connection after this many messages (0=never)
+            Thread t = new Thread(this, "LocalSMTPServer");
+            t.setDaemon(true);
+            t.start();
+        }
+        public int getPort() {
+            return this.serverSocket.getLocalPort();
+        }
+        public synchronized int getConnectionCount() {
+            return this.connections;
+        }
+        public synchronized int getMessageCount() {
+            return this.messages;
+        }
+        public synchronized int getUniqueSubjectCount() {
+            return this.subjects.size();
+        }
+        public synchronized boolean waitForMessages(int count, long timeoutMS) {
+            long endMS = System.currentTimeMillis() + timeoutMS;
+            while (this.messages < count) {
+                long waitMS = endMS - System.currentTimeMillis();
+                if (waitMS <= 0L) { break; }
+                try { this.wait(waitMS); } catch (InterruptedException ie) { break; }
+            }
+            return (this.messages >= count);
+        }
+        public void close() {
+            try { this.serverSocket.close(); } catch (IOException ioe) {/*ignore*/}
+        }
+        public void run() {
+            for (;;) {
+                final Socket client;
+                try {
+                    client = this.serverSocket.accept();
+                } catch (IOException ioe) {
+                    return; // closed
+                }
+                synchronized (this) { this.connections++; }
+                Thread t = new Thread("LocalSMTPServer_client") {
+                    public void run() {
+                        LocalSMTPServer.this._session(client);
+                    }
+                };
+                t.setDaemon(true);
+                t.start();
+            }
+        }
+        private void _session(Socket client) {
+            try {
+                BufferedReader r = new BufferedReader(new InputStreamReader(client.getInputStream(), "ISO-8859-1"));
+                Writer w = new OutputStreamWriter(client.getOutputStream(), "ISO-8859-1");
+                w.write("220 localhost ESMTP LocalSMTPServer\r\n"); w.flush();
+                int sessionMsgs = 0;
+                for (String line = r.readLine(); line != null; line = r.readLine()) {
+                    String cmd = line.toUpperCase();
+                    if (cmd.startsWith("EHLO") || cmd.startsWith("HELO")) {
+                        w.write("250 localhost\r\n");
+                    } else
+                    if (cmd.startsWith("DATA")) {
+                        w.write("354 End data with <CR><LF>.<CR><LF>\r\n"); w.flush();
+                        String subject = null;
+                        for (String d = r.readLine(); (d != null) && !d.equals("."); d = r.readLine()) {
+                            if ((subject == null) && d.startsWith("Subject:")) { subject = d; }
+                        }
+                        synchronized (this) {
+                            this.messages++;
+                            this.subjects.add(String.valueOf(subject));
+                            this.notifyAll();
+                        }
+                        w.write("250 OK\r\n");
+                        sessionMsgs++;
+                        if ((this.dropAfter > 0) && (sessionMsgs >= this.dropAfter)) {
+                            w.flush();
+                            break; // drop connection without QUIT
+                        }
+                    } else
+                    if (cmd.startsWith("QUIT")) {
+                        w.write("221 Bye\r\n"); w.flush();
+                        break;
+                    } else
+                    if (cmd.startsWith("MAIL") || cmd.startsWith("RCPT") || cmd.startsWith("RSET") || cmd.startsWith("NOOP")) {
+                        w.write("250 OK\r\n");
+                    } else {
+                        w.write("502 Command not implemented\r\n");
+                    }
+                    w.flush();
+                }
+            } catch (IOException ioe) {
+                // -- connection closed
+            } finally {
+                try { client.close(); } catch (IOException ioe) {/*ignore*/}
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    private static final String ARG_COUNT[]         = new String[] { "count"     , "n"   };
+    private static final String ARG_DUPLICATES[]    = new String[] { "duplicates", "dup" };
+    private static final String ARG_RECIPIENTS[]    = new String[] { "recipients"        };
+    private static final String ARG_MODEL[]         = new String[] { "model"             };
+    private static final String ARG_PORT[]          = new String[] { "port"              };
+    private static final String ARG_NO_SERVER[]     = new String[] { "noServer"          };
+    private static final String ARG_DROP_AFTER[]    = new String[] { "dropAfter"         };
+    private static final String ARG_WAIT_SEC[]      = new String[] { "wait"              };
+
+    private static void usage()
+    {
+        Print.logInfo("Usage:");
+        Print.logInfo("  java ... " + SendMailDispatcher.class.getName() + " {options}");
+        Print.logInfo("Options:");
+        Print.logInfo("  -count=<count>        Number of notification email to send [1000]");
+        Print.logInfo("  -duplicates=<pct>     Percent of email which repeat an earlier email [25]");
+        Print.logInfo("  -recipients=<count>   Number of distinct recipients [50]");
+        Print.logInfo("  -model=<model>        SendMail thread model 'dispatch'|'pool' [dispatch]");
+        Print.logInfo("  -port=<port>          Local SMTP server port [0=any]");
+        Print.logInfo("  -noServer             Do not start the local SMTP server (nothing listening on 'port')");
+        Print.logInfo("  -dropAfter=<count>    Local SMTP server drops connections after this many email [0]");
+        Print.logInfo("  -wait=<sec>           Maximum time to wait for delivery [60]");
+        Print.logInfo("  -smtp.dispatch.spoolDir=<dir>  Persist queued email in this directory");
+        System.exit(1);
+    }
+
+    /**
+    *** Debug/testing entry point: sends a burst of notification email through the local
+    *** SMTP server, and reports the number of SMTP connections used.
+    **/
+    public static void main(String argv[])
+    {
+        RTConfig.setCommandLineArgs(argv);
+        int     count      = RTConfig.getInt(ARG_COUNT, 1000);
+        int     dupPct     = RTConfig.getInt(ARG_DUPLICATES, 25);
+        int     recipients = Math.max(RTConfig.getInt(ARG_RECIPIENTS, 50), 1);
+        String  model      = RTConfig.getString(ARG_MODEL, SendMail.THREAD_DISPATCH);
+        int     port       = RTConfig.getInt(ARG_PORT, 0);
+        boolean noServer   = RTConfig.getBoolean(ARG_NO_SERVER, false);
+        long    waitMS     = RTConfig.getInt(ARG_WAIT_SEC, 60) * 1000L;
+        if ((count < 0) || (noServer && (port <= 0))) {
+            usage();
+        }
+
+        /* local SMTP server */
+        LocalSMTPServer server = null;
+        if (!noServer) {
+            try {
+                server = new LocalSMTPServer(port, RTConfig.getInt(ARG_DROP_AFTER, 0));
+                port = server.getPort();
+            } catch (IOException ioe) {
+                Print.logError("Unable to start local SMTP server: " + ioe);
+                System.exit(99);
+            }
+        }
+        SendMail.SmtpProperties smtpProps = new SendMail.SmtpProperties();
+        smtpProps.setHost("localhost");
+        smtpProps.setPort(port);
+        smtpProps.setTimeoutMS(5000);
+
+        /* spooled email from a previous run */
+        SendMail.SetThreadModel(model);
+        SendMailDispatcher smd = null;
+        if (model.equalsIgnoreCase(SendMail.THREAD_DISPATCH)) {
+            smd = SendMailDispatcher.getInstance(); // queues spooled email
+        }
+
+        /* notification burst ("geofence storm") */
+        Random rand = new Random(12345L);
+        java.util.List<String[]> sent = new Vector<String[]>();
+        long startMS = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            String msg[];
+            if (!sent.isEmpty() && (rand.nextInt(100) < dupPct)) {
+                msg = sent.get(rand.nextInt(sent.size())); // identical to an earlier email
+            } else {
+                String to = "fleet" + rand.nextInt(recipients) + "@fleet.local";
+                msg = new String[] { to, "Geofence Arrive: dev" + i, "Device dev" + i + " arrived at 'Depot'" };
+                sent.add(msg);
+            }
+            SendMail.send(null, "alerts@gts.local", new String[] { msg[0] }, null, null,
+                msg[1], msg[2], null, smtpProps, true);
+        }
+
+        /* wait for delivery */
+        int unique = sent.size();
+        boolean complete;
+        if (smd != null) {
+            complete = smd.waitForEmpty(waitMS);
+        } else {
+            complete = (server != null)? server.waitForMessages(count, waitMS) : false;
+        }
+        long elapsedMS = System.currentTimeMillis() - startMS;
+
+        /* results */
+        Print.logInfo("Model      : " + model);
+        Print.logInfo("Submitted  : " + count + " (" + unique + " unique)");
+        if (smd != null) {
+            Print.logInfo("Dispatcher : " + smd.getStatistics());
+        }
+        if (server != null) {
+            Print.logInfo("SMTP server: messages=" + server.getMessageCount() + " uniqueSubjects=" +
+                server.getUniqueSubjectCount() + " connections=" + server.getConnectionCount());
+        }
+        Print.logInfo("Complete   : " + complete + " (" + elapsedMS + " ms)");
+        if (server != null) {
+            server.close();
+        }
+        System.exit(0);
+
+    }
+
+}
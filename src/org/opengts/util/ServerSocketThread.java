@@ -91,6 +91,7 @@
 package org.opengts.util;
 
 import java.io.*;
+import java.nio.*;
 import java.nio.channels.*;
 import java.util.*;
 import java.net.*;
@@ -136,6 +137,37 @@ public class ServerSocketThread
 
     public static final boolean     ACK_FROM_LISTEN_PORT                = true;
 
+    // ------------------------------------------------------------------------
+
+    /* NIO selector transport */
+    private static final long       NIO_SELECT_TIMEOUT_MS               = 1000L;
+    private static final int        NIO_READ_BUFFER_SIZE                = 16 * 1024;
+    private static final int        NIO_SESSION_BUFFER_SIZE             = 512;
+    private static final int        NIO_MAX_BUFFERED_BYTES              = 256 * 1024;
+    private static final int        DFT_NIO_WORKER_POOL_SIZE            = 20;
+
+    /* ServerSessionThread read buffer */
+    private static final int        SESSION_READ_BUFFER_SIZE            = 8 * 1024;
+    private static final byte       CHAR_DATA                           = 0;
+    private static final byte       CHAR_TERMINATOR                     = 1;
+    private static final byte       CHAR_IGNORE                         = 2;
+    private static final byte       CHAR_BACKSPACE                      = 3;
+    private static final byte       CHAR_CONTROL                        = 4;
+
+    /* PacketFrameState results */
+    private static final int        FRAME_BYTE_SAVE                     = 0; // save byte, continue
+    private static final int        FRAME_BYTE_IGNORE                   = 1; // discard byte, continue
+    private static final int        FRAME_BYTE_SAVE_END                 = 2; // save byte, packet complete
+    private static final int        FRAME_BYTE_END                      = 3; // discard byte, packet complete
+    private static final int        FRAME_PACKET_CONTINUE               = 0; // continue reading
+    private static final int        FRAME_PACKET_COMPLETE               = 1; // packet complete
+    private static final int        FRAME_PACKET_TRIM_END               = 2; // remove last byte, packet complete
+    private static final int        FRAME_PACKET_AVAILABLE              = 3; // call "setAvailable", continue
+
+    /* UDP worker fan-out */
+    private static final int        DFT_UDP_WORKER_QUEUE_SIZE           = 1000;
+    private static final int        UDP_PACKET_POOL_SIZE                = 1024;
+
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
@@ -256,6 +288,19 @@ public class ServerSocketThread
     {
         InetAddress bind = (bindAddr != null)? bindAddr : ServerSocketThread.getDefaultBindAddress();
         DatagramSocket dgSock;
+        if ((port > 0) && (ServerSocketThread.getDefaultUdpReceiveSockets() > 1)) {
+            // -- multiple receive sockets on this port, SO_REUSEPORT must be set before binding
+            dgSock = new DatagramSocket((SocketAddress)null); // unbound
+            try {
+                if (!ServerSocketThread.setReusePort(dgSock)) {
+                    Print.logWarn("SO_REUSEPORT not supported, using a single UDP receive socket [port "+port+"]");
+                }
+                dgSock.bind((bind != null)? new InetSocketAddress(bind,port) : new InetSocketAddress(port));
+            } catch (SocketException se) {
+                dgSock.close();
+                throw se;
+            }
+        } else
         if (bind != null) {
             // -- bind to specific interface
             dgSock = new DatagramSocket(new InetSocketAddress(bind,port));
@@ -266,6 +311,40 @@ public class ServerSocketThread
         return dgSock;
     }
     
+    /**
+    *** Returns the number of UDP receive sockets to bind to each UDP listen port
+    *** (property "ServerSocketThread.udpReceiveSockets").  Values greater than '1' 
+    *** require SO_REUSEPORT, and are only used in UDP worker mode.
+    *** @return The number of UDP receive sockets
+    **/
+    public static int getDefaultUdpReceiveSockets()
+    {
+        return RTConfig.getInt(RTKey.ServerSocketThread_udpReceiveSockets,1);
+    }
+
+    /**
+    *** Sets the SO_REUSEPORT option on the specified unbound DatagramSocket.
+    *** (SO_REUSEPORT is available on Java 9+ only, and is set via reflection)
+    *** @param dgSock  The unbound DatagramSocket
+    *** @return True if the option was set, false if SO_REUSEPORT is not supported
+    **/
+    public static boolean setReusePort(DatagramSocket dgSock)
+    {
+        if (dgSock == null) {
+            return false;
+        }
+        try {
+            // -- dgSock.setOption(StandardSocketOptions.SO_REUSEPORT, Boolean.TRUE); // Java 9+
+            Class<?> sso = Class.forName("java.net.StandardSocketOptions");
+            Class<?> soc = Class.forName("java.net.SocketOption");
+            Object   opt = sso.getField("SO_REUSEPORT").get(null);
+            DatagramSocket.class.getMethod("setOption", soc, Object.class).invoke(dgSock, opt, Boolean.TRUE);
+            return true;
+        } catch (Throwable th) { // ClassNotFoundException, NoSuchFieldException, NoSuchMethodException, UnsupportedOperationException
+            return false;
+        }
+    }
+
     /**
     *** Creates a DatagramSocket bound to the default local interface
     *** @return The created DatagramSocket
@@ -279,7 +358,78 @@ public class ServerSocketThread
     // ------------------------------------------------------------------------
 
     /**
-    *** Creates a ServerSocket bound to the default local interface
+    *** Returns true if the NIO selector transport is enabled by default for newly 
+    *** created TCP ServerSocketThreads (property "ServerSocketThread.nioSelectorEnabled")
+    *** @return True if the NIO selector transport is enabled by default
+    **/
+    public static boolean getDefaultNioSelectorEnabled()
+    {
+        return RTConfig.getBoolean(RTKey.ServerSocketThread_nioSelectorEnabled,false);
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static boolean                  virtualThreadInit       = false;
+    private static java.lang.reflect.Method virtualThreadStart      = null;
+
+    /**
+    *** Returns true if virtual threads are supported by the current JVM (Java 21+)
+    *** @return True if virtual threads are supported
+    **/
+    public static boolean isVirtualThreadSupported()
+    {
+        synchronized (ServerSocketThread.class) {
+            if (!virtualThreadInit) {
+                virtualThreadInit = true;
+                try {
+                    // -- Java 21+: "Thread.startVirtualThread(Runnable)"
+                    virtualThreadStart = Thread.class.getMethod("startVirtualThread", Runnable.class);
+                } catch (Throwable th) { // NoSuchMethodException, SecurityException
+                    virtualThreadStart = null;
+                }
+            }
+            return (virtualThreadStart != null);
+        }
+    }
+
+    /**
+    *** Starts the specified Runnable on a new virtual thread
+    *** @param r     The Runnable to start
+    *** @param name  The name of the virtual thread
+    *** @return The started virtual thread, or null if virtual threads are not supported,
+    ***         or the thread could not be started.
+    **/
+    protected static Thread startVirtualThread(Runnable r, String name)
+    {
+        if ((r == null) || !ServerSocketThread.isVirtualThreadSupported()) {
+            return null;
+        }
+        try {
+            Thread vt = (Thread)virtualThreadStart.invoke(null, r);
+            if ((vt != null) && !StringTools.isBlank(name)) {
+                vt.setName(name);
+            }
+            return vt;
+        } catch (Throwable th) { // InvocationTargetException, IllegalAccessException
+            Print.logException("Unable to start virtual thread", th);
+            return null;
+        }
+    }
+
+    /**
+    *** Returns true if TCP client sessions should run on virtual threads by default
+    *** (property "ServerSocketThread.virtualThreadSessions")
+    *** @return True if TCP client sessions should run on virtual threads by default
+    **/
+    public static boolean getDefaultVirtualThreadSessions()
+    {
+        return RTConfig.getBoolean(RTKey.ServerSocketThread_virtualThreadSessions,false);
+    }
+
+    /**
+    *** Creates a ServerSocket bound to the default local interface.
+    *** If the NIO selector transport is enabled, the returned ServerSocket will be
+    *** backed by a ServerSocketChannel.
     *** @return The created ServerSocket
     **/
     public static ServerSocket createServerSocket(InetAddress bindAddr, int port)
@@ -287,7 +437,19 @@ public class ServerSocketThread
     {
         InetAddress bind = (bindAddr != null)? bindAddr : ServerSocketThread.getDefaultBindAddress();
         try {
-            return new ServerSocket(port, ListenBacklog, bind);
+            if (ServerSocketThread.getDefaultNioSelectorEnabled()) {
+                // -- channel-backed ServerSocket (required for the NIO selector transport)
+                ServerSocketChannel ssc = ServerSocketChannel.open();
+                try {
+                    ssc.socket().bind(new InetSocketAddress(bind,port), ListenBacklog);
+                } catch (IOException ioe) {
+                    try { ssc.close(); } catch (Throwable th) { /* ignore */ }
+                    throw ioe;
+                }
+                return ssc.socket();
+            } else {
+                return new ServerSocket(port, ListenBacklog, bind);
+            }
         } catch (IllegalArgumentException iae) {
             // -- IE. "Port value out of range"
             throw new IOException(iae);
@@ -470,6 +632,22 @@ public class ServerSocketThread
 
     private boolean                             LogEnable               = true;
 
+    private boolean                             nioEnabled              = false;
+    private Selector                            nioSelector             = null;
+    private ThreadPool                          nioWorkerPool           = null;
+    private java.util.List<Runnable>            nioPendingOps           = null;
+    private java.util.List<ServerSessionNIO>    nioSessionList          = null;
+    private volatile boolean                    nioShutdown             = false;
+
+    private boolean                             virtualThreads          = false;
+
+    private int                                 udpWorkerThreads        = 0;
+    private UDPWorker                           udpWorkers[]            = null;
+    private java.util.List<DatagramSocket>      udpReceiveSockets       = null;
+    private java.util.List<DatagramPacket>      udpPacketPool           = null;
+    private volatile boolean                    udpWorkersStop          = false;
+    private long                                udpDiscardCount         = 0L;
+
     // ------------------------------------------------------------------------
 
     /**
@@ -483,8 +661,16 @@ public class ServerSocketThread
         this.clientThreadPool  = new Vector<ServerSessionThread>();
         this.activeSessionList = new Vector<ClientPacketHandler>();
         this.actionListeners   = new Vector<ActionListener>();
+        this.nioPendingOps     = new Vector<Runnable>();
+        this.nioSessionList    = new Vector<ServerSessionNIO>();
+        this.udpReceiveSockets = new Vector<DatagramSocket>();
+        this.udpPacketPool     = new ArrayList<DatagramPacket>();
         // -- apply maximum allowed client threads
         this.setMaximumClientThreadPoolSize(RTConfig.getInt(RTKey.ServerSocketThread_maximumClientThreadPoolSize,0));
+        // -- NIO selector transport (TCP only)
+        this.setNioSelectorEnabled(ServerSocketThread.getDefaultNioSelectorEnabled());
+        // -- virtual-thread client sessions (TCP only)
+        this.setVirtualThreadSessions(ServerSocketThread.getDefaultVirtualThreadSessions());
         // -- save a pointer to this instance
         _AddSST(this);
     }
@@ -499,15 +685,25 @@ public class ServerSocketThread
         this.datagramSocket = ds;
         this.bindAddress    = (ds != null)? ds.getLocalAddress() : ServerSocketThread.getDefaultBindAddress();
         this.listenPort     = (ds != null)? ds.getLocalPort() : -1;
+        // -- UDP worker fan-out
+        this.setUdpWorkerThreads(RTConfig.getInt(RTKey.ServerSocketThread_udpWorkerThreads,0));
         // --
+        ServerSocketThread.setReceiveBufferSize(this.datagramSocket);
+    }
+
+    /**
+    *** Sets the DatagramSocket receive buffer size (property "ServerSocketThread.udpReceiveBufferSize")
+    **/
+    private static void setReceiveBufferSize(DatagramSocket ds)
+    {
         try {
             int recvBuffSize = RTConfig.getInt(RTKey.ServerSocketThread_udpReceiveBufferSize,0); // max 7456540 [0x71C71C] (Mac)
-            if ((this.datagramSocket != null) && (recvBuffSize > 0)) {
-                //Print.logInfo("DatagramSocket SO_RCVBUF size (before): "+this.datagramSocket.getReceiveBufferSize()+" ["+recvBuffSize+"]");
-                this.datagramSocket.setReceiveBufferSize(recvBuffSize);
-                Print.logDebug("DatagramSocket SO_RCVBUF size: " + this.datagramSocket.getReceiveBufferSize());
+            if ((ds != null) && (recvBuffSize > 0)) {
+                //Print.logInfo("DatagramSocket SO_RCVBUF size (before): "+ds.getReceiveBufferSize()+" ["+recvBuffSize+"]");
+                ds.setReceiveBufferSize(recvBuffSize);
+                Print.logDebug("DatagramSocket SO_RCVBUF size: " + ds.getReceiveBufferSize());
                 /*
-                DatagramChannel dgChan = this.datagramSocket.getChannel();
+                DatagramChannel dgChan = ds.getChannel();
                 if (dgChan != null) {
                     // -- TODO: allow compiling on Java-6
                     dgChan.setOption(SocketOption.SO_RCVBUF, recvBuffSize); // Java 7+
@@ -571,7 +767,7 @@ public class ServerSocketThread
         this.bindAddress  = (bindAddr != null)? bindAddr : ServerSocketThread.getDefaultBindAddress();
         this.serverSocket = useSSL?
             SSLServerSocketFactory.getDefault().createServerSocket(port, ListenBacklog, this.bindAddress) :
-            ServerSocketFactory   .getDefault().createServerSocket(port, ListenBacklog, this.bindAddress);
+            ServerSocketThread.createServerSocket(this.bindAddress, port);
         this.listenPort = port;
     }
 
@@ -666,6 +862,101 @@ public class ServerSocketThread
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Sets the NIO selector transport enabled state.  When enabled (and the TCP 
+    *** ServerSocket is backed by a ServerSocketChannel), all client sessions are 
+    *** multiplexed on this listener thread, and the ClientPacketHandler callbacks
+    *** are run on a worker ThreadPool (see "ServerSocketThread.nioWorkerPoolSize").
+    *** The maximum client thread pool size then limits the number of concurrent
+    *** sessions.  Ignored for UDP listeners.
+    *** Must be called before this ServerSocketThread is started.
+    *** @param enable  True to enable the NIO selector transport
+    **/
+    public void setNioSelectorEnabled(boolean enable)
+    {
+        this.nioEnabled = enable;
+    }
+
+    /**
+    *** Returns true if this TCP listener will use the NIO selector transport
+    *** @return True if this TCP listener will use the NIO selector transport
+    **/
+    public boolean isNioSelectorEnabled()
+    {
+        return this.nioEnabled && 
+            (this.serverSocket != null) && 
+            (this.serverSocket.getChannel() != null);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the virtual-thread session mode.  When enabled (and supported by the JVM),
+    *** each TCP client session is run on its own new virtual thread, rather than on a 
+    *** pooled platform ServerSessionThread.  The blocking ClientPacketHandler call 
+    *** sequence is unchanged.  The maximum client thread pool size then limits the 
+    *** number of concurrent sessions.  Ignored for UDP listeners, and when the NIO 
+    *** selector transport is in use.
+    *** @param enable  True to enable virtual-thread sessions
+    **/
+    public void setVirtualThreadSessions(boolean enable)
+    {
+        if (enable && !ServerSocketThread.isVirtualThreadSupported()) {
+            Print.logWarn("Virtual threads not supported by this JVM (requires Java 21+), using platform threads");
+            this.virtualThreads = false;
+        } else {
+            this.virtualThreads = enable;
+        }
+    }
+
+    /**
+    *** Returns true if TCP client sessions are run on virtual threads
+    *** @return True if TCP client sessions are run on virtual threads
+    **/
+    public boolean getVirtualThreadSessions()
+    {
+        return this.virtualThreads;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the number of UDP worker threads.  When greater than '0', datagrams are 
+    *** received into pooled buffers, optionally on several SO_REUSEPORT sockets (see
+    *** "ServerSocketThread.udpReceiveSockets"), and are handed to a fixed set of worker
+    *** threads, each with a bounded queue (see "ServerSocketThread.udpWorkerQueueSize").
+    *** The worker is selected by the remote address/port, so datagrams from the same
+    *** device are handled in the order received.  Ignored for TCP listeners.
+    *** Must be called before this ServerSocketThread is started.
+    *** @param count  The number of UDP worker threads (0 to disable)
+    **/
+    public void setUdpWorkerThreads(int count)
+    {
+        this.udpWorkerThreads = (count > 0)? count : 0;
+    }
+
+    /**
+    *** Gets the number of UDP worker threads (0 if UDP worker mode is disabled)
+    *** @return The number of UDP worker threads
+    **/
+    public int getUdpWorkerThreads()
+    {
+        return this.udpWorkerThreads;
+    }
+
+    /**
+    *** Gets the number of datagrams discarded because the selected UDP worker queue was full
+    *** @return The number of discarded datagrams
+    **/
+    public long getUdpDiscardCount()
+    {
+        synchronized (this.udpPacketPool) {
+            return this.udpDiscardCount;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Gets the bound UDP DatagramSocket for this server handler.  Will 
     *** return null if this server handler does not handle UDP connections.
@@ -797,6 +1088,24 @@ public class ServerSocketThread
     **/
     public void run() 
     {
+
+        /* NIO selector transport (TCP only) */
+        if ((this.serverSocket != null) && this.nioEnabled) {
+            if (this.isNioSelectorEnabled()) {
+                this._runSelector();
+                _RemoveSST(this);
+                return;
+            }
+            Print.logWarn("ServerSocket is not channel-backed, NIO selector transport ignored");
+        }
+
+        /* UDP worker fan-out */
+        if ((this.datagramSocket != null) && (this.udpWorkerThreads > 0)) {
+            this._runUdpWorkers();
+            _RemoveSST(this);
+            return;
+        }
+
         while (true) {
             ClientSocket clientSocket = null;
 
@@ -867,6 +1176,12 @@ public class ServerSocketThread
             //}
             //int clientRemotePort = clientSocket.getPort();
 
+            /* virtual-thread session (TCP only) */
+            if (this.virtualThreads && clientSocket.isTCP()) {
+                this._dispatchVirtualSession(clientSocket);
+                continue;
+            }
+
             /* find an available client thread */
             // this._dispatchServerSessionThread(clientSocket); // TCP/UDP
             ServerSessionThread dispatchedSST = null;
@@ -926,6 +1241,36 @@ public class ServerSocketThread
 
     } // run()
 
+    /**
+    *** Runs the TCP client session on a new virtual thread
+    **/
+    private void _dispatchVirtualSession(ClientSocket clientSocket)
+    {
+        String discardMsg = null;
+        synchronized (this.clientThreadPool) {
+            int maxPoolSize = this.getMaximumClientThreadPoolSize();
+            if ((maxPoolSize > 0) && (this.clientThreadPool.size() >= maxPoolSize)) {
+                discardMsg = "Discarding client connection (too many sessions)";
+            } else {
+                ServerSessionThread sst = new ServerSessionThread(clientSocket, false/*startThread*/);
+                if (sst.startVirtual()) {
+                    this.clientThreadPool.add(sst);
+                } else {
+                    discardMsg = "Discarding client connection (unable to start virtual thread)";
+                }
+            }
+        }
+        if (discardMsg != null) {
+            // -- the client will hopefully attempt to reconnect at a later time.
+            Print.logWarn(discardMsg);
+            try {
+                clientSocket.close();
+            } catch (Throwable th) {
+                // -- ignore
+            }
+        }
+    }
+
     /**
     *** Shuts down the server 
     **/
@@ -945,6 +1290,12 @@ public class ServerSocketThread
                 }
             }
 
+            /* shutdown all NIO sessions */
+            this._nioSignalShutdown();
+
+            /* stop UDP workers (after queued datagrams have been handled) */
+            this.udpWorkersStop = true;
+
             /* wait for client handler threads to stop */
             long startMS = DateTime.getCurrentTimeMillis();
             boolean didTimeout = false;
@@ -954,6 +1305,10 @@ public class ServerSocketThread
                 synchronized (this.clientThreadPool) {
                     remainingThreads = this.clientThreadPool.size();
                 }
+                synchronized (this.nioSessionList) {
+                    remainingThreads += this.nioSessionList.size();
+                }
+                remainingThreads += this._udpActiveWorkers();
                 // -- all client threads stopped?
                 if (remainingThreads <= 0) {
                     // -- everything has stopped
@@ -975,11 +1330,17 @@ public class ServerSocketThread
 	    	if (this.serverSocket != null) {
 	    		this.serverSocket.close();
 	    	}
+            if (this.nioSelector != null) {
+                this.nioSelector.wakeup(); // selector thread exits when ServerSocket is closed
+            }
 
             /* shutdown UDP listener */
 	    	if (this.datagramSocket != null) {
 	    		this.datagramSocket.close();
 	    	}
+            for (DatagramSocket ds : this._udpGetReceiveSockets()) {
+                ds.close();
+            }
 
 	    	/* successful if this did not timeout */
 	    	return !didTimeout;
@@ -1075,102 +1436,535 @@ public class ServerSocketThread
     }
     
     // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // UDP worker fan-out
 
     /**
-    *** Sets the remote UDP response port
-    *** @param remotePort The remote UDP respose port
+    *** UDP receive loop (worker mode).  Receives datagrams into pooled buffers on the
+    *** listen socket (and any additional SO_REUSEPORT sockets), and queues each 
+    *** datagram to the worker selected by its remote address.
     **/
-    public void setRemotePort(int remotePort)
+    private void _runUdpWorkers()
     {
-        this.clientPort = remotePort;
+        int port = this.getLocalPort();
+
+        /* start workers */
+        int queueSize = RTConfig.getInt(RTKey.ServerSocketThread_udpWorkerQueueSize,DFT_UDP_WORKER_QUEUE_SIZE);
+        this.udpWorkersStop = false;
+        this.udpWorkers = new UDPWorker[this.udpWorkerThreads];
+        for (int i = 0; i < this.udpWorkers.length; i++) {
+            this.udpWorkers[i] = new UDPWorker(port, i, ((queueSize > 0)? queueSize : DFT_UDP_WORKER_QUEUE_SIZE));
+            this.udpWorkers[i].start();
+        }
+
+        /* additional SO_REUSEPORT receive sockets */
+        int recvSockets = ServerSocketThread.getDefaultUdpReceiveSockets();
+        for (int i = 1; i < recvSockets; i++) {
+            final DatagramSocket ds;
+            try {
+                ds = ServerSocketThread.createDatagramSocket(this.bindAddress, port);
+                ServerSocketThread.setReceiveBufferSize(ds);
+            } catch (SocketException se) { // BindException
+                Print.logWarn("Unable to bind additional UDP receive socket [port "+port+"]: " + se);
+                break;
+            }
+            this.udpReceiveSockets.add(ds);
+            Thread rt = new Thread(new Runnable() {
+                public void run() {
+                    ServerSocketThread.this._udpReceiveLoop(ds);
+                }
+            }, "UDPReceive_" + port + "_" + i);
+            rt.setDaemon(true);
+            rt.start();
+        }
+        if (LogEnable) { Print.logInfo("UDP worker mode on port " + port + " [workers=" + this.udpWorkers.length + ", sockets=" + (this.udpReceiveSockets.size() + 1) + ", queue=" + queueSize + "]"); }
+
+        /* receive on the listen socket */
+        this._udpReceiveLoop(this.datagramSocket);
+
+        /* shutdown */
+        for (DatagramSocket ds : this._udpGetReceiveSockets()) {
+            ds.close();
+        }
+        this.udpWorkersStop = true;
+        if (LogEnable) { Print.logInfo("Shutdown UDP server on port " + port); }
+
     }
 
     /**
-    *** Gets the remote UDP response port
-    *** @return The remote UDP respose port
+    *** Receives datagrams from the specified socket until the socket is closed
     **/
-    public int getRemotePort()
+    private void _udpReceiveLoop(DatagramSocket ds)
     {
-        return this.clientPort;
-    }
+        UDPWorker workers[] = this.udpWorkers;
+        while (true) {
 
-    // ------------------------------------------------------------------------
+            /* receive */
+            DatagramPacket dp = this._udpGetPacket();
+            try {
+                ds.receive(dp); // (block)
+            } catch (SocketException se) {
+                // -- shutdown support
+                this._udpReturnPacket(dp);
+                break;
+            } catch (IOException ioe) {
+                Print.logError("Connection - " + ioe);
+                this._udpReturnPacket(dp);
+                continue; // go back and wait again
+            }
+
+            /* queue to worker selected by remote address */
+            SocketAddress remoteSock = dp.getSocketAddress();
+            int ndx = (remoteSock != null)? ((remoteSock.hashCode() & 0x7FFFFFFF) % workers.length) : 0;
+            if (!workers[ndx].offer(dp)) {
+                long discarded;
+                synchronized (this.udpPacketPool) {
+                    discarded = ++this.udpDiscardCount;
+                }
+                if ((discarded == 1L) || ((discarded % 1000L) == 0L)) {
+                    Print.logWarn("UDP worker queue full, datagram discarded [" + remoteSock + "] (total " + discarded + ")");
+                }
+                this._udpReturnPacket(dp);
+            }
+
+        }
+    }
 
     /**
-    *** Returns true if this object has action listeners
-    *** @return True if this object has action listeners
+    *** Returns a pooled DatagramPacket, sized to the maximum packet length
     **/
-    public boolean hasListeners()
+    private DatagramPacket _udpGetPacket()
     {
-        return (this.actionListeners.size() > 0);
+        int maxLen = this.getMaximumPacketLength();
+        DatagramPacket dp = null;
+        synchronized (this.udpPacketPool) {
+            int size = this.udpPacketPool.size();
+            if (size > 0) {
+                dp = this.udpPacketPool.remove(size - 1);
+            }
+        }
+        if ((dp == null) || (dp.getData().length < maxLen)) {
+            return new DatagramPacket(new byte[maxLen], maxLen);
+        } else {
+            dp.setData(dp.getData()); // reset offset/length
+            return dp;
+        }
     }
 
     /**
-    *** Adds an action listener
-    *** @param al The action listener to add
+    *** Returns the DatagramPacket to the pool
     **/
-    public void addActionListener(ActionListener al)
+    private void _udpReturnPacket(DatagramPacket dp)
     {
-        // used for simple one way messaging
-        if (!this.actionListeners.contains(al)) {
-            this.actionListeners.add(al);
+        synchronized (this.udpPacketPool) {
+            if (this.udpPacketPool.size() < UDP_PACKET_POOL_SIZE) {
+                this.udpPacketPool.add(dp);
+            }
         }
     }
 
     /**
-    *** Removes an action listener
-    *** @param al The action listener to remove
+    *** Returns a snapshot of the additional UDP receive sockets
     **/
-    public void removeActionListener(ActionListener al)
+    private DatagramSocket[] _udpGetReceiveSockets()
     {
-        this.actionListeners.remove(al);
+        synchronized (this.udpReceiveSockets) {
+            return this.udpReceiveSockets.toArray(new DatagramSocket[this.udpReceiveSockets.size()]);
+        }
     }
 
     /**
-    *** Invokes action listener with the specified message
-    *** @param msgBytes The message to invoke the listeners with as a byte array
-    *** @return True if succesful
+    *** Returns the number of UDP worker threads still running
     **/
-    protected boolean invokeListeners(byte msgBytes[])
-        throws Exception
+    private int _udpActiveWorkers()
     {
-        if (msgBytes != null) {
-            String msg = StringTools.toStringValue(msgBytes);
-            for (Iterator i = this.actionListeners.iterator(); i.hasNext();) {
-                Object alObj = i.next();
-                if (alObj instanceof ActionListener) {
-                    ActionListener al = (ActionListener)alObj;
-                    ActionEvent ae = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, msg);
-                    al.actionPerformed(ae);
+        UDPWorker workers[] = this.udpWorkers;
+        int count = 0;
+        if (workers != null) {
+            for (int i = 0; i < workers.length; i++) {
+                if (workers[i].isAlive()) {
+                    count++;
                 }
             }
-            return true;
-        } else {
-            return false;
         }
+        return count;
     }
-    
-    // ------------------------------------------------------------------------
-    
+
     /**
-    *** Sets the client packet handler [CHECK]
-    *** @param cph The client packet handler
+    *** UDPWorker<br>
+    *** Handles the datagrams queued for one group of remote addresses, in order, 
+    *** using a single (unstarted) ServerSessionThread for the session handling.
     **/
-    public void setClientPacketHandler(ClientPacketHandler cph)
+    private class UDPWorker
+        extends Thread
     {
-        this.clientPacketHandler = cph;
+        private java.util.concurrent.BlockingQueue<DatagramPacket> queue = null;
+        private ServerSessionThread session = null;
+        public UDPWorker(int port, int ndx, int queueSize) {
+            super("UDPWorker_" + port + "_" + ndx);
+            this.queue   = new java.util.concurrent.ArrayBlockingQueue<DatagramPacket>(queueSize);
+            this.session = new ServerSessionThread((ClientSocket)null, false/*startThread*/);
+            this.session.setRunThread(this);
+            this.setDaemon(true);
+        }
+        public boolean offer(DatagramPacket dp) {
+            return this.queue.offer(dp);
+        }
+        public void run() {
+            while (!ServerSocketThread.this.udpWorkersStop || !this.queue.isEmpty()) {
+                DatagramPacket dp = null;
+                try {
+                    dp = this.queue.poll(NIO_SELECT_TIMEOUT_MS, java.util.concurrent.TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ie) {
+                    continue;
+                }
+                if (dp == null) {
+                    continue;
+                }
+                try {
+                    if (LogEnable) {
+                        Print.logInfo("Datagram: remote=" + dp.getSocketAddress()); 
+                    }
+                    this.session.handleDatagramSession(new ClientSocket(dp)); // UDP
+                } catch (Throwable th) {
+                    Print.logException("UDP worker", th);
+                } finally {
+                    ServerSocketThread.this._udpReturnPacket(dp);
+                }
+            }
+        }
     }
-    
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+    // NIO selector transport
+
     /**
-    *** Sets the client packet handler class [CHECK]
-    *** @param cphc The client packet handler class
+    *** Selector loop (TCP only).  Accepts client connections, reads available client 
+    *** bytes, and flushes pending writes.  Packet framing and all ClientPacketHandler 
+    *** callbacks are run by each session's job on the NIO worker ThreadPool.
     **/
-    public void setClientPacketHandlerClass(Class<? extends ClientPacketHandler> cphc)
+    private void _runSelector()
     {
-        if ((cphc == null) || ClientPacketHandler.class.isAssignableFrom(cphc)) {
-            this.clientPacketHandlerClass = cphc;
-            this.clientPacketHandler = null;
-        } else {
+        ServerSocketChannel ssc = this.serverSocket.getChannel();
+        int port = this.getLocalPort();
+
+        /* open selector */
+        try {
+            this.nioSelector = Selector.open();
+            ssc.configureBlocking(false);
+            ssc.register(this.nioSelector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ioe) {
+            Print.logException("Unable to initialize NIO selector on port " + port, ioe);
+            return;
+        }
+
+        /* worker thread pool */
+        if (this.nioWorkerPool == null) {
+            int poolSize = RTConfig.getInt(RTKey.ServerSocketThread_nioWorkerPoolSize,DFT_NIO_WORKER_POOL_SIZE);
+            this.nioWorkerPool = new ThreadPool("NIOWorker_" + port, poolSize);
+        }
+        if (LogEnable) { Print.logInfo("NIO selector transport on port " + port + " [workers=" + this.nioWorkerPool.getMaxPoolSize() + "]"); }
+
+        /* select loop */
+        ByteBuffer readBuff = ByteBuffer.allocateDirect(NIO_READ_BUFFER_SIZE);
+        long lastTimeoutCheckMS = DateTime.getCurrentTimeMillis();
+        while (ssc.isOpen()) {
+
+            /* wait for ready channels */
+            try {
+                this.nioSelector.select(NIO_SELECT_TIMEOUT_MS);
+            } catch (ClosedSelectorException cse) {
+                break;
+            } catch (IOException ioe) {
+                Print.logError("Selector - " + ioe);
+                continue;
+            }
+
+            /* interest-op changes requested by worker threads */
+            this._nioRunPendingOps();
+
+            /* handle ready channels */
+            Iterator<SelectionKey> ki = this.nioSelector.selectedKeys().iterator();
+            while (ki.hasNext()) {
+                SelectionKey key = ki.next();
+                ki.remove();
+                try {
+                    if (!key.isValid()) {
+                        continue;
+                    } else
+                    if (key.isAcceptable()) {
+                        this._nioAccept(ssc);
+                    } else {
+                        ServerSessionNIO sess = (ServerSessionNIO)key.attachment();
+                        if (key.isReadable()) {
+                            sess._selectRead(readBuff);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            sess._selectWrite();
+                        }
+                    }
+                } catch (CancelledKeyException cke) {
+                    // -- session closed while selected
+                }
+            }
+
+            /* check session timeouts */
+            long nowMS = DateTime.getCurrentTimeMillis();
+            if ((nowMS - lastTimeoutCheckMS) >= NIO_SELECT_TIMEOUT_MS) {
+                lastTimeoutCheckMS = nowMS;
+                for (ServerSessionNIO sess : this._nioGetSessions()) {
+                    sess._checkTimeouts(nowMS);
+                }
+            }
+
+        } // while (ssc.isOpen())
+
+        /* close remaining sessions */
+        for (ServerSessionNIO sess : this._nioGetSessions()) {
+            sess.forceCloseTCPSession();
+        }
+        try {
+            this.nioSelector.close();
+        } catch (IOException ioe) {
+            // -- ignore
+        }
+        if (LogEnable) { Print.logInfo("Shutdown TCP server on port " + port); }
+
+    }
+
+    /**
+    *** Accepts a pending client connection (selector thread only)
+    **/
+    private void _nioAccept(ServerSocketChannel ssc)
+    {
+
+        /* accept */
+        SocketChannel sc = null;
+        try {
+            sc = ssc.accept();
+        } catch (IOException ioe) {
+            Print.logError("Connection - " + ioe);
+            return;
+        }
+        if (sc == null) {
+            // -- no pending connection
+            return;
+        }
+
+        /* check session limit */
+        int maxSessions = this.getMaximumClientThreadPoolSize();
+        int sessCount   = 0;
+        synchronized (this.nioSessionList) {
+            sessCount = this.nioSessionList.size();
+        }
+        if (this.nioShutdown || ((maxSessions > 0) && (sessCount >= maxSessions))) {
+            // -- the client will hopefully attempt to reconnect at a later time.
+            if (!this.nioShutdown) {
+                Print.logWarn("Discarding client connection (too many sessions)");
+            }
+            try {
+                sc.close();
+            } catch (Throwable th) {
+                // -- ignore
+            }
+            return;
+        }
+
+        /* register new session */
+        ServerSessionNIO sess = null;
+        try {
+            sc.configureBlocking(false);
+            sess = new ServerSessionNIO(sc);
+            synchronized (this.nioSessionList) {
+                this.nioSessionList.add(sess);
+            }
+            sess.selKey = sc.register(this.nioSelector, SelectionKey.OP_READ, sess);
+        } catch (IOException ioe) {
+            Print.logError("Connection - " + ioe);
+            if (sess != null) {
+                sess._closeChannel();
+            } else {
+                try { sc.close(); } catch (Throwable th) { /* ignore */ }
+            }
+            return;
+        }
+
+        /* start session on worker thread */
+        sess._scheduleJob();
+
+    }
+
+    /**
+    *** Returns a snapshot of the active NIO sessions
+    **/
+    private ServerSessionNIO[] _nioGetSessions()
+    {
+        synchronized (this.nioSessionList) {
+            return this.nioSessionList.toArray(new ServerSessionNIO[this.nioSessionList.size()]);
+        }
+    }
+
+    /**
+    *** Updates the interest-ops of the specified SelectionKey.  Changes requested from
+    *** a thread other than the selector thread are queued and applied by the selector.
+    **/
+    private void _nioUpdateInterestOps(final SelectionKey key, final int addOps, final int removeOps)
+    {
+        if (key == null) {
+            return;
+        } else
+        if (Thread.currentThread() == this) {
+            this._nioApplyInterestOps(key, addOps, removeOps);
+        } else {
+            synchronized (this.nioPendingOps) {
+                this.nioPendingOps.add(new Runnable() {
+                    public void run() {
+                        ServerSocketThread.this._nioApplyInterestOps(key, addOps, removeOps);
+                    }
+                });
+            }
+            this.nioSelector.wakeup();
+        }
+    }
+
+    private void _nioApplyInterestOps(SelectionKey key, int addOps, int removeOps)
+    {
+        try {
+            if (key.isValid()) {
+                key.interestOps((key.interestOps() | addOps) & ~removeOps);
+            }
+        } catch (CancelledKeyException cke) {
+            // -- session closed
+        }
+    }
+
+    private void _nioRunPendingOps()
+    {
+        Runnable ops[] = null;
+        synchronized (this.nioPendingOps) {
+            if (this.nioPendingOps.isEmpty()) {
+                return;
+            }
+            ops = this.nioPendingOps.toArray(new Runnable[this.nioPendingOps.size()]);
+            this.nioPendingOps.clear();
+        }
+        for (int i = 0; i < ops.length; i++) {
+            ops[i].run();
+        }
+    }
+
+    /**
+    *** Signals all active NIO sessions to shut down, and stops accepting new sessions
+    **/
+    private void _nioSignalShutdown()
+    {
+        this.nioShutdown = true;
+        for (ServerSessionNIO sess : this._nioGetSessions()) {
+            sess.signalShutdown();
+        }
+        if (this.nioSelector != null) {
+            this.nioSelector.wakeup();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Sets the remote UDP response port
+    *** @param remotePort The remote UDP respose port
+    **/
+    public void setRemotePort(int remotePort)
+    {
+        this.clientPort = remotePort;
+    }
+
+    /**
+    *** Gets the remote UDP response port
+    *** @return The remote UDP respose port
+    **/
+    public int getRemotePort()
+    {
+        return this.clientPort;
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Returns true if this object has action listeners
+    *** @return True if this object has action listeners
+    **/
+    public boolean hasListeners()
+    {
+        return (this.actionListeners.size() > 0);
+    }
+
+    /**
+    *** Adds an action listener
+    *** @param al The action listener to add
+    **/
+    public void addActionListener(ActionListener al)
+    {
+        // used for simple one way messaging
+        if (!this.actionListeners.contains(al)) {
+            this.actionListeners.add(al);
+        }
+    }
+
+    /**
+    *** Removes an action listener
+    *** @param al The action listener to remove
+    **/
+    public void removeActionListener(ActionListener al)
+    {
+        this.actionListeners.remove(al);
+    }
+
+    /**
+    *** Invokes action listener with the specified message
+    *** @param msgBytes The message to invoke the listeners with as a byte array
+    *** @return True if succesful
+    **/
+    protected boolean invokeListeners(byte msgBytes[])
+        throws Exception
+    {
+        if (msgBytes != null) {
+            String msg = StringTools.toStringValue(msgBytes);
+            for (Iterator i = this.actionListeners.iterator(); i.hasNext();) {
+                Object alObj = i.next();
+                if (alObj instanceof ActionListener) {
+                    ActionListener al = (ActionListener)alObj;
+                    ActionEvent ae = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, msg);
+                    al.actionPerformed(ae);
+                }
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+    
+    // ------------------------------------------------------------------------
+    
+    /**
+    *** Sets the client packet handler [CHECK]
+    *** @param cph The client packet handler
+    **/
+    public void setClientPacketHandler(ClientPacketHandler cph)
+    {
+        this.clientPacketHandler = cph;
+    }
+    
+    /**
+    *** Sets the client packet handler class [CHECK]
+    *** @param cphc The client packet handler class
+    **/
+    public void setClientPacketHandlerClass(Class<? extends ClientPacketHandler> cphc)
+    {
+        if ((cphc == null) || ClientPacketHandler.class.isAssignableFrom(cphc)) {
+            this.clientPacketHandlerClass = cphc;
+            this.clientPacketHandler = null;
+        } else {
             throw new ClassCastException("Invalid ClientPacketHandler class");
         }
     }
@@ -1563,7 +2357,37 @@ public class ServerSocketThread
         }
         return false;
     }
-   
+
+    /**
+    *** Returns a table of character classes (CHAR_XXXX) indexed by byte value, based
+    *** on the current line-terminator/ignore/backspace settings
+    *** @param charClass  The table to fill, or null to allocate a new table
+    *** @return The character class table
+    **/
+    private byte[] _getCharClasses(byte charClass[])
+    {
+        if ((charClass == null) || (charClass.length < 256)) {
+            charClass = new byte[256];
+        }
+        for (int ch = 0; ch < 256; ch++) {
+            if (this.isLineTerminatorChar(ch)) {
+                charClass[ch] = CHAR_TERMINATOR;
+            } else
+            if (this.isIgnoreChar(ch)) {
+                charClass[ch] = CHAR_IGNORE;
+            } else
+            if (this.isBackspaceChar(ch)) {
+                charClass[ch] = CHAR_BACKSPACE;
+            } else
+            if ((ch < ' ') && (ch != '\t')) {
+                charClass[ch] = CHAR_CONTROL; // (keep tab chars)
+            } else {
+                charClass[ch] = CHAR_DATA;
+            }
+        }
+        return charClass;
+    }
+
     // ------------------------------------------------------------------------
     
     /**
@@ -1746,6 +2570,17 @@ public class ServerSocketThread
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
+    /**
+    *** Returns the number of currently active client sessions
+    *** @return The number of currently active client sessions
+    **/
+    public int getActiveSessionCount()
+    {
+        synchronized (this.activeSessionList) {
+            return this.activeSessionList.size();
+        }
+    }
+
     /**
     *** Displays the active session list
     *** @param header  The header to include on the list
@@ -2210,6 +3045,26 @@ public class ServerSocketThread
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
 
+    /**
+    *** Passes the packet contained in the specified buffer slice to the client packet
+    *** handler, and returns the response.  Handlers implementing ClientPacketSliceHandler
+    *** receive the slice, other handlers receive a copy of the packet.
+    **/
+    private static byte[] _getHandlePacket(ClientPacketHandler clientHandler, byte buff[], int offset, int length)
+        throws Exception
+    {
+        if (clientHandler instanceof ClientPacketSliceHandler) {
+            return ((ClientPacketSliceHandler)clientHandler).getHandlePacket(buff, offset, length);
+        } else {
+            byte pkt[] = new byte[length];
+            System.arraycopy(buff, offset, pkt, 0, length);
+            return clientHandler.getHandlePacket(pkt);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
     private static long ServeSocketThread_counter   = 0L;
     private static long ServerSessionThread_counter = 0L;
 
@@ -2235,6 +3090,16 @@ public class ServerSocketThread
         
         private boolean      shutdown           = false;
 
+        private byte         rdBuff[]           = null;  // reusable session read buffer
+        private byte         rdCharClass[]      = null;  // CHAR_XXXX by byte value
+        private PacketFrameState rdFrame        = null;  // binary packet framing state
+        private int          rdPktLen           = 0;     // current packet length
+        private int          rdPos              = 0;     // next unscanned byte
+        private int          rdEnd              = 0;     // end of received bytes
+
+        private Thread       runThread          = null;  // virtual thread (if not this thread)
+        private boolean      singleSession      = false; // exit after current session
+
         //public ServerSessionThread(Socket client) {
         //    super("ClientSession");
         //    this.client = new ClientSocket(client); // TCP?
@@ -2284,29 +3149,81 @@ public class ServerSocketThread
         }
         
         /**
-        *** (SessionInfo interface) returns the current thread
-        *** @return the current thread
+        *** Runs this session on a new virtual thread.  The session body exits after 
+        *** the current client session ends (this thread instance is never started).
+        *** @return True if the virtual thread was started
         **/
-        public Thread getSessionThread()
-        {
-            return this;
-        }
-
-        // --------------------------------------------------------------------
-
-        /* find an existing/unused ClientSocket handler thread */
-        public boolean setClientIfAvailable(ClientSocket clientSocket) {
-            boolean rtn = false;
+        public boolean startVirtual() {
+            this.singleSession = true;
+            Thread vt = ServerSocketThread.startVirtualThread(this, this.getName());
+            if (vt == null) {
+                return false;
+            }
             synchronized (this.runLock) {
-                if (this.client != null) {
-                    rtn = false; // not available
-                } else {
-                    this.client = clientSocket;
-                    this.runLock.notify();
-                    rtn = true;
+                if (this.runThread == null) {
+                    this.runThread = vt;
                 }
             }
-            return rtn;
+            return true;
+        }
+
+        /**
+        *** Sets the thread which runs this session (when this thread instance is not started)
+        *** @param rt  The thread running this session
+        **/
+        protected void setRunThread(Thread rt) {
+            synchronized (this.runLock) {
+                this.runThread = rt;
+            }
+        }
+
+        /**
+        *** Handles a single datagram session on the calling thread (this thread instance 
+        *** is not started).
+        *** @param clientSock  The UDP ClientSocket instance
+        **/
+        protected void handleDatagramSession(ClientSocket clientSock) {
+            synchronized (this.runLock) {
+                this.client = clientSock;
+            }
+            try {
+                this.handleClientSession(clientSock);
+            } finally {
+                synchronized (this.runLock) {
+                    this.client = null;
+                }
+            }
+        }
+
+        /**
+        *** (SessionInfo interface) returns the current thread
+        *** @return the current thread
+        **/
+        public Thread getSessionThread()
+        {
+            synchronized (this.runLock) {
+                return (this.runThread != null)? this.runThread : this;
+            }
+        }
+
+        // --------------------------------------------------------------------
+
+        /* find an existing/unused ClientSocket handler thread */
+        public boolean setClientIfAvailable(ClientSocket clientSocket) {
+            boolean rtn = false;
+            synchronized (this.runLock) {
+                if (this.client != null) {
+                    rtn = false; // not available
+                } else
+                if (this.singleSession) {
+                    rtn = false; // virtual-thread session, not reused
+                } else {
+                    this.client = clientSocket;
+                    this.runLock.notify();
+                    rtn = true;
+                }
+            }
+            return rtn;
         }
 
         public boolean isAvailable() {
@@ -2360,7 +3277,7 @@ public class ServerSocketThread
         // --------------------------------------------------------------------
 
         public int getAvailableBytes() {
-            return (this.client != null)? this.client.available() : 0;
+            return (this.client != null)? this._available(this.client) : 0;
         }
 
         public long getReadByteCount() {
@@ -2452,7 +3369,8 @@ public class ServerSocketThread
         public void forceCloseTCPSession()
         {
             synchronized (this.runLock) {
-                this.interrupt(); // may not interrupt pending reads
+                Thread rt = (this.runThread != null)? this.runThread : this;
+                rt.interrupt(); // may not interrupt pending reads
                 if (this.client != null) {
                     // The above "interrupt()" does not necessarily interrupt pending
                     // reads, so the following is a bit of a hack. Closing the client
@@ -2510,6 +3428,11 @@ public class ServerSocketThread
 
         public void run() {
 
+            /* thread running this session (may be a virtual thread) */
+            synchronized (this.runLock) {
+                this.runThread = Thread.currentThread();
+            }
+
             /* loop forever */
             stopThread:
             while (true) {
@@ -2551,6 +3474,11 @@ public class ServerSocketThread
                     // now available for next ClientSocket
                 }
 
+                /* virtual-thread session: one client only */
+                if (this.singleSession) {
+                    break stopThread;
+                }
+
             } // while (true)
 
             /* close */
@@ -2580,6 +3508,9 @@ public class ServerSocketThread
             this.readByteCount  = 0L;
             this.writeByteCount = 0L;
 
+            /* reset read buffer */
+            this._resetReadBuffer();
+
             /* "clientSock" should be non-null, but check anyway */
             if (clientSock == null) {
                 Print.logStackTrace("ClientSocket is null");
@@ -2653,15 +3584,15 @@ public class ServerSocketThread
                             }
                         }
 
-                        /* read packet */
-                        byte line[] = null;
+                        /* read packet (into the session read buffer) */
+                        int lineLen = 0;
                         if (ServerSocketThread.this.isTextPackets()) {
                             // ASCII: read until packet EOL
-                            line = this._readLine(clientSock, clientHandler);
+                            lineLen = this._readLine(clientSock, clientHandler);
                             // "getTerminateOnTimeout()" called on timeout (SSReadTimeoutException)
                         } else {
                             // Binary: read until packet length or timeout
-                            line = this._readPacket(clientSock, clientHandler);
+                            lineLen = this._readPacket(clientSock, clientHandler);
                             // "getTerminateOnTimeout()" called on timeout (SSReadTimeoutException)
                         }
                         // timeout occurred?
@@ -2672,14 +3603,12 @@ public class ServerSocketThread
                         }
 
                         /* set receive time */
-                        if (line != null) {
-                            this.sessionReceiveTime = DateTime.getCurrentTimeSec();
-                        }
+                        this.sessionReceiveTime = DateTime.getCurrentTimeSec();
 
                         /* send packet to listeners */
-                        if ((line != null) && ServerSocketThread.this.hasListeners()) {
+                        if (ServerSocketThread.this.hasListeners()) {
                             try {
-                                ServerSocketThread.this.invokeListeners(line);
+                                ServerSocketThread.this.invokeListeners(this._copyPacket(lineLen));
                             } catch (Throwable t) {
                                 // a listener can terminate this session
                                 Print.logWarn("Listener terminated: " + t);
@@ -2689,9 +3618,10 @@ public class ServerSocketThread
                         }
 
                         /* handle packet, and get response */
-                        if ((line != null) && (clientHandler != null)) {
+                        if (clientHandler != null) {
                             try {
-                                byte response[] = clientHandler.getHandlePacket(line);
+                                // -- packet is passed as a slice of the session read buffer
+                                byte response[] = ServerSocketThread._getHandlePacket(clientHandler, this.rdBuff, 0, lineLen);
                                 if ((response != null) && (response.length > 0)) {
                                     if (clientSock.isTCP()) {
                                         // -- TCP: Send response over socket connection
@@ -2741,7 +3671,7 @@ public class ServerSocketThread
                             }
                         } else
                         if (clientSock.isUDP()) {
-                            int avail = clientSock.available();
+                            int avail = this._available(clientSock);
                             if (avail <= 0) {
                                 // Normal end of UDP connection
                                 break; // break socket read loop
@@ -2751,7 +3681,7 @@ public class ServerSocketThread
                             }
                         } else
                         if (clientSock.isInputStream()) {
-                            int avail = clientSock.available();
+                            int avail = this._available(clientSock);
                             if (avail <= 0) {
                                 // Normal end of InputStream connection
                                 break; // break socket read loop
@@ -3071,13 +4001,88 @@ public class ServerSocketThread
         }
 
         // --------------------------------------------------------------------
+        // Session read buffer
+        //  - bytes [0,rdPktLen) hold the packet currently being assembled
+        //  - bytes [rdPos,rdEnd) hold received bytes not yet scanned
+        //  - (rdPktLen <= rdPos) always, so packets are assembled in place, and
+        //    are passed to the ClientPacketHandler as a slice of this buffer.
+
+        /* reset the read buffer and character classes for a new session */
+        private void _resetReadBuffer() {
+            if (this.rdBuff == null) {
+                this.rdBuff = new byte[SESSION_READ_BUFFER_SIZE];
+            }
+            this.rdPktLen = 0;
+            this.rdPos    = 0;
+            this.rdEnd    = 0;
+            // -- character classes (line-terminator/ignore/backspace settings)
+            this.rdCharClass = ServerSocketThread.this._getCharClasses(this.rdCharClass);
+            this.rdFrame     = new PacketFrameState(this.rdCharClass);
+        }
+
+        /* start a new packet: move unscanned bytes to the start of the buffer */
+        private void _startPacket() {
+            int unread = this.rdEnd - this.rdPos;
+            if ((unread > 0) && (this.rdPos > 0)) {
+                System.arraycopy(this.rdBuff, this.rdPos, this.rdBuff, 0, unread);
+            }
+            this.rdPktLen = 0;
+            this.rdPos    = 0;
+            this.rdEnd    = (unread > 0)? unread : 0;
+        }
+
+        /* number of received bytes not yet scanned */
+        private int _bufferedBytes() {
+            return this.rdEnd - this.rdPos;
+        }
+
+        /* number of bytes available to read, including buffered bytes */
+        private int _available(ClientSocket clientSock) {
+            return this._bufferedBytes() + ((clientSock != null)? clientSock.available() : 0);
+        }
+
+        /* append up to 'len' unscanned bytes to the current packet */
+        private int _bulkTake(int len) {
+            int n = this.rdEnd - this.rdPos;
+            if (len < n) { n = len; }
+            if (n > 0) {
+                if (this.rdPktLen != this.rdPos) {
+                    System.arraycopy(this.rdBuff, this.rdPos, this.rdBuff, this.rdPktLen, n);
+                }
+                this.rdPktLen += n;
+                this.rdPos    += n;
+            }
+            return (n > 0)? n : 0;
+        }
+
+        /* return a copy of the current packet */
+        private byte[] _copyPacket(int len) {
+            byte p[] = new byte[len];
+            System.arraycopy(this.rdBuff, 0, p, 0, len);
+            return p;
+        }
 
-        private int _readByte(ClientSocket clientSock, ClientPacketHandler clientHandler, long timeoutAtMS, int byteNdx) throws IOException {
+        private void _fillBuffer(ClientSocket clientSock, ClientPacketHandler clientHandler, long timeoutAtMS, int byteNdx) throws IOException {
             // Read until:
             //  - Timeout
             //  - IO error
-            //  - Read byte
-            int ch;
+            //  - Read at least one byte
+
+            /* already have unscanned bytes? */
+            if (this.rdPos < this.rdEnd) {
+                return;
+            }
+
+            /* all received bytes have been scanned, read following the current packet */
+            this.rdPos = this.rdPktLen;
+            this.rdEnd = this.rdPktLen;
+            if (this.rdEnd >= this.rdBuff.length) { // overflow?
+                byte newBuff[] = new byte[this.rdBuff.length * 2];
+                System.arraycopy(this.rdBuff, 0, newBuff, 0, this.rdPktLen);
+                this.rdBuff = newBuff;
+            }
+
+            /* read */
             InputStream input = clientSock.getInputStream();
             while (true) {
                 // check packet timeout
@@ -3101,17 +4106,21 @@ public class ServerSocketThread
                 // prform read
                 try {
                     // this read is expected to time-out if no data is available
-                    ch = input.read();
-                    if (ch < 0) {
+                    int n = input.read(this.rdBuff, this.rdEnd, this.rdBuff.length - this.rdEnd);
+                    if (n < 0) {
                         // socket likely closed by client
                         if (byteNdx <= 0) {
                             throw new SSEndOfStreamException("End of stream [empty packet]", byteNdx);
                         } else {
                             throw new SSEndOfStreamException("End of stream [@ " + byteNdx + "]", byteNdx);
                         }
+                    } else
+                    if (n == 0) {
+                        continue;
                     }
-                    this.readByteCount++;
-                    return ch; // <-- valid character returned
+                    this.rdEnd += n;
+                    this.readByteCount += n;
+                    return; // <-- valid bytes read
                 } catch (ClosedByInterruptException cbie) {
                     // timeout/interrupt
                     throw new SSEndOfStreamException("End of stream [close interrupt detected]", byteNdx);
@@ -3134,13 +4143,16 @@ public class ServerSocketThread
             }
         }
 
-        private byte[] _readLine(ClientSocket clientSock, ClientPacketHandler clientHandler) 
+        // --------------------------------------------------------------------
+
+        private int _readLine(ClientSocket clientSock, ClientPacketHandler clientHandler) 
             throws IOException { // SSReadTimeoutException, SSEndOfStreamException, 
             // Read until:
             //  - EOL
             //  - Timeout
             //  - IO error
             //  - Read 'maxLen' characters
+            // Returns the packet length (the packet is at the start of 'this.rdBuff')
 
             /* timeouts */
             long idleTimeoutMS = ServerSocketThread.this.getIdleTimeout();
@@ -3150,21 +4162,20 @@ public class ServerSocketThread
             /* max read length */
             int maxLen = this._getMaximumPacketLength(clientHandler); // safety net only
             // no minimum
-            
-            /* set default socket timeout */
-            //clientSock.setSoTimeout(10000);
 
             /* packet */
-            byte buff[]  = new byte[maxLen];
-            int  buffLen = 0;
-            boolean isIdle = true;
-            long readStartTime = DateTime.getCurrentTimeMillis();
+            boolean isText   = ServerSocketThread.this.isTextPackets();
+            boolean inclTerm = ServerSocketThread.this.includePacketLineTerminator();
+            byte charClass[] = this.rdCharClass;
+            boolean isIdle   = true;
+            this._startPacket();
             try {
+                readLoop:
                 while (true) {
 
-                    /* read byte */
-                    int ch = this._readByte(clientSock, clientHandler, pcktTimeoutAt, buffLen);
-                    // valid character returned
+                    /* read bytes */
+                    this._fillBuffer(clientSock, clientHandler, pcktTimeoutAt, this.rdPktLen);
+                    // valid bytes available
 
                     /* reset idle timeout */
                     if (isIdle) {
@@ -3175,57 +4186,56 @@ public class ServerSocketThread
                         }
                     }
 
-                    /* check special characters */
-                    if (ServerSocketThread.this.isLineTerminatorChar(ch)) {
-                        // end of line/packet
-                        if (ServerSocketThread.this.includePacketLineTerminator()) {
-                            if (buffLen >= buff.length) { // overflow?
-                                byte newBuff[] = new byte[buff.length + 1];
-                                System.arraycopy(buff, 0, newBuff, 0, buff.length);
-                                buff = newBuff;
+                    /* scan received bytes */
+                    byte buff[] = this.rdBuff;
+                    int  buffLen = this.rdPktLen;
+                    int  pos = this.rdPos, end = this.rdEnd;
+                    boolean eol = false;
+                    while (pos < end) {
+                        int ch = (int)buff[pos++] & 0xFF;
+
+                        /* check special characters */
+                        int cc = charClass[ch];
+                        if (cc == CHAR_TERMINATOR) {
+                            // end of line/packet
+                            if (inclTerm) {
+                                buff[buffLen++] = (byte)ch;
                             }
-                            buff[buffLen++] = (byte)ch;
-                        }
-                        break;
-                    } else
-                    if (ServerSocketThread.this.isTextPackets()) {
-                        if (ServerSocketThread.this.isIgnoreChar(ch)) {
-                            // ignore this character (typically '\r')
-                            continue;
+                            eol = true;
+                            break;
                         } else
-                        if (ServerSocketThread.this.isBackspaceChar(ch)) {
-                            if (buffLen > 0) {
-                                buffLen--;
+                        if (isText && (cc != CHAR_DATA)) {
+                            if (cc == CHAR_BACKSPACE) {
+                                if (buffLen > 0) {
+                                    buffLen--;
+                                }
                             }
+                            // ignore this character (typically '\r'), or non-printable characters
                             continue;
-                        } else
-                        if (ch < ' ') {
-                            // ignore non-printable characters
-                            if (ch != '\t') { // keep tab chars
-                                continue;
-                            }
                         }
-                    }
 
-                    /* save byte */
-                    if (buffLen >= buff.length) { // overflow?
-                        byte newBuff[] = new byte[buff.length * 2];
-                        System.arraycopy(buff, 0, newBuff, 0, buff.length);
-                        buff = newBuff;
-                    }
-                    buff[buffLen++] = (byte)ch;
+                        /* save byte */
+                        buff[buffLen++] = (byte)ch;
+
+                        /* check lengths */
+                        if ((maxLen > 0) && (buffLen >= maxLen)) {
+                            // we've read all the bytes we can
+                            eol = true;
+                            break;
+                        }
 
-                    /* check lengths */
-                    if ((maxLen > 0) && (buffLen >= maxLen)) {
-                        // we've read all the bytes we can
-                        break;
+                    }
+                    this.rdPktLen = buffLen;
+                    this.rdPos    = pos;
+                    if (eol) {
+                        break readLoop;
                     }
 
                 }
             } catch (SSReadTimeoutException te) {
                 // This could mean a protocol error
-                if (buffLen > 0) {
-                    Print.logWarn("Timeout: " + StringTools.toStringValue(buff, 0, buffLen));
+                if (this.rdPktLen > 0) {
+                    Print.logWarn("Timeout: " + StringTools.toStringValue(this.rdBuff, 0, this.rdPktLen));
                 }
                 if (ServerSocketThread.this.getTerminateOnTimeout()) {
                     throw te;
@@ -3233,8 +4243,8 @@ public class ServerSocketThread
            } catch (SSEndOfStreamException eos) {
                 if (clientSock.isTCP()) { // readLine
                     // This could mean a protocol error
-                    if (buffLen > 0) {
-                        Print.logWarn("EOS: (ASCII) " + StringTools.toStringValue(buff, 0, buffLen));
+                    if (this.rdPktLen > 0) {
+                        Print.logWarn("EOS: (ASCII) " + StringTools.toStringValue(this.rdBuff, 0, this.rdPktLen));
                     }
                     Print.logError(eos.getMessage());
                     throw eos;
@@ -3253,60 +4263,44 @@ public class ServerSocketThread
                 Print.logError("ReadLine error - " + ioe);
                 throw ioe;
             }
-            long readEndTime = DateTime.getCurrentTimeMillis();
 
-            /* return packet */
-            if (buff.length == buffLen) {
-                // highly unlikely
-                return buff;
-            } else {
-                // resize buffer
-                byte newBuff[] = new byte[buffLen];
-                System.arraycopy(buff, 0, newBuff, 0, buffLen);
-                return newBuff;
-            }
+            /* return packet length */
+            return this.rdPktLen;
 
         }
 
-        private byte[] _readPacket(ClientSocket clientSock, ClientPacketHandler clientHandler) 
+        private int _readPacket(ClientSocket clientSock, ClientPacketHandler clientHandler) 
             throws IOException { // SSReadTimeoutException, SSEndOfStreamException, SocketException
             // Read until:
             //  - Timeout
             //  - IO error
             //  - Read 'maxLen' characters
             //  - Read 'actualLen' characters
+            // Returns the packet length (the packet is at the start of 'this.rdBuff')
 
             /* timeouts */
             long idleTimeoutMS = ServerSocketThread.this.getIdleTimeout();
             long pcktTimeoutMS = ServerSocketThread.this.getPacketTimeout();
             long pcktTimeoutAt = (idleTimeoutMS > 0L)? (DateTime.getCurrentTimeMillis() + idleTimeoutMS) : -1L;
 
-            /* packet/read length */
-            int maxLen = this._getMaximumPacketLength(clientHandler); // safety net only
-            int minLen = this._getMinimumPacketLength(clientHandler); // tcp/udp dependent
-
-            /* set default socket timeout */
-            //clientSock.setSoTimeout(10000);
-
-            /* packet termination pattern */
-            byte pktTerm[] = ServerSocketThread.this.getPacketTerminatorPattern();
-            int  pktState  = 0;
+            /* packet framing state */
+            PacketFrameState frame = this.rdFrame;
+            frame.reset(clientHandler,
+                this._getMaximumPacketLength(clientHandler),  // safety net only
+                this._getMinimumPacketLength(clientHandler),  // tcp/udp dependent
+                clientSock.isTCP());
 
             /* read packet */
-            byte packet[] = new byte[maxLen];
-            int  packetLen = 0;
             boolean isIdle = true;
-            boolean breakOnLineTerm = false;
-            boolean incrementOnLineTerm = false;
-            boolean failOnEOS = clientSock.isTCP();
+            this._startPacket();
             try {
-                int actualLen = 0;
+                readLoop:
                 while (true) {
 
-                    /* read byte */
-                    // hangs until byte read or timeout
-                    int lastByte = this._readByte(clientSock, clientHandler, pcktTimeoutAt, packetLen);
-                    // valid byte returned 
+                    /* read bytes */
+                    // hangs until bytes read or timeout
+                    this._fillBuffer(clientSock, clientHandler, pcktTimeoutAt, this.rdPktLen);
+                    // valid bytes available
 
                     /* reset idle timeout */
                     if (isIdle) {
@@ -3317,207 +4311,71 @@ public class ServerSocketThread
                         }
                     }
 
-                    /* look for line terminator? */
-                    if (breakOnLineTerm) {
-                        if (ServerSocketThread.this.isLineTerminatorChar(lastByte)) {
-                            // end of line (typically '\n')
-                            if (ServerSocketThread.this.includePacketLineTerminator()) {
-                                // TODO: check for overflow?
-                                packet[packetLen++] = (byte)lastByte;
+                    /* scan received bytes */
+                    while (this.rdPos < this.rdEnd) {
+
+                        /* bulk read up to a known length */
+                        if (!frame.breakOnLineTerm) {
+                            if (frame.actualLen > 0) {
+                                // we have the packet length, take as many bytes as we can
+                                this._bulkTake(frame.actualLen - this.rdPktLen);
+                                if (this.rdPktLen >= frame.actualLen) {
+                                    // we've read the bytes we expected to read
+                                    break readLoop;
+                                }
+                                // continue reading until we achieve the requested length
+                                continue readLoop;
+                            } else
+                            if ((frame.pktTerm == null) && !frame.incrementOnLineTerm && (frame.minLen > 0)) {
+                                // take bytes up to (but not including) the minimum length
+                                int bulkLen = ((frame.minLen < frame.maxLen)? frame.minLen : frame.maxLen) - 1;
+                                if (this.rdPktLen < bulkLen) {
+                                    this._bulkTake(bulkLen - this.rdPktLen);
+                                    if (this.rdPos >= this.rdEnd) {
+                                        continue readLoop;
+                                    }
+                                }
                             }
-                            break;
-                        } else
-                        if (ServerSocketThread.this.isIgnoreChar(lastByte)) {
-                            // ignore this character (typically '\r')
-                            continue;
-                        } else {
-                            // save byte
-                            // TODO: check for overflow?
-                            packet[packetLen++] = (byte)lastByte;
-                        }
-                    } else {
-                        // save byte
-                        // TODO: check for overflow?
-                        packet[packetLen++] = (byte)lastByte;
-                    }
-
-                    /* already read maximum allowed bytes? */
-                    if (packetLen >= maxLen) {
-                        // we've read the maximum number of bytes allowed
-                        // ignore any incremental state that may be in effect
-                        break;
-                    }
-
-                    /* do we have a specified packet length? */
-                    if (actualLen > 0) {
-                        if (packetLen >= actualLen) {
-                            // we've read the bytes we expected to read
-                            break;
                         }
-                        // continue reading until we achieve the requested length
-                        continue;
-                    }
 
-                    // ---------------------------------------------------------
-                    // at this point we do not yet have the actual packet length
-
-                    /* check pattern matching */
-                    // EXPERIMENTAL
-                    if (pktTerm != null) {
-                        // check packet termination pattern
-                        if (pktTerm[pktState] == (byte)lastByte) {
-                            pktState++;
-                            if (pktState >= pktTerm.length) {
-                                // we've matched the packet terminating pattern
+                        /* next byte */
+                        int lastByte = (int)this.rdBuff[this.rdPos++] & 0xFF;
+                        switch (frame.checkByte(lastByte)) {
+                            case FRAME_BYTE_IGNORE:
+                                continue;
+                            case FRAME_BYTE_END:
+                                break readLoop;
+                            case FRAME_BYTE_SAVE_END:
+                                this.rdBuff[this.rdPktLen++] = (byte)lastByte;
+                                break readLoop;
+                            default:
+                                this.rdBuff[this.rdPktLen++] = (byte)lastByte;
                                 break;
-                            }
-                        } else {
-                            // back to initial state
-                            // TODO: should do a proper state reset
-                            // Consider the pattern "#!", and the input string "##!".
-                            // In this case the 'pktState' should be set to 1 instead of 0.
-                            pktState = 0;
-                        }
-                    }
-
-                    /* scan for incremental line-terminator? */
-                    if (incrementOnLineTerm && ServerSocketThread.this.isLineTerminatorChar(lastByte)) {
-                        // INCREMENTAL: found EOL
-                        incrementOnLineTerm = false;
-                        minLen = packetLen; // reset minLen to what we've read so far
-                    }
-
-                    /* have we met the minimum-daily-requirements? */
-                    if (packetLen < minLen) {
-                        // continue reading
-                        continue;
-                    }
-
-                    // ---------------------------------------------------------
-                    // at this point we've read the minimum required packet length
-
-                    /* no clientHandler? */
-                    if (clientHandler == null) {
-                        // continue reading
-                        continue;
-                    }
-
-                    // ---------------------------------------------------------
-                    // at this point the client handler determines packet length
-
-                    /* get the actual/next expected packet length */
-                    int     newPktLen  = clientHandler.getActualPacketLength(packet, packetLen);
-                    boolean haveActual = ((newPktLen >= 0) && (newPktLen < PACKET_LEN_INCREMENTAL_MASK));
-                    int     nextLen    = (newPktLen < 0)? newPktLen : (newPktLen & PACKET_LEN_INCREMENTAL_MASK);
-
-                    /* has the client indicated that session should be terminated? */
-                    if (clientHandler.getTerminateSession()) {
-                        // done reading, do not continue
-                        break;
-                    }
-
-                    /* actual packet length specified? */
-                    if (haveActual) {
-                        // (nextLen >= 0) guaranteed
-                        if (nextLen == packetLen) {
-                            // already have exactly what we need
-                            actualLen = packetLen;
-                            // done reading, we have a packet
-                            break; 
-                        } else
-                        if (nextLen < packetLen) {
-                            // ERROR: "getActualPacketLength" returned a value less than the current length
-                            Print.logError("Actual length ["+nextLen+"] < Packet length ["+packetLen+"]");
-                            actualLen = packetLen;
-                            // done reading, we have a packet
-                            break; 
-                        } else
-                        if (nextLen > maxLen) {
-                            Print.logError("Actual length ["+nextLen+"] > Maximum length ["+maxLen+"]");
-                            actualLen = maxLen;
-                            // continue reading until 'maxLen'
-                            continue;
-                        } else {
-                            actualLen = nextLen;
-                            // continue reading until packet
-                            continue;
                         }
-                    }
 
-                    /* check for special case packet termination */
-                    if (nextLen == PACKET_LEN_LINE_TERMINATOR) { // "-1"
-                        // look for line terminator character
-                        //if (LogEnable) { Print.logInfo("Last Byte Read: %s [%s]", StringTools.toHexString(lastByte,8), StringTools.toHexString(packet[packetLen-1])); }
-                        if (ServerSocketThread.this.isLineTerminatorChar(lastByte)) {
-                            // last byte was already a line terminator
-                            if (!ServerSocketThread.this.includePacketLineTerminator()) {
-                                packetLen--; // remove terminator
-                            }
-                            actualLen = packetLen;
-                            // done reading, we have a packet
-                            break;
-                        } else {
-                            breakOnLineTerm = true;
-                            actualLen = maxLen; // continue until line-term
-                            // continue reading until EOL
-                            continue;
-                        }
-                    } else
-                    if (nextLen == PACKET_LEN_END_OF_STREAM) { // "-2"
-                        // read the rest of the stream
-                        int avail = clientSock.available();
-                        //if (LogEnable) { Print.logDebug("Reading remaining stream bytes: " + avail); }
-                        actualLen = packetLen + avail; // what we've already read, plus any remaining
-                        if (actualLen > maxLen) {
-                            // more available bytes than the allowed maximum
-                            actualLen = maxLen;
-                        }
-                        failOnEOS = false;
-                        // continue reading until 'maxLen' or EOS
-                        continue;
-                    } else
-                    if (nextLen < PACKET_LEN_END_OF_STREAM) { // <= "-3"
-                        // DEFAULT TO END-OF-STREAM
-                        // read the rest of the stream
-                        int avail = clientSock.available();
-                        //if (LogEnable) { Print.logDebug("Reading remaining stream bytes: " + avail); }
-                        actualLen = packetLen + avail; // what we've already read, plus any remaining
-                        if (actualLen > maxLen) {
-                            // more available bytes than the allowed maximum
-                            actualLen = maxLen;
+                        /* check packet length */
+                        switch (frame.checkPacket(this.rdBuff, this.rdPktLen, lastByte)) {
+                            case FRAME_PACKET_COMPLETE:
+                                break readLoop;
+                            case FRAME_PACKET_TRIM_END:
+                                this.rdPktLen--; // remove terminator
+                                break readLoop;
+                            case FRAME_PACKET_AVAILABLE:
+                                // read the rest of the stream
+                                frame.setAvailable(this.rdPktLen, this._available(clientSock));
+                                // continue reading until 'maxLen' or EOS
+                                continue;
+                            default:
+                                continue;
                         }
-                        failOnEOS = false;
-                        // continue reading until 'maxLen' or EOS
-                        continue;
-                    }
-
-                    /* INCREMENTAL read */
-                    if (nextLen == PACKET_LEN_INCREMENTAL_MASK) {
-                        // should scan for EOL char
-                        incrementOnLineTerm = true;
-                        minLen = maxLen;
-                        // continue reading until next EOL char
-                        continue;
-                    } else
-                    if (nextLen > maxLen) {
-                        // specified incremental length is greater that the maximum
-                        Print.logWarn("Incremental length ["+nextLen+"] > Maximum length ["+maxLen+"]");
-                        minLen = maxLen;
-                        // continue reading until 'maxLen'
-                        continue;
-                    } else {
-                        // reset minimum to next length (at least one more byte)
-                        minLen = (nextLen > packetLen)? nextLen : (packetLen + 1);
-                        // continue reading until next 'minLen'
-                        continue;
-                    }
 
+                    } // while (this.rdPos < this.rdEnd)
                 } // while (true)
             } catch (SSReadTimeoutException rte) {
-                if (failOnEOS) { // PACKET_LEN_END_OF_STREAM
+                if (frame.failOnEOS) { // PACKET_LEN_END_OF_STREAM
                     // This could mean a protocol error
-                    if (packetLen > 0) {
-                        Print.logWarn("Timeout: 0x" + StringTools.toHexString(packet, 0, packetLen));
+                    if (this.rdPktLen > 0) {
+                        Print.logWarn("Timeout: 0x" + StringTools.toHexString(this.rdBuff, 0, this.rdPktLen));
                     }
                     if (ServerSocketThread.this.getTerminateOnTimeout()) {
                         throw rte;
@@ -3531,10 +4389,10 @@ public class ServerSocketThread
                     // session should be terminated
                     // (quietly fall through)
                 } else
-                if (failOnEOS) { // PACKET_LEN_END_OF_STREAM
+                if (frame.failOnEOS) { // PACKET_LEN_END_OF_STREAM
                     // This could mean a protocol error
-                    if (packetLen > 0) {
-                        Print.logWarn("EOS: 0x" + StringTools.toHexString(packet, 0, packetLen));
+                    if (this.rdPktLen > 0) {
+                        Print.logWarn("EOS: 0x" + StringTools.toHexString(this.rdBuff, 0, this.rdPktLen));
                     }
                     Print.logError(eos.getMessage());
                     throw eos;
@@ -3561,20 +4419,1175 @@ public class ServerSocketThread
                 }
             }
 
-            /* return packet */
-            if (packet.length == packetLen) {
-                // highly unlikely
-                return packet;
-            } else {
-                // resize buffer
-                byte newPacket[] = new byte[packetLen];
-                System.arraycopy(packet, 0, newPacket, 0, packetLen);
-                return newPacket;
-            }
+            /* return packet length */
+            return this.rdPktLen;
 
         } // _readPacket(...)
 
     } // ServerSessionThread
+
+    // ------------------------------------------------------------------------
+    // ------------------------------------------------------------------------
+
+    /**
+    *** PacketFrameState<br>
+    *** Binary packet-length framing state, shared by the blocking "ServerSessionThread"
+    *** packet reader and the non-blocking "PacketFramer".  The caller owns the packet
+    *** buffer: each received byte is first passed to "checkByte" (which determines whether
+    *** it is saved), and then, once saved, "checkPacket" determines whether the packet
+    *** is complete.
+    **/
+    private class PacketFrameState
+    {
+
+        private ClientPacketHandler clientHandler       = null;
+        private byte                charClass[]         = null;
+        private boolean             inclTerm            = false;
+
+        private int                 maxLen              = 0;
+        private int                 minLen              = 0;
+        private int                 actualLen           = 0;
+        private byte                pktTerm[]           = null;
+        private int                 pktState            = 0;
+        private boolean             breakOnLineTerm     = false;
+        private boolean             incrementOnLineTerm = false;
+        private boolean             failOnEOS           = true;
+
+        public PacketFrameState(byte charClass[]) {
+            this.charClass = charClass;
+        }
+
+        /* reset state for the next packet */
+        public void reset(ClientPacketHandler clientHandler, int maxLen, int minLen, boolean failOnEOS) {
+            this.clientHandler       = clientHandler;
+            this.inclTerm            = ServerSocketThread.this.includePacketLineTerminator();
+            this.maxLen              = maxLen;
+            this.minLen              = minLen;
+            this.actualLen           = 0;
+            this.pktTerm             = ServerSocketThread.this.getPacketTerminatorPattern();
+            this.pktState            = 0;
+            this.breakOnLineTerm     = false;
+            this.incrementOnLineTerm = false;
+            this.failOnEOS           = failOnEOS;
+        }
+
+        /**
+        *** Checks the next received byte before it is saved to the packet
+        *** @param lastByte  The received byte
+        *** @return FRAME_BYTE_SAVE, FRAME_BYTE_IGNORE, FRAME_BYTE_SAVE_END, or FRAME_BYTE_END
+        **/
+        public int checkByte(int lastByte) {
+            if (this.breakOnLineTerm) {
+                int cc = this.charClass[lastByte];
+                if (cc == CHAR_TERMINATOR) {
+                    // end of line (typically '\n')
+                    return this.inclTerm? FRAME_BYTE_SAVE_END : FRAME_BYTE_END;
+                } else
+                if (cc == CHAR_IGNORE) {
+                    // ignore this character (typically '\r')
+                    return FRAME_BYTE_IGNORE;
+                }
+            }
+            return FRAME_BYTE_SAVE;
+        }
+
+        /**
+        *** Checks the packet after the last received byte has been saved
+        *** @param packet    The packet buffer
+        *** @param packetLen The current packet length (including 'lastByte')
+        *** @param lastByte  The last saved byte
+        *** @return FRAME_PACKET_CONTINUE, FRAME_PACKET_COMPLETE, FRAME_PACKET_TRIM_END, or
+        ***         FRAME_PACKET_AVAILABLE (caller should invoke "setAvailable")
+        **/
+        public int checkPacket(byte packet[], int packetLen, int lastByte) {
+
+            /* already read maximum allowed bytes? */
+            if (packetLen >= this.maxLen) {
+                // we've read the maximum number of bytes allowed
+                // ignore any incremental state that may be in effect
+                return FRAME_PACKET_COMPLETE;
+            }
+
+            /* do we have a specified packet length? */
+            if (this.actualLen > 0) {
+                // continue reading until we achieve the requested length
+                return (packetLen >= this.actualLen)? FRAME_PACKET_COMPLETE : FRAME_PACKET_CONTINUE;
+            }
+
+            // ---------------------------------------------------------
+            // at this point we do not yet have the actual packet length
+
+            /* check pattern matching */
+            // EXPERIMENTAL
+            if (this.pktTerm != null) {
+                // check packet termination pattern
+                if (this.pktTerm[this.pktState] == (byte)lastByte) {
+                    this.pktState++;
+                    if (this.pktState >= this.pktTerm.length) {
+                        // we've matched the packet terminating pattern
+                        return FRAME_PACKET_COMPLETE;
+                    }
+                } else {
+                    // back to initial state
+                    // TODO: should do a proper state reset
+                    // Consider the pattern "#!", and the input string "##!".
+                    // In this case the 'pktState' should be set to 1 instead of 0.
+                    this.pktState = 0;
+                }
+            }
+
+            /* scan for incremental line-terminator? */
+            if (this.incrementOnLineTerm && (this.charClass[lastByte] == CHAR_TERMINATOR)) {
+                // INCREMENTAL: found EOL
+                this.incrementOnLineTerm = false;
+                this.minLen = packetLen; // reset minLen to what we've read so far
+            }
+
+            /* have we met the minimum-daily-requirements? */
+            if (packetLen < this.minLen) {
+                // continue reading
+                return FRAME_PACKET_CONTINUE;
+            }
+
+            /* no clientHandler? */
+            if (this.clientHandler == null) {
+                // continue reading
+                return FRAME_PACKET_CONTINUE;
+            }
+
+            // ---------------------------------------------------------
+            // at this point the client handler determines packet length
+
+            /* get the actual/next expected packet length */
+            int     newPktLen  = this.clientHandler.getActualPacketLength(packet, packetLen);
+            boolean haveActual = ((newPktLen >= 0) && (newPktLen < PACKET_LEN_INCREMENTAL_MASK));
+            int     nextLen    = (newPktLen < 0)? newPktLen : (newPktLen & PACKET_LEN_INCREMENTAL_MASK);
+
+            /* has the client indicated that session should be terminated? */
+            if (this.clientHandler.getTerminateSession()) {
+                // done reading, do not continue
+                return FRAME_PACKET_COMPLETE;
+            }
+
+            /* actual packet length specified? */
+            if (haveActual) {
+                // (nextLen >= 0) guaranteed
+                if (nextLen == packetLen) {
+                    // already have exactly what we need
+                    this.actualLen = packetLen;
+                    return FRAME_PACKET_COMPLETE;
+                } else
+                if (nextLen < packetLen) {
+                    // ERROR: "getActualPacketLength" returned a value less than the current length
+                    Print.logError("Actual length ["+nextLen+"] < Packet length ["+packetLen+"]");
+                    this.actualLen = packetLen;
+                    return FRAME_PACKET_COMPLETE;
+                } else
+                if (nextLen > this.maxLen) {
+                    Print.logError("Actual length ["+nextLen+"] > Maximum length ["+this.maxLen+"]");
+                    this.actualLen = this.maxLen;
+                    // continue reading until 'maxLen'
+                    return FRAME_PACKET_CONTINUE;
+                } else {
+                    this.actualLen = nextLen;
+                    // continue reading until packet
+                    return FRAME_PACKET_CONTINUE;
+                }
+            }
+
+            /* check for special case packet termination */
+            if (nextLen == PACKET_LEN_LINE_TERMINATOR) { // "-1"
+                // look for line terminator character
+                if (this.charClass[lastByte] == CHAR_TERMINATOR) {
+                    // last byte was already a line terminator
+                    if (this.inclTerm) {
+                        this.actualLen = packetLen;
+                        return FRAME_PACKET_COMPLETE;
+                    } else {
+                        this.actualLen = packetLen - 1;
+                        return FRAME_PACKET_TRIM_END; // remove terminator
+                    }
+                } else {
+                    this.breakOnLineTerm = true;
+                    this.actualLen = this.maxLen; // continue until line-term
+                    // continue reading until EOL
+                    return FRAME_PACKET_CONTINUE;
+                }
+            } else
+            if (nextLen <= PACKET_LEN_END_OF_STREAM) { // "-2", default for "<= -3"
+                // read the rest of the stream
+                return FRAME_PACKET_AVAILABLE;
+            }
+
+            /* INCREMENTAL read */
+            if (nextLen == PACKET_LEN_INCREMENTAL_MASK) {
+                // should scan for EOL char
+                this.incrementOnLineTerm = true;
+                this.minLen = this.maxLen;
+            } else
+            if (nextLen > this.maxLen) {
+                // specified incremental length is greater that the maximum
+                Print.logWarn("Incremental length ["+nextLen+"] > Maximum length ["+this.maxLen+"]");
+                this.minLen = this.maxLen;
+            } else {
+                // reset minimum to next length (at least one more byte)
+                this.minLen = (nextLen > packetLen)? nextLen : (packetLen + 1);
+            }
+            return FRAME_PACKET_CONTINUE;
+
+        }
+
+        /**
+        *** Sets the expected packet length to the current length plus the number of 
+        *** remaining available bytes (following FRAME_PACKET_AVAILABLE)
+        *** @param packetLen The current packet length
+        *** @param avail     The number of additional bytes currently available
+        **/
+        public void setAvailable(int packetLen, int avail) {
+            this.actualLen = packetLen + avail; // what we've already read, plus any remaining
+            if (this.actualLen > this.maxLen) {
+                // more available bytes than the allowed maximum
+                this.actualLen = this.maxLen;
+            }
+            this.failOnEOS = false;
+        }
+
+    } // PacketFrameState
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** PacketFramer<br>
+    *** Incremental packet framing state for a single client session.  Bytes are
+    *** supplied as they become available and the framing state is retained between 
+    *** calls, so a packet may span several socket reads.  Binary packets are framed 
+    *** by the same "PacketFrameState" used by the blocking "ServerSessionThread" reader.
+    *** The packet buffer is only allocated while a packet is in progress.
+    **/
+    private class PacketFramer
+    {
+
+        private ClientPacketHandler clientHandler       = null;
+        private byte                charClass[]         = null;
+        private PacketFrameState    frame               = null;
+
+        private byte                packet[]            = null;
+        private int                 packetLen           = 0;
+        private boolean             isIdle              = true;
+
+        public PacketFramer(ClientPacketHandler clientHandler) {
+            this.clientHandler = clientHandler;
+            this.charClass     = ServerSocketThread.this._getCharClasses(null);
+            this.frame         = new PacketFrameState(this.charClass);
+            this.reset();
+        }
+
+        /* reset state for the next packet */
+        public void reset() {
+            this.packetLen = 0;
+            this.isIdle    = true;
+            this.frame.reset(this.clientHandler,
+                this._getMaximumPacketLength(),
+                this._getMinimumPacketLength(),
+                true); // TCP
+        }
+
+        /* release the packet buffer (only if no packet is in progress) */
+        public void releaseBuffer() {
+            if (this.isIdle) {
+                this.packet = null;
+            }
+        }
+
+        private int _getMaximumPacketLength() {
+            int len = (this.clientHandler != null)? this.clientHandler.getMaximumPacketLength() : 0;
+            return (len > 0)? len : ServerSocketThread.this.getMaximumPacketLength();
+        }
+
+        private int _getMinimumPacketLength() {
+            int len = (this.clientHandler != null)? this.clientHandler.getMinimumPacketLength() : 0;
+            return (len > 0)? len : ServerSocketThread.this.getMinimumPacketLength();
+        }
+
+        // --------------------------------------------------------------------
+
+        /* true if at least one byte of the next packet has been received */
+        public boolean hasPartialPacket() {
+            return !this.isIdle;
+        }
+
+        /* number of bytes currently saved in the packet */
+        public int getPacketLength() {
+            return this.packetLen;
+        }
+
+        /* true if an end-of-stream/timeout would be expected for the current packet */
+        public boolean isExpectedEOS() {
+            return !this.frame.failOnEOS;
+        }
+
+        /* returns the packet buffer (packet bytes are [0,getPacketLength()) ) */
+        public byte[] getPacketBuffer() {
+            return (this.packet != null)? this.packet : new byte[0];
+        }
+
+        /* returns the partial packet as a String suitable for logging */
+        public String getPartialPacketString() {
+            byte p[] = this.getPacketBuffer();
+            if (ServerSocketThread.this.isTextPackets()) {
+                return StringTools.toStringValue(p, 0, this.packetLen);
+            } else {
+                return "0x" + StringTools.toHexString(p, 0, this.packetLen);
+            }
+        }
+
+        private void _append(int ch) {
+            if (this.packet == null) {
+                int maxLen = this.frame.maxLen;
+                this.packet = new byte[((maxLen > 0) && (maxLen < NIO_SESSION_BUFFER_SIZE))? maxLen : NIO_SESSION_BUFFER_SIZE];
+            } else
+            if (this.packetLen >= this.packet.length) { // overflow?
+                byte newPacket[] = new byte[(this.packet.length > 0)? (this.packet.length * 2) : 1];
+                System.arraycopy(this.packet, 0, newPacket, 0, this.packetLen);
+                this.packet = newPacket;
+            }
+            this.packet[this.packetLen++] = (byte)ch;
+        }
+
+        // --------------------------------------------------------------------
+
+        /**
+        *** Adds the next received byte to the current packet
+        *** @param ch     The received byte
+        *** @param avail  The number of additional bytes currently available
+        *** @return True if the packet is complete (see "getPacket")
+        **/
+        public boolean putByte(int ch, int avail) {
+            this.isIdle = false;
+            if (ServerSocketThread.this.isTextPackets()) {
+                return this._putTextByte(ch);
+            } else {
+                return this._putBinaryByte(ch, avail);
+            }
+        }
+
+        /* ASCII: read until packet EOL (see "_readLine") */
+        private boolean _putTextByte(int ch) {
+
+            /* check special characters */
+            int cc = this.charClass[ch];
+            if (cc == CHAR_TERMINATOR) {
+                // -- end of line/packet
+                if (this.frame.inclTerm) {
+                    this._append(ch);
+                }
+                return true;
+            } else
+            if (cc != CHAR_DATA) {
+                if ((cc == CHAR_BACKSPACE) && (this.packetLen > 0)) {
+                    this.packetLen--;
+                }
+                // -- ignore this character (typically '\r'), or non-printable characters
+                return false;
+            }
+
+            /* save byte */
+            this._append(ch);
+            int maxLen = this.frame.maxLen;
+            return ((maxLen > 0) && (this.packetLen >= maxLen));
+
+        }
+
+        /* Binary: read until packet length (see "_readPacket") */
+        private boolean _putBinaryByte(int lastByte, int avail) {
+            switch (this.frame.checkByte(lastByte)) {
+                case FRAME_BYTE_IGNORE:
+                    return false;
+                case FRAME_BYTE_END:
+                    return true;
+                case FRAME_BYTE_SAVE_END:
+                    this._append(lastByte);
+                    return true;
+                default:
+                    this._append(lastByte);
+                    break;
+            }
+            switch (this.frame.checkPacket(this.packet, this.packetLen, lastByte)) {
+                case FRAME_PACKET_COMPLETE:
+                    return true;
+                case FRAME_PACKET_TRIM_END:
+                    this.packetLen--; // remove terminator
+                    return true;
+                case FRAME_PACKET_AVAILABLE:
+                    // -- read the rest of the currently available bytes (may not block here)
+                    this.frame.setAvailable(this.packetLen, avail);
+                    return (this.frame.actualLen <= this.packetLen);
+                default:
+                    return false;
+            }
+        }
+
+    } // PacketFramer
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** ServerSessionNIO<br>
+    *** Non-blocking TCP client session.  The selector thread only moves bytes between
+    *** the SocketChannel and this session's buffers.  Packet framing and all 
+    *** ClientPacketHandler callbacks are run by this session's job on the NIO worker
+    *** ThreadPool, one job at a time, so the handler sees the same sequential call 
+    *** order that it would see from a ServerSessionThread.
+    **/
+    public class ServerSessionNIO
+        implements SessionInfo, Runnable
+    {
+
+        private Object              sessLock            = new Object();
+        private Object              tcpWriteLock        = new Object();
+
+        private SocketChannel       channel             = null;
+        private SelectionKey        selKey              = null;
+        private InetAddress         inetAddr            = null;
+        private int                 remotePort          = -1;
+
+        private ClientPacketHandler clientHandler       = null;
+        private PacketFramer        framer              = null;
+        private int                 promptIndex         = 0;
+
+        /* received bytes not yet seen by the session job (guarded by 'sessLock') */
+        // -- the selector thread reads into its own shared buffer, these per-session
+        // -- buffers are only allocated while received bytes/partial packets are pending
+        private byte                recvBuff[]          = null;
+        private int                 recvLen             = 0;
+        private byte                workBuff[]          = null;
+        private boolean             readSuspended       = false;
+
+        /* pending session events (guarded by 'sessLock') */
+        private boolean             jobScheduled        = false;
+        private boolean             sessionStarted      = false;
+        private boolean             sessionEnded        = false;
+        private boolean             endOfStream         = false;
+        private IOException         readError           = null;
+        private boolean             readTimeout         = false;
+        private boolean             sessionTimeout      = false;
+        private boolean             idleInterrupt       = false;
+        private boolean             shutdown            = false;
+
+        /* pending writes (guarded by 'tcpWriteLock') */
+        private java.util.List<ByteBuffer> writeQueue   = new LinkedList<ByteBuffer>();
+        private boolean             closeAfterWrite     = false;
+        private long                closeAfterWriteMS   = 0L;
+
+        private long                sessionStartTimeMS  = 0L;
+        private long                sessionStartTime    = 0L;
+        private volatile long       sessionReceiveTime  = 0L;
+        private volatile long       readArmTimeMS       = 0L; // start of the current read wait
+        private volatile long       packetStartTimeMS   = 0L; // first byte of the current packet
+        private long                lastInterruptMS     = 0L;
+
+        private volatile long       readByteCount       = 0L;
+        private volatile long       writeByteCount      = 0L;
+
+        /**
+        *** SocketChannel session constructor
+        *** @param sc  The accepted non-blocking SocketChannel
+        **/
+        public ServerSessionNIO(SocketChannel sc) {
+            Socket sock = sc.socket();
+            this.channel            = sc;
+            this.inetAddr           = sock.getInetAddress();
+            this.remotePort         = sock.getPort();
+            this.sessionStartTimeMS = DateTime.getCurrentTimeMillis();
+            this.sessionStartTime   = DateTime.getCurrentTimeSec();
+            this.readArmTimeMS      = this.sessionStartTimeMS;
+            this.lastInterruptMS    = this.sessionStartTimeMS;
+        }
+
+        // --------------------------------------------------------------------
+        // SessionInfo interface
+
+        public Thread getSessionThread() {
+            return ServerSocketThread.this; // selector thread
+        }
+
+        public long getSessionStartTimeMS() {
+            return this.sessionStartTimeMS;
+        }
+
+        public long getSessionStartTime() {
+            return this.sessionStartTime;
+        }
+
+        public long getSessionReceiveTime() {
+            return this.sessionReceiveTime;
+        }
+
+        public int getLocalPort() {
+            return ServerSocketThread.this.getLocalPort();
+        }
+
+        public boolean isTCP() {
+            return true;
+        }
+
+        public boolean isUDP() {
+            return false;
+        }
+
+        public boolean isInputStream() {
+            return false;
+        }
+
+        public int getAvailableBytes() {
+            synchronized (this.sessLock) {
+                return this.recvLen;
+            }
+        }
+
+        public InetAddress getInetAddress() {
+            return this.inetAddr;
+        }
+
+        public int getRemotePort() {
+            return this.remotePort;
+        }
+
+        public long getReadByteCount() {
+            return this.readByteCount;
+        }
+
+        public long getWriteByteCount() {
+            return this.writeByteCount;
+        }
+
+        public boolean tcpWrite(byte data[]) {
+            // -- this is intended to be called by a external thread/handler
+            return this._tcpWrite(data);
+        }
+
+        public boolean udpWrite(byte data[]) {
+            if (LogEnable) { Print.logInfo("UDP] Ignoring TCP write: 0x%s", StringTools.toHexString(data)); }
+            return false;
+        }
+
+        public void forceCloseTCPSession() {
+            try {
+                this.channel.close();
+            } catch (IOException ioe) {
+                // -- ignore
+            }
+            synchronized (this.sessLock) {
+                this.endOfStream = true;
+            }
+            this._scheduleJob();
+        }
+
+        // --------------------------------------------------------------------
+
+        /**
+        *** Signal session to shut down
+        **/
+        public void signalShutdown() {
+            synchronized (this.sessLock) {
+                this.shutdown = true;
+            }
+            this._scheduleJob();
+        }
+
+        /* return true if shutdown in progress */
+        public boolean isShutdown() {
+            synchronized (this.sessLock) {
+                return this.shutdown;
+            }
+        }
+
+        /* schedule this session's job on the worker pool (if not already scheduled) */
+        protected void _scheduleJob() {
+            boolean run = false;
+            synchronized (this.sessLock) {
+                if (!this.jobScheduled && !this.sessionEnded) {
+                    this.jobScheduled = true;
+                    run = true;
+                }
+            }
+            if (run && !ServerSocketThread.this.nioWorkerPool.run(this)) {
+                // -- worker ThreadPool is stopping
+                Print.logWarn("Discarding client session (worker pool unavailable)");
+                synchronized (this.sessLock) {
+                    this.sessionEnded = true;
+                }
+                this._closeChannel();
+            }
+        }
+
+        /* close channel (cancels the SelectionKey), and remove from session list */
+        protected void _closeChannel() {
+            try {
+                this.channel.close();
+            } catch (IOException ioe) {
+                // -- ignore
+            }
+            synchronized (ServerSocketThread.this.nioSessionList) {
+                ServerSocketThread.this.nioSessionList.remove(this);
+            }
+        }
+
+        // --------------------------------------------------------------------
+        // selector thread
+
+        /* read available bytes from the channel */
+        protected void _selectRead(ByteBuffer readBuff) {
+
+            /* read */
+            int n = 0;
+            readBuff.clear();
+            try {
+                n = this.channel.read(readBuff);
+            } catch (IOException ioe) {
+                ServerSocketThread.this._nioApplyInterestOps(this.selKey, 0, SelectionKey.OP_READ);
+                synchronized (this.sessLock) {
+                    this.readError = ioe;
+                }
+                this._scheduleJob();
+                return;
+            }
+
+            /* end of stream? */
+            if (n < 0) {
+                // -- socket likely closed by client
+                ServerSocketThread.this._nioApplyInterestOps(this.selKey, 0, SelectionKey.OP_READ);
+                synchronized (this.sessLock) {
+                    this.endOfStream = true;
+                }
+                this._scheduleJob();
+                return;
+            } else
+            if (n == 0) {
+                return;
+            }
+
+            /* save received bytes */
+            readBuff.flip();
+            synchronized (this.sessLock) {
+                if (this.recvBuff == null) {
+                    this.recvBuff = new byte[Math.max(n, NIO_SESSION_BUFFER_SIZE)];
+                } else
+                if ((this.recvLen + n) > this.recvBuff.length) {
+                    int newSize = Math.max(this.recvBuff.length * 2, this.recvLen + n);
+                    byte newBuff[] = new byte[newSize];
+                    System.arraycopy(this.recvBuff, 0, newBuff, 0, this.recvLen);
+                    this.recvBuff = newBuff;
+                }
+                readBuff.get(this.recvBuff, this.recvLen, n);
+                this.recvLen       += n;
+                this.readByteCount += n;
+                if ((this.recvLen >= NIO_MAX_BUFFERED_BYTES) && !this.readSuspended) {
+                    // -- stop reading until the session job catches up
+                    this.readSuspended = true;
+                    ServerSocketThread.this._nioApplyInterestOps(this.selKey, 0, SelectionKey.OP_READ);
+                }
+            }
+            this._scheduleJob();
+
+        }
+
+        /* flush pending writes */
+        protected void _selectWrite() {
+            boolean close = false;
+            synchronized (this.tcpWriteLock) {
+                try {
+                    this._flushWriteQueue();
+                } catch (IOException ioe) {
+                    Print.logError("writeBytes error - " + ioe);
+                    this.writeQueue.clear();
+                }
+                if (this.writeQueue.isEmpty()) {
+                    ServerSocketThread.this._nioApplyInterestOps(this.selKey, 0, SelectionKey.OP_WRITE);
+                    close = this.closeAfterWrite;
+                }
+            }
+            if (close) {
+                this._closeChannel();
+            }
+        }
+
+        /* check for session/read timeouts */
+        protected void _checkTimeouts(long nowMS) {
+
+            /* waiting for final writes? */
+            long closeAtMS = 0L;
+            synchronized (this.tcpWriteLock) {
+                closeAtMS = this.closeAfterWrite? this.closeAfterWriteMS : 0L;
+            }
+            if (closeAtMS > 0L) {
+                if (nowMS >= closeAtMS) {
+                    this._closeChannel(); // linger timeout
+                }
+                return;
+            }
+
+            /* session/read timeouts */
+            boolean schedule = false;
+            synchronized (this.sessLock) {
+                if (this.sessionEnded) {
+                    return;
+                } else
+                if (ServerSocketThread.this.hasSessionTimeout() &&
+                    (nowMS >= (this.sessionStartTimeMS + ServerSocketThread.this.getSessionTimeout()))) {
+                    this.sessionTimeout = true;
+                    schedule = true;
+                } else {
+                    long idleTimeoutMS = ServerSocketThread.this.getIdleTimeout();
+                    long pcktTimeoutMS = ServerSocketThread.this.getPacketTimeout();
+                    long pcktStartMS   = this.packetStartTimeMS;
+                    long timeoutAtMS   = 
+                        ((pcktStartMS > 0L) && (pcktTimeoutMS > 0L))? (pcktStartMS + pcktTimeoutMS) :
+                        (idleTimeoutMS > 0L)? (this.readArmTimeMS + idleTimeoutMS) :
+                        -1L;
+                    if (timeoutAtMS <= 0L) {
+                        // -- no read timeout
+                    } else
+                    if (nowMS >= timeoutAtMS) {
+                        this.readTimeout   = true;
+                        this.readArmTimeMS = nowMS; // prevent repeat until handled
+                        schedule = true;
+                    } else
+                    if ((MinimumTimeoutIntervalMS > 0) && 
+                        ((nowMS - this.lastInterruptMS) >= MinimumTimeoutIntervalMS)) {
+                        this.lastInterruptMS = nowMS;
+                        this.idleInterrupt   = true;
+                        schedule = true;
+                    }
+                }
+            }
+            if (schedule) {
+                this._scheduleJob();
+            }
+
+        }
+
+        // --------------------------------------------------------------------
+        // worker thread
+
+        public void run() {
+            try {
+                this._runJob();
+            } catch (Throwable th) {
+                Print.logException("?", th);
+                this._endSession(th);
+            }
+        }
+
+        private void _runJob() {
+
+            /* start session */
+            if (!this.sessionStarted) {
+                this.sessionStarted = true;
+                if (!this._startSession()) {
+                    return; // session ended
+                }
+            }
+
+            /* process session events until nothing is pending */
+            for (;;) {
+                byte        data[]   = null;
+                int         dataLen  = 0;
+                boolean     eos      = false;
+                IOException rdErr    = null;
+                boolean     rdTmo    = false;
+                boolean     sessTmo  = false;
+                boolean     intr     = false;
+                boolean     shut     = false;
+                boolean     resume   = false;
+                synchronized (this.sessLock) {
+                    if ((this.recvLen <= 0) && !this.endOfStream && (this.readError == null) &&
+                        !this.readTimeout && !this.sessionTimeout && !this.idleInterrupt && !this.shutdown) {
+                        if (!this.framer.hasPartialPacket()) {
+                            // -- idle at a packet boundry, release session buffers
+                            this.recvBuff = null;
+                            this.workBuff = null;
+                            this.framer.releaseBuffer();
+                        }
+                        this.jobScheduled = false;
+                        return;
+                    }
+                    // -- swap receive/work buffers
+                    data = this.recvBuff;
+                    dataLen = this.recvLen;
+                    this.recvBuff = this.workBuff;
+                    this.recvLen = 0;
+                    this.workBuff = data;
+                    // -- collect events
+                    eos     = this.endOfStream;
+                    rdErr   = this.readError;
+                    rdTmo   = this.readTimeout;
+                    sessTmo = this.sessionTimeout;
+                    intr    = this.idleInterrupt;
+                    shut    = this.shutdown;
+                    this.readTimeout   = false;
+                    this.idleInterrupt = false;
+                    if (this.readSuspended && !eos && (rdErr == null)) {
+                        this.readSuspended = false;
+                        resume = true;
+                    }
+                }
+                if (resume) {
+                    ServerSocketThread.this._nioUpdateInterestOps(this.selKey, SelectionKey.OP_READ, 0);
+                }
+
+                /* session timeout? */
+                if (sessTmo) {
+                    SSSessionTimeoutException ste = new SSSessionTimeoutException("Session timeout");
+                    Print.logWarn(ste.getMessage());
+                    this._endSession(ste);
+                    return;
+                }
+
+                /* shutdown? */
+                if (shut) {
+                    this._endSession(null);
+                    return;
+                }
+
+                /* frame/handle received bytes */
+                if ((dataLen > 0) && !this._processBytes(data, dataLen)) {
+                    return; // session ended
+                }
+
+                /* idle timeout interrupt */
+                if (intr && (this.clientHandler != null)) {
+                    this.clientHandler.idleTimeoutInterrupt();
+                    if (this.clientHandler.getTerminateSession()) {
+                        this._endSession(null);
+                        return;
+                    }
+                }
+
+                /* read timeout? */
+                if (rdTmo && !this._handleReadTimeout()) {
+                    return; // session ended
+                }
+
+                /* read error? */
+                if (rdErr != null) {
+                    if ((this.clientHandler != null) && this.clientHandler.getTerminateSession()) {
+                        this._endSession(null);
+                    } else {
+                        Print.logError("Connection closed - " + rdErr);
+                        this._endSession(rdErr);
+                    }
+                    return;
+                }
+
+                /* end of stream? */
+                if (eos) {
+                    this._handleEndOfStream();
+                    return;
+                }
+
+            }
+        }
+
+        /* session started: notify client handler, send initial packet */
+        private boolean _startSession() {
+
+            /* remote client IP address/port */
+            if (LogEnable) { Print.logInfo("Remote client port: " + this.inetAddr + ":" + this.remotePort + " [to " + this.channel.socket().getLocalAddress() + ":" + this.getLocalPort() + "]"); }
+
+            /* client session handler (creates new instance if necessary) */
+            this.clientHandler = ServerSocketThread.this.getClientPacketHandler();
+            this.framer        = new PacketFramer(this.clientHandler);
+            if (this.clientHandler != null) {
+                this.clientHandler.setSessionInfo(this);
+                synchronized (ServerSocketThread.this.activeSessionList) {
+                    ServerSocketThread.this.activeSessionList.add(this.clientHandler);
+                }
+                this.clientHandler.sessionStarted(this.inetAddr, true, ServerSocketThread.this.isTextPackets());
+                if (this.clientHandler.getTerminateSession()) {
+                    this._endSession(null);
+                    return false;
+                }
+                try {
+                    byte initialPacket[] = this.clientHandler.getInitialPacket(); // may be null
+                    this._tcpWrite(initialPacket);
+                } catch (Throwable th) {
+                    Print.logException("?", th);
+                    this._endSession(th);
+                    return false;
+                }
+            }
+
+            /* display prompt */
+            this._writePrompt();
+            this.readArmTimeMS = DateTime.getCurrentTimeMillis();
+            return true;
+
+        }
+
+        /* frame received bytes, and handle completed packets */
+        private boolean _processBytes(byte data[], int dataLen) {
+            for (int i = 0; i < dataLen;) {
+                int ch = (int)data[i++] & 0xFF;
+                if (this.framer.putByte(ch, dataLen - i)) {
+                    if (!this._handleFramedPacket()) {
+                        return false; // session ended, discard remaining bytes
+                    }
+                } else
+                if (this.packetStartTimeMS <= 0L) {
+                    this.packetStartTimeMS = DateTime.getCurrentTimeMillis();
+                }
+            }
+            return true;
+        }
+
+        /* handle the framed packet, and reset the framer for the next packet */
+        private boolean _handleFramedPacket() {
+            try {
+                return this._handlePacket(this.framer.getPacketBuffer(), this.framer.getPacketLength());
+            } finally {
+                this.framer.reset();
+            }
+        }
+
+        /* handle a completed packet, return false if the session has ended */
+        private boolean _handlePacket(byte buff[], int lineLen) {
+            ClientPacketHandler clientHandler = this.clientHandler;
+            this.packetStartTimeMS = 0L;
+            this.readArmTimeMS     = DateTime.getCurrentTimeMillis();
+
+            /* check for requested terminate */
+            if ((clientHandler != null) && clientHandler.getTerminateSession()) {
+                this._endSession(null);
+                return false;
+            }
+
+            /* set receive time */
+            this.sessionReceiveTime = DateTime.getCurrentTimeSec();
+
+            /* send packet to listeners */
+            if (ServerSocketThread.this.hasListeners()) {
+                try {
+                    byte line[] = new byte[lineLen];
+                    System.arraycopy(buff, 0, line, 0, lineLen);
+                    ServerSocketThread.this.invokeListeners(line);
+                } catch (Throwable t) {
+                    // -- a listener can terminate this session
+                    Print.logWarn("Listener terminated: " + t);
+                    this._endSession(t);
+                    return false;
+                }
+            }
+
+            /* handle packet, and get response */
+            if (clientHandler != null) {
+                try {
+                    // -- packet is passed as a slice of the framer packet buffer
+                    byte response[] = ServerSocketThread._getHandlePacket(clientHandler, buff, 0, lineLen);
+                    if ((response != null) && (response.length > 0)) {
+                        if (LogEnable) {
+                            if (!StringTools.isPrintableASCII(response)) {
+                            Print.logInfo("TCP Resp Hex: 0x%s", StringTools.toHexString(response)); 
+                            }
+                            Print.logInfo("TCP Resp Asc: %s"  , StringTools.toStringValue(response,'.')); 
+                        }
+                        this._tcpWrite(response);
+                    }
+                    if (clientHandler.getTerminateSession()) {
+                        this._endSession(null);
+                        return false;
+                    }
+                } catch (Throwable t) {
+                    // -- the ClientPacketHandler can terminate this session
+                    Print.logException("Unexpected exception: ", t);
+                    this._endSession(null);
+                    return false;
+                }
+            }
+
+            /* display prompt */
+            this._writePrompt();
+            return true;
+
+        }
+
+        /* read timeout, return false if the session has ended */
+        private boolean _handleReadTimeout() {
+            int byteNdx = this.framer.getPacketLength();
+            if (!this.framer.hasPartialPacket() || this.framer.isExpectedEOS()) {
+                if (!this.framer.hasPartialPacket() && ServerSocketThread.this.getTerminateOnTimeout()) {
+                    // -- end of stream at normal packet boundry
+                    Print.logInfo("Read timeout [empty packet]");
+                    this._endSession(null);
+                    return false;
+                }
+                // -- timeout was expected, return what we've already read
+                return this._handleFramedPacket();
+            } else {
+                // -- this could mean a protocol error
+                SSReadTimeoutException rte = new SSReadTimeoutException("Read timeout [@ " + byteNdx + "]", byteNdx);
+                if (byteNdx > 0) {
+                    Print.logWarn("Timeout: " + this.framer.getPartialPacketString());
+                }
+                if (ServerSocketThread.this.getTerminateOnTimeout()) {
+                    Print.logWarn(rte.getMessage());
+                    this._endSession(rte);
+                    return false;
+                }
+                return this._handleFramedPacket();
+            }
+        }
+
+        /* end of stream */
+        private void _handleEndOfStream() {
+            int byteNdx = this.framer.getPacketLength();
+            if ((this.clientHandler != null) && this.clientHandler.getTerminateSession()) {
+                // -- session should be terminated (quietly fall through)
+                this._endSession(null);
+            } else
+            if (byteNdx <= 0) {
+                // -- end of stream at packet boundry
+                Print.logInfo("End of stream [empty packet]");
+                this._endSession(null);
+            } else
+            if (this.framer.isExpectedEOS()) {
+                // -- EOS was expected, handle what we've already read
+                if (this._handleFramedPacket()) {
+                    this._endSession(null);
+                }
+            } else {
+                // -- end of stream within expected packet
+                SSEndOfStreamException eos = new SSEndOfStreamException("End of stream [@ " + byteNdx + "]", byteNdx);
+                Print.logWarn("EOS: " + this.framer.getPartialPacketString());
+                Print.logError(eos.getMessage());
+                this._endSession(eos);
+            }
+        }
+
+        /* end session: final packet, notify client handler, close when writes are flushed */
+        private void _endSession(Throwable termError) {
+            synchronized (this.sessLock) {
+                if (this.sessionEnded) {
+                    return;
+                }
+                this.sessionEnded = true;
+            }
+            ClientPacketHandler clientHandler = this.clientHandler;
+
+            /* display end-of-session logging */
+            if (LogEnable) { 
+                long deltaMS = DateTime.getCurrentTimeMillis() - this.sessionStartTimeMS;
+                if ((clientHandler != null) && clientHandler.getTerminateSession()) {
+                    Print.logInfo("End of TCP session [" + deltaMS + " ms] (terminated) ..."); 
+                } else
+                if (termError != null) {
+                    Print.logInfo("End of TCP session [" + deltaMS + " ms] (error/warning) ..."); 
+                } else 
+                if (this.isShutdown()) {
+                    Print.logInfo("End of TCP session [" + deltaMS + " ms] (shutdown) ..."); 
+                } else {
+                    Print.logInfo("End of TCP session [" + deltaMS + " ms] (normal) ..."); 
+                }
+            }
+
+            /* client session terminated */
+            if (clientHandler != null) {
+                try {
+                    byte finalPacket[] = clientHandler.getFinalPacket(termError != null);
+                    this._tcpWrite(finalPacket);
+                } catch (Throwable t) {
+                    Print.logException("Final packet transmission", t);
+                }
+                clientHandler.sessionTerminated(termError, this.readByteCount, this.writeByteCount);
+                synchronized (ServerSocketThread.this.activeSessionList) {
+                    ServerSocketThread.this.activeSessionList.remove(clientHandler);
+                }
+                // -- clear the session so that it doesn't hold on to an instance of this class
+                clientHandler.setSessionInfo(null);
+            }
+
+            /* close now, or once pending writes have been flushed */
+            boolean closeNow = true;
+            synchronized (this.tcpWriteLock) {
+                if (!this.writeQueue.isEmpty() && this.channel.isOpen()) {
+                    int ltSec = ServerSocketThread.this.getLingerTimeoutSec();
+                    this.closeAfterWrite   = true;
+                    this.closeAfterWriteMS = DateTime.getCurrentTimeMillis() + ((ltSec > 0)? ((long)ltSec * 1000L) : 1000L);
+                    closeNow = false;
+                }
+            }
+            if (closeNow) {
+                this._closeChannel();
+            } else {
+                ServerSocketThread.this._nioUpdateInterestOps(this.selKey, SelectionKey.OP_WRITE, SelectionKey.OP_READ);
+            }
+
+        }
+
+        /* display prompt (if enabled) */
+        private void _writePrompt() {
+            if (!ServerSocketThread.this.getPromptEnabled()) {
+                return; // disabled by ServerSocketThread
+            } else
+            if ((this.clientHandler != null) && !this.clientHandler.getPromptEnabled()) {
+                return; // disabled by ClientPacketHandler
+            }
+            byte prompt[] = ServerSocketThread.this.getPrompt(this.promptIndex++);
+            this._tcpWrite(prompt);
+        }
+
+        // --------------------------------------------------------------------
+
+        /* write to the channel, queue any remaining bytes for the selector thread */
+        private boolean _tcpWrite(byte data[]) {
+            if ((data == null) || (data.length <= 0)) {
+                return false;
+            }
+            boolean needWrite = false;
+            synchronized (this.tcpWriteLock) { // locked to allow for asynchronous writing
+                if (!this.channel.isOpen() || this.closeAfterWrite) {
+                    return false;
+                }
+                try {
+                    if (this.writeQueue.isEmpty()) {
+                        ByteBuffer bb = ByteBuffer.wrap(data);
+                        this.channel.write(bb);
+                        if (bb.hasRemaining()) {
+                            byte rem[] = new byte[bb.remaining()];
+                            bb.get(rem);
+                            this.writeQueue.add(ByteBuffer.wrap(rem));
+                            needWrite = true;
+                        }
+                    } else {
+                        byte copy[] = new byte[data.length];
+                        System.arraycopy(data, 0, copy, 0, data.length);
+                        this.writeQueue.add(ByteBuffer.wrap(copy));
+                    }
+                    this.writeByteCount += data.length;
+                } catch (IOException ioe) {
+                    Print.logError("writeBytes error - " + ioe);
+                    return false;
+                }
+            }
+            if (needWrite) {
+                ServerSocketThread.this._nioUpdateInterestOps(this.selKey, SelectionKey.OP_WRITE, 0);
+            }
+            return true;
+        }
+
+        /* write queued buffers until empty or the socket send buffer is full ('tcpWriteLock' held) */
+        private void _flushWriteQueue() throws IOException {
+            while (!this.writeQueue.isEmpty()) {
+                ByteBuffer bb = this.writeQueue.get(0);
+                this.channel.write(bb);
+                if (bb.hasRemaining()) {
+                    break; // socket send buffer full
+                }
+                this.writeQueue.remove(0);
+            }
+        }
+
+    } // ServerSessionNIO
     
     // ------------------------------------------------------------------------
     
@@ -803,15 +803,21 @@ public class StringTools
     public static String toStringValue(byte b[], int ofs, int len, char repUnp)
     {
         if (b != null) {
-            if ((repUnp != (char)0) && !StringTools.isPrintableASCII(b,false/*inclSpace*/)) {
-                byte p[] = new byte[b.length];
-                System.arraycopy(b, 0, p, 0, b.length);
+            if ((repUnp != (char)0) && !StringTools.isPrintableASCII(b,ofs,len,false/*inclSpace*/)) {
+                // -- copy/replace only the requested range
+                ofs = _constrainOffset(ofs, b.length);
+                len = _constrainLength(ofs, len, b.length);
+                if (len <= 0) {
+                    return "";
+                }
+                byte p[] = new byte[len];
+                System.arraycopy(b, ofs, p, 0, len);
                 for (int i = 0; i < p.length; i++) {
                     if ((p[i] < 32) || (p[i] > 126)) {
                         p[i] = (byte)repUnp;
                     }
                 }
-                b = p;
+                return StringTools.toStringValue(p, 0, len);
             }
             return StringTools.toStringValue(b, ofs, len);
         } else {
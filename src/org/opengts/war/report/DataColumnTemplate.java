@@ -40,11 +40,18 @@ public abstract class DataColumnTemplate
 
     // ------------------------------------------------------------------------
 
+    /* required-fields indicating that only the primary keys are required */
+    public  static final String     NO_FIELDS[] = new String[0];
+
+    // ------------------------------------------------------------------------
+
     private String                  keyName = "";
     private String                  dftArg = null;
 
     private String                  colTitle = "";
 
+    private String                  reqFields[] = null;
+
     /**
     *** Constructor
     **/
@@ -53,6 +60,19 @@ public abstract class DataColumnTemplate
         this(key, null, null);
     }
 
+    /**
+    *** Constructor
+    *** @param key        The column key
+    *** @param reqFields  The row record (ie. EventData) fields required by this column.
+    ***                   An empty array indicates that no fields, other than the primary
+    ***                   keys, are required.
+    **/
+    public DataColumnTemplate(String key, String... reqFields) 
+    {
+        this(key, null, null);
+        this.reqFields = (reqFields != null)? reqFields : NO_FIELDS;
+    }
+
     /**
     *** Constructor
     **/
@@ -84,6 +104,16 @@ public abstract class DataColumnTemplate
 
     // ------------------------------------------------------------------------
 
+    /* return the row record fields required by this column (null if unknown) */
+    // If null, the required fields are unknown and the full record must be read.
+    // 'rptCol' may be used by overriding columns which depend on the column argument.
+    public String[] getRequiredFields(ReportColumn rptCol)
+    {
+        return this.reqFields;
+    }
+
+    // ------------------------------------------------------------------------
+
     /* return displayable help for this data column */
     public String getHelp()
     {
@@ -141,6 +141,42 @@ public abstract class DataRowTemplate
 
     // ------------------------------------------------------------------------
 
+    /* return the row record fields required by the specified columns (null if unknown) */
+    // If any column does not declare its required fields, null is returned, indicating
+    // that the full record must be read.  Columns without a template are assumed to be 
+    // record field names (see "getFieldValue").
+    public Set<String> getRequiredFields(DBFactory<?> fact, ReportColumn rptCols[])
+    {
+        if ((fact == null) || (rptCols == null)) {
+            return null;
+        }
+        Set<String> reqFlds = new HashSet<String>();
+        for (ReportColumn rc : rptCols) {
+            String key = rc.getKey();
+            DataColumnTemplate cdv = this.getColumnTemplate(key);
+            if (cdv != null) {
+                String flds[] = cdv.getRequiredFields(rc);
+                if (flds == null) {
+                    return null; // unknown
+                }
+                for (String f : flds) {
+                    reqFlds.add(f);
+                }
+            } else {
+                String K = key.startsWith("%")? key.substring(1) : key; // "%licensePlate"
+                DBField dbFld = fact.getField(K);
+                if (dbFld != null) {
+                    reqFlds.add(dbFld.getName());
+                } else {
+                    // -- not a record field (column value will be blank)
+                }
+            }
+        }
+        return reqFlds;
+    }
+
+    // ------------------------------------------------------------------------
+
     public DBDataRow.RowType getRowType(Object obj)
     {
         return DBDataRow.RowType.DETAIL;
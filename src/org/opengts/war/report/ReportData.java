@@ -71,6 +71,10 @@ public abstract class ReportData
     private static final boolean REPORT_DATA_FIELDS_ENABLED        = false;
     private static final String  PROP_reportDataFieldEnabled       = "reportDataFieldEnabled";
 
+    private static final String  PROP_projectEventDataFields       = "projectEventDataFields";
+
+    private static final String  PROP_parallelDeviceSelection      = "parallelDeviceSelection";
+
     private static final String  PROP_gpsAgeColorRange             = "gpsAgeColorRange";
     private static final String  PROP_gpsAgeColorRange_array       = "gpsAgeColorRange.array";
 
@@ -143,8 +147,7 @@ public abstract class ReportData
     
     private ReportDeviceList    deviceList          = null;
 
-    private int                 eventDataCount      = 0; // per device
-    private int                 eventMatchCount     = 0; // per device
+    private ThreadLocal<EventCounts> eventCounts    = new ThreadLocal<EventCounts>(); // per device (per thread)
     private int                 maxEventDataCount   = 0; // max device counted events
 
     private int                 rptRecordCount      = 0;
@@ -158,6 +161,9 @@ public abstract class ReportData
     private ReportHeaderGroup   rptHdrGrps[]        = null;
 
     private ReportColumn        rptColumns[]        = EMPTY_COLUMNS; // never null
+
+    private boolean             evFieldsDefined     = false;
+    private Set<String>         evFields            = null;
     
     private URIArg              refreshURL          = null;
     private URIArg              autoReportURL       = null;
@@ -1075,12 +1081,11 @@ public abstract class ReportData
         java.util.List<EventData> edList = new Vector<EventData>();
 
         /* iterate through devices */
-        this.maxEventDataCount = 0;
+        this._resetMaximumEventDataCount();
         ReportDeviceList devList = this.getReportDeviceList();
         for (Iterator i = devList.iterator(); i.hasNext();) {
             String devID = (String)i.next();
-            this.eventDataCount  = 0; // per device
-            this.eventMatchCount = 0; // per device
+            EventCounts counts = this._getEventCounts().reset(); // per device
 
             /* have we reached our limit? */
             if ((rptLimit >= 0L) && (edList.size() >= rptLimit)) {
@@ -1110,14 +1115,67 @@ public abstract class ReportData
             }
 
             /* maximum selected EventData records */
-            if (this.eventDataCount > this.maxEventDataCount) {
-                this.maxEventDataCount = this.eventDataCount;
-            }
+            this._updateMaximumEventDataCount(counts.dataCount);
 
         }
         return edList.toArray(new EventData[edList.size()]);
     }
 
+    /**
+    *** Returns an iterator over the EventData records for the predefined ReportDeviceList.
+    *** If parallel device selection is enabled, device EventData records are selected
+    *** concurrently, and streamed to the returned iterator (in ReportDeviceList order),
+    *** otherwise this method returns an iterator over "getEventData_DeviceList(null)".
+    *** @return The EventData row data iterator
+    **/
+    protected DBDataIterator getEventDataIterator_DeviceList()
+    {
+        ReportDeviceList devList = this.getReportDeviceList();
+        if (this.getParallelDeviceSelectionEnabled() && (devList.size() > 1)) {
+            return new ReportExecutor(this).getDataIterator();
+        } else {
+            EventData ed[] = this.getEventData_DeviceList(null);
+            return new ArrayDataIterator(ed); // 'EventDataLayout' expects EventData[]
+        }
+    }
+
+    /**
+    *** Returns true if this report supports selecting the EventData records for
+    *** multiple devices concurrently.  Reports which maintain state across devices
+    *** (ie. in "isEventDataMatch") must return false.
+    *** (may be overridden by the report subclass)
+    *** @return True if this report supports parallel device selection
+    **/
+    public boolean isParallelDeviceSelectionSupported()
+    {
+        return false;
+    }
+
+    /**
+    *** Returns true if parallel device selection is enabled for this report
+    *** (report property "parallelDeviceSelection")
+    **/
+    public boolean getParallelDeviceSelectionEnabled()
+    {
+        if (!ReportExecutor.isEnabled()) {
+            return false;
+        }
+        return this.getProperties().getBoolean(PROP_parallelDeviceSelection,this.isParallelDeviceSelectionSupported());
+    }
+
+    /**
+    *** Sends the EventData records for the specified Device to the record handler.
+    *** Called by ReportExecutor, possibly from multiple threads concurrently.
+    *** @param deviceDB     The Device for which EventData records will be selected
+    *** @param rcdHandler   The callback DBRecordHandler (should return DBRH_SKIP)
+    **/
+    protected void _streamEventData_Device(Device deviceDB, DBRecordHandler<EventData> rcdHandler)
+    {
+        EventCounts counts = this._getEventCounts().reset(); // per device
+        this._getEventData_Device(deviceDB, rcdHandler);
+        this._updateMaximumEventDataCount(counts.dataCount);
+    }
+
     /**
     *** Returns an array EventData records for the specified Device
     *** @param deviceDB     The Device for which EventData records will be selected
@@ -1128,10 +1186,9 @@ public abstract class ReportData
     **/
     protected EventData[] getEventData_Device(Device deviceDB, DBRecordHandler<EventData> rcdHandler)
     {
-        this.eventDataCount  = 0; // per device
-        this.eventMatchCount = 0; // per device
+        EventCounts counts = this._getEventCounts().reset(); // per device
         EventData ed[] = this._getEventData_Device(deviceDB, rcdHandler);
-        this.maxEventDataCount = this.eventDataCount;
+        this._setMaximumEventDataCount(counts.dataCount);
         return ed;
     }
 
@@ -1149,12 +1206,11 @@ public abstract class ReportData
         long timeStart, long timeEnd,
         DBRecordHandler<EventData> rcdHandler)
     {
-        this.eventDataCount  = 0; // per device
-        this.eventMatchCount = 0; // per device
+        EventCounts counts = this._getEventCounts().reset(); // per device
         long ts = (timeStart > 0L)? timeStart : this.getTimeStart();
         long te = (timeEnd   > 0L)? timeEnd   : this.getTimeEnd();
         EventData ed[] = this._getEventData_Device(deviceDB, ts, te, rcdHandler);
-        this.maxEventDataCount = this.eventDataCount;
+        this._setMaximumEventDataCount(counts.dataCount);
         return ed;
     }
 
@@ -1169,9 +1225,105 @@ public abstract class ReportData
         return true;
     }
 
+    // ------------------------------------------------------------------------
+    // EventData field projection
+
+    /**
+    *** Returns true if this report supports reading only the EventData fields required 
+    *** by the report columns.  Reports which access EventData fields other than those 
+    *** declared by the report columns (ie. in "isEventDataMatch") must return false.
+    *** (may be overridden by the report subclass)
+    *** @return True if this report supports EventData field projection
+    **/
+    public boolean isEventDataProjectionSupported()
+    {
+        return false;
+    }
+
+    /**
+    *** Returns true if EventData field projection is enabled for this report
+    *** (report property "projectEventDataFields")
+    **/
+    public boolean getEventDataProjectionEnabled()
+    {
+        return this.getProperties().getBoolean(PROP_projectEventDataFields,this.isEventDataProjectionSupported());
+    }
+
+    /**
+    *** Explicitly sets the EventData fields to read, overriding the fields declared by 
+    *** the report columns (ie. when the report is displayed on a map).
+    *** @param flds  The EventData fields to read, or null to read all fields
+    **/
+    public void setEventDataFields(Set<String> flds)
+    {
+        this.evFieldsDefined = true;
+        this.evFields        = flds;
+    }
+
+    /**
+    *** Gets the EventData fields to read for this report, or null if all fields
+    *** are to be read.
+    **/
+    public Set<String> getEventDataFields()
+    {
+
+        /* required fields */
+        Set<String> flds;
+        if (this.evFieldsDefined) {
+            // -- explicitly defined
+            if (this.evFields == null) {
+                return null;
+            }
+            flds = new HashSet<String>(this.evFields);
+        } else
+        if (!this.getEventDataProjectionEnabled()) {
+            // -- projection not supported/enabled
+            return null;
+        } else {
+            // -- declared by the report columns
+            DataRowTemplate drt = this.getDataRowTemplate();
+            flds = (drt != null)? drt.getRequiredFields(EventData.getFactory(), this.getReportColumns()) : null;
+            if (flds == null) {
+                // -- at least one column has not declared its required fields
+                return null;
+            }
+        }
+
+        /* a rule selector may reference any field */
+        if (!StringTools.isBlank(this.getRuleSelector())) {
+            return null;
+        }
+
+        /* report distance */
+        flds.add(EventData.FLD_latitude);
+        flds.add(EventData.FLD_longitude);
+        return flds;
+
+    }
+
     // ------------------------------------------------------------------------
     // read EventData records (based on Device)
 
+    // -- EventData counts for the current device
+    // -  kept per thread, since devices may be selected concurrently (see ReportExecutor)
+    protected static class EventCounts
+    {
+        public int dataCount  = 0;
+        public int matchCount = 0;
+        public EventCounts reset() { this.dataCount = 0; this.matchCount = 0; return this; }
+    }
+
+    /* return the EventData counts for the current thread */
+    protected EventCounts _getEventCounts()
+    {
+        EventCounts counts = this.eventCounts.get();
+        if (counts == null) {
+            counts = new EventCounts();
+            this.eventCounts.set(counts);
+        }
+        return counts;
+    }
+
     private static class LastEventData
     {
         private EventData event = null;
@@ -1236,10 +1388,11 @@ public abstract class ReportData
 
         /* create record handler */
         final LastEventData lastEDR = new LastEventData(); 
+        final EventCounts counts = this._getEventCounts();
         DBRecordHandler<EventData> evRcdHandler = new DBRecordHandler<EventData>() {
             public int handleDBRecord(EventData rcd) throws DBException {
                 //Print.logInfo("Read EventData: " + rcd);
-                ReportData.this.eventDataCount++;
+                counts.dataCount++;
                 EventData ev = rcd;
                 if (deviceDB != null) {
                     ev.setDevice(deviceDB);
@@ -1267,7 +1420,7 @@ public abstract class ReportData
                     return DBRH_SKIP;
                 }
                 // -- mark device as having had a match?
-                ReportData.this.eventMatchCount++;
+                counts.matchCount++;
                 // -  TODO:
                 // -- check RecordHandler
                 if (rcdHandler == null) {
@@ -1299,6 +1452,7 @@ public abstract class ReportData
                 this.getValidGPSRequired(),
                 this.getSelectionLimitType(), this.getSelectionLimit(), this.getOrderAscending(),
                 addtlWhereSelect,
+                this.getEventDataFields(),
                 evRcdHandler);
         } catch (DBException dbe) {
             Print.logException("Unable to obtain EventData records", dbe);
@@ -1324,7 +1478,7 @@ public abstract class ReportData
     **/
     public long getEventDataCount()
     {
-        return (long)this.eventDataCount;
+        return (long)this._getEventCounts().dataCount;
     }
 
     /**
@@ -1332,17 +1486,37 @@ public abstract class ReportData
     **/
     public long getEventMatchCount()
     {
-        return (long)this.eventMatchCount;
+        return (long)this._getEventCounts().matchCount;
     }
 
     /**
     *** Return the largest counted EventData records from the last query for a single device 
     **/
-    public long getMaximumEventDataCount()
+    public synchronized long getMaximumEventDataCount()
     {
         return (long)this.maxEventDataCount;
     }
 
+    /* reset the largest counted EventData records */
+    protected synchronized void _resetMaximumEventDataCount()
+    {
+        this.maxEventDataCount = 0;
+    }
+
+    /* set the largest counted EventData records */
+    protected synchronized void _setMaximumEventDataCount(int count)
+    {
+        this.maxEventDataCount = count;
+    }
+
+    /* update the largest counted EventData records */
+    protected synchronized void _updateMaximumEventDataCount(int count)
+    {
+        if (count > this.maxEventDataCount) {
+            this.maxEventDataCount = count;
+        }
+    }
+
     /**
     *** Returns the count of EventData records based on the EventData constraints 
     **/
@@ -0,0 +1,413 @@
+// ----------------------------------------------------------------------------
+// Copyright 2007-2015, GeoTelematic Solutions, Inc.
+// All rights reserved
+// ----------------------------------------------------------------------------
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+//
+// ----------------------------------------------------------------------------
+// Description:
+//  Concurrent, streaming EventData selection for multi-device reports
+// ----------------------------------------------------------------------------
+package org.opengts.war.report;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.opengts.util.*;
+import org.opengts.dbtools.*;
+
+import org.opengts.db.*;
+import org.opengts.db.tables.*;
+
+/**
+*** <code>ReportExecutor</code> selects the EventData records for the devices in a
+*** ReportDeviceList concurrently (on a shared, bounded ThreadPool), and streams the
+*** selected records to a DBDataIterator in ReportDeviceList order.<br>
+*** At most "Report.executor.activeDevices" devices are selected concurrently for a
+*** single report, and at most "Report.executor.deviceBufferSize" EventData records
+*** are buffered for each active device, so a report over a large device group does not
+*** need to hold the entire result in memory.  The report limit ("getReportLimit()") is
+*** applied to the streamed records, and any remaining device selections are cancelled
+*** once the limit has been reached, or when the iterator is explicitly cancelled (ie.
+*** when the client disconnects, or the report body has been written).<br>
+*** Device selections run with the temporary RTProperties of the thread which created
+*** the ReportExecutor.  If the ThreadPool queue is full, the next device selection is
+*** deferred until one of this report's active selections completes.
+**/
+
+public class ReportExecutor
+{
+
+    // ------------------------------------------------------------------------
+
+    // Report.ThreadPool.ReportExecutor.maximumPoolSize=8
+    // Report.ThreadPool.ReportExecutor.maximumIdleSeconds=0
+    // Report.ThreadPool.ReportExecutor.maximumQueueSize=0
+    private static final RTKey PROP_ThreadPool_ReportExecutor_   = RTKey.valueOf(RTKey.ThreadPool_ReportExecutor_);
+    private static final int   ThreadPool_ReportExecutor_Size    =  8;   // max threads
+    private static final int   ThreadPool_ReportExecutor_IdleSec = 60;   // trim idle threads
+    private static final int   ThreadPool_ReportExecutor_QueSize =  0;   // max queue size
+    private static ThreadPool  ThreadPool_ReportExecutor         = null;
+
+    /**
+    *** Gets the shared ReportExecutor ThreadPool
+    **/
+    private static ThreadPool _getThreadPool()
+    {
+        synchronized (ReportExecutor.class) {
+            if (ThreadPool_ReportExecutor == null) {
+                ThreadPool_ReportExecutor = new ThreadPool(
+                    "ReportExecutor",
+                    PROP_ThreadPool_ReportExecutor_, // property allowing default override
+                    ThreadPool_ReportExecutor_Size,
+                    ThreadPool_ReportExecutor_IdleSec,
+                    ThreadPool_ReportExecutor_QueSize);
+            }
+            return ThreadPool_ReportExecutor;
+        }
+    }
+
+    /**
+    *** Returns true if concurrent device selection is enabled (ie. the ReportExecutor
+    *** ThreadPool, and the number of active devices per report, are both greater than 1)
+    **/
+    public static boolean isEnabled()
+    {
+        if (RTConfig.getInt(RTKey.REPORT_EXECUTOR_ACTIVE_DEVICES,4) <= 1) {
+            return false;
+        }
+        return (ReportExecutor._getThreadPool().getMaxPoolSize() > 1);
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Implemented by DBDataIterators which may be cancelled before all rows are read
+    **/
+    public interface Cancelable
+    {
+        public void cancel();
+        public boolean isCancelled();
+    }
+
+    /**
+    *** Cancels the specified DBDataIterator, if it is Cancelable
+    *** @param data  The DBDataIterator
+    **/
+    public static void cancel(DBDataIterator data)
+    {
+        if (data instanceof Cancelable) {
+            ((Cancelable)data).cancel();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final Object END_OF_DEVICE = new Object();
+
+    /**
+    *** Selects the EventData records for a single device, into a bounded buffer
+    **/
+    private class DeviceTask
+        implements Runnable
+    {
+        private String                devID  = null;
+        private Device                device = null;
+        private BlockingQueue<Object> buffer = null;
+        public DeviceTask(String devID, Device device) {
+            this.devID  = devID;
+            this.device = device;
+            this.buffer = new ArrayBlockingQueue<Object>(ReportExecutor.this.bufferSize);
+        }
+        public String getDeviceID() {
+            return this.devID;
+        }
+        public void run() {
+            try {
+                ReportExecutor.this._pushTemporaryProperties();
+                if ((this.device != null) && !ReportExecutor.this.isCancelled()) {
+                    ReportExecutor.this.report._streamEventData_Device(this.device,
+                        new DBRecordHandler<EventData>() {
+                            public int handleDBRecord(EventData ev) throws DBException {
+                                if (!DeviceTask.this._put(ev)) {
+                                    return DBRH_STOP; // cancelled
+                                }
+                                return DBRH_SKIP; // streamed, do not accumulate
+                            }
+                        });
+                }
+            } catch (Throwable th) {
+                Print.logException("Error retrieving EventData for Device: " + this.devID, th);
+            } finally {
+                ReportExecutor.this._popTemporaryProperties();
+                this._put(END_OF_DEVICE);
+            }
+        }
+        private boolean _put(Object obj) {
+            long maxStallMS = ReportExecutor.this.maxStallMS;
+            long startMS    = System.currentTimeMillis();
+            try {
+                while (!ReportExecutor.this.isCancelled()) {
+                    if (this.buffer.offer(obj, 500L, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                    if ((System.currentTimeMillis() - startMS) > maxStallMS) {
+                        // -- the reader has abandoned this report
+                        Print.logWarn("Report reader stalled, cancelling: " + ReportExecutor.this.report.getReportName());
+                        ReportExecutor.this.cancel();
+                    }
+                }
+            } catch (InterruptedException ie) {
+                ReportExecutor.this.cancel();
+            }
+            return false;
+        }
+        public Object take() throws InterruptedException {
+            while (!ReportExecutor.this.isCancelled()) {
+                Object obj = this.buffer.poll(500L, TimeUnit.MILLISECONDS);
+                if (obj != null) {
+                    return obj;
+                }
+            }
+            return END_OF_DEVICE;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    private ReportData              report          = null;
+    private Iterator<String>        devIDIter       = null;
+    private ReportDeviceList        devList         = null;
+
+    private int                     activeDevices   = 4;
+    private int                     bufferSize      = 500;
+    private long                    maxStallMS      = 300000L;
+    private long                    rptLimit        = -1L;
+
+    private RTProperties            tempProps[]     = null;
+
+    private LinkedList<DeviceTask>  tasks           = new LinkedList<DeviceTask>();
+    private DeviceTask              pendingTask     = null; // rejected by the ThreadPool
+    private long                    pendingMS       = 0L;
+    private long                    rowCount        = 0L;
+    private volatile boolean        cancelled       = false;
+
+    /**
+    *** Constructor
+    *** @param rd  The ReportData for which EventData records will be selected
+    **/
+    public ReportExecutor(ReportData rd)
+    {
+        this.report        = rd;
+        this.devList       = rd.getReportDeviceList();
+        this.devIDIter     = this.devList.iterator();
+        this.activeDevices = Math.max(RTConfig.getInt(RTKey.REPORT_EXECUTOR_ACTIVE_DEVICES,4), 1);
+        this.bufferSize    = Math.max(RTConfig.getInt(RTKey.REPORT_EXECUTOR_BUFFER_SIZE,500), 1);
+        this.maxStallMS    = Math.max(RTConfig.getLong(RTKey.REPORT_EXECUTOR_MAX_STALL_SEC,300L), 1L) * 1000L;
+        this.rptLimit      = rd.getReportLimit();
+        this.tempProps     = RTConfig.getTemporaryPropertiesStack(); // request properties
+    }
+
+    /**
+    *** Pushes the temporary RTProperties of the creating thread onto the current thread
+    **/
+    private void _pushTemporaryProperties()
+    {
+        if (this.tempProps != null) {
+            for (int i = 0; i < this.tempProps.length; i++) {
+                RTConfig.pushTemporaryProperties(this.tempProps[i]);
+            }
+        }
+    }
+
+    /**
+    *** Pops the temporary RTProperties pushed by "_pushTemporaryProperties"
+    **/
+    private void _popTemporaryProperties()
+    {
+        if (this.tempProps != null) {
+            for (int i = this.tempProps.length - 1; i >= 0; i--) {
+                RTConfig.popTemporaryProperties(this.tempProps[i]);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Cancels all remaining device selections
+    **/
+    public void cancel()
+    {
+        this.cancelled = true;
+    }
+
+    /**
+    *** Returns true if this executor has been cancelled
+    **/
+    public boolean isCancelled()
+    {
+        return this.cancelled;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static final long SUBMIT_RETRY_MS = 250L;
+
+    /**
+    *** Submits device selections until "activeDevices" devices are queued/active.
+    *** If the ThreadPool queue is full, the device selection is resubmitted once an
+    *** active selection for this report completes (or, if none are active, after
+    *** waiting for space in the ThreadPool queue).
+    **/
+    private void _submitTasks()
+        throws InterruptedException
+    {
+        while (!this.isCancelled() && (this.tasks.size() < this.activeDevices)) {
+            DeviceTask task = this.pendingTask;
+            if (task == null) {
+                if (!this.devIDIter.hasNext()) {
+                    break;
+                }
+                String devID  = this.devIDIter.next();
+                Device device = null;
+                try {
+                    device = this.devList.getDevice(devID);
+                } catch (DBException dbe) {
+                    Print.logError("Error retrieving EventData for Device: " + devID);
+                }
+                task = new DeviceTask(devID, device);
+            }
+            if (ReportExecutor._getThreadPool().run(task)) {
+                this.tasks.add(task);
+                this.pendingTask = null;
+                this.pendingMS   = 0L;
+                continue;
+            }
+            // -- ThreadPool queue is full, defer this device
+            if (this.pendingTask == null) {
+                this.pendingTask = task;
+                this.pendingMS   = System.currentTimeMillis();
+                Print.logWarn("ReportExecutor queue full, deferring device: " + task.getDeviceID());
+            }
+            if (!this.tasks.isEmpty()) {
+                break; // resubmit after an active selection completes
+            } else
+            if ((System.currentTimeMillis() - this.pendingMS) > this.maxStallMS) {
+                Print.logError("ReportExecutor queue full, cancelling: " + this.report.getReportName());
+                this.cancel();
+                break;
+            }
+            Thread.sleep(SUBMIT_RETRY_MS);
+        }
+    }
+
+    /**
+    *** Returns the next streamed EventData record, or null if there are no more records
+    **/
+    private EventData _nextEvent()
+    {
+        try {
+            for (;;) {
+                if (this.isCancelled()) {
+                    return null;
+                } else
+                if ((this.rptLimit >= 0L) && (this.rowCount >= this.rptLimit)) {
+                    // -- report limit reached, cancel remaining selections
+                    this.cancel();
+                    return null;
+                }
+                this._submitTasks();
+                DeviceTask task = this.tasks.peek();
+                if (task == null) {
+                    // -- all devices complete
+                    return null;
+                }
+                Object obj = task.take();
+                if (obj == END_OF_DEVICE) {
+                    this.tasks.poll();
+                    continue;
+                }
+                this.rowCount++;
+                return (EventData)obj;
+            }
+        } catch (InterruptedException ie) {
+            this.cancel();
+            return null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+    /**
+    *** Gets the DBDataIterator over the streamed EventData records
+    **/
+    public DBDataIterator getDataIterator()
+    {
+        return new StreamDataIterator();
+    }
+
+    /**
+    *** DBDataIterator over the streamed EventData records
+    **/
+    private class StreamDataIterator
+        implements DBDataIterator, Cancelable
+    {
+        private Object    dataObj  = null;
+        private Object    nextObj  = null;
+        private DBDataRow dataRow  = null;
+        public StreamDataIterator() {
+            final ReportData rd = ReportExecutor.this.report;
+            this.dataRow = new DBDataRowAdapter(rd) {
+                public Object getRowObject() {
+                    return StreamDataIterator.this.dataObj;
+                }
+                public Object getDBValue(String name, int rowNdx, ReportColumn rptCol) {
+                    Object obj = StreamDataIterator.this.dataObj;
+                    if (obj != null) {
+                        DataRowTemplate drt = rd.getDataRowTemplate();
+                        return drt.getFieldValue(name, rowNdx, rd, rptCol, obj); // DataRowTemplate.getFieldValue
+                    } else {
+                        return "";
+                    }
+                }
+            };
+        }
+        public boolean hasNext() {
+            if (this.nextObj == null) {
+                this.nextObj = ReportExecutor.this._nextEvent();
+            }
+            return (this.nextObj != null);
+        }
+        public DBDataRow next() {
+            if (this.hasNext()) {
+                this.dataObj = this.nextObj;
+                this.nextObj = null;
+                return this.dataRow;
+            } else {
+                this.dataObj = null;
+                return null;
+            }
+        }
+        public void cancel() {
+            ReportExecutor.this.cancel();
+        }
+        public boolean isCancelled() {
+            return ReportExecutor.this.isCancelled();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+
+}
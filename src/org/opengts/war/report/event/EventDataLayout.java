@@ -522,7 +522,7 @@ public class EventDataLayout
             super();
 
             // -- Index
-            this.addColumnTemplate(new DataColumnTemplate(DATA_INDEX) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_INDEX, EventData.FLD_latitude, EventData.FLD_longitude) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     if (rowNdx >= 0) {
                         String arg = rc.getArg();
@@ -807,7 +807,7 @@ public class EventDataLayout
             });
 
             // -- Device-ID
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_ID) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_ID, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -838,7 +838,7 @@ public class EventDataLayout
             });
 
             // -- Device IMEI 
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_IMEI) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_IMEI, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -859,7 +859,7 @@ public class EventDataLayout
             });
 
             // -- Device Mobile ID (value following UniqueID prefix)
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_MODEM_ID) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_MODEM_ID, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -880,7 +880,7 @@ public class EventDataLayout
             });
 
             // -- Device Description
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_DESC) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_DESC, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -901,7 +901,7 @@ public class EventDataLayout
             });
 
             // -- Device Display Name
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_NAME) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_NAME, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -922,7 +922,7 @@ public class EventDataLayout
             });
 
             // -- Device Battery-Level
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_BATTERY) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_BATTERY, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -956,7 +956,7 @@ public class EventDataLayout
             });
 
             // -- Device VehicleID
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_VIN) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_VIN, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -974,7 +974,7 @@ public class EventDataLayout
             });
 
             // -- Device License Plate
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_LICENSE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_LICENSE, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -995,7 +995,7 @@ public class EventDataLayout
             });
 
             // -- Device creation date/time
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_CREATION) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DEVICE_CREATION, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String fmtArg = rc.getArg();
                     EventData  ed = (EventData)obj;
@@ -1020,7 +1020,7 @@ public class EventDataLayout
             });
 
             // -- (Preferred) Group-ID
-            this.addColumnTemplate(new DataColumnTemplate(DATA_GROUP_ID) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_GROUP_ID, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1039,7 +1039,7 @@ public class EventDataLayout
             });
 
             // -- Event timestamp Date/Time
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DATE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DATE, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1061,7 +1061,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.date","Date");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_TIME) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_TIME, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1082,7 +1082,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.time","Time");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DATETIME) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DATETIME, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String fmtArg = rc.getArg();
                     EventData  ed = (EventData)obj;
@@ -1103,7 +1103,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.dateTime","Date/Time") + "\n${timezone}";
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_TIMESTAMP) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_TIMESTAMP, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1117,7 +1117,7 @@ public class EventDataLayout
             });
 
             // -- Event creation Date/Time
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_DATE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_DATE, EventData.FLD_creationTime) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1142,7 +1142,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.createDate","Insert\nDate");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_TIME) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_TIME, EventData.FLD_creationTime) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1167,7 +1167,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.createTime","insert\nTime");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_DATETIME) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_DATETIME, EventData.FLD_creationTime) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String fmtArg = rc.getArg();
                     EventData  ed = (EventData)obj;
@@ -1191,7 +1191,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.createDateTime","Insert\nDate/Time") + "\n${timezone}";
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_TIMESTAMP) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_TIMESTAMP, EventData.FLD_creationTime) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1206,7 +1206,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.createTimestamp","Insert\nTimestamp") + "\n(Epoch)";
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_AGE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_AGE, EventData.FLD_creationTime) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1222,7 +1222,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.createAge","Creation Age");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_MILLIS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CREATE_MILLIS, EventData.FLD_creationMillis) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1245,7 +1245,7 @@ public class EventDataLayout
             });
 
             // -- Status Code/Description
-            this.addColumnTemplate(new DataColumnTemplate(DATA_STATUS_CODE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_STATUS_CODE, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String   arg = StringTools.trim(rc.getArg()).toLowerCase();
                     EventData ed = (EventData)obj;
@@ -1282,7 +1282,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.statusCode","Status#");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_STATUS_DESC) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_STATUS_DESC, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1339,7 +1339,7 @@ public class EventDataLayout
             });
 
             // -- Entity ID
-            this.addColumnTemplate(new DataColumnTemplate(DATA_ENTITY_ID) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_ENTITY_ID, EventData.FLD_entityID) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1367,7 +1367,7 @@ public class EventDataLayout
             });
 
             // -- Driver
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DRIVER_ID) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DRIVER_ID, EventData.FLD_driverID) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1434,7 +1434,7 @@ public class EventDataLayout
             });
 
             // -- Driver Message
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DRIVER_MESSAGE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DRIVER_MESSAGE, EventData.FLD_driverMessage) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1820,7 +1820,7 @@ public class EventDataLayout
             */
 
             // -- GPS Age
-            this.addColumnTemplate(new DataColumnTemplate(DATA_GPS_AGE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_GPS_AGE, EventData.FLD_gpsAge) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1846,7 +1846,7 @@ public class EventDataLayout
             });
 
             // -- Latitude
-            this.addColumnTemplate(new DataColumnTemplate(DATA_LATITUDE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_LATITUDE, EventData.FLD_latitude, EventData.FLD_gpsAge) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1889,7 +1889,7 @@ public class EventDataLayout
             });
             
             // -- Longitude
-            this.addColumnTemplate(new DataColumnTemplate(DATA_LONGITUDE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_LONGITUDE, EventData.FLD_longitude, EventData.FLD_gpsAge) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -1932,7 +1932,7 @@ public class EventDataLayout
             });
 
             // -- Latitude/Longitude
-            this.addColumnTemplate(new DataColumnTemplate(DATA_GEOPOINT) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_GEOPOINT, EventData.FLD_latitude, EventData.FLD_longitude, EventData.FLD_gpsAge) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2000,7 +2000,7 @@ public class EventDataLayout
             });
 
             // -- GPS Fix Status (bitmask defined by DCS)
-            this.addColumnTemplate(new DataColumnTemplate(DATA_GPSFIX_STATUS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_GPSFIX_STATUS, EventData.FLD_gpsFixStatus) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = StringTools.trim(rc.getArg()).toLowerCase();
                     EventData ed = (EventData)obj;
@@ -2025,7 +2025,7 @@ public class EventDataLayout
             });
 
             // -- Accuracy
-            this.addColumnTemplate(new DataColumnTemplate(DATA_ACCURACY) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_ACCURACY, EventData.FLD_horzAccuracy) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2046,7 +2046,7 @@ public class EventDataLayout
             });
 
             // -- Altitude
-            this.addColumnTemplate(new DataColumnTemplate(DATA_ALTITUDE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_ALTITUDE, EventData.FLD_altitude) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2061,7 +2061,7 @@ public class EventDataLayout
             });
 
             // -- Speed Limit (posted speed)
-            this.addColumnTemplate(new DataColumnTemplate(DATA_SPEED_LIMIT) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_SPEED_LIMIT, EventData.FLD_speedLimitKPH) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2080,7 +2080,7 @@ public class EventDataLayout
                 }
             });
             // -- Over Speed Limit (posted speed)
-            this.addColumnTemplate(new DataColumnTemplate(DATA_OVER_SPEED_LIMIT) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_OVER_SPEED_LIMIT, EventData.FLD_speedKPH, EventData.FLD_speedLimitKPH) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2101,7 +2101,7 @@ public class EventDataLayout
                 }
             });
             // -- Speed
-            this.addColumnTemplate(new DataColumnTemplate(DATA_SPEED) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_SPEED, EventData.FLD_speedKPH) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2120,7 +2120,7 @@ public class EventDataLayout
                 }
             });
             // -- Speed/Heading
-            this.addColumnTemplate(new DataColumnTemplate(DATA_SPEED_HEADING) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_SPEED_HEADING, EventData.FLD_speedKPH, EventData.FLD_heading) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2144,7 +2144,7 @@ public class EventDataLayout
                 }
             });
             // -- Speed with units
-            this.addColumnTemplate(new DataColumnTemplate(DATA_SPEED_UNITS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_SPEED_UNITS, EventData.FLD_speedKPH, EventData.FLD_heading) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2170,7 +2170,7 @@ public class EventDataLayout
             });
 
             // -- Heading
-            this.addColumnTemplate(new DataColumnTemplate(DATA_HEADING) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_HEADING, EventData.FLD_speedKPH, EventData.FLD_heading) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2192,7 +2192,7 @@ public class EventDataLayout
             });
 
             // -- #Satellites
-            this.addColumnTemplate(new DataColumnTemplate(DATA_SATELLITES) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_SATELLITES, EventData.FLD_satelliteCount) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2210,7 +2210,7 @@ public class EventDataLayout
             });
 
             // -- Distance
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DISTANCE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DISTANCE, EventData.FLD_distanceKM) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2228,7 +2228,7 @@ public class EventDataLayout
             });
 
             // -- Odometer
-            this.addColumnTemplate(new DataColumnTemplate(DATA_ODOMETER) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_ODOMETER, EventData.FLD_odometerKM, EventData.FLD_distanceKM) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String   arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2251,7 +2251,7 @@ public class EventDataLayout
             });
 
             // -- Report distance
-            this.addColumnTemplate(new DataColumnTemplate(DATA_REPORT_DISTANCE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_REPORT_DISTANCE, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2327,7 +2327,7 @@ public class EventDataLayout
             */
 
             // -- Cell Latitude
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CELL_LATITUDE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CELL_LATITUDE, EventData.FLD_cellLatitude) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2358,7 +2358,7 @@ public class EventDataLayout
             });
             
             // -- Cell Longitude
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CELL_LONGITUDE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CELL_LONGITUDE, EventData.FLD_cellLongitude) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2389,7 +2389,7 @@ public class EventDataLayout
             });
 
             // -- Cell Latitude/Longitude
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CELL_GEOPOINT) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CELL_GEOPOINT, EventData.FLD_cellLatitude, EventData.FLD_cellLongitude) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2431,7 +2431,7 @@ public class EventDataLayout
             });
 
             // -- Cell Accuracy
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CELL_ACCURACY) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CELL_ACCURACY, EventData.FLD_cellAccuracy) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2578,7 +2578,7 @@ public class EventDataLayout
             });
 
             // -- Input Mask/State
-            this.addColumnTemplate(new DataColumnTemplate(DATA_INPUT_STATE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_INPUT_STATE, EventData.FLD_inputMask) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = StringTools.trim(rc.getArg()).toLowerCase();
                     EventData ed = (EventData)obj;
@@ -2599,7 +2599,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.inputBitMask","Inputs\n(BitMask)");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_INPUT_BIT) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_INPUT_BIT, EventData.FLD_inputMask) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     int argBit = StringTools.parseInt(rc.getArg(),0);
                     EventData ed = (EventData)obj;
@@ -2620,7 +2620,7 @@ public class EventDataLayout
             });
 
             // -- Output Mask/State
-            this.addColumnTemplate(new DataColumnTemplate(DATA_OUTPUT_STATE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_OUTPUT_STATE, EventData.FLD_outputMask) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2636,7 +2636,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.outputBitMask","Outputs\n(BitMask)");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_OUTPUT_BIT) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_OUTPUT_BIT, EventData.FLD_outputMask) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     int argBit = StringTools.parseInt(rc.getArg(),0);
                     EventData ed = (EventData)obj;
@@ -2768,7 +2768,7 @@ public class EventDataLayout
             });
 
             // -- Geozone-ID
-            this.addColumnTemplate(new DataColumnTemplate(DATA_GEOZONE_ID) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_GEOZONE_ID, EventData.FLD_geozoneID) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2781,7 +2781,7 @@ public class EventDataLayout
             });
 
             // -- Geozone Description
-            this.addColumnTemplate(new DataColumnTemplate(DATA_GEOZONE_DESC) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_GEOZONE_DESC, EventData.FLD_geozoneID) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = StringTools.trim(rc.getArg());
                     EventData ed = (EventData)obj;
@@ -2801,7 +2801,7 @@ public class EventDataLayout
             });
 
             // -- Address
-            this.addColumnTemplate(new DataColumnTemplate(DATA_ADDRESS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_ADDRESS, EventData.FLD_address) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2822,7 +2822,7 @@ public class EventDataLayout
             });
             
             // -- City
-            this.addColumnTemplate(new DataColumnTemplate(DATA_CITY) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_CITY, EventData.FLD_city) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2835,7 +2835,7 @@ public class EventDataLayout
             });
             
             // -- State/Province
-            this.addColumnTemplate(new DataColumnTemplate(DATA_STATE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_STATE, EventData.FLD_stateProvince) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2848,7 +2848,7 @@ public class EventDataLayout
             });
 
             // -- Country
-            this.addColumnTemplate(new DataColumnTemplate(DATA_COUNTRY) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_COUNTRY, EventData.FLD_country) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2861,7 +2861,7 @@ public class EventDataLayout
             });
 
             // -- Subdivision
-            this.addColumnTemplate(new DataColumnTemplate(DATA_SUBDIVISION) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_SUBDIVISION, EventData.FLD_subdivision) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -2894,7 +2894,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.barometer","Barometer") + "\nmmHg";
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_AMBIENT_TEMP) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_AMBIENT_TEMP, EventData.FLD_ambientTemp) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -3036,7 +3036,7 @@ public class EventDataLayout
             });
 
             // -- Battery level (% or volts?)
-            this.addColumnTemplate(new DataColumnTemplate(DATA_BATTERY) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_BATTERY, EventData.FLD_batteryLevel, EventData.FLD_batteryVolts) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -3062,7 +3062,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.BatteryLevel","Battery\nLevel");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_BATTERY_VOLTS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_BATTERY_VOLTS, EventData.FLD_batteryVolts) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -3078,7 +3078,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.BatteryVolts","Battery\nVolts");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_BATTERY_PERCENT) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_BATTERY_PERCENT, EventData.FLD_batteryLevel, EventData.FLD_batteryVolts) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -3096,7 +3096,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.BatteryPercent","Battery\n%");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_LAST_BATTERY_PCT) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_LAST_BATTERY_PCT, DataColumnTemplate.NO_FIELDS) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -3215,7 +3215,7 @@ public class EventDataLayout
             });
 
             // -- Fuel
-            this.addColumnTemplate(new DataColumnTemplate(DATA_FUEL_LEVEL) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_FUEL_LEVEL, EventData.FLD_fuelLevel) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -3259,7 +3259,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.fuelLevelVolume","Fuel Vol") + "\n${volumeUnits}";
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_FUEL_TOTAL) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_FUEL_TOTAL, EventData.FLD_fuelTotal) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String   arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -3346,7 +3346,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.fuelEngineOn","Engine On Fuel") + "\n${volumeUnits}";
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_FUEL_ECONOMY) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_FUEL_ECONOMY, EventData.FLD_fuelEconomy) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String   arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -3573,7 +3573,7 @@ public class EventDataLayout
             });
 
             // -- Vehicle Battery Volts
-            this.addColumnTemplate(new DataColumnTemplate(DATA_VEH_BATTERY_VOLTS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_VEH_BATTERY_VOLTS, EventData.FLD_vBatteryVolts) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String   arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -4096,7 +4096,7 @@ public class EventDataLayout
             });
 
             // -- Engine
-            this.addColumnTemplate(new DataColumnTemplate(DATA_ENGINE_RPM) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_ENGINE_RPM, EventData.FLD_engineRpm) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -4112,7 +4112,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.engineRpm","Engine\nRPM");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_ENGINE_HOURS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_ENGINE_HOURS, EventData.FLD_engineHours) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String   arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -4130,7 +4130,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.engineHours","Engine\nHours");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_ENGINE_ON_HOURS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_ENGINE_ON_HOURS, EventData.FLD_engineOnHours) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String   arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -4162,7 +4162,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.engineLoad","Engine\nLoad %");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_IDLE_HOURS) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_IDLE_HOURS, EventData.FLD_idleHours) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String   arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -4249,7 +4249,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.coolantLevel","Coolant\nLevel");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_COOLANT_TEMP) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_COOLANT_TEMP, EventData.FLD_coolantTemp) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -4649,7 +4649,7 @@ public class EventDataLayout
             });
 
             // -- DataSource/RawData (unparsed event packet)
-            this.addColumnTemplate(new DataColumnTemplate(DATA_DATA_SOURCE) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_DATA_SOURCE, EventData.FLD_dataSource) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -4660,7 +4660,7 @@ public class EventDataLayout
                     return i18n.getString("EventDataLayout.dataSource","Data Source");
                 }
             });
-            this.addColumnTemplate(new DataColumnTemplate(DATA_RAW_DATA) {
+            this.addColumnTemplate(new DataColumnTemplate(DATA_RAW_DATA, EventData.FLD_rawData) {
                 public Object getColumnValue(int rowNdx, ReportData rd, ReportColumn rc, Object obj) {
                     String arg = rc.getArg();
                     EventData ed = (EventData)obj;
@@ -118,6 +118,28 @@ public class EventDetailReport
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Returns true if this report supports reading only the EventData fields
+    *** required by the report columns
+    *** @return True if this report supports EventData field projection
+    **/
+    public boolean isEventDataProjectionSupported()
+    {
+        return true;
+    }
+
+    /**
+    *** Returns true if this report supports selecting the EventData records for
+    *** multiple devices concurrently
+    *** @return True if this report supports parallel device selection
+    **/
+    public boolean isParallelDeviceSelectionSupported()
+    {
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Gets the bound ReportLayout singleton instance for this report
     *** @return The bound ReportLayout
@@ -157,6 +179,10 @@ public class EventDetailReport
             // -- select events based on "super.getWhereSelector()" only
             // -  will return an empty array if specified "where" is null/blank
             ed = super.getEventData_Device(null/*Device*/, rcdHandler);
+        } else
+        if (rcdHandler == null) {
+            // -- select/stream events based on Devices in "super.getReportDeviceList()"
+            return super.getEventDataIterator_DeviceList();
         } else {
             // -- select events based on Devices in "super.getReportDeviceList()"
             ed = super.getEventData_DeviceList(rcdHandler);
@@ -96,6 +96,20 @@ public class ReportBody
         }
     }
 
+    private static final int CHECK_DISCONNECT_ROWS = 100;
+
+    /* return true if the client has disconnected (cancels the remaining body rows) */
+    private boolean _isClientDisconnected(PrintWriter out, DBDataIterator data, int RC)
+    {
+        // -- "checkError()" flushes the output, so only check every few rows
+        if ((((RC + 1) % CHECK_DISCONNECT_ROWS) == 0) && out.checkError()) {
+            Print.logWarn("Client disconnected, cancelling report at row " + (RC + 1));
+            ReportExecutor.cancel(data);
+            return true;
+        }
+        return false;
+    }
+
     private void _setRecordCount(ReportData rd, int count)
     {
         boolean partial = (count > 0)? this._overLimit(rd,(long)count) : false;
@@ -149,15 +163,24 @@ public class ReportBody
 
         /* report body */
         DBDataIterator data = (report != null)? report.getBodyDataIterator() : null;
-        if ((data != null) && data.hasNext()) {
-            int RC = 0;
-            for (RC = 0; data.hasNext(); RC++) {
-                DBDataRow dr = data.next();
-                if (dr != null) {
-                    this.bodyRow.writeHTML(out, level+1, RC, false/*totals*/, dr);
+        try {
+            if ((data != null) && data.hasNext()) {
+                int RC = 0;
+                for (RC = 0; data.hasNext(); RC++) {
+                    DBDataRow dr = data.next();
+                    if (dr != null) {
+                        this.bodyRow.writeHTML(out, level+1, RC, false/*totals*/, dr);
+                    }
+                    if (this._isClientDisconnected(out, data, RC)) {
+                        RC++;
+                        break;
+                    }
                 }
+                this._setRecordCount(report, RC);
             }
-            this._setRecordCount(report, RC);
+        } finally {
+            // -- stop any remaining concurrent device selection (see ReportExecutor)
+            ReportExecutor.cancel(data);
         }
 
         /* report totals */
@@ -194,15 +217,24 @@ public class ReportBody
 
         /* report body */
         DBDataIterator data = (report != null)? report.getBodyDataIterator() : null;
-        if ((data != null) && data.hasNext()) {
-            int RC = 0;
-            for (RC = 0; data.hasNext(); RC++) {
-                DBDataRow dr = data.next();
-                if (dr != null) {
-                    this.bodyRow.writeXML(out, level+1, RC, false/*totals*/, dr);
+        try {
+            if ((data != null) && data.hasNext()) {
+                int RC = 0;
+                for (RC = 0; data.hasNext(); RC++) {
+                    DBDataRow dr = data.next();
+                    if (dr != null) {
+                        this.bodyRow.writeXML(out, level+1, RC, false/*totals*/, dr);
+                    }
+                    if (this._isClientDisconnected(out, data, RC)) {
+                        RC++;
+                        break;
+                    }
                 }
+                this._setRecordCount(report, RC);
             }
-            this._setRecordCount(report, RC);
+        } finally {
+            // -- stop any remaining concurrent device selection (see ReportExecutor)
+            ReportExecutor.cancel(data);
         }
 
         /* report totals */
@@ -236,15 +268,24 @@ public class ReportBody
 
         /* report body */
         DBDataIterator data = (report != null)? report.getBodyDataIterator() : null;
-        if ((data != null) && data.hasNext()) {
-            int RC = 0;
-            for (RC = 0; data.hasNext(); RC++) {
-                DBDataRow dr = data.next();
-                if (dr != null) {
-                    this.bodyRow.writeCSV(out, level+1, RC, false/*totals*/, dr);
+        try {
+            if ((data != null) && data.hasNext()) {
+                int RC = 0;
+                for (RC = 0; data.hasNext(); RC++) {
+                    DBDataRow dr = data.next();
+                    if (dr != null) {
+                        this.bodyRow.writeCSV(out, level+1, RC, false/*totals*/, dr);
+                    }
+                    if (this._isClientDisconnected(out, data, RC)) {
+                        RC++;
+                        break;
+                    }
                 }
+                this._setRecordCount(report, RC);
             }
-            this._setRecordCount(report, RC);
+        } finally {
+            // -- stop any remaining concurrent device selection (see ReportExecutor)
+            ReportExecutor.cancel(data);
         }
 
         /* report totals */
@@ -274,16 +315,21 @@ public class ReportBody
 
         /* report body */
         DBDataIterator data = (report != null)? report.getBodyDataIterator() : null;
-        if ((data != null) && data.hasNext()) {
-            int RC = 0;
-            for (RC = 0; data.hasNext(); RC++) {
-                DBDataRow dr = data.next();
-                if (dr != null) {
-                    if (this.debugXLS) Print.logInfo("XLS: Writing Report Body Row #" + RC);
-                    this.bodyRow.writeXLS(rptSS, level+1, RC, dr);
+        try {
+            if ((data != null) && data.hasNext()) {
+                int RC = 0;
+                for (RC = 0; data.hasNext(); RC++) {
+                    DBDataRow dr = data.next();
+                    if (dr != null) {
+                        if (this.debugXLS) Print.logInfo("XLS: Writing Report Body Row #" + RC);
+                        this.bodyRow.writeXLS(rptSS, level+1, RC, dr);
+                    }
                 }
+                this._setRecordCount(report, RC);
             }
-            this._setRecordCount(report, RC);
+        } finally {
+            // -- stop any remaining concurrent device selection (see ReportExecutor)
+            ReportExecutor.cancel(data);
         }
 
         /* report totals */
@@ -321,9 +367,14 @@ public class ReportBody
 
         /* report body */
         DBDataIterator data = (rd != null)? rd.getBodyDataIterator() : null;
-        if ((data != null) && data.hasNext()) {
-            int RC = rptCB.reportBody(out, level+1, data);
-            this._setRecordCount(rd, RC);
+        try {
+            if ((data != null) && data.hasNext()) {
+                int RC = rptCB.reportBody(out, level+1, data);
+                this._setRecordCount(rd, RC);
+            }
+        } finally {
+            // -- stop any remaining concurrent device selection (see ReportExecutor)
+            ReportExecutor.cancel(data);
         }
 
         /* report totals */
@@ -168,6 +168,8 @@ public interface MapProvider
     public static final String  PROP_iconSel_fleet_legend[]     = new String[] { "iconSelector.fleet.legend"                         };  // String  (fleet icon selector legend)
 
     /* JSMap properties */
+    public static final String  PROP_map_eventDataFields[]      = new String[] { "map.eventDataFields"                               };  // String  (additional EventData fields read for map display)
+
     public static final String  PROP_javascript_src[]           = new String[] { "javascript.src"   , "javascript.include"           };  // String  (JSMap provider JS)
     public static final String  PROP_javascript_inline[]        = new String[] { "javascript.inline"                                 };  // String  (JSMap provider JS)
 
@@ -226,6 +228,14 @@ public interface MapProvider
 
     // ------------------------------------------------------------------------
 
+    /**
+    *** Gets the EventData fields required to display events on this map
+    *** @return The EventData field names, or null if all EventData fields are required
+    **/
+    public Set<String> getEventDataFields();
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Gets the maximum number of allowed pushpins on the map at one time
     *** @param reqState The session RequestProperties instance
@@ -715,6 +715,55 @@ public abstract class MapProviderAdapter
 
     // ------------------------------------------------------------------------
 
+    /* EventData fields read by the map-event formatter (see "EventUtil.formatMapEvent") */
+    private static final String MAP_EVENT_FIELDS[] = new String[] {
+        EventData.FLD_latitude,
+        EventData.FLD_longitude,
+        EventData.FLD_gpsAge,
+        EventData.FLD_speedKPH,
+        EventData.FLD_heading,
+        EventData.FLD_altitude,
+        EventData.FLD_odometerKM,
+        EventData.FLD_satelliteCount,
+        EventData.FLD_horzAccuracy,
+        EventData.FLD_inputMask,
+        EventData.FLD_address,
+        EventData.FLD_creationTime,
+        EventData.FLD_cellLatitude,
+        EventData.FLD_cellLongitude,
+        EventData.FLD_cellAccuracy,
+    };
+
+    /**
+    *** Gets the EventData fields required to display events on this map.<br>
+    *** Since the pushpin icon selector, and optional info-bubble fields, may reference
+    *** any EventData field, all fields are required (null is returned) unless property 
+    *** "map.eventDataFields" lists the additional fields referenced by this map.  A
+    *** value of "*" also indicates that all fields are required.
+    *** @return The EventData field names, or null if all EventData fields are required
+    **/
+    public Set<String> getEventDataFields()
+    {
+        RTProperties rtp = this.getProperties();
+        String addFlds[] = rtp.getStringArray(MapProvider.PROP_map_eventDataFields, null);
+        if (ListTools.isEmpty(addFlds)) {
+            return null;
+        }
+        Set<String> flds = ListTools.toSet(MAP_EVENT_FIELDS, new HashSet<String>());
+        for (String f : addFlds) {
+            f = StringTools.trim(f);
+            if (f.equals("*")) {
+                return null;
+            } else
+            if (!f.equals("")) {
+                flds.add(f);
+            }
+        }
+        return flds;
+    }
+
+    // ------------------------------------------------------------------------
+
     /**
     *** Returns the maximum number of allowed pushpins on the map
     *** @param reqState  The current session RequestProperties instance
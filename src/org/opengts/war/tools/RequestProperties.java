@@ -1424,6 +1424,10 @@ public class RequestProperties
         /* notify events only */
         boolean notifyEventsOnly = this.getDeviceNotifyEventsOnly();
 
+        /* EventData fields required by the map (null for all fields) */
+        MapProvider mapProv = this.getMapProvider();
+        Set<String> evFields = (mapProv != null)? mapProv.getEventDataFields() : null;
+
         /* selected date range */
         long startTime = this.getEventDateFromSec();
         long endTime   = this.getEventDateToSec();
@@ -1502,7 +1506,8 @@ public class RequestProperties
                         statusCodes,                // status codes
                         true,                       // validGPS (or cell lat/lon?)
                         limitType,                  // limitType (LAST)
-                        perDevLimit);               // max points
+                        perDevLimit,                // max points
+                        evFields);                  // fields (null for all)
                         // -- 'ev' already points to 'device'
                     if (ev != null) {
                         for (int e = 0; e < ev.length; e++) {
@@ -1558,7 +1563,8 @@ public class RequestProperties
                     statusCodes,                // status codes
                     true,                       // validGPS
                     limitType,                  // limitType
-                    perDevLimit);               // max points
+                    perDevLimit,                // max points
+                    evFields);                  // fields (null for all)
             } else {
                 ev = device.getRangeEvents( // may return null
                     devStartTime,               // startTime
@@ -1566,7 +1572,8 @@ public class RequestProperties
                     statusCodes,                // status codes
                     true,                       // validGPS
                     limitType,                  // limitType
-                    perDevLimit);               // max points
+                    perDevLimit,                // max points
+                    evFields);                  // fields (null for all)
             }
             // -- 'ev' already points to 'device'
 
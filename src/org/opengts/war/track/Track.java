@@ -432,6 +432,9 @@ public class Track
 
         /* display PrivateLabel */
         try {
+            // -- read-after-write replica routing follows the session, not the pooled thread
+            HttpSession rawSess = AttributeTools.getSession(request);
+            DBReplicaRouter.setReadAfterWriteKey((rawSess != null)? ("session-" + rawSess.getId()) : null);
             privLabel.pushRTProperties();
             if (hostProps != null) {
                 RTConfig.pushTemporaryProperties(hostProps);
@@ -443,6 +446,7 @@ public class Track
             //}
             //privLabel.popRTProperties();
             RTConfig.popAllTemporaryProperties();
+            DBReplicaRouter.setReadAfterWriteKey(null);
         }
 
     }
@@ -182,6 +182,9 @@ public class ReportDisplay
             throw new ReportException(i18n.getString("ReportDisplay.noMapProvider","No Map Provider defined for this URL"));
         }
 
+        /* EventData fields required by the map (null for all fields) */
+        report.setEventDataFields(mapProvider.getEventDataFields());
+
         /* write frame */
         CommonServlet.setResponseContentType(response, HTMLTools.MIME_HTML());
         PrintWriter pw = response.getWriter();
@@ -326,6 +329,9 @@ public class ReportDisplay
         PrivateLabel privLabel = reqState.getPrivateLabel();
         Account account = reqState.getCurrentAccount();
 
+        /* KML placemarks may include any EventData field */
+        report.setEventDataFields(null);
+
         /* events */
         OrderedMap<Device,java.util.List<EventData>> devMap = new OrderedMap<Device,java.util.List<EventData>>();
         for (DBDataIterator dbi = report.getBodyDataIterator(); dbi.hasNext();) {